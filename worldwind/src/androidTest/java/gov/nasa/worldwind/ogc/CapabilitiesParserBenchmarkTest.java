@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.ogc;
+
+import android.os.Debug;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import gov.nasa.worldwind.ogc.wms.WmsCapabilities;
+import gov.nasa.worldwind.ogc.wms.WmsLayer;
+import gov.nasa.worldwind.ogc.wmts.WmtsCapabilities;
+import gov.nasa.worldwind.ogc.wmts.WmtsLayer;
+import gov.nasa.worldwind.ogc.wmts.WmtsTileMatrixSet;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotNull;
+
+/**
+ * Measures parse time and allocations for large WMS and WMTS capabilities documents, parsing both the complete document
+ * and a single layer. The documents are generated in the shape of large production services: thousands of layers, each
+ * with styles, bounding boxes and keywords, and WMTS tile matrix sets with many tile matrices.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CapabilitiesParserBenchmarkTest {
+
+    protected static final String TAG = "CapabilitiesBenchmark";
+
+    protected static final int LAYER_COUNT = 2000;
+
+    protected static final int TILE_MATRIX_SET_COUNT = 40;
+
+    protected static final int TILE_MATRIX_COUNT = 25;
+
+    protected static final int ITERATIONS = 5;
+
+    protected static byte[] wmsDocument;
+
+    protected static byte[] wmtsDocument;
+
+    @BeforeClass
+    public static void setUpClass() {
+        wmsDocument = createWmsDocument(LAYER_COUNT).getBytes(Charset.forName("UTF-8"));
+        wmtsDocument = createWmtsDocument(LAYER_COUNT, TILE_MATRIX_SET_COUNT, TILE_MATRIX_COUNT).getBytes(Charset.forName("UTF-8"));
+    }
+
+    @Test
+    public void testWmsCapabilities_Complete() throws Exception {
+        WmsCapabilities capabilities = WmsCapabilities.getCapabilities(new ByteArrayInputStream(wmsDocument));
+
+        assertEquals("named layers", LAYER_COUNT, capabilities.getNamedLayers().size());
+    }
+
+    @Test
+    public void testWmsCapabilities_Selective() throws Exception {
+        String name = "layer" + (LAYER_COUNT / 2);
+        WmsCapabilities capabilities = WmsCapabilities.getCapabilities(new ByteArrayInputStream(wmsDocument),
+            Collections.singleton(name));
+
+        List<WmsLayer> namedLayers = capabilities.getNamedLayers();
+        assertEquals("named layers", 1, namedLayers.size());
+        assertEquals("layer name", name, namedLayers.get(0).getName());
+        assertEquals("layer styles", 3, namedLayers.get(0).getStyles().size());
+        assertNotNull("inherited reference systems", namedLayers.get(0).getReferenceSystems());
+    }
+
+    @Test
+    public void testWmtsCapabilities_Complete() throws Exception {
+        WmtsCapabilities capabilities = WmtsCapabilities.getCapabilities(new ByteArrayInputStream(wmtsDocument));
+
+        assertEquals("layers", LAYER_COUNT, capabilities.getContents().getLayers().size());
+        assertEquals("tile matrix sets", TILE_MATRIX_SET_COUNT, capabilities.getContents().getTileMatrixSets().size());
+    }
+
+    @Test
+    public void testWmtsCapabilities_Selective() throws Exception {
+        String identifier = "layer" + (LAYER_COUNT / 2);
+        WmtsCapabilities capabilities = WmtsCapabilities.getCapabilities(new ByteArrayInputStream(wmtsDocument),
+            Collections.singleton(identifier));
+
+        List<WmtsLayer> layers = capabilities.getContents().getLayers();
+        List<WmtsTileMatrixSet> tileMatrixSets = capabilities.getContents().getTileMatrixSets();
+        assertEquals("layers", 1, layers.size());
+        assertEquals("layer identifier", identifier, layers.get(0).getIdentifier());
+        assertEquals("tile matrix sets", 1, tileMatrixSets.size());
+        assertEquals("tile matrix set identifier", layers.get(0).getTileMatrixSetLinks().get(0).getIdentifier(),
+            tileMatrixSets.get(0).getIdentifier());
+        assertEquals("tile matrices", TILE_MATRIX_COUNT, tileMatrixSets.get(0).getTileMatrices().size());
+    }
+
+    @Test
+    public void testBenchmark() throws Exception {
+        Collection<String> requested = Collections.singleton("layer" + (LAYER_COUNT / 2));
+
+        for (int pass = 0; pass < 2; pass++) { // the first pass warms up the runtime
+            Result wmsComplete = new Result(), wmsSelective = new Result();
+            Result wmtsComplete = new Result(), wmtsSelective = new Result();
+
+            for (int iter = 0; iter < ITERATIONS; iter++) {
+                wmsComplete.begin();
+                WmsCapabilities.getCapabilities(new ByteArrayInputStream(wmsDocument));
+                wmsComplete.end();
+
+                wmsSelective.begin();
+                WmsCapabilities.getCapabilities(new ByteArrayInputStream(wmsDocument), requested);
+                wmsSelective.end();
+
+                wmtsComplete.begin();
+                WmtsCapabilities.getCapabilities(new ByteArrayInputStream(wmtsDocument));
+                wmtsComplete.end();
+
+                wmtsSelective.begin();
+                WmtsCapabilities.getCapabilities(new ByteArrayInputStream(wmtsDocument), requested);
+                wmtsSelective.end();
+            }
+
+            if (pass == 1) {
+                Log.i(TAG, "WMS " + (wmsDocument.length / 1024) + " KB complete " + wmsComplete
+                    + ", selective " + wmsSelective);
+                Log.i(TAG, "WMTS " + (wmtsDocument.length / 1024) + " KB complete " + wmtsComplete
+                    + ", selective " + wmtsSelective);
+            }
+        }
+    }
+
+    protected static String createWmsDocument(int layerCount) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        sb.append("<WMS_Capabilities version=\"1.3.0\" xmlns=\"http://www.opengis.net/wms\"")
+            .append(" xmlns:xlink=\"http://www.w3.org/1999/xlink\">\n");
+        sb.append("  <Service>\n    <Name>WMS</Name>\n    <Title>Benchmark Service</Title>\n  </Service>\n");
+        sb.append("  <Capability>\n    <Request>\n      <GetMap>\n        <Format>image/png</Format>\n");
+        sb.append("        <DCPType><HTTP><Get><OnlineResource xlink:href=\"https://example.com/wms?\"/></Get></HTTP></DCPType>\n");
+        sb.append("      </GetMap>\n    </Request>\n");
+        sb.append("    <Layer>\n      <Title>Root</Title>\n      <CRS>EPSG:4326</CRS>\n      <CRS>CRS:84</CRS>\n");
+        for (int idx = 0; idx < layerCount; idx++) {
+            sb.append("      <Layer queryable=\"1\" opaque=\"0\">\n");
+            sb.append("        <Name>layer").append(idx).append("</Name>\n");
+            sb.append("        <Title>Layer ").append(idx).append("</Title>\n");
+            sb.append("        <Abstract>Synthetic layer ").append(idx).append(" with a descriptive abstract\n")
+                .append("          spanning multiple lines of text.</Abstract>\n");
+            sb.append("        <KeywordList><Keyword>synthetic</Keyword><Keyword>benchmark</Keyword></KeywordList>\n");
+            sb.append("        <EX_GeographicBoundingBox><westBoundLongitude>-180</westBoundLongitude>")
+                .append("<eastBoundLongitude>180</eastBoundLongitude><southBoundLatitude>-90</southBoundLatitude>")
+                .append("<northBoundLatitude>90</northBoundLatitude></EX_GeographicBoundingBox>\n");
+            sb.append("        <BoundingBox CRS=\"CRS:84\" minx=\"-180\" miny=\"-90\" maxx=\"180\" maxy=\"90\"/>\n");
+            for (int style = 0; style < 3; style++) {
+                sb.append("        <Style><Name>style").append(style).append("</Name><Title>Style ").append(style)
+                    .append("</Title><LegendURL width=\"72\" height=\"72\"><Format>image/png</Format>")
+                    .append("<OnlineResource xlink:type=\"simple\" xlink:href=\"https://example.com/legend?layer=")
+                    .append(idx).append("&amp;style=").append(style).append("\"/></LegendURL></Style>\n");
+            }
+            sb.append("      </Layer>\n");
+        }
+        sb.append("    </Layer>\n  </Capability>\n</WMS_Capabilities>\n");
+        return sb.toString();
+    }
+
+    protected static String createWmtsDocument(int layerCount, int tileMatrixSetCount, int tileMatrixCount) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        sb.append("<Capabilities version=\"1.0.0\" xmlns=\"http://www.opengis.net/wmts/1.0\"")
+            .append(" xmlns:ows=\"http://www.opengis.net/ows/1.1\" xmlns:xlink=\"http://www.w3.org/1999/xlink\">\n");
+        sb.append("  <ows:ServiceIdentification>\n    <ows:Title>Benchmark Service</ows:Title>\n")
+            .append("    <ows:ServiceType>OGC WMTS</ows:ServiceType>\n")
+            .append("    <ows:ServiceTypeVersion>1.0.0</ows:ServiceTypeVersion>\n  </ows:ServiceIdentification>\n");
+        sb.append("  <Contents>\n");
+        for (int idx = 0; idx < layerCount; idx++) {
+            sb.append("    <Layer>\n");
+            sb.append("      <ows:Title>Layer ").append(idx).append("</ows:Title>\n");
+            sb.append("      <ows:Abstract>Synthetic layer ").append(idx).append("</ows:Abstract>\n");
+            sb.append("      <ows:WGS84BoundingBox><ows:LowerCorner>-180 -90</ows:LowerCorner>")
+                .append("<ows:UpperCorner>180 90</ows:UpperCorner></ows:WGS84BoundingBox>\n");
+            sb.append("      <ows:Identifier>layer").append(idx).append("</ows:Identifier>\n");
+            sb.append("      <Style isDefault=\"true\"><ows:Identifier>default</ows:Identifier></Style>\n");
+            sb.append("      <Format>image/png</Format>\n      <Format>image/jpeg</Format>\n");
+            sb.append("      <TileMatrixSetLink><TileMatrixSet>matrixSet").append(idx % tileMatrixSetCount)
+                .append("</TileMatrixSet></TileMatrixSetLink>\n");
+            sb.append("      <ResourceURL format=\"image/png\" resourceType=\"tile\" template=\"https://example.com/layer")
+                .append(idx).append("/{TileMatrix}/{TileRow}/{TileCol}.png\"/>\n");
+            sb.append("    </Layer>\n");
+        }
+        for (int set = 0; set < tileMatrixSetCount; set++) {
+            sb.append("    <TileMatrixSet>\n");
+            sb.append("      <ows:Identifier>matrixSet").append(set).append("</ows:Identifier>\n");
+            sb.append("      <ows:SupportedCRS>urn:ogc:def:crs:EPSG::3857</ows:SupportedCRS>\n");
+            double scale = 559082264.0287178;
+            for (int matrix = 0; matrix < tileMatrixCount; matrix++, scale /= 2) {
+                int dimension = 1 << Math.min(matrix, 30);
+                sb.append("      <TileMatrix>\n");
+                sb.append("        <ows:Identifier>").append(matrix).append("</ows:Identifier>\n");
+                sb.append("        <ScaleDenominator>").append(scale).append("</ScaleDenominator>\n");
+                sb.append("        <TopLeftCorner>-20037508.3428 20037508.3428</TopLeftCorner>\n");
+                sb.append("        <TileWidth>256</TileWidth>\n        <TileHeight>256</TileHeight>\n");
+                sb.append("        <MatrixWidth>").append(dimension).append("</MatrixWidth>\n");
+                sb.append("        <MatrixHeight>").append(dimension).append("</MatrixHeight>\n");
+                sb.append("      </TileMatrix>\n");
+            }
+            sb.append("    </TileMatrixSet>\n");
+        }
+        sb.append("  </Contents>\n</Capabilities>\n");
+        return sb.toString();
+    }
+
+    protected static class Result {
+
+        protected long elapsedNanos;
+
+        protected long allocCount;
+
+        protected long allocBytes;
+
+        protected int iterations;
+
+        protected long startNanos;
+
+        @SuppressWarnings("deprecation")
+        public void begin() {
+            Debug.resetThreadAllocCount();
+            Debug.resetThreadAllocSize();
+            Debug.startAllocCounting();
+            this.startNanos = System.nanoTime();
+        }
+
+        @SuppressWarnings("deprecation")
+        public void end() {
+            this.elapsedNanos += System.nanoTime() - this.startNanos;
+            Debug.stopAllocCounting();
+            this.allocCount += Debug.getThreadAllocCount();
+            this.allocBytes += Debug.getThreadAllocSize();
+            this.iterations++;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.1f ms, %d allocations, %d KB allocated",
+                this.elapsedNanos / 1.0e6 / this.iterations, this.allocCount / this.iterations,
+                this.allocBytes / 1024 / this.iterations);
+        }
+    }
+}
@@ -14,9 +14,12 @@ import gov.nasa.worldwind.draw.Drawable;
 import gov.nasa.worldwind.draw.DrawableSurfaceColor;
 import gov.nasa.worldwind.geom.Position;
 import gov.nasa.worldwind.geom.Vec3;
+import gov.nasa.worldwind.layer.Layer;
 import gov.nasa.worldwind.render.BasicShaderProgram;
 import gov.nasa.worldwind.render.Color;
 import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.render.Renderable;
+import gov.nasa.worldwind.shape.ScenePickIndex;
 import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.Pool;
 
@@ -39,8 +42,54 @@ public class BasicFrameController implements FrameController {
             this.renderTerrainPickedObject(rc);
         }
 
-        rc.layers.render(rc);
-        rc.sortDrawables();
+        // Analytic picks render only the renderables near the pick ray when the scene pick index describes the current
+        // scene. Other frames render every layer, and frames displayed on screen record the scene pick index.
+        boolean recordPickIndex = rc.scenePickIndex != null && !rc.pickMode;
+        if (recordPickIndex) {
+            rc.scenePickIndex.clear();
+        }
+
+        if (rc.analyticPickMode && rc.scenePickIndex != null && rc.scenePickIndex.isCurrent(rc)) {
+            this.renderPickCandidates(rc);
+        } else if (rc.layerRenderer != null) {
+            rc.layerRenderer.render(rc, rc.layers);
+        } else {
+            rc.layers.render(rc);
+        }
+
+        if (recordPickIndex) {
+            rc.scenePickIndex.endFrame(rc);
+        }
+
+        if (rc.analyticPickMode) {
+            this.resolveAnalyticPick(rc);
+        } else {
+            rc.sortDrawables();
+        }
+    }
+
+    protected void renderPickCandidates(RenderContext rc) {
+        // Render the candidate renderables in the order their layers rendered them, subject to the same layer
+        // conditions as a pick frame that renders every layer.
+        ScenePickIndex index = rc.scenePickIndex;
+        for (int idx = 0, count = index.findCandidates(rc); idx < count; idx++) {
+            Layer layer = index.getCandidateLayer(idx);
+            if (layer != null && (!layer.isEnabled() || !layer.isPickEnabled() || !layer.isWithinActiveAltitudes(rc))) {
+                continue;
+            }
+
+            Renderable renderable = index.getCandidateRenderable(idx);
+            rc.currentLayer = layer;
+            try {
+                renderable.render(rc);
+            } catch (Exception e) {
+                Logger.logMessage(Logger.ERROR, "BasicFrameController", "renderPickCandidates",
+                    "Exception while picking \'" + renderable.getDisplayName() + "\'", e);
+                // Keep going. Pick the remaining candidates.
+            }
+        }
+
+        rc.currentLayer = null;
     }
 
     protected void renderTerrainPickedObject(RenderContext rc) {
@@ -51,6 +100,18 @@ public class BasicFrameController implements FrameController {
         // Acquire a unique picked object ID for terrain.
         int pickedObjectId = rc.nextPickedObjectId();
 
+        // In analytic pick mode, offer the terrain intersection along with its distance from the pick ray's origin,
+        // and make the terrain position available to surface shapes. Nothing is drawn on the OpenGL thread.
+        if (rc.analyticPickMode) {
+            if (rc.pickRay != null && rc.terrain.intersect(rc.pickRay, this.pickPoint)) {
+                rc.globe.cartesianToGeographic(this.pickPoint.x, this.pickPoint.y, this.pickPoint.z, this.pickPos);
+                rc.pickTerrainPosition = this.pickPos;
+                rc.pickTerrainDistance = rc.pickRay.origin.distanceTo(this.pickPoint);
+                rc.offerPickedObject(PickedObject.fromTerrain(pickedObjectId, this.pickPos), rc.pickTerrainDistance);
+            }
+            return;
+        }
+
         // Enqueue a drawable for processing on the OpenGL thread that displays terrain in the unique pick color.
         Pool<DrawableSurfaceColor> pool = rc.getDrawablePool(DrawableSurfaceColor.class);
         DrawableSurfaceColor drawable = DrawableSurfaceColor.obtain(pool);
@@ -127,6 +188,26 @@ public class BasicFrameController implements FrameController {
         }
     }
 
+    protected void resolveAnalyticPick(RenderContext rc) {
+        // The nearest object intersected by the pick ray is the top object at the pick point. Shapes hidden behind
+        // another shape or behind the terrain were offered at a greater distance, and are omitted.
+        int topObjectId = rc.nearestPickedObjectId();
+        if (topObjectId != 0) {
+            PickedObject terrainObject = rc.pickedObjects.terrainPickedObject();
+            PickedObject topObject = rc.pickedObjects.pickedObjectWithId(topObjectId);
+            if (topObject != null) {
+                topObject.markOnTop();
+                rc.pickedObjects.clearPickedObjects();
+                rc.pickedObjects.offerPickedObject(topObject);
+                rc.pickedObjects.offerPickedObject(terrainObject); // handles null objects and duplicate objects
+            } else {
+                rc.pickedObjects.clearPickedObjects(); // no eligible objects intersected by the pick ray
+            }
+        } else {
+            rc.pickedObjects.clearPickedObjects(); // no objects intersected by the pick ray
+        }
+    }
+
     protected void resolvePickRect(DrawContext dc) {
         if (dc.pickedObjects.count() == 0) {
             return; // no eligible objects; avoid expensive calls to glReadPixels
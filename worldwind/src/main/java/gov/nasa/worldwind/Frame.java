@@ -40,6 +40,8 @@ public class Frame {
 
     public boolean pickMode;
 
+    public boolean analyticPickMode;
+
     private boolean isDone;
 
     private boolean isAwaitingDone;
@@ -76,6 +78,7 @@ public class Frame {
         this.pickPoint = null;
         this.pickRay = null;
         this.pickMode = false;
+        this.analyticPickMode = false;
 
         if (this.pool != null) { // return this instance to the pool
             this.pool.release(this);
@@ -8,6 +8,8 @@ package gov.nasa.worldwind;
 import java.util.Locale;
 
 import gov.nasa.worldwind.draw.DrawContext;
+import gov.nasa.worldwind.draw.SurfaceShapeTileCache;
+import gov.nasa.worldwind.draw.UploadScheduler;
 import gov.nasa.worldwind.render.RenderContext;
 import gov.nasa.worldwind.util.LruMemoryCache;
 
@@ -21,6 +23,10 @@ public class FrameMetrics {
 
     protected CacheMetrics renderResourceCacheMetrics = new CacheMetrics();
 
+    protected RasterMetrics surfaceShapeRasterMetrics = new RasterMetrics();
+
+    protected UploadMetrics uploadMetrics = new UploadMetrics();
+
     public FrameMetrics() {
     }
 
@@ -86,6 +92,84 @@ public class FrameMetrics {
         return this.renderResourceCacheMetrics.entryCount;
     }
 
+    public int getSurfaceShapeRasterizations() {
+        synchronized (this.drawLock) {
+            return this.surfaceShapeRasterMetrics.rasterizations;
+        }
+    }
+
+    public int getSurfaceShapeReuses() {
+        synchronized (this.drawLock) {
+            return this.surfaceShapeRasterMetrics.reuses;
+        }
+    }
+
+    public long getSurfaceShapeRasterizationsTotal() {
+        synchronized (this.drawLock) {
+            return this.surfaceShapeRasterMetrics.rasterizationSum;
+        }
+    }
+
+    public long getSurfaceShapeReusesTotal() {
+        synchronized (this.drawLock) {
+            return this.surfaceShapeRasterMetrics.reuseSum;
+        }
+    }
+
+    public int getSurfaceShapeTileCacheCapacity() {
+        synchronized (this.drawLock) {
+            return this.surfaceShapeRasterMetrics.capacity;
+        }
+    }
+
+    public int getSurfaceShapeTileCacheUsedCapacity() {
+        synchronized (this.drawLock) {
+            return this.surfaceShapeRasterMetrics.usedCapacity;
+        }
+    }
+
+    public int getSurfaceShapeTileCacheEntryCount() {
+        synchronized (this.drawLock) {
+            return this.surfaceShapeRasterMetrics.entryCount;
+        }
+    }
+
+    public long getUploadBytes() {
+        synchronized (this.drawLock) {
+            return this.uploadMetrics.bytes;
+        }
+    }
+
+    public int getUploadCount() {
+        synchronized (this.drawLock) {
+            return this.uploadMetrics.uploads;
+        }
+    }
+
+    public long getUploadNanos() {
+        synchronized (this.drawLock) {
+            return this.uploadMetrics.nanos;
+        }
+    }
+
+    public int getDeferredUploadCount() {
+        synchronized (this.drawLock) {
+            return this.uploadMetrics.deferrals;
+        }
+    }
+
+    public long getUploadBytesTotal() {
+        synchronized (this.drawLock) {
+            return this.uploadMetrics.byteSum;
+        }
+    }
+
+    public long getDeferredUploadCountTotal() {
+        synchronized (this.drawLock) {
+            return this.uploadMetrics.deferralSum;
+        }
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder("FrameMetrics");
@@ -95,6 +179,10 @@ public class FrameMetrics {
         this.printTimeMetrics(this.drawMetrics, sb);
         sb.append("}, renderResourceCacheMetrics={");
         this.printCacheMetrics(this.renderResourceCacheMetrics, sb);
+        sb.append("}, surfaceShapeRasterMetrics={");
+        this.printRasterMetrics(this.surfaceShapeRasterMetrics, sb);
+        sb.append("}, uploadMetrics={");
+        this.printUploadMetrics(this.uploadMetrics, sb);
         sb.append("}");
 
         return sb.toString();
@@ -125,6 +213,8 @@ public class FrameMetrics {
 
         synchronized (this.drawLock) {
             this.markEnd(this.drawMetrics, now);
+            this.assembleRasterMetrics(this.surfaceShapeRasterMetrics, dc.surfaceShapeTileCache());
+            this.assembleUploadMetrics(this.uploadMetrics, dc.uploadScheduler());
         }
     }
 
@@ -133,6 +223,8 @@ public class FrameMetrics {
 
         synchronized (this.drawLock) {
             this.resetTimeMetrics(this.drawMetrics);
+            this.resetRasterMetrics(this.surfaceShapeRasterMetrics);
+            this.resetUploadMetrics(this.uploadMetrics);
         }
     }
 
@@ -178,6 +270,56 @@ public class FrameMetrics {
         metrics.entryCount = cache.getEntryCount();
     }
 
+    protected void assembleRasterMetrics(RasterMetrics metrics, SurfaceShapeTileCache cache) {
+        metrics.rasterizations = cache.getRasterizationCount();
+        metrics.reuses = cache.getReuseCount();
+        metrics.capacity = cache.getCapacity();
+        metrics.usedCapacity = cache.getUsedCapacity();
+        metrics.entryCount = cache.getEntryCount();
+        metrics.rasterizationSum += metrics.rasterizations;
+        metrics.reuseSum += metrics.reuses;
+    }
+
+    protected void resetRasterMetrics(RasterMetrics metrics) {
+        // reset the metrics collected across multiple frames
+        metrics.rasterizationSum = 0;
+        metrics.reuseSum = 0;
+    }
+
+    protected void assembleUploadMetrics(UploadMetrics metrics, UploadScheduler scheduler) {
+        metrics.uploads = scheduler.getUploadCount();
+        metrics.bytes = scheduler.getUploadByteCount();
+        metrics.nanos = scheduler.getUploadNanos();
+        metrics.deferrals = scheduler.getDeferredCount();
+        metrics.byteSum += metrics.bytes;
+        metrics.deferralSum += metrics.deferrals;
+    }
+
+    protected void resetUploadMetrics(UploadMetrics metrics) {
+        // reset the metrics collected across multiple frames
+        metrics.byteSum = 0;
+        metrics.deferralSum = 0;
+    }
+
+    protected void printUploadMetrics(UploadMetrics metrics, StringBuilder out) {
+        out.append("lastUploads=").append(metrics.uploads);
+        out.append(", lastBytes=").append(String.format(Locale.US, "%,.0f", metrics.bytes / 1024.0)).append("KB");
+        out.append(", lastTime=").append(String.format(Locale.US, "%.1f", metrics.nanos / 1.0e6)).append("ms");
+        out.append(", lastDeferrals=").append(metrics.deferrals);
+        out.append(", totalBytes=").append(String.format(Locale.US, "%,.0f", metrics.byteSum / 1024.0)).append("KB");
+        out.append(", totalDeferrals=").append(metrics.deferralSum);
+    }
+
+    protected void printRasterMetrics(RasterMetrics metrics, StringBuilder out) {
+        out.append("lastRasterizations=").append(metrics.rasterizations);
+        out.append(", lastReuses=").append(metrics.reuses);
+        out.append(", totalRasterizations=").append(metrics.rasterizationSum);
+        out.append(", totalReuses=").append(metrics.reuseSum);
+        out.append(", capacity=").append(String.format(Locale.US, "%,.0f", metrics.capacity / 1024.0)).append("KB");
+        out.append(", usedCapacity=").append(String.format(Locale.US, "%,.0f", metrics.usedCapacity / 1024.0)).append("KB");
+        out.append(", entryCount=").append(metrics.entryCount);
+    }
+
     protected void printCacheMetrics(CacheMetrics metrics, StringBuilder out) {
         out.append("capacity=").append(String.format(Locale.US, "%,.0f", metrics.capacity / 1024.0)).append("KB");
         out.append(", usedCapacity=").append(String.format(Locale.US, "%,.0f", metrics.usedCapacity / 1024.0)).append("KB");
@@ -201,6 +343,38 @@ public class FrameMetrics {
         public int entryCount;
     }
 
+    protected static class RasterMetrics {
+
+        public int rasterizations;
+
+        public int reuses;
+
+        public long rasterizationSum;
+
+        public long reuseSum;
+
+        public int capacity;
+
+        public int usedCapacity;
+
+        public int entryCount;
+    }
+
+    protected static class UploadMetrics {
+
+        public int uploads;
+
+        public long bytes;
+
+        public long nanos;
+
+        public int deferrals;
+
+        public long byteSum;
+
+        public long deferralSum;
+    }
+
     protected static class TimeMetrics {
 
         public long begin;
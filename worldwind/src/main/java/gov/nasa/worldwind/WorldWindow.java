@@ -39,8 +39,11 @@ import gov.nasa.worldwind.globe.Globe;
 import gov.nasa.worldwind.globe.ProjectionWgs84;
 import gov.nasa.worldwind.globe.Tessellator;
 import gov.nasa.worldwind.layer.LayerList;
+import gov.nasa.worldwind.layer.ParallelLayerRenderer;
 import gov.nasa.worldwind.render.RenderContext;
 import gov.nasa.worldwind.render.RenderResourceCache;
+import gov.nasa.worldwind.shape.ScenePickIndex;
+import gov.nasa.worldwind.shape.ShapeGeometryAssembler;
 import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.MessageListener;
 import gov.nasa.worldwind.util.Pool;
@@ -62,6 +65,8 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
 
     protected static final int MSG_ID_SET_DEPTH_BITS = 4;
 
+    protected static final int MSG_ID_SET_ELEMENT_INDEX_UINT = 5;
+
     /**
      * Planet or celestial object displayed by this WorldWindow.
      */
@@ -88,6 +93,10 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
 
     protected RenderResourceCache renderResourceCache;
 
+    protected ShapeGeometryAssembler geometryAssembler = new ShapeGeometryAssembler();
+
+    protected ParallelLayerRenderer layerRenderer;
+
     protected RenderContext rc = new RenderContext();
 
     protected DrawContext dc = new DrawContext();
@@ -96,12 +105,20 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
 
     protected int depthBits;
 
+    protected boolean elementIndexUint;
+
     protected Pool<Frame> framePool = new SynchronizedPool<>();
 
     protected Queue<Frame> frameQueue = new ConcurrentLinkedQueue<>();
 
     protected Queue<Frame> pickQueue = new ConcurrentLinkedQueue<>();
 
+    protected boolean analyticPicking;
+
+    protected double analyticPickTolerance = 1;
+
+    protected ScenePickIndex scenePickIndex = new ScenePickIndex();
+
     protected Frame currentFrame;
 
     protected boolean isPaused;
@@ -119,6 +136,8 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
                 viewport.set((Viewport) msg.obj);
             } else if (msg.what == MSG_ID_SET_DEPTH_BITS) {
                 depthBits = (Integer) msg.obj;
+            } else if (msg.what == MSG_ID_SET_ELEMENT_INDEX_UINT) {
+                elementIndexUint = (Boolean) msg.obj;
             }
             return false;
         }
@@ -349,6 +368,26 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
         this.frameMetrics = frameMetrics;
     }
 
+    /**
+     * Indicates the renderer that renders this WorldWindow's layers on a pool of worker threads.
+     *
+     * @return the parallel layer renderer, or null if layers render serially
+     */
+    public ParallelLayerRenderer getLayerRenderer() {
+        return this.layerRenderer;
+    }
+
+    /**
+     * Specifies a renderer that renders this WorldWindow's layers on a pool of worker threads. Layers render serially on
+     * the WorldWindow's render thread when the renderer is null, which is the default. Layers rendered in parallel must
+     * not share renderables with one another.
+     *
+     * @param layerRenderer the parallel layer renderer, or null to render layers serially
+     */
+    public void setLayerRenderer(ParallelLayerRenderer layerRenderer) {
+        this.layerRenderer = layerRenderer;
+    }
+
     public WorldWindowController getWorldWindowController() {
         return this.worldWindowController;
     }
@@ -380,6 +419,64 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
         return this.viewport;
     }
 
+    /**
+     * Indicates whether {@link #pick(float, float)} resolves picked objects on the CPU. See {@link
+     * #setAnalyticPicking(boolean)}.
+     *
+     * @return true if analytic picking is enabled, otherwise false
+     */
+    public boolean isAnalyticPicking() {
+        return this.analyticPicking;
+    }
+
+    /**
+     * Sets whether {@link #pick(float, float)} resolves picked objects on the CPU. When analytic picking is enabled,
+     * pick intersects the line through the screen point with the terrain and with the geometry of placemarks, paths and
+     * polygons, and returns the nearest intersected object without drawing a frame on the OpenGL thread. The returned
+     * list has the same contents as when analytic picking is disabled. Other renderables, such as ellipses, labels and
+     * surface images, cannot be picked analytically and are omitted from the returned list. Analytic picking does not
+     * apply to {@link #pickShapesInRect(float, float, float, float)}. Analytic picking is disabled by default.
+     * <p/>
+     * While analytic picking is enabled, each frame records the bounds of the placemarks, paths and polygons it
+     * displays in a scene pick index. A pick made with the same viewing parameters as the most recent frame intersects
+     * only the shapes whose bounds are near the pick line, without rendering the scene's layers. Shapes modified since
+     * the most recent frame are picked according to their bounds in that frame. Picks made before the first frame or
+     * after the viewing parameters change render every layer in analytic pick mode.
+     *
+     * @param enable true to enable analytic picking, false to disable it
+     */
+    public void setAnalyticPicking(boolean enable) {
+        this.analyticPicking = enable;
+        this.scenePickIndex.clear(); // release references to renderables; the next frame records the index again
+    }
+
+    /**
+     * Indicates the distance in screen pixels within which lines and placemarks are picked when analytic picking is
+     * enabled. See {@link #setAnalyticPickTolerance(double)}.
+     *
+     * @return the analytic pick tolerance, in screen pixels
+     */
+    public double getAnalyticPickTolerance() {
+        return this.analyticPickTolerance;
+    }
+
+    /**
+     * Sets the distance in screen pixels within which lines and placemarks are picked when analytic picking is enabled.
+     * The tolerance is added to half the line's width. The default tolerance is 1 pixel.
+     *
+     * @param tolerance the analytic pick tolerance, in screen pixels
+     *
+     * @throws IllegalArgumentException If the tolerance is negative
+     */
+    public void setAnalyticPickTolerance(double tolerance) {
+        if (tolerance < 0) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "WorldWindow", "setAnalyticPickTolerance", "invalidTolerance"));
+        }
+
+        this.analyticPickTolerance = tolerance;
+    }
+
     /**
      * Determines the WorldWind objects displayed at a screen point. The screen point is interpreted as coordinates in
      * Android screen pixels relative to this View.
@@ -397,6 +494,9 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
      * This returns an empty list when nothing in the WorldWind scene intersects the screen point, when the screen
      * point is outside this View's bounds, or if the OpenGL thread displaying the WorldWindow's scene is paused (or
      * becomes paused while this method is executing).
+     * <p/>
+     * When analytic picking is enabled, the picked objects are determined on the calling thread without waiting for the
+     * OpenGL thread. See {@link #setAnalyticPicking(boolean)}.
      *
      * @param x the screen point's X coordinate in Android screen pixels
      * @param y the screen point's Y coordinate in Android screen pixels
@@ -430,15 +530,22 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
         // Obtain a frame from the pool and render the frame, accumulating Drawables to process in the OpenGL thread.
         Frame frame = Frame.obtain(this.framePool);
         frame.pickedObjects = pickedObjects;
-        frame.pickViewport = new Viewport(px - 1, py - 1, 3, 3); // 3x3 viewport centered on the pick point
-        frame.pickViewport.intersect(this.viewport); // limit the 3x3 viewport to the screen viewport
+        // Use a 3x3 viewport centered on the pick point, enlarged by the analytic pick tolerance for analytic picks.
+        int radius = this.analyticPicking ? 1 + (int) Math.ceil(this.analyticPickTolerance) : 1;
+        frame.pickViewport = new Viewport(px - radius, py - radius, 2 * radius + 1, 2 * radius + 1);
+        frame.pickViewport.intersect(this.viewport); // limit the pick viewport to the screen viewport
         frame.pickPoint = new Vec2(px, py);
         frame.pickRay = pickRay;
         frame.pickMode = true;
+        frame.analyticPickMode = this.analyticPicking;
+        boolean analyticPickMode = frame.analyticPickMode; // the frame is recycled once an analytic pick is resolved
         this.renderFrame(frame);
 
-        // Wait until the OpenGL thread is done processing the frame and resolving the picked objects.
-        frame.awaitDone();
+        // Wait until the OpenGL thread is done processing the frame and resolving the picked objects. Analytic picks
+        // are resolved while the frame is rendered, and never reach the OpenGL thread.
+        if (!analyticPickMode) {
+            frame.awaitDone();
+        }
 
         return pickedObjects;
     }
@@ -725,6 +832,12 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
         this.mainThreadHandler.sendMessage(
             Message.obtain(this.mainThreadHandler, MSG_ID_SET_DEPTH_BITS /*msg.what*/, depthBits[0] /*msg.obj*/));
 
+        // Determine whether the OpenGL implementation supports 32-bit element indices.
+        String extensions = GLES20.glGetString(GLES20.GL_EXTENSIONS);
+        boolean elementIndexUint = extensions != null && extensions.contains("GL_OES_element_index_uint");
+        this.mainThreadHandler.sendMessage(
+            Message.obtain(this.mainThreadHandler, MSG_ID_SET_ELEMENT_INDEX_UINT /*msg.what*/, elementIndexUint /*msg.obj*/));
+
         // Clear the render resource cache on the main thread.
         this.mainThreadHandler.sendEmptyMessage(MSG_ID_CLEAR_CACHE /*msg.what*/);
     }
@@ -902,6 +1015,13 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
         this.rc.renderResourceCache = this.renderResourceCache;
         this.rc.renderResourceCache.setResources(this.getContext().getResources());
         this.rc.resources = this.getContext().getResources();
+        this.rc.geometryAssembler = this.geometryAssembler;
+        this.rc.layerRenderer = this.layerRenderer;
+        this.rc.scenePickIndex = this.analyticPicking ? this.scenePickIndex : null;
+        this.rc.elementIndexUint = this.elementIndexUint;
+
+        // Hand shape geometry assembled in the background to its shapes, in the order it was submitted.
+        this.geometryAssembler.publishResults();
 
         // Configure the frame's Cartesian modelview matrix and eye coordinate projection matrix.
         this.computeViewingTransform(frame.projection, frame.modelview);
@@ -926,12 +1046,17 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
         this.rc.pickPoint = frame.pickPoint;
         this.rc.pickRay = frame.pickRay;
         this.rc.pickMode = frame.pickMode;
+        this.rc.analyticPickMode = frame.analyticPickMode;
+        this.rc.analyticPickTolerance = this.analyticPickTolerance;
 
         // Let the frame controller render the WorldWindow's current state.
         this.frameController.renderFrame(this.rc);
 
-        // Enqueue the frame for processing on the OpenGL thread as soon as possible and wake the OpenGL thread.
-        if (pickMode) {
+        // Enqueue the frame for processing on the OpenGL thread as soon as possible and wake the OpenGL thread. Analytic
+        // pick frames have already been resolved by the frame controller, and are recycled immediately.
+        if (frame.analyticPickMode) {
+            frame.recycle();
+        } else if (pickMode) {
             this.pickQueue.offer(frame);
             super.requestRender();
         } else {
@@ -982,6 +1107,7 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
         this.dc.pickViewport = frame.pickViewport;
         this.dc.pickPoint = frame.pickPoint;
         this.dc.pickMode = frame.pickMode;
+        this.dc.renderResourceCache = this.renderResourceCache;
 
         // Let the frame controller draw the frame.
         this.frameController.drawFrame(this.dc);
@@ -989,6 +1115,11 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
         // Release resources evicted during the previous frame.
         this.renderResourceCache.releaseEvictedResources(this.dc);
 
+        // Request another frame to upload the resources deferred by this frame's upload budget.
+        if (this.dc.uploadScheduler().hasDeferredUploads()) {
+            this.requestRedraw();
+        }
+
         // Mark the end of a frame draw.
         if (!pickMode) {
             this.frameMetrics.endDrawing(this.dc);
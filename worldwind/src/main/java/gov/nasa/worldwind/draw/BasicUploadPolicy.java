@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.draw;
+
+import gov.nasa.worldwind.util.Logger;
+
+/**
+ * Upload policy that limits the number of bytes uploaded and the time spent uploading during each frame. The first
+ * upload of each frame is always allowed, ensuring that resources larger than the byte budget are eventually uploaded.
+ */
+public class BasicUploadPolicy implements UploadPolicy {
+
+    protected static final long DEFAULT_MAX_FRAME_BYTES = 4 * 1024 * 1024; // 4 MB
+
+    protected static final long DEFAULT_MAX_FRAME_NANOS = 4000000; // 4 milliseconds
+
+    protected long maxFrameBytes;
+
+    protected long maxFrameNanos;
+
+    public BasicUploadPolicy() {
+        this(DEFAULT_MAX_FRAME_BYTES, DEFAULT_MAX_FRAME_NANOS);
+    }
+
+    /**
+     * Constructs an upload policy with a specified budget per frame.
+     *
+     * @param maxFrameBytes the maximum number of bytes to upload per frame
+     * @param maxFrameNanos the maximum time to spend uploading per frame, in nanoseconds
+     *
+     * @throws IllegalArgumentException If either budget is negative
+     */
+    public BasicUploadPolicy(long maxFrameBytes, long maxFrameNanos) {
+        if (maxFrameBytes < 0 || maxFrameNanos < 0) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "BasicUploadPolicy", "constructor", "invalidBudget"));
+        }
+
+        this.maxFrameBytes = maxFrameBytes;
+        this.maxFrameNanos = maxFrameNanos;
+    }
+
+    public long getMaxFrameBytes() {
+        return this.maxFrameBytes;
+    }
+
+    public long getMaxFrameNanos() {
+        return this.maxFrameNanos;
+    }
+
+    @Override
+    public boolean allowUpload(int byteCount, int frameUploadCount, long frameByteCount, long frameNanos) {
+        if (frameUploadCount == 0) {
+            return true; // always allow one upload per frame
+        }
+
+        return frameByteCount + byteCount <= this.maxFrameBytes && frameNanos < this.maxFrameNanos;
+    }
+}
@@ -23,10 +23,16 @@ import gov.nasa.worldwind.geom.Viewport;
 import gov.nasa.worldwind.render.BufferObject;
 import gov.nasa.worldwind.render.Color;
 import gov.nasa.worldwind.render.Framebuffer;
+import gov.nasa.worldwind.render.RenderResourceCache;
 import gov.nasa.worldwind.render.Texture;
 
 public class DrawContext {
 
+    /**
+     * The width and height of the scratch framebuffer's attachments, in pixels.
+     */
+    public static final int SCRATCH_FRAMEBUFFER_SIZE = 1024;
+
     public Vec3 eyePoint = new Vec3();
 
     public Viewport viewport = new Viewport();
@@ -53,6 +59,8 @@ public class DrawContext {
 
     public boolean pickMode;
 
+    public RenderResourceCache renderResourceCache;
+
     private int framebufferId;
 
     private int programId;
@@ -67,6 +75,10 @@ public class DrawContext {
 
     private Framebuffer scratchFramebuffer;
 
+    private SurfaceShapeTileCache surfaceShapeTileCache;
+
+    private UploadScheduler uploadScheduler;
+
     private BufferObject unitSquareBuffer;
 
     private ByteBuffer scratchBuffer = ByteBuffer.allocateDirect(4).order(ByteOrder.nativeOrder());
@@ -92,8 +104,17 @@ public class DrawContext {
         this.pickViewport = null;
         this.pickPoint = null;
         this.pickMode = false;
+        this.renderResourceCache = null;
         this.scratchBuffer.clear();
         this.scratchList.clear();
+
+        if (this.surfaceShapeTileCache != null) {
+            this.surfaceShapeTileCache.endFrame();
+        }
+
+        if (this.uploadScheduler != null) {
+            this.uploadScheduler.endFrame();
+        }
     }
 
     public void contextLost() {
@@ -106,6 +127,10 @@ public class DrawContext {
         this.scratchFramebuffer = null;
         this.unitSquareBuffer = null;
         Arrays.fill(this.textureId, 0);
+
+        if (this.surfaceShapeTileCache != null) {
+            this.surfaceShapeTileCache.contextLost();
+        }
     }
 
     public Drawable peekDrawable() {
@@ -174,8 +199,8 @@ public class DrawContext {
         }
 
         Framebuffer framebuffer = new Framebuffer();
-        Texture colorAttachment = new Texture(1024, 1024, GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE);
-        Texture depthAttachment = new Texture(1024, 1024, GLES20.GL_DEPTH_COMPONENT, GLES20.GL_UNSIGNED_SHORT);
+        Texture colorAttachment = new Texture(SCRATCH_FRAMEBUFFER_SIZE, SCRATCH_FRAMEBUFFER_SIZE, GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE);
+        Texture depthAttachment = new Texture(SCRATCH_FRAMEBUFFER_SIZE, SCRATCH_FRAMEBUFFER_SIZE, GLES20.GL_DEPTH_COMPONENT, GLES20.GL_UNSIGNED_SHORT);
         // TODO consider modifying Texture's tex parameter behavior in order to make this unnecessary
         depthAttachment.setTexParameter(GLES20.GL_TEXTURE_MIN_FILTER, GLES20.GL_NEAREST);
         depthAttachment.setTexParameter(GLES20.GL_TEXTURE_MAG_FILTER, GLES20.GL_NEAREST);
@@ -185,6 +210,34 @@ public class DrawContext {
         return (this.scratchFramebuffer = framebuffer);
     }
 
+    /**
+     * Returns the draw context's cache of surface shapes rasterized per terrain tile. The cache retains its textures
+     * across frames, and is cleared when the OpenGL context is lost.
+     *
+     * @return the draw context's surface shape tile cache
+     */
+    public SurfaceShapeTileCache surfaceShapeTileCache() {
+        if (this.surfaceShapeTileCache == null) {
+            this.surfaceShapeTileCache = new SurfaceShapeTileCache();
+        }
+
+        return this.surfaceShapeTileCache;
+    }
+
+    /**
+     * Returns the draw context's scheduler for OpenGL resource uploads. The scheduler limits the texture data uploaded
+     * during each frame, and records the data uploaded by textures and buffer objects.
+     *
+     * @return the draw context's upload scheduler
+     */
+    public UploadScheduler uploadScheduler() {
+        if (this.uploadScheduler == null) {
+            this.uploadScheduler = new UploadScheduler();
+        }
+
+        return this.uploadScheduler;
+    }
+
     /**
      * Returns the name of the OpenGL program object that is currently active.
      *
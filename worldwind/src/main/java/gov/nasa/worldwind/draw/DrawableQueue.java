@@ -12,12 +12,29 @@ public class DrawableQueue {
 
     protected static final int MIN_CAPACITY_INCREMENT = 12;
 
+    /**
+     * Queues with at most this many drawables are sorted with the sort comparator rather than a radix sort.
+     */
+    protected static final int COMPARATOR_SORT_THRESHOLD = 64;
+
     protected Entry[] entries = new Entry[0];
 
     protected int size;
 
     protected int position;
 
+    protected Entry[] sortEntries = new Entry[0];
+
+    protected long[] sortOrders = new long[0];
+
+    protected long[] scratchOrders = new long[0];
+
+    protected int[] sortGroups = new int[0];
+
+    protected int[] scratchGroups = new int[0];
+
+    protected int[] sortHistogram = new int[16 * 256];
+
     /**
      * Sorts drawables by ascending group ID, then ascending order, then by ascending ordinal.
      */
@@ -64,6 +81,23 @@ public class DrawableQueue {
         }
     }
 
+    /**
+     * Moves a range of drawables from another queue to the end of this queue, preserving their group ID, order and
+     * relative ordinal. The moved drawables are removed from the source queue's entries, and are recycled when this
+     * queue is cleared rather than when the source queue is cleared.
+     *
+     * @param queue the queue containing the drawables to move
+     * @param start the index of the first drawable to move
+     * @param end   the index after the last drawable to move
+     */
+    public void offerDrawables(DrawableQueue queue, int start, int end) {
+        for (int idx = start; idx < end; idx++) {
+            Entry entry = queue.entries[idx];
+            this.offerDrawable(entry.drawable, entry.groupId, entry.order);
+            entry.drawable = null; // this queue now owns the drawable
+        }
+    }
+
     public Drawable getDrawable(int index) {
         return (index < this.size) ? this.entries[index].drawable : null;
     }
@@ -80,11 +114,119 @@ public class DrawableQueue {
         this.position = 0;
     }
 
+    /**
+     * Sorts drawables by ascending group ID, then ascending order, then by ascending ordinal. Large queues are sorted
+     * with a stable least significant digit radix sort on each drawable's group ID and order, which produces the same
+     * ordering as the sort comparator without comparing entries. Orders of positive and negative zero are equal. NaN
+     * orders sort after positive infinity.
+     */
     public void sortDrawables() {
-        Arrays.sort(this.entries, 0, this.size, this.sortComparator);
+        if (this.size <= COMPARATOR_SORT_THRESHOLD) {
+            Arrays.sort(this.entries, 0, this.size, this.sortComparator);
+        } else {
+            this.radixSortDrawables();
+        }
+
         this.position = 0;
     }
 
+    protected void radixSortDrawables() {
+        int size = this.size;
+        if (this.sortEntries.length < size) {
+            this.sortEntries = new Entry[this.entries.length];
+            this.sortOrders = new long[this.entries.length];
+            this.scratchOrders = new long[this.entries.length];
+            this.sortGroups = new int[this.entries.length];
+            this.scratchGroups = new int[this.entries.length];
+        }
+
+        // Encode each entry's order and group ID as unsigned keys that sort in the same order as the signed values,
+        // and count the occurrences of each byte of the keys. Byte digits 0-3 are the ordinal, 4-11 are the order and
+        // 12-15 are the group ID.
+        int[] histogram = this.sortHistogram;
+        Arrays.fill(histogram, 0);
+        Entry[] entries = this.entries;
+        long[] orders = this.sortOrders;
+        int[] groups = this.sortGroups;
+        boolean ordinalOrder = true;
+        for (int idx = 0; idx < size; idx++) {
+            Entry entry = entries[idx];
+            long bits = Double.doubleToLongBits(entry.order + 0.0); // adding zero converts -0.0 to 0.0
+            long order = bits ^ ((bits >> 63) | Long.MIN_VALUE); // flip all bits of negative values, the sign bit of others
+            int group = entry.groupId ^ Integer.MIN_VALUE;
+            orders[idx] = order;
+            groups[idx] = group;
+            ordinalOrder &= (entry.ordinal == idx);
+
+            for (int digit = 4; digit < 12; digit++) {
+                histogram[(digit << 8) + (int) ((order >>> ((digit - 4) << 3)) & 0xFF)]++;
+            }
+
+            for (int digit = 12; digit < 16; digit++) {
+                histogram[(digit << 8) + ((group >>> ((digit - 12) << 3)) & 0xFF)]++;
+            }
+        }
+
+        // Entries are offered in ordinal order, in which case the stable sort leaves entries with equal group IDs and
+        // orders in ordinal order. Otherwise the queue has been sorted since entries were last offered; sort by the
+        // ordinal first.
+        if (!ordinalOrder) {
+            for (int idx = 0; idx < size; idx++) {
+                int ordinal = entries[idx].ordinal;
+                for (int digit = 0; digit < 4; digit++) {
+                    histogram[(digit << 8) + ((ordinal >>> (digit << 3)) & 0xFF)]++;
+                }
+            }
+        }
+
+        Entry[] srcEntries = entries, dstEntries = this.sortEntries;
+        long[] srcOrders = orders, dstOrders = this.scratchOrders;
+        int[] srcGroups = groups, dstGroups = this.scratchGroups;
+        for (int digit = ordinalOrder ? 4 : 0; digit < 16; digit++) {
+            if (histogram[(digit << 8) + radixDigit(srcEntries[0], srcOrders[0], srcGroups[0], digit)] == size) {
+                continue; // every entry has the same digit; this pass would not change the order
+            }
+
+            // Convert the digit counts to the index of each digit's first entry.
+            for (int bucket = 0, offset = 0; bucket < 256; bucket++) {
+                int count = histogram[(digit << 8) + bucket];
+                histogram[(digit << 8) + bucket] = offset;
+                offset += count;
+            }
+
+            for (int idx = 0; idx < size; idx++) {
+                int dst = histogram[(digit << 8) + radixDigit(srcEntries[idx], srcOrders[idx], srcGroups[idx], digit)]++;
+                dstEntries[dst] = srcEntries[idx];
+                dstOrders[dst] = srcOrders[idx];
+                dstGroups[dst] = srcGroups[idx];
+            }
+
+            Entry[] swapEntries = srcEntries;
+            srcEntries = dstEntries;
+            dstEntries = swapEntries;
+            long[] swapOrders = srcOrders;
+            srcOrders = dstOrders;
+            dstOrders = swapOrders;
+            int[] swapGroups = srcGroups;
+            srcGroups = dstGroups;
+            dstGroups = swapGroups;
+        }
+
+        if (srcEntries != entries) {
+            System.arraycopy(srcEntries, 0, entries, 0, size);
+        }
+    }
+
+    protected static int radixDigit(Entry entry, long order, int group, int digit) {
+        if (digit < 4) {
+            return (entry.ordinal >>> (digit << 3)) & 0xFF;
+        } else if (digit < 12) {
+            return (int) ((order >>> ((digit - 4) << 3)) & 0xFF);
+        } else {
+            return (group >>> ((digit - 12) << 3)) & 0xFF;
+        }
+    }
+
     public void clearDrawables() {
         for (int idx = 0, len = this.size; idx < len; idx++) {
             this.entries[idx].recycle();
@@ -112,8 +254,10 @@ public class DrawableQueue {
         }
 
         public void recycle() {
-            this.drawable.recycle();
-            this.drawable = null;
+            if (this.drawable != null) { // drawables moved to another queue are recycled by that queue
+                this.drawable.recycle();
+                this.drawable = null;
+            }
         }
     }
 }
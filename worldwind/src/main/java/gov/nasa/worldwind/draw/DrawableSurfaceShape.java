@@ -16,6 +16,7 @@ import gov.nasa.worldwind.geom.Vec3;
 import gov.nasa.worldwind.render.Color;
 import gov.nasa.worldwind.render.Framebuffer;
 import gov.nasa.worldwind.render.Texture;
+import gov.nasa.worldwind.util.IntArray;
 import gov.nasa.worldwind.util.Pool;
 
 public class DrawableSurfaceShape implements Drawable {
@@ -32,6 +33,10 @@ public class DrawableSurfaceShape implements Drawable {
 
     private Color color = new Color();
 
+    private IntArray shapeIndices = new IntArray();
+
+    private SurfaceShapeTileCache.TileInputs tileInputs = new SurfaceShapeTileCache.TileInputs();
+
     private Pool<DrawableSurfaceShape> pool;
 
     public DrawableSurfaceShape() {
@@ -68,40 +73,113 @@ public class DrawableSurfaceShape implements Drawable {
         // Set up to use vertex tex coord attributes.
         GLES20.glEnableVertexAttribArray(1 /*vertexTexCoord*/); // only vertexPoint is enabled by default
 
-        // Accumulate shapes in the draw context's scratch list.
-        // TODO accumulate in a geospatial quadtree
+        // Accumulate shapes in the draw context's scratch list, and assign them to terrain tiles using the tile cache's
+        // geospatial quadtree.
         ArrayList<Object> scratchList = dc.scratchList();
+        SurfaceShapeTileCache tileCache = dc.surfaceShapeTileCache();
+        SurfaceShapeQuadtree quadtree = tileCache.getQuadtree();
 
         try {
             // Add this shape.
             scratchList.add(this);
+            quadtree.add(this.sector);
 
             // Add all shapes that are contiguous in the drawable queue.
             Drawable next;
             while ((next = dc.peekDrawable()) != null && next.getClass() == this.getClass()) { // check if the drawable at the front of the queue can be batched
-                scratchList.add(dc.pollDrawable()); // take it off the queue
+                DrawableSurfaceShape shape = (DrawableSurfaceShape) dc.pollDrawable(); // take it off the queue
+                scratchList.add(shape);
+                quadtree.add(shape.sector);
             }
 
+            // Identify this batch of shapes in the tile cache. Each batch is drawn on the terrain separately.
+            int batch = tileCache.nextBatch();
+
             // Draw the accumulated shapes on each drawable terrain.
             for (int idx = 0, len = dc.getDrawableTerrainCount(); idx < len; idx++) {
                 // Get the drawable terrain associated with the draw context.
                 DrawableTerrain terrain = dc.getDrawableTerrain(idx);
-                // Draw the accumulated surface shapes to a texture representing the terrain's sector.
-                if (this.drawShapesToTexture(dc, terrain) > 0) {
-                    // Draw the texture containing the rasterized shapes onto the terrain geometry.
-                    this.drawTextureToTerrain(dc, terrain);
+                // Find the accumulated shapes that intersect the terrain's sector.
+                this.shapeIndices.clear();
+                if (quadtree.query(terrain.getSector(), this.shapeIndices).size() == 0) {
+                    continue; // no shapes intersect the terrain
+                }
+                // Draw the texture containing the rasterized shapes onto the terrain geometry. Use the tile cache's
+                // texture when possible, rasterizing the shapes only when the texture is out of date.
+                Texture texture = dc.pickMode ? null : this.drawShapesToCachedTexture(dc, terrain, batch);
+                if (texture == null) {
+                    texture = this.drawShapesToScratchTexture(dc, terrain);
+                }
+                if (texture != null) {
+                    this.drawTextureToTerrain(dc, terrain, texture);
                 }
             }
         } finally {
             // Clear the accumulated shapes.
             scratchList.clear();
+            quadtree.clear();
+            this.shapeIndices.clear();
             // Restore the default WorldWind OpenGL state.
             GLES20.glDisableVertexAttribArray(1 /*vertexTexCoord*/); // only vertexPoint is enabled by default
         }
     }
 
-    protected int drawShapesToTexture(DrawContext dc, DrawableTerrain terrain) {
-        // Shapes have been accumulated in the draw context's scratch list.
+    protected Texture drawShapesToCachedTexture(DrawContext dc, DrawableTerrain terrain, int batch) {
+        SurfaceShapeTileCache tileCache = dc.surfaceShapeTileCache();
+        SurfaceShapeTileCache.Entry entry = tileCache.entryFor(dc, terrain.getSector(), batch);
+        if (entry == null) {
+            return null; // the tile cache is full; use the scratch framebuffer
+        }
+
+        // Determine the inputs to the terrain's texture: the intersecting shapes in drawing order.
+        ArrayList<Object> scratchList = dc.scratchList();
+        this.tileInputs.clear();
+        for (int idx = 0, len = this.shapeIndices.size(); idx < len; idx++) {
+            DrawableSurfaceShape shape = (DrawableSurfaceShape) scratchList.get(this.shapeIndices.get(idx));
+            this.tileInputs.add(shape.drawState);
+        }
+
+        // Use the texture from a previous frame when its inputs have not changed.
+        if (!entry.mustRasterize(this.tileInputs)) {
+            tileCache.markReused();
+            return entry.texture;
+        }
+
+        // Attach the entry's texture to the tile cache's framebuffer and draw the shapes into the texture.
+        Framebuffer framebuffer = tileCache.framebuffer(dc);
+        if (!framebuffer.attachTexture(dc, entry.texture, GLES20.GL_COLOR_ATTACHMENT0)) {
+            entry.inputs.clear();
+            return null; // framebuffer failed to attach the texture
+        }
+
+        int shapeCount = this.drawShapesToTexture(dc, terrain, framebuffer);
+        tileCache.markRasterized();
+
+        // Record the texture's inputs only when every shape was drawn, causing shapes whose resources were not yet
+        // available to be drawn in a subsequent frame.
+        if (shapeCount == this.tileInputs.getShapeCount()) {
+            entry.inputs.set(this.tileInputs);
+        } else {
+            entry.inputs.clear();
+        }
+
+        return (shapeCount > 0) ? entry.texture : null;
+    }
+
+    protected Texture drawShapesToScratchTexture(DrawContext dc, DrawableTerrain terrain) {
+        Framebuffer framebuffer = dc.scratchFramebuffer();
+        int shapeCount = this.drawShapesToTexture(dc, terrain, framebuffer);
+
+        if (!dc.pickMode) {
+            dc.surfaceShapeTileCache().markRasterized();
+        }
+
+        return (shapeCount > 0) ? framebuffer.getAttachedTexture(GLES20.GL_COLOR_ATTACHMENT0) : null;
+    }
+
+    protected int drawShapesToTexture(DrawContext dc, DrawableTerrain terrain, Framebuffer framebuffer) {
+        // Shapes have been accumulated in the draw context's scratch list, and the shapes intersecting the terrain
+        // have been identified in the shape indices.
         ArrayList<Object> scratchList = dc.scratchList();
 
         // The terrain's sector defines the geographic region in which to draw.
@@ -111,7 +189,6 @@ public class DrawableSurfaceShape implements Drawable {
         int shapeCount = 0;
 
         try {
-            Framebuffer framebuffer = dc.scratchFramebuffer();
             if (!framebuffer.bindFramebuffer(dc)) {
                 return 0; // framebuffer failed to bind
             }
@@ -133,13 +210,9 @@ public class DrawableSurfaceShape implements Drawable {
             this.textureMvpMatrix.multiplyByScale(2 / terrainSector.deltaLongitude(), 2 / terrainSector.deltaLatitude(), 0);
             this.textureMvpMatrix.multiplyByTranslation(-terrainSector.minLongitude(), -terrainSector.minLatitude(), 0);
 
-            for (int idx = 0, len = scratchList.size(); idx < len; idx++) {
+            for (int idx = 0, len = this.shapeIndices.size(); idx < len; idx++) {
                 // Get the shape.
-                DrawableSurfaceShape shape = (DrawableSurfaceShape) scratchList.get(idx);
-
-                if (!shape.sector.intersectsOrNextTo(terrainSector)) {
-                    continue;
-                }
+                DrawableSurfaceShape shape = (DrawableSurfaceShape) scratchList.get(this.shapeIndices.get(idx));
 
                 if (shape.drawState.vertexBuffer == null || !shape.drawState.vertexBuffer.bindBuffer(dc)) {
                     continue; // vertex buffer unspecified or failed to bind
@@ -188,7 +261,7 @@ public class DrawableSurfaceShape implements Drawable {
         return shapeCount;
     }
 
-    protected void drawTextureToTerrain(DrawContext dc, DrawableTerrain terrain) {
+    protected void drawTextureToTerrain(DrawContext dc, DrawableTerrain terrain, Texture texture) {
         if (!terrain.useVertexPointAttrib(dc, 0 /*vertexPoint*/)) {
             return; // terrain vertex attribute failed to bind
         }
@@ -197,9 +270,8 @@ public class DrawableSurfaceShape implements Drawable {
             return; // terrain vertex attribute failed to bind
         }
 
-        Texture colorAttachment = dc.scratchFramebuffer().getAttachedTexture(GLES20.GL_COLOR_ATTACHMENT0);
-        if (!colorAttachment.bindTexture(dc)) {
-            return; // framebuffer texture failed to bind
+        if (!texture.bindTexture(dc)) {
+            return; // shape texture failed to bind
         }
 
         // Configure the program to draw texture fragments unmodified and aligned with the terrain.
@@ -30,6 +30,16 @@ public class DrawableSurfaceTexture implements Drawable, SurfaceTexture {
 
     public Matrix3 texCoordMatrix = new Matrix3();
 
+    /**
+     * Texture drawn in place of this surface texture's own texture when that texture cannot be bound, typically
+     * because its upload has been deferred to a subsequent frame. May be null.
+     */
+    public Texture fallbackTexture;
+
+    public Matrix3 fallbackTexCoordMatrix = new Matrix3();
+
+    protected boolean fallbackBound;
+
     private Pool<DrawableSurfaceTexture> pool;
 
     public DrawableSurfaceTexture() {
@@ -49,6 +59,7 @@ public class DrawableSurfaceTexture implements Drawable, SurfaceTexture {
         this.program = program;
         this.color.set(1, 1, 1, 1);
         this.texture = texture;
+        this.fallbackTexture = null;
 
         if (sector != null) {
             this.sector.set(sector);
@@ -65,9 +76,32 @@ public class DrawableSurfaceTexture implements Drawable, SurfaceTexture {
         return this;
     }
 
+    /**
+     * Specifies a texture to draw in place of this surface texture's own texture when that texture cannot be bound.
+     * The fallback texture's coordinate transform must map this surface texture's sector into the fallback texture,
+     * such as the transform of an ancestor tile's texture.
+     *
+     * @param texture        the fallback texture, or null to specify no fallback texture
+     * @param texCoordMatrix the fallback texture's coordinate transform
+     *
+     * @return this surface texture
+     */
+    public DrawableSurfaceTexture setFallback(Texture texture, Matrix3 texCoordMatrix) {
+        this.fallbackTexture = texture;
+
+        if (texCoordMatrix != null) {
+            this.fallbackTexCoordMatrix.set(texCoordMatrix);
+        } else {
+            this.fallbackTexCoordMatrix.setToIdentity();
+        }
+
+        return this;
+    }
+
     @Override
     public void recycle() {
         this.texture = null;
+        this.fallbackTexture = null;
         this.program = null;
 
         if (this.pool != null) { // return this instance to the pool
@@ -182,12 +216,19 @@ public class DrawableSurfaceTexture implements Drawable, SurfaceTexture {
 
     @Override
     public Matrix3 getTexCoordTransform() {
-        return this.texCoordMatrix;
+        return this.fallbackBound ? this.fallbackTexCoordMatrix : this.texCoordMatrix;
     }
 
     @Override
     public boolean bindTexture(DrawContext dc) {
-        return (this.texture != null) && this.texture.bindTexture(dc);
+        if (this.texture != null && this.texture.bindTexture(dc)) {
+            this.fallbackBound = false;
+            return true;
+        }
+
+        // Use the fallback texture when this surface texture's own texture is not yet available.
+        this.fallbackBound = (this.fallbackTexture != null) && this.fallbackTexture.bindTexture(dc);
+        return this.fallbackBound;
     }
 
     protected boolean canBatchWith(Drawable that) {
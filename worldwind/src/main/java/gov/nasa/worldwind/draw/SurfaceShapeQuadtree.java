@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.draw;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.util.IntArray;
+import gov.nasa.worldwind.util.Logger;
+
+/**
+ * Geospatial quadtree that assigns surface shapes to the terrain tiles they intersect. Shapes are identified by the
+ * order in which they're added to the quadtree. Each shape is stored in the smallest quadtree node that fully contains
+ * its sector, allowing a terrain tile to find its intersecting shapes without testing every shape.
+ * <p/>
+ * The quadtree's nodes are retained when the quadtree is cleared, and are reused by subsequent frames.
+ */
+public class SurfaceShapeQuadtree {
+
+    protected static final int DEFAULT_MAX_DEPTH = 8;
+
+    protected int maxDepth;
+
+    protected Node root = new Node(-90, -180, 90, 180);
+
+    protected ArrayList<Sector> sectors = new ArrayList<>();
+
+    public SurfaceShapeQuadtree() {
+        this(DEFAULT_MAX_DEPTH);
+    }
+
+    public SurfaceShapeQuadtree(int maxDepth) {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "SurfaceShapeQuadtree", "constructor", "invalidDepth"));
+        }
+
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Indicates the number of shapes in the quadtree.
+     *
+     * @return the shape count
+     */
+    public int count() {
+        return this.sectors.size();
+    }
+
+    /**
+     * Removes all shapes from the quadtree. The sectors specified to {@link #add(Sector)} are no longer referenced.
+     */
+    public void clear() {
+        this.root.clear();
+        this.sectors.clear();
+    }
+
+    /**
+     * Adds a shape's sector to the quadtree. The sector is referenced, not copied, and must not be modified until the
+     * quadtree is cleared.
+     *
+     * @param sector the shape's geographic bounding sector
+     *
+     * @return the shape's index, which is the number of shapes previously added
+     *
+     * @throws IllegalArgumentException If the sector is null
+     */
+    public int add(Sector sector) {
+        if (sector == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "SurfaceShapeQuadtree", "add", "missingSector"));
+        }
+
+        int index = this.sectors.size();
+        this.sectors.add(sector);
+
+        Node node = this.root;
+        node.descendantCount++;
+        for (int depth = 0; depth < this.maxDepth; depth++) {
+            Node child = node.childContaining(sector);
+            if (child == null) {
+                break; // the sector spans multiple children; store it in this node
+            }
+            node = child;
+            node.descendantCount++;
+        }
+
+        node.addItem(index);
+
+        return index;
+    }
+
+    /**
+     * Finds the shapes that intersect or are adjacent to the specified sector. The shape indices are appended to the
+     * result in ascending order, which is the order the shapes were added to the quadtree.
+     *
+     * @param sector the sector to search, typically a terrain tile's sector
+     * @param result a pre-allocated array in which to return the shape indices
+     *
+     * @return the result argument set to the indices of the intersecting shapes
+     *
+     * @throws IllegalArgumentException If any argument is null
+     */
+    public IntArray query(Sector sector, IntArray result) {
+        if (sector == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "SurfaceShapeQuadtree", "query", "missingSector"));
+        }
+
+        if (result == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "SurfaceShapeQuadtree", "query", "missingResult"));
+        }
+
+        int first = result.size();
+        this.queryNode(this.root, sector, result);
+
+        // Sort the shape indices in ascending order, the order in which shapes must be drawn.
+        Arrays.sort(result.array(), first, result.size());
+
+        return result;
+    }
+
+    protected void queryNode(Node node, Sector sector, IntArray result) {
+        for (int idx = 0; idx < node.itemCount; idx++) {
+            int item = node.items[idx];
+            if (this.sectors.get(item).intersectsOrNextTo(sector)) {
+                result.add(item);
+            }
+        }
+
+        if (node.children != null && node.descendantCount > node.itemCount) {
+            for (Node child : node.children) {
+                if (child.descendantCount > 0 && child.intersectsOrNextTo(sector)) {
+                    this.queryNode(child, sector, result);
+                }
+            }
+        }
+    }
+
+    protected static class Node {
+
+        public final double minLatitude;
+
+        public final double minLongitude;
+
+        public final double maxLatitude;
+
+        public final double maxLongitude;
+
+        public Node[] children;
+
+        public int[] items = new int[4];
+
+        public int itemCount;
+
+        /**
+         * The number of items stored in this node and all of its descendants.
+         */
+        public int descendantCount;
+
+        public Node(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+            this.minLatitude = minLatitude;
+            this.minLongitude = minLongitude;
+            this.maxLatitude = maxLatitude;
+            this.maxLongitude = maxLongitude;
+        }
+
+        public void clear() {
+            if (this.descendantCount == 0) {
+                return; // this node and its descendants are already empty
+            }
+
+            this.itemCount = 0;
+            this.descendantCount = 0;
+
+            if (this.children != null) {
+                for (Node child : this.children) {
+                    child.clear();
+                }
+            }
+        }
+
+        public void addItem(int item) {
+            if (this.itemCount == this.items.length) {
+                this.items = Arrays.copyOf(this.items, this.itemCount * 2);
+            }
+
+            this.items[this.itemCount++] = item;
+        }
+
+        public boolean intersectsOrNextTo(Sector sector) {
+            return this.minLatitude <= sector.maxLatitude() && this.maxLatitude >= sector.minLatitude()
+                && this.minLongitude <= sector.maxLongitude() && this.maxLongitude >= sector.minLongitude();
+        }
+
+        public Node childContaining(Sector sector) {
+            double midLatitude = (this.minLatitude + this.maxLatitude) * 0.5;
+            double midLongitude = (this.minLongitude + this.maxLongitude) * 0.5;
+            int row, col;
+
+            if (sector.minLatitude() >= midLatitude && sector.maxLatitude() <= this.maxLatitude) {
+                row = 1;
+            } else if (sector.minLatitude() >= this.minLatitude && sector.maxLatitude() < midLatitude) {
+                row = 0;
+            } else {
+                return null;
+            }
+
+            if (sector.minLongitude() >= midLongitude && sector.maxLongitude() <= this.maxLongitude) {
+                col = 1;
+            } else if (sector.minLongitude() >= this.minLongitude && sector.maxLongitude() < midLongitude) {
+                col = 0;
+            } else {
+                return null;
+            }
+
+            if (this.children == null) {
+                this.children = new Node[]{
+                    new Node(this.minLatitude, this.minLongitude, midLatitude, midLongitude),
+                    new Node(this.minLatitude, midLongitude, midLatitude, this.maxLongitude),
+                    new Node(midLatitude, this.minLongitude, this.maxLatitude, midLongitude),
+                    new Node(midLatitude, midLongitude, this.maxLatitude, this.maxLongitude)};
+            }
+
+            return this.children[row * 2 + col];
+        }
+    }
+}
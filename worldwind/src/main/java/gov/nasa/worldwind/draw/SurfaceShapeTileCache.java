@@ -0,0 +1,557 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.draw;
+
+import android.opengl.GLES20;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.render.Framebuffer;
+import gov.nasa.worldwind.render.RenderResourceCache;
+import gov.nasa.worldwind.render.Texture;
+import gov.nasa.worldwind.util.Logger;
+
+/**
+ * Persistent cache of surface shapes rasterized into textures, one texture per terrain tile. Used by
+ * DrawableSurfaceShape to avoid rasterizing surface shapes for every terrain tile on every frame.
+ * <p/>
+ * Each entry is keyed by a terrain tile's sector and the ordinal of the batch of surface shapes drawn on that tile
+ * during the frame. An entry records the inputs used to rasterize its texture: the buffers, textures and drawing
+ * state of each intersecting shape, in drawing order. A tile is rasterized again only when those inputs change.
+ * <p/>
+ * The cache's capacity limits the number of bytes of texture memory held by its entries, and therefore the number of
+ * entries. By default, each entry's texture is 256x256, which approximates the screen area covered by a terrain tile,
+ * and the capacity accommodates 128 entries, which exceeds the number of terrain tiles drawn in a typical frame. When
+ * the cache is full, the least recently used entry that has not been used during the current frame is reassigned to
+ * the new tile, and its texture is reused. When every entry has been used during the current frame the cache declines
+ * to create new entries, and the caller must rasterize the tile without the cache.
+ * <p/>
+ * Entry textures are held by the draw context's render resource cache, which releases them when they're evicted and
+ * discards them when the OpenGL context is lost. An entry whose texture is no longer in the render resource cache is
+ * given a new texture, and must be rasterized again.
+ */
+public class SurfaceShapeTileCache {
+
+    protected static final int DEFAULT_TEXTURE_SIZE = 256;
+
+    protected static final int DEFAULT_ENTRY_COUNT = 128;
+
+    protected int capacity;
+
+    protected int usedCapacity;
+
+    protected int textureSize;
+
+    protected int textureByteCount;
+
+    protected Map<TileKey, Entry> entries = new HashMap<>();
+
+    protected TileKey scratchKey = new TileKey();
+
+    protected SurfaceShapeQuadtree quadtree = new SurfaceShapeQuadtree();
+
+    protected Framebuffer framebuffer;
+
+    protected long frameNumber;
+
+    protected int batchCount;
+
+    protected int rasterizationCount;
+
+    protected int reuseCount;
+
+    public SurfaceShapeTileCache() {
+        this(DEFAULT_ENTRY_COUNT * estimateTextureByteCount(DEFAULT_TEXTURE_SIZE), DEFAULT_TEXTURE_SIZE);
+    }
+
+    /**
+     * Constructs a surface shape tile cache with a specified capacity and texture size.
+     *
+     * @param capacity    the cache's capacity in bytes of texture memory
+     * @param textureSize the width and height of each entry's texture
+     *
+     * @throws IllegalArgumentException If either argument is less than 1
+     */
+    public SurfaceShapeTileCache(int capacity, int textureSize) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "SurfaceShapeTileCache", "constructor", "invalidCapacity"));
+        }
+
+        if (textureSize < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "SurfaceShapeTileCache", "constructor", "invalidWidthOrHeight"));
+        }
+
+        this.capacity = capacity;
+        this.textureSize = textureSize;
+    }
+
+    /**
+     * Indicates the cache's capacity in bytes of texture memory.
+     *
+     * @return the cache's capacity
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Indicates the number of bytes of texture memory held by the cache's entries.
+     *
+     * @return the cache's used capacity
+     */
+    public int getUsedCapacity() {
+        return this.usedCapacity;
+    }
+
+    public int getTextureSize() {
+        return this.textureSize;
+    }
+
+    public int getEntryCount() {
+        return this.entries.size();
+    }
+
+    /**
+     * Returns the quadtree used to assign each batch of surface shapes to the terrain tiles they intersect. The
+     * quadtree is shared by all batches, and is cleared by each batch before use.
+     *
+     * @return the cache's surface shape quadtree
+     */
+    public SurfaceShapeQuadtree getQuadtree() {
+        return this.quadtree;
+    }
+
+    /**
+     * Indicates the number of terrain tiles rasterized during the current frame, including tiles rasterized without
+     * the cache.
+     *
+     * @return the current frame's rasterization count
+     */
+    public int getRasterizationCount() {
+        return this.rasterizationCount;
+    }
+
+    /**
+     * Indicates the number of terrain tiles drawn from a previously rasterized texture during the current frame.
+     *
+     * @return the current frame's reuse count
+     */
+    public int getReuseCount() {
+        return this.reuseCount;
+    }
+
+    /**
+     * Returns the ordinal of the next batch of surface shapes drawn during the current frame.
+     *
+     * @return the batch ordinal, starting at 0 in each frame
+     */
+    public int nextBatch() {
+        return this.batchCount++;
+    }
+
+    /**
+     * Returns the entry associated with a terrain tile and batch ordinal, creating a new entry if necessary. The entry
+     * is marked as used during the current frame. The entry's texture is retrieved from the draw context's render
+     * resource cache, and is replaced with a new texture when the render resource cache no longer holds it.
+     *
+     * @param dc     the current draw context
+     * @param sector the terrain tile's sector
+     * @param batch  the batch ordinal
+     *
+     * @return the tile's entry, or null if the cache is full of entries used during the current frame or if the draw
+     * context has no render resource cache
+     */
+    public Entry entryFor(DrawContext dc, Sector sector, int batch) {
+        RenderResourceCache resourceCache = dc.renderResourceCache;
+        if (resourceCache == null) {
+            return null; // entry textures are held by the render resource cache
+        }
+
+        Entry entry = this.entries.get(this.scratchKey.set(sector, batch));
+        if (entry == null) {
+            if (this.usedCapacity + this.textureByteCount() <= this.capacity) {
+                entry = new Entry();
+                this.usedCapacity += this.textureByteCount();
+            } else if ((entry = this.leastRecentlyUsed()) != null) {
+                this.entries.remove(entry.key); // reassign the entry and its texture to the new tile
+                entry.inputs.clear();
+            } else {
+                return null; // every entry has been used during this frame
+            }
+
+            entry.key = new TileKey().set(sector, batch);
+            this.entries.put(entry.key, entry);
+        }
+
+        entry.frameUsed = this.frameNumber;
+
+        // Give the entry a new texture when the render resource cache has evicted its texture, or has been cleared
+        // following a lost OpenGL context.
+        if (entry.texture == null || resourceCache.get(entry) != entry.texture) {
+            entry.texture = this.newTexture();
+            entry.inputs.clear();
+            resourceCache.put(entry, entry.texture, entry.texture.getByteCount());
+        }
+
+        return entry;
+    }
+
+    /**
+     * Records that a terrain tile was rasterized during the current frame.
+     */
+    public void markRasterized() {
+        this.rasterizationCount++;
+    }
+
+    /**
+     * Records that a terrain tile was drawn from a previously rasterized texture during the current frame.
+     */
+    public void markReused() {
+        this.reuseCount++;
+    }
+
+    /**
+     * Returns an OpenGL framebuffer object used to rasterize shapes into the cache's textures. The framebuffer has no
+     * attachments until the caller attaches an entry's texture.
+     *
+     * @param dc the current draw context
+     *
+     * @return the cache's framebuffer
+     */
+    public Framebuffer framebuffer(DrawContext dc) {
+        if (this.framebuffer == null) {
+            this.framebuffer = new Framebuffer();
+        }
+
+        return this.framebuffer;
+    }
+
+    /**
+     * Completes the current frame. Per-frame counts are reset, and entries used during the current frame become
+     * eligible for reuse in the next frame.
+     */
+    public void endFrame() {
+        this.frameNumber++;
+        this.batchCount = 0;
+        this.rasterizationCount = 0;
+        this.reuseCount = 0;
+        this.quadtree.clear();
+    }
+
+    /**
+     * Discards all entries and the cache's framebuffer without releasing their OpenGL objects, which have been
+     * invalidated along with the OpenGL context.
+     */
+    public void contextLost() {
+        this.entries.clear();
+        this.usedCapacity = 0;
+        this.quadtree.clear();
+        this.framebuffer = null;
+    }
+
+    /**
+     * Releases all entries and the cache's framebuffer, deleting their OpenGL objects. Entry textures are removed from
+     * the draw context's render resource cache, which releases them along with its other evicted resources.
+     *
+     * @param dc the current draw context
+     */
+    public void release(DrawContext dc) {
+        for (Entry entry : this.entries.values()) {
+            if (entry.texture == null) {
+                continue; // the entry has no texture
+            }
+
+            if (dc.renderResourceCache != null) {
+                dc.renderResourceCache.remove(entry);
+            } else {
+                entry.texture.release(dc);
+            }
+        }
+
+        if (this.framebuffer != null) {
+            this.framebuffer.release(dc);
+        }
+
+        this.entries.clear();
+        this.usedCapacity = 0;
+        this.framebuffer = null;
+    }
+
+    protected Texture newTexture() {
+        return new Texture(this.textureSize, this.textureSize, GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE);
+    }
+
+    protected int textureByteCount() {
+        if (this.textureByteCount == 0) {
+            this.textureByteCount = estimateTextureByteCount(this.textureSize);
+        }
+
+        return this.textureByteCount;
+    }
+
+    protected static int estimateTextureByteCount(int textureSize) {
+        // Estimate the memory consumed by each texture, including its mipmaps.
+        return new Texture(textureSize, textureSize, GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE).getByteCount();
+    }
+
+    protected Entry leastRecentlyUsed() {
+        Entry lruEntry = null;
+        for (Entry entry : this.entries.values()) {
+            if (entry.frameUsed < this.frameNumber && (lruEntry == null || lruEntry.frameUsed > entry.frameUsed)) {
+                lruEntry = entry;
+            }
+        }
+
+        return lruEntry;
+    }
+
+    /**
+     * A terrain tile's rasterized surface shapes.
+     */
+    public static class Entry {
+
+        public Texture texture;
+
+        public TileInputs inputs = new TileInputs();
+
+        protected TileKey key;
+
+        protected long frameUsed;
+
+        /**
+         * Indicates whether the entry's texture must be rasterized for the specified inputs. Returns true when the
+         * entry has never been rasterized, or when it was rasterized with different inputs.
+         *
+         * @param inputs the terrain tile's current inputs
+         *
+         * @return true if the texture must be rasterized, otherwise false
+         */
+        public boolean mustRasterize(TileInputs inputs) {
+            return this.inputs.isEmpty() || !this.inputs.equals(inputs);
+        }
+    }
+
+    /**
+     * The inputs that determine the contents of a terrain tile's rasterized texture. Records each intersecting
+     * shape's buffer objects and textures by reference, and a copy of each shape's remaining drawing state. Inputs are
+     * compared by first comparing a hash of each shape's drawing state, then comparing the drawing state exactly.
+     */
+    public static class TileInputs {
+
+        protected ArrayList<Object> refs = new ArrayList<>();
+
+        protected long[] hashes = new long[8];
+
+        protected long[] values = new long[64]; // the bits of each shape's drawing state values, in drawing order
+
+        protected int valueCount;
+
+        protected int shapeCount;
+
+        public int getShapeCount() {
+            return this.shapeCount;
+        }
+
+        public boolean isEmpty() {
+            return this.shapeCount == 0;
+        }
+
+        public TileInputs clear() {
+            this.refs.clear();
+            this.valueCount = 0;
+            this.shapeCount = 0;
+            return this;
+        }
+
+        public TileInputs set(TileInputs inputs) {
+            this.refs.clear();
+            this.refs.addAll(inputs.refs);
+            if (this.hashes.length < inputs.shapeCount) {
+                this.hashes = new long[inputs.hashes.length];
+            }
+            if (this.values.length < inputs.valueCount) {
+                this.values = new long[inputs.values.length];
+            }
+            System.arraycopy(inputs.hashes, 0, this.hashes, 0, inputs.shapeCount);
+            System.arraycopy(inputs.values, 0, this.values, 0, inputs.valueCount);
+            this.valueCount = inputs.valueCount;
+            this.shapeCount = inputs.shapeCount;
+            return this;
+        }
+
+        public TileInputs add(DrawShapeState state) {
+            this.refs.add(state.vertexBuffer);
+            this.refs.add(state.elementBuffer);
+            for (int idx = 0; idx < state.primCount; idx++) {
+                this.refs.add(state.prims[idx].texture);
+            }
+
+            int first = this.valueCount;
+            this.addValue(state.vertexOrigin.x);
+            this.addValue(state.vertexOrigin.y);
+            this.addValue(state.vertexOrigin.z);
+            this.addValue(state.vertexStride);
+            this.addValue(state.primCount);
+
+            for (int idx = 0; idx < state.primCount; idx++) {
+                DrawShapeState.DrawElements prim = state.prims[idx];
+                this.addValue(prim.mode);
+                this.addValue(prim.count);
+                this.addValue(prim.type);
+                this.addValue(prim.offset);
+                this.addValue(prim.color.red);
+                this.addValue(prim.color.green);
+                this.addValue(prim.color.blue);
+                this.addValue(prim.color.alpha);
+                this.addValue(prim.lineWidth);
+                this.addValue(prim.texCoordAttrib.size);
+                this.addValue(prim.texCoordAttrib.offset);
+                if (prim.texture != null) { // the texture coordinate matrix is used only when the texture is used
+                    for (double value : prim.texCoordMatrix.m) {
+                        this.addValue(value);
+                    }
+                }
+            }
+
+            if (this.shapeCount == this.hashes.length) {
+                this.hashes = Arrays.copyOf(this.hashes, this.shapeCount * 2);
+            }
+            this.hashes[this.shapeCount++] = this.hash(first, this.valueCount);
+
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || this.getClass() != o.getClass()) {
+                return false;
+            }
+
+            TileInputs that = (TileInputs) o;
+            if (this.shapeCount != that.shapeCount || this.valueCount != that.valueCount
+                || this.refs.size() != that.refs.size()) {
+                return false;
+            }
+
+            for (int idx = 0; idx < this.shapeCount; idx++) {
+                if (this.hashes[idx] != that.hashes[idx]) { // quickly reject shapes with different drawing state
+                    return false;
+                }
+            }
+
+            for (int idx = 0, len = this.refs.size(); idx < len; idx++) {
+                if (this.refs.get(idx) != that.refs.get(idx)) { // compare buffers and textures by reference
+                    return false;
+                }
+            }
+
+            for (int idx = 0; idx < this.valueCount; idx++) {
+                if (this.values[idx] != that.values[idx]) { // compare the drawing state exactly
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            long result = this.shapeCount;
+            for (int idx = 0; idx < this.shapeCount; idx++) {
+                result = 31 * result + this.hashes[idx];
+            }
+            return (int) (result ^ (result >>> 32));
+        }
+
+        protected void addValue(double value) {
+            this.addBits(Double.doubleToLongBits(value));
+        }
+
+        protected void addValue(float value) {
+            this.addBits(Float.floatToIntBits(value));
+        }
+
+        protected void addValue(int value) {
+            this.addBits(value);
+        }
+
+        protected void addBits(long bits) {
+            if (this.valueCount == this.values.length) {
+                this.values = Arrays.copyOf(this.values, this.valueCount * 2);
+            }
+            this.values[this.valueCount++] = bits;
+        }
+
+        protected long hash(int first, int last) {
+            long result = 17;
+            for (int idx = first; idx < last; idx++) {
+                result = 31 * result + this.values[idx];
+            }
+            return result;
+        }
+    }
+
+    protected static class TileKey {
+
+        public double minLatitude;
+
+        public double minLongitude;
+
+        public double deltaLatitude;
+
+        public double deltaLongitude;
+
+        public int batch;
+
+        public TileKey set(Sector sector, int batch) {
+            this.minLatitude = sector.minLatitude();
+            this.minLongitude = sector.minLongitude();
+            this.deltaLatitude = sector.deltaLatitude();
+            this.deltaLongitude = sector.deltaLongitude();
+            this.batch = batch;
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || this.getClass() != o.getClass()) {
+                return false;
+            }
+
+            TileKey that = (TileKey) o;
+            return this.minLatitude == that.minLatitude
+                && this.minLongitude == that.minLongitude
+                && this.deltaLatitude == that.deltaLatitude
+                && this.deltaLongitude == that.deltaLongitude
+                && this.batch == that.batch;
+        }
+
+        @Override
+        public int hashCode() {
+            long temp = Double.doubleToLongBits(this.minLatitude);
+            int result = (int) (temp ^ (temp >>> 32));
+            temp = Double.doubleToLongBits(this.minLongitude);
+            result = 31 * result + (int) (temp ^ (temp >>> 32));
+            temp = Double.doubleToLongBits(this.deltaLatitude);
+            result = 31 * result + (int) (temp ^ (temp >>> 32));
+            temp = Double.doubleToLongBits(this.deltaLongitude);
+            result = 31 * result + (int) (temp ^ (temp >>> 32));
+            return 31 * result + this.batch;
+        }
+    }
+}
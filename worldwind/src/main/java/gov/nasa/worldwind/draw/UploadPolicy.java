@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.draw;
+
+/**
+ * UploadPolicy provides an interface for limiting the OpenGL resource data uploaded during a frame. An {@link
+ * UploadScheduler} consults its policy before each deferrable upload, in the order that drawables request uploads.
+ */
+public interface UploadPolicy {
+
+    /**
+     * Indicates whether a resource's data may be uploaded during the current frame, given the uploads already performed
+     * during the frame.
+     *
+     * @param byteCount        the number of bytes to upload
+     * @param frameUploadCount the number of uploads already performed during the current frame
+     * @param frameByteCount   the number of bytes already uploaded during the current frame
+     * @param frameNanos       the time already spent uploading during the current frame, in nanoseconds
+     *
+     * @return true to upload the resource now, or false to defer the upload to a subsequent frame
+     */
+    boolean allowUpload(int byteCount, int frameUploadCount, long frameByteCount, long frameNanos);
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.draw;
+
+import gov.nasa.worldwind.util.Logger;
+
+/**
+ * Limits the OpenGL resource data uploaded during each frame. Resources ask the scheduler before uploading data that
+ * can wait for a subsequent frame, such as texture images, and report each upload once complete. Drawables request
+ * uploads in the order they are drawn, so the frame's budget is spent on the front of the drawable queue first.
+ * Drawables whose uploads are deferred fall back to other content, and the frame's deferred uploads are requested
+ * again when the next frame is drawn.
+ * <p/>
+ * The budget is defined by an {@link UploadPolicy}. The scheduler does not depend on an OpenGL context; the caller
+ * measures the time spent uploading each resource.
+ */
+public class UploadScheduler {
+
+    protected UploadPolicy policy = new BasicUploadPolicy();
+
+    protected int uploadCount;
+
+    protected long uploadByteCount;
+
+    protected long uploadNanos;
+
+    protected int deferredCount;
+
+    protected long deferredByteCount;
+
+    public UploadScheduler() {
+    }
+
+    public UploadPolicy getPolicy() {
+        return this.policy;
+    }
+
+    public void setPolicy(UploadPolicy policy) {
+        if (policy == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "UploadScheduler", "setPolicy", "missingPolicy"));
+        }
+
+        this.policy = policy;
+    }
+
+    /**
+     * Indicates whether a resource may upload its data during the current frame. When this returns true the caller
+     * must upload the data and then call {@link #uploadCompleted(int, long)}. When this returns false the upload is
+     * counted as deferred, and the caller should request it again during a subsequent frame. Every upload requested
+     * after a deferred upload is also deferred until the next frame.
+     *
+     * @param byteCount the number of bytes to upload
+     *
+     * @return true if the resource may upload its data now, otherwise false
+     */
+    public boolean requestUpload(int byteCount) {
+        // Once an upload is deferred, defer the remainder of the frame's uploads. Smaller uploads requested later in
+        // the frame must not take the budget from drawables earlier in the drawable queue.
+        if (this.deferredCount == 0
+            && this.policy.allowUpload(byteCount, this.uploadCount, this.uploadByteCount, this.uploadNanos)) {
+            return true;
+        }
+
+        this.deferredCount++;
+        this.deferredByteCount += byteCount;
+        return false;
+    }
+
+    /**
+     * Records an upload performed during the current frame. Uploads that cannot be deferred are recorded without being
+     * requested, and count against the budget for uploads requested later in the frame.
+     *
+     * @param byteCount    the number of bytes uploaded
+     * @param elapsedNanos the time spent uploading, in nanoseconds
+     */
+    public void uploadCompleted(int byteCount, long elapsedNanos) {
+        this.uploadCount++;
+        this.uploadByteCount += byteCount;
+        this.uploadNanos += elapsedNanos;
+    }
+
+    /**
+     * Indicates whether any uploads have been deferred during the current frame.
+     *
+     * @return true if one or more uploads have been deferred, otherwise false
+     */
+    public boolean hasDeferredUploads() {
+        return this.deferredCount > 0;
+    }
+
+    public int getUploadCount() {
+        return this.uploadCount;
+    }
+
+    public long getUploadByteCount() {
+        return this.uploadByteCount;
+    }
+
+    public long getUploadNanos() {
+        return this.uploadNanos;
+    }
+
+    public int getDeferredCount() {
+        return this.deferredCount;
+    }
+
+    public long getDeferredByteCount() {
+        return this.deferredByteCount;
+    }
+
+    /**
+     * Resets the scheduler's per-frame budget. Called by the draw context at the end of each frame.
+     */
+    public void endFrame() {
+        this.uploadCount = 0;
+        this.uploadByteCount = 0;
+        this.uploadNanos = 0;
+        this.deferredCount = 0;
+        this.deferredByteCount = 0;
+    }
+}
@@ -6,6 +6,7 @@
 package gov.nasa.worldwind.formats.tiff;
 
 import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -508,6 +509,44 @@ public class Subfile {
         return result;
     }
 
+    /**
+     * Writes the uncompressed 16-bit sample data from the Tiff data associated with the Subfile to the provided array,
+     * converting from the data's byte order. The data is decoded directly into the array without an intermediate
+     * buffer.
+     *
+     * @param result an array ready for the uncompressed Tiff data, should have a length of at least half the return
+     *               value of {@link Subfile#getDataSize()}
+     *
+     * @return the populated provided array
+     */
+    public short[] getData(short[] result) {
+        if (result == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "Subfile", "getUncompressedImage", "null array"));
+        }
+
+        if (result.length * 2 < this.getDataSize()) {
+            throw new RuntimeException(
+                Logger.logMessage(Logger.ERROR, "Subfile", "getUncompressedImage", "inadequate array size"));
+        }
+
+        for (int bitsPerSample : this.bitsPerSample) {
+            if (bitsPerSample != 16) {
+                throw new RuntimeException(
+                    Logger.logMessage(Logger.ERROR, "Subfile", "getUncompressedImage", "unsupported bits per sample"));
+            }
+        }
+
+        // TODO handle compression
+        if (this.fields.containsKey(Tiff.STRIP_OFFSETS_TAG)) {
+            this.combineStrips(result);
+        } else {
+            this.combineTiles(result);
+        }
+
+        return result;
+    }
+
     protected void combineStrips(ByteBuffer result) {
         // this works when the data is not compressed and may work when it is compressed as well
         for (int i = 0; i < this.stripOffsets.length; i++) {
@@ -551,6 +590,39 @@ public class Subfile {
         this.tiff.buffer.clear();
     }
 
+    protected void combineStrips(short[] result) {
+        int resultIdx = 0;
+        for (int i = 0; i < this.stripOffsets.length; i++) {
+            this.tiff.buffer.limit(this.stripOffsets[i] + this.stripByteCounts[i]);
+            this.tiff.buffer.position(this.stripOffsets[i]);
+            ShortBuffer strip = this.tiff.buffer.asShortBuffer(); // view in the data's byte order
+            int count = strip.remaining();
+            strip.get(result, resultIdx, count);
+            resultIdx += count;
+        }
+        this.tiff.buffer.clear();
+    }
+
+    protected void combineTiles(short[] result) {
+        // this works when the data is not compressed; see combineTiles(ByteBuffer)
+        int tilesAcross = (this.imageWidth + this.tileWidth - 1) / this.tileWidth;
+        int samplesPerPixel = this.bitsPerSample.length;
+        int resultIdx = 0;
+        for (int pixelRow = 0; pixelRow < this.imageLength; pixelRow++) {
+            int currentTileRow = floorDiv(pixelRow, this.tileLength);
+            int tilePixelRow = pixelRow - currentTileRow * this.tileLength;
+            for (int pixelCol = 0; pixelCol < this.imageWidth; pixelCol++) {
+                int currentTileCol = floorDiv(pixelCol, this.tileWidth);
+                int tileIndex = (currentTileRow * tilesAcross) + currentTileCol;
+                int tilePixelCol = pixelCol - currentTileCol * this.tileWidth;
+                int offsetIndex = this.tileOffsets[tileIndex] + (tilePixelRow * this.tileWidth + tilePixelCol) * samplesPerPixel * 2;
+                for (int sample = 0; sample < samplesPerPixel; sample++, offsetIndex += 2) {
+                    result[resultIdx++] = this.tiff.buffer.getShort(offsetIndex);
+                }
+            }
+        }
+    }
+
     protected int getTotalBytesPerPixel() {
         int totalBytesPerSample = 0;
         for (int i = 0; i < this.bitsPerSample.length; i++) {
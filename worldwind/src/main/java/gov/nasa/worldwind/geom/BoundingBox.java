@@ -80,6 +80,33 @@ public class BoundingBox {
             && this.radius == Math.sqrt(3);
     }
 
+    /**
+     * Returns the center of this bounding box.
+     *
+     * @param result a pre-allocated {@link Vec3} in which to return the center
+     *
+     * @return the result argument set to this bounding box's center
+     *
+     * @throws IllegalArgumentException If the result is null
+     */
+    public Vec3 getCenter(Vec3 result) {
+        if (result == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "BoundingBox", "getCenter", "missingResult"));
+        }
+
+        return result.set(this.center);
+    }
+
+    /**
+     * Returns the radius of the sphere centered on this bounding box that encloses the box.
+     *
+     * @return the bounding radius
+     */
+    public double getRadius() {
+        return this.radius;
+    }
+
     /**
      * Sets this bounding box to a unit box centered at the Cartesian origin (0, 0, 0).
      *
@@ -398,37 +425,70 @@ public class BoundingBox {
                 Logger.logMessage(Logger.ERROR, "BoundingBox", "intersectsFrustum", "missingFrustum"));
         }
 
-        this.endPoint1.set(this.bottomCenter);
-        this.endPoint2.set(this.topCenter);
+        return this.intersectsFrustumPlanes(frustum, Frustum.ALL_PLANES) >= 0;
+    }
 
-        if (this.intersectsAt(frustum.near) < 0) {
-            return false;
+    /**
+     * Indicates whether this bounding box intersects a subset of a specified frustum's planes, and which of those
+     * planes it straddles. Planes are identified by the plane mask bits defined in {@link Frustum}.
+     * <p/>
+     * This supports hierarchical culling of nested bounding volumes, such as the bounding boxes of a tile quadtree. A
+     * box that lies entirely inside one of the frustum's planes needs no further test against that plane, so its
+     * descendants can be tested against the returned mask rather than all six planes. Since skipping a plane test can
+     * only cause a box to be considered visible, the result is conservative even when descendant boxes extend beyond
+     * their ancestor's box.
+     *
+     * @param frustum   the frustum of interest
+     * @param planeMask the frustum planes to test, typically the value returned for the box's parent
+     *
+     * @return -1 if this bounding box lies outside one of the specified planes, otherwise the subset of the specified
+     * planes that this box straddles, which is 0 when this box lies entirely inside the specified planes
+     *
+     * @throws IllegalArgumentException If the specified frustum is null or undefined.
+     */
+    public int intersectsFrustumPlanes(Frustum frustum, int planeMask) {
+        if (frustum == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "BoundingBox", "intersectsFrustumPlanes", "missingFrustum"));
         }
 
-        if (this.intersectsAt(frustum.far) < 0) {
-            return false;
-        }
+        this.endPoint1.set(this.bottomCenter);
+        this.endPoint2.set(this.topCenter);
 
-        if (this.intersectsAt(frustum.left) < 0) {
-            return false;
-        }
+        int result = this.intersectsPlane(frustum.near, Frustum.NEAR_PLANE, planeMask, 0);
+        result = this.intersectsPlane(frustum.far, Frustum.FAR_PLANE, planeMask, result);
+        result = this.intersectsPlane(frustum.left, Frustum.LEFT_PLANE, planeMask, result);
+        result = this.intersectsPlane(frustum.right, Frustum.RIGHT_PLANE, planeMask, result);
+        result = this.intersectsPlane(frustum.top, Frustum.TOP_PLANE, planeMask, result);
+        result = this.intersectsPlane(frustum.bottom, Frustum.BOTTOM_PLANE, planeMask, result);
 
-        if (this.intersectsAt(frustum.right) < 0) {
-            return false;
-        }
+        return result;
+    }
 
-        if (this.intersectsAt(frustum.top) < 0) {
-            return false;
+    private int intersectsPlane(Plane plane, int planeBit, int planeMask, int result) {
+        if (result < 0 || (planeMask & planeBit) == 0) {
+            return result; // the box is outside a previous plane, or this plane need not be tested
         }
 
-        if (this.intersectsAt(frustum.bottom) < 0) {
-            return false;
+        // Test the box's bounding sphere first. The sphere lies entirely on one side of the plane for most boxes.
+        double dc = plane.normal.dot(this.center) + plane.distance;
+        if (dc <= -this.radius) {
+            return -1;
+        } else if (dc >= this.radius) {
+            return result;
         }
 
-        return true;
+        int intersection = this.intersectsAt(plane);
+        if (intersection < 0) {
+            return -1;
+        } else if (intersection > 0) {
+            return result | planeBit;
+        } else {
+            return result;
+        }
     }
 
-    private double intersectsAt(Plane plane) {
+    private int intersectsAt(Plane plane) {
         Vec3 n = plane.normal;
         double effectiveRadius = 0.5 * (Math.abs(this.s.dot(n)) + Math.abs(this.t.dot(n)));
 
@@ -445,7 +505,8 @@ public class BoundingBox {
         }
 
         if (bq1 == bq2) { // endpoints less distant from plane than effective radius; can't draw any conclusions
-            return 0;
+            // unless both endpoints are more distant than the effective radius on the plane's positive side
+            return (dq1 >= effectiveRadius && dq2 >= effectiveRadius) ? 0 : 1;
         }
 
         // Compute and return the endpoints of the box on the positive side of the plane
@@ -464,7 +525,7 @@ public class BoundingBox {
             this.endPoint2.set(x, y, z);
         }
 
-        return t;
+        return 1; // the box straddles the plane
     }
 
     private static void adjustExtremes(Vec3 r, double[] rExtremes, Vec3 s, double[] sExtremes, Vec3 t, double[] tExtremes, Vec3 p) {
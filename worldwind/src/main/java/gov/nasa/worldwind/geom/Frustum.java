@@ -12,6 +12,41 @@ import gov.nasa.worldwind.util.Logger;
  */
 public class Frustum {
 
+    /**
+     * Plane mask bit identifying the frustum's near plane.
+     */
+    public static final int NEAR_PLANE = 1;
+
+    /**
+     * Plane mask bit identifying the frustum's far plane.
+     */
+    public static final int FAR_PLANE = 1 << 1;
+
+    /**
+     * Plane mask bit identifying the frustum's left plane.
+     */
+    public static final int LEFT_PLANE = 1 << 2;
+
+    /**
+     * Plane mask bit identifying the frustum's right plane.
+     */
+    public static final int RIGHT_PLANE = 1 << 3;
+
+    /**
+     * Plane mask bit identifying the frustum's top plane.
+     */
+    public static final int TOP_PLANE = 1 << 4;
+
+    /**
+     * Plane mask bit identifying the frustum's bottom plane.
+     */
+    public static final int BOTTOM_PLANE = 1 << 5;
+
+    /**
+     * Plane mask identifying all six of the frustum's planes.
+     */
+    public static final int ALL_PLANES = NEAR_PLANE | FAR_PLANE | LEFT_PLANE | RIGHT_PLANE | TOP_PLANE | BOTTOM_PLANE;
+
     protected final Plane left = new Plane(1, 0, 0, 1);
 
     protected final Plane right = new Plane(-1, 0, 0, 1);
@@ -0,0 +1,985 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.geom.coords;
+
+import gov.nasa.worldwind.util.Logger;
+
+/**
+ * Stateless conversions between geodetic latitude and longitude and the UTM, UPS and MGRS grid reference systems on
+ * the WGS 84 ellipsoid. The conversions produce the same results as {@link UTMCoord}, {@link UPSCoord} and {@link
+ * MGRSCoord}, but hold no state and allocate no objects, so they may be called concurrently and in inner loops.
+ * <p/>
+ * Bulk conversions operate on packed arrays: locations are stored as consecutive latitude and longitude pairs, in
+ * degrees, and grid coordinates as consecutive easting and northing pairs, in meters. Locations that cannot be
+ * converted are marked with a zone of 0, a null hemisphere and NaN coordinates, and are not counted in the result.
+ */
+public class GridCoordConverter {
+
+    private static final double PI = 3.14159265358979323;
+
+    private static final double DEG_TO_RAD = 0.017453292519943295;   // PI/180
+
+    private static final double RAD_TO_DEG = 57.29577951308232087;   // 180/PI
+
+    /* WGS 84 ellipsoid */
+    private static final double A = 6378137.0;
+
+    private static final double F = 1 / 298.257223563;
+
+    private static final double ES = 2 * F - F * F; // eccentricity squared
+
+    private static final double EBS = (1 / (1 - ES)) - 1; // second eccentricity squared
+
+    /* Transverse Mercator true meridional distance constants */
+    private static final double TN = (A - A * (1 - F)) / (A + A * (1 - F));
+
+    private static final double TM_AP = A * (1 - TN + 5 * (TN * TN - TN * TN * TN) / 4
+        + 81 * (Math.pow(TN, 4) - Math.pow(TN, 5)) / 64);
+
+    private static final double TM_BP = 3 * A * (TN - TN * TN + 7 * (TN * TN * TN - Math.pow(TN, 4)) / 8
+        + 55 * Math.pow(TN, 5) / 64) / 2;
+
+    private static final double TM_CP = 15 * A * (TN * TN - TN * TN * TN + 3 * (Math.pow(TN, 4) - Math.pow(TN, 5)) / 4) / 16;
+
+    private static final double TM_DP = 35 * A * (TN * TN * TN - Math.pow(TN, 4) + 11 * Math.pow(TN, 5) / 16) / 48;
+
+    private static final double TM_EP = 315 * A * (Math.pow(TN, 4) - Math.pow(TN, 5)) / 512;
+
+    /* UTM projection */
+    private static final double UTM_SCALE = 0.9996;
+
+    private static final double UTM_FALSE_EASTING = 500000;
+
+    private static final double UTM_SOUTH_FALSE_NORTHING = 10000000;
+
+    private static final double UTM_MIN_LAT = (-82 * PI) / 180.0;
+
+    private static final double UTM_MAX_LAT = (86 * PI) / 180.0;
+
+    private static final double UTM_MIN_EASTING = 100000;
+
+    private static final double UTM_MAX_EASTING = 900000;
+
+    private static final double UTM_MIN_NORTHING = 0;
+
+    private static final double UTM_MAX_NORTHING = 10000000;
+
+    /* UPS projection */
+    private static final double UPS_FALSE_EASTING_NORTHING = 2000000;
+
+    private static final double UPS_MIN_NORTH_LAT = 72 * PI / 180.0;
+
+    private static final double UPS_MIN_SOUTH_LAT = -72 * PI / 180.0;
+
+    private static final double UPS_MAX_EAST_NORTH = 4000000;
+
+    private static final double POLAR_ES = Math.sqrt(ES);
+
+    private static final double POLAR_ES_OVER_2 = POLAR_ES / 2.0;
+
+    private static final double POLAR_ORIGIN_LAT = (81.114528 * PI) / 180.0;
+
+    private static final double POLAR_A_MC;
+
+    private static final double POLAR_TC;
+
+    static {
+        double essin = POLAR_ES * Math.sin(POLAR_ORIGIN_LAT);
+        double powEs = Math.pow((1.0 - essin) / (1.0 + essin), POLAR_ES_OVER_2);
+        POLAR_A_MC = A * Math.cos(POLAR_ORIGIN_LAT) / Math.sqrt(1.0 - essin * essin);
+        POLAR_TC = Math.tan(PI / 4 - POLAR_ORIGIN_LAT / 2.0) / powEs;
+    }
+
+    /* MGRS */
+    private static final double MGRS_MIN_UTM_LAT = (-80 * PI) / 180.0;
+
+    private static final double MGRS_MAX_UTM_LAT = (84 * PI) / 180.0;
+
+    private static final double TWOMIL = 2000000;
+
+    private static final double ONEHT = 100000;
+
+    private static final double[] MGRS_DIVISORS = {100000, 10000, 1000, 100, 10, 1};
+
+    private static final int LETTER_A = 0;
+
+    private static final int LETTER_B = 1;
+
+    private static final int LETTER_C = 2;
+
+    private static final int LETTER_H = 7;
+
+    private static final int LETTER_J = 9;
+
+    private static final int LETTER_L = 11;
+
+    private static final int LETTER_N = 13;
+
+    private static final int LETTER_S = 18;
+
+    private static final int LETTER_U = 20;
+
+    private static final int LETTER_V = 21;
+
+    private static final int LETTER_X = 23;
+
+    private static final int LETTER_Y = 24;
+
+    private static final int LETTER_Z = 25;
+
+    // Latitude band letters from 80 degrees south in 8 degree increments; band X extends to 84 degrees north
+    private static final int[] LATITUDE_BAND_LETTERS = {
+        2, 3, 4, 5, 6, 7, 9, 10, 11, 12, 13, 15, 16, 17, 18, 19, 20, 21, 22, 23};
+
+    // UPS letters A, B, Y, Z: 2nd letter low value, false easting, false northing
+    private static final int[] UPS_LTR2_LOW_VALUES = {LETTER_J, LETTER_A, LETTER_J, LETTER_A};
+
+    private static final double[] UPS_FALSE_EASTINGS = {800000, 2000000, 800000, 2000000};
+
+    private static final double[] UPS_FALSE_NORTHINGS = {800000, 800000, 1300000, 1300000};
+
+    protected GridCoordConverter() {
+    }
+
+    /**
+     * Converts a packed array of locations to UTM coordinates. Locations outside the UTM latitude range of 82 degrees
+     * south to 86 degrees north cannot be converted.
+     *
+     * @param locations   the locations to convert, as latitude and longitude pairs in degrees
+     * @param count       the number of locations to convert
+     * @param zones       an array in which to return each location's UTM zone, 1 to 60
+     * @param hemispheres an array in which to return each location's hemisphere
+     * @param eastNorth   an array in which to return each location's easting and northing pair, in meters
+     *
+     * @return the number of locations converted
+     *
+     * @throws IllegalArgumentException If any array is null or too short for the specified count
+     */
+    public static int toUTM(double[] locations, int count, int[] zones, Hemisphere[] hemispheres, double[] eastNorth) {
+        checkCount(count, "toUTM");
+        checkLength(locations, count * 2, "toUTM");
+        checkLength(zones, count, "toUTM");
+        checkLength(hemispheres, count, "toUTM");
+        checkLength(eastNorth, count * 2, "toUTM");
+
+        int converted = 0;
+        for (int idx = 0; idx < count; idx++) {
+            double lat = Math.toRadians(locations[idx * 2]);
+            double lon = Math.toRadians(locations[idx * 2 + 1]);
+            int zone = utmZone(lat, lon);
+            if (zone != 0) {
+                double dlam = utmLongitudeOffset(lon, zone);
+                double s = Math.sin(lat);
+                double c = Math.cos(lat);
+                double t = Math.tan(lat);
+                double easting = UTM_FALSE_EASTING + transverseMercatorEasting(s, c, t, dlam);
+                double northing = (lat < 0 ? UTM_SOUTH_FALSE_NORTHING : 0) + transverseMercatorNorthing(lat, s, c, t, dlam);
+                if (easting >= UTM_MIN_EASTING && easting <= UTM_MAX_EASTING
+                    && northing >= UTM_MIN_NORTHING && northing <= UTM_MAX_NORTHING) {
+                    zones[idx] = zone;
+                    hemispheres[idx] = lat < 0 ? Hemisphere.S : Hemisphere.N;
+                    eastNorth[idx * 2] = easting;
+                    eastNorth[idx * 2 + 1] = northing;
+                    converted++;
+                    continue;
+                }
+            }
+
+            zones[idx] = 0;
+            hemispheres[idx] = null;
+            eastNorth[idx * 2] = Double.NaN;
+            eastNorth[idx * 2 + 1] = Double.NaN;
+        }
+
+        return converted;
+    }
+
+    /**
+     * Converts a packed array of UTM coordinates to locations. Eastings are not limited to the zone, so coordinates may
+     * extend into adjacent zones.
+     *
+     * @param zones       the UTM zone of each coordinate, 1 to 60
+     * @param hemispheres the hemisphere of each coordinate
+     * @param eastNorth   the coordinates to convert, as easting and northing pairs in meters
+     * @param count       the number of coordinates to convert
+     * @param locations   an array in which to return the locations, as latitude and longitude pairs in degrees
+     *
+     * @return the number of coordinates converted
+     *
+     * @throws IllegalArgumentException If any array is null or too short for the specified count
+     */
+    public static int fromUTM(int[] zones, Hemisphere[] hemispheres, double[] eastNorth, int count, double[] locations) {
+        checkCount(count, "fromUTM");
+        checkLength(zones, count, "fromUTM");
+        checkLength(hemispheres, count, "fromUTM");
+        checkLength(eastNorth, count * 2, "fromUTM");
+        checkLength(locations, count * 2, "fromUTM");
+
+        int converted = 0;
+        for (int idx = 0; idx < count; idx++) {
+            if (fromUTM(zones[idx], hemispheres[idx], eastNorth[idx * 2], eastNorth[idx * 2 + 1], locations, idx * 2)) {
+                converted++;
+            }
+        }
+
+        return converted;
+    }
+
+    /**
+     * Converts a single UTM coordinate to a location.
+     *
+     * @param zone       the UTM zone, 1 to 60
+     * @param hemisphere the hemisphere
+     * @param easting    the easting, in meters
+     * @param northing   the northing, in meters
+     * @param result     an array in which to return the latitude and longitude, in degrees
+     * @param offset     the index in the result array at which to store the latitude
+     *
+     * @return true if the coordinate was converted, otherwise false and the result contains NaN
+     */
+    public static boolean fromUTM(int zone, Hemisphere hemisphere, double easting, double northing, double[] result,
+                                  int offset) {
+        if (zone < 1 || zone > 60 || hemisphere == null
+            || !(northing >= UTM_MIN_NORTHING && northing <= UTM_MAX_NORTHING)) {
+            result[offset] = Double.NaN;
+            result[offset + 1] = Double.NaN;
+            return false;
+        }
+
+        double centralMeridian = utmCentralMeridian(zone);
+        double falseNorthing = (hemisphere == Hemisphere.S) ? UTM_SOUTH_FALSE_NORTHING : 0;
+        double tmd = (northing - falseNorthing) / UTM_SCALE;
+
+        // Footpoint latitude
+        double sr = A * (1 - ES);
+        double ftphi = tmd / sr;
+        for (int i = 0; i < 5; i++) {
+            double t10 = meridionalDistance(ftphi);
+            ftphi = ftphi + (tmd - t10) / meridianRadius(ftphi);
+        }
+
+        sr = meridianRadius(ftphi);
+        double sinPhi = Math.sin(ftphi);
+        double sn = A / Math.sqrt(1 - ES * sinPhi * sinPhi);
+        double sn2 = sn * sn;
+        double sn3 = sn2 * sn;
+        double sn5 = sn3 * sn2;
+        double sn7 = sn5 * sn2;
+        double c = Math.cos(ftphi);
+        double t = Math.tan(ftphi);
+        double tan2 = t * t;
+        double tan4 = tan2 * tan2;
+        double tan6 = tan4 * tan2;
+        double eta = EBS * c * c;
+        double eta2 = eta * eta;
+        double eta3 = eta2 * eta;
+        double eta4 = eta3 * eta;
+        double k = UTM_SCALE;
+        double k2 = k * k;
+        double k3 = k2 * k;
+        double k4 = k2 * k2;
+        double k5 = k4 * k;
+        double k6 = k4 * k2;
+        double k7 = k6 * k;
+        double k8 = k4 * k4;
+        double de = easting - UTM_FALSE_EASTING;
+        if (Math.abs(de) < 0.0001) {
+            de = 0.0;
+        }
+        double de2 = de * de;
+        double de3 = de2 * de;
+        double de4 = de2 * de2;
+
+        double t10 = t / (2 * sr * sn * k2);
+        double t11 = t * (5 + 3 * tan2 + eta - 4 * eta2 - 9 * tan2 * eta) / (24 * sr * sn3 * k4);
+        double t12 = t * (61 + 90 * tan2 + 46 * eta + 45 * tan4 - 252 * tan2 * eta - 3 * eta2 + 100 * eta3
+            - 66 * tan2 * eta2 - 90 * tan4 * eta + 88 * eta4 + 225 * tan4 * eta2 + 84 * tan2 * eta3
+            - 192 * tan2 * eta4) / (720 * sr * sn5 * k6);
+        double t13 = t * (1385 + 3633 * tan2 + 4095 * tan4 + 1575 * tan6) / (40320 * sr * sn7 * k8);
+        double lat = ftphi - de2 * t10 + de4 * t11 - de4 * de2 * t12 + de4 * de4 * t13;
+
+        double t14 = 1 / (sn * c * k);
+        double t15 = (1 + 2 * tan2 + eta) / (6 * sn3 * c * k3);
+        double t16 = (5 + 6 * eta + 28 * tan2 - 3 * eta2 + 8 * tan2 * eta + 24 * tan4 - 4 * eta3 + 4 * tan2 * eta2
+            + 24 * tan2 * eta3) / (120 * sn5 * c * k5);
+        double t17 = (61 + 662 * tan2 + 1320 * tan4 + 720 * tan6) / (5040 * sn7 * c * k7);
+        double dlam = de * t14 - de3 * t15 + de3 * de2 * t16 - de3 * de4 * t17;
+
+        double lon = centralMeridian + dlam;
+        boolean lonError = false;
+        if (lon > PI) {
+            lon -= 2 * PI;
+            lonError = Math.abs(lon) > PI;
+        }
+
+        if (lonError || Math.abs(lat) > PI / 2 || lat < UTM_MIN_LAT || lat > UTM_MAX_LAT) {
+            result[offset] = Double.NaN;
+            result[offset + 1] = Double.NaN;
+            return false;
+        }
+
+        result[offset] = Math.toDegrees(lat);
+        result[offset + 1] = Math.toDegrees(lon);
+        return true;
+    }
+
+    /**
+     * Converts a packed array of locations to UPS coordinates. Locations between 72 degrees south and 72 degrees north
+     * cannot be converted.
+     *
+     * @param locations   the locations to convert, as latitude and longitude pairs in degrees
+     * @param count       the number of locations to convert
+     * @param hemispheres an array in which to return each location's hemisphere
+     * @param eastNorth   an array in which to return each location's easting and northing pair, in meters
+     *
+     * @return the number of locations converted
+     *
+     * @throws IllegalArgumentException If any array is null or too short for the specified count
+     */
+    public static int toUPS(double[] locations, int count, Hemisphere[] hemispheres, double[] eastNorth) {
+        checkCount(count, "toUPS");
+        checkLength(locations, count * 2, "toUPS");
+        checkLength(hemispheres, count, "toUPS");
+        checkLength(eastNorth, count * 2, "toUPS");
+
+        int converted = 0;
+        for (int idx = 0; idx < count; idx++) {
+            double lat = Math.toRadians(locations[idx * 2]);
+            double lon = Math.toRadians(locations[idx * 2 + 1]);
+            if (isUPSLocation(lat, lon)) {
+                double rho = polarRadius(lat);
+                double dlam = polarLongitudeOffset(lat, lon);
+                hemispheres[idx] = lat < 0 ? Hemisphere.S : Hemisphere.N;
+                eastNorth[idx * 2] = UPS_FALSE_EASTING_NORTHING + rho * Math.sin(dlam) * (lat < 0 ? -1 : 1);
+                eastNorth[idx * 2 + 1] = UPS_FALSE_EASTING_NORTHING - rho * Math.cos(dlam) * (lat < 0 ? -1 : 1);
+                converted++;
+            } else {
+                hemispheres[idx] = null;
+                eastNorth[idx * 2] = Double.NaN;
+                eastNorth[idx * 2 + 1] = Double.NaN;
+            }
+        }
+
+        return converted;
+    }
+
+    /**
+     * Converts a packed array of UPS coordinates to locations.
+     *
+     * @param hemispheres the hemisphere of each coordinate
+     * @param eastNorth   the coordinates to convert, as easting and northing pairs in meters
+     * @param count       the number of coordinates to convert
+     * @param locations   an array in which to return the locations, as latitude and longitude pairs in degrees
+     *
+     * @return the number of coordinates converted
+     *
+     * @throws IllegalArgumentException If any array is null or too short for the specified count
+     */
+    public static int fromUPS(Hemisphere[] hemispheres, double[] eastNorth, int count, double[] locations) {
+        checkCount(count, "fromUPS");
+        checkLength(hemispheres, count, "fromUPS");
+        checkLength(eastNorth, count * 2, "fromUPS");
+        checkLength(locations, count * 2, "fromUPS");
+
+        int converted = 0;
+        for (int idx = 0; idx < count; idx++) {
+            if (fromUPS(hemispheres[idx], eastNorth[idx * 2], eastNorth[idx * 2 + 1], locations, idx * 2)) {
+                converted++;
+            }
+        }
+
+        return converted;
+    }
+
+    /**
+     * Converts a single UPS coordinate to a location.
+     *
+     * @param hemisphere the hemisphere
+     * @param easting    the easting, in meters
+     * @param northing   the northing, in meters
+     * @param result     an array in which to return the latitude and longitude, in degrees
+     * @param offset     the index in the result array at which to store the latitude
+     *
+     * @return true if the coordinate was converted, otherwise false and the result contains NaN
+     */
+    public static boolean fromUPS(Hemisphere hemisphere, double easting, double northing, double[] result, int offset) {
+        if (hemisphere == null || !(easting >= 0 && easting <= UPS_MAX_EAST_NORTH)
+            || !(northing >= 0 && northing <= UPS_MAX_EAST_NORTH)) {
+            result[offset] = Double.NaN;
+            result[offset + 1] = Double.NaN;
+            return false;
+        }
+
+        boolean south = (hemisphere == Hemisphere.S);
+        double originLon = south ? -0.0 : 0.0;
+        double dy = northing - UPS_FALSE_EASTING_NORTHING;
+        double dx = easting - UPS_FALSE_EASTING_NORTHING;
+        double lat, lon;
+
+        if (dy == 0.0 && dx == 0.0) {
+            lat = PI / 2;
+            lon = originLon;
+        } else {
+            if (south) {
+                dy = -dy;
+                dx = -dx;
+            }
+
+            double t = Math.sqrt(dx * dx + dy * dy) * POLAR_TC / POLAR_A_MC;
+            double phi = PI / 2 - 2.0 * Math.atan(t);
+            double tempPhi = 0.0;
+            while (Math.abs(phi - tempPhi) > 1.0e-10) {
+                tempPhi = phi;
+                double essin = POLAR_ES * Math.sin(phi);
+                double powEs = Math.pow((1.0 - essin) / (1.0 + essin), POLAR_ES_OVER_2);
+                phi = PI / 2 - 2.0 * Math.atan(t * powEs);
+            }
+
+            lat = Math.min(phi, PI / 2);
+            lon = originLon + Math.atan2(dx, -dy);
+            if (lon > PI) {
+                lon -= 2 * PI;
+            } else if (lon < -PI) {
+                lon += 2 * PI;
+            }
+            lon = Math.max(-PI, Math.min(PI, lon));
+        }
+
+        if (south) {
+            lat = -lat;
+            lon = -lon;
+        }
+
+        if ((lat < 0 && lat > UPS_MIN_SOUTH_LAT) || (lat >= 0 && lat < UPS_MIN_NORTH_LAT)) {
+            result[offset] = Double.NaN;
+            result[offset + 1] = Double.NaN;
+            return false;
+        }
+
+        result[offset] = Math.toDegrees(lat);
+        result[offset + 1] = Math.toDegrees(lon);
+        return true;
+    }
+
+    /**
+     * Returns the number of characters in an MGRS string of the specified precision, including the separating
+     * spaces. Every MGRS string of the same precision has the same length; UPS strings begin with two spaces in place
+     * of the zone number.
+     *
+     * @param precision the number of digits in the easting and northing, 1 to 5
+     *
+     * @return the MGRS string length
+     *
+     * @throws IllegalArgumentException If the precision is not between 1 and 5
+     */
+    public static int getMGRSLength(int precision) {
+        checkPrecision(precision, "getMGRSLength");
+        return 7 + 2 * precision;
+    }
+
+    /**
+     * Encodes a location as an MGRS string in a character array, in the same format as {@link MGRSCoord#toString()}.
+     * The array must have room for {@link #getMGRSLength(int)} characters following the offset.
+     *
+     * @param latitude  the location's latitude, in degrees
+     * @param longitude the location's longitude, in degrees
+     * @param precision the number of digits in the easting and northing, 1 to 5
+     * @param result    an array in which to return the MGRS string's characters
+     * @param offset    the index in the result array at which to store the first character
+     *
+     * @return the number of characters stored, or 0 if the location cannot be converted
+     *
+     * @throws IllegalArgumentException If the precision is not between 1 and 5, or if the result is null or too short
+     */
+    public static int toMGRS(double latitude, double longitude, int precision, char[] result, int offset) {
+        int length = getMGRSLength(precision);
+        if (result == null || offset < 0 || result.length < offset + length) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GridCoordConverter", "toMGRS", "missingResult"));
+        }
+
+        long components = mgrsComponents(Math.toRadians(latitude), Math.toRadians(longitude), precision);
+        if (components < 0) {
+            return 0;
+        }
+
+        int zone = (int) (components >>> 49);
+        result[offset++] = (zone == 0) ? ' ' : (char) ('0' + zone / 10);
+        result[offset++] = (zone == 0) ? ' ' : (char) ('0' + zone % 10);
+        result[offset++] = (char) ('A' + ((components >>> 44) & 0x1F));
+        result[offset++] = (char) ('A' + ((components >>> 39) & 0x1F));
+        result[offset++] = (char) ('A' + ((components >>> 34) & 0x1F));
+        result[offset++] = ' ';
+        offset = putDigits((int) ((components >>> 17) & 0x1FFFF), precision, result, offset);
+        result[offset++] = ' ';
+        putDigits((int) (components & 0x1FFFF), precision, result, offset);
+
+        return length;
+    }
+
+    /**
+     * Encodes a location as an MGRS string and appends it to a string builder, in the same format as {@link
+     * MGRSCoord#toString()}.
+     *
+     * @param latitude  the location's latitude, in degrees
+     * @param longitude the location's longitude, in degrees
+     * @param precision the number of digits in the easting and northing, 1 to 5
+     * @param result    the string builder to append to
+     *
+     * @return true if the location was converted, otherwise false and the string builder is unmodified
+     *
+     * @throws IllegalArgumentException If the precision is not between 1 and 5, or if the result is null
+     */
+    public static boolean appendMGRS(double latitude, double longitude, int precision, StringBuilder result) {
+        checkPrecision(precision, "appendMGRS");
+        if (result == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GridCoordConverter", "appendMGRS", "missingResult"));
+        }
+
+        long components = mgrsComponents(Math.toRadians(latitude), Math.toRadians(longitude), precision);
+        if (components < 0) {
+            return false;
+        }
+
+        int zone = (int) (components >>> 49);
+        result.append((zone == 0) ? ' ' : (char) ('0' + zone / 10));
+        result.append((zone == 0) ? ' ' : (char) ('0' + zone % 10));
+        result.append((char) ('A' + ((components >>> 44) & 0x1F)));
+        result.append((char) ('A' + ((components >>> 39) & 0x1F)));
+        result.append((char) ('A' + ((components >>> 34) & 0x1F)));
+        result.append(' ');
+        appendDigits((int) ((components >>> 17) & 0x1FFFF), precision, result);
+        result.append(' ');
+        appendDigits((int) (components & 0x1FFFF), precision, result);
+
+        return true;
+    }
+
+    /**
+     * Computes the components of a location's MGRS string, packed into a long: the zone in bits 49-54, the three
+     * letters' alphabet indices in bits 44-48, 39-43 and 34-38, the easting digits in bits 17-33 and the northing
+     * digits in bits 0-16. The zone is 0 for UPS locations. Returns -1 if the location cannot be converted.
+     */
+    protected static long mgrsComponents(double lat, double lon, int precision) {
+        if (lat < -PI / 2 || lat > PI / 2 || lon < -PI || lon > 2 * PI) {
+            return -1;
+        }
+
+        double divisor = MGRS_DIVISORS[precision];
+        int zone;
+        int letter0, letter1, letter2;
+        double easting, northing;
+
+        if (lat < MGRS_MIN_UTM_LAT || lat > MGRS_MAX_UTM_LAT) {
+            if (!isUPSLocation(lat, lon)) {
+                return -1;
+            }
+
+            double rho = polarRadius(lat);
+            double dlam = polarLongitudeOffset(lat, lon);
+            easting = UPS_FALSE_EASTING_NORTHING + rho * Math.sin(dlam) * (lat < 0 ? -1 : 1);
+            northing = UPS_FALSE_EASTING_NORTHING - rho * Math.cos(dlam) * (lat < 0 ? -1 : 1);
+            if (!(easting >= 0 && easting <= UPS_MAX_EAST_NORTH && northing >= 0 && northing <= UPS_MAX_EAST_NORTH)) {
+                return -1;
+            }
+
+            easting = roundMGRS(easting / divisor) * divisor;
+            northing = roundMGRS(northing / divisor) * divisor;
+
+            zone = 0;
+            if (lat >= 0) {
+                letter0 = (easting >= TWOMIL) ? LETTER_Z : LETTER_Y;
+            } else {
+                letter0 = (easting >= TWOMIL) ? LETTER_B : LETTER_A;
+            }
+
+            int index = (letter0 >= LETTER_Y) ? letter0 - 22 : letter0;
+            letter2 = (int) ((northing - UPS_FALSE_NORTHINGS[index]) / ONEHT);
+            if (letter2 > LETTER_H) {
+                letter2++;
+            }
+            if (letter2 > LETTER_N) {
+                letter2++;
+            }
+
+            letter1 = UPS_LTR2_LOW_VALUES[index] + (int) ((easting - UPS_FALSE_EASTINGS[index]) / ONEHT);
+            if (easting < TWOMIL) {
+                if (letter1 > LETTER_L) {
+                    letter1 += 3;
+                }
+                if (letter1 > LETTER_U) {
+                    letter1 += 2;
+                }
+            } else {
+                if (letter1 > LETTER_C) {
+                    letter1 += 2;
+                }
+                if (letter1 > LETTER_H) {
+                    letter1++;
+                }
+                if (letter1 > LETTER_L) {
+                    letter1 += 3;
+                }
+            }
+        } else {
+            zone = utmZone(lat, lon);
+            if (zone == 0) {
+                return -1;
+            }
+
+            double dlam = utmLongitudeOffset(lon, zone);
+            double s = Math.sin(lat);
+            double c = Math.cos(lat);
+            double t = Math.tan(lat);
+            easting = UTM_FALSE_EASTING + transverseMercatorEasting(s, c, t, dlam);
+            northing = (lat < 0 ? UTM_SOUTH_FALSE_NORTHING : 0) + transverseMercatorNorthing(lat, s, c, t, dlam);
+            if (!(easting >= UTM_MIN_EASTING && easting <= UTM_MAX_EASTING
+                && northing >= UTM_MIN_NORTHING && northing <= UTM_MAX_NORTHING)) {
+                return -1;
+            }
+
+            easting = roundMGRS(easting / divisor) * divisor;
+            northing = roundMGRS(northing / divisor) * divisor;
+
+            // The latitude band letter
+            double latDeg = lat * RAD_TO_DEG;
+            if (latDeg >= 72 && latDeg < 84.5) {
+                letter0 = LETTER_X;
+            } else if (latDeg > -80.5 && latDeg < 72) {
+                letter0 = LATITUDE_BAND_LETTERS[(int) (((lat + (80.0 * DEG_TO_RAD)) / (8.0 * DEG_TO_RAD)) + 1.0e-12)];
+            } else {
+                return -1;
+            }
+
+            // The 100 km square letters, using the grid values of the zone's set number
+            int setNumber = zone % 6;
+            if (setNumber == 0) {
+                setNumber = 6;
+            }
+            int ltr2LowValue = (setNumber == 1 || setNumber == 4) ? LETTER_A :
+                (setNumber == 2 || setNumber == 5) ? LETTER_J : LETTER_S;
+            double falseNorthing = (setNumber % 2 == 0) ? 500000.0 : 0.0;
+
+            double gridNorthing = northing;
+            if (gridNorthing == 1.e7) {
+                gridNorthing = gridNorthing - 1.0;
+            }
+            while (gridNorthing >= TWOMIL) {
+                gridNorthing = gridNorthing - TWOMIL;
+            }
+            gridNorthing = gridNorthing + falseNorthing;
+            if (gridNorthing >= TWOMIL) {
+                gridNorthing = gridNorthing - TWOMIL;
+            }
+
+            letter2 = (int) (gridNorthing / ONEHT);
+            if (letter2 > LETTER_H) {
+                letter2++;
+            }
+            if (letter2 > LETTER_N) {
+                letter2++;
+            }
+
+            double gridEasting = easting;
+            if (letter0 == LETTER_V && zone == 31 && gridEasting == 500000.0) {
+                gridEasting = gridEasting - 1.0; // subtract 1 meter
+            }
+
+            letter1 = ltr2LowValue + ((int) (gridEasting / ONEHT) - 1);
+            if (ltr2LowValue == LETTER_J && letter1 > LETTER_N) {
+                letter1++;
+            }
+        }
+
+        if (letter0 < 0 || letter0 > LETTER_Z || letter1 < 0 || letter1 > LETTER_Z || letter2 < 0 || letter2 > LETTER_Z) {
+            return -1;
+        }
+
+        easting = easting % 100000.0;
+        if (easting >= 99999.5) {
+            easting = 99999.0;
+        }
+        northing = northing % 100000.0;
+        if (northing >= 99999.5) {
+            northing = 99999.0;
+        }
+        long east = (long) (easting / divisor);
+        long north = (long) (northing / divisor);
+
+        return ((long) zone << 49) | ((long) letter0 << 44) | ((long) letter1 << 39) | ((long) letter2 << 34)
+            | (east << 17) | north;
+    }
+
+    /**
+     * Returns the UTM zone containing a location in radians, including the exceptions for southwest Norway and
+     * Svalbard, or 0 if the location is outside the UTM latitude range.
+     */
+    protected static int utmZone(double lat, double lon) {
+        if (lat < UTM_MIN_LAT || lat > UTM_MAX_LAT || lon < -PI || lon > 2 * PI) {
+            return 0;
+        }
+
+        if (lon < 0) {
+            lon += (2 * PI) + 1.0e-10;
+        }
+
+        long latDegrees = (long) (lat * 180.0 / PI);
+        long lonDegrees = (long) (lon * 180.0 / PI);
+        long zone;
+        if (lon < PI) {
+            zone = (long) (31 + ((lon * 180.0 / PI) / 6.0));
+        } else {
+            zone = (long) (((lon * 180.0 / PI) / 6.0) - 29);
+        }
+        if (zone > 60) {
+            zone = 1;
+        }
+
+        if (latDegrees > 55 && latDegrees < 64 && lonDegrees > -1 && lonDegrees < 3) {
+            zone = 31;
+        }
+        if (latDegrees > 55 && latDegrees < 64 && lonDegrees > 2 && lonDegrees < 12) {
+            zone = 32;
+        }
+        if (latDegrees > 71 && lonDegrees > -1 && lonDegrees < 9) {
+            zone = 31;
+        }
+        if (latDegrees > 71 && lonDegrees > 8 && lonDegrees < 21) {
+            zone = 33;
+        }
+        if (latDegrees > 71 && lonDegrees > 20 && lonDegrees < 33) {
+            zone = 35;
+        }
+        if (latDegrees > 71 && lonDegrees > 32 && lonDegrees < 42) {
+            zone = 37;
+        }
+
+        return (int) zone;
+    }
+
+    /**
+     * Returns the central meridian of a UTM zone, in radians between -PI and PI.
+     */
+    protected static double utmCentralMeridian(int zone) {
+        double centralMeridian = (zone >= 31) ? (6 * zone - 183) * PI / 180.0 : (6 * zone + 177) * PI / 180.0;
+        if (centralMeridian > PI) {
+            centralMeridian -= (2 * PI);
+        }
+
+        return centralMeridian;
+    }
+
+    /**
+     * Returns the difference between a longitude and a UTM zone's central meridian, in radians. Longitudes west of the
+     * prime meridian are offset by the same small amount as UTMCoordConverter's zone computation.
+     */
+    protected static double utmLongitudeOffset(double lon, int zone) {
+        if (lon < 0) {
+            lon += (2 * PI) + 1.0e-10;
+        }
+        if (lon > PI) {
+            lon -= (2 * PI);
+        }
+
+        double dlam = lon - utmCentralMeridian(zone);
+        if (dlam > PI) {
+            dlam -= (2 * PI);
+        }
+        if (dlam < -PI) {
+            dlam += (2 * PI);
+        }
+        if (Math.abs(dlam) < 2.e-10) {
+            dlam = 0.0;
+        }
+
+        return dlam;
+    }
+
+    /**
+     * Returns the true meridional distance from the equator to a latitude in radians.
+     */
+    protected static double meridionalDistance(double lat) {
+        return TM_AP * lat - TM_BP * Math.sin(2.0 * lat) + TM_CP * Math.sin(4.0 * lat)
+            - TM_DP * Math.sin(6.0 * lat) + TM_EP * Math.sin(8.0 * lat);
+    }
+
+    /**
+     * Returns the radius of curvature in the meridian at a latitude in radians.
+     */
+    protected static double meridianRadius(double lat) {
+        double s = Math.sin(lat);
+        double d = Math.sqrt(1 - ES * s * s);
+        return A * (1 - ES) / (d * d * d);
+    }
+
+    /**
+     * Returns the UTM easting relative to the false easting, given the sine, cosine and tangent of a latitude and the
+     * difference between the longitude and the central meridian.
+     */
+    protected static double transverseMercatorEasting(double s, double c, double t, double dlam) {
+        double c2 = c * c;
+        double c3 = c2 * c;
+        double c5 = c3 * c2;
+        double c7 = c5 * c2;
+        double tan2 = t * t;
+        double tan4 = tan2 * tan2;
+        double tan6 = tan4 * tan2;
+        double eta = EBS * c2;
+        double eta2 = eta * eta;
+        double eta3 = eta2 * eta;
+        double sn = A / Math.sqrt(1 - ES * s * s);
+        double dlam2 = dlam * dlam;
+        double dlam3 = dlam2 * dlam;
+        double dlam5 = dlam3 * dlam2;
+
+        double t6 = sn * c * UTM_SCALE;
+        double t7 = sn * c3 * UTM_SCALE * (1 - tan2 + eta) / 6;
+        double t8 = sn * c5 * UTM_SCALE * (5 - 18 * tan2 + tan4 + 14 * eta - 58 * tan2 * eta + 13 * eta2 + 4 * eta3
+            - 64 * tan2 * eta2 - 24 * tan2 * eta3) / 120;
+        double t9 = sn * c7 * UTM_SCALE * (61 - 479 * tan2 + 179 * tan4 - tan6) / 5040;
+
+        return dlam * t6 + dlam3 * t7 + dlam5 * t8 + dlam5 * dlam2 * t9;
+    }
+
+    /**
+     * Returns the UTM northing relative to the false northing, given a latitude in radians, its sine, cosine and
+     * tangent, and the difference between the longitude and the central meridian.
+     */
+    protected static double transverseMercatorNorthing(double lat, double s, double c, double t, double dlam) {
+        double c2 = c * c;
+        double c3 = c2 * c;
+        double c5 = c3 * c2;
+        double c7 = c5 * c2;
+        double tan2 = t * t;
+        double tan4 = tan2 * tan2;
+        double tan6 = tan4 * tan2;
+        double eta = EBS * c2;
+        double eta2 = eta * eta;
+        double eta3 = eta2 * eta;
+        double eta4 = eta3 * eta;
+        double sn = A / Math.sqrt(1 - ES * s * s);
+        double dlam2 = dlam * dlam;
+        double dlam4 = dlam2 * dlam2;
+
+        double t1 = meridionalDistance(lat) * UTM_SCALE;
+        double t2 = sn * s * c * UTM_SCALE / 2;
+        double t3 = sn * s * c3 * UTM_SCALE * (5 - tan2 + 9 * eta + 4 * eta2) / 24;
+        double t4 = sn * s * c5 * UTM_SCALE * (61 - 58 * tan2 + tan4 + 270 * eta - 330 * tan2 * eta + 445 * eta2
+            + 324 * eta3 - 680 * tan2 * eta2 + 88 * eta4 - 600 * tan2 * eta3 - 192 * tan2 * eta4) / 720;
+        double t5 = sn * s * c7 * UTM_SCALE * (1385 - 3111 * tan2 + 543 * tan4 - tan6) / 40320;
+
+        return t1 + dlam2 * t2 + dlam4 * t3 + dlam4 * dlam2 * t4 + dlam4 * dlam4 * t5;
+    }
+
+    /**
+     * Indicates whether a location in radians is within the UPS latitude range.
+     */
+    protected static boolean isUPSLocation(double lat, double lon) {
+        return lat >= -PI / 2 && lat <= PI / 2 && lon >= -PI && lon <= 2 * PI
+            && !(lat < 0 && lat > UPS_MIN_SOUTH_LAT) && !(lat >= 0 && lat < UPS_MIN_NORTH_LAT);
+    }
+
+    /**
+     * Returns a location's distance from the pole in the UPS projection, in meters. The location's latitude is in
+     * radians.
+     */
+    protected static double polarRadius(double lat) {
+        lat = Math.abs(lat);
+        if (Math.abs(lat - PI / 2) < 1.0e-10) {
+            return 0;
+        }
+
+        double essin = POLAR_ES * Math.sin(lat);
+        double powEs = Math.pow((1.0 - essin) / (1.0 + essin), POLAR_ES_OVER_2);
+        return POLAR_A_MC * (Math.tan(PI / 4 - lat / 2.0) / powEs) / POLAR_TC;
+    }
+
+    /**
+     * Returns the longitude, in radians, measured in the direction of the UPS projection for a location's hemisphere.
+     */
+    protected static double polarLongitudeOffset(double lat, double lon) {
+        double dlam = (lat < 0) ? -lon : lon;
+        if (dlam > PI) {
+            dlam -= 2 * PI;
+        }
+        if (dlam < -PI) {
+            dlam += 2 * PI;
+        }
+
+        return dlam;
+    }
+
+    /**
+     * Rounds a value to the nearest integer, rounding halves to the nearest even integer.
+     */
+    protected static double roundMGRS(double value) {
+        double ivalue = Math.floor(value);
+        long ival = (long) ivalue;
+        double fraction = value - ivalue;
+        if ((fraction > 0.5) || ((fraction == 0.5) && (ival % 2 == 1))) {
+            ival++;
+        }
+
+        return ival;
+    }
+
+    /**
+     * Stores a value's decimal digits in a character array, zero padded to the specified digit count.
+     */
+    protected static int putDigits(int value, int digitCount, char[] result, int offset) {
+        for (int idx = offset + digitCount - 1; idx >= offset; idx--) {
+            result[idx] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+
+        return offset + digitCount;
+    }
+
+    /**
+     * Appends a value's decimal digits to a string builder, zero padded to the specified digit count.
+     */
+    protected static void appendDigits(int value, int digitCount, StringBuilder result) {
+        for (int divisor = (int) MGRS_DIVISORS[6 - digitCount]; divisor > 0; divisor /= 10) {
+            result.append((char) ('0' + (value / divisor) % 10));
+        }
+    }
+
+    private static void checkCount(int count, String methodName) {
+        if (count < 0) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GridCoordConverter", methodName, "invalidCount"));
+        }
+    }
+
+    private static void checkLength(double[] array, int length, String methodName) {
+        if (array == null || array.length < length) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GridCoordConverter", methodName, "missingArray"));
+        }
+    }
+
+    private static void checkLength(int[] array, int length, String methodName) {
+        if (array == null || array.length < length) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GridCoordConverter", methodName, "missingArray"));
+        }
+    }
+
+    private static void checkLength(Object[] array, int length, String methodName) {
+        if (array == null || array.length < length) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GridCoordConverter", methodName, "missingArray"));
+        }
+    }
+
+    private static void checkPrecision(int precision, String methodName) {
+        if (precision < 1 || precision > 5) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GridCoordConverter", methodName, "invalidPrecision"));
+        }
+    }
+}
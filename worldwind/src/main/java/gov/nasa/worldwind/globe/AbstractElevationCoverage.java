@@ -98,6 +98,30 @@ public abstract class AbstractElevationCoverage implements ElevationCoverage {
         this.doGetHeightGrid(gridSector, gridWidth, gridHeight, result);
     }
 
+    @Override
+    public void getHeights(double[] locations, int count, float[] result, boolean[] missing) {
+        if (locations == null || locations.length < count * 2) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "AbstractElevationCoverage", "getHeights", "missingArray"));
+        }
+
+        if (result == null || result.length < count) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "AbstractElevationCoverage", "getHeights", "missingResult"));
+        }
+
+        if (missing != null && missing.length < count) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "AbstractElevationCoverage", "getHeights", "missingArray"));
+        }
+
+        if (!this.isEnabled()) {
+            return;
+        }
+
+        this.doGetHeights(locations, count, result, missing);
+    }
+
     @Override
     public void getHeightLimits(Sector sector, float[] result) {
         if (sector == null) {
@@ -120,4 +144,22 @@ public abstract class AbstractElevationCoverage implements ElevationCoverage {
     protected abstract void doGetHeightGrid(Sector gridSector, int gridWidth, int gridHeight, float[] result);
 
     protected abstract void doGetHeightLimits(Sector sector, float[] result);
+
+    protected void doGetHeights(double[] locations, int count, float[] result, boolean[] missing) {
+        // Sample each location with a single sample height grid. Subclasses override this method to sample many
+        // locations more efficiently. Heights are initialized to NaN to detect the locations without data.
+        Sector sector = new Sector();
+        float[] height = new float[1];
+        for (int idx = 0; idx < count; idx++) {
+            sector.set(locations[idx * 2], locations[idx * 2 + 1], 1E-15, 1E-15); // sectors can not have zero deltas
+            height[0] = Float.NaN;
+            this.doGetHeightGrid(sector, 1, 1, height);
+            if (!Float.isNaN(height[0])) {
+                result[idx] = height[0];
+                if (missing != null) {
+                    missing[idx] = false;
+                }
+            }
+        }
+    }
 }
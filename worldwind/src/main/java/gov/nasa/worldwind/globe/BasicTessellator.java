@@ -16,6 +16,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import gov.nasa.worldwind.draw.BasicDrawableTerrain;
+import gov.nasa.worldwind.geom.Frustum;
 import gov.nasa.worldwind.geom.Location;
 import gov.nasa.worldwind.geom.Range;
 import gov.nasa.worldwind.geom.Sector;
@@ -25,7 +26,7 @@ import gov.nasa.worldwind.render.RenderContext;
 import gov.nasa.worldwind.util.Level;
 import gov.nasa.worldwind.util.LevelSet;
 import gov.nasa.worldwind.util.Logger;
-import gov.nasa.worldwind.util.LruMemoryCache;
+import gov.nasa.worldwind.util.LongLruMemoryCache;
 import gov.nasa.worldwind.util.Pool;
 import gov.nasa.worldwind.util.Tile;
 import gov.nasa.worldwind.util.TileFactory;
@@ -47,7 +48,7 @@ public class BasicTessellator implements Tessellator, TileFactory {
      * number tuned to store the tiles needed to navigate a small region, given the tessellator's first level tile delta
      * of 90 degrees, tile dimensions of 32x32 and detail control of 80.
      */
-    protected LruMemoryCache<String, Tile[]> tileCache = new LruMemoryCache<>(200);
+    protected LongLruMemoryCache<Tile[]> tileCache = new LongLruMemoryCache<>(200);
 
     protected float[] levelSetVertexTexCoords;
 
@@ -116,7 +117,7 @@ public class BasicTessellator implements Tessellator, TileFactory {
 
         // Subdivide the top level tiles until the desired resolution is achieved in each part of the scene.
         for (int idx = 0, len = this.topLevelTiles.size(); idx < len; idx++) {
-            this.addTileOrDescendants(rc, (TerrainTile) this.topLevelTiles.get(idx));
+            this.addTileOrDescendants(rc, (TerrainTile) this.topLevelTiles.get(idx), Frustum.ALL_PLANES);
         }
 
         // Release references to render resources acquired while assembling tiles.
@@ -131,9 +132,16 @@ public class BasicTessellator implements Tessellator, TileFactory {
         }
     }
 
-    protected void addTileOrDescendants(RenderContext rc, TerrainTile tile) {
-        if (!tile.intersectsSector(this.levelSet.sector) || !tile.intersectsFrustum(rc, rc.frustum)) {
-            return; // ignore the tile and its descendants if it's not needed or not visible
+    protected void addTileOrDescendants(RenderContext rc, TerrainTile tile, int planeMask) {
+        if (!tile.intersectsSector(this.levelSet.sector)) {
+            return; // ignore the tile and its descendants if it's not needed
+        }
+
+        // Test the tile against the frustum planes its parent straddles. Its descendants need not be tested against
+        // the planes it lies entirely inside.
+        planeMask = tile.intersectsFrustumPlanes(rc, rc.frustum, planeMask);
+        if (planeMask < 0) {
+            return; // ignore the tile and its descendants if it's not visible
         }
 
         if (tile.level.isLastLevel() || !tile.mustSubdivide(rc, this.detailControl)) {
@@ -142,7 +150,7 @@ public class BasicTessellator implements Tessellator, TileFactory {
         }
 
         for (Tile child : tile.subdivideToCache(this, this.tileCache, 4)) { // each tile has a cached size of 1
-            this.addTileOrDescendants(rc, (TerrainTile) child); // recursively process the tile's children
+            this.addTileOrDescendants(rc, (TerrainTile) child, planeMask); // recursively process the tile's children
         }
     }
 
@@ -29,5 +29,18 @@ public interface ElevationCoverage {
 
     void getHeightGrid(Sector gridSector, int gridWidth, int gridHeight, float[] result);
 
+    /**
+     * Determines the heights at a list of geographic locations. Locations are specified as packed latitude and
+     * longitude pairs in degrees. Heights are written to the result only for the locations where this coverage has
+     * data; the result is not modified at the remaining locations.
+     *
+     * @param locations the locations' packed latitude and longitude pairs, in degrees
+     * @param count     the number of locations
+     * @param result    a pre-allocated array to hold one height per location, in meters
+     * @param missing   an optional array whose value is set to false at each location this coverage provides a height
+     *                  for, or null
+     */
+    void getHeights(double[] locations, int count, float[] result, boolean[] missing);
+
     void getHeightLimits(Sector sector, float[] result);
 }
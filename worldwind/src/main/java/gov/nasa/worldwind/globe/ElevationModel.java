@@ -5,15 +5,21 @@
 
 package gov.nasa.worldwind.globe;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import gov.nasa.worldwind.geom.Sector;
 import gov.nasa.worldwind.util.Logger;
 
+/**
+ * A composite of elevation coverages. Height queries may be made from multiple threads, such as the workers of a
+ * ParallelLayerRenderer, and do not lock the model: each query reads a snapshot of the coverage list, and coverages
+ * guard their own shared state. Coverages are added and removed on the main thread.
+ */
 public class ElevationModel implements Iterable<ElevationCoverage> {
 
-    protected ArrayList<ElevationCoverage> coverages = new ArrayList<>();
+    protected CopyOnWriteArrayList<ElevationCoverage> coverages = new CopyOnWriteArrayList<>();
 
     public ElevationModel() {
     }
@@ -81,7 +87,7 @@ public class ElevationModel implements Iterable<ElevationCoverage> {
                 Logger.logMessage(Logger.ERROR, "ElevationModel", "addCoverage", "missingCoverage"));
         }
 
-        return !this.coverages.contains(coverage) && this.coverages.add(coverage);
+        return this.coverages.addIfAbsent(coverage);
     }
 
     public boolean addAllCoverages(ElevationModel model) {
@@ -90,13 +96,9 @@ public class ElevationModel implements Iterable<ElevationCoverage> {
                 Logger.logMessage(Logger.ERROR, "ElevationModel", "addAllCoverages", "missingModel"));
         }
 
-        ArrayList<ElevationCoverage> thisList = this.coverages;
-        ArrayList<ElevationCoverage> thatList = model.coverages;
-        thisList.ensureCapacity(thatList.size());
         boolean changed = false;
 
-        for (int idx = 0, len = thatList.size(); idx < len; idx++) {
-            ElevationCoverage thatCoverage = thatList.get(idx); // we know the contents of model.coverages is valid
+        for (ElevationCoverage thatCoverage : model.coverages) { // we know the contents of model.coverages is valid
             changed |= this.addCoverage(thatCoverage);
         }
 
@@ -133,8 +135,7 @@ public class ElevationModel implements Iterable<ElevationCoverage> {
     public long getTimestamp() {
         long maxTimestamp = 0;
 
-        for (int idx = 0, len = this.coverages.size(); idx < len; idx++) {
-            ElevationCoverage coverage = this.coverages.get(idx);
+        for (ElevationCoverage coverage : this.coverages) {
             long timestamp = coverage.getTimestamp();
             if (maxTimestamp < timestamp) {
                 maxTimestamp = timestamp;
@@ -155,12 +156,66 @@ public class ElevationModel implements Iterable<ElevationCoverage> {
                 Logger.logMessage(Logger.ERROR, "ElevationModel", "getHeightGrid", "missingResult"));
         }
 
-        for (int idx = 0, len = this.coverages.size(); idx < len; idx++) { // coverages composite from coarse to fine
-            ElevationCoverage coverage = this.coverages.get(idx);
+        for (ElevationCoverage coverage : this.coverages) { // coverages composite from coarse to fine
             coverage.getHeightGrid(gridSector, gridWidth, gridHeight, result);
         }
     }
 
+    /**
+     * Determines the heights at a list of geographic locations, sampling every coverage in the model. Locations are
+     * specified as packed latitude and longitude pairs in degrees. Coverages composite from coarse to fine, in the same
+     * manner as {@link #getHeightGrid(Sector, int, int, float[])}. The result is not modified at locations where no
+     * coverage has data.
+     *
+     * @param locations the locations' packed latitude and longitude pairs, in degrees
+     * @param count     the number of locations
+     * @param result    a pre-allocated array to hold one height per location, in meters
+     *
+     * @throws IllegalArgumentException If either array is null or has insufficient length
+     */
+    public void getHeights(double[] locations, int count, float[] result) {
+        this.getHeights(locations, count, result, null);
+    }
+
+    /**
+     * Determines the heights at a list of geographic locations, and reports which locations have no height data.
+     * Heights reflect the elevation data available when this method is called; data retrieval is initiated for missing
+     * data, so locations reported as missing typically have data in a subsequent call.
+     *
+     * @param locations the locations' packed latitude and longitude pairs, in degrees
+     * @param count     the number of locations
+     * @param result    a pre-allocated array to hold one height per location, in meters
+     * @param missing   an optional pre-allocated array that is set to true at each location without height data, and
+     *                  false elsewhere, or null
+     *
+     * @throws IllegalArgumentException If either array is null or has insufficient length, or if the missing array has
+     *                                  insufficient length
+     */
+    public void getHeights(double[] locations, int count, float[] result, boolean[] missing) {
+        if (locations == null || locations.length < count * 2) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ElevationModel", "getHeights", "missingArray"));
+        }
+
+        if (result == null || result.length < count) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ElevationModel", "getHeights", "missingResult"));
+        }
+
+        if (missing != null) {
+            if (missing.length < count) {
+                throw new IllegalArgumentException(
+                    Logger.logMessage(Logger.ERROR, "ElevationModel", "getHeights", "missingArray"));
+            }
+
+            Arrays.fill(missing, 0, count, true);
+        }
+
+        for (ElevationCoverage coverage : this.coverages) { // coverages composite from coarse to fine
+            coverage.getHeights(locations, count, result, missing);
+        }
+    }
+
     public void getHeightLimits(Sector sector, float[] result) {
         if (sector == null) {
             throw new IllegalArgumentException(
@@ -172,8 +227,7 @@ public class ElevationModel implements Iterable<ElevationCoverage> {
                 Logger.logMessage(Logger.ERROR, "ElevationModel", "getHeightLimits", "missingResult"));
         }
 
-        for (int idx = 0, len = this.coverages.size(); idx < len; idx++) { // coverage order is irrelevant
-            ElevationCoverage coverage = this.coverages.get(idx);
+        for (ElevationCoverage coverage : this.coverages) { // coverage order is irrelevant
             coverage.getHeightLimits(sector, result);
         }
     }
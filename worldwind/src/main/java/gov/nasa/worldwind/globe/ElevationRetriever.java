@@ -5,14 +5,14 @@
 
 package gov.nasa.worldwind.globe;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.net.URLConnection;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.nio.ShortBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
 
 import gov.nasa.worldwind.formats.tiff.Subfile;
 import gov.nasa.worldwind.formats.tiff.Tiff;
@@ -22,12 +22,23 @@ import gov.nasa.worldwind.util.Retriever;
 import gov.nasa.worldwind.util.SynchronizedPool;
 import gov.nasa.worldwind.util.WWUtil;
 
-public class ElevationRetriever extends Retriever<ImageSource, Void, ShortBuffer> {
+/**
+ * Retrieves elevation coverage tiles, decoding each tile's 16-bit samples directly into the array that holds the
+ * tile's samples in memory. Elevation data is read in pages, and encoded TIFF data is read into a buffer sized
+ * according to the response's content length. Pages and buffers are reused across retrievals.
+ */
+public class ElevationRetriever extends Retriever<ImageSource, Void, short[]> {
 
     protected SynchronizedPool<byte[]> pagePool = new SynchronizedPool<>();
 
     protected SynchronizedPool<ByteBuffer> bufferPool = new SynchronizedPool<>();
 
+    protected AtomicLong retrievedByteCount = new AtomicLong();
+
+    protected AtomicLong decodedByteCount = new AtomicLong();
+
+    protected AtomicLong bufferByteCount = new AtomicLong();
+
     protected static final int PAGE_SIZE = 1024 * 16;
 
     protected static final int BUFFER_SIZE = 1024 * 132;
@@ -36,13 +47,41 @@ public class ElevationRetriever extends Retriever<ImageSource, Void, ShortBuffer
         super(maxSimultaneousRetrievals);
     }
 
+    /**
+     * Indicates the number of encoded bytes this retriever has read.
+     *
+     * @return the number of bytes read
+     */
+    public long getRetrievedByteCount() {
+        return this.retrievedByteCount.get();
+    }
+
+    /**
+     * Indicates the number of bytes of elevation samples this retriever has decoded.
+     *
+     * @return the number of bytes decoded
+     */
+    public long getDecodedByteCount() {
+        return this.decodedByteCount.get();
+    }
+
+    /**
+     * Indicates the number of bytes this retriever has allocated for pages and buffers holding encoded data. This
+     * excludes the arrays holding decoded elevation samples.
+     *
+     * @return the number of bytes allocated
+     */
+    public long getBufferByteCount() {
+        return this.bufferByteCount.get();
+    }
+
     @Override
-    protected void retrieveAsync(ImageSource key, Void unused, Callback<ImageSource, Void, ShortBuffer> callback) {
+    protected void retrieveAsync(ImageSource key, Void unused, Callback<ImageSource, Void, short[]> callback) {
         try {
-            ShortBuffer buffer = this.decodeCoverage(key);
+            short[] array = this.decodeCoverage(key);
 
-            if (buffer != null) {
-                callback.retrievalSucceeded(this, key, unused, buffer);
+            if (array != null) {
+                callback.retrievalSucceeded(this, key, unused, array);
             } else {
                 callback.retrievalFailed(this, key, null); // failed but no exception
             }
@@ -51,7 +90,7 @@ public class ElevationRetriever extends Retriever<ImageSource, Void, ShortBuffer
         }
     }
 
-    protected ShortBuffer decodeCoverage(ImageSource imageSource) throws IOException {
+    protected short[] decodeCoverage(ImageSource imageSource) throws IOException {
         if (imageSource.isUrl()) {
             return this.decodeUrl(imageSource.asUrl());
         }
@@ -59,7 +98,7 @@ public class ElevationRetriever extends Retriever<ImageSource, Void, ShortBuffer
         return this.decodeUnrecognized(imageSource);
     }
 
-    protected ShortBuffer decodeUrl(String urlString) throws IOException {
+    protected short[] decodeUrl(String urlString) throws IOException {
         // TODO establish a file caching service for remote resources
         // TODO retry absent resources, they are currently handled but suppressed entirely after the first failure
         // TODO configurable connect and read timeouts
@@ -70,12 +109,13 @@ public class ElevationRetriever extends Retriever<ImageSource, Void, ShortBuffer
             conn.setConnectTimeout(3000);
             conn.setReadTimeout(30000);
 
-            stream = new BufferedInputStream(conn.getInputStream());
+            // The stream is read in pages, so it does not need to be buffered.
+            stream = conn.getInputStream();
             String contentType = conn.getContentType();
             if (contentType.equalsIgnoreCase("application/bil16")) {
-                return this.readInt16Data(stream);
+                return this.readInt16Data(stream, conn.getContentLength());
             } else if (contentType.equalsIgnoreCase("image/tiff")) {
-                return this.readTiffData(stream);
+                return this.readTiffData(stream, conn.getContentLength());
             } else {
                 throw new RuntimeException(
                     Logger.logMessage(Logger.ERROR, "ElevationRetriever", "decodeUrl", "Format not supported"));
@@ -85,32 +125,36 @@ public class ElevationRetriever extends Retriever<ImageSource, Void, ShortBuffer
         }
     }
 
-    protected ShortBuffer decodeUnrecognized(ImageSource imageSource) {
+    protected short[] decodeUnrecognized(ImageSource imageSource) {
         Logger.log(Logger.WARN, "Unrecognized image source \'" + imageSource + "\'");
         return null;
     }
 
-    protected ShortBuffer readTiffData(InputStream stream) throws IOException {
-
-        ByteBuffer tiffBuffer = this.bufferPool.acquire();
-        if (tiffBuffer == null) {
-            tiffBuffer = ByteBuffer.allocate(BUFFER_SIZE);
-        }
-        tiffBuffer.clear();
-        ByteBuffer buffer = this.bufferStream(stream, tiffBuffer);
-        Tiff tiff = new Tiff(buffer);
-        Subfile subfile = tiff.getSubfiles().get(0);
-        // check that the format of the subfile matches our supported data types
-        if (this.isTiffFormatSupported(subfile)) {
-            int dataSize = subfile.getDataSize();
-            ByteBuffer result = subfile.getData(ByteBuffer.allocate(dataSize));
-            result.clear();
-
-            this.bufferPool.release(tiffBuffer);
-            return result.asShortBuffer();
-        } else {
-            throw new RuntimeException(
-                Logger.logMessage(Logger.ERROR, "ElevationRetriever", "readTiffData", "Tiff file format not supported"));
+    /**
+     * Reads an uncompressed TIFF image into a pooled buffer, then decodes its 16-bit samples into a new array.
+     *
+     * @param stream        the stream containing the TIFF image
+     * @param contentLength the stream's length in bytes, or -1 if the length is unknown
+     *
+     * @return the image's samples
+     */
+    protected short[] readTiffData(InputStream stream, int contentLength) throws IOException {
+        ByteBuffer buffer = this.acquireBuffer(contentLength);
+        try {
+            buffer = this.bufferStream(stream, buffer);
+            Tiff tiff = new Tiff(buffer);
+            Subfile subfile = tiff.getSubfiles().get(0);
+            // check that the format of the subfile matches our supported data types
+            if (this.isTiffFormatSupported(subfile)) {
+                short[] result = subfile.getData(new short[subfile.getDataSize() / 2]);
+                this.decodedByteCount.addAndGet(result.length * 2);
+                return result;
+            } else {
+                throw new RuntimeException(
+                    Logger.logMessage(Logger.ERROR, "ElevationRetriever", "readTiffData", "Tiff file format not supported"));
+            }
+        } finally {
+            this.bufferPool.release(buffer);
         }
     }
 
@@ -121,31 +165,113 @@ public class ElevationRetriever extends Retriever<ImageSource, Void, ShortBuffer
             subfile.getCompression() == 1;
     }
 
-    protected ShortBuffer readInt16Data(InputStream stream) throws IOException {
-        ShortBuffer result = this.bufferStream(stream, ByteBuffer.allocate(BUFFER_SIZE)).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
-        return result;
-    }
+    /**
+     * Decodes little-endian 16-bit samples from a stream. When the stream's length is known, samples are decoded one
+     * page at a time directly into an array of the stream's length. Otherwise the stream is read into a pooled buffer
+     * before its samples are decoded.
+     *
+     * @param stream        the stream containing the samples
+     * @param contentLength the stream's length in bytes, or -1 if the length is unknown
+     *
+     * @return the samples
+     */
+    protected short[] readInt16Data(InputStream stream, int contentLength) throws IOException {
+        if (contentLength < 0) {
+            ByteBuffer buffer = this.acquireBuffer(contentLength);
+            try {
+                buffer = this.bufferStream(stream, buffer);
+                short[] result = new short[buffer.remaining() / 2];
+                buffer.order(ByteOrder.LITTLE_ENDIAN).asShortBuffer().get(result);
+                this.decodedByteCount.addAndGet(result.length * 2);
+                return result;
+            } finally {
+                this.bufferPool.release(buffer);
+            }
+        }
 
-    protected ByteBuffer bufferStream(InputStream stream, ByteBuffer buffer) throws IOException {
-        byte[] page = this.pagePool.acquire();
-        if (page == null) {
-            page = new byte[PAGE_SIZE];
+        byte[] page = this.acquirePage();
+        try {
+            short[] result = new short[contentLength / 2];
+            int resultIdx = 0, pageLength = 0, readCount, readTotal = 0;
+            while ((readCount = stream.read(page, pageLength, page.length - pageLength)) != -1) {
+                readTotal += readCount;
+                pageLength += readCount;
+
+                int sampleCount = pageLength / 2;
+                if (resultIdx + sampleCount > result.length) { // the stream is longer than its content length
+                    result = Arrays.copyOf(result, Math.max(resultIdx + sampleCount, result.length + (result.length >> 1)));
+                }
+
+                for (int idx = 0; idx < sampleCount; idx++) {
+                    result[resultIdx++] = (short) ((page[idx * 2] & 0xFF) | (page[idx * 2 + 1] << 8));
+                }
+
+                // Keep a sample split across reads at the start of the page.
+                if ((pageLength & 1) != 0) {
+                    page[0] = page[pageLength - 1];
+                    pageLength = 1;
+                } else {
+                    pageLength = 0;
+                }
+            }
+
+            this.retrievedByteCount.addAndGet(readTotal);
+            this.decodedByteCount.addAndGet(resultIdx * 2);
+            return (resultIdx == result.length) ? result : Arrays.copyOf(result, resultIdx);
+        } finally {
+            this.pagePool.release(page);
         }
+    }
 
+    /**
+     * Reads a stream into a buffer, replacing the buffer with a larger one when the stream exceeds its capacity.
+     *
+     * @param stream the stream to read
+     * @param buffer the buffer to read into
+     *
+     * @return the buffer containing the stream's contents, flipped for reading; may differ from the specified buffer
+     */
+    protected ByteBuffer bufferStream(InputStream stream, ByteBuffer buffer) throws IOException {
         int readCount;
-        while ((readCount = stream.read(page, 0, page.length)) != -1) {
-            if (readCount > buffer.remaining()) {
-                ByteBuffer newBuffer = ByteBuffer.allocate(buffer.capacity() + page.length);
+        while ((readCount = stream.read(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining())) != -1) {
+            buffer.position(buffer.position() + readCount);
+            this.retrievedByteCount.addAndGet(readCount);
+
+            if (!buffer.hasRemaining()) { // increase the buffer size by 50%
+                ByteBuffer newBuffer = this.allocateBuffer(buffer.capacity() + (buffer.capacity() >> 1));
                 newBuffer.put((ByteBuffer) buffer.flip());
                 buffer = newBuffer;
             }
-
-            buffer.put(page, 0, readCount);
         }
 
         buffer.flip();
-        this.pagePool.release(page);
+        return buffer;
+    }
+
+    protected ByteBuffer acquireBuffer(int contentLength) {
+        ByteBuffer buffer = this.bufferPool.acquire();
+        // Allocate one byte beyond the content length, allowing the end of the stream to be read without growing.
+        int capacity = Math.max(BUFFER_SIZE, contentLength + 1);
+        if (buffer == null || buffer.capacity() < capacity) {
+            buffer = this.allocateBuffer(capacity); // discard a pooled buffer too small for the content
+        }
 
+        buffer.clear();
         return buffer;
     }
+
+    protected ByteBuffer allocateBuffer(int capacity) {
+        this.bufferByteCount.addAndGet(capacity);
+        return ByteBuffer.allocate(capacity);
+    }
+
+    protected byte[] acquirePage() {
+        byte[] page = this.pagePool.acquire();
+        if (page == null) {
+            page = new byte[PAGE_SIZE];
+            this.bufferByteCount.addAndGet(PAGE_SIZE);
+        }
+
+        return page;
+    }
 }
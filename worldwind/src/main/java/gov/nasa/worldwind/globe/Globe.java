@@ -34,7 +34,7 @@ public class Globe {
 
     private final float[] scratchHeights = new float[1];
 
-    private final Sector scratchSector = new Sector();
+    private final double[] scratchLocation = new double[2];
 
     /**
      * Constructs a globe with a specified reference ellipsoid and projection.
@@ -334,9 +334,12 @@ public class Globe {
      * @return Elevation in meters in specified location
      */
     public double getElevationAtLocation(double latitude, double longitude) {
-        // Use 1E-15 below because sector can not have zero deltas
-        this.scratchSector.set(latitude, longitude, 1E-15, 1E-15);
-        this.getElevationModel().getHeightGrid(this.scratchSector, 1, 1, this.scratchHeights);
-        return this.scratchHeights[0];
+        synchronized (this.scratchLocation) { // layers may render on multiple threads
+            this.scratchLocation[0] = latitude;
+            this.scratchLocation[1] = longitude;
+            this.scratchHeights[0] = 0; // locations without elevation data have a height of 0
+            this.getElevationModel().getHeights(this.scratchLocation, 1, this.scratchHeights);
+            return this.scratchHeights[0];
+        }
     }
 }
@@ -463,9 +463,12 @@ public class ProjectionWgs84 implements GeographicProjection {
                 Logger.logMessage(Logger.ERROR, "ProjectionWgs84", "cartesianToLocalTransform", "missingResult"));
         }
 
-        Position pos = this.cartesianToGeographic(globe, x, y, z, this.scratchPos);
-        double radLat = Math.toRadians(pos.latitude);
-        double radLon = Math.toRadians(pos.longitude);
+        double radLat, radLon;
+        synchronized (this.scratchPos) { // shapes may compute local transforms on geometry assembly threads
+            Position pos = this.cartesianToGeographic(globe, x, y, z, this.scratchPos);
+            radLat = Math.toRadians(pos.latitude);
+            radLon = Math.toRadians(pos.longitude);
+        }
         double cosLat = Math.cos(radLat);
         double sinLat = Math.sin(radLat);
         double cosLon = Math.cos(radLon);
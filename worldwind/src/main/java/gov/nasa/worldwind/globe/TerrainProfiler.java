@@ -0,0 +1,505 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.globe;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.geom.Location;
+import gov.nasa.worldwind.util.Logger;
+
+/**
+ * Samples terrain profiles and evaluates line of sight between pairs of positions, using the heights provided by a
+ * globe's elevation model.
+ * <p/>
+ * Profiles follow a great circle, rhumb line or linear path between two locations, and are sampled at evenly spaced
+ * intervals no longer than a specified spacing. Both of the profile's end locations are sampled. Line of sight between
+ * two positions is determined by the clearance between the straight line connecting the positions and the terrain
+ * along the profile beneath it. Clearance accounts for the curvature of the globe and for atmospheric refraction,
+ * which bends lines of sight toward the globe's surface. Refraction is modeled by an effective globe radius of
+ * <code>R / (1 - k)</code>, where <code>k</code> is the profiler's refraction coefficient.
+ * <p/>
+ * Line of sight is evaluated for many pairs at once. Profile locations are computed and clearances are evaluated in
+ * parallel on the profiler's worker threads. Terrain heights for every profile are sampled in a single call to {@link
+ * ElevationModel#getHeights(double[], int, float[], boolean[])} on the calling thread, which keeps elevation model
+ * access on one thread and lets the model sample all of the profiles' locations in tile order. Heights reflect the
+ * elevation data available when the profiler is called. Locations without data have a height of NaN, and line of sight
+ * evaluated over them has a clearance of NaN; the model retrieves the missing data, so a subsequent call typically
+ * succeeds.
+ * <p/>
+ * TerrainProfiler is not thread safe. Its methods must be called from one thread at a time, typically the thread that
+ * accesses the globe's elevation model.
+ */
+public class TerrainProfiler {
+
+    /**
+     * The default refraction coefficient, representative of visible light in a standard atmosphere. Radio propagation
+     * is commonly modeled with a coefficient of 0.25, corresponding to an effective globe radius of 4/3 the actual
+     * radius.
+     */
+    public static final double DEFAULT_REFRACTION_COEFFICIENT = 0.13;
+
+    /**
+     * The number of tasks each worker thread processes, on average, when a batch is divided among worker threads.
+     */
+    protected static final int TASKS_PER_THREAD = 4;
+
+    protected Globe globe;
+
+    protected double refractionCoefficient = DEFAULT_REFRACTION_COEFFICIENT;
+
+    protected int threadCount;
+
+    protected ThreadPoolExecutor executor;
+
+    protected int[] scratchOffsets = new int[0];
+
+    protected double[] scratchLocations = new double[0];
+
+    protected float[] scratchHeights = new float[0];
+
+    protected boolean[] scratchMissing = new boolean[0];
+
+    public TerrainProfiler(Globe globe) {
+        this(globe, Runtime.getRuntime().availableProcessors());
+    }
+
+    public TerrainProfiler(Globe globe, int threadCount) {
+        if (globe == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "TerrainProfiler", "constructor", "missingGlobe"));
+        }
+
+        if (threadCount < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "TerrainProfiler", "constructor", "invalidThreadCount"));
+        }
+
+        this.globe = globe;
+        this.threadCount = threadCount;
+    }
+
+    public Globe getGlobe() {
+        return this.globe;
+    }
+
+    public int getThreadCount() {
+        return this.threadCount;
+    }
+
+    public double getRefractionCoefficient() {
+        return this.refractionCoefficient;
+    }
+
+    /**
+     * Sets the coefficient used to model atmospheric refraction. A coefficient of 0 disables refraction, so that
+     * lines of sight are straight.
+     *
+     * @param coefficient the refraction coefficient, less than 1
+     *
+     * @throws IllegalArgumentException If the coefficient is not less than 1
+     */
+    public void setRefractionCoefficient(double coefficient) {
+        if (!(coefficient < 1)) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "TerrainProfiler", "setRefractionCoefficient", "invalidCoefficient"));
+        }
+
+        this.refractionCoefficient = coefficient;
+    }
+
+    /**
+     * Indicates the number of locations sampled along a profile between two locations.
+     *
+     * @param begin    the profile's beginning location
+     * @param end      the profile's ending location
+     * @param pathType the profile's path type, see {@link gov.nasa.worldwind.WorldWind.PathType}
+     * @param spacing  the maximum distance between samples, in meters
+     *
+     * @return the number of samples, including both end locations
+     *
+     * @throws IllegalArgumentException If either location is null, or if the spacing is not positive
+     */
+    public int getSampleCount(Location begin, Location end, @WorldWind.PathType int pathType, double spacing) {
+        if (begin == null || end == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "TerrainProfiler", "getSampleCount", "missingLocation"));
+        }
+
+        if (!(spacing > 0)) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "TerrainProfiler", "getSampleCount", "invalidSpacing"));
+        }
+
+        return this.sampleCount(pathDistance(begin, end, pathType), spacing / this.globe.getEquatorialRadius());
+    }
+
+    /**
+     * Samples the terrain profile between two locations. The profile's sample locations are written to an optional
+     * array as packed latitude and longitude pairs, and its terrain heights are written to the heights array. Samples
+     * are evenly spaced, so the distance from the beginning location to sample <code>i</code> is <code>i * distance /
+     * (count - 1)</code>. Samples where the elevation model has no data have a height of NaN.
+     *
+     * @param begin     the profile's beginning location
+     * @param end       the profile's ending location
+     * @param pathType  the profile's path type, see {@link gov.nasa.worldwind.WorldWind.PathType}
+     * @param spacing   the maximum distance between samples, in meters
+     * @param locations an optional pre-allocated array to hold the sample locations, or null
+     * @param heights   a pre-allocated array to hold the sample heights, in meters
+     *
+     * @return the number of samples written
+     *
+     * @throws IllegalArgumentException If either location is null, if the spacing is not positive, or if either array
+     *                                  has insufficient length for the profile's sample count
+     */
+    public int sampleProfile(Location begin, Location end, @WorldWind.PathType int pathType, double spacing,
+                             double[] locations, float[] heights) {
+        int count = this.getSampleCount(begin, end, pathType, spacing);
+
+        if (heights == null || heights.length < count) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "TerrainProfiler", "sampleProfile", "missingResult"));
+        }
+
+        if (locations != null && locations.length < count * 2) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "TerrainProfiler", "sampleProfile", "missingArray"));
+        }
+
+        double[] sampleLocations = (locations != null) ? locations : this.scratchLocations(count);
+        sampleLocations(begin, end, pathType, count, sampleLocations, 0, new Location());
+
+        boolean[] missing = this.scratchMissing(count);
+        this.globe.getElevationModel().getHeights(sampleLocations, count, heights, missing);
+        markMissingHeights(heights, missing, count);
+
+        return count;
+    }
+
+    /**
+     * Evaluates line of sight between many pairs of positions. Each pair is specified by six packed values: the first
+     * position's latitude, longitude and altitude, followed by the second position's latitude, longitude and altitude.
+     * Latitudes and longitudes are in degrees and altitudes are in meters, interpreted according to the altitude mode.
+     * <p/>
+     * For each pair, this computes the clearance: the minimum vertical distance, in meters, between the line of sight
+     * and the terrain between the two positions. The positions are visible to each other when the clearance is zero
+     * or greater. A pair with no samples between its positions has infinite clearance. A pair whose clearance depends
+     * on terrain heights the elevation model does not have has a clearance of NaN, indicating that its visibility is
+     * unknown.
+     *
+     * @param positions    the pairs' packed positions
+     * @param pairCount    the number of pairs
+     * @param altitudeMode the positions' altitude mode, see {@link gov.nasa.worldwind.WorldWind.AltitudeMode}
+     * @param pathType     the path type of each pair's profile, see {@link gov.nasa.worldwind.WorldWind.PathType}
+     * @param spacing      the maximum distance between profile samples, in meters
+     * @param clearance    a pre-allocated array to hold each pair's clearance, in meters
+     *
+     * @throws IllegalArgumentException If either array is null or has insufficient length, or if the spacing is not
+     *                                  positive
+     */
+    public void computeLineOfSight(double[] positions, int pairCount, @WorldWind.AltitudeMode int altitudeMode,
+                                   @WorldWind.PathType int pathType, double spacing, double[] clearance) {
+        if (positions == null || positions.length < pairCount * 6) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "TerrainProfiler", "computeLineOfSight", "missingArray"));
+        }
+
+        if (clearance == null || clearance.length < pairCount) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "TerrainProfiler", "computeLineOfSight", "missingResult"));
+        }
+
+        if (!(spacing > 0)) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "TerrainProfiler", "computeLineOfSight", "invalidSpacing"));
+        }
+
+        // Determine each pair's sample count and the offset of its samples in the combined profile arrays.
+        final double radius = this.globe.getEquatorialRadius();
+        final double spacingRadians = spacing / radius;
+        final int[] offsets = this.scratchOffsets(pairCount + 1);
+        Location begin = new Location();
+        Location end = new Location();
+        int total = 0;
+        for (int pair = 0; pair < pairCount; pair++) {
+            begin.set(positions[pair * 6], positions[pair * 6 + 1]);
+            end.set(positions[pair * 6 + 3], positions[pair * 6 + 4]);
+            offsets[pair] = total;
+            total += this.sampleCount(pathDistance(begin, end, pathType), spacingRadians);
+        }
+        offsets[pairCount] = total;
+
+        // Compute every profile's sample locations in parallel.
+        final double[] locations = this.scratchLocations(total);
+        final double[] finalPositions = positions;
+        final int finalPathType = pathType;
+        this.runInParallel(pairCount, new RangeTask() {
+            @Override
+            public void run(int first, int last) {
+                Location begin = new Location();
+                Location end = new Location();
+                Location scratch = new Location();
+                for (int pair = first; pair < last; pair++) {
+                    begin.set(finalPositions[pair * 6], finalPositions[pair * 6 + 1]);
+                    end.set(finalPositions[pair * 6 + 3], finalPositions[pair * 6 + 4]);
+                    sampleLocations(begin, end, finalPathType, offsets[pair + 1] - offsets[pair], locations, offsets[pair], scratch);
+                }
+            }
+        });
+
+        // Sample the terrain beneath every profile on the calling thread.
+        final float[] heights = this.scratchHeights(total);
+        boolean[] missing = this.scratchMissing(total);
+        this.globe.getElevationModel().getHeights(locations, total, heights, missing);
+        markMissingHeights(heights, missing, total);
+
+        // Evaluate each profile's clearance in parallel.
+        final double curvature = 0.5 * (1 - this.refractionCoefficient) / radius; // 1 / (2 * effective radius)
+        final int finalAltitudeMode = altitudeMode;
+        final double[] finalClearance = clearance;
+        this.runInParallel(pairCount, new RangeTask() {
+            @Override
+            public void run(int first, int last) {
+                Location begin = new Location();
+                Location end = new Location();
+                for (int pair = first; pair < last; pair++) {
+                    int offset = offsets[pair];
+                    int count = offsets[pair + 1] - offset;
+                    begin.set(finalPositions[pair * 6], finalPositions[pair * 6 + 1]);
+                    end.set(finalPositions[pair * 6 + 3], finalPositions[pair * 6 + 4]);
+                    double distance = pathDistance(begin, end, finalPathType) * radius;
+                    double beginHeight = positionHeight(finalPositions[pair * 6 + 2], heights[offset], finalAltitudeMode);
+                    double endHeight = positionHeight(finalPositions[pair * 6 + 5], heights[offset + count - 1], finalAltitudeMode);
+                    finalClearance[pair] = clearance(heights, offset, count, distance, beginHeight, endHeight, curvature);
+                }
+            }
+        });
+    }
+
+    /**
+     * Computes the minimum clearance between a line of sight and the terrain along a profile. The line of sight
+     * connects heights above the profile's first and last samples. Terrain heights are raised by the globe's
+     * curvature relative to the line of sight, which at distance <code>d</code> along a profile of length
+     * <code>D</code> is <code>d * (D - d) / (2 * effective radius)</code>. The clearance is NaN when either end height
+     * or any terrain height between them is NaN.
+     */
+    protected static double clearance(float[] heights, int offset, int count, double distance, double beginHeight,
+                                      double endHeight, double curvature) {
+        if (Double.isNaN(beginHeight) || Double.isNaN(endHeight)) {
+            return Double.NaN; // the line of sight's end heights depend on missing terrain
+        }
+
+        double minClearance = Double.POSITIVE_INFINITY;
+        double step = distance / (count - 1);
+        for (int idx = 1; idx < count - 1; idx++) {
+            double d = idx * step;
+            double sightHeight = beginHeight + (endHeight - beginHeight) * (idx / (double) (count - 1));
+            double terrainHeight = heights[offset + idx] + curvature * d * (distance - d);
+            double clearance = sightHeight - terrainHeight;
+            if (Double.isNaN(clearance)) {
+                return Double.NaN; // the terrain beneath the line of sight is missing
+            } else if (minClearance > clearance) {
+                minClearance = clearance;
+            }
+        }
+
+        return minClearance;
+    }
+
+    protected static void markMissingHeights(float[] heights, boolean[] missing, int count) {
+        for (int idx = 0; idx < count; idx++) {
+            if (missing[idx]) {
+                heights[idx] = Float.NaN;
+            }
+        }
+    }
+
+    protected static double positionHeight(double altitude, double terrainHeight, @WorldWind.AltitudeMode int altitudeMode) {
+        switch (altitudeMode) {
+            case WorldWind.CLAMP_TO_GROUND:
+                return terrainHeight;
+            case WorldWind.RELATIVE_TO_GROUND:
+                return terrainHeight + altitude;
+            default:
+                return altitude;
+        }
+    }
+
+    protected int sampleCount(double distanceRadians, double spacingRadians) {
+        return (int) Math.ceil(distanceRadians / spacingRadians) + 1;
+    }
+
+    protected static double pathDistance(Location begin, Location end, @WorldWind.PathType int pathType) {
+        switch (pathType) {
+            case WorldWind.GREAT_CIRCLE:
+                return begin.greatCircleDistance(end);
+            case WorldWind.RHUMB_LINE:
+                return begin.rhumbDistance(end);
+            default:
+                return begin.linearDistance(end);
+        }
+    }
+
+    /**
+     * Computes evenly spaced locations along the path between two locations, writing them to the result as packed
+     * latitude and longitude pairs beginning at the specified location index.
+     */
+    protected static void sampleLocations(Location begin, Location end, @WorldWind.PathType int pathType, int count,
+                                          double[] result, int resultIdx, Location scratch) {
+        double azimuth;
+        double distance;
+        switch (pathType) {
+            case WorldWind.GREAT_CIRCLE:
+                azimuth = begin.greatCircleAzimuth(end);
+                distance = begin.greatCircleDistance(end);
+                break;
+            case WorldWind.RHUMB_LINE:
+                azimuth = begin.rhumbAzimuth(end);
+                distance = begin.rhumbDistance(end);
+                break;
+            default:
+                azimuth = begin.linearAzimuth(end);
+                distance = begin.linearDistance(end);
+                break;
+        }
+
+        int pos = resultIdx * 2;
+        for (int idx = 0; idx < count; idx++) {
+            if (idx == count - 1) {
+                scratch.set(end); // explicitly use the end location to ensure the profile ends exactly at the end
+            } else {
+                double sampleDistance = distance * idx / Math.max(1, count - 1);
+                switch (pathType) {
+                    case WorldWind.GREAT_CIRCLE:
+                        begin.greatCircleLocation(azimuth, sampleDistance, scratch);
+                        break;
+                    case WorldWind.RHUMB_LINE:
+                        begin.rhumbLocation(azimuth, sampleDistance, scratch);
+                        break;
+                    default:
+                        begin.linearLocation(azimuth, sampleDistance, scratch);
+                        break;
+                }
+            }
+
+            result[pos++] = scratch.latitude;
+            result[pos++] = scratch.longitude;
+        }
+    }
+
+    protected int[] scratchOffsets(int count) {
+        if (this.scratchOffsets.length < count) {
+            this.scratchOffsets = new int[count];
+        }
+
+        return this.scratchOffsets;
+    }
+
+    protected double[] scratchLocations(int count) {
+        if (this.scratchLocations.length < count * 2) {
+            this.scratchLocations = new double[count * 2];
+        }
+
+        return this.scratchLocations;
+    }
+
+    protected float[] scratchHeights(int count) {
+        if (this.scratchHeights.length < count) {
+            this.scratchHeights = new float[count];
+        }
+
+        return this.scratchHeights;
+    }
+
+    protected boolean[] scratchMissing(int count) {
+        if (this.scratchMissing.length < count) {
+            this.scratchMissing = new boolean[count];
+        }
+
+        return this.scratchMissing;
+    }
+
+    /**
+     * Work applied to a contiguous range of a batch's pairs.
+     */
+    protected interface RangeTask {
+
+        void run(int first, int last);
+    }
+
+    /**
+     * Divides a batch into contiguous ranges and runs a task on each range, using the profiler's worker threads when
+     * the profiler has more than one. Returns when every range has completed.
+     */
+    protected void runInParallel(int count, final RangeTask task) {
+        int taskCount = Math.min(count, this.threadCount * TASKS_PER_THREAD);
+        if (this.threadCount == 1 || taskCount <= 1) {
+            task.run(0, count);
+            return;
+        }
+
+        List<Future<?>> futures = new ArrayList<>(taskCount);
+        ThreadPoolExecutor executor = this.executor();
+        for (int idx = 0; idx < taskCount; idx++) {
+            final int first = (int) ((long) count * idx / taskCount);
+            final int last = (int) ((long) count * (idx + 1) / taskCount);
+            futures.add(executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    task.run(first, last);
+                }
+            }));
+        }
+
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException(
+                Logger.logMessage(Logger.ERROR, "TerrainProfiler", "runInParallel", "Exception processing batch", e.getCause()));
+        }
+    }
+
+    protected ThreadPoolExecutor executor() {
+        if (this.executor == null) {
+            this.executor = new ThreadPoolExecutor(this.threadCount, this.threadCount, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), this.threadFactory());
+            this.executor.allowCoreThreadTimeOut(true); // release idle worker threads
+        }
+
+        return this.executor;
+    }
+
+    protected ThreadFactory threadFactory() {
+        final String threadName = "WorldWind Terrain Profiler ";
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(@NonNull Runnable r) {
+                Thread thread = new Thread(r, threadName + threadNumber.getAndIncrement());
+                thread.setDaemon(true); // worker threads do not prevent the process from terminating
+                return thread;
+            }
+        };
+    }
+}
@@ -84,7 +84,7 @@ public class TerrainTile extends Tile {
 
     public void setPoints(float[] points) {
         this.points = points;
-        this.pointBufferKey = "TerrainTile.points." + this.tileKey + "." + (pointBufferSequence++);
+        this.pointBufferKey = "TerrainTile.points." + this.key + "." + (pointBufferSequence++);
     }
 
     public Vec3 getOrigin() {
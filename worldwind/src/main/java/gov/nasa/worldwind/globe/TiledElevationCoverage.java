@@ -12,8 +12,9 @@ import android.util.LongSparseArray;
 import android.util.SparseIntArray;
 
 import java.net.SocketTimeoutException;
-import java.nio.ShortBuffer;
+import java.util.Arrays;
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
 
 import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.geom.Sector;
@@ -23,9 +24,10 @@ import gov.nasa.worldwind.render.ImageSource;
 import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.LruMemoryCache;
 import gov.nasa.worldwind.util.Retriever;
+import gov.nasa.worldwind.util.SynchronizedMemoryCache;
 import gov.nasa.worldwind.util.WWMath;
 
-public class TiledElevationCoverage extends AbstractElevationCoverage implements Retriever.Callback<ImageSource, Void, ShortBuffer> {
+public class TiledElevationCoverage extends AbstractElevationCoverage implements Retriever.Callback<ImageSource, Void, short[]> {
 
     public interface TileFactory {
 
@@ -44,13 +46,21 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
 
     protected Handler coverageHandler;
 
+    /**
+     * @deprecated Retrieval is enabled per query; see {@link #fetchTileArray(TileMatrix, int, int, boolean)}.
+     */
+    @Deprecated
     protected boolean enableRetrieval;
 
     protected static final int GET_HEIGHT_LIMIT_SAMPLES = 8;
 
+    // Scratch arrays for getHeights, taken by one query at a time. Concurrent queries allocate their own.
+    protected AtomicReference<HeightScratch> heightScratch = new AtomicReference<>(new HeightScratch());
+
     public TiledElevationCoverage() {
-        this.coverageSource = new LruMemoryCache<>(200);
-        this.coverageCache = new LruMemoryCache<>(1024 * 1024 * 8);
+        // Height queries may run concurrently on render workers, and hold the caches' locks only for each lookup
+        this.coverageSource = new SynchronizedMemoryCache<>(200);
+        this.coverageCache = new SynchronizedMemoryCache<>(1024 * 1024 * 8);
         this.coverageRetriever = new ElevationRetriever(4);
         this.coverageHandler = new Handler(Looper.getMainLooper(), new Handler.Callback() {
             @Override
@@ -86,10 +96,20 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
         this.invalidateTiles();
     }
 
+    /**
+     * @deprecated Retrieval is enabled per query, and this property is no longer consulted. See {@link
+     * #fetchTileArray(TileMatrix, int, int, boolean)}.
+     */
+    @Deprecated
     protected boolean isEnableRetrieval() {
         return this.enableRetrieval;
     }
 
+    /**
+     * @deprecated Retrieval is enabled per query, and this property is no longer consulted. See {@link
+     * #fetchTileArray(TileMatrix, int, int, boolean)}.
+     */
+    @Deprecated
     protected void setEnableRetrieval(boolean enable) {
         this.enableRetrieval = enable;
     }
@@ -112,7 +132,7 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
 
         for (int idx = targetIdx; idx >= 0; idx--) {
 
-            this.setEnableRetrieval(idx == targetIdx || idx == 0); // enable retrieval of the target matrix and the first matrix
+            tileBlock.retrieve = (idx == targetIdx || idx == 0); // enable retrieval of the target matrix and the first matrix
 
             TileMatrix tileMatrix = this.tileMatrixSet.matrix(idx);
             if (this.fetchTileBlock(gridSector, gridWidth, gridHeight, tileMatrix, tileBlock)) {
@@ -134,7 +154,7 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
 
         for (int idx = targetIdx; idx >= 0; idx--) {
 
-            this.setEnableRetrieval(idx == targetIdx || idx == 0); // enable retrieval of the target matrix and the first matrix
+            tileBlock.retrieve = (idx == targetIdx || idx == 0); // enable retrieval of the target matrix and the first matrix
 
             TileMatrix tileMatrix = this.tileMatrixSet.matrix(idx);
             if (this.fetchTileBlock(sector, tileMatrix, tileBlock)) {
@@ -144,6 +164,145 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
         }
     }
 
+    @Override
+    protected void doGetHeights(double[] locations, int count, float[] result, boolean[] missing) {
+        int matrixCount = this.tileMatrixSet.count();
+        if (matrixCount == 0) {
+            return; // no coverage
+        }
+
+        // Locations are sampled from the finest tile matrix that has data, and from progressively coarser matrices
+        // where data at the finer resolution is not available. Visit the locations in order of their tile in the
+        // finest matrix, so that consecutive locations read the same tiles. Each sort key holds the location's tile
+        // index in the upper 33 bits and the location's index in the lower 31 bits.
+        int targetIdx = matrixCount - 1;
+        TileMatrix targetMatrix = this.tileMatrixSet.matrix(targetIdx);
+        Sector coverageSector = this.tileMatrixSet.sector;
+        double tileDeltaLat = targetMatrix.sector.deltaLatitude() / targetMatrix.matrixHeight;
+        double tileDeltaLon = targetMatrix.sector.deltaLongitude() / targetMatrix.matrixWidth;
+
+        HeightScratch scratch = this.heightScratch.getAndSet(null);
+        if (scratch == null) {
+            scratch = new HeightScratch(); // another query holds the shared scratch arrays
+        }
+
+        if (scratch.order.length < count) {
+            scratch.order = new long[count];
+        }
+
+        long[] order = scratch.order;
+        int orderCount = 0;
+        for (int idx = 0; idx < count; idx++) {
+            double lat = locations[idx * 2];
+            double lon = locations[idx * 2 + 1];
+            if (!coverageSector.contains(lat, lon)) {
+                continue; // no coverage at the location
+            }
+
+            int row = (int) WWMath.clamp(Math.floor((targetMatrix.sector.maxLatitude() - lat) / tileDeltaLat), 0, targetMatrix.matrixHeight - 1);
+            int col = (int) WWMath.clamp(Math.floor((lon - targetMatrix.sector.minLongitude()) / tileDeltaLon), 0, targetMatrix.matrixWidth - 1);
+            long tileIndex = (long) row * targetMatrix.matrixWidth + col;
+            order[orderCount++] = (tileIndex << 31) | idx;
+        }
+
+        Arrays.sort(order, 0, orderCount);
+
+        // Reset the tile cursors, which remember the most recently read tile in each matrix. Tiles that are missing are
+        // remembered as well, avoiding repeated retrieval requests for locations in the same missing tile.
+        if (scratch.cursors.length != matrixCount) {
+            scratch.cursors = new TileCursor[matrixCount];
+            for (int idx = 0; idx < matrixCount; idx++) {
+                scratch.cursors[idx] = new TileCursor();
+            }
+        }
+
+        for (int idx = 0; idx < matrixCount; idx++) {
+            // Enable retrieval of the target matrix and the first matrix
+            scratch.cursors[idx].reset(idx == targetIdx || idx == 0);
+        }
+
+        for (int oidx = 0; oidx < orderCount; oidx++) {
+            int idx = (int) (order[oidx] & 0x7FFFFFFFL);
+            double lat = locations[idx * 2];
+            double lon = locations[idx * 2 + 1];
+
+            for (int midx = targetIdx; midx >= 0; midx--) {
+                TileMatrix tileMatrix = this.tileMatrixSet.matrix(midx);
+                if (this.readHeight(lat, lon, tileMatrix, scratch.cursors[midx], result, idx)) {
+                    if (missing != null) {
+                        missing[idx] = false;
+                    }
+                    break;
+                }
+            }
+        }
+
+        for (TileCursor cursor : scratch.cursors) {
+            cursor.reset(false); // release the tile arrays
+        }
+
+        this.heightScratch.set(scratch);
+    }
+
+    protected boolean readHeight(double lat, double lon, TileMatrix tileMatrix, TileCursor cursor, float[] result, int resultIdx) {
+        int tileWidth = tileMatrix.tileWidth;
+        int tileHeight = tileMatrix.tileHeight;
+        int rasterWidth = tileMatrix.matrixWidth * tileWidth;
+        int rasterHeight = tileMatrix.matrixHeight * tileHeight;
+        double matrixMinLat = tileMatrix.sector.minLatitude();
+        double matrixMaxLat = tileMatrix.sector.maxLatitude();
+        double matrixMinLon = tileMatrix.sector.minLongitude();
+        double matrixMaxLon = tileMatrix.sector.maxLongitude();
+        double matrixDeltaLat = tileMatrix.sector.deltaLatitude();
+        double matrixDeltaLon = tileMatrix.sector.deltaLongitude();
+
+        if (lat < matrixMinLat || lat > matrixMaxLat || lon < matrixMinLon || lon > matrixMaxLon) {
+            return false; // no coverage at the location
+        }
+
+        double sMin = 1.0 / (2.0 * rasterWidth);
+        double sMax = 1.0 - sMin;
+        double tMin = 1.0 / (2.0 * rasterHeight);
+        double tMax = 1.0 - tMin;
+
+        double t = (matrixMaxLat - lat) / matrixDeltaLat;
+        double v = rasterHeight * WWMath.clamp(t, tMin, tMax); // clamp the vertical coordinate to the raster edge
+        float b = (float) WWMath.fract(v - 0.5);
+        int j0 = (int) WWMath.clamp(Math.floor(v - 0.5), 0, rasterHeight - 1);
+        int j1 = (int) WWMath.clamp(j0 + 1, 0, rasterHeight - 1);
+
+        double s = (lon - matrixMinLon) / matrixDeltaLon;
+        double u;
+        int i0, i1;
+        if (tileMatrix.sector.isFullSphere()) {
+            u = rasterWidth * WWMath.fract(s); // wrap the horizontal coordinate
+            i0 = WWMath.mod((int) Math.floor(u - 0.5), rasterWidth);
+            i1 = WWMath.mod((i0 + 1), rasterWidth);
+        } else {
+            u = rasterWidth * WWMath.clamp(s, sMin, sMax); // clamp the horizontal coordinate
+            i0 = (int) WWMath.clamp((int) Math.floor(u - 0.5), 0, rasterWidth - 1);
+            i1 = (int) WWMath.clamp((i0 + 1), 0, rasterWidth - 1);
+        }
+        float a = (float) WWMath.fract(u - 0.5);
+
+        short[] i0j0 = cursor.tileArray(this, tileMatrix, j0 / tileHeight, i0 / tileWidth);
+        short[] i1j0 = cursor.tileArray(this, tileMatrix, j0 / tileHeight, i1 / tileWidth);
+        short[] i0j1 = cursor.tileArray(this, tileMatrix, j1 / tileHeight, i0 / tileWidth);
+        short[] i1j1 = cursor.tileArray(this, tileMatrix, j1 / tileHeight, i1 / tileWidth);
+        if (i0j0 == null || i1j0 == null || i0j1 == null || i1j1 == null) {
+            return false; // the tiles at this location are not available
+        }
+
+        int r0 = (j0 % tileHeight) * tileWidth;
+        int r1 = (j1 % tileHeight) * tileWidth;
+        result[resultIdx] = (1 - a) * (1 - b) * i0j0[i0 % tileWidth + r0] +
+            a * (1 - b) * i1j0[i1 % tileWidth + r0] +
+            (1 - a) * b * i0j1[i0 % tileWidth + r1] +
+            a * b * i1j1[i1 % tileWidth + r1];
+
+        return true;
+    }
+
     protected boolean fetchTileBlock(Sector gridSector, int gridWidth, int gridHeight, TileMatrix tileMatrix, TileBlock result) {
         int tileWidth = tileMatrix.tileWidth;
         int tileHeight = tileMatrix.tileHeight;
@@ -213,7 +372,7 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
             for (int cidx = 0, clen = result.cols.size(); cidx < clen; cidx++) {
                 int row = result.rows.keyAt(ridx);
                 int col = result.cols.keyAt(cidx);
-                short[] tileArray = this.fetchTileArray(tileMatrix, row, col);
+                short[] tileArray = this.fetchTileArray(tileMatrix, row, col, result.retrieve);
                 if (tileArray != null) {
                     result.putTileArray(row, col, tileArray);
                 } else {
@@ -261,7 +420,7 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
 
         for (int row = rowMin; row <= rowMax; row++) {
             for (int col = colMin; col <= colMax; col++) {
-                short[] tileArray = this.fetchTileArray(tileMatrix, row, col);
+                short[] tileArray = this.fetchTileArray(tileMatrix, row, col, result.retrieve);
                 if (tileArray != null) {
                     result.rows.put(row, 0);
                     result.cols.put(col, 0);
@@ -275,7 +434,34 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
         return true;
     }
 
+    /**
+     * Returns the elevation data for a tile, initiating retrieval if the data is not in memory.
+     *
+     * @param tileMatrix the tile's matrix
+     * @param row        the tile's row
+     * @param column     the tile's column
+     *
+     * @return the tile's elevations, or null if the tile is not available
+     *
+     * @deprecated Use {@link #fetchTileArray(TileMatrix, int, int, boolean)}, which height queries call with retrieval
+     * enabled only for the matrices they retrieve from.
+     */
+    @Deprecated
     protected short[] fetchTileArray(TileMatrix tileMatrix, int row, int column) {
+        return this.fetchTileArray(tileMatrix, row, column, true);
+    }
+
+    /**
+     * Returns the elevation data for a tile, or null if the data is not in memory. Safe to call from multiple threads.
+     *
+     * @param tileMatrix the tile's matrix
+     * @param row        the tile's row
+     * @param column     the tile's column
+     * @param retrieve   true to initiate retrieval of tiles that are not in memory
+     *
+     * @return the tile's elevations, or null if the tile is not available
+     */
+    protected short[] fetchTileArray(TileMatrix tileMatrix, int row, int column, boolean retrieve) {
         long key = tileKey(tileMatrix, row, column);
         ImageSource tileSource = this.coverageSource.get(key);
 
@@ -285,7 +471,7 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
         }
 
         short[] tileArray = this.coverageCache.get(tileSource);
-        if (tileArray == null && this.isEnableRetrieval()) {
+        if (tileArray == null && retrieve) {
             this.coverageRetriever.retrieve(tileSource, null, this);
         }
 
@@ -437,10 +623,9 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
         }
     }
 
-    public void retrievalSucceeded(Retriever retriever, ImageSource key, Void unused, ShortBuffer value) {
+    public void retrievalSucceeded(Retriever retriever, ImageSource key, Void unused, short[] value) {
         final ImageSource finalKey = key;
-        final short[] finalArray = new short[value.remaining()];
-        value.get(finalArray);
+        final short[] finalArray = value; // the retriever decodes each tile into a new array
 
         this.coverageHandler.post(new Runnable() {
             @Override
@@ -474,10 +659,65 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
         }
     }
 
+    /**
+     * Remembers the tiles most recently read from one tile matrix, including tiles that are not available. Sampling a
+     * location reads at most four tiles, and consecutive locations typically read the same tiles.
+     */
+    protected static class TileCursor {
+
+        protected static final int SIZE = 4;
+
+        protected long[] keys = new long[SIZE];
+
+        protected short[][] arrays = new short[SIZE][];
+
+        protected int count;
+
+        protected int next;
+
+        protected boolean retrieve;
+
+        public void reset(boolean retrieve) {
+            Arrays.fill(this.arrays, null);
+            this.count = 0;
+            this.next = 0;
+            this.retrieve = retrieve;
+        }
+
+        public short[] tileArray(TiledElevationCoverage coverage, TileMatrix tileMatrix, int row, int column) {
+            long key = tileKey(tileMatrix, row, column);
+            for (int idx = 0; idx < this.count; idx++) {
+                if (this.keys[idx] == key) {
+                    return this.arrays[idx];
+                }
+            }
+
+            short[] array = coverage.fetchTileArray(tileMatrix, row, column, this.retrieve);
+            this.keys[this.next] = key;
+            this.arrays[this.next] = array;
+            this.next = (this.next + 1) % SIZE; // replace the least recently fetched tile
+            this.count = Math.min(this.count + 1, SIZE);
+
+            return array;
+        }
+    }
+
+    /**
+     * Sort keys and tile cursors used by getHeights.
+     */
+    protected static class HeightScratch {
+
+        public long[] order = new long[0];
+
+        public TileCursor[] cursors = new TileCursor[0];
+    }
+
     protected static class TileBlock {
 
         public TileMatrix tileMatrix;
 
+        public boolean retrieve;
+
         public SparseIntArray rows = new SparseIntArray();
 
         public SparseIntArray cols = new SparseIntArray();
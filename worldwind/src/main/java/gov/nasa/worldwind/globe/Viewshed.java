@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.globe;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.geom.Sector;
+
+/**
+ * The area visible from an observer, computed by {@link ViewshedEngine}. A viewshed provides its result as both a
+ * visibility raster and as vector boundaries that outline the raster's visible regions.
+ * <p/>
+ * The visibility raster has one value per elevation sample, in row-major order starting at the sector's southwest
+ * corner. Rows advance northward and columns advance eastward. Samples are evenly spaced and include the sector's
+ * edges. Samples farther from the observer than the viewshed's range are reported as not visible.
+ * <p/>
+ * A viewshed computed near a pole or the antimeridian covers only the part of its range that lies within valid
+ * latitudes and longitudes, and its sector is not necessarily centered on the observer.
+ */
+public class Viewshed {
+
+    protected Position observer;
+
+    protected double range;
+
+    protected Sector sector;
+
+    protected int width;
+
+    protected int height;
+
+    protected byte[] visibility;
+
+    protected boolean complete = true;
+
+    protected List<List<Position>> boundaries;
+
+    protected Viewshed(Position observer, double range, Sector sector, int width, int height, byte[] visibility) {
+        this.observer = observer;
+        this.range = range;
+        this.sector = sector;
+        this.width = width;
+        this.height = height;
+        this.visibility = visibility;
+    }
+
+    protected Viewshed(Position observer, double range, Sector sector, int width, int height, byte[] visibility,
+                       boolean complete) {
+        this(observer, range, sector, width, height, visibility);
+        this.complete = complete;
+    }
+
+    public Position getObserver() {
+        return this.observer;
+    }
+
+    public double getRange() {
+        return this.range;
+    }
+
+    /**
+     * Indicates the geographic sector spanned by the visibility raster's samples.
+     *
+     * @return the raster's sector
+     */
+    public Sector getSector() {
+        return this.sector;
+    }
+
+    public int getWidth() {
+        return this.width;
+    }
+
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Indicates whether every sample in the visibility raster was computed. A viewshed is incomplete when the thread
+     * computing it was interrupted; samples the computation did not reach are reported as not visible.
+     *
+     * @return true if the viewshed is complete, false if its computation was interrupted
+     */
+    public boolean isComplete() {
+        return this.complete;
+    }
+
+    /**
+     * Indicates the viewshed's visibility raster. Each value is 1 where the sample is visible from the observer, and 0
+     * otherwise. The returned array is the viewshed's internal storage and must not be modified.
+     *
+     * @return the visibility raster, in row-major order from the sector's southwest corner
+     */
+    public byte[] getVisibility() {
+        return this.visibility;
+    }
+
+    /**
+     * Indicates whether a raster sample is visible from the observer.
+     *
+     * @param column the sample's column, increasing eastward
+     * @param row    the sample's row, increasing northward
+     *
+     * @return true if the sample is visible, otherwise false
+     */
+    public boolean isVisible(int column, int row) {
+        return this.visibility[row * this.width + column] != 0;
+    }
+
+    /**
+     * Indicates the number of raster samples visible from the observer.
+     *
+     * @return the visible sample count
+     */
+    public int getVisibleCount() {
+        int count = 0;
+        for (byte value : this.visibility) {
+            count += value;
+        }
+
+        return count;
+    }
+
+    /**
+     * Indicates the boundaries of the viewshed's visible regions. Each raster sample is treated as a rectangular cell
+     * centered on the sample, and each boundary is a closed ring of positions following the edges between visible and
+     * hidden cells. Outer boundaries wind counter-clockwise and the boundaries of hidden areas within a visible region
+     * wind clockwise, so the rings may be added together to a {@link gov.nasa.worldwind.shape.Polygon} to display the
+     * visible area. Diagonally adjacent visible cells belong to separate regions.
+     * <p/>
+     * Boundaries are computed the first time this method is called. The first and last position of each ring are not
+     * repeated, and positions have an altitude of 0.
+     *
+     * @return the list of visible region boundaries
+     */
+    public List<List<Position>> getBoundaries() {
+        if (this.boundaries == null) {
+            this.boundaries = this.traceBoundaries();
+        }
+
+        return this.boundaries;
+    }
+
+    protected List<List<Position>> traceBoundaries() {
+        // Collect the directed edges between visible and hidden cells, keeping the visible cell on the left. Edges are
+        // stored as a bit mask of outgoing directions at each corner of the (width + 1) by (height + 1) corner lattice.
+        // Corner (i, j) is the southwest corner of cell (i, j).
+        int w = this.width;
+        int h = this.height;
+        int stride = w + 1;
+        byte[] edges = new byte[stride * (h + 1)];
+        for (int row = 0; row < h; row++) {
+            for (int col = 0; col < w; col++) {
+                if (this.visibility[row * w + col] == 0) {
+                    continue;
+                }
+
+                int corner = row * stride + col;
+                if (row == 0 || this.visibility[(row - 1) * w + col] == 0) {
+                    edges[corner] |= 1 << EAST; // south edge, from the southwest corner
+                }
+
+                if (col == w - 1 || this.visibility[row * w + col + 1] == 0) {
+                    edges[corner + 1] |= 1 << NORTH; // east edge, from the southeast corner
+                }
+
+                if (row == h - 1 || this.visibility[(row + 1) * w + col] == 0) {
+                    edges[corner + stride + 1] |= 1 << WEST; // north edge, from the northeast corner
+                }
+
+                if (col == 0 || this.visibility[row * w + col - 1] == 0) {
+                    edges[corner + stride] |= 1 << SOUTH; // west edge, from the northwest corner
+                }
+            }
+        }
+
+        // Link the edges into closed rings. Every corner has equal numbers of incoming and outgoing edges, so a ring
+        // started at any corner can only end at that corner. Corners where two visible cells meet diagonally have two
+        // outgoing edges; turning left at those corners keeps diagonally adjacent cells in separate rings.
+        double minLat = this.sector.minLatitude();
+        double minLon = this.sector.minLongitude();
+        double deltaLat = this.sector.deltaLatitude() / Math.max(1, h - 1);
+        double deltaLon = this.sector.deltaLongitude() / Math.max(1, w - 1);
+
+        List<List<Position>> rings = new ArrayList<>();
+        for (int start = 0; start < edges.length; start++) {
+            while (edges[start] != 0) {
+                List<Position> ring = new ArrayList<>();
+                int corner = start;
+                int direction = -1;
+                int firstDirection = -1;
+
+                while (true) {
+                    int next = nextDirection(edges[corner], direction);
+                    if (next < 0) {
+                        break; // no remaining edges; only possible at the ring's starting corner
+                    }
+
+                    edges[corner] &= ~(1 << next);
+                    if (firstDirection < 0) {
+                        firstDirection = next;
+                    }
+
+                    if (next != direction) { // emit only the corners where the ring changes direction
+                        int i = corner % stride;
+                        int j = corner / stride;
+                        ring.add(Position.fromDegrees(minLat + (j - 0.5) * deltaLat, minLon + (i - 0.5) * deltaLon, 0));
+                    }
+
+                    corner += CORNER_OFFSET_X[next] + CORNER_OFFSET_Y[next] * stride;
+                    direction = next;
+
+                    // Close the ring when it returns to its starting corner from the edge that turns into its first
+                    // edge. A starting corner with two outgoing edges may be passed through once before the ring closes.
+                    if (corner == start && nextDirection(edges[corner] | (1 << firstDirection), direction) == firstDirection) {
+                        break;
+                    }
+                }
+
+                // The ring's starting corner is not a vertex when the ring's first and last edges are collinear.
+                if (direction == firstDirection) {
+                    ring.remove(0);
+                }
+
+                rings.add(ring);
+            }
+        }
+
+        return rings;
+    }
+
+    protected static final int EAST = 0;
+
+    protected static final int NORTH = 1;
+
+    protected static final int WEST = 2;
+
+    protected static final int SOUTH = 3;
+
+    protected static final int[] CORNER_OFFSET_X = {1, 0, -1, 0};
+
+    protected static final int[] CORNER_OFFSET_Y = {0, 1, 0, -1};
+
+    protected static int nextDirection(int mask, int direction) {
+        if (mask == 0) {
+            return -1;
+        }
+
+        if (direction < 0) { // the ring's first edge
+            return Integer.numberOfTrailingZeros(mask);
+        }
+
+        // Prefer turning left, then continuing straight, then turning right.
+        int left = (direction + 1) & 3;
+        int right = (direction + 3) & 3;
+        if ((mask & (1 << left)) != 0) {
+            return left;
+        } else if ((mask & (1 << direction)) != 0) {
+            return direction;
+        } else if ((mask & (1 << right)) != 0) {
+            return right;
+        } else {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.globe;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.util.Logger;
+
+/**
+ * Computes viewsheds on the CPU from a globe's elevation model, complementing the GPU based {@link
+ * gov.nasa.worldwind.shape.OmnidirectionalSightline}. Where the sightline shades the visible terrain each frame, the
+ * engine produces a {@link Viewshed} that applications can analyze, store or display as a shape.
+ * <p/>
+ * The engine samples the elevation model on a square grid centered on the observer, using {@link
+ * ElevationModel#getHeightGrid(Sector, int, int, float[])}. Heights therefore reflect the elevation data available
+ * when the viewshed is computed. Visibility is then determined with the R2 radial sweep algorithm: a ray is cast from
+ * the observer to each sample on the grid's perimeter, and each sample along a ray is visible when its line of sight
+ * rises above the highest line of sight to any sample between it and the observer. Lines of sight account for the
+ * curvature of the globe. Rays are divided into contiguous ranges of azimuth that are swept in parallel on the engine's
+ * worker threads.
+ * <p/>
+ * Near a pole or the antimeridian, the part of the grid beyond valid latitudes and longitudes is clipped, leaving a
+ * rectangular grid that contains the observer but is not centered on it. When the observer is close enough to a pole
+ * that the grid would span more than 360 degrees of longitude, the samples' longitude spacing is limited to fit and
+ * distances along each row are approximate.
+ */
+public class ViewshedEngine {
+
+    /**
+     * The number of azimuth sectors each worker thread sweeps, on average. Dividing the sweep into more sectors than
+     * threads balances the work when some sectors complete sooner than others.
+     */
+    protected static final int SECTORS_PER_THREAD = 4;
+
+    protected int threadCount;
+
+    protected ThreadPoolExecutor executor;
+
+    public ViewshedEngine() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ViewshedEngine(int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ViewshedEngine", "constructor", "invalidThreadCount"));
+        }
+
+        this.threadCount = threadCount;
+    }
+
+    public int getThreadCount() {
+        return this.threadCount;
+    }
+
+    /**
+     * Computes the area visible from an observer within a specified range. The observer's altitude is interpreted
+     * according to the altitude mode. A target at a sample is visible when a point at the target height above the
+     * terrain is visible from the observer.
+     *
+     * @param globe        the globe whose elevation model provides terrain heights
+     * @param observer     the observer's position
+     * @param altitudeMode the observer's altitude mode, see {@link gov.nasa.worldwind.WorldWind.AltitudeMode}
+     * @param range        the viewshed's radius, in meters
+     * @param targetHeight the target's height above the terrain, in meters
+     * @param gridSize     the number of samples along each side of the viewshed's square grid
+     *
+     * @return the computed viewshed, which is incomplete if the calling thread is interrupted during the computation
+     *
+     * @throws IllegalArgumentException If the globe or observer is null, if the range is not positive, or if the grid
+     *                                  size is less than 3
+     */
+    public Viewshed compute(Globe globe, Position observer, @WorldWind.AltitudeMode int altitudeMode, double range,
+                            double targetHeight, int gridSize) {
+        if (globe == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ViewshedEngine", "compute", "missingGlobe"));
+        }
+
+        if (observer == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ViewshedEngine", "compute", "missingPosition"));
+        }
+
+        if (!(range > 0)) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ViewshedEngine", "compute", "invalidRange"));
+        }
+
+        if (gridSize < 3) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ViewshedEngine", "compute", "invalidGridSize"));
+        }
+
+        // Place the observer on the grid's center sample, and space the samples evenly in meters along both axes. Near
+        // the poles, limit the longitude spacing so that the grid spans at most 360 degrees of longitude.
+        int center = (gridSize - 1) / 2;
+        double radius = globe.getRadiusAt(observer.latitude, observer.longitude);
+        double spacing = range / center;
+        double deltaLat = Math.toDegrees(spacing / radius);
+        double deltaLon = Math.toDegrees(spacing / (radius * Math.cos(Math.toRadians(observer.latitude))));
+        if (!(deltaLon <= 360.0 / (gridSize - 1))) { // also catches infinity and NaN at the poles
+            deltaLon = 360.0 / (gridSize - 1);
+        }
+
+        // Clip the rows and columns beyond valid latitudes and longitudes, keeping the observer's sample.
+        int firstRow = Math.max(0, center - (int) Math.floor((observer.latitude + 90) / deltaLat));
+        int lastRow = Math.min(gridSize - 1, center + (int) Math.floor((90 - observer.latitude) / deltaLat));
+        int firstColumn = Math.max(0, center - (int) Math.floor((observer.longitude + 180) / deltaLon));
+        int lastColumn = Math.min(gridSize - 1, center + (int) Math.floor((180 - observer.longitude) / deltaLon));
+        int width = lastColumn - firstColumn + 1;
+        int height = lastRow - firstRow + 1;
+        int observerColumn = center - firstColumn;
+        int observerRow = center - firstRow;
+        double minLat = Math.max(-90, observer.latitude - observerRow * deltaLat);
+        double maxLat = Math.min(90, observer.latitude + (height - 1 - observerRow) * deltaLat);
+        double minLon = Math.max(-180, observer.longitude - observerColumn * deltaLon);
+        double maxLon = Math.min(180, observer.longitude + (width - 1 - observerColumn) * deltaLon);
+        Sector sector = new Sector(minLat, minLon, maxLat - minLat, maxLon - minLon);
+
+        float[] heights = new float[width * height];
+        globe.getElevationModel().getHeightGrid(sector, width, height, heights);
+
+        int observerIndex = observerRow * width + observerColumn;
+        double eyeHeight;
+        switch (altitudeMode) {
+            case WorldWind.CLAMP_TO_GROUND:
+                eyeHeight = heights[observerIndex];
+                break;
+            case WorldWind.RELATIVE_TO_GROUND:
+                eyeHeight = heights[observerIndex] + observer.altitude;
+                break;
+            default:
+                eyeHeight = observer.altitude;
+                break;
+        }
+
+        byte[] visibility = new byte[width * height];
+        boolean complete = this.sweep(heights, width, height, observerColumn, observerRow, spacing, radius, eyeHeight,
+            range, targetHeight, visibility);
+
+        return new Viewshed(new Position(observer), range, sector, width, height, visibility, complete);
+    }
+
+    /**
+     * Determines the visibility of every sample in a rectangular height grid containing the observer. Rays to the
+     * grid's perimeter samples are divided into azimuth sectors and swept in parallel.
+     *
+     * @return true if every sector was swept, or false if the calling thread was interrupted first
+     */
+    protected boolean sweep(float[] heights, int width, int height, int observerColumn, int observerRow,
+                            double spacing, double radius, double eyeHeight, double range, double targetHeight,
+                            byte[] visibility) {
+        visibility[observerRow * width + observerColumn] = 1; // the observer is always visible
+
+        int perimeterCount = 2 * (width - 1) + 2 * (height - 1);
+        int sectorCount = Math.min(perimeterCount, this.threadCount * SECTORS_PER_THREAD);
+        RaySweep[] sweeps = new RaySweep[sectorCount];
+        for (int idx = 0; idx < sectorCount; idx++) {
+            RaySweep sweep = new RaySweep();
+            sweep.heights = heights;
+            sweep.visibility = visibility;
+            sweep.width = width;
+            sweep.height = height;
+            sweep.observerColumn = observerColumn;
+            sweep.observerRow = observerRow;
+            sweep.spacing = spacing;
+            sweep.curvature = 0.5 / radius;
+            sweep.eyeHeight = eyeHeight;
+            sweep.range = range;
+            sweep.targetHeight = targetHeight;
+            sweep.firstRay = (int) ((long) perimeterCount * idx / sectorCount);
+            sweep.lastRay = (int) ((long) perimeterCount * (idx + 1) / sectorCount);
+            sweeps[idx] = sweep;
+        }
+
+        if (this.threadCount == 1) {
+            for (RaySweep sweep : sweeps) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return false;
+                }
+                sweep.call();
+            }
+            return true;
+        }
+
+        // Concurrent sweeps may mark the same sample near a sector boundary, but only ever store the value 1, so the
+        // result does not depend on the order in which the sweeps run. Waiting on each sweep's future publishes its
+        // writes to the calling thread.
+        List<Future<Void>> futures = new ArrayList<>(sectorCount);
+        ThreadPoolExecutor executor = this.executor();
+        for (RaySweep sweep : sweeps) {
+            futures.add(executor.submit(sweep));
+        }
+
+        try {
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+            return true;
+        } catch (InterruptedException e) {
+            for (Future<Void> future : futures) {
+                future.cancel(true);
+            }
+            Thread.currentThread().interrupt(); // preserve the interrupt for the caller
+            return false;
+        } catch (ExecutionException e) {
+            throw new RuntimeException(
+                Logger.logMessage(Logger.ERROR, "ViewshedEngine", "sweep", "Exception computing viewshed", e.getCause()));
+        }
+    }
+
+    protected ThreadPoolExecutor executor() {
+        if (this.executor == null) {
+            this.executor = new ThreadPoolExecutor(this.threadCount, this.threadCount, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), this.threadFactory());
+            this.executor.allowCoreThreadTimeOut(true); // release idle worker threads
+        }
+
+        return this.executor;
+    }
+
+    protected ThreadFactory threadFactory() {
+        final String threadName = "WorldWind Viewshed ";
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(@NonNull Runnable r) {
+                Thread thread = new Thread(r, threadName + threadNumber.getAndIncrement());
+                thread.setDaemon(true); // worker threads do not prevent the process from terminating
+                return thread;
+            }
+        };
+    }
+
+    /**
+     * Sweeps a contiguous range of rays from the observer to the grid's perimeter. Perimeter samples are numbered
+     * counter-clockwise starting at the grid's southwest corner.
+     */
+    protected static class RaySweep implements Callable<Void> {
+
+        public float[] heights;
+
+        public byte[] visibility;
+
+        public int width;
+
+        public int height;
+
+        public int observerColumn;
+
+        public int observerRow;
+
+        public double spacing;
+
+        public double curvature;
+
+        public double eyeHeight;
+
+        public double range;
+
+        public double targetHeight;
+
+        public int firstRay;
+
+        public int lastRay;
+
+        @Override
+        public Void call() {
+            int east = this.width - 1;
+            int north = this.height - 1;
+            for (int ray = this.firstRay; ray < this.lastRay; ray++) {
+                int offset = ray;
+                if (offset < east) { // south edge, eastward
+                    this.castRay(offset, 0);
+                } else if ((offset -= east) < north) { // east edge, northward
+                    this.castRay(east, offset);
+                } else if ((offset -= north) < east) { // north edge, westward
+                    this.castRay(east - offset, north);
+                } else { // west edge, southward
+                    this.castRay(0, north - (offset - east));
+                }
+            }
+
+            return null;
+        }
+
+        /**
+         * Casts a ray from the observer to a perimeter sample, stepping one sample at a time along the ray's major
+         * axis. Each step marks the nearest sample visible when its target's line of sight is not below the horizon,
+         * then raises the horizon to the terrain's line of sight at the point where the ray crosses the step's row or
+         * column, interpolating between the two samples the ray passes between.
+         */
+        protected void castRay(int endColumn, int endRow) {
+            int size = this.width;
+            int dx = endColumn - this.observerColumn;
+            int dy = endRow - this.observerRow;
+            int steps = Math.max(Math.abs(dx), Math.abs(dy));
+            if (steps == 0) {
+                return; // the observer is on the grid's perimeter
+            }
+
+            boolean majorX = Math.abs(dx) >= Math.abs(dy);
+            int majorOrigin = majorX ? this.observerColumn : this.observerRow;
+            int minorOrigin = majorX ? this.observerRow : this.observerColumn;
+            double minorStep = (majorX ? dy : dx) / (double) steps;
+            int majorSign = (majorX ? dx : dy) < 0 ? -1 : 1;
+            double maxSlope = Double.NEGATIVE_INFINITY;
+
+            for (int step = 1; step <= steps; step++) {
+                int major = majorOrigin + majorSign * step;
+                double minor = minorOrigin + minorStep * step;
+                int minorLow = (int) Math.floor(minor);
+                double frac = minor - minorLow;
+                int minorNear = (frac < 0.5) ? minorLow : minorLow + 1;
+                int minorHigh = (frac > 0) ? minorLow + 1 : minorLow;
+
+                // The sample nearest the ray.
+                int nearIndex = majorX ? (minorNear * size + major) : (major * size + minorNear);
+                double nearDistance = this.spacing * Math.hypot(step, minorNear - minorOrigin);
+                if (nearDistance > this.range) {
+                    break; // every subsequent sample on the ray is beyond the range
+                }
+
+                double targetSlope = (this.heights[nearIndex] + this.targetHeight - this.eyeHeight
+                    - this.curvature * nearDistance * nearDistance) / nearDistance;
+                if (targetSlope >= maxSlope) {
+                    this.visibility[nearIndex] = 1;
+                }
+
+                // The terrain at the point where the ray crosses this step's row or column.
+                int lowIndex = majorX ? (minorLow * size + major) : (major * size + minorLow);
+                int highIndex = majorX ? (minorHigh * size + major) : (major * size + minorHigh);
+                double height = this.heights[lowIndex] + (this.heights[highIndex] - this.heights[lowIndex]) * frac;
+                double distance = this.spacing * Math.hypot(step, minor - minorOrigin);
+                double slope = (height - this.eyeHeight - this.curvature * distance * distance) / distance;
+                if (maxSlope < slope) {
+                    maxSlope = slope;
+                }
+            }
+        }
+    }
+}
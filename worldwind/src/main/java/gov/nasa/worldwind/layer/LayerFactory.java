@@ -10,12 +10,10 @@ import android.os.Handler;
 import android.os.Looper;
 import android.util.SparseArray;
 
-import java.io.BufferedInputStream;
 import java.io.InputStream;
-import java.net.URL;
-import java.net.URLConnection;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -25,6 +23,7 @@ import java.util.concurrent.RejectedExecutionException;
 import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.geom.Location;
 import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.ogc.CapabilitiesCache;
 import gov.nasa.worldwind.ogc.WmsLayerConfig;
 import gov.nasa.worldwind.ogc.WmsTileFactory;
 import gov.nasa.worldwind.ogc.gpkg.GeoPackage;
@@ -53,7 +52,6 @@ import gov.nasa.worldwind.util.LevelSet;
 import gov.nasa.worldwind.util.LevelSetConfig;
 import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.TileFactory;
-import gov.nasa.worldwind.util.WWUtil;
 
 public class LayerFactory {
 
@@ -75,6 +73,62 @@ public class LayerFactory {
 
     protected static final int DEFAULT_WMS_NUM_LEVELS = 20;
 
+    protected static final CapabilitiesCache<WmsCapabilities> sharedWmsCapabilitiesCache =
+        new CapabilitiesCache<>(new CapabilitiesCache.Parser<WmsCapabilities>() {
+            @Override
+            public WmsCapabilities parse(InputStream inputStream, Collection<String> layerNames) throws Exception {
+                return WmsCapabilities.getCapabilities(inputStream, layerNames);
+            }
+        });
+
+    protected static final CapabilitiesCache<WmtsCapabilities> sharedWmtsCapabilitiesCache =
+        new CapabilitiesCache<>(new CapabilitiesCache.Parser<WmtsCapabilities>() {
+            @Override
+            public WmtsCapabilities parse(InputStream inputStream, Collection<String> layerIdentifiers) throws Exception {
+                return WmtsCapabilities.getCapabilities(inputStream, layerIdentifiers);
+            }
+        });
+
+    protected CapabilitiesCache<WmsCapabilities> wmsCapabilitiesCache = sharedWmsCapabilitiesCache;
+
+    protected CapabilitiesCache<WmtsCapabilities> wmtsCapabilitiesCache = sharedWmtsCapabilitiesCache;
+
+    /**
+     * Returns the cache of WMS capabilities documents used by this factory. By default all factories share the same
+     * cache, so layers created from the same WMS server share a single capabilities request, and each layer's
+     * capabilities are parsed from the same document.
+     */
+    public CapabilitiesCache<WmsCapabilities> getWmsCapabilitiesCache() {
+        return this.wmsCapabilitiesCache;
+    }
+
+    public void setWmsCapabilitiesCache(CapabilitiesCache<WmsCapabilities> cache) {
+        if (cache == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "LayerFactory", "setWmsCapabilitiesCache", "missingCache"));
+        }
+
+        this.wmsCapabilitiesCache = cache;
+    }
+
+    /**
+     * Returns the cache of WMTS capabilities documents used by this factory. By default all factories share the same
+     * cache, so layers created from the same WMTS server share a single capabilities request, and each layer's
+     * capabilities are parsed from the same document.
+     */
+    public CapabilitiesCache<WmtsCapabilities> getWmtsCapabilitiesCache() {
+        return this.wmtsCapabilitiesCache;
+    }
+
+    public void setWmtsCapabilitiesCache(CapabilitiesCache<WmtsCapabilities> cache) {
+        if (cache == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "LayerFactory", "setWmtsCapabilitiesCache", "missingCache"));
+        }
+
+        this.wmtsCapabilitiesCache = cache;
+    }
+
     public Layer createFromGeoPackage(String pathName, Callback callback) {
         if (pathName == null) {
             throw new IllegalArgumentException(
@@ -312,7 +366,7 @@ public class LayerFactory {
 
     protected void createFromWmsAsync(String serviceAddress, List<String> layerNames, Layer layer, Callback callback) throws Exception {
         // Parse and read the WMS Capabilities document at the provided service address
-        WmsCapabilities wmsCapabilities = this.retrieveWmsCapabilities(serviceAddress);
+        WmsCapabilities wmsCapabilities = this.retrieveWmsCapabilities(serviceAddress, layerNames);
         List<WmsLayer> layerCapabilities = new ArrayList<>();
         for (String layerName : layerNames) {
             WmsLayer layerCaps = wmsCapabilities.getNamedLayer(layerName);
@@ -331,7 +385,8 @@ public class LayerFactory {
 
     protected void createFromWmtsAsync(String serviceAddress, String layerIdentifier, Layer layer, Callback callback) throws Exception {
         // Parse and read the WMTS Capabilities document at the provided service address
-        WmtsCapabilities wmtsCapabilities = this.retrieveWmtsCapabilities(serviceAddress);
+        WmtsCapabilities wmtsCapabilities = this.retrieveWmtsCapabilities(serviceAddress,
+            Collections.singletonList(layerIdentifier));
 
         WmtsLayer wmtsLayer = wmtsCapabilities.getLayer(layerIdentifier);
         if (wmtsLayer == null) {
@@ -449,8 +504,15 @@ public class LayerFactory {
     }
 
     protected WmsCapabilities retrieveWmsCapabilities(String serviceAddress) throws Exception {
-        InputStream inputStream = null;
-        WmsCapabilities wmsCapabilities = null;
+        return this.retrieveWmsCapabilities(serviceAddress, null /*layerNames*/);
+    }
+
+    /**
+     * Retrieves the WMS capabilities at the specified service address, parsing only the specified layers. Layers that
+     * contain a requested layer are retained so that inherited properties remain available. The capabilities cache
+     * parses these layers from the same document as every other retrieval from the service.
+     */
+    protected WmsCapabilities retrieveWmsCapabilities(String serviceAddress, Collection<String> layerNames) throws Exception {
         try {
             // Build the appropriate request Uri given the provided service address
             Uri serviceUri = Uri.parse(serviceAddress).buildUpon()
@@ -459,27 +521,24 @@ public class LayerFactory {
                 .appendQueryParameter("REQUEST", "GetCapabilities")
                 .build();
 
-            // Open the connection as an input stream
-            URLConnection conn = new URL(serviceUri.toString()).openConnection();
-            conn.setConnectTimeout(3000);
-            conn.setReadTimeout(30000);
-            inputStream = new BufferedInputStream(conn.getInputStream());
-
-            // Parse and read the input stream
-            wmsCapabilities = WmsCapabilities.getCapabilities(inputStream);
+            // Retrieve the capabilities from the cache, revalidating or downloading the document as necessary
+            return this.wmsCapabilitiesCache.retrieve(serviceUri.toString(), layerNames);
         } catch (Exception e) {
             throw new RuntimeException(
                 Logger.makeMessage("LayerFactory", "retrieveWmsCapabilities", "Unable to open connection and read from service address"));
-        } finally {
-            WWUtil.closeSilently(inputStream);
         }
-
-        return wmsCapabilities;
     }
 
     protected WmtsCapabilities retrieveWmtsCapabilities(String serviceAddress) throws Exception {
-        InputStream inputStream = null;
-        WmtsCapabilities wmtsCapabilities = null;
+        return this.retrieveWmtsCapabilities(serviceAddress, null /*layerIdentifiers*/);
+    }
+
+    /**
+     * Retrieves the WMTS capabilities at the specified service address, parsing only the specified layers and the tile
+     * matrix sets they link to. The capabilities cache parses these layers from the same document as every other
+     * retrieval from the service.
+     */
+    protected WmtsCapabilities retrieveWmtsCapabilities(String serviceAddress, Collection<String> layerIdentifiers) throws Exception {
         try {
             // Build the appropriate request Uri given the provided service address
             Uri serviceUri = Uri.parse(serviceAddress).buildUpon()
@@ -488,22 +547,12 @@ public class LayerFactory {
                 .appendQueryParameter("REQUEST", "GetCapabilities")
                 .build();
 
-            // Open the connection as an input stream
-            URLConnection conn = new URL(serviceUri.toString()).openConnection();
-            conn.setConnectTimeout(3000);
-            conn.setReadTimeout(30000);
-            inputStream = new BufferedInputStream(conn.getInputStream());
-
-            // Parse and read the input stream
-            wmtsCapabilities = WmtsCapabilities.getCapabilities(inputStream);
+            // Retrieve the capabilities from the cache, revalidating or downloading the document as necessary
+            return this.wmtsCapabilitiesCache.retrieve(serviceUri.toString(), layerIdentifiers);
         } catch (Exception e) {
             throw new RuntimeException(
                 Logger.makeMessage("LayerFactory", "retrieveWmsCapabilities", "Unable to open connection and read from service address " + e.toString()));
-        } finally {
-            WWUtil.closeSilently(inputStream);
         }
-
-        return wmtsCapabilities;
     }
 
     protected WmsLayerConfig getLayerConfigFromWmsCapabilities(List<WmsLayer> wmsLayers) {
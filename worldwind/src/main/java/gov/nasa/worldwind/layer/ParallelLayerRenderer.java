@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.layer;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import gov.nasa.worldwind.draw.DrawableQueue;
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.shape.ScenePickIndex;
+import gov.nasa.worldwind.util.Logger;
+
+/**
+ * Renders the layers of a frame on a pool of worker threads, in addition to the thread that renders WorldWindow frames.
+ * <p/>
+ * Each worker renders whole layers into its own {@link RenderContext} and {@link DrawableQueue}, taking the next
+ * unrendered layer until every layer has been rendered. The worker render contexts share the frame's globe, terrain,
+ * camera, viewing transforms and render resource cache, but each has its own drawable pools, scratch state and GLU
+ * tessellator. Once all layers have been rendered, each layer's drawables are moved to the frame's drawable queue in
+ * layer order. Drawables therefore enter the frame's queue in the same order as when layers render serially, and the
+ * queue's sort orders them exactly as it would for a serial frame. Each layer's scene pick index entries are moved to
+ * the frame's scene pick index in layer order likewise.
+ * <p/>
+ * Layers rendered in parallel must not share renderables or other mutable state with one another. Pick frames render
+ * serially on the calling thread, since picked object identifiers are assigned in layer order.
+ */
+public class ParallelLayerRenderer {
+
+    protected int workerCount;
+
+    protected ThreadPoolExecutor executor;
+
+    protected Worker[] workers;
+
+    protected LayerList frameLayers;
+
+    protected int frameLayerCount;
+
+    protected AtomicInteger nextLayer = new AtomicInteger();
+
+    protected int[] layerWorker = new int[0];
+
+    protected int[] layerStart = new int[0];
+
+    protected int[] layerEnd = new int[0];
+
+    protected int[] layerPickStart = new int[0];
+
+    protected int[] layerPickEnd = new int[0];
+
+    protected int runningCount;
+
+    protected final Object lock = new Object();
+
+    public ParallelLayerRenderer() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParallelLayerRenderer(int workerCount) {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ParallelLayerRenderer", "constructor", "invalidWorkerCount"));
+        }
+
+        this.workerCount = workerCount;
+        this.workers = new Worker[workerCount];
+        for (int idx = 0; idx < workerCount; idx++) {
+            this.workers[idx] = new Worker(idx);
+        }
+    }
+
+    /**
+     * Indicates the maximum number of threads that render layers concurrently, including the calling thread.
+     *
+     * @return the number of workers
+     */
+    public int getWorkerCount() {
+        return this.workerCount;
+    }
+
+    /**
+     * Renders a list of layers into a render context's drawable queue. Layers render in parallel unless this renderer
+     * has one worker, the list has fewer than two layers, the render context is in pick mode or has no drawable queue,
+     * in which case the layers render serially on the calling thread.
+     *
+     * @param rc     the render context for the current frame
+     * @param layers the layers to render
+     *
+     * @throws IllegalArgumentException If any argument is null
+     */
+    public void render(RenderContext rc, LayerList layers) {
+        if (rc == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ParallelLayerRenderer", "render", "missingRenderContext"));
+        }
+
+        if (layers == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ParallelLayerRenderer", "render", "missingList"));
+        }
+
+        int layerCount = layers.count();
+        if (this.workerCount == 1 || layerCount < 2 || rc.pickMode || rc.drawableQueue == null) {
+            layers.render(rc);
+            return;
+        }
+
+        int activeCount = Math.min(this.workerCount, layerCount);
+        this.beginFrame(rc, layers, activeCount);
+
+        // Dispatch all workers but the first to the worker threads, then render layers on the calling thread until
+        // none remain and wait for the worker threads to finish their last layer.
+        synchronized (this.lock) {
+            this.runningCount = activeCount - 1;
+        }
+
+        for (int idx = 1; idx < activeCount; idx++) {
+            try {
+                this.executor().execute(this.workers[idx]);
+            } catch (RejectedExecutionException ignored) { // the executor has been shut down
+                this.workers[idx].run();
+            }
+        }
+
+        this.renderLayers(this.workers[0]);
+        this.awaitWorkers();
+
+        this.endFrame(rc, activeCount);
+    }
+
+    /**
+     * Stops the worker threads. Subsequent frames render on the calling thread.
+     */
+    public void shutdown() {
+        if (this.executor != null) {
+            this.executor.shutdown();
+        }
+    }
+
+    protected void beginFrame(RenderContext rc, LayerList layers, int activeCount) {
+        int layerCount = layers.count();
+        if (this.layerWorker.length < layerCount) {
+            this.layerWorker = new int[layerCount];
+            this.layerStart = new int[layerCount];
+            this.layerEnd = new int[layerCount];
+            this.layerPickStart = new int[layerCount];
+            this.layerPickEnd = new int[layerCount];
+        }
+
+        this.frameLayers = layers;
+        this.frameLayerCount = layerCount;
+        this.nextLayer.set(0);
+
+        for (int idx = 0; idx < activeCount; idx++) {
+            this.prepareWorkerContext(rc, this.workers[idx]);
+        }
+    }
+
+    protected void prepareWorkerContext(RenderContext rc, Worker worker) {
+        RenderContext wc = worker.rc;
+        wc.reset();
+        wc.globe = rc.globe;
+        wc.terrainTessellator = rc.terrainTessellator;
+        wc.terrain = rc.terrain;
+        wc.layers = rc.layers;
+        wc.verticalExaggeration = rc.verticalExaggeration;
+        wc.horizonDistance = rc.horizonDistance;
+        wc.camera = rc.camera;
+        wc.cameraPoint.set(rc.cameraPoint);
+        wc.viewport.set(rc.viewport);
+        wc.projection.set(rc.projection);
+        wc.modelview.set(rc.modelview);
+        wc.modelviewProjection.set(rc.modelviewProjection);
+        wc.frustum.setToModelviewProjection(rc.projection, rc.modelview, rc.viewport);
+        wc.renderResourceCache = rc.renderResourceCache;
+        wc.geometryAssembler = rc.geometryAssembler;
+        wc.elementIndexUint = rc.elementIndexUint;
+        wc.resources = rc.resources;
+
+        worker.drawableQueue.clearDrawables(); // drawables from the previous frame have been moved to its frame queue
+        wc.drawableQueue = worker.drawableQueue;
+
+        worker.scenePickIndex.clear(); // entries from the previous frame have been moved to the frame's index
+        wc.scenePickIndex = (rc.scenePickIndex != null) ? worker.scenePickIndex : null;
+    }
+
+    protected void renderLayers(Worker worker) {
+        RenderContext wc = worker.rc;
+        DrawableQueue queue = worker.drawableQueue;
+        ScenePickIndex pickIndex = worker.scenePickIndex;
+
+        int idx;
+        while ((idx = this.nextLayer.getAndIncrement()) < this.frameLayerCount) {
+            wc.currentLayer = this.frameLayers.getLayer(idx);
+            this.layerWorker[idx] = worker.index;
+            this.layerStart[idx] = queue.count();
+            this.layerPickStart[idx] = pickIndex.getEntryCount();
+            try {
+                wc.currentLayer.render(wc);
+            } catch (Exception e) {
+                Logger.logMessage(Logger.ERROR, "ParallelLayerRenderer", "renderLayers",
+                    "Exception while rendering layer \'" + wc.currentLayer.getDisplayName() + "\'", e);
+                // Keep going. Draw the remaining layers.
+            }
+            this.layerEnd[idx] = queue.count();
+            this.layerPickEnd[idx] = pickIndex.getEntryCount();
+        }
+
+        wc.currentLayer = null;
+    }
+
+    protected void awaitWorkers() {
+        boolean interrupted = false;
+
+        synchronized (this.lock) {
+            while (this.runningCount > 0) {
+                try {
+                    this.lock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true; // the workers are still writing to their queues; keep waiting
+                }
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    protected void endFrame(RenderContext rc, int activeCount) {
+        // Move each layer's drawables to the frame's drawable queue in layer order.
+        for (int idx = 0; idx < this.frameLayerCount; idx++) {
+            DrawableQueue queue = this.workers[this.layerWorker[idx]].drawableQueue;
+            rc.drawableQueue.offerDrawables(queue, this.layerStart[idx], this.layerEnd[idx]);
+        }
+
+        // Move each layer's scene pick index entries to the frame's index in layer order.
+        if (rc.scenePickIndex != null) {
+            for (int idx = 0; idx < this.frameLayerCount; idx++) {
+                ScenePickIndex pickIndex = this.workers[this.layerWorker[idx]].scenePickIndex;
+                rc.scenePickIndex.addEntries(pickIndex, this.layerPickStart[idx], this.layerPickEnd[idx]);
+            }
+        }
+
+        for (int idx = 0; idx < activeCount; idx++) {
+            if (this.workers[idx].rc.isRedrawRequested()) {
+                rc.requestRedraw();
+            }
+        }
+
+        this.frameLayers = null;
+        this.frameLayerCount = 0;
+    }
+
+    protected ThreadPoolExecutor executor() {
+        if (this.executor == null) {
+            this.executor = new ThreadPoolExecutor(this.workerCount - 1, this.workerCount - 1, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), // bounded by the number of workers
+                this.threadFactory());
+            this.executor.allowCoreThreadTimeOut(true); // release idle worker threads
+        }
+
+        return this.executor;
+    }
+
+    protected ThreadFactory threadFactory() {
+        final String threadName = "WorldWind Layer Renderer ";
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(@NonNull Runnable r) {
+                Thread thread = new Thread(r, threadName + threadNumber.getAndIncrement());
+                thread.setDaemon(true); // worker threads do not prevent the process from terminating
+                return thread;
+            }
+        };
+    }
+
+    /**
+     * A worker's render context, drawable queue and scene pick index, reused across frames.
+     */
+    protected class Worker implements Runnable {
+
+        protected final int index;
+
+        protected final RenderContext rc = new RenderContext();
+
+        protected final DrawableQueue drawableQueue = new DrawableQueue();
+
+        protected final ScenePickIndex scenePickIndex = new ScenePickIndex();
+
+        protected Worker(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void run() {
+            try {
+                renderLayers(this);
+            } finally {
+                synchronized (lock) {
+                    if (--runningCount == 0) {
+                        lock.notifyAll();
+                    }
+                }
+            }
+        }
+    }
+}
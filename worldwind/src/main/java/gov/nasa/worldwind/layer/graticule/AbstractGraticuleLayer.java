@@ -7,20 +7,21 @@ package gov.nasa.worldwind.layer.graticule;
 
 import android.graphics.Typeface;
 
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 
-import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.geom.Line;
 import gov.nasa.worldwind.geom.Location;
 import gov.nasa.worldwind.geom.Position;
-import gov.nasa.worldwind.geom.Sector;
 import gov.nasa.worldwind.geom.Vec3;
 import gov.nasa.worldwind.layer.AbstractLayer;
 import gov.nasa.worldwind.render.Color;
 import gov.nasa.worldwind.render.RenderContext;
 import gov.nasa.worldwind.render.Renderable;
-import gov.nasa.worldwind.shape.Label;
-import gov.nasa.worldwind.shape.Path;
+import gov.nasa.worldwind.shape.ShapeAttributes;
+import gov.nasa.worldwind.shape.TextAttributes;
+import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.WWMath;
 
 /**
@@ -57,6 +58,8 @@ public abstract class AbstractGraticuleLayer extends AbstractLayer {
     private static final String GRATICULE_PIXEL_SIZE_PROPERTY = "graticule_pixel_size";
     private static final String GRATICULE_LABEL_OFFSET_PROPERTY = "graticule_label_offset";
 
+    private static final int DEFAULT_TILE_CACHE_CAPACITY = 500;
+
     // Helper variables to avoid memory leaks
     private final Vec3 surfacePoint = new Vec3();
     private final Line forwardRay = new Line();
@@ -65,6 +68,23 @@ public abstract class AbstractGraticuleLayer extends AbstractLayer {
 
     private final GraticuleSupport graticuleSupport = new GraticuleSupport();
 
+    private final GridElementFactory gridElementFactory;
+
+    // Tiles and zones holding grid elements, ordered from least to most recently selected
+    private final LinkedHashMap<AbstractGraticuleTile, AbstractGraticuleTile> tileCache = new LinkedHashMap<>(16, 0.75f, true);
+    private int tileCacheCapacity = DEFAULT_TILE_CACHE_CAPACITY;
+    private long updateStamp;
+
+    // Background assembly state
+    private boolean backgroundAssembly = true;
+    private boolean updateRequested;
+    private boolean updatePending;
+
+    // Build time metrics
+    private long buildTime;
+    private long buildTimeTotal;
+    private long buildCount;
+
     // Update reference states
     private final Vec3 lastCameraPoint = new Vec3();
     private double lastCameraHeading;
@@ -80,6 +100,11 @@ public abstract class AbstractGraticuleLayer extends AbstractLayer {
         this.setDisplayName(name);
         this.setPickEnabled(false);
         this.initRenderingParams();
+
+        ShapeAttributes lineAttributes = new ShapeAttributes();
+        lineAttributes.setDrawInterior(false);
+        lineAttributes.setDrawOutline(true);
+        this.gridElementFactory = new GridElementFactory(lineAttributes, new TextAttributes());
     }
 
     protected abstract void initRenderingParams();
@@ -253,6 +278,87 @@ public abstract class AbstractGraticuleLayer extends AbstractLayer {
         this.getRenderingParams(key).setLabelSize(size);
     }
 
+    /**
+     * Returns the number of graticule tiles and zones whose grid elements are kept between updates.
+     *
+     * @return the tile cache capacity
+     */
+    public int getTileCacheCapacity() {
+        return this.tileCacheCapacity;
+    }
+
+    /**
+     * Sets the number of graticule tiles and zones whose grid elements are kept between updates. Tiles that leave the
+     * view keep their lines and labels until they are the least recently selected tiles in excess of this capacity, so
+     * panning back over them does not generate their geometry again. Tiles in view are never evicted, even when they
+     * exceed the capacity.
+     *
+     * @param capacity the tile cache capacity
+     *
+     * @throws IllegalArgumentException If the capacity is less than 1
+     */
+    public void setTileCacheCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "AbstractGraticuleLayer", "setTileCacheCapacity", "invalidCapacity"));
+        }
+
+        this.tileCacheCapacity = capacity;
+        this.trimTileCache();
+    }
+
+    /**
+     * Indicates whether the graticule's lines and labels are created on worker threads. See {@link
+     * #setBackgroundAssembly(boolean)}.
+     *
+     * @return true if grid elements are created in the background, otherwise false
+     */
+    public boolean isBackgroundAssembly() {
+        return this.backgroundAssembly;
+    }
+
+    /**
+     * Sets whether the graticule's lines and labels are created on worker threads. When enabled, zones and tiles that
+     * come into view have their grid elements created by the WorldWindow's shape geometry assembler. The graticule
+     * continues to display its previous lines and labels until every zone in view has its grid elements, then displays
+     * the new lines and labels in one step. This keeps coordinate conversions and path construction off the render
+     * thread while the camera moves. When disabled, grid elements are created on the render
+     * thread during the frame in which they come into view. Background assembly is enabled by default.
+     *
+     * @param backgroundAssembly true to create grid elements in the background, otherwise false
+     */
+    public void setBackgroundAssembly(boolean backgroundAssembly) {
+        this.backgroundAssembly = backgroundAssembly;
+    }
+
+    /**
+     * Returns the time in nanoseconds spent selecting and generating the graticule's grid elements during the most
+     * recent frame. This is zero when the most recent frame reused the previous frame's grid elements.
+     *
+     * @return the most recent frame's build time in nanoseconds
+     */
+    public long getBuildTime() {
+        return this.buildTime;
+    }
+
+    /**
+     * Returns the total time in nanoseconds spent selecting and generating the graticule's grid elements.
+     *
+     * @return the total build time in nanoseconds
+     */
+    public long getBuildTimeTotal() {
+        return this.buildTimeTotal;
+    }
+
+    /**
+     * Returns the number of frames in which the graticule's grid elements were selected again.
+     *
+     * @return the number of graticule updates
+     */
+    public long getBuildCount() {
+        return this.buildCount;
+    }
+
     GraticuleRenderingParams getRenderingParams(String key) {
         return this.graticuleSupport.getRenderingParams(key);
     }
@@ -284,9 +390,25 @@ public abstract class AbstractGraticuleLayer extends AbstractLayer {
 //
 //            this.frameTimeStamp = rc.getFrameTimeStamp();
 //        } else {
-        if (this.needsToUpdate(rc)) {
+        if (this.updateRequested || this.needsToUpdate(rc)) {
+            long buildStart = System.nanoTime();
+            this.updateStamp++;
+            this.updateRequested = false;
+            this.updatePending = false;
             this.clear(rc);
             this.selectRenderables(rc);
+            this.trimTileCache();
+            // Display the selected grid elements only when every selected tile has them. While any tile is waiting on
+            // its grid elements, keep displaying the previous selection; publishing the tile's grid elements requests
+            // another update. With nothing displayed yet, display whatever is available.
+            if (!this.updatePending || !this.graticuleSupport.hasRenderables()) {
+                this.graticuleSupport.publishRenderables();
+            }
+            this.buildTime = System.nanoTime() - buildStart;
+            this.buildTimeTotal += this.buildTime;
+            this.buildCount++;
+        } else {
+            this.buildTime = 0;
         }
 //        }
 
@@ -303,6 +425,59 @@ public abstract class AbstractGraticuleLayer extends AbstractLayer {
 
     protected abstract List<String> getOrderedTypes();
 
+    /**
+     * Marks a tile as selected in the current update, making it the most recently used tile in the tile cache.
+     *
+     * @param tile the tile holding grid elements
+     */
+    void tileSelected(AbstractGraticuleTile tile) {
+        tile.setUpdateStamp(this.updateStamp);
+        this.tileCache.put(tile, tile);
+    }
+
+    /**
+     * Notes that a tile selected in the current update is waiting for its grid elements.
+     *
+     * @param submitted true if the tile's grid elements are being created, false if they could not be submitted
+     */
+    void tilePending(boolean submitted) {
+        this.updatePending = true;
+        if (!submitted) {
+            this.updateRequested = true; // try again in the next frame
+        }
+    }
+
+    /**
+     * Notes that a tile's grid elements have been created in the background, and selects the graticule's renderables
+     * again in the next frame.
+     */
+    void tilePublished() {
+        this.updateRequested = true;
+    }
+
+    /**
+     * Removes a tile from the tile cache after its grid elements have been released.
+     *
+     * @param tile the tile that no longer holds grid elements
+     */
+    void tileCleared(AbstractGraticuleTile tile) {
+        this.tileCache.remove(tile);
+    }
+
+    private void trimTileCache() {
+        while (this.tileCache.size() > this.tileCacheCapacity) {
+            Iterator<AbstractGraticuleTile> iterator = this.tileCache.keySet().iterator();
+            AbstractGraticuleTile eldest = iterator.next();
+            if (eldest.getUpdateStamp() == this.updateStamp) {
+                break; // the remaining tiles were all selected in the current update
+            }
+
+            // Releasing a tile's grid elements also releases its sub-tiles, which remove themselves from the cache.
+            iterator.remove();
+            eldest.clearRenderables();
+        }
+    }
+
     protected abstract String getTypeFor(double resolution);
 
     /**
@@ -395,19 +570,18 @@ public abstract class AbstractGraticuleLayer extends AbstractLayer {
         }
     }
 
-    Renderable createLineRenderable(List<Position> positions, int pathType) {
-        Path path = new Path(positions);
-        path.setPathType(pathType);
-        path.setFollowTerrain(true);
-        // path.setTerrainConformance(1); // WTF Why not this.terrainConformance?
-        path.setAltitudeMode(WorldWind.CLAMP_TO_GROUND);
-        return path;
+    /**
+     * Returns the factory used to create this layer's lines and labels. The factory does not refer to the layer, so
+     * tiles may use it on worker threads.
+     *
+     * @return the layer's grid element factory
+     */
+    GridElementFactory getGridElementFactory() {
+        return this.gridElementFactory;
     }
 
     Renderable createTextRenderable(Position position, String label, double resolution) {
-        Label text = new Label(position, label).setAltitudeMode(WorldWind.CLAMP_TO_GROUND);
-        //text.setPriority(resolution * 1e6);
-        return text;
+        return this.gridElementFactory.createTextRenderable(position, label, resolution);
     }
 
     boolean hasLookAtPos(RenderContext rc) {
@@ -448,138 +622,6 @@ public abstract class AbstractGraticuleLayer extends AbstractLayer {
         return rc.cameraPoint.distanceTo(surfacePoint);
     }
 
-    void computeTruncatedSegment(Position p1, Position p2, Sector sector, List<Position> positions) {
-        if (p1 == null || p2 == null)
-            return;
-
-        boolean p1In = sector.contains(p1.latitude, p1.longitude);
-        boolean p2In = sector.contains(p2.latitude, p2.longitude);
-        if (!p1In && !p2In) {
-            // whole segment is (likely) outside
-            return;
-        }
-        if (p1In && p2In) {
-            // whole segment is (likely) inside
-            positions.add(p1);
-            positions.add(p2);
-        } else {
-            // segment does cross the boundary
-            Position outPoint = !p1In ? p1 : p2;
-            Position inPoint = p1In ? p1 : p2;
-            for (int i = 1; i <= 2; i++) { // there may be two intersections
-                Location intersection = null;
-                if (outPoint.longitude > sector.maxLongitude()
-                    || (sector.maxLongitude() == 180 && outPoint.longitude < 0))
-                {
-                    // intersect with east meridian
-                    intersection = this.greatCircleIntersectionAtLongitude(
-                        inPoint, outPoint, sector.maxLongitude());
-                } else if (outPoint.longitude < sector.minLongitude()
-                    || (sector.minLongitude() == -180 && outPoint.longitude > 0)) {
-                    // intersect with west meridian
-                    intersection = this.greatCircleIntersectionAtLongitude(
-                        inPoint, outPoint, sector.minLongitude());
-                } else if (outPoint.latitude > sector.maxLatitude()) {
-                    // intersect with top parallel
-                    intersection = this.greatCircleIntersectionAtLatitude(
-                        inPoint, outPoint, sector.maxLatitude());
-                } else if (outPoint.latitude < sector.minLatitude()) {
-                    // intersect with bottom parallel
-                    intersection = this.greatCircleIntersectionAtLatitude(
-                        inPoint, outPoint, sector.minLatitude());
-                }
-                if (intersection != null)
-                    outPoint = new Position(intersection.latitude, intersection.longitude, outPoint.altitude);
-                else
-                    break;
-            }
-            positions.add(inPoint);
-            positions.add(outPoint);
-        }
-    }
-
-    /**
-     * Computes the intersection point position between a great circle segment and a meridian.
-     *
-     * @param p1        the great circle segment start position.
-     * @param p2        the great circle segment end position.
-     * @param longitude the meridian longitude <code>Angle</code>
-     *
-     * @return the intersection <code>Position</code> or null if there was no intersection found.
-     */
-    private Location greatCircleIntersectionAtLongitude(Location p1, Location p2, double longitude) {
-        if (p1.longitude == longitude)
-            return p1;
-        if (p2.longitude == longitude)
-            return p2;
-        Location pos = null;
-        double deltaLon = this.getDeltaLongitude(p1, p2.longitude);
-        if (this.getDeltaLongitude(p1, longitude) < deltaLon && this.getDeltaLongitude(p2, longitude) < deltaLon) {
-            int count = 0;
-            double precision = 1d / 6378137d; // 1m angle in radians
-            Location a = p1;
-            Location b = p2;
-            Location midPoint = this.greatCircleMidPoint(a, b);
-            while (Math.toRadians(this.getDeltaLongitude(midPoint, longitude)) > precision && count <= 20) {
-                count++;
-                if (this.getDeltaLongitude(a, longitude) < this.getDeltaLongitude(b, longitude))
-                    b = midPoint;
-                else
-                    a = midPoint;
-                midPoint = this.greatCircleMidPoint(a, b);
-            }
-            pos = midPoint;
-        }
-        // Adjust final longitude for an exact match
-        if (pos != null)
-            pos = new Location(pos.latitude, longitude);
-        return pos;
-    }
-
-    /**
-     * Computes the intersection point position between a great circle segment and a parallel.
-     *
-     * @param p1       the great circle segment start position.
-     * @param p2       the great circle segment end position.
-     * @param latitude the parallel latitude <code>Angle</code>
-     *
-     * @return the intersection <code>Position</code> or null if there was no intersection found.
-     */
-    private Location greatCircleIntersectionAtLatitude(Location p1, Location p2, double latitude) {
-        Location pos = null;
-        if (Math.signum(p1.latitude - latitude) != Math.signum(p2.latitude - latitude)) {
-            int count = 0;
-            double precision = 1d / 6378137d; // 1m angle in radians
-            Location a = p1;
-            Location b = p2;
-            Location midPoint = this.greatCircleMidPoint(a, b);
-            while (Math.abs(Math.toRadians(midPoint.latitude) - Math.toRadians(latitude)) > precision && count <= 20) {
-                count++;
-                if (Math.signum(a.latitude - latitude)
-                    != Math.signum(midPoint.latitude - latitude))
-                    b = midPoint;
-                else
-                    a = midPoint;
-                midPoint = this.greatCircleMidPoint(a, b);
-            }
-            pos = midPoint;
-        }
-        // Adjust final latitude for an exact match
-        if (pos != null)
-            pos = new Location(latitude, pos.longitude);
-        return pos;
-    }
-
-    private Location greatCircleMidPoint(Location p1, Location p2) {
-        double azimuth = p1.greatCircleAzimuth(p2);
-        double distance = p1.greatCircleDistance(p2);
-        return p1.greatCircleLocation(azimuth, distance / 2, new Location());
-    }
-
-    private double getDeltaLongitude(Location p1, double longitude) {
-        double deltaLon = Math.abs(p1.longitude - longitude);
-        return deltaLon < 180 ? deltaLon : 360 - deltaLon;
-    }
 
     private void calculateLookAtProperties(RenderContext rc) {
         if (!rc.hasUserProperty(LOOK_AT_LATITUDE_PROPERTY) || !rc.hasUserProperty(LOOK_AT_LONGITUDE_PROPERTY)) {
@@ -2,12 +2,15 @@ package gov.nasa.worldwind.layer.graticule;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import gov.nasa.worldwind.geom.BoundingBox;
 import gov.nasa.worldwind.geom.Sector;
 import gov.nasa.worldwind.geom.Vec3;
 import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.shape.ShapeGeometryAssembler;
+import gov.nasa.worldwind.util.Logger;
 
 abstract class AbstractGraticuleTile {
 
@@ -15,12 +18,15 @@ abstract class AbstractGraticuleTile {
     private final Sector sector;
 
     private List<GridElement> gridElements;
+    private ShapeGeometryAssembler.Job gridElementsJob;
 
     private BoundingBox extent;
     private float[] heightLimits;
     private long heightLimitsTimestamp;
     private double extentExaggeration;
 
+    private long updateStamp;
+
     AbstractGraticuleTile(AbstractGraticuleLayer layer, Sector sector) {
         this.layer = layer;
         this.sector = sector;
@@ -34,8 +40,13 @@ abstract class AbstractGraticuleTile {
         return this.sector;
     }
 
+    /**
+     * Returns this tile's grid elements, or an empty list while they are being created in the background.
+     *
+     * @return the tile's grid elements
+     */
     List<GridElement> getGridElements() {
-        return this.gridElements;
+        return this.gridElements != null ? this.gridElements : Collections.<GridElement>emptyList();
     }
 
     boolean isInView(RenderContext rc) {
@@ -49,20 +60,57 @@ abstract class AbstractGraticuleTile {
         return tileSizeMeter / rc.pixelSizeAtDistance(distance) / rc.resources.getDisplayMetrics().density;
     }
 
+    long getUpdateStamp() {
+        return this.updateStamp;
+    }
+
+    void setUpdateStamp(long updateStamp) {
+        this.updateStamp = updateStamp;
+    }
+
     void selectRenderables(RenderContext rc) {
         if (this.gridElements == null)
-            this.createRenderables();
+            this.prepareRenderables(rc);
+
+        this.layer.tileSelected(this);
     }
 
     void clearRenderables() {
+        this.layer.tileCleared(this);
+        if (this.gridElementsJob != null) {
+            this.gridElementsJob.cancel();
+            this.gridElementsJob = null;
+        }
         if (this.gridElements != null) {
             this.gridElements.clear();
             this.gridElements = null;
         }
     }
 
-    void createRenderables() {
-        this.gridElements = new ArrayList<>();
+    /**
+     * Creates this tile's lines and labels. Called on a worker thread when the layer assembles grid elements in the
+     * background, so implementations must only read the tile's immutable state and must create grid elements with
+     * the specified factory rather than the layer.
+     *
+     * @param factory      the factory that creates lines and labels
+     * @param gridElements the list to add the tile's grid elements to
+     */
+    abstract void createRenderables(GridElementFactory factory, List<GridElement> gridElements);
+
+    private void prepareRenderables(RenderContext rc) {
+        if (this.layer.isBackgroundAssembly() && rc.geometryAssembler != null) {
+            if (this.gridElementsJob == null) {
+                this.gridElementsJob = rc.geometryAssembler.submit(rc,
+                    new GridElementsAssembly(this, this.layer.getGridElementFactory()));
+            }
+            // The layer keeps displaying its previous selection until the tile's grid elements are published. A null
+            // job means the assembler is saturated; the layer tries again in a subsequent frame.
+            this.layer.tilePending(this.gridElementsJob != null);
+        } else {
+            List<GridElement> gridElements = new ArrayList<>();
+            this.createRenderables(this.layer.getGridElementFactory(), gridElements);
+            this.gridElements = gridElements;
+        }
     }
 
     Sector[] subdivide(int div) {
@@ -90,7 +138,7 @@ abstract class AbstractGraticuleTile {
             this.extent = new BoundingBox();
         }
 
-        long elevationTimestamp = rc.globe.getElevationModel().getTimestamp();
+        long elevationTimestamp = rc.getElevationModelTimestamp();
         if (elevationTimestamp != this.heightLimitsTimestamp) {
             // initialize the heights for elevation model scan
             this.heightLimits[0] = Float.MAX_VALUE;
@@ -116,4 +164,51 @@ abstract class AbstractGraticuleTile {
         return this.extent;
     }
 
+    /**
+     * Creates a tile's grid elements on a worker thread and hands them to the tile on the render thread. The assembly
+     * creates lines and labels with the factory it was given on the render thread and doesn't access the layer until
+     * it's published.
+     */
+    private static class GridElementsAssembly implements ShapeGeometryAssembler.Assembly {
+
+        private final AbstractGraticuleTile tile;
+
+        private final GridElementFactory factory;
+
+        private List<GridElement> gridElements;
+
+        GridElementsAssembly(AbstractGraticuleTile tile, GridElementFactory factory) {
+            this.tile = tile;
+            this.factory = factory;
+        }
+
+        @Override
+        public void assemble(RenderContext rc) {
+            List<GridElement> gridElements = new ArrayList<>();
+            try {
+                this.tile.createRenderables(this.factory, gridElements);
+            } catch (RuntimeException e) {
+                // Publish an empty tile rather than leaving the layer waiting on this tile indefinitely.
+                Logger.logMessage(Logger.ERROR, "AbstractGraticuleTile", "assemble",
+                    "Exception while creating graticule grid elements", e);
+                gridElements.clear();
+            }
+
+            this.gridElements = gridElements;
+        }
+
+        @Override
+        public void publish() {
+            this.tile.gridElementsJob = null;
+            this.tile.gridElements = this.gridElements;
+            this.tile.layer.tilePublished();
+        }
+
+        @Override
+        public void publishFailure(Throwable failure) {
+            this.gridElements = new ArrayList<>(); // publish an empty tile
+            this.publish();
+        }
+    }
+
 }
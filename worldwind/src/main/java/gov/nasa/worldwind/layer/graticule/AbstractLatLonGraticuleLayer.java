@@ -6,12 +6,15 @@
 package gov.nasa.worldwind.layer.graticule;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import gov.nasa.worldwind.geom.Location;
 import gov.nasa.worldwind.geom.Position;
 import gov.nasa.worldwind.geom.Sector;
 import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.shape.Label;
 
 abstract class AbstractLatLonGraticuleLayer extends AbstractGraticuleLayer implements GridTilesSupport.Callback  {
 
@@ -19,9 +22,15 @@ abstract class AbstractLatLonGraticuleLayer extends AbstractGraticuleLayer imple
         DD, DM, DMS
     }
 
+    private static final int MAX_CACHED_LABELS = 256;
+
     private final GridTilesSupport gridTilesSupport;
     private final List<Double> latitudeLabels = new ArrayList<>();
     private final List<Double> longitudeLabels = new ArrayList<>();
+    // Labels kept between updates, keyed by their angle
+    private final Map<Double, AngleLabel> latitudeLabelCache = new HashMap<>();
+    private final Map<Double, AngleLabel> longitudeLabelCache = new HashMap<>();
+    private final Position labelPosition = new Position();
     private AngleFormat angleFormat = AngleFormat.DMS;
 
     AbstractLatLonGraticuleLayer(String name) {
@@ -51,6 +60,8 @@ abstract class AbstractLatLonGraticuleLayer extends AbstractGraticuleLayer imple
 
         this.angleFormat = format;
         this.gridTilesSupport.clearTiles();
+        this.latitudeLabelCache.clear();
+        this.longitudeLabelCache.clear();
     }
 
     @Override
@@ -85,24 +96,40 @@ abstract class AbstractLatLonGraticuleLayer extends AbstractGraticuleLayer imple
     }
 
     void addLabel(double value, String labelType, String graticuleType, double resolution, Location labelOffset) {
-        Position position = null;
+        Label label = null;
         if (labelType.equals(GridElement.TYPE_LATITUDE_LABEL)) {
             if (!this.latitudeLabels.contains(value)) {
                 this.latitudeLabels.add(value);
-                position = Position.fromDegrees(value, labelOffset.longitude, 0);
+                label = this.obtainLabel(this.latitudeLabelCache, value, resolution);
+                label.setPosition(this.labelPosition.set(value, labelOffset.longitude, 0));
             }
         } else if (labelType.equals(GridElement.TYPE_LONGITUDE_LABEL)) {
             if (!this.longitudeLabels.contains(value)) {
                 this.longitudeLabels.add(value);
-                position = Position.fromDegrees(labelOffset.latitude, value, 0);
+                label = this.obtainLabel(this.longitudeLabelCache, value, resolution);
+                label.setPosition(this.labelPosition.set(labelOffset.latitude, value, 0));
             }
         }
-        if (position != null) {
-            String label = makeAngleLabel(value, resolution);
-            this.addRenderable(this.createTextRenderable(position, label, resolution), graticuleType);
+        if (label != null) {
+            this.addRenderable(label, graticuleType);
         }
     }
 
+    private Label obtainLabel(Map<Double, AngleLabel> labelCache, double value, double resolution) {
+        AngleLabel angleLabel = labelCache.get(value);
+        if (angleLabel == null || angleLabel.resolution != resolution) {
+            if (labelCache.size() >= MAX_CACHED_LABELS) {
+                labelCache.clear();
+            }
+
+            String text = this.makeAngleLabel(value, resolution);
+            angleLabel = new AngleLabel((Label) this.createTextRenderable(this.labelPosition, text, resolution), resolution);
+            labelCache.put(value, angleLabel);
+        }
+
+        return angleLabel.label;
+    }
+
     private String toDecimalDegreesString(double angle, int digits) {
         return String.format("%." + digits + "f\u00B0", angle);
     }
@@ -216,4 +243,16 @@ abstract class AbstractLatLonGraticuleLayer extends AbstractGraticuleLayer imple
         return label;
     }
 
+    private static class AngleLabel {
+
+        final Label label;
+
+        final double resolution;
+
+        AngleLabel(Label label, double resolution) {
+            this.label = label;
+            this.resolution = resolution;
+        }
+    }
+
 }
@@ -14,9 +14,8 @@ import java.util.List;
 
 import gov.nasa.worldwind.geom.Position;
 import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.geom.coords.GridCoordConverter;
 import gov.nasa.worldwind.geom.coords.Hemisphere;
-import gov.nasa.worldwind.geom.coords.UPSCoord;
-import gov.nasa.worldwind.geom.coords.UTMCoord;
 import gov.nasa.worldwind.render.Color;
 import gov.nasa.worldwind.render.RenderContext;
 
@@ -137,22 +136,26 @@ public abstract class AbstractUTMGraticuleLayer extends AbstractGraticuleLayer {
         this.metricScaleSupport.computeMetricScaleExtremes(UTMZone, hemisphere, ge, size);
     }
 
-    Position computePosition(int zone, Hemisphere hemisphere, double easting, double northing) {
+    static Position computePosition(int zone, Hemisphere hemisphere, double easting, double northing) {
         return zone > 0 ?
                 computePositionFromUTM(zone, hemisphere, easting, northing) :
                 computePositionFromUPS(hemisphere, easting, northing);
     }
 
-    private Position computePositionFromUTM(int zone, Hemisphere hemisphere, double easting, double northing) {
-        UTMCoord UTM = UTMCoord.fromUTM(zone, hemisphere, easting, northing);
-        return Position.fromDegrees(Position.clampLatitude(UTM.getLatitude()),
-                Position.clampLongitude(UTM.getLongitude()), 10e3);
+    private static Position computePositionFromUTM(int zone, Hemisphere hemisphere, double easting, double northing) {
+        double[] location = new double[2];
+        if (!GridCoordConverter.fromUTM(zone, hemisphere, easting, northing, location, 0))
+            throw new IllegalArgumentException("UTM Conversion Error");
+        return Position.fromDegrees(Position.clampLatitude(location[0]),
+                Position.clampLongitude(location[1]), 10e3);
     }
 
-    private Position computePositionFromUPS(Hemisphere hemisphere, double easting, double northing) {
-        UPSCoord UPS = UPSCoord.fromUPS(hemisphere, easting, northing);
-        return Position.fromDegrees(Position.clampLatitude(UPS.getLatitude()),
-                Position.clampLongitude(UPS.getLongitude()), 10e3);
+    private static Position computePositionFromUPS(Hemisphere hemisphere, double easting, double northing) {
+        double[] location = new double[2];
+        if (!GridCoordConverter.fromUPS(hemisphere, easting, northing, location, 0))
+            throw new IllegalArgumentException("UPS Conversion Error");
+        return Position.fromDegrees(Position.clampLatitude(location[0]),
+                Position.clampLongitude(location[1]), 10e3);
     }
 
     List<UTMSquareZone> createSquaresGrid(int UTMZone, Hemisphere hemisphere, Sector UTMZoneSector,
@@ -179,10 +179,8 @@ class GARSGraticuleTile extends AbstractGraticuleTile {
         if (this.subTiles == null)
             createSubTiles();
         for (GARSGraticuleTile gt : this.subTiles) {
-            if (gt.isInView(rc)) {
+            if (gt.isInView(rc))
                 gt.selectRenderables(rc);
-            } else
-                gt.clearRenderables();
         }
     }
 
@@ -213,9 +211,7 @@ class GARSGraticuleTile extends AbstractGraticuleTile {
     }
 
     @Override
-    void createRenderables() {
-        super.createRenderables();
-
+    void createRenderables(GridElementFactory factory, List<GridElement> gridElements) {
         double step = getSector().deltaLatitude() / this.divisions;
 
         // Generate meridians with labels
@@ -227,12 +223,12 @@ class GARSGraticuleTile extends AbstractGraticuleTile {
             positions.add(new Position(this.getSector().minLatitude(), longitude, 0));
             positions.add(new Position(this.getSector().maxLatitude(), longitude, 0));
 
-            Renderable line = getLayer().createLineRenderable(positions, WorldWind.LINEAR);
+            Renderable line = factory.createLineRenderable(positions, WorldWind.LINEAR);
             Sector sector = Sector.fromDegrees(
                 this.getSector().minLatitude(), lon, this.getSector().deltaLatitude(), 1E-15);
             String lineType = lon == this.getSector().minLongitude() ?
                 GridElement.TYPE_LINE_WEST : GridElement.TYPE_LINE;
-            this.getGridElements().add(new GridElement(sector, line, lineType, lon));
+            gridElements.add(new GridElement(sector, line, lineType, lon));
 
             // Increase longitude
             lon += step;
@@ -246,12 +242,12 @@ class GARSGraticuleTile extends AbstractGraticuleTile {
             positions.add(new Position(latitude, this.getSector().minLongitude(), 0));
             positions.add(new Position(latitude, this.getSector().maxLongitude(), 0));
 
-            Renderable line = getLayer().createLineRenderable(positions, WorldWind.LINEAR);
+            Renderable line = factory.createLineRenderable(positions, WorldWind.LINEAR);
             Sector sector = Sector.fromDegrees(
                 lat, this.getSector().minLongitude(), 1E-15, this.getSector().deltaLongitude());
             String lineType = lat == this.getSector().minLatitude() ?
                 GridElement.TYPE_LINE_SOUTH : GridElement.TYPE_LINE;
-            this.getGridElements().add(new GridElement(sector, line, lineType, lat));
+            gridElements.add(new GridElement(sector, line, lineType, lat));
 
             // Increase latitude
             lat += step;
@@ -263,10 +259,10 @@ class GARSGraticuleTile extends AbstractGraticuleTile {
             positions.add(new Position(90, this.getSector().minLongitude(), 0));
             positions.add(new Position(90, this.getSector().maxLongitude(), 0));
 
-            Renderable line = getLayer().createLineRenderable(positions, WorldWind.LINEAR);
+            Renderable line = factory.createLineRenderable(positions, WorldWind.LINEAR);
             Sector sector = Sector.fromDegrees(
                 90, this.getSector().minLongitude(), 1E-15, this.getSector().deltaLongitude());
-            this.getGridElements().add(new GridElement(sector, line, GridElement.TYPE_LINE_NORTH, 90));
+            gridElements.add(new GridElement(sector, line, GridElement.TYPE_LINE_NORTH, 90));
         }
 
         double resolution = this.getSector().deltaLatitude() / this.divisions;
@@ -276,38 +272,38 @@ class GARSGraticuleTile extends AbstractGraticuleTile {
                 for (int i = 0; i < 20; i++) {
                     Sector sector = sectors[j * 20 + i];
                     String label = makeLabelLevel1(sector);
-                    addLabel(label, sectors[j * 20 + i], resolution);
+                    addLabel(factory, gridElements, label, sectors[j * 20 + i], resolution);
                 }
             }
         } else if (this.level == 1) {
             String label = makeLabelLevel1(this.getSector());
 
             Sector[] sectors = this.subdivide(2);
-            addLabel(label + "3", sectors[0], resolution);
-            addLabel(label + "4", sectors[1], resolution);
-            addLabel(label + "1", sectors[2], resolution);
-            addLabel(label + "2", sectors[3], resolution);
+            addLabel(factory, gridElements, label + "3", sectors[0], resolution);
+            addLabel(factory, gridElements, label + "4", sectors[1], resolution);
+            addLabel(factory, gridElements, label + "1", sectors[2], resolution);
+            addLabel(factory, gridElements, label + "2", sectors[3], resolution);
         } else if (this.level == 2) {
             String label = makeLabelLevel1(this.getSector());
             label += makeLabelLevel2(this.getSector());
 
             resolution = 0.26; // make label priority a little higher than level 2's
             Sector[] sectors = this.subdivide(3);
-            addLabel(label + "7", sectors[0], resolution);
-            addLabel(label + "8", sectors[1], resolution);
-            addLabel(label + "9", sectors[2], resolution);
-            addLabel(label + "4", sectors[3], resolution);
-            addLabel(label + "5", sectors[4], resolution);
-            addLabel(label + "6", sectors[5], resolution);
-            addLabel(label + "1", sectors[6], resolution);
-            addLabel(label + "2", sectors[7], resolution);
-            addLabel(label + "3", sectors[8], resolution);
+            addLabel(factory, gridElements, label + "7", sectors[0], resolution);
+            addLabel(factory, gridElements, label + "8", sectors[1], resolution);
+            addLabel(factory, gridElements, label + "9", sectors[2], resolution);
+            addLabel(factory, gridElements, label + "4", sectors[3], resolution);
+            addLabel(factory, gridElements, label + "5", sectors[4], resolution);
+            addLabel(factory, gridElements, label + "6", sectors[5], resolution);
+            addLabel(factory, gridElements, label + "1", sectors[6], resolution);
+            addLabel(factory, gridElements, label + "2", sectors[7], resolution);
+            addLabel(factory, gridElements, label + "3", sectors[8], resolution);
         }
     }
 
-    private void addLabel(String label, Sector sector, double resolution) {
-        Renderable text = this.getLayer().createTextRenderable(new Position(sector.centroidLatitude(), sector.centroidLongitude(), 0), label, resolution);
-        this.getGridElements().add(new GridElement(sector, text, GridElement.TYPE_GRIDZONE_LABEL));
+    private void addLabel(GridElementFactory factory, List<GridElement> gridElements, String label, Sector sector, double resolution) {
+        Renderable text = factory.createTextRenderable(new Position(sector.centroidLatitude(), sector.centroidLongitude(), 0), label, resolution);
+        gridElements.add(new GridElement(sector, text, GridElement.TYPE_GRIDZONE_LABEL));
     }
 
 }
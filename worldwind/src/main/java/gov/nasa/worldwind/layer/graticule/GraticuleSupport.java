@@ -25,16 +25,44 @@ import gov.nasa.worldwind.shape.ShapeAttributes;
 public class GraticuleSupport {
 
     private Map<Renderable, String> renderables = new HashMap<>();
+    private Map<Renderable, String> pendingRenderables = new HashMap<>();
     private Map<String, GraticuleRenderingParams> namedParams = new HashMap<>();
     private Map<String, ShapeAttributes> namedShapeAttributes = new HashMap<>();
     private GraticuleRenderingParams defaultParams;
 
+    /**
+     * Adds a renderable to the pending set. Pending renderables are displayed after the next call to
+     * {@link #publishRenderables()}.
+     *
+     * @param renderable the renderable to add
+     * @param paramsKey  the rendering parameters key
+     */
     public void addRenderable(Renderable renderable, String paramsKey) {
-        this.renderables.put(renderable, paramsKey);
+        this.pendingRenderables.put(renderable, paramsKey);
     }
 
     void removeAllRenderables() {
-        this.renderables.clear();
+        this.pendingRenderables.clear();
+    }
+
+    /**
+     * Indicates whether any renderables are displayed.
+     *
+     * @return true if the displayed set is not empty, otherwise false
+     */
+    boolean hasRenderables() {
+        return !this.renderables.isEmpty();
+    }
+
+    /**
+     * Replaces the displayed renderables with the pending set. The published set is not modified until it is replaced
+     * by a subsequent publication.
+     */
+    void publishRenderables() {
+        Map<Renderable, String> published = this.renderables;
+        this.renderables = this.pendingRenderables;
+        this.pendingRenderables = published;
+        this.pendingRenderables.clear();
     }
 
     public void render(RenderContext rc) {
@@ -0,0 +1,182 @@
+package gov.nasa.worldwind.layer.graticule;
+
+import java.util.List;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.geom.Location;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.render.Renderable;
+import gov.nasa.worldwind.shape.Label;
+import gov.nasa.worldwind.shape.Path;
+import gov.nasa.worldwind.shape.ShapeAttributes;
+import gov.nasa.worldwind.shape.TextAttributes;
+
+/**
+ * Creates the lines and labels of graticule tiles. A factory holds its own copies of the attributes given to new grid
+ * elements and never refers back to its layer, so tiles may use it to create their grid elements on worker threads
+ * while the layer is modified on the render thread. The layer applies its rendering parameters to the grid elements
+ * when it renders them.
+ */
+class GridElementFactory {
+
+    private final ShapeAttributes lineAttributes;
+
+    private final TextAttributes labelAttributes;
+
+    GridElementFactory(ShapeAttributes lineAttributes, TextAttributes labelAttributes) {
+        this.lineAttributes = new ShapeAttributes(lineAttributes);
+        this.labelAttributes = new TextAttributes(labelAttributes);
+    }
+
+    Renderable createLineRenderable(List<Position> positions, int pathType) {
+        // Lines share the factory's attributes until the layer replaces them with its rendering parameters.
+        Path path = new Path(positions, this.lineAttributes);
+        path.setPathType(pathType);
+        path.setFollowTerrain(true);
+        // path.setTerrainConformance(1); // WTF Why not this.terrainConformance?
+        path.setAltitudeMode(WorldWind.CLAMP_TO_GROUND);
+        return path;
+    }
+
+    Renderable createTextRenderable(Position position, String label, double resolution) {
+        // The layer modifies each label's attributes in place, so every label gets its own copy.
+        Label text = new Label(position, label, new TextAttributes(this.labelAttributes)).setAltitudeMode(WorldWind.CLAMP_TO_GROUND);
+        //text.setPriority(resolution * 1e6);
+        return text;
+    }
+
+    void computeTruncatedSegment(Position p1, Position p2, Sector sector, List<Position> positions) {
+        if (p1 == null || p2 == null)
+            return;
+
+        boolean p1In = sector.contains(p1.latitude, p1.longitude);
+        boolean p2In = sector.contains(p2.latitude, p2.longitude);
+        if (!p1In && !p2In) {
+            // whole segment is (likely) outside
+            return;
+        }
+        if (p1In && p2In) {
+            // whole segment is (likely) inside
+            positions.add(p1);
+            positions.add(p2);
+        } else {
+            // segment does cross the boundary
+            Position outPoint = !p1In ? p1 : p2;
+            Position inPoint = p1In ? p1 : p2;
+            for (int i = 1; i <= 2; i++) { // there may be two intersections
+                Location intersection = null;
+                if (outPoint.longitude > sector.maxLongitude()
+                    || (sector.maxLongitude() == 180 && outPoint.longitude < 0))
+                {
+                    // intersect with east meridian
+                    intersection = this.greatCircleIntersectionAtLongitude(
+                        inPoint, outPoint, sector.maxLongitude());
+                } else if (outPoint.longitude < sector.minLongitude()
+                    || (sector.minLongitude() == -180 && outPoint.longitude > 0)) {
+                    // intersect with west meridian
+                    intersection = this.greatCircleIntersectionAtLongitude(
+                        inPoint, outPoint, sector.minLongitude());
+                } else if (outPoint.latitude > sector.maxLatitude()) {
+                    // intersect with top parallel
+                    intersection = this.greatCircleIntersectionAtLatitude(
+                        inPoint, outPoint, sector.maxLatitude());
+                } else if (outPoint.latitude < sector.minLatitude()) {
+                    // intersect with bottom parallel
+                    intersection = this.greatCircleIntersectionAtLatitude(
+                        inPoint, outPoint, sector.minLatitude());
+                }
+                if (intersection != null)
+                    outPoint = new Position(intersection.latitude, intersection.longitude, outPoint.altitude);
+                else
+                    break;
+            }
+            positions.add(inPoint);
+            positions.add(outPoint);
+        }
+    }
+
+    /**
+     * Computes the intersection point position between a great circle segment and a meridian.
+     *
+     * @param p1        the great circle segment start position.
+     * @param p2        the great circle segment end position.
+     * @param longitude the meridian longitude <code>Angle</code>
+     *
+     * @return the intersection <code>Position</code> or null if there was no intersection found.
+     */
+    private Location greatCircleIntersectionAtLongitude(Location p1, Location p2, double longitude) {
+        if (p1.longitude == longitude)
+            return p1;
+        if (p2.longitude == longitude)
+            return p2;
+        Location pos = null;
+        double deltaLon = this.getDeltaLongitude(p1, p2.longitude);
+        if (this.getDeltaLongitude(p1, longitude) < deltaLon && this.getDeltaLongitude(p2, longitude) < deltaLon) {
+            int count = 0;
+            double precision = 1d / 6378137d; // 1m angle in radians
+            Location a = p1;
+            Location b = p2;
+            Location midPoint = this.greatCircleMidPoint(a, b);
+            while (Math.toRadians(this.getDeltaLongitude(midPoint, longitude)) > precision && count <= 20) {
+                count++;
+                if (this.getDeltaLongitude(a, longitude) < this.getDeltaLongitude(b, longitude))
+                    b = midPoint;
+                else
+                    a = midPoint;
+                midPoint = this.greatCircleMidPoint(a, b);
+            }
+            pos = midPoint;
+        }
+        // Adjust final longitude for an exact match
+        if (pos != null)
+            pos = new Location(pos.latitude, longitude);
+        return pos;
+    }
+
+    /**
+     * Computes the intersection point position between a great circle segment and a parallel.
+     *
+     * @param p1       the great circle segment start position.
+     * @param p2       the great circle segment end position.
+     * @param latitude the parallel latitude <code>Angle</code>
+     *
+     * @return the intersection <code>Position</code> or null if there was no intersection found.
+     */
+    private Location greatCircleIntersectionAtLatitude(Location p1, Location p2, double latitude) {
+        Location pos = null;
+        if (Math.signum(p1.latitude - latitude) != Math.signum(p2.latitude - latitude)) {
+            int count = 0;
+            double precision = 1d / 6378137d; // 1m angle in radians
+            Location a = p1;
+            Location b = p2;
+            Location midPoint = this.greatCircleMidPoint(a, b);
+            while (Math.abs(Math.toRadians(midPoint.latitude) - Math.toRadians(latitude)) > precision && count <= 20) {
+                count++;
+                if (Math.signum(a.latitude - latitude)
+                    != Math.signum(midPoint.latitude - latitude))
+                    b = midPoint;
+                else
+                    a = midPoint;
+                midPoint = this.greatCircleMidPoint(a, b);
+            }
+            pos = midPoint;
+        }
+        // Adjust final latitude for an exact match
+        if (pos != null)
+            pos = new Location(latitude, pos.longitude);
+        return pos;
+    }
+
+    private Location greatCircleMidPoint(Location p1, Location p2) {
+        double azimuth = p1.greatCircleAzimuth(p2);
+        double distance = p1.greatCircleDistance(p2);
+        return p1.greatCircleLocation(azimuth, distance / 2, new Location());
+    }
+
+    private double getDeltaLongitude(Location p1, double longitude) {
+        double deltaLon = Math.abs(p1.longitude - longitude);
+        return deltaLon < 180 ? deltaLon : 360 - deltaLon;
+    }
+
+}
@@ -67,8 +67,6 @@ class GridTilesSupport {
                         gridTiles[row][col] = callback.createGridTile(callback.getGridSector(row, col));
                     if (gridTiles[row][col].isInView(rc))
                         tileList.add(gridTiles[row][col]);
-                    else
-                        gridTiles[row][col].clearRenderables();
                 }
             }
         }
@@ -80,10 +80,8 @@ class LatLonGraticuleTile extends AbstractGraticuleTile {
         if (this.subTiles == null)
             createSubTiles();
         for (LatLonGraticuleTile gt : this.subTiles) {
-            if (gt.isInView(rc)) {
+            if (gt.isInView(rc))
                 gt.selectRenderables(rc);
-            } else
-                gt.clearRenderables();
         }
     }
 
@@ -113,9 +111,7 @@ class LatLonGraticuleTile extends AbstractGraticuleTile {
     }
 
     @Override
-    void createRenderables() {
-        super.createRenderables();
-
+    void createRenderables(GridElementFactory factory, List<GridElement> gridElements) {
         double step = this.getSector().deltaLatitude() / this.divisions;
 
         // Generate meridians with labels
@@ -127,12 +123,12 @@ class LatLonGraticuleTile extends AbstractGraticuleTile {
             positions.add(new Position(this.getSector().minLatitude(), longitude, 0));
             positions.add(new Position(this.getSector().maxLatitude(), longitude, 0));
 
-            Renderable line = getLayer().createLineRenderable(positions, WorldWind.LINEAR);
+            Renderable line = factory.createLineRenderable(positions, WorldWind.LINEAR);
             Sector sector = Sector.fromDegrees(
                 this.getSector().minLatitude(), lon, this.getSector().deltaLatitude(), 1E-15);
             String lineType = lon == this.getSector().minLongitude() ?
                 GridElement.TYPE_LINE_WEST : GridElement.TYPE_LINE;
-            this.getGridElements().add(new GridElement(sector, line, lineType, lon));
+            gridElements.add(new GridElement(sector, line, lineType, lon));
 
             // Increase longitude
             lon += step;
@@ -146,12 +142,12 @@ class LatLonGraticuleTile extends AbstractGraticuleTile {
             positions.add(new Position(latitude, this.getSector().minLongitude(), 0));
             positions.add(new Position(latitude, this.getSector().maxLongitude(), 0));
 
-            Renderable line = getLayer().createLineRenderable(positions, WorldWind.LINEAR);
+            Renderable line = factory.createLineRenderable(positions, WorldWind.LINEAR);
             Sector sector = Sector.fromDegrees(
                 lat, this.getSector().minLongitude(), 1E-15, this.getSector().deltaLongitude());
             String lineType = lat == this.getSector().minLatitude() ?
                 GridElement.TYPE_LINE_SOUTH : GridElement.TYPE_LINE;
-            this.getGridElements().add(new GridElement(sector, line, lineType, lat));
+            gridElements.add(new GridElement(sector, line, lineType, lat));
 
             // Increase latitude
             lat += step;
@@ -163,10 +159,10 @@ class LatLonGraticuleTile extends AbstractGraticuleTile {
             positions.add(new Position(90, this.getSector().minLongitude(), 0));
             positions.add(new Position(90, this.getSector().maxLongitude(), 0));
 
-            Renderable line = getLayer().createLineRenderable(positions, WorldWind.LINEAR);
+            Renderable line = factory.createLineRenderable(positions, WorldWind.LINEAR);
             Sector sector = Sector.fromDegrees(
                 90, this.getSector().minLongitude(), 1E-15, this.getSector().deltaLongitude());
-            this.getGridElements().add(new GridElement(sector, line, GridElement.TYPE_LINE_NORTH, 90));
+            gridElements.add(new GridElement(sector, line, GridElement.TYPE_LINE_NORTH, 90));
         }
     }
 
@@ -152,8 +152,6 @@ public class MGRSGraticuleLayer extends AbstractUTMGraticuleLayer {
                                 gridZones[row][col] = new MGRSGridZone(this, getGridSector(row, col));
                             if (gridZones[row][col].isInView(rc))
                                 zoneList.add(gridZones[row][col]);
-                            else
-                                gridZones[row][col].clearRenderables();
                         }
                     }
                 }
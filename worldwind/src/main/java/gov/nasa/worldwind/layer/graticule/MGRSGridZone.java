@@ -6,6 +6,7 @@ import java.util.List;
 import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.geom.Position;
 import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.geom.coords.GridCoordConverter;
 import gov.nasa.worldwind.geom.coords.Hemisphere;
 import gov.nasa.worldwind.geom.coords.MGRSCoord;
 import gov.nasa.worldwind.geom.coords.UTMCoord;
@@ -76,8 +77,6 @@ class MGRSGridZone extends AbstractGraticuleTile {
         for (UTMSquareZone sz : this.squares)
             if (sz.isInView(rc))
                 sz.selectRenderables(rc);
-            else
-                sz.clearRenderables();
     }
 
     @Override
@@ -92,52 +91,50 @@ class MGRSGridZone extends AbstractGraticuleTile {
     }
 
     @Override
-    void createRenderables() {
-        super.createRenderables();
-
+    void createRenderables(GridElementFactory factory, List<GridElement> gridElements) {
         List<Position> positions = new ArrayList<>();
 
         // left meridian segment
         positions.clear();
         positions.add(Position.fromDegrees(this.getSector().minLatitude(), this.getSector().minLongitude(), 10e3));
         positions.add(Position.fromDegrees(this.getSector().maxLatitude(), this.getSector().minLongitude(), 10e3));
-        Renderable polyline = getLayer().createLineRenderable(new ArrayList<>(positions), WorldWind.LINEAR);
+        Renderable polyline = factory.createLineRenderable(new ArrayList<>(positions), WorldWind.LINEAR);
         Sector lineSector = Sector.fromDegrees(this.getSector().minLatitude(), this.getSector().minLongitude(),
                 this.getSector().deltaLatitude(), 1E-15);
-        this.getGridElements().add(new GridElement(lineSector, polyline, GridElement.TYPE_LINE_WEST));
+        gridElements.add(new GridElement(lineSector, polyline, GridElement.TYPE_LINE_WEST));
 
         if (!this.ups) {
             // right meridian segment
             positions.clear();
             positions.add(Position.fromDegrees(this.getSector().minLatitude(), this.getSector().maxLongitude(), 10e3));
             positions.add(Position.fromDegrees(this.getSector().maxLatitude(), this.getSector().maxLongitude(), 10e3));
-            polyline = getLayer().createLineRenderable(new ArrayList<>(positions), WorldWind.LINEAR);
+            polyline = factory.createLineRenderable(new ArrayList<>(positions), WorldWind.LINEAR);
             lineSector = Sector.fromDegrees(this.getSector().minLatitude(), this.getSector().maxLongitude(),
                     this.getSector().deltaLatitude(), 1E-15);
-            this.getGridElements().add(new GridElement(lineSector, polyline, GridElement.TYPE_LINE_EAST));
+            gridElements.add(new GridElement(lineSector, polyline, GridElement.TYPE_LINE_EAST));
 
             // bottom parallel segment
             positions.clear();
             positions.add(Position.fromDegrees(this.getSector().minLatitude(), this.getSector().minLongitude(), 10e3));
             positions.add(Position.fromDegrees(this.getSector().minLatitude(), this.getSector().maxLongitude(), 10e3));
-            polyline = getLayer().createLineRenderable(new ArrayList<>(positions), WorldWind.LINEAR);
+            polyline = factory.createLineRenderable(new ArrayList<>(positions), WorldWind.LINEAR);
             lineSector = Sector.fromDegrees(this.getSector().minLatitude(), this.getSector().minLongitude(),
                     1E-15, this.getSector().deltaLongitude());
-            this.getGridElements().add(new GridElement(lineSector, polyline, GridElement.TYPE_LINE_SOUTH));
+            gridElements.add(new GridElement(lineSector, polyline, GridElement.TYPE_LINE_SOUTH));
 
             // top parallel segment
             positions.clear();
             positions.add(Position.fromDegrees(this.getSector().maxLatitude(), this.getSector().minLongitude(), 10e3));
             positions.add(Position.fromDegrees(this.getSector().maxLatitude(), this.getSector().maxLongitude(), 10e3));
-            polyline = getLayer().createLineRenderable(new ArrayList<>(positions), WorldWind.LINEAR);
+            polyline = factory.createLineRenderable(new ArrayList<>(positions), WorldWind.LINEAR);
             lineSector = Sector.fromDegrees(this.getSector().maxLatitude(), this.getSector().minLongitude(),
                     1E-15, this.getSector().deltaLongitude());
-            this.getGridElements().add(new GridElement(lineSector, polyline, GridElement.TYPE_LINE_NORTH));
+            gridElements.add(new GridElement(lineSector, polyline, GridElement.TYPE_LINE_NORTH));
         }
 
         // Label
-        Renderable text = this.getLayer().createTextRenderable(Position.fromDegrees(this.getSector().centroidLatitude(), this.getSector().centroidLongitude(), 0), this.name, 10e6);
-        this.getGridElements().add(new GridElement(this.getSector(), text, GridElement.TYPE_GRIDZONE_LABEL));
+        Renderable text = factory.createTextRenderable(Position.fromDegrees(this.getSector().centroidLatitude(), this.getSector().centroidLongitude(), 0), this.name, 10e6);
+        gridElements.add(new GridElement(this.getSector(), text, GridElement.TYPE_GRIDZONE_LABEL));
     }
 
 
@@ -202,28 +199,30 @@ class MGRSGridZone extends AbstractGraticuleTile {
     private void setSquareName(UTMSquareZone sz) {
         // Find out MGRS 100Km square name
         double tenMeterDegree = Math.toDegrees(10d / 6378137d);
-        MGRSCoord MGRS = null;
-        if (sz.centroid != null && sz.isPositionInside(Position.fromDegrees(sz.centroid.latitude, sz.centroid.longitude, 0)))
-            MGRS = MGRSCoord.fromLatLon(sz.centroid.latitude, sz.centroid.longitude);
-        else if (sz.isPositionInside(sz.sw))
-            MGRS = MGRSCoord.fromLatLon(
-                    Position.clampLatitude(sz.sw.latitude + tenMeterDegree),
-                    Position.clampLongitude(sz.sw.longitude + tenMeterDegree));
-        else if (sz.isPositionInside(sz.se))
-            MGRS = MGRSCoord.fromLatLon(
-                    Position.clampLatitude(sz.se.latitude + tenMeterDegree),
-                    Position.clampLongitude(sz.se.longitude - tenMeterDegree));
-        else if (sz.isPositionInside(sz.nw))
-            MGRS = MGRSCoord.fromLatLon(
-                    Position.clampLatitude(sz.nw.latitude - tenMeterDegree),
-                    Position.clampLongitude(sz.nw.longitude + tenMeterDegree));
-        else if (sz.isPositionInside(sz.ne))
-            MGRS = MGRSCoord.fromLatLon(
-                    Position.clampLatitude(sz.ne.latitude - tenMeterDegree),
-                    Position.clampLongitude(sz.ne.longitude - tenMeterDegree));
+        double latitude, longitude;
+        if (sz.centroid != null && sz.isPositionInside(Position.fromDegrees(sz.centroid.latitude, sz.centroid.longitude, 0))) {
+            latitude = sz.centroid.latitude;
+            longitude = sz.centroid.longitude;
+        } else if (sz.isPositionInside(sz.sw)) {
+            latitude = Position.clampLatitude(sz.sw.latitude + tenMeterDegree);
+            longitude = Position.clampLongitude(sz.sw.longitude + tenMeterDegree);
+        } else if (sz.isPositionInside(sz.se)) {
+            latitude = Position.clampLatitude(sz.se.latitude + tenMeterDegree);
+            longitude = Position.clampLongitude(sz.se.longitude - tenMeterDegree);
+        } else if (sz.isPositionInside(sz.nw)) {
+            latitude = Position.clampLatitude(sz.nw.latitude - tenMeterDegree);
+            longitude = Position.clampLongitude(sz.nw.longitude + tenMeterDegree);
+        } else if (sz.isPositionInside(sz.ne)) {
+            latitude = Position.clampLatitude(sz.ne.latitude - tenMeterDegree);
+            longitude = Position.clampLongitude(sz.ne.longitude - tenMeterDegree);
+        } else {
+            return;
+        }
         // Set square zone name
-        if (MGRS != null)
-            sz.setName(MGRS.toString().substring(3, 5));
+        char[] MGRS = new char[GridCoordConverter.getMGRSLength(5)];
+        if (GridCoordConverter.toMGRS(latitude, longitude, 5, MGRS, 0) == 0)
+            throw new IllegalArgumentException("MGRS Conversion Error");
+        sz.setName(new String(MGRS, 3, 2));
     }
 
 }
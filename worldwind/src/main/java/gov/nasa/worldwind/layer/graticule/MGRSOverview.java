@@ -51,9 +51,7 @@ class MGRSOverview extends AbstractGraticuleTile {
     }
 
     @Override
-    void createRenderables() {
-        super.createRenderables();
-
+    void createRenderables(GridElementFactory factory, List<GridElement> gridElements) {
         List<Position> positions = new ArrayList<>();
 
         // Generate meridians and zone labels
@@ -85,14 +83,14 @@ class MGRSOverview extends AbstractGraticuleTile {
                     positions.add(Position.fromDegrees(maxLat, longitude, 10e3));
                 }
             }
-            Renderable polyline = getLayer().createLineRenderable(new ArrayList<>(positions), WorldWind.GREAT_CIRCLE);
+            Renderable polyline = factory.createLineRenderable(new ArrayList<>(positions), WorldWind.GREAT_CIRCLE);
             Sector sector = Sector.fromDegrees(-80, lon, maxLat + 80, 1E-15);
-            this.getGridElements().add(new GridElement(sector, polyline, GridElement.TYPE_LINE));
+            gridElements.add(new GridElement(sector, polyline, GridElement.TYPE_LINE));
 
             // Zone label
-            Renderable text = getLayer().createTextRenderable(Position.fromDegrees(0, lon + 3, 0), zoneNumber + "", 10e6);
+            Renderable text = factory.createTextRenderable(Position.fromDegrees(0, lon + 3, 0), zoneNumber + "", 10e6);
             sector = Sector.fromDegrees(-90,  lon + 3, 180, 1E-15);
-            this.getGridElements().add(new GridElement(sector, text, GridElement.TYPE_LONGITUDE_LABEL));
+            gridElements.add(new GridElement(sector, text, GridElement.TYPE_LONGITUDE_LABEL));
 
             // Increase longitude and zone number
             lon += 6;
@@ -105,9 +103,9 @@ class MGRSOverview extends AbstractGraticuleTile {
             lon = SPECIAL_MERIDIANS[i][0];
             positions.add(Position.fromDegrees(SPECIAL_MERIDIANS[i][1], lon, 10e3));
             positions.add(Position.fromDegrees(SPECIAL_MERIDIANS[i][2], lon, 10e3));
-            Renderable polyline = getLayer().createLineRenderable(new ArrayList<>(positions), WorldWind.GREAT_CIRCLE);
+            Renderable polyline = factory.createLineRenderable(new ArrayList<>(positions), WorldWind.GREAT_CIRCLE);
             Sector sector = Sector.fromDegrees(SPECIAL_MERIDIANS[i][1], lon, SPECIAL_MERIDIANS[i][2] - SPECIAL_MERIDIANS[i][1], 1E-15);
-            this.getGridElements().add(new GridElement(sector, polyline, GridElement.TYPE_LINE));
+            gridElements.add(new GridElement(sector, polyline, GridElement.TYPE_LINE));
         }
 
         // Generate parallels - no exceptions
@@ -122,15 +120,15 @@ class MGRSOverview extends AbstractGraticuleTile {
                 positions.add(Position.fromDegrees(latitude, lon + 30, 10e3));
                 positions.add(Position.fromDegrees(latitude, lon + 60, 10e3));
                 positions.add(Position.fromDegrees(latitude, lon + 90, 10e3));
-                Renderable polyline = getLayer().createLineRenderable(new ArrayList<>(positions), WorldWind.LINEAR);
+                Renderable polyline = factory.createLineRenderable(new ArrayList<>(positions), WorldWind.LINEAR);
                 Sector sector = Sector.fromDegrees(lat, lon, 1E-15, 90);
-                this.getGridElements().add(new GridElement(sector, polyline, GridElement.TYPE_LINE));
+                gridElements.add(new GridElement(sector, polyline, GridElement.TYPE_LINE));
             }
             // Latitude band label
             if (i < 20) {
-                Renderable text = getLayer().createTextRenderable(Position.fromDegrees(lat + 4, 0, 0), LAT_BANDS.charAt(i) + "", 10e6);
+                Renderable text = factory.createTextRenderable(Position.fromDegrees(lat + 4, 0, 0), LAT_BANDS.charAt(i) + "", 10e6);
                 Sector sector = Sector.fromDegrees(lat + 4, -180, 1E-15,360);
-                this.getGridElements().add(new GridElement(sector, text, GridElement.TYPE_LATITUDE_LABEL));
+                gridElements.add(new GridElement(sector, text, GridElement.TYPE_LATITUDE_LABEL));
             }
 
             // Increase latitude
@@ -51,8 +51,6 @@ class UTMGraticuleTile extends AbstractGraticuleTile {
         for (UTMSquareZone sz : this.squares)
             if (sz.isInView(rc))
                 sz.selectRenderables(rc);
-            else
-                sz.clearRenderables();
     }
 
     @Override
@@ -86,29 +84,27 @@ class UTMGraticuleTile extends AbstractGraticuleTile {
     }
 
     @Override
-    void createRenderables() {
-        super.createRenderables();
-
+    void createRenderables(GridElementFactory factory, List<GridElement> gridElements) {
         List<Position> positions = new ArrayList<>();
 
         // Generate west meridian
         positions.clear();
         positions.add(Position.fromDegrees(this.getSector().minLatitude(), this.getSector().minLongitude(), 0));
         positions.add(Position.fromDegrees(this.getSector().maxLatitude(), this.getSector().minLongitude(), 0));
-        Renderable polyline = getLayer().createLineRenderable(new ArrayList<>(positions), WorldWind.LINEAR);
+        Renderable polyline = factory.createLineRenderable(new ArrayList<>(positions), WorldWind.LINEAR);
         Sector lineSector = Sector.fromDegrees(this.getSector().minLatitude(), this.getSector().minLongitude(),
                 this.getSector().deltaLatitude(), 1E-15);
-        this.getGridElements().add(new GridElement(lineSector, polyline, GridElement.TYPE_LINE, this.getSector().minLongitude()));
+        gridElements.add(new GridElement(lineSector, polyline, GridElement.TYPE_LINE, this.getSector().minLongitude()));
 
         // Generate south parallel at south pole and equator
         if (this.getSector().minLatitude() == UTMGraticuleLayer.UTM_MIN_LATITUDE || this.getSector().minLatitude() == 0) {
             positions.clear();
             positions.add(Position.fromDegrees(this.getSector().minLatitude(), this.getSector().minLongitude(), 0));
             positions.add(Position.fromDegrees(this.getSector().minLatitude(), this.getSector().maxLongitude(), 0));
-            polyline = getLayer().createLineRenderable(new ArrayList<>(positions), WorldWind.LINEAR);
+            polyline = factory.createLineRenderable(new ArrayList<>(positions), WorldWind.LINEAR);
             lineSector = Sector.fromDegrees(this.getSector().minLatitude(), this.getSector().minLongitude(),
                     1E-15, this.getSector().deltaLongitude());
-            this.getGridElements().add(new GridElement(lineSector, polyline, GridElement.TYPE_LINE, this.getSector().minLatitude()));
+            gridElements.add(new GridElement(lineSector, polyline, GridElement.TYPE_LINE, this.getSector().minLatitude()));
         }
 
         // Generate north parallel at north pole
@@ -116,16 +112,16 @@ class UTMGraticuleTile extends AbstractGraticuleTile {
             positions.clear();
             positions.add(Position.fromDegrees(this.getSector().maxLatitude(), this.getSector().minLongitude(), 0));
             positions.add(Position.fromDegrees(this.getSector().maxLatitude(), this.getSector().maxLongitude(), 0));
-            polyline = getLayer().createLineRenderable(new ArrayList<>(positions), WorldWind.LINEAR);
+            polyline = factory.createLineRenderable(new ArrayList<>(positions), WorldWind.LINEAR);
             lineSector = Sector.fromDegrees(this.getSector().maxLatitude(), this.getSector().minLongitude(),
                     1E-15, this.getSector().deltaLongitude());
-            this.getGridElements().add(new GridElement(lineSector, polyline, GridElement.TYPE_LINE, this.getSector().maxLatitude()));
+            gridElements.add(new GridElement(lineSector, polyline, GridElement.TYPE_LINE, this.getSector().maxLatitude()));
         }
 
         // Add label
         if (this.hasLabel()) {
-            Renderable text = this.getLayer().createTextRenderable(Position.fromDegrees(this.getSector().centroidLatitude(), this.getSector().centroidLongitude(), 0), String.valueOf(this.zone) + this.hemisphere, 10e6);
-            this.getGridElements().add(new GridElement(this.getSector(), text, GridElement.TYPE_GRIDZONE_LABEL));
+            Renderable text = factory.createTextRenderable(Position.fromDegrees(this.getSector().centroidLatitude(), this.getSector().centroidLongitude(), 0), String.valueOf(this.zone) + this.hemisphere, 10e6);
+            gridElements.add(new GridElement(this.getSector(), text, GridElement.TYPE_GRIDZONE_LABEL));
         }
     }
 
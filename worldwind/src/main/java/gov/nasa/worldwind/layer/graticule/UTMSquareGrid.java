@@ -51,8 +51,6 @@ class UTMSquareGrid extends UTMSquareSector {
         for (UTMSquareGrid sg : this.subGrids) {
             if (sg.isInView(rc))
                 sg.selectRenderables(rc);
-            else
-                sg.clearRenderables();
         }
     }
 
@@ -83,8 +81,7 @@ class UTMSquareGrid extends UTMSquareSector {
     }
 
     @Override
-    void createRenderables() {
-        super.createRenderables();
+    void createRenderables(GridElementFactory factory, List<GridElement> gridElements) {
         double gridStep = this.size / 10;
         Position p1, p2;
         List<Position> positions = new ArrayList<>();
@@ -93,10 +90,10 @@ class UTMSquareGrid extends UTMSquareSector {
         for (int i = 1; i <= 9; i++) {
             double easting = this.SWEasting + gridStep * i;
             positions.clear();
-            p1 = getLayer().computePosition(this.UTMZone, this.hemisphere, easting, SWNorthing);
-            p2 = getLayer().computePosition(this.UTMZone, this.hemisphere, easting, SWNorthing + this.size);
+            p1 = AbstractUTMGraticuleLayer.computePosition(this.UTMZone, this.hemisphere, easting, SWNorthing);
+            p2 = AbstractUTMGraticuleLayer.computePosition(this.UTMZone, this.hemisphere, easting, SWNorthing + this.size);
             if (this.isTruncated) {
-                getLayer().computeTruncatedSegment(p1, p2, this.UTMZoneSector, positions);
+                factory.computeTruncatedSegment(p1, p2, this.UTMZoneSector, positions);
             } else {
                 positions.add(p1);
                 positions.add(p2);
@@ -104,19 +101,19 @@ class UTMSquareGrid extends UTMSquareSector {
             if (positions.size() > 0) {
                 p1 = positions.get(0);
                 p2 = positions.get(1);
-                Renderable polyline = getLayer().createLineRenderable(new ArrayList<>(positions), WorldWind.GREAT_CIRCLE);
+                Renderable polyline = factory.createLineRenderable(new ArrayList<>(positions), WorldWind.GREAT_CIRCLE);
                 Sector lineSector = boundingSector(p1, p2);
-                this.getGridElements().add(new GridElement(lineSector, polyline, GridElement.TYPE_LINE_EASTING, easting));
+                gridElements.add(new GridElement(lineSector, polyline, GridElement.TYPE_LINE_EASTING, easting));
             }
         }
         // West-East lines
         for (int i = 1; i <= 9; i++) {
             double northing = this.SWNorthing + gridStep * i;
             positions.clear();
-            p1 = getLayer().computePosition(this.UTMZone, this.hemisphere, SWEasting, northing);
-            p2 = getLayer().computePosition(this.UTMZone, this.hemisphere, SWEasting + this.size, northing);
+            p1 = AbstractUTMGraticuleLayer.computePosition(this.UTMZone, this.hemisphere, SWEasting, northing);
+            p2 = AbstractUTMGraticuleLayer.computePosition(this.UTMZone, this.hemisphere, SWEasting + this.size, northing);
             if (this.isTruncated) {
-                getLayer().computeTruncatedSegment(p1, p2, this.UTMZoneSector, positions);
+                factory.computeTruncatedSegment(p1, p2, this.UTMZoneSector, positions);
             } else {
                 positions.add(p1);
                 positions.add(p2);
@@ -124,9 +121,9 @@ class UTMSquareGrid extends UTMSquareSector {
             if (positions.size() > 0) {
                 p1 = positions.get(0);
                 p2 = positions.get(1);
-                Renderable polyline = getLayer().createLineRenderable(new ArrayList<>(positions), WorldWind.GREAT_CIRCLE);
+                Renderable polyline = factory.createLineRenderable(new ArrayList<>(positions), WorldWind.GREAT_CIRCLE);
                 Sector lineSector = boundingSector(p1, p2);
-                this.getGridElements().add(new GridElement(lineSector, polyline, GridElement.TYPE_LINE_NORTHING, northing));
+                gridElements.add(new GridElement(lineSector, polyline, GridElement.TYPE_LINE_NORTHING, northing));
             }
         }
     }
@@ -70,8 +70,6 @@ class UTMSquareZone extends UTMSquareSector {
 
         if (this.squareGrid.isInView(rc))
             this.squareGrid.selectRenderables(rc);
-        else
-            this.squareGrid.clearRenderables();
     }
 
     private boolean isNorthNeighborInView(RenderContext rc) {
@@ -92,9 +90,7 @@ class UTMSquareZone extends UTMSquareSector {
     }
 
     @Override
-    void createRenderables() {
-        super.createRenderables();
-
+    void createRenderables(GridElementFactory factory, List<GridElement> gridElements) {
         List<Position> positions = new ArrayList<>();
         Position p1, p2;
         Renderable polyline;
@@ -103,7 +99,7 @@ class UTMSquareZone extends UTMSquareSector {
         // left segment
         positions.clear();
         if (this.isTruncated) {
-            getLayer().computeTruncatedSegment(sw, nw, this.UTMZoneSector, positions);
+            factory.computeTruncatedSegment(sw, nw, this.UTMZoneSector, positions);
         } else {
             positions.add(sw);
             positions.add(nw);
@@ -111,15 +107,15 @@ class UTMSquareZone extends UTMSquareSector {
         if (positions.size() > 0) {
             p1 = positions.get(0);
             p2 = positions.get(1);
-            polyline = getLayer().createLineRenderable(new ArrayList<>(positions), WorldWind.GREAT_CIRCLE);
+            polyline = factory.createLineRenderable(new ArrayList<>(positions), WorldWind.GREAT_CIRCLE);
             lineSector = boundingSector(p1, p2);
-            this.getGridElements().add(new GridElement(lineSector, polyline, GridElement.TYPE_LINE_WEST, this.SWEasting));
+            gridElements.add(new GridElement(lineSector, polyline, GridElement.TYPE_LINE_WEST, this.SWEasting));
         }
 
         // right segment
         positions.clear();
         if (this.isTruncated) {
-            getLayer().computeTruncatedSegment(se, ne, this.UTMZoneSector, positions);
+            factory.computeTruncatedSegment(se, ne, this.UTMZoneSector, positions);
         } else {
             positions.add(se);
             positions.add(ne);
@@ -127,15 +123,15 @@ class UTMSquareZone extends UTMSquareSector {
         if (positions.size() > 0) {
             p1 = positions.get(0);
             p2 = positions.get(1);
-            polyline = getLayer().createLineRenderable(new ArrayList<>(positions), WorldWind.GREAT_CIRCLE);
+            polyline = factory.createLineRenderable(new ArrayList<>(positions), WorldWind.GREAT_CIRCLE);
             lineSector = boundingSector(p1, p2);
-            this.getGridElements().add(new GridElement(lineSector, polyline, GridElement.TYPE_LINE_EAST, this.SWEasting + this.size));
+            gridElements.add(new GridElement(lineSector, polyline, GridElement.TYPE_LINE_EAST, this.SWEasting + this.size));
         }
 
         // bottom segment
         positions.clear();
         if (this.isTruncated) {
-            getLayer().computeTruncatedSegment(sw, se, this.UTMZoneSector, positions);
+            factory.computeTruncatedSegment(sw, se, this.UTMZoneSector, positions);
         } else {
             positions.add(sw);
             positions.add(se);
@@ -143,15 +139,15 @@ class UTMSquareZone extends UTMSquareSector {
         if (positions.size() > 0) {
             p1 = positions.get(0);
             p2 = positions.get(1);
-            polyline = getLayer().createLineRenderable(new ArrayList<>(positions), WorldWind.GREAT_CIRCLE);
+            polyline = factory.createLineRenderable(new ArrayList<>(positions), WorldWind.GREAT_CIRCLE);
             lineSector = boundingSector(p1, p2);
-            this.getGridElements().add(new GridElement(lineSector, polyline, GridElement.TYPE_LINE_SOUTH, this.SWNorthing));
+            gridElements.add(new GridElement(lineSector, polyline, GridElement.TYPE_LINE_SOUTH, this.SWNorthing));
         }
 
         // top segment
         positions.clear();
         if (this.isTruncated) {
-            getLayer().computeTruncatedSegment(nw, ne, this.UTMZoneSector, positions);
+            factory.computeTruncatedSegment(nw, ne, this.UTMZoneSector, positions);
         } else {
             positions.add(nw);
             positions.add(ne);
@@ -159,9 +155,9 @@ class UTMSquareZone extends UTMSquareSector {
         if (positions.size() > 0) {
             p1 = positions.get(0);
             p2 = positions.get(1);
-            polyline = getLayer().createLineRenderable(new ArrayList<>(positions), WorldWind.GREAT_CIRCLE);
+            polyline = factory.createLineRenderable(new ArrayList<>(positions), WorldWind.GREAT_CIRCLE);
             lineSector = boundingSector(p1, p2);
-            this.getGridElements().add(new GridElement(lineSector, polyline, GridElement.TYPE_LINE_NORTH, this.SWNorthing + this.size));
+            gridElements.add(new GridElement(lineSector, polyline, GridElement.TYPE_LINE_NORTH, this.SWNorthing + this.size));
         }
 
         // Label
@@ -179,8 +175,8 @@ class UTMSquareZone extends UTMSquareSector {
                     labelPos = this.centroid;
                 }
                 if (labelPos != null) {
-                    Renderable text = this.getLayer().createTextRenderable(Position.fromDegrees(labelPos.latitude, labelPos.longitude, 0), this.name, this.size * 10);
-                    this.getGridElements().add(new GridElement(this.boundingSector, text, GridElement.TYPE_GRIDZONE_LABEL));
+                    Renderable text = factory.createTextRenderable(Position.fromDegrees(labelPos.latitude, labelPos.longitude, 0), this.name, this.size * 10);
+                    gridElements.add(new GridElement(this.boundingSector, text, GridElement.TYPE_GRIDZONE_LABEL));
                 }
             }
         }
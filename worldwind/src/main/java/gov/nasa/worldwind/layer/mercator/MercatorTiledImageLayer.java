@@ -6,17 +6,20 @@ import gov.nasa.worldwind.geom.Sector;
 import gov.nasa.worldwind.layer.RenderableLayer;
 import gov.nasa.worldwind.render.ImageOptions;
 import gov.nasa.worldwind.render.ImageSource;
+import gov.nasa.worldwind.render.ImageTile;
 import gov.nasa.worldwind.util.Level;
 import gov.nasa.worldwind.util.LevelSet;
 import gov.nasa.worldwind.util.Tile;
 import gov.nasa.worldwind.util.TileFactory;
 
-public abstract class MercatorTiledImageLayer extends RenderableLayer implements TileFactory {
+public abstract class MercatorTiledImageLayer extends RenderableLayer implements TileFactory, ImageTile.ImageSourceFactory, ImageSource.UrlFactory {
 
     private static final double FULL_SPHERE = 360;
 
     private final int firstLevelOffset;
 
+    private int urlRevision;
+
     public MercatorTiledImageLayer(String name, int numLevels, int firstLevelOffset, int tileSize, boolean overlay) {
         super(name);
         this.setPickEnabled(false);
@@ -36,10 +39,38 @@ public abstract class MercatorTiledImageLayer extends RenderableLayer implements
     @Override
     public Tile createTile(Sector sector, Level level, int row, int column) {
         MercatorImageTile tile = new MercatorImageTile((MercatorSector) sector, level, row, column);
-        tile.setImageSource(ImageSource.fromUrl(getImageSourceUrl(column, (1 << (level.levelNumber + firstLevelOffset)) - 1 - row, level.levelNumber + firstLevelOffset), tile));
+        tile.setImageSourceFactory(this); // defer the image source until the tile's texture is requested
         return tile;
     }
 
+    @Override
+    public ImageSource createImageSource(ImageTile tile) {
+        return ImageSource.fromUrlFactory(this, tile.sector, tile.level, tile.row, tile.column, (MercatorImageTile) tile);
+    }
+
+    @Override
+    public String urlForTile(Sector sector, Level level, int row, int column) {
+        return getImageSourceUrl(column, (1 << (level.levelNumber + firstLevelOffset)) - 1 - row, level.levelNumber + firstLevelOffset);
+    }
+
+    @Override
+    public int getUrlRevision() {
+        return this.urlRevision;
+    }
+
+    /**
+     * Indicates that the URLs returned by {@link #getImageSourceUrl(int, int, int)} have changed. Subclasses call this
+     * when they change state that their tile URLs depend on, so that tiles created afterward are not identified as the
+     * same images as tiles created before.
+     */
+    protected void invalidateUrls() {
+        this.urlRevision++;
+    }
+
+    /**
+     * Returns the URL of the tile at the specified XYZ tile coordinates. Called when the tile's image is retrieved,
+     * which may occur on a non-UI thread.
+     */
     protected abstract String getImageSourceUrl(int x, int y, int z);
 
 }
\ No newline at end of file
@@ -0,0 +1,628 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.ogc;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import gov.nasa.worldwind.util.Logger;
+import gov.nasa.worldwind.util.WWUtil;
+
+/**
+ * Caches OGC capabilities documents keyed by their GetCapabilities request URL. Documents and the capabilities parsed
+ * from them are kept in memory, and when a cache directory is configured the raw documents are kept on disk along with
+ * their HTTP validators.
+ * <p/>
+ * Documents retrieved within the freshness period are used without contacting the server. Older documents are
+ * revalidated with a conditional request using the ETag and Last-Modified values of the cached document; a 304 Not
+ * Modified response reuses the cached document and its parsed capabilities without downloading or parsing the document
+ * again. If the server cannot be reached, a cached document is used in its place. Concurrent retrievals of the same URL
+ * share a single request, regardless of the layers they retrieve.
+ * <p/>
+ * Capabilities may be retrieved for a subset of the document's layers, in which case the parser skips the remaining
+ * layers. Every subset is parsed from the same downloaded document, and the capabilities parsed for each subset are
+ * cached with the document. Complete capabilities, once parsed, satisfy any retrieval of the same URL.
+ * <p/>
+ * The cache keeps a limited number of URLs in memory, discarding the least recently retrieved URL's document and
+ * capabilities when the limit is exceeded. Documents in the cache directory are not limited.
+ * <p/>
+ * CapabilitiesCache is thread safe.
+ *
+ * @param <T> the parsed capabilities type
+ */
+public class CapabilitiesCache<T> {
+
+    /**
+     * Parses a capabilities document.
+     *
+     * @param <T> the parsed capabilities type
+     */
+    public interface Parser<T> {
+
+        /**
+         * Parses a capabilities document, retaining only the specified layers when a collection is provided.
+         *
+         * @param inputStream the capabilities document
+         * @param layerNames  the names or identifiers of the layers to parse, or null to parse all layers
+         *
+         * @return the parsed capabilities
+         */
+        T parse(InputStream inputStream, Collection<String> layerNames) throws Exception;
+    }
+
+    protected static final int DEFAULT_CONNECT_TIMEOUT = 3000;
+
+    protected static final int DEFAULT_READ_TIMEOUT = 30000;
+
+    protected static final long DEFAULT_FRESHNESS_PERIOD = 60000;
+
+    protected static final int DEFAULT_MAX_ENTRIES = 8;
+
+    /**
+     * The maximum number of layer subsets whose capabilities are kept for each URL.
+     */
+    protected static final int MAX_PARTIAL_CAPABILITIES = 16;
+
+    protected final Parser<T> parser;
+
+    protected final LinkedHashMap<String, Entry<T>> entries = new LinkedHashMap<>(16, 0.75f, true /*accessOrder*/);
+
+    protected int maxEntries = DEFAULT_MAX_ENTRIES;
+
+    protected final Map<String, FutureTask<Entry<T>>> pendingRequests = new HashMap<>();
+
+    protected File cacheDirectory;
+
+    protected int connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+
+    protected int readTimeout = DEFAULT_READ_TIMEOUT;
+
+    protected long freshnessPeriod = DEFAULT_FRESHNESS_PERIOD;
+
+    public CapabilitiesCache(Parser<T> parser) {
+        if (parser == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "CapabilitiesCache", "constructor", "missingParser"));
+        }
+
+        this.parser = parser;
+    }
+
+    /**
+     * Returns the directory in which capabilities documents are stored, or null if documents are kept only in memory.
+     */
+    public synchronized File getCacheDirectory() {
+        return this.cacheDirectory;
+    }
+
+    /**
+     * Sets the directory in which capabilities documents are stored, such as the application's cache directory. Null
+     * keeps documents only in memory. The directory is created when the first document is stored.
+     */
+    public synchronized void setCacheDirectory(File directory) {
+        this.cacheDirectory = directory;
+    }
+
+    public synchronized int getConnectTimeout() {
+        return this.connectTimeout;
+    }
+
+    public synchronized void setConnectTimeout(int timeoutMillis) {
+        if (timeoutMillis < 0) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "CapabilitiesCache", "setConnectTimeout", "invalidTimeout"));
+        }
+
+        this.connectTimeout = timeoutMillis;
+    }
+
+    public synchronized int getReadTimeout() {
+        return this.readTimeout;
+    }
+
+    public synchronized void setReadTimeout(int timeoutMillis) {
+        if (timeoutMillis < 0) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "CapabilitiesCache", "setReadTimeout", "invalidTimeout"));
+        }
+
+        this.readTimeout = timeoutMillis;
+    }
+
+    /**
+     * Returns the maximum number of URLs whose documents and capabilities are kept in memory.
+     */
+    public synchronized int getMaxEntries() {
+        return this.maxEntries;
+    }
+
+    /**
+     * Sets the maximum number of URLs whose documents and capabilities are kept in memory. When the limit is exceeded,
+     * the least recently retrieved URL is removed from memory and revalidated against its document in the cache
+     * directory, if any, when next retrieved.
+     */
+    public synchronized void setMaxEntries(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "CapabilitiesCache", "setMaxEntries", "invalidCapacity"));
+        }
+
+        this.maxEntries = maxEntries;
+        this.trimEntries();
+    }
+
+    /**
+     * Returns the period in milliseconds after a retrieval during which capabilities are returned from memory without
+     * being revalidated.
+     */
+    public synchronized long getFreshnessPeriod() {
+        return this.freshnessPeriod;
+    }
+
+    /**
+     * Sets the period in milliseconds after a retrieval during which capabilities are returned from memory without
+     * being revalidated. Zero revalidates capabilities on every retrieval.
+     */
+    public synchronized void setFreshnessPeriod(long periodMillis) {
+        if (periodMillis < 0) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "CapabilitiesCache", "setFreshnessPeriod", "invalidPeriod"));
+        }
+
+        this.freshnessPeriod = periodMillis;
+    }
+
+    /**
+     * Returns the capabilities document at the specified URL, from the cache when the cached document is fresh or
+     * unmodified, and otherwise by downloading and parsing the document. Blocks until the capabilities are available;
+     * callers retrieving the same URL concurrently wait on the same request.
+     *
+     * @param url the GetCapabilities request URL
+     *
+     * @return the parsed capabilities
+     *
+     * @throws Exception if the document cannot be retrieved or parsed, and no cached document is available
+     */
+    public T retrieve(String url) throws Exception {
+        return this.retrieve(url, null /*layerNames*/);
+    }
+
+    /**
+     * Returns the capabilities document at the specified URL, parsing only the specified layers. The returned
+     * capabilities may contain other layers when the complete capabilities have been parsed. Otherwise behaves as
+     * {@link #retrieve(String)}; retrievals of different layers from the same URL share the same document.
+     *
+     * @param url        the GetCapabilities request URL
+     * @param layerNames the names or identifiers of the layers to parse, or null to parse all layers
+     *
+     * @return the parsed capabilities
+     *
+     * @throws Exception if the document cannot be retrieved or parsed, and no cached document is available
+     */
+    public T retrieve(String url, Collection<String> layerNames) throws Exception {
+        if (url == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "CapabilitiesCache", "retrieve", "missingUrl"));
+        }
+
+        Entry<T> entry = this.retrieveEntry(url);
+        try {
+            return this.parse(entry, layerNames);
+        } catch (Exception ex) {
+            File directory;
+            synchronized (this) {
+                if (this.entries.get(url) == entry) {
+                    this.entries.remove(url); // don't reuse a document that can't be parsed
+                }
+                directory = this.cacheDirectory;
+            }
+
+            if (!entry.stored) {
+                throw ex; // the downloaded document is invalid
+            }
+
+            // The document stored in the cache directory is corrupt. Discard it along with its validators so that the
+            // server sends the complete document rather than another 304.
+            Logger.logMessage(Logger.WARN, "CapabilitiesCache", "retrieve",
+                "Unable to parse cached capabilities, downloading document " + url, ex);
+            if (directory != null) {
+                deleteEntry(directory, url);
+            }
+
+            return this.parse(this.fetch(url, false /*conditional*/), layerNames);
+        }
+    }
+
+    /**
+     * Removes the capabilities for the specified URL from memory and from the cache directory, including any
+     * capabilities retrieved for a subset of the document's layers.
+     */
+    public synchronized void remove(String url) {
+        this.entries.remove(url);
+
+        if (this.cacheDirectory != null) {
+            deleteEntry(this.cacheDirectory, url);
+        }
+    }
+
+    /**
+     * Removes all capabilities from memory. Documents in the cache directory are retained and revalidated when next
+     * retrieved.
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+    }
+
+    /**
+     * Returns a fresh entry for the specified URL, from memory when the cached entry is fresh and otherwise by
+     * revalidating or downloading the document. Concurrent callers for the same URL share a single request.
+     */
+    protected Entry<T> retrieveEntry(final String url) throws Exception {
+        FutureTask<Entry<T>> request;
+        boolean pending;
+        synchronized (this) {
+            Entry<T> entry = this.entries.get(url);
+            if (entry != null && System.currentTimeMillis() - entry.validatedTime < this.freshnessPeriod) {
+                return entry; // the cached document is fresh
+            }
+
+            request = this.pendingRequests.get(url);
+            pending = request != null;
+            if (!pending) {
+                request = new FutureTask<>(new Callable<Entry<T>>() {
+                    @Override
+                    public Entry<T> call() throws Exception {
+                        return fetch(url, true /*conditional*/);
+                    }
+                });
+                this.pendingRequests.put(url, request);
+            }
+        }
+
+        if (!pending) {
+            try {
+                request.run(); // perform the request on the calling thread
+            } finally {
+                synchronized (this) {
+                    this.pendingRequests.remove(url);
+                }
+            }
+        }
+
+        try {
+            return request.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Returns the capabilities for the specified layers parsed from an entry's document, parsing the document when the
+     * entry has no capabilities for those layers. The complete capabilities satisfy any layers.
+     */
+    protected T parse(Entry<T> entry, Collection<String> layerNames) throws Exception {
+        String layersKey = (layerNames != null) ? layersKey(layerNames) : null;
+        synchronized (entry) {
+            if (entry.capabilities != null) {
+                return entry.capabilities; // the complete capabilities contain any requested layers
+            } else if (layersKey != null && entry.partialCapabilities.containsKey(layersKey)) {
+                return entry.partialCapabilities.get(layersKey);
+            }
+        }
+
+        // Parse outside of the lock so that retrievals of other layers are not blocked by this one.
+        T capabilities = this.parser.parse(new ByteArrayInputStream(entry.document), layerNames);
+
+        synchronized (entry) {
+            if (layersKey == null) {
+                entry.capabilities = capabilities;
+                entry.partialCapabilities.clear(); // superseded by the complete capabilities
+            } else if (entry.capabilities != null) {
+                return entry.capabilities; // another retrieval parsed the complete capabilities in the meantime
+            } else if (entry.partialCapabilities.containsKey(layersKey)) {
+                return entry.partialCapabilities.get(layersKey); // another retrieval parsed the same layers
+            } else {
+                entry.partialCapabilities.put(layersKey, capabilities);
+            }
+        }
+
+        return capabilities;
+    }
+
+    /**
+     * Downloads the capabilities document at the specified URL. A conditional fetch revalidates the cached document,
+     * if any, and falls back to it when the server cannot be reached. An unconditional fetch ignores the cached
+     * document.
+     */
+    protected Entry<T> fetch(String url, boolean conditional) throws Exception {
+        Entry<T> cached;
+        File directory;
+        int connectTimeout, readTimeout;
+        synchronized (this) {
+            cached = conditional ? this.entries.get(url) : null;
+            directory = this.cacheDirectory;
+            connectTimeout = this.connectTimeout;
+            readTimeout = this.readTimeout;
+        }
+
+        if (conditional && cached == null && directory != null) {
+            cached = this.readEntry(directory, url); // capabilities document retained from a previous session
+        }
+
+        InputStream inputStream = null;
+        boolean useCached = false;
+        Entry<T> entry = new Entry<>();
+        try {
+            URLConnection conn = new URL(url).openConnection();
+            conn.setConnectTimeout(connectTimeout);
+            conn.setReadTimeout(readTimeout);
+            if (cached != null && cached.etag != null) {
+                conn.setRequestProperty("If-None-Match", cached.etag);
+            }
+            if (cached != null && cached.lastModified != null) {
+                conn.setRequestProperty("If-Modified-Since", cached.lastModified);
+            }
+
+            if (conn instanceof HttpURLConnection) {
+                int responseCode = ((HttpURLConnection) conn).getResponseCode();
+                if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+                    useCached = true;
+                } else if (responseCode != HttpURLConnection.HTTP_OK) {
+                    throw new IOException("HTTP " + responseCode);
+                }
+            }
+
+            if (!useCached) {
+                inputStream = new BufferedInputStream(conn.getInputStream());
+                entry.document = readFully(inputStream);
+                entry.etag = conn.getHeaderField("ETag");
+                entry.lastModified = conn.getHeaderField("Last-Modified");
+            }
+        } catch (IOException ex) {
+            if (cached == null) {
+                throw ex;
+            }
+
+            Logger.logMessage(Logger.WARN, "CapabilitiesCache", "fetch",
+                "Unable to revalidate capabilities, using cached document " + url, ex);
+            useCached = true;
+        } finally {
+            WWUtil.closeSilently(inputStream);
+        }
+
+        if (useCached) {
+            return this.revalidated(url, cached, directory);
+        }
+
+        entry.validatedTime = System.currentTimeMillis();
+
+        if (directory != null) {
+            this.writeEntry(directory, url, entry, entry.document);
+        }
+
+        synchronized (this) {
+            this.entries.put(url, entry);
+            this.trimEntries();
+        }
+
+        return entry;
+    }
+
+    protected Entry<T> revalidated(String url, Entry<T> cached, File directory) throws Exception {
+        if (cached.document == null) {
+            InputStream inputStream = null;
+            try {
+                inputStream = new FileInputStream(new File(directory, fileName(url) + ".xml"));
+                cached.document = readFully(inputStream);
+                cached.stored = true;
+            } catch (IOException ex) {
+                Logger.logMessage(Logger.WARN, "CapabilitiesCache", "revalidated",
+                    "Unable to read cached capabilities, downloading document " + url, ex);
+            } finally {
+                WWUtil.closeSilently(inputStream);
+            }
+
+            if (cached.document == null) {
+                // The stored document is unreadable. Discard it along with its validators so that the server sends the
+                // complete document rather than another 304.
+                deleteEntry(directory, url);
+                return this.fetch(url, false /*conditional*/);
+            }
+        }
+
+        cached.validatedTime = System.currentTimeMillis();
+
+        synchronized (this) {
+            this.entries.put(url, cached);
+            this.trimEntries();
+        }
+
+        return cached;
+    }
+
+    /**
+     * Removes the least recently retrieved entries until the number of entries is within the maximum. Must be called
+     * while synchronized on this cache.
+     */
+    protected void trimEntries() {
+        Iterator<String> iterator = this.entries.keySet().iterator(); // ordered from least to most recently retrieved
+        while (this.entries.size() > this.maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    protected Entry<T> readEntry(File directory, String url) {
+        String fileName = fileName(url);
+        File documentFile = new File(directory, fileName + ".xml");
+        File propertiesFile = new File(directory, fileName + ".properties");
+        if (!documentFile.isFile() || !propertiesFile.isFile()) {
+            return null;
+        }
+
+        InputStream inputStream = null;
+        try {
+            inputStream = new FileInputStream(propertiesFile);
+            Properties properties = new Properties();
+            properties.load(inputStream);
+            if (!url.equals(properties.getProperty("url"))) {
+                return null; // a different URL with the same file name
+            }
+
+            Entry<T> entry = new Entry<>();
+            entry.etag = properties.getProperty("etag");
+            entry.lastModified = properties.getProperty("lastModified");
+            return entry;
+        } catch (IOException ex) {
+            Logger.logMessage(Logger.WARN, "CapabilitiesCache", "readEntry",
+                "Unable to read cached capabilities " + propertiesFile, ex);
+            return null;
+        } finally {
+            WWUtil.closeSilently(inputStream);
+        }
+    }
+
+    protected void writeEntry(File directory, String url, Entry<T> entry, byte[] document) {
+        String fileName = fileName(url);
+        File documentFile = new File(directory, fileName + ".xml");
+        File propertiesFile = new File(directory, fileName + ".properties");
+
+        OutputStream outputStream = null;
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Unable to create directory " + directory);
+            }
+
+            outputStream = new FileOutputStream(documentFile);
+            outputStream.write(document);
+            outputStream.close();
+
+            Properties properties = new Properties();
+            properties.setProperty("url", url);
+            if (entry.etag != null) {
+                properties.setProperty("etag", entry.etag);
+            }
+            if (entry.lastModified != null) {
+                properties.setProperty("lastModified", entry.lastModified);
+            }
+
+            outputStream = new FileOutputStream(propertiesFile);
+            properties.store(outputStream, null /*comments*/);
+        } catch (IOException ex) {
+            Logger.logMessage(Logger.WARN, "CapabilitiesCache", "writeEntry",
+                "Unable to write cached capabilities " + documentFile, ex);
+            propertiesFile.delete(); // don't revalidate against an incomplete document
+        } finally {
+            WWUtil.closeSilently(outputStream);
+        }
+    }
+
+    protected static void deleteEntry(File directory, String url) {
+        String fileName = fileName(url);
+        new File(directory, fileName + ".xml").delete();
+        new File(directory, fileName + ".properties").delete();
+    }
+
+    /**
+     * Returns the key identifying the capabilities parsed for the specified layers. The same layers in any order share
+     * a key.
+     */
+    protected static String layersKey(Collection<String> layerNames) {
+        StringBuilder sb = new StringBuilder();
+        for (String layerName : new TreeSet<>(layerNames)) {
+            sb.append(layerName).append('\n');
+        }
+
+        return sb.toString();
+    }
+
+    protected static String fileName(String url) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(url.getBytes("UTF-8"));
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (Exception ex) {
+            return Integer.toHexString(url.hashCode()); // SHA-1 and UTF-8 are always available; this should never happen
+        }
+    }
+
+    protected static byte[] readFully(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int length;
+        while ((length = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, length);
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    protected static class Entry<T> {
+
+        /**
+         * The capabilities document. Null for an entry read from the cache directory until the document is revalidated.
+         */
+        public byte[] document;
+
+        /**
+         * Indicates whether the document was read from the cache directory rather than downloaded.
+         */
+        public boolean stored;
+
+        /**
+         * The complete capabilities parsed from the document, or null if they have not been parsed.
+         */
+        public T capabilities;
+
+        /**
+         * Capabilities parsed from the document for subsets of its layers, keyed by {@link #layersKey(Collection)}.
+         * Limited to the {@link #MAX_PARTIAL_CAPABILITIES} most recently retrieved subsets.
+         */
+        public final Map<String, T> partialCapabilities = new LinkedHashMap<String, T>(16, 0.75f, true /*accessOrder*/) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, T> eldest) {
+                return this.size() > MAX_PARTIAL_CAPABILITIES;
+            }
+        };
+
+        public String etag;
+
+        public String lastModified;
+
+        public long validatedTime;
+    }
+}
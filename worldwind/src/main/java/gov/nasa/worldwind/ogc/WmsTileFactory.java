@@ -18,7 +18,7 @@ import gov.nasa.worldwind.util.TileFactory;
 /**
  * Factory for constructing URLs associated with WMS Get Map requests.
  */
-public class WmsTileFactory implements TileFactory {
+public class WmsTileFactory implements TileFactory, ImageTile.ImageSourceFactory, ImageSource.UrlFactory {
 
     /**
      * The WMS service address used to build Get Map URLs.
@@ -60,6 +60,29 @@ public class WmsTileFactory implements TileFactory {
      */
     protected String timeString;
 
+    /**
+     * The GetMap URL up to and including the BBOX parameter name, compiled from this factory's properties when the
+     * first URL is constructed. Null when the URL must be compiled again.
+     */
+    protected String urlPrefix;
+
+    /**
+     * The GetMap URL parameters following the WIDTH and HEIGHT parameters.
+     */
+    protected String urlSuffix;
+
+    /**
+     * Indicates whether the compiled BBOX parameter lists latitude before longitude.
+     */
+    protected boolean urlLatitudeFirst;
+
+    /**
+     * Incremented whenever a change to this factory's properties changes the URLs it constructs.
+     */
+    protected int urlRevision;
+
+    protected final StringBuilder urlBuffer = new StringBuilder();
+
     /**
      * Constructs a WMS Get Map URL builder with specified WMS service parameters.
      *
@@ -162,6 +185,8 @@ public class WmsTileFactory implements TileFactory {
         }
 
         this.serviceAddress = serviceAddress;
+        this.urlPrefix = null;
+        this.urlRevision++;
     }
 
     /**
@@ -187,6 +212,8 @@ public class WmsTileFactory implements TileFactory {
         }
 
         this.wmsVersion = wmsVersion;
+        this.urlPrefix = null;
+        this.urlRevision++;
     }
 
     /**
@@ -212,6 +239,8 @@ public class WmsTileFactory implements TileFactory {
         }
 
         this.layerNames = layerNames;
+        this.urlPrefix = null;
+        this.urlRevision++;
     }
 
     /**
@@ -230,6 +259,8 @@ public class WmsTileFactory implements TileFactory {
      */
     public void setStyleNames(String styleNames) {
         this.styleNames = styleNames;
+        this.urlPrefix = null;
+        this.urlRevision++;
     }
 
     /**
@@ -255,6 +286,8 @@ public class WmsTileFactory implements TileFactory {
         }
 
         this.coordinateSystem = coordinateSystem;
+        this.urlPrefix = null;
+        this.urlRevision++;
     }
 
     /**
@@ -273,6 +306,8 @@ public class WmsTileFactory implements TileFactory {
      */
     public void setImageFormat(String imageFormat) {
         this.imageFormat = imageFormat;
+        this.urlPrefix = null;
+        this.urlRevision++;
     }
 
     /**
@@ -291,6 +326,8 @@ public class WmsTileFactory implements TileFactory {
      */
     public void setTransparent(boolean transparent) {
         this.transparent = transparent;
+        this.urlPrefix = null;
+        this.urlRevision++;
     }
 
     /**
@@ -309,6 +346,8 @@ public class WmsTileFactory implements TileFactory {
      */
     public void setTimeString(String timeString) {
         this.timeString = timeString;
+        this.urlPrefix = null;
+        this.urlRevision++;
     }
 
     @Override
@@ -324,13 +363,21 @@ public class WmsTileFactory implements TileFactory {
         }
 
         ImageTile tile = new ImageTile(sector, level, row, column);
-
-        String urlString = this.urlForTile(sector, level.tileWidth, level.tileHeight);
-        tile.setImageSource(ImageSource.fromUrl(urlString));
+        tile.setImageSourceFactory(this); // defer the image source until the tile's texture is requested
 
         return tile;
     }
 
+    @Override
+    public ImageSource createImageSource(ImageTile tile) {
+        return ImageSource.fromUrlFactory(this, tile.sector, tile.level, tile.row, tile.column);
+    }
+
+    @Override
+    public int getUrlRevision() {
+        return this.urlRevision;
+    }
+
     public String urlForTile(Sector sector, int width, int height) {
         if (sector == null) {
             throw new IllegalArgumentException(
@@ -342,6 +389,38 @@ public class WmsTileFactory implements TileFactory {
                 Logger.logMessage(Logger.ERROR, "WmsTileFactory", "urlForTile", "invalidWidthOrHeight"));
         }
 
+        synchronized (this.urlBuffer) {
+            String prefix = this.urlPrefix; // setters may discard the compiled URL concurrently
+            if (prefix == null) {
+                prefix = this.compileUrl();
+            }
+
+            StringBuilder url = this.urlBuffer;
+            url.setLength(0);
+            url.append(prefix);
+
+            if (this.urlLatitudeFirst) {
+                url.append(sector.minLatitude()).append(',').append(sector.minLongitude()).append(',');
+                url.append(sector.maxLatitude()).append(',').append(sector.maxLongitude());
+            } else {
+                url.append(sector.minLongitude()).append(',').append(sector.minLatitude()).append(',');
+                url.append(sector.maxLongitude()).append(',').append(sector.maxLatitude());
+            }
+
+            url.append("&WIDTH=").append(width);
+            url.append("&HEIGHT=").append(height);
+            url.append(this.urlSuffix);
+
+            return url.toString();
+        }
+    }
+
+    @Override
+    public String urlForTile(Sector sector, Level level, int row, int column) {
+        return this.urlForTile(sector, level.tileWidth, level.tileHeight);
+    }
+
+    protected String compileUrl() {
         StringBuilder url = new StringBuilder(this.serviceAddress);
 
         int index = url.indexOf("?");
@@ -366,30 +445,24 @@ public class WmsTileFactory implements TileFactory {
 
         if (this.wmsVersion.equals("1.3.0")) {
             url.append("&CRS=").append(this.coordinateSystem);
-            url.append("&BBOX=");
-            if (this.coordinateSystem.equals("CRS:84")) {
-                url.append(sector.minLongitude()).append(",").append(sector.minLatitude()).append(",");
-                url.append(sector.maxLongitude()).append(",").append(sector.maxLatitude());
-            } else {
-                url.append(sector.minLatitude()).append(",").append(sector.minLongitude()).append(",");
-                url.append(sector.maxLatitude()).append(",").append(sector.maxLongitude());
-            }
+            this.urlLatitudeFirst = !this.coordinateSystem.equals("CRS:84");
         } else {
             url.append("&SRS=").append(this.coordinateSystem);
-            url.append("&BBOX=");
-            url.append(sector.minLongitude()).append(",").append(sector.minLatitude()).append(",");
-            url.append(sector.maxLongitude()).append(",").append(sector.maxLatitude());
+            this.urlLatitudeFirst = false;
         }
+        url.append("&BBOX=");
+        String prefix = url.toString();
 
-        url.append("&WIDTH=").append(width);
-        url.append("&HEIGHT=").append(height);
+        url.setLength(0);
         url.append("&FORMAT=").append(this.imageFormat != null ? this.imageFormat : "image/png");
         url.append("&TRANSPARENT=").append(this.transparent ? "TRUE" : "FALSE");
 
         if (this.timeString != null) {
             url.append("&TIME=").append(this.timeString);
         }
+        this.urlSuffix = url.toString();
+        this.urlPrefix = prefix;
 
-        return url.toString();
+        return prefix;
     }
 }
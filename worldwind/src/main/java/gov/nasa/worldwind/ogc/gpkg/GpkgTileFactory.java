@@ -15,7 +15,7 @@ import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.Tile;
 import gov.nasa.worldwind.util.TileFactory;
 
-public class GpkgTileFactory implements TileFactory {
+public class GpkgTileFactory implements TileFactory, ImageTile.ImageSourceFactory {
 
     protected GpkgContent tiles;
 
@@ -41,6 +41,16 @@ public class GpkgTileFactory implements TileFactory {
         }
 
         ImageTile tile = new ImageTile(sector, level, row, column);
+        tile.setImageSourceFactory(this); // defer the tile matrix lookup until the tile's texture is requested
+
+        return tile;
+    }
+
+    @Override
+    public ImageSource createImageSource(ImageTile tile) {
+        Level level = tile.level;
+        int row = tile.row;
+        int column = tile.column;
 
         GeoPackage geoPackage = this.tiles.getContainer();
         String tableName = this.tiles.getTableName();
@@ -56,12 +66,12 @@ public class GpkgTileFactory implements TileFactory {
             // Convert the WorldWind tile row to the equivalent GeoPackage tile row.
             int gpkgRow = level.levelHeight / level.tileHeight - row - 1;
             if (column < tileMatrix.getMatrixWidth() && gpkgRow < tileMatrix.getMatrixHeight()) {
-                // Configure the tile with a bitmap factory that reads directly from the GeoPackage.
+                // Create an image source with a bitmap factory that reads directly from the GeoPackage.
                 ImageSource.BitmapFactory bitmapFactory = new GpkgBitmapFactory(this.tiles, zoomLevel, column, gpkgRow);
-                tile.setImageSource(ImageSource.fromBitmapFactory(bitmapFactory));
+                return ImageSource.fromBitmapFactory(bitmapFactory);
             }
         }
 
-        return tile;
+        return null;
     }
 }
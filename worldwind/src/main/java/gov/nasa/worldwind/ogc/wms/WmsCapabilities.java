@@ -11,11 +11,11 @@ import org.xmlpull.v1.XmlPullParser;
 
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.xml.XmlModel;
-import gov.nasa.worldwind.util.xml.XmlModelParser;
 
 public class WmsCapabilities extends XmlModel {
 
@@ -31,11 +31,25 @@ public class WmsCapabilities extends XmlModel {
     }
 
     public static WmsCapabilities getCapabilities(InputStream inputStream) throws Exception {
+        return getCapabilities(inputStream, null /*layerNames*/);
+    }
+
+    /**
+     * Parses a capabilities document, retaining only the layers with the specified names. The document's other layers
+     * are skipped as they are encountered rather than parsed into models. A null collection parses all layers.
+     *
+     * @param inputStream the capabilities document
+     * @param layerNames  the names of the layers to parse, or null to parse all layers
+     *
+     * @return the parsed capabilities
+     */
+    public static WmsCapabilities getCapabilities(InputStream inputStream, Collection<String> layerNames) throws Exception {
         XmlPullParser pullParser = Xml.newPullParser();
         pullParser.setInput(inputStream, null /*inputEncoding*/);
 
-        XmlModelParser modelParser = new WmsXmlParser();
+        WmsXmlParser modelParser = new WmsXmlParser();
         modelParser.setPullParser(pullParser);
+        modelParser.setRequestedLayers(layerNames);
 
         Object result = modelParser.parse();
         if (!(result instanceof WmsCapabilities)) {
@@ -5,15 +5,59 @@
 
 package gov.nasa.worldwind.ogc.wms;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import gov.nasa.worldwind.util.xml.XmlModel;
 import gov.nasa.worldwind.util.xml.XmlModelParser;
 
 public class WmsXmlParser extends XmlModelParser {
 
+    protected Set<String> requestedLayers;
+
+    protected Set<String> foundLayers = new HashSet<>();
+
     public WmsXmlParser() {
         this.registerNamespace(""); // WMS 1.1.1 namespace
         this.registerNamespace("http://www.opengis.net/wms"); // WMS 1.3.0 namespace
     }
 
+    /**
+     * Limits the layers parsed to those with the specified names. Unnamed and unrequested layers are discarded unless
+     * they contain a requested layer, and the document's remaining layers are skipped once every requested layer has
+     * been found. Ancestors of the requested layers are retained so that inherited properties remain available. A null
+     * collection parses all layers.
+     *
+     * @param layerNames the names of the layers to parse, or null to parse all layers
+     */
+    public void setRequestedLayers(Collection<String> layerNames) {
+        this.requestedLayers = (layerNames != null) ? new HashSet<>(layerNames) : null;
+        this.foundLayers.clear();
+    }
+
+    @Override
+    protected boolean isSkippedElement(String namespace, String name, XmlModel parent) {
+        return this.requestedLayers != null && name == "Layer" // element names are interned
+            && this.foundLayers.size() == this.requestedLayers.size();
+    }
+
+    @Override
+    protected boolean isDiscardedModel(XmlModel model, boolean complete) {
+        if (this.requestedLayers == null || !complete || !(model instanceof WmsLayer)) {
+            return false;
+        }
+
+        WmsLayer layer = (WmsLayer) model;
+        String layerName = layer.getName();
+        if (layerName != null && this.requestedLayers.contains(layerName)) {
+            this.foundLayers.add(layerName);
+            return false;
+        }
+
+        return layer.getLayers().isEmpty(); // retain the layer when it contains a requested layer
+    }
+
     protected void registerNamespace(String namespace) {
         this.registerTxtModel(namespace, "Abstract");
         this.registerTxtModel(namespace, "AccessConstraints");
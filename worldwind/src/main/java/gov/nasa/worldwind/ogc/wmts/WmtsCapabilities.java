@@ -11,11 +11,11 @@ import org.xmlpull.v1.XmlPullParser;
 
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.xml.XmlModel;
-import gov.nasa.worldwind.util.xml.XmlModelParser;
 
 public class WmtsCapabilities extends XmlModel {
 
@@ -36,11 +36,25 @@ public class WmtsCapabilities extends XmlModel {
     protected List<WmtsElementLink> serviceMetadataUrls = new ArrayList<>();
 
     public static WmtsCapabilities getCapabilities(InputStream inputStream) throws Exception {
+        return getCapabilities(inputStream, null /*layerIdentifiers*/);
+    }
+
+    /**
+     * Parses a capabilities document, retaining only the layers with the specified identifiers. The document's other layers
+     * are skipped as they are encountered rather than parsed into models. A null collection parses all layers.
+     *
+     * @param inputStream the capabilities document
+     * @param layerIdentifiers  the identifiers of the layers to parse, or null to parse all layers
+     *
+     * @return the parsed capabilities
+     */
+    public static WmtsCapabilities getCapabilities(InputStream inputStream, Collection<String> layerIdentifiers) throws Exception {
         XmlPullParser pullParser = Xml.newPullParser();
         pullParser.setInput(inputStream, null /*inputEncoding*/);
 
-        XmlModelParser modelParser = new WmtsXmlParser();
+        WmtsXmlParser modelParser = new WmtsXmlParser();
         modelParser.setPullParser(pullParser);
+        modelParser.setRequestedLayers(layerIdentifiers);
 
         Object result = modelParser.parse();
         if (!(result instanceof WmtsCapabilities)) {
@@ -5,17 +5,20 @@
 
 package gov.nasa.worldwind.ogc.wmts;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import gov.nasa.worldwind.geom.Sector;
 import gov.nasa.worldwind.render.ImageSource;
 import gov.nasa.worldwind.render.ImageTile;
+import gov.nasa.worldwind.util.IntArray;
 import gov.nasa.worldwind.util.Level;
 import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.Tile;
 import gov.nasa.worldwind.util.TileFactory;
 
-public class WmtsTileFactory implements TileFactory {
+public class WmtsTileFactory implements TileFactory, ImageTile.ImageSourceFactory, ImageSource.UrlFactory {
 
     public static String TILEMATRIX_TEMPLATE = "{TileMatrix}";
 
@@ -23,10 +26,36 @@ public class WmtsTileFactory implements TileFactory {
 
     public static String TILECOL_TEMPLATE = "{TileCol}";
 
+    protected static final int TILEMATRIX = 1;
+
+    protected static final int TILEROW = 2;
+
+    protected static final int TILECOL = 3;
+
     protected String template;
 
     protected List<String> tileMatrixIdentifiers;
 
+    /**
+     * The template's literal text, split at each placeholder. Compiled when the first URL is constructed, and null when
+     * the template must be compiled again.
+     */
+    protected String[] templateLiterals;
+
+    /**
+     * The placeholder following each literal in templateLiterals: one of TILEMATRIX, TILEROW or TILECOL, or zero
+     * following the last literal.
+     */
+    protected int[] templatePlaceholders;
+
+    /**
+     * Incremented whenever a change to the template or tile matrix identifiers changes the URLs this factory
+     * constructs.
+     */
+    protected int urlRevision;
+
+    protected final StringBuilder urlBuffer = new StringBuilder();
+
     public WmtsTileFactory() {
 
     }
@@ -39,15 +68,21 @@ public class WmtsTileFactory implements TileFactory {
     @Override
     public Tile createTile(Sector sector, Level level, int row, int column) {
         ImageTile tile = new ImageTile(sector, level, row, column);
-
-        String urlString = this.urlForTile(level.levelNumber, row, column);
-        if (urlString != null) {
-            tile.setImageSource(ImageSource.fromUrl(urlString));
-        }
+        tile.setImageSourceFactory(this); // defer the image source until the tile's texture is requested
 
         return tile;
     }
 
+    @Override
+    public ImageSource createImageSource(ImageTile tile) {
+        if (this.template != null && this.tileMatrixIdentifiers != null
+            && tile.level.levelNumber < this.tileMatrixIdentifiers.size()) {
+            return ImageSource.fromUrlFactory(this, tile.sector, tile.level, tile.row, tile.column);
+        } else {
+            return null;
+        }
+    }
+
     public String urlForTile(int level, int row, int column) {
         if (this.template == null || this.tileMatrixIdentifiers == null) {
             Logger.logMessage(Logger.WARN, "WmtsTileFactory", "urlForTile", "null template, rowHeight, or tileMatrixIdentifiers");
@@ -63,11 +98,74 @@ public class WmtsTileFactory implements TileFactory {
         int rowHeight = 2 << level;
         int flipRow = rowHeight - row - 1;
 
-        String url = this.template.replace(TILEMATRIX_TEMPLATE, this.tileMatrixIdentifiers.get(level));
-        url = url.replace(TILEROW_TEMPLATE, flipRow + "");
-        url = url.replace(TILECOL_TEMPLATE, column + "");
+        synchronized (this.urlBuffer) {
+            String[] literals = this.templateLiterals; // setters may discard the compiled template concurrently
+            int[] placeholders = this.templatePlaceholders;
+            if (literals == null) {
+                this.compileTemplate();
+                literals = this.templateLiterals;
+                placeholders = this.templatePlaceholders;
+            }
+
+            StringBuilder url = this.urlBuffer;
+            url.setLength(0);
+            for (int idx = 0, len = literals.length; idx < len; idx++) {
+                url.append(literals[idx]);
+                int placeholder = placeholders[idx];
+                if (placeholder == TILEMATRIX) {
+                    url.append(this.tileMatrixIdentifiers.get(level));
+                } else if (placeholder == TILEROW) {
+                    url.append(flipRow);
+                } else if (placeholder == TILECOL) {
+                    url.append(column);
+                }
+            }
+
+            return url.toString();
+        }
+    }
+
+    @Override
+    public String urlForTile(Sector sector, Level level, int row, int column) {
+        return this.urlForTile(level.levelNumber, row, column);
+    }
+
+    @Override
+    public int getUrlRevision() {
+        return this.urlRevision;
+    }
+
+    protected void compileTemplate() {
+        List<String> literals = new ArrayList<>();
+        IntArray placeholders = new IntArray();
+        String[] templates = {TILEMATRIX_TEMPLATE, TILEROW_TEMPLATE, TILECOL_TEMPLATE};
+
+        int start = 0;
+        while (true) {
+            // Find the next placeholder in the template.
+            int nextIndex = -1;
+            int nextPlaceholder = 0;
+            for (int idx = 0; idx < templates.length; idx++) {
+                int index = this.template.indexOf(templates[idx], start);
+                if (index >= 0 && (nextIndex < 0 || index < nextIndex)) {
+                    nextIndex = index;
+                    nextPlaceholder = idx + 1; // TILEMATRIX, TILEROW or TILECOL
+                }
+            }
+
+            if (nextPlaceholder == 0) {
+                literals.add(this.template.substring(start));
+                placeholders.add(0);
+                break;
+            }
+
+            literals.add(this.template.substring(start, nextIndex));
+            placeholders.add(nextPlaceholder);
+            start = nextIndex + templates[nextPlaceholder - 1].length();
+        }
 
-        return url;
+        this.templatePlaceholders = Arrays.copyOf(placeholders.array(), placeholders.size());
+        this.templateLiterals = literals.toArray(new String[literals.size()]);
     }
 
     public String getTemplate() {
@@ -76,6 +174,8 @@ public class WmtsTileFactory implements TileFactory {
 
     public void setTemplate(String template) {
         this.template = template;
+        this.templateLiterals = null;
+        this.urlRevision++;
     }
 
     public List<String> getTileMatrixIdentifiers() {
@@ -84,5 +184,6 @@ public class WmtsTileFactory implements TileFactory {
 
     public void setTileMatrixIdentifiers(List<String> tileMatrixIdentifiers) {
         this.tileMatrixIdentifiers = tileMatrixIdentifiers;
+        this.urlRevision++;
     }
 }
@@ -5,10 +5,21 @@
 
 package gov.nasa.worldwind.ogc.wmts;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import gov.nasa.worldwind.util.xml.XmlModel;
 import gov.nasa.worldwind.util.xml.XmlModelParser;
 
 public class WmtsXmlParser extends XmlModelParser {
 
+    protected Set<String> requestedLayers;
+
+    protected Set<String> foundLayers = new HashSet<>();
+
+    protected Set<String> linkedTileMatrixSets = new HashSet<>();
+
     protected String owsNamespace = "http://www.opengis.net/ows/1.1";
 
     protected String wmtsNamespace = "http://www.opengis.net/wmts/1.0";
@@ -17,6 +28,57 @@ public class WmtsXmlParser extends XmlModelParser {
         this.registerParsers();
     }
 
+    /**
+     * Limits the layers parsed to those with the specified identifiers. Unrequested layers are discarded as soon as
+     * their identifier is parsed, and the document's remaining layers are skipped once every requested layer has been
+     * found. Tile matrix sets not linked to a requested layer are discarded in the same manner. A null collection parses
+     * all layers.
+     *
+     * @param layerIdentifiers the identifiers of the layers to parse, or null to parse all layers
+     */
+    public void setRequestedLayers(Collection<String> layerIdentifiers) {
+        this.requestedLayers = (layerIdentifiers != null) ? new HashSet<>(layerIdentifiers) : null;
+        this.foundLayers.clear();
+        this.linkedTileMatrixSets.clear();
+    }
+
+    @Override
+    protected boolean isSkippedElement(String namespace, String name, XmlModel parent) {
+        return this.requestedLayers != null && name == "Layer" && parent instanceof WmtsContents // names are interned
+            && this.foundLayers.size() == this.requestedLayers.size();
+    }
+
+    @Override
+    protected boolean isDiscardedModel(XmlModel model, boolean complete) {
+        if (this.requestedLayers == null) {
+            return false;
+        }
+
+        if (model instanceof WmtsLayer) {
+            WmtsLayer layer = (WmtsLayer) model;
+            String identifier = layer.getIdentifier();
+            if (identifier == null) {
+                return complete; // discard layers without an identifier
+            } else if (!this.requestedLayers.contains(identifier)) {
+                return true;
+            } else if (complete) {
+                this.foundLayers.add(identifier);
+                for (WmtsTileMatrixSetLink link : layer.getTileMatrixSetLinks()) {
+                    this.linkedTileMatrixSets.add(link.getIdentifier());
+                }
+            }
+        } else if (model instanceof WmtsTileMatrixSet && model.getParent() instanceof WmtsContents) {
+            String identifier = ((WmtsTileMatrixSet) model).getIdentifier();
+            if (identifier == null) {
+                return complete;
+            } else {
+                return !this.linkedTileMatrixSets.contains(identifier);
+            }
+        }
+
+        return false;
+    }
+
     protected void registerParsers() {
         this.registerWmtsXmlModels();
         this.registerWmtsTextModels();
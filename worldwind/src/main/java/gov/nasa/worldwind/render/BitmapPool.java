@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.render;
+
+import android.graphics.Bitmap;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import gov.nasa.worldwind.util.Logger;
+
+/**
+ * Pool of mutable bitmaps available for reuse by image decoders. Bitmaps are grouped in buckets by their width, height
+ * and configuration, and a bitmap is acquired only by a decoder requesting exactly those dimensions and configuration,
+ * which allows the decoder to write into the bitmap in place on every supported Android version.
+ * <p/>
+ * The pool is bounded by the number of bytes it holds. Releasing a bitmap that exceeds the bound discards the least
+ * recently released bitmaps until the pool is within its capacity. BitmapPool is thread safe; bitmaps are typically
+ * acquired by image retrieval threads and released by the OpenGL thread.
+ */
+public class BitmapPool {
+
+    protected final Map<Long, ArrayDeque<Bitmap>> buckets = new HashMap<>();
+
+    protected final ArrayDeque<Bitmap> releaseOrder = new ArrayDeque<>();
+
+    protected final long capacity;
+
+    protected long usedCapacity;
+
+    protected long hitCount;
+
+    protected long missCount;
+
+    protected long releaseCount;
+
+    protected long evictionCount;
+
+    /**
+     * Constructs a bitmap pool that holds at most the specified number of bytes.
+     *
+     * @param capacity the pool's capacity in bytes
+     *
+     * @throws IllegalArgumentException If the capacity is less than 1
+     */
+    public BitmapPool(long capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "BitmapPool", "constructor", "invalidCapacity"));
+        }
+
+        this.capacity = capacity;
+    }
+
+    public long getCapacity() {
+        return this.capacity;
+    }
+
+    public synchronized long getUsedCapacity() {
+        return this.usedCapacity;
+    }
+
+    public synchronized int getBitmapCount() {
+        return this.releaseOrder.size();
+    }
+
+    public synchronized long getHitCount() {
+        return this.hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return this.missCount;
+    }
+
+    public synchronized long getReleaseCount() {
+        return this.releaseCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return this.evictionCount;
+    }
+
+    /**
+     * Removes a bitmap with the specified dimensions and configuration from the pool.
+     *
+     * @param width  the bitmap's width in pixels
+     * @param height the bitmap's height in pixels
+     * @param config the bitmap's configuration
+     *
+     * @return a mutable bitmap with the specified dimensions and configuration, or null if the pool has no such bitmap
+     */
+    public synchronized Bitmap acquire(int width, int height, Bitmap.Config config) {
+        ArrayDeque<Bitmap> bucket = (config != null) ? this.buckets.get(bucketKey(width, height, config)) : null;
+        Bitmap bitmap = (bucket != null) ? bucket.pollFirst() : null; // most recently released bitmap
+
+        if (bitmap != null) {
+            this.releaseOrder.removeFirstOccurrence(bitmap);
+            this.usedCapacity -= bitmapByteCount(bitmap);
+            this.hitCount++;
+        } else {
+            this.missCount++;
+        }
+
+        return bitmap;
+    }
+
+    /**
+     * Adds a bitmap to the pool, making it available to subsequent decoders. The caller must not use the bitmap after
+     * releasing it. Bitmaps that are immutable, recycled or larger than the pool's capacity are ignored.
+     *
+     * @param bitmap the bitmap to add to the pool, may be null
+     *
+     * @return true if the bitmap was added to the pool, otherwise false
+     */
+    public synchronized boolean release(Bitmap bitmap) {
+        if (bitmap == null || !bitmap.isMutable() || bitmap.isRecycled() || bitmap.getConfig() == null) {
+            return false;
+        }
+
+        int byteCount = bitmapByteCount(bitmap);
+        if (byteCount <= 0 || byteCount > this.capacity) {
+            return false;
+        }
+
+        long key = bucketKey(bitmap.getWidth(), bitmap.getHeight(), bitmap.getConfig());
+        ArrayDeque<Bitmap> bucket = this.buckets.get(key);
+        if (bucket == null) {
+            bucket = new ArrayDeque<>();
+            this.buckets.put(key, bucket);
+        }
+
+        bucket.addFirst(bitmap);
+        this.releaseOrder.addFirst(bitmap);
+        this.usedCapacity += byteCount;
+        this.releaseCount++;
+
+        // Discard the least recently released bitmaps until the pool is within its capacity.
+        while (this.usedCapacity > this.capacity) {
+            Bitmap evicted = this.releaseOrder.pollLast();
+            this.buckets.get(bucketKey(evicted.getWidth(), evicted.getHeight(), evicted.getConfig())).removeLastOccurrence(evicted);
+            this.usedCapacity -= bitmapByteCount(evicted);
+            this.evictionCount++;
+        }
+
+        return true;
+    }
+
+    /**
+     * Removes all bitmaps from the pool. The pool's metrics are unchanged.
+     */
+    public synchronized void clear() {
+        this.buckets.clear();
+        this.releaseOrder.clear();
+        this.usedCapacity = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(Locale.US, "BitmapPool{%,.0f KB of %,.0f KB, %d bitmaps, %d hits, %d misses, %d releases, %d evictions}",
+            this.usedCapacity / 1024.0, this.capacity / 1024.0, this.releaseOrder.size(),
+            this.hitCount, this.missCount, this.releaseCount, this.evictionCount);
+    }
+
+    /**
+     * Computes the key of the bucket holding bitmaps with the specified dimensions and configuration.
+     *
+     * @param width  the bitmap's width in pixels
+     * @param height the bitmap's height in pixels
+     * @param config the bitmap's configuration
+     *
+     * @return the bucket key
+     */
+    protected static long bucketKey(int width, int height, Bitmap.Config config) {
+        return ((long) width << 36) | ((long) height << 8) | config.ordinal();
+    }
+
+    protected static int bitmapByteCount(Bitmap bitmap) {
+        return bitmap.getByteCount();
+    }
+}
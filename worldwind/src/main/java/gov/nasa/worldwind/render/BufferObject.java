@@ -67,6 +67,7 @@ public class BufferObject implements RenderResource {
     }
 
     protected void loadBuffer(DrawContext dc) {
+        long uploadBegin = System.nanoTime();
         int currentBuffer = dc.currentBuffer(this.bufferTarget);
 
         try {
@@ -93,6 +94,10 @@ public class BufferObject implements RenderResource {
             // Restore the current OpenGL buffer object binding.
             dc.bindBuffer(this.bufferTarget, currentBuffer);
         }
+
+        // Buffer data is loaded immediately, since drawables have no substitute for their geometry. The upload counts
+        // against the frame's upload budget, deferring texture uploads requested later in the frame.
+        dc.uploadScheduler().uploadCompleted(this.bufferByteCount, System.nanoTime() - uploadBegin);
     }
 
     protected void createBufferObject(DrawContext dc) {
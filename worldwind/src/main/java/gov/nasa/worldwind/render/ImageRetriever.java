@@ -8,6 +8,7 @@ package gov.nasa.worldwind.render;
 import android.content.res.Resources;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import android.os.Build;
 
 import java.io.BufferedInputStream;
 import java.io.IOException;
@@ -24,6 +25,16 @@ public class ImageRetriever extends Retriever<ImageSource, ImageOptions, Bitmap>
 
     protected Resources resources;
 
+    protected BitmapPool bitmapPool;
+
+    /**
+     * Buffer holding the encoded image data read from a URL connection. Each retrieval thread reuses its buffer, which
+     * grows to accommodate the largest image retrieved by that thread.
+     */
+    protected final ThreadLocal<byte[]> streamBuffer = new ThreadLocal<>();
+
+    protected static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
     public ImageRetriever(int maxSimultaneousRetrievals) {
         super(maxSimultaneousRetrievals);
     }
@@ -36,6 +47,20 @@ public class ImageRetriever extends Retriever<ImageSource, ImageOptions, Bitmap>
         this.resources = res;
     }
 
+    public BitmapPool getBitmapPool() {
+        return this.bitmapPool;
+    }
+
+    /**
+     * Specifies a pool of bitmaps to decode images into. When the pool is non-null, images are decoded into mutable
+     * bitmaps, reusing a bitmap from the pool when one has the image's dimensions and configuration.
+     *
+     * @param bitmapPool the pool to acquire bitmaps from, or null to decode every image into a new bitmap
+     */
+    public void setBitmapPool(BitmapPool bitmapPool) {
+        this.bitmapPool = bitmapPool;
+    }
+
     @Override
     protected void retrieveAsync(ImageSource imageSource, ImageOptions imageOptions,
                                  Callback<ImageSource, ImageOptions, Bitmap> callback) {
@@ -52,8 +77,6 @@ public class ImageRetriever extends Retriever<ImageSource, ImageOptions, Bitmap>
         }
     }
 
-    // TODO can we explicitly recycle bitmaps from image sources other than direct Bitmap references?
-    // TODO does explicit recycling help?
     protected Bitmap decodeImage(ImageSource imageSource, ImageOptions imageOptions) throws IOException {
         if (imageSource.isBitmap()) {
             return imageSource.asBitmap();
@@ -79,13 +102,39 @@ public class ImageRetriever extends Retriever<ImageSource, ImageOptions, Bitmap>
     }
 
     protected Bitmap decodeResource(int id, ImageOptions imageOptions) {
+        if (this.resources == null) {
+            return null;
+        }
+
         BitmapFactory.Options factoryOptions = this.bitmapFactoryOptions(imageOptions);
-        return (this.resources != null) ? BitmapFactory.decodeResource(this.resources, id, factoryOptions) : null;
+        if (this.bitmapPool != null) { // decode the image's dimensions, then look for a bitmap to decode into
+            factoryOptions.inJustDecodeBounds = true;
+            BitmapFactory.decodeResource(this.resources, id, factoryOptions);
+            this.acquireBitmap(factoryOptions);
+        }
+
+        try {
+            return this.releaseUnusedBitmap(BitmapFactory.decodeResource(this.resources, id, factoryOptions), factoryOptions);
+        } catch (IllegalArgumentException ignored) { // the image cannot be decoded into the pooled bitmap
+            factoryOptions.inBitmap = null;
+            return BitmapFactory.decodeResource(this.resources, id, factoryOptions);
+        }
     }
 
     protected Bitmap decodeFilePath(String pathName, ImageOptions imageOptions) {
         BitmapFactory.Options factoryOptions = this.bitmapFactoryOptions(imageOptions);
-        return BitmapFactory.decodeFile(pathName, factoryOptions);
+        if (this.bitmapPool != null) { // decode the image's dimensions, then look for a bitmap to decode into
+            factoryOptions.inJustDecodeBounds = true;
+            BitmapFactory.decodeFile(pathName, factoryOptions);
+            this.acquireBitmap(factoryOptions);
+        }
+
+        try {
+            return this.releaseUnusedBitmap(BitmapFactory.decodeFile(pathName, factoryOptions), factoryOptions);
+        } catch (IllegalArgumentException ignored) { // the image cannot be decoded into the pooled bitmap
+            factoryOptions.inBitmap = null;
+            return BitmapFactory.decodeFile(pathName, factoryOptions);
+        }
     }
 
     protected Bitmap decodeUrl(String urlString, ImageOptions imageOptions, ImageSource.Transformer transformer) throws IOException {
@@ -102,11 +151,20 @@ public class ImageRetriever extends Retriever<ImageSource, ImageOptions, Bitmap>
             stream = new BufferedInputStream(conn.getInputStream());
 
             BitmapFactory.Options factoryOptions = this.bitmapFactoryOptions(imageOptions);
-            Bitmap bitmap = BitmapFactory.decodeStream(stream, null, factoryOptions);
+            Bitmap bitmap;
+            if (this.bitmapPool != null) {
+                bitmap = this.decodeStream(stream, factoryOptions);
+            } else {
+                bitmap = BitmapFactory.decodeStream(stream, null, factoryOptions);
+            }
 
             // Apply bitmap transformation if required
             if (transformer != null && bitmap != null) {
-                bitmap = transformer.transform(bitmap);
+                Bitmap decoded = bitmap;
+                bitmap = transformer.transform(decoded);
+                if (bitmap != decoded && this.bitmapPool != null) {
+                    this.bitmapPool.release(decoded); // the transformer copied the decoded bitmap
+                }
             }
 
             return bitmap;
@@ -115,6 +173,71 @@ public class ImageRetriever extends Retriever<ImageSource, ImageOptions, Bitmap>
         }
     }
 
+    /**
+     * Decodes an image stream into a pooled bitmap when possible. The encoded image is read into this thread's stream
+     * buffer, allowing its dimensions to be decoded before the image itself.
+     */
+    protected Bitmap decodeStream(InputStream stream, BitmapFactory.Options factoryOptions) throws IOException {
+        byte[] buffer = this.streamBuffer.get();
+        if (buffer == null) {
+            buffer = new byte[STREAM_BUFFER_SIZE];
+        }
+
+        int length = 0, count;
+        while ((count = stream.read(buffer, length, buffer.length - length)) != -1) {
+            length += count;
+            if (length == buffer.length) { // increase the buffer size by 50%
+                byte[] newBuffer = new byte[buffer.length + (buffer.length >> 1)];
+                System.arraycopy(buffer, 0, newBuffer, 0, length);
+                buffer = newBuffer;
+            }
+        }
+        this.streamBuffer.set(buffer);
+
+        // Decode the image's dimensions, then look for a bitmap to decode into.
+        factoryOptions.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(buffer, 0, length, factoryOptions);
+        this.acquireBitmap(factoryOptions);
+
+        try {
+            return this.releaseUnusedBitmap(BitmapFactory.decodeByteArray(buffer, 0, length, factoryOptions), factoryOptions);
+        } catch (IllegalArgumentException ignored) { // the image cannot be decoded into the pooled bitmap
+            factoryOptions.inBitmap = null;
+            return BitmapFactory.decodeByteArray(buffer, 0, length, factoryOptions);
+        }
+    }
+
+    /**
+     * Configures factory options populated by decoding an image's dimensions to decode the image into a bitmap from
+     * this retriever's bitmap pool. Prior to Android 4.4, bitmaps may be reused only to decode JPEG and PNG images.
+     */
+    protected void acquireBitmap(BitmapFactory.Options factoryOptions) {
+        factoryOptions.inJustDecodeBounds = false;
+
+        if (factoryOptions.outWidth <= 0 || factoryOptions.outHeight <= 0) {
+            return; // the image's dimensions could not be decoded
+        }
+
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.KITKAT
+            && !"image/jpeg".equals(factoryOptions.outMimeType) && !"image/png".equals(factoryOptions.outMimeType)) {
+            return;
+        }
+
+        Bitmap.Config config = (factoryOptions.inPreferredConfig != null) ? factoryOptions.inPreferredConfig : Bitmap.Config.ARGB_8888;
+        factoryOptions.inBitmap = this.bitmapPool.acquire(factoryOptions.outWidth, factoryOptions.outHeight, config);
+    }
+
+    /**
+     * Returns a pooled bitmap to the pool when the decoder did not use it.
+     */
+    protected Bitmap releaseUnusedBitmap(Bitmap bitmap, BitmapFactory.Options factoryOptions) {
+        if (factoryOptions.inBitmap != null && factoryOptions.inBitmap != bitmap) {
+            this.bitmapPool.release(factoryOptions.inBitmap);
+        }
+
+        return bitmap;
+    }
+
     protected Bitmap decodeUnrecognized(ImageSource imageSource) {
         Logger.log(Logger.WARN, "Unrecognized image source \'" + imageSource + "\'");
         return null;
@@ -123,6 +246,7 @@ public class ImageRetriever extends Retriever<ImageSource, ImageOptions, Bitmap>
     protected BitmapFactory.Options bitmapFactoryOptions(ImageOptions imageOptions) {
         BitmapFactory.Options factoryOptions = new BitmapFactory.Options();
         factoryOptions.inScaled = false; // suppress default image scaling; load the image in its native dimensions
+        factoryOptions.inMutable = (this.bitmapPool != null); // decoded bitmaps may be reused after they're uploaded
 
         if (imageOptions != null) {
             switch (imageOptions.imageConfig) {
@@ -13,6 +13,8 @@ import androidx.annotation.DrawableRes;
 import java.util.Arrays;
 import java.util.HashMap;
 
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.util.Level;
 import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.WWUtil;
 
@@ -28,7 +30,8 @@ import gov.nasa.worldwind.util.WWUtil;
  * ImageSource instances are intended to be used as a key into a cache or other data structure that enables sharing of
  * loaded images.  Android bitmaps and WorldWind bitmap factories are compared by reference: two image sources are
  * equivalent if they reference the same bitmap or the same bitmap factory. Android resource identifiers with equivalent
- * IDs are considered equivalent, as are file paths and URLs with the same string representation.
+ * IDs are considered equivalent, as are file paths and URLs with the same string representation. Tile URLs are
+ * identified by their URL factory, level, row and column, and are equivalent when all four match.
  */
 public class ImageSource {
 
@@ -63,6 +66,35 @@ public class ImageSource {
         Bitmap transform(Bitmap bitmap);
     }
 
+    /**
+     * Factory for delegating construction of tile URLs. Image sources created with a UrlFactory identify a tile by its
+     * level, row and column, and construct the tile's URL only when the image is retrieved.
+     */
+    public interface UrlFactory {
+
+        /**
+         * Returns the URL string for the specified tile. This method may be called from a non-UI thread, and may be
+         * called concurrently from more than one thread.
+         *
+         * @param sector the sector spanned by the tile
+         * @param level  the tile's level in a {@link gov.nasa.worldwind.util.LevelSet}
+         * @param row    the tile's row within the specified level
+         * @param column the tile's column within the specified level
+         *
+         * @return the tile's URL string, or null if the tile has no image
+         */
+        String urlForTile(Sector sector, Level level, int row, int column);
+
+        /**
+         * Indicates the revision of this factory's URLs. The revision must change whenever a change to the factory's
+         * state changes the URLs it constructs. Image sources identify a tile by the factory's revision when they are
+         * created, so that tiles with different URLs are not identified as the same image.
+         *
+         * @return the factory's current URL revision
+         */
+        int getUrlRevision();
+    }
+
     protected static final HashMap<Object, BitmapFactory> lineStippleFactories = new HashMap<>();
 
     protected static final int TYPE_UNRECOGNIZED = 0;
@@ -77,6 +109,8 @@ public class ImageSource {
 
     protected static final int TYPE_URL = 5;
 
+    protected static final int TYPE_TILE_URL = 6;
+
     protected int type = TYPE_UNRECOGNIZED;
 
     protected Object source;
@@ -205,6 +239,65 @@ public class ImageSource {
         return imageSource;
     }
 
+    /**
+     * Constructs an image source for a tile whose URL is constructed by a URL factory. The image source is identified
+     * by the factory, level, row and column; the URL is constructed only when the image is retrieved. See {@link
+     * #fromUrl(String)} for restrictions on the image.
+     *
+     * @param factory the factory that constructs the tile's URL
+     * @param sector  the sector spanned by the tile
+     * @param level   the tile's level
+     * @param row     the tile's row within the specified level
+     * @param column  the tile's column within the specified level
+     *
+     * @return the new image source
+     *
+     * @throws IllegalArgumentException If any argument is null
+     */
+    public static ImageSource fromUrlFactory(UrlFactory factory, Sector sector, Level level, int row, int column) {
+        if (factory == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ImageSource", "fromUrlFactory", "missingFactory"));
+        }
+
+        if (sector == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ImageSource", "fromUrlFactory", "missingSector"));
+        }
+
+        if (level == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ImageSource", "fromUrlFactory", "missingLevel"));
+        }
+
+        ImageSource imageSource = new ImageSource();
+        imageSource.type = TYPE_TILE_URL;
+        imageSource.source = new TileUrlKey(factory, sector, level, row, column);
+        return imageSource;
+    }
+
+    /**
+     * Constructs an image source for a tile whose URL is constructed by a URL factory, with an image post-transformation
+     * routine. See {@link #fromUrlFactory(UrlFactory, Sector, Level, int, int)}.
+     *
+     * @param factory     the factory that constructs the tile's URL
+     * @param sector      the sector spanned by the tile
+     * @param level       the tile's level
+     * @param row         the tile's row within the specified level
+     * @param column      the tile's column within the specified level
+     * @param transformer implementation of image post-transformation routine
+     *
+     * @return the new image source
+     *
+     * @throws IllegalArgumentException If any argument other than the transformer is null
+     */
+    public static ImageSource fromUrlFactory(UrlFactory factory, Sector sector, Level level, int row, int column,
+                                             Transformer transformer) {
+        ImageSource imageSource = fromUrlFactory(factory, sector, level, row, column);
+        imageSource.transformer = transformer;
+        return imageSource;
+    }
+
     /**
      * Constructs a bitmap image source with a line stipple pattern. The result is a one-dimensional bitmap with pixels
      * representing the specified stipple factor and stipple pattern. Line stipple images can be used for displaying
@@ -225,11 +318,14 @@ public class ImageSource {
         long lfactor = (factor & 0xFFFFFFFFL);
         long lpattern = (pattern & 0xFFFFL);
         long key = (lfactor << 32) | lpattern;
-        BitmapFactory factory = lineStippleFactories.get(key);
+        BitmapFactory factory;
 
-        if (factory == null) {
-            factory = new LineStippleBitmapFactory(factor, pattern);
-            lineStippleFactories.put(key, factory);
+        synchronized (lineStippleFactories) { // shapes in different layers may render on different threads
+            factory = lineStippleFactories.get(key);
+            if (factory == null) {
+                factory = new LineStippleBitmapFactory(factor, pattern);
+                lineStippleFactories.put(key, factory);
+            }
         }
 
         ImageSource imageSource = new ImageSource();
@@ -304,6 +400,9 @@ public class ImageSource {
             return this.source.toString();
         } else if (this.type == TYPE_URL) {
             return this.source.toString();
+        } else if (this.type == TYPE_TILE_URL) {
+            String urlString = this.asUrl();
+            return (urlString != null) ? urlString : this.source.toString();
         } else {
             return this.source.toString();
         }
@@ -346,12 +445,12 @@ public class ImageSource {
     }
 
     /**
-     * Indicates whether this image source is a URL string.
+     * Indicates whether this image source is a URL string, or a tile whose URL is constructed by a URL factory.
      *
-     * @return true if the source is a URL string, otherwise false
+     * @return true if the source is a URL string or a tile URL, otherwise false
      */
     public boolean isUrl() {
-        return this.type == TYPE_URL;
+        return this.type == TYPE_URL || this.type == TYPE_TILE_URL;
     }
 
     /**
@@ -394,12 +493,20 @@ public class ImageSource {
     }
 
     /**
-     * Returns the source URL string. Call isUrl to determine whether or not the source is a URL string.
+     * Returns the source URL string. Call isUrl to determine whether or not the source is a URL string. Tile URLs are
+     * constructed by their URL factory each time this is called.
      *
      * @return the URL string, or null if the source is not a URL string
      */
     public String asUrl() {
-        return (this.type == TYPE_URL) ? (String) this.source : null;
+        if (this.type == TYPE_URL) {
+            return (String) this.source;
+        } else if (this.type == TYPE_TILE_URL) {
+            TileUrlKey key = (TileUrlKey) this.source;
+            return key.factory.urlForTile(key.sector, key.level, key.row, key.column);
+        } else {
+            return null;
+        }
     }
 
     /**
@@ -411,6 +518,59 @@ public class ImageSource {
         return this.source;
     }
 
+    protected static class TileUrlKey {
+
+        protected final UrlFactory factory;
+
+        protected final Sector sector;
+
+        protected final Level level;
+
+        protected final int row;
+
+        protected final int column;
+
+        protected final int revision;
+
+        protected final int hashCode;
+
+        public TileUrlKey(UrlFactory factory, Sector sector, Level level, int row, int column) {
+            this.factory = factory;
+            this.sector = sector;
+            this.level = level;
+            this.row = row;
+            this.column = column;
+            this.revision = factory.getUrlRevision();
+            this.hashCode = 31 * (31 * (31 * (31 * factory.hashCode() + this.revision) + level.levelNumber) + row) + column;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (o == null || this.getClass() != o.getClass()) {
+                return false;
+            }
+
+            TileUrlKey that = (TileUrlKey) o;
+            return this.factory == that.factory && this.revision == that.revision
+                && this.level.levelNumber == that.level.levelNumber
+                && this.level.parent == that.level.parent && this.row == that.row && this.column == that.column;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+
+        @Override
+        public String toString() {
+            return "Tile " + this.level.levelNumber + "." + this.row + "." + this.column + " " + this.factory;
+        }
+    }
+
     protected static class LineStippleBitmapFactory implements BitmapFactory {
 
         protected int factor;
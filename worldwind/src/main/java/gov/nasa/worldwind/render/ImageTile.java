@@ -9,19 +9,68 @@ import gov.nasa.worldwind.geom.Sector;
 import gov.nasa.worldwind.util.Level;
 import gov.nasa.worldwind.util.Tile;
 
+/**
+ * Tile with an image source. The image source may be specified directly, or resolved by an {@link ImageSourceFactory}
+ * the first time it is requested. Deferring the image source lets tiled renderables traverse and cull tiles without
+ * creating image sources for tiles whose textures are never requested.
+ */
 public class ImageTile extends Tile {
 
+    /**
+     * Factory for image sources resolved when an image tile's texture is first requested.
+     */
+    public interface ImageSourceFactory {
+
+        /**
+         * Returns the image source for a specified tile.
+         *
+         * @param tile the tile whose image source is requested
+         *
+         * @return the tile's image source, or null if the tile has no image
+         */
+        ImageSource createImageSource(ImageTile tile);
+    }
+
     protected ImageSource imageSource;
 
+    protected ImageSourceFactory imageSourceFactory;
+
     public ImageTile(Sector sector, Level level, int row, int column) {
         super(sector, level, row, column);
     }
 
+    /**
+     * Returns this tile's image source. When the tile has an image source factory, this resolves the image source the
+     * first time it is called.
+     *
+     * @return the image source, or null if the tile has no image
+     */
     public ImageSource getImageSource() {
-        return imageSource;
+        if (this.imageSourceFactory != null) {
+            this.imageSource = this.imageSourceFactory.createImageSource(this);
+            this.imageSourceFactory = null; // resolve the image source once
+        }
+
+        return this.imageSource;
     }
 
     public void setImageSource(ImageSource imageSource) {
         this.imageSource = imageSource;
+        this.imageSourceFactory = null;
+    }
+
+    public ImageSourceFactory getImageSourceFactory() {
+        return this.imageSourceFactory;
+    }
+
+    /**
+     * Specifies a factory that resolves this tile's image source when it is first requested, replacing any image source
+     * previously specified.
+     *
+     * @param factory the image source factory, or null to indicate the tile has no image
+     */
+    public void setImageSourceFactory(ImageSourceFactory factory) {
+        this.imageSource = null;
+        this.imageSourceFactory = factory;
     }
 }
@@ -17,22 +17,29 @@ import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.draw.Drawable;
 import gov.nasa.worldwind.draw.DrawableQueue;
 import gov.nasa.worldwind.draw.DrawableTerrain;
+import gov.nasa.worldwind.geom.BoundingBox;
 import gov.nasa.worldwind.geom.Camera;
 import gov.nasa.worldwind.geom.Frustum;
 import gov.nasa.worldwind.geom.Line;
 import gov.nasa.worldwind.geom.Matrix4;
+import gov.nasa.worldwind.geom.Position;
 import gov.nasa.worldwind.geom.Vec2;
 import gov.nasa.worldwind.geom.Vec3;
 import gov.nasa.worldwind.geom.Viewport;
 import gov.nasa.worldwind.globe.Globe;
+import gov.nasa.worldwind.globe.ProjectionWgs84;
 import gov.nasa.worldwind.globe.Terrain;
 import gov.nasa.worldwind.globe.Tessellator;
 import gov.nasa.worldwind.layer.Layer;
 import gov.nasa.worldwind.layer.LayerList;
+import gov.nasa.worldwind.layer.ParallelLayerRenderer;
+import gov.nasa.worldwind.shape.ScenePickIndex;
+import gov.nasa.worldwind.shape.ShapeGeometryAssembler;
 import gov.nasa.worldwind.shape.TextAttributes;
 import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.Pool;
 import gov.nasa.worldwind.util.SynchronizedPool;
+import gov.nasa.worldwind.util.TileVisibility;
 import gov.nasa.worldwind.util.glu.GLU;
 import gov.nasa.worldwind.util.glu.GLUtessellator;
 
@@ -40,6 +47,12 @@ public class RenderContext {
 
     private static final int MAX_PICKED_OBJECT_ID = 0xFFFFFF;
 
+    /**
+     * The height of the lowest terrain on Earth, in meters. The globe's ellipsoid lowered by this height lies beneath all
+     * terrain, and therefore occludes only what terrain occludes.
+     */
+    private static final double HORIZON_MIN_TERRAIN_HEIGHT = -11000;
+
     public Globe globe;
 
     public Tessellator terrainTessellator;
@@ -70,6 +83,31 @@ public class RenderContext {
 
     public RenderResourceCache renderResourceCache;
 
+    public ShapeGeometryAssembler geometryAssembler;
+
+    /**
+     * Renders the frame's layers on a pool of worker threads, or null to render layers serially.
+     */
+    public ParallelLayerRenderer layerRenderer;
+
+    /**
+     * Records the bounds of the frame's pickable renderables for analytic picking, or null if analytic picking is
+     * disabled. Renderables record their bounds only when the render context is not in pick mode.
+     */
+    public ScenePickIndex scenePickIndex;
+
+    /**
+     * Tile visibility results shared by the tiled renderables of the current frame, or null to compute visibility
+     * separately for each renderable's tiles.
+     */
+    public TileVisibility tileVisibility = new TileVisibility();
+
+    /**
+     * Indicates whether the OpenGL implementation supports 32-bit element indices via the OES_element_index_uint
+     * extension.
+     */
+    public boolean elementIndexUint;
+
     public Resources resources;
 
     public DrawableQueue drawableQueue;
@@ -86,12 +124,54 @@ public class RenderContext {
 
     public boolean pickMode;
 
+    /**
+     * Indicates whether the current pick is resolved on the CPU by intersecting the pick ray with shape geometry,
+     * rather than by drawing shapes in unique colors on the OpenGL thread.
+     */
+    public boolean analyticPickMode;
+
+    /**
+     * The distance in screen pixels within which line primitives are picked in analytic pick mode.
+     */
+    public double analyticPickTolerance;
+
+    /**
+     * The terrain position under the pick point in analytic pick mode, or null if the pick ray does not intersect the
+     * terrain.
+     */
+    public Position pickTerrainPosition;
+
+    /**
+     * The distance along the pick ray to the terrain position under the pick point in analytic pick mode.
+     */
+    public double pickTerrainDistance;
+
     private int pickedObjectId;
 
+    private int nearestPickedObjectId;
+
+    private double nearestPickDistance = Double.POSITIVE_INFINITY;
+
     private boolean redrawRequested;
 
     private double pixelSizeFactor;
 
+    private boolean elevationModelTimestampValid;
+
+    private long elevationModelTimestamp;
+
+    private int horizonState; // 0 = not computed, 1 = horizon culling enabled, -1 = disabled
+
+    private double horizonScaleEquatorial;
+
+    private double horizonScalePolar;
+
+    private Vec3 horizonCameraPoint = new Vec3();
+
+    private double horizonCameraDistance;
+
+    private double horizonTangentDistance;
+
     private GLUtessellator tessellator;
 
     private TextRenderer textRenderer = new TextRenderer();
@@ -102,6 +182,8 @@ public class RenderContext {
 
     private Map<Object, Object> userProperties = new HashMap<>();
 
+    private Map<Class<?>, Object> scratchObjects = new HashMap<>();
+
     private Vec3 scratchVector = new Vec3();
 
     public RenderContext() {
@@ -123,6 +205,10 @@ public class RenderContext {
         this.modelviewProjection.setToIdentity();
         this.frustum.setToUnitFrustum();
         this.renderResourceCache = null;
+        this.geometryAssembler = null;
+        this.layerRenderer = null;
+        this.scenePickIndex = null;
+        this.elementIndexUint = false;
         this.resources = null;
         this.drawableQueue = null;
         this.drawableTerrain = null;
@@ -131,9 +217,20 @@ public class RenderContext {
         this.pickPoint = null;
         this.pickRay = null;
         this.pickMode = false;
+        this.analyticPickMode = false;
+        this.analyticPickTolerance = 0;
+        this.pickTerrainPosition = null;
+        this.pickTerrainDistance = 0;
         this.pickedObjectId = 0;
+        this.nearestPickedObjectId = 0;
+        this.nearestPickDistance = Double.POSITIVE_INFINITY;
         this.redrawRequested = false;
         this.pixelSizeFactor = 0;
+        this.horizonState = 0;
+        this.elevationModelTimestampValid = false;
+        if (this.tileVisibility != null) {
+            this.tileVisibility.clear();
+        }
         this.userProperties.clear();
     }
 
@@ -145,6 +242,22 @@ public class RenderContext {
         this.redrawRequested = true;
     }
 
+    /**
+     * Returns the globe's elevation model timestamp as of the first call during the current frame. Tiles compare this
+     * timestamp with the one their extent was computed for, and a single timestamp per frame avoids querying each of
+     * the elevation model's coverages for every tile tested.
+     *
+     * @return the elevation model's timestamp for the current frame
+     */
+    public long getElevationModelTimestamp() {
+        if (!this.elevationModelTimestampValid) { // cache the timestamp until the render context is reset
+            this.elevationModelTimestamp = this.globe.getElevationModel().getTimestamp();
+            this.elevationModelTimestampValid = true;
+        }
+
+        return this.elevationModelTimestamp;
+    }
+
     /**
      * Returns the height of a pixel at a given distance from the eye point. This method assumes the model of a screen
      * composed of rectangular pixels, where pixel coordinates denote infinitely thin space between pixels. The units of
@@ -166,6 +279,91 @@ public class RenderContext {
         return distance * this.pixelSizeFactor;
     }
 
+    /**
+     * Indicates whether a bounding box is entirely hidden behind the globe's horizon from the camera's point of view.
+     * See {@link #isBehindHorizon(Vec3, double)}.
+     *
+     * @param boundingBox the bounding box to test
+     *
+     * @return true if the bounding box is hidden by the globe, otherwise false
+     */
+    public boolean isBehindHorizon(BoundingBox boundingBox) {
+        return this.isBehindHorizon(boundingBox.getCenter(this.scratchVector), boundingBox.getRadius());
+    }
+
+    /**
+     * Indicates whether a Cartesian sphere is entirely hidden behind the globe's horizon from the camera's point of
+     * view. The globe is modeled as its ellipsoid lowered to the height of the lowest terrain, which lies beneath the
+     * terrain everywhere, and therefore this method never indicates that terrain or objects above terrain are hidden
+     * when they're visible. A sphere is hidden when it lies entirely beyond the plane of the horizon, and entirely
+     * within the cone tangent to the globe with its apex at the camera point.
+     * <p/>
+     * This returns false when the camera is beneath the globe's lowered ellipsoid, or when the globe uses a projection
+     * other than an ellipsoidal projection.
+     *
+     * @param center the sphere's Cartesian center
+     * @param radius the sphere's radius, or 0 to test a point
+     *
+     * @return true if the sphere is hidden by the globe, otherwise false
+     */
+    public boolean isBehindHorizon(Vec3 center, double radius) {
+        if (this.horizonState == 0) { // cache the camera's position relative to the occluding ellipsoid
+            this.computeHorizon();
+        }
+
+        if (this.horizonState < 0) {
+            return false;
+        }
+
+        // Transform the sphere to the space in which the occluding ellipsoid is a unit sphere. The polar axis is scaled
+        // by the larger factor, so scaling the radius by that factor encloses the transformed sphere.
+        double sx = center.x * this.horizonScaleEquatorial;
+        double sy = center.y * this.horizonScalePolar;
+        double sz = center.z * this.horizonScaleEquatorial;
+        double sr = radius * this.horizonScalePolar;
+        Vec3 c = this.horizonCameraPoint;
+        double d = this.horizonCameraDistance;
+
+        // The sphere must lie beyond the horizon plane, which is perpendicular to the camera point at distance 1/d.
+        if (sx * c.x + sy * c.y + sz * c.z + sr * d >= 1) {
+            return false;
+        }
+
+        // The sphere must lie within the tangent cone, whose axis points from the camera to the globe's center. The
+        // cone's half angle has sine 1/d and cosine t/d, where t is the distance from the camera to the horizon.
+        double vx = sx - c.x, vy = sy - c.y, vz = sz - c.z;
+        double axial = -(vx * c.x + vy * c.y + vz * c.z) / d; // distance along the cone's axis
+        if (axial <= 0) {
+            return false;
+        }
+
+        double radial = Math.sqrt(Math.max(0, vx * vx + vy * vy + vz * vz - axial * axial)); // distance from the axis
+        return axial - this.horizonTangentDistance * radial >= sr * d; // distance to the cone's surface times d
+    }
+
+    protected void computeHorizon() {
+        this.horizonState = -1;
+
+        if (this.globe == null || !(this.globe.getProjection() instanceof ProjectionWgs84)) {
+            return; // the globe is not an ellipsoid
+        }
+
+        double minHeight = HORIZON_MIN_TERRAIN_HEIGHT * Math.max(1, this.verticalExaggeration);
+        this.horizonScaleEquatorial = 1 / (this.globe.getEquatorialRadius() + minHeight);
+        this.horizonScalePolar = 1 / (this.globe.getPolarRadius() + minHeight);
+        this.horizonCameraPoint.set(
+            this.cameraPoint.x * this.horizonScaleEquatorial,
+            this.cameraPoint.y * this.horizonScalePolar,
+            this.cameraPoint.z * this.horizonScaleEquatorial);
+
+        double d2 = this.horizonCameraPoint.magnitudeSquared();
+        if (d2 > 1) { // the camera is above the occluding ellipsoid
+            this.horizonCameraDistance = Math.sqrt(d2);
+            this.horizonTangentDistance = Math.sqrt(d2 - 1);
+            this.horizonState = 1;
+        }
+    }
+
     /**
      * Projects a Cartesian point to screen coordinates. The resultant screen point is in OpenGL screen coordinates,
      * with the origin in the bottom-left corner and axes that extend up and to the right from the origin.
@@ -502,6 +700,35 @@ public class RenderContext {
         }
     }
 
+    /**
+     * Offers a picked object intersected by the pick ray in analytic pick mode, along with the distance along the pick
+     * ray to the intersection. The nearest picked object is the one displayed at the pick point. Objects offered at
+     * the same distance as the current nearest object are displayed on top of it, consistent with the order in which
+     * they're drawn.
+     *
+     * @param pickedObject the picked object
+     * @param pickDistance the distance along the pick ray to the object's nearest intersection
+     */
+    public void offerPickedObject(PickedObject pickedObject, double pickDistance) {
+        if (this.pickedObjects != null && pickedObject != null) {
+            this.pickedObjects.offerPickedObject(pickedObject);
+
+            if (this.nearestPickDistance >= pickDistance) {
+                this.nearestPickDistance = pickDistance;
+                this.nearestPickedObjectId = pickedObject.getIdentifier();
+            }
+        }
+    }
+
+    /**
+     * Indicates the picked object nearest to the pick ray's origin among those offered with a pick distance.
+     *
+     * @return the nearest picked object's ID, or zero if no object has been offered with a pick distance
+     */
+    public int nearestPickedObjectId() {
+        return this.nearestPickedObjectId;
+    }
+
     public int nextPickedObjectId() {
         this.pickedObjectId++;
 
@@ -522,6 +749,33 @@ public class RenderContext {
         return (this.tessellator = tess);
     }
 
+    /**
+     * Returns the scratch object of the specified class held by this render context, or null if none has been stored.
+     * Renderables keep temporary render state here instead of in static variables, since layers rendered in parallel
+     * each render with their own render context. Scratch objects are retained across frames.
+     *
+     * @param key the scratch object's class
+     *
+     * @return the scratch object, or null if none has been stored
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getScratch(Class<T> key) {
+        return (T) this.scratchObjects.get(key);
+    }
+
+    /**
+     * Stores a scratch object of the specified class in this render context. See {@link #getScratch(Class)}.
+     *
+     * @param key   the scratch object's class
+     * @param value the scratch object
+     *
+     * @return the scratch object previously stored for the class, or null if none was stored
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T putScratch(Class<T> key, T value) {
+        return (T) this.scratchObjects.put(key, value);
+    }
+
     public Object getUserProperty(Object key) {
         return this.userProperties.get(key);
     }
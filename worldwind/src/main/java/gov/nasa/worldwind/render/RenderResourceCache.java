@@ -23,7 +23,7 @@ import gov.nasa.worldwind.util.LruMemoryCache;
 import gov.nasa.worldwind.util.Retriever;
 import gov.nasa.worldwind.util.SynchronizedMemoryCache;
 
-public class RenderResourceCache extends LruMemoryCache<Object, RenderResource>
+public class RenderResourceCache extends SynchronizedMemoryCache<Object, RenderResource>
     implements Retriever.Callback<ImageSource, ImageOptions, Bitmap>, Handler.Callback {
 
     protected Resources resources;
@@ -38,6 +38,8 @@ public class RenderResourceCache extends LruMemoryCache<Object, RenderResource>
 
     protected LruMemoryCache<ImageSource, Bitmap> imageRetrieverCache;
 
+    protected BitmapPool bitmapPool;
+
     protected static final int STALE_RETRIEVAL_AGE = 3000;
 
     protected static final int TRIM_STALE_RETRIEVALS = 1;
@@ -57,18 +59,32 @@ public class RenderResourceCache extends LruMemoryCache<Object, RenderResource>
     protected void init() {
         this.handler = new Handler(this);
         this.evictionQueue = new ConcurrentLinkedQueue<>();
+        this.bitmapPool = new BitmapPool(Math.max(1, this.getCapacity() / 32));
         this.imageRetriever = new ImageRetriever(2);
         this.urlImageRetriever = new ImageRetriever(8);
-        this.imageRetrieverCache = new SynchronizedMemoryCache<>(this.getCapacity() / 8);
+        ((ImageRetriever) this.imageRetriever).setBitmapPool(this.bitmapPool);
+        ((ImageRetriever) this.urlImageRetriever).setBitmapPool(this.bitmapPool);
+        this.imageRetrieverCache = new SynchronizedMemoryCache<ImageSource, Bitmap>(this.getCapacity() / 8) {
+            @Override
+            protected void entryRemoved(ImageSource key, Bitmap oldValue, Bitmap newValue, boolean evicted) {
+                if (evicted && isBitmapPoolable(key)) { // reuse bitmaps trimmed from the cache before they're used
+                    bitmapPool.release(oldValue);
+                }
+            }
+        };
 
-        Logger.log(Logger.INFO, String.format(Locale.US, "RenderResourceCache initialized  %,.0f KB  (%,.0f KB retrieval cache)",
-            this.getCapacity() / 1024.0, this.imageRetrieverCache.getCapacity() / 1024.0));
+        Logger.log(Logger.INFO, String.format(Locale.US, "RenderResourceCache initialized  %,.0f KB  (%,.0f KB retrieval cache, %,.0f KB bitmap pool)",
+            this.getCapacity() / 1024.0, this.imageRetrieverCache.getCapacity() / 1024.0, this.bitmapPool.getCapacity() / 1024.0));
     }
 
     public static int recommendedCapacity() {
         return (int) (Runtime.getRuntime().maxMemory() * 0.75); // Use maximum 75% of available application heap
     }
 
+    public BitmapPool getBitmapPool() {
+        return this.bitmapPool;
+    }
+
     public Resources getResources() {
         return this.resources;
     }
@@ -80,10 +96,12 @@ public class RenderResourceCache extends LruMemoryCache<Object, RenderResource>
 
     public void clear() { // TODO rename as contextLost to clarify this method's purpose for RenderResourceCache
         this.handler.removeMessages(TRIM_STALE_RETRIEVALS);
-        this.entries.clear(); // the cache entries are invalid; clear but don't call entryRemoved
+        synchronized (this.lock) {
+            this.entries.clear(); // the cache entries are invalid; clear but don't call entryRemoved
+            this.usedCapacity = 0;
+        }
         this.evictionQueue.clear(); // the eviction queue no longer needs to be processed
         this.imageRetrieverCache.clear(); // the retrieval queue should be cleared to make room
-        this.usedCapacity = 0;
     }
 
     public void releaseEvictedResources(DrawContext dc) {
@@ -126,6 +144,9 @@ public class RenderResourceCache extends LruMemoryCache<Object, RenderResource>
         Bitmap bitmap = this.imageRetrieverCache.remove(imageSource);
         if (bitmap != null) {
             Texture texture = this.createTexture(imageSource, options, bitmap);
+            if (this.isBitmapPoolable(imageSource)) {
+                texture.setImageBitmapPool(this.bitmapPool); // reuse the bitmap after its pixels are loaded by OpenGL
+            }
             this.put(imageSource, texture, texture.getByteCount());
             return texture;
         }
@@ -158,6 +179,14 @@ public class RenderResourceCache extends LruMemoryCache<Object, RenderResource>
         return texture;
     }
 
+    /**
+     * Indicates whether bitmaps retrieved for an image source are owned by this cache, and may be reused once they're
+     * no longer needed. Bitmaps created by the application, by a bitmap factory or by a bitmap transformer are not.
+     */
+    protected boolean isBitmapPoolable(ImageSource imageSource) {
+        return imageSource.isResource() || imageSource.isFilePath() || (imageSource.isUrl() && imageSource.transformer == null);
+    }
+
     @Override
     public void retrievalSucceeded(Retriever<ImageSource, ImageOptions, Bitmap> retriever, ImageSource key, ImageOptions options, Bitmap value) {
         this.imageRetrieverCache.put(key, value, value.getByteCount());
@@ -11,6 +11,7 @@ import android.opengl.GLUtils;
 import android.util.SparseIntArray;
 
 import gov.nasa.worldwind.draw.DrawContext;
+import gov.nasa.worldwind.draw.UploadScheduler;
 import gov.nasa.worldwind.geom.Matrix3;
 import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.WWMath;
@@ -39,6 +40,8 @@ public class Texture implements RenderResource {
 
     protected boolean imageHasMipMap; /*TODO consider using Bitmap.hasMipMap*/
 
+    protected BitmapPool imageBitmapPool;
+
     private boolean pickMode;
 
     public Texture(Bitmap bitmap) {
@@ -91,6 +94,20 @@ public class Texture implements RenderResource {
         return this.texCoordTransform;
     }
 
+    public BitmapPool getImageBitmapPool() {
+        return this.imageBitmapPool;
+    }
+
+    /**
+     * Specifies a pool to return this texture's bitmap to once its image data has been loaded, or once the texture is
+     * released without being used. The bitmap must be owned by this texture.
+     *
+     * @param pool the pool that receives this texture's bitmap, or null to discard the bitmap
+     */
+    public void setImageBitmapPool(BitmapPool pool) {
+        this.imageBitmapPool = pool;
+    }
+
     public int getTexParameter(int name) {
         return (this.texParameters != null) ? this.texParameters.get(name) : 0;
     }
@@ -110,6 +127,7 @@ public class Texture implements RenderResource {
         }
 
         if (this.imageBitmap != null) {
+            this.releaseImageBitmap(this.imageBitmap);
             this.imageBitmap = null; // imageBitmap can be non-null if the texture has never been used
         }
     }
@@ -140,6 +158,15 @@ public class Texture implements RenderResource {
     }
 
     protected void createTexture(DrawContext dc) {
+        // Defer loading the texture's image data when this frame's upload budget is exhausted. The texture remains
+        // uninitialized and fails to bind until a subsequent frame loads its image data.
+        UploadScheduler scheduler = dc.uploadScheduler();
+        int uploadByteCount = (this.imageBitmap != null) ? this.textureByteCount : 0;
+        if (uploadByteCount > 0 && !dc.pickMode && !scheduler.requestUpload(uploadByteCount)) {
+            return;
+        }
+
+        long uploadBegin = System.nanoTime();
         int currentTexture = dc.currentTexture();
         try {
             // Create the OpenGL texture 2D object.
@@ -150,6 +177,7 @@ public class Texture implements RenderResource {
             // Specify the texture object's image data, either by loading a bitmap or by allocating an empty image.
             if (this.imageBitmap != null) {
                 this.loadTexImage(dc, this.imageBitmap);
+                this.releaseImageBitmap(this.imageBitmap); // OpenGL has a copy of the bitmap's pixels
                 this.imageBitmap = null;
             } else {
                 this.allocTexImage(dc);
@@ -161,6 +189,16 @@ public class Texture implements RenderResource {
             // Restore the current OpenGL texture object binding.
             GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, currentTexture);
         }
+
+        if (uploadByteCount > 0) {
+            scheduler.uploadCompleted(uploadByteCount, System.nanoTime() - uploadBegin);
+        }
+    }
+
+    protected void releaseImageBitmap(Bitmap bitmap) {
+        if (this.imageBitmapPool != null) {
+            this.imageBitmapPool.release(bitmap);
+        }
     }
 
     protected void deleteTexture(DrawContext dc) {
@@ -5,16 +5,30 @@
 
 package gov.nasa.worldwind.shape;
 
+import android.opengl.GLES20;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
 import gov.nasa.worldwind.PickedObject;
 import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.geom.BoundingBox;
+import gov.nasa.worldwind.geom.Line;
 import gov.nasa.worldwind.geom.Matrix3;
+import gov.nasa.worldwind.geom.Position;
 import gov.nasa.worldwind.geom.Sector;
 import gov.nasa.worldwind.geom.Vec3;
 import gov.nasa.worldwind.render.AbstractRenderable;
+import gov.nasa.worldwind.render.BufferObject;
 import gov.nasa.worldwind.render.Color;
 import gov.nasa.worldwind.render.RenderContext;
 import gov.nasa.worldwind.render.Texture;
+import gov.nasa.worldwind.util.IntArray;
+import gov.nasa.worldwind.util.Logger;
+import gov.nasa.worldwind.util.ShortArray;
 import gov.nasa.worldwind.util.WWMath;
 
 public abstract class AbstractShape extends AbstractRenderable implements Attributable, Highlightable {
@@ -35,6 +49,16 @@ public abstract class AbstractShape extends AbstractRenderable implements Attrib
 
     protected int maximumIntermediatePoints = 10;
 
+    protected double levelOfDetailTolerance = 1;
+
+    protected boolean backgroundAssembly;
+
+    protected ShapeGeometryAssembler.Job assemblyJob;
+
+    protected boolean assemblyFailed;
+
+    protected boolean geometryStale;
+
     protected int pickedObjectId;
 
     protected Color pickColor = new Color();
@@ -45,8 +69,15 @@ public abstract class AbstractShape extends AbstractRenderable implements Attrib
 
     protected static final double NEAR_ZERO_THRESHOLD = 1.0e-10;
 
+    /**
+     * Level of detail tolerances for geometry that has only its full resolution level.
+     */
+    protected static final double[] FULL_RESOLUTION_ONLY = {0};
+
     private Vec3 scratchPoint = new Vec3();
 
+    private Line pickLine = new Line();
+
     public AbstractShape() {
         this.attributes = new ShapeAttributes();
     }
@@ -113,6 +144,58 @@ public abstract class AbstractShape extends AbstractRenderable implements Attrib
         this.maximumIntermediatePoints = maximumIntermediatePoints;
     }
 
+    /**
+     * Indicates the maximum screen-space error, in pixels, permitted when drawing a simplified version of this
+     * shape's geometry. See {@link #setLevelOfDetailTolerance(double)}.
+     *
+     * @return the level of detail tolerance in pixels
+     */
+    public double getLevelOfDetailTolerance() {
+        return this.levelOfDetailTolerance;
+    }
+
+    /**
+     * Specifies the maximum screen-space error, in pixels, permitted when drawing a simplified version of this shape's
+     * geometry. Shapes with many positions precompute simplified levels of detail when their geometry is assembled,
+     * and each frame draw the coarsest level whose deviation from the full resolution geometry is no larger than this
+     * many pixels at the shape's distance from the camera. A tolerance of 0 always draws the full resolution geometry.
+     * The default tolerance is 1 pixel.
+     *
+     * @param tolerance the level of detail tolerance in pixels
+     *
+     * @throws IllegalArgumentException If the tolerance is negative
+     */
+    public void setLevelOfDetailTolerance(double tolerance) {
+        if (tolerance < 0) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "AbstractShape", "setLevelOfDetailTolerance", "invalidTolerance"));
+        }
+
+        this.levelOfDetailTolerance = tolerance;
+    }
+
+    /**
+     * Indicates whether this shape assembles its geometry on worker threads. See {@link
+     * #setBackgroundAssembly(boolean)}.
+     *
+     * @return true if geometry is assembled in the background, otherwise false
+     */
+    public boolean isBackgroundAssembly() {
+        return this.backgroundAssembly;
+    }
+
+    /**
+     * Specifies whether this shape assembles its geometry on worker threads instead of the render thread. When
+     * enabled, the shape continues to display its previous geometry, or nothing at all, until the newly assembled
+     * geometry is ready. Geometry that depends on the terrain, such as geometry with an altitude mode of
+     * RELATIVE_TO_GROUND, is always assembled on the render thread.
+     *
+     * @param backgroundAssembly true to assemble geometry in the background, otherwise false
+     */
+    public void setBackgroundAssembly(boolean backgroundAssembly) {
+        this.backgroundAssembly = backgroundAssembly;
+    }
+
     @Override
     protected void doRender(RenderContext rc) {
         // Don't render anything if the shape is not visible.
@@ -126,6 +209,12 @@ public abstract class AbstractShape extends AbstractRenderable implements Attrib
             return;
         }
 
+        // Don't render anything if the shape is hidden behind the globe. Shapes displayed without depth testing are
+        // displayed on top of the globe.
+        if (this.activeAttributes.depthTest && this.isBehindHorizon(rc)) {
+            return;
+        }
+
         // Keep track of the drawable count to determine whether or not this shape has enqueued drawables.
         int drawableCount = rc.drawableCount();
         if (rc.pickMode) {
@@ -133,9 +222,26 @@ public abstract class AbstractShape extends AbstractRenderable implements Attrib
             this.pickColor = PickedObject.identifierToUniqueColor(this.pickedObjectId, this.pickColor);
         }
 
+        // In analytic pick mode, intersect the pick ray with the shape's geometry instead of enqueuing drawables. Shapes
+        // displayed without depth testing are displayed on top of the terrain and other shapes.
+        if (rc.analyticPickMode) {
+            double distance = this.intersectPickRay(rc);
+            if (distance != Double.POSITIVE_INFINITY) {
+                rc.offerPickedObject(PickedObject.fromRenderable(this.pickedObjectId, this, rc.currentLayer),
+                    this.activeAttributes.depthTest ? distance : 0);
+            }
+            return;
+        }
+
         // Enqueue drawables for processing on the OpenGL thread.
         this.makeDrawable(rc);
 
+        // Record the shape's bounds for subsequent analytic picks, which then intersect only the shapes near the pick
+        // ray. The shape's bounds are current once its drawables are made.
+        if (rc.scenePickIndex != null && !rc.pickMode) {
+            this.recordPickBounds(rc);
+        }
+
         // Enqueue a picked object that associates the shape's drawables with its picked object ID.
         if (rc.pickMode && rc.drawableCount() != drawableCount) {
             rc.offerPickedObject(PickedObject.fromRenderable(this.pickedObjectId, this, rc.currentLayer));
@@ -146,6 +252,39 @@ public abstract class AbstractShape extends AbstractRenderable implements Attrib
         return this.boundingBox.isUnitBox() || this.boundingBox.intersectsFrustum(rc.frustum);
     }
 
+    protected boolean isBehindHorizon(RenderContext rc) {
+        return !this.boundingBox.isUnitBox() && rc.isBehindHorizon(this.boundingBox);
+    }
+
+    protected boolean mustAssembleInBackground(RenderContext rc) {
+        // Fall back to assembling in the foreground after a background assembly fails. The next property change tries
+        // the background again.
+        return this.backgroundAssembly && rc.geometryAssembler != null && !this.isTerrainDependent()
+            && !this.assemblyFailed;
+    }
+
+    protected boolean isTerrainDependent() {
+        return this.altitudeMode != WorldWind.ABSOLUTE;
+    }
+
+    protected void submitAssembly(RenderContext rc, ShapeGeometryAssembler.Assembly assembly) {
+        this.assemblyJob = rc.geometryAssembler.submit(rc, assembly); // null when the assembler is saturated
+    }
+
+    protected void cancelAssembly() {
+        if (this.assemblyJob != null) {
+            this.assemblyJob.cancel();
+            this.assemblyJob = null;
+        }
+
+        this.assemblyFailed = false;
+    }
+
+    protected void publishAssemblyFailure(Throwable failure) {
+        this.assemblyJob = null;
+        this.assemblyFailed = true; // assemble in the foreground in a subsequent frame
+    }
+
     protected void determineActiveAttributes(RenderContext rc) {
         if (this.highlighted && this.highlightAttributes != null) {
             this.activeAttributes = this.highlightAttributes;
@@ -185,6 +324,129 @@ public abstract class AbstractShape extends AbstractRenderable implements Attrib
         return Math.sqrt(minDistance2);
     }
 
+    /**
+     * Selects the coarsest level of detail whose tolerance satisfies this shape's level of detail tolerance at the
+     * specified distance from the camera.
+     *
+     * @param rc             the current render context
+     * @param tolerances     the tolerance of each level of detail, in increasing order
+     * @param cameraDistance the shape's distance from the camera, in meters
+     * @param geographic     true if the tolerances are expressed in degrees, false if they're expressed in meters
+     *
+     * @return the selected level's index
+     */
+    protected int selectLevelOfDetail(RenderContext rc, double[] tolerances, double cameraDistance, boolean geographic) {
+        if (tolerances.length == 1 || this.levelOfDetailTolerance == 0) {
+            return 0; // draw the full resolution geometry
+        }
+
+        double maxError = rc.pixelSizeAtDistance(cameraDistance) * this.levelOfDetailTolerance;
+        if (geographic) {
+            maxError = Math.toDegrees(maxError / rc.globe.getEquatorialRadius());
+        }
+
+        return ShapeSimplifier.selectLevel(tolerances, maxError);
+    }
+
+    /**
+     * Records this shape's bounds in the render context's scene pick index. Surface shapes record their bounding
+     * sector, and Cartesian shapes record their bounding box. Lines extend half their width beyond the shape's bounds.
+     *
+     * @param rc the current render context
+     */
+    protected void recordPickBounds(RenderContext rc) {
+        double pixels = this.activeAttributes.outlineWidth * 0.5;
+        if (!this.boundingSector.isEmpty()) {
+            rc.scenePickIndex.addSector(this, rc.currentLayer, this.boundingSector, pixels);
+        } else {
+            rc.scenePickIndex.addBoundingBox(this, rc.currentLayer, this.boundingBox, pixels);
+        }
+    }
+
+    /**
+     * Intersects the render context's pick ray with this shape in analytic pick mode. Shapes that support analytic
+     * picking override this method. The default implementation returns positive infinity, indicating that the shape
+     * cannot be picked analytically.
+     *
+     * @param rc the current render context
+     *
+     * @return the distance along the pick ray to the shape's nearest intersection, or positive infinity if the pick ray
+     * does not intersect the shape
+     */
+    protected double intersectPickRay(RenderContext rc) {
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Intersects the render context's pick ray with a shape's pick indices, which are null for element groups the
+     * shape's active attributes don't display. Cartesian shapes intersect the pick ray with their geometry. Surface
+     * shapes test the terrain position under the pick point against their geographic geometry, and are displayed at
+     * the terrain's distance along the pick ray.
+     *
+     * @param rc             the current render context
+     * @param indices        the pick index for each of the shape's element groups
+     * @param vertexOrigin   the origin of the shape's vertex coordinates
+     * @param isSurfaceShape true if the shape's vertices are in geographic coordinates
+     *
+     * @return the distance along the pick ray to the shape's nearest intersection, or positive infinity if the pick ray
+     * does not intersect the shape
+     */
+    protected double intersectPickIndices(RenderContext rc, ShapePickIndex[] indices, Vec3 vertexOrigin,
+                                          boolean isSurfaceShape) {
+        // Lines are picked within the analytic pick tolerance of their displayed width.
+        double linePixels = this.activeAttributes.outlineWidth * 0.5 + rc.analyticPickTolerance;
+
+        if (isSurfaceShape) {
+            Position terrainPosition = rc.pickTerrainPosition;
+            if (terrainPosition == null) {
+                return Double.POSITIVE_INFINITY; // the pick point is not over the terrain
+            }
+
+            double x = terrainPosition.longitude - vertexOrigin.x;
+            double y = terrainPosition.latitude - vertexOrigin.y;
+            double tolerance = Math.toDegrees(rc.pixelSizeAtDistance(rc.pickTerrainDistance) * linePixels / rc.globe.getEquatorialRadius());
+            for (ShapePickIndex index : indices) {
+                if (index != null && index.containsPoint(x, y, tolerance)) {
+                    return rc.pickTerrainDistance;
+                }
+            }
+
+            return Double.POSITIVE_INFINITY;
+        }
+
+        Line line = this.pickLine.set(rc.pickRay.origin, rc.pickRay.direction);
+        line.origin.subtract(vertexOrigin);
+        double toleranceRate = rc.pixelSizeAtDistance(linePixels);
+        double nearest = Double.POSITIVE_INFINITY;
+        for (ShapePickIndex index : indices) {
+            if (index != null) {
+                nearest = Math.min(nearest, index.intersectLine(line, 0, toleranceRate));
+            }
+        }
+
+        return nearest;
+    }
+
+    /**
+     * Assembles pick indices for a shape's full resolution element groups.
+     *
+     * @param vertexArray  the shape's vertex array
+     * @param vertexStride the number of values per vertex in the vertex array
+     * @param modes        the primitive mode of each element group
+     * @param elements     the shape's element groups, beginning with its full resolution element groups
+     *
+     * @return a pick index for each element group
+     */
+    protected static ShapePickIndex[] assemblePickIndices(float[] vertexArray, int vertexStride, int[] modes,
+                                                          IntArray[] elements) {
+        ShapePickIndex[] indices = new ShapePickIndex[modes.length];
+        for (int idx = 0; idx < modes.length; idx++) {
+            indices[idx] = new ShapePickIndex(vertexArray, vertexStride, modes[idx], elements[idx].array(), elements[idx].size());
+        }
+
+        return indices;
+    }
+
     protected Matrix3 computeRepeatingTexCoordTransform(Texture texture, double metersPerPixel, Matrix3 result) {
         Matrix3 texCoordMatrix = result.setToIdentity();
         texCoordMatrix.setScale(
@@ -195,6 +457,75 @@ public abstract class AbstractShape extends AbstractRenderable implements Attrib
         return texCoordMatrix;
     }
 
+    protected static BufferObject assembleVertexBuffer(float[] array, int count) {
+        int size = count * 4;
+        FloatBuffer buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder()).asFloatBuffer();
+        buffer.put(array, 0, count);
+        return new BufferObject(GLES20.GL_ARRAY_BUFFER, size, buffer.rewind());
+    }
+
+    /**
+     * Assembles an element buffer containing the specified element groups, stored contiguously in group order. The
+     * element indices are stored as GL_UNSIGNED_INT when intIndices is true, and as GL_UNSIGNED_SHORT otherwise.
+     */
+    protected static BufferObject assembleElementBuffer(IntArray[] elements, boolean intIndices) {
+        int count = 0;
+        for (IntArray group : elements) {
+            count += group.size();
+        }
+
+        if (intIndices) {
+            int size = count * 4;
+            IntBuffer buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder()).asIntBuffer();
+            for (IntArray group : elements) {
+                buffer.put(group.array(), 0, group.size());
+            }
+            return new BufferObject(GLES20.GL_ELEMENT_ARRAY_BUFFER, size, buffer.rewind());
+        } else {
+            int size = count * 2;
+            ShortBuffer buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder()).asShortBuffer();
+            for (IntArray group : elements) {
+                int[] array = group.array();
+                for (int idx = 0, len = group.size(); idx < len; idx++) {
+                    buffer.put((short) array[idx]);
+                }
+            }
+            return new BufferObject(GLES20.GL_ELEMENT_ARRAY_BUFFER, size, buffer.rewind());
+        }
+    }
+
+    protected static BufferObject assembleElementBuffer(ShortArray elements) {
+        int size = elements.size() * 2;
+        ShortBuffer buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder()).asShortBuffer();
+        buffer.put(elements.array(), 0, elements.size());
+        return new BufferObject(GLES20.GL_ELEMENT_ARRAY_BUFFER, size, buffer.rewind());
+    }
+
+    /**
+     * Computes the byte offset and element count of each element group stored contiguously in an element buffer.
+     */
+    protected static void computeElementRanges(IntArray[] elements, int bytesPerElement, int[] offsets, int[] counts) {
+        int offset = 0;
+        for (int idx = 0; idx < elements.length; idx++) {
+            offsets[idx] = offset;
+            counts[idx] = elements[idx].size();
+            offset += counts[idx] * bytesPerElement;
+        }
+    }
+
+    /**
+     * Repeats a shape's element modes once per level of detail, matching the layout of a shape's element groups when
+     * every level of detail is stored in a single element buffer.
+     */
+    protected static int[] levelElementModes(int[] modes, int levelCount) {
+        int[] result = new int[modes.length * levelCount];
+        for (int level = 0; level < levelCount; level++) {
+            System.arraycopy(modes, 0, result, level * modes.length, modes.length);
+        }
+
+        return result;
+    }
+
     protected abstract void reset();
 
     protected abstract void makeDrawable(RenderContext rc);
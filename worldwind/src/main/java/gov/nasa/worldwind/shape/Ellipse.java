@@ -11,7 +11,6 @@ import android.util.SparseArray;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
-import java.nio.ShortBuffer;
 
 import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.draw.DrawShapeState;
@@ -29,9 +28,9 @@ import gov.nasa.worldwind.render.BufferObject;
 import gov.nasa.worldwind.render.ImageOptions;
 import gov.nasa.worldwind.render.RenderContext;
 import gov.nasa.worldwind.render.Texture;
+import gov.nasa.worldwind.util.IntArray;
 import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.Pool;
-import gov.nasa.worldwind.util.ShortArray;
 
 /**
  * Ellipse shape defined by a geographic center position and radii for the semi-major and semi-minor axes.
@@ -70,6 +69,12 @@ public class Ellipse extends AbstractShape {
      */
     protected static final int MIN_INTERVALS = 32;
 
+    /**
+     * The maximum number of intervals whose geometry can be addressed by 16-bit element indices. Ellipses are limited to
+     * this number of intervals when the OpenGL implementation does not support 32-bit element indices.
+     */
+    protected static final int MAX_SHORT_INDEX_INTERVALS = 26214;
+
     /**
      * Key for Range object in the element buffer describing the top of the Ellipse.
      */
@@ -143,6 +148,16 @@ public class Ellipse extends AbstractShape {
      */
     protected int activeIntervals;
 
+    /**
+     * The number of intervals required by the most recent frame. Becomes the active number of intervals once geometry
+     * is assembled with that number of intervals.
+     */
+    protected int requiredIntervals;
+
+    protected int elementType;
+
+    protected int bytesPerElement;
+
     protected float[] vertexArray;
 
     protected int vertexIndex;
@@ -165,9 +180,9 @@ public class Ellipse extends AbstractShape {
 
     protected Vec3 prevPoint = new Vec3();
 
-    private static Position scratchPosition = new Position();
+    private Position scratchPosition = new Position();
 
-    private static Vec3 scratchPoint = new Vec3();
+    private Vec3 scratchPoint = new Vec3();
 
     static {
         defaultInteriorImageOptions.wrapMode = WorldWind.REPEAT;
@@ -447,8 +462,21 @@ public class Ellipse extends AbstractShape {
         }
 
         if (this.mustAssembleGeometry(rc)) {
-            this.assembleGeometry(rc);
-            this.vertexBufferKey = new Object();
+            if (this.mustAssembleInBackground(rc)) {
+                if (this.assemblyJob == null && !rc.geometryAssembler.isSaturated()) {
+                    this.submitAssembly(rc, new GeometryAssembly(this));
+                }
+            } else {
+                this.cancelAssembly();
+                this.activeIntervals = this.requiredIntervals;
+                this.assembleGeometry(rc);
+                this.geometryStale = false;
+                this.vertexBufferKey = new Object();
+            }
+        }
+
+        if (this.vertexArray == null) {
+            return; // geometry is being assembled in the background
         }
 
         // Obtain a drawable form the render context pool.
@@ -490,6 +518,11 @@ public class Ellipse extends AbstractShape {
             elementBufferKeys.put(this.activeIntervals, elementBufferKey);
         }
 
+        // Use 32-bit element indices when 16-bit element indices cannot address every vertex.
+        boolean intIndices = mustUseIntIndices(this.activeIntervals);
+        this.elementType = intIndices ? GLES20.GL_UNSIGNED_INT : GLES20.GL_UNSIGNED_SHORT;
+        this.bytesPerElement = intIndices ? 4 : 2;
+
         drawState.elementBuffer = rc.getBufferObject(elementBufferKey);
         if (drawState.elementBuffer == null) {
             drawState.elementBuffer = assembleElements(this.activeIntervals);
@@ -544,13 +577,13 @@ public class Ellipse extends AbstractShape {
         drawState.texCoordAttrib(2 /*size*/, 12 /*offset in bytes*/);
         Range top = drawState.elementBuffer.ranges.get(TOP_RANGE);
         drawState.drawElements(GLES20.GL_TRIANGLE_STRIP, top.length(),
-            GLES20.GL_UNSIGNED_SHORT, top.lower * 2 /*offset*/);
+            this.elementType, top.lower * this.bytesPerElement /*offset*/);
 
         if (this.extrude) {
             Range side = drawState.elementBuffer.ranges.get(SIDE_RANGE);
             drawState.texture(null);
             drawState.drawElements(GLES20.GL_TRIANGLE_STRIP, side.length(),
-                GLES20.GL_UNSIGNED_SHORT, side.lower * 2);
+                this.elementType, side.lower * this.bytesPerElement);
         }
     }
 
@@ -581,7 +614,7 @@ public class Ellipse extends AbstractShape {
         drawState.texCoordAttrib(1 /*size*/, 20 /*offset in bytes*/);
         Range outline = drawState.elementBuffer.ranges.get(OUTLINE_RANGE);
         drawState.drawElements(GLES20.GL_LINE_LOOP, outline.length(),
-            GLES20.GL_UNSIGNED_SHORT, outline.lower * 2 /*offset*/);
+            this.elementType, outline.lower * this.bytesPerElement /*offset*/);
 
         if (this.activeAttributes.drawVerticals && this.extrude) {
             Range side = drawState.elementBuffer.ranges.get(SIDE_RANGE);
@@ -589,21 +622,56 @@ public class Ellipse extends AbstractShape {
             drawState.lineWidth(this.activeAttributes.outlineWidth);
             drawState.texture(null);
             drawState.drawElements(GLES20.GL_LINES, side.length(),
-                GLES20.GL_UNSIGNED_SHORT, side.lower * 2);
+                this.elementType, side.lower * this.bytesPerElement);
         }
     }
 
     protected boolean mustAssembleGeometry(RenderContext rc) {
         int calculatedIntervals = this.computeIntervals(rc);
         int sanitizedIntervals = this.sanitizeIntervals(calculatedIntervals);
-        if (this.vertexArray == null || sanitizedIntervals != this.activeIntervals) {
-            this.activeIntervals = sanitizedIntervals;
+        if (!rc.elementIndexUint) {
+            sanitizedIntervals = Math.min(sanitizedIntervals, MAX_SHORT_INDEX_INTERVALS);
+        }
+        if (this.vertexArray == null || this.geometryStale || sanitizedIntervals != this.activeIntervals) {
+            this.requiredIntervals = sanitizedIntervals;
             return true;
         }
 
         return false;
     }
 
+    @Override
+    protected boolean isTerrainDependent() {
+        // Surface ellipse geometry is assembled in geographic coordinates, independent of the terrain.
+        boolean isSurfaceShape = (this.altitudeMode == WorldWind.CLAMP_TO_GROUND) && this.followTerrain;
+        return super.isTerrainDependent() && !isSurfaceShape;
+    }
+
+    protected Ellipse newGeometryBuilder() {
+        Ellipse builder = new Ellipse();
+        builder.altitudeMode = this.altitudeMode;
+        builder.center = new Position(this.center);
+        builder.majorRadius = this.majorRadius;
+        builder.minorRadius = this.minorRadius;
+        builder.heading = this.heading;
+        builder.extrude = this.extrude;
+        builder.followTerrain = this.followTerrain;
+        builder.activeIntervals = this.requiredIntervals;
+        return builder;
+    }
+
+    protected void publishGeometry(Ellipse builder) {
+        this.assemblyJob = null;
+        this.geometryStale = false;
+        this.activeIntervals = builder.activeIntervals;
+        this.isSurfaceShape = builder.isSurfaceShape;
+        this.vertexArray = builder.vertexArray;
+        this.vertexOrigin.set(builder.vertexOrigin);
+        this.boundingBox = builder.boundingBox;
+        this.boundingSector.set(builder.boundingSector);
+        this.vertexBufferKey = new Object();
+    }
+
     protected void assembleGeometry(RenderContext rc) {
         // Determine whether the shape geometry must be assembled as Cartesian geometry or as goegraphic geometry.
         this.isSurfaceShape = (this.altitudeMode == WorldWind.CLAMP_TO_GROUND) && this.followTerrain;
@@ -693,59 +761,56 @@ public class Ellipse extends AbstractShape {
 
     protected static BufferObject assembleElements(int intervals) {
         // Create temporary storage for elements
-        ShortArray elements = new ShortArray();
+        IntArray elements = new IntArray();
 
         // Generate the top element buffer with spine
         int interiorIdx = intervals;
         int offset = computeIndexOffset(intervals);
 
         // Add the anchor leg
-        elements.add((short) 0);
-        elements.add((short) 1);
+        elements.add(0);
+        elements.add(1);
         // Tessellate the interior
         for (int i = 2; i < intervals; i++) {
             // Add the corresponding interior spine point if this isn't the vertex following the last vertex for the
             // negative major axis
             if (i != (intervals / 2 + 1)) {
                 if (i > intervals / 2) {
-                    elements.add((short) --interiorIdx);
+                    elements.add(--interiorIdx);
                 } else {
-                    elements.add((short) interiorIdx++);
+                    elements.add(interiorIdx++);
                 }
             }
             // Add the degenerate triangle at the negative major axis in order to flip the triangle strip back towards
             // the positive axis
             if (i == intervals / 2) {
-                elements.add((short) i);
+                elements.add(i);
             }
             // Add the exterior vertex
-            elements.add((short) i);
+            elements.add(i);
         }
         // Complete the strip
-        elements.add((short) --interiorIdx);
-        elements.add((short) 0);
+        elements.add(--interiorIdx);
+        elements.add(0);
         Range topRange = new Range(0, elements.size());
 
         // Generate the outline element buffer
         for (int i = 0; i < intervals; i++) {
-            elements.add((short) i);
+            elements.add(i);
         }
         Range outlineRange = new Range(topRange.upper, elements.size());
 
         // Generate the side element buffer
         for (int i = 0; i < intervals; i++) {
-            elements.add((short) i);
-            elements.add((short) (i + offset));
+            elements.add(i);
+            elements.add(i + offset);
         }
-        elements.add((short) 0);
-        elements.add((short) offset);
+        elements.add(0);
+        elements.add(offset);
         Range sideRange = new Range(outlineRange.upper, elements.size());
 
         // Generate a buffer for the element
-        int size = elements.size() * 2;
-        ShortBuffer buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder()).asShortBuffer();
-        buffer.put(elements.array(), 0, elements.size());
-        BufferObject elementBuffer = new BufferObject(GLES20.GL_ELEMENT_ARRAY_BUFFER, size, buffer.rewind());
+        BufferObject elementBuffer = assembleElementBuffer(new IntArray[]{elements}, mustUseIntIndices(intervals));
         elementBuffer.ranges.put(TOP_RANGE, topRange);
         elementBuffer.ranges.put(OUTLINE_RANGE, outlineRange);
         elementBuffer.ranges.put(SIDE_RANGE, sideRange);
@@ -850,8 +915,53 @@ public class Ellipse extends AbstractShape {
         return intervals + computeNumberSpinePoints(intervals);
     }
 
+    protected static boolean mustUseIntIndices(int intervals) {
+        // The largest element index is the last extruded side vertex, which follows the top and spine vertices.
+        int maxIndex = computeIndexOffset(intervals) + intervals - 1;
+        return maxIndex >= ShapeGeometryChunker.MAX_SHORT_INDEX_VERTICES;
+    }
+
     @Override
     protected void reset() {
+        this.cancelAssembly();
+
+        // Keep displaying the current geometry until its replacement is assembled in the background.
+        if (this.backgroundAssembly && this.vertexArray != null) {
+            this.geometryStale = true;
+            return;
+        }
+
         this.vertexArray = null;
     }
+
+    /**
+     * Assembles a snapshot of an ellipse's geometry on a worker thread, then hands the immutable result to the ellipse
+     * on the render thread.
+     */
+    protected static class GeometryAssembly implements ShapeGeometryAssembler.Assembly {
+
+        protected Ellipse shape;
+
+        protected Ellipse builder;
+
+        public GeometryAssembly(Ellipse shape) {
+            this.shape = shape;
+            this.builder = shape.newGeometryBuilder();
+        }
+
+        @Override
+        public void assemble(RenderContext rc) {
+            this.builder.assembleGeometry(rc);
+        }
+
+        @Override
+        public void publish() {
+            this.shape.publishGeometry(this.builder);
+        }
+
+        @Override
+        public void publishFailure(Throwable failure) {
+            this.shape.publishAssemblyFailure(failure);
+        }
+    }
 }
@@ -35,11 +35,6 @@ public class Label extends AbstractRenderable implements Highlightable, Movable
      */
     protected static final double DEFAULT_DEPTH_OFFSET = -0.1;
 
-    /**
-     * The label's properties associated with the current render pass.
-     */
-    private static RenderData renderData = new RenderData();
-
     /**
      * The label's geographic position.
      */
@@ -378,6 +373,8 @@ public class Label extends AbstractRenderable implements Highlightable, Movable
             return; // no text to render
         }
 
+        RenderData renderData = getRenderData(rc);
+
         // Compute the label's Cartesian model point.
         rc.geographicToCartesian(this.position.latitude, this.position.longitude, this.position.altitude,
             this.altitudeMode, renderData.placePoint);
@@ -429,6 +426,8 @@ public class Label extends AbstractRenderable implements Highlightable, Movable
     }
 
     protected void makeDrawable(RenderContext rc) {
+        RenderData renderData = getRenderData(rc);
+
         // Render the label's texture when the label's position is in the frustum. If the label's position is outside
         // the frustum we don't do anything. This ensures that label textures are rendered only as necessary.
         Texture texture = rc.getText(this.text, this.activeAttributes);
@@ -499,6 +498,24 @@ public class Label extends AbstractRenderable implements Highlightable, Movable
         rc.offerShapeDrawable(drawable, renderData.cameraDistance);
     }
 
+    /**
+     * Returns the properties associated with labels during the current render pass. Each render context holds its own
+     * properties, since labels in different layers may render concurrently with different render contexts.
+     *
+     * @param rc the current render context
+     *
+     * @return the render context's label properties
+     */
+    protected static RenderData getRenderData(RenderContext rc) {
+        RenderData renderData = rc.getScratch(RenderData.class);
+        if (renderData == null) {
+            renderData = new RenderData();
+            rc.putScratch(RenderData.class, renderData);
+        }
+
+        return renderData;
+    }
+
     /**
      * Properties associated with the label during a render pass.
      */
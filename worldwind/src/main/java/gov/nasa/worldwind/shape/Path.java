@@ -7,10 +7,7 @@ package gov.nasa.worldwind.shape;
 
 import android.opengl.GLES20;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.FloatBuffer;
-import java.nio.ShortBuffer;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -29,9 +26,9 @@ import gov.nasa.worldwind.render.ImageOptions;
 import gov.nasa.worldwind.render.RenderContext;
 import gov.nasa.worldwind.render.Texture;
 import gov.nasa.worldwind.util.FloatArray;
+import gov.nasa.worldwind.util.IntArray;
 import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.Pool;
-import gov.nasa.worldwind.util.ShortArray;
 
 public class Path extends AbstractShape {
 
@@ -39,6 +36,16 @@ public class Path extends AbstractShape {
 
     protected static final ImageOptions defaultOutlineImageOptions = new ImageOptions();
 
+    protected static final int INTERIOR_ELEMENTS = 0;
+
+    protected static final int OUTLINE_ELEMENTS = 1;
+
+    protected static final int VERTICAL_ELEMENTS = 2;
+
+    protected static final int[] ELEMENT_MODES = {GLES20.GL_TRIANGLE_STRIP, GLES20.GL_LINE_STRIP, GLES20.GL_LINES};
+
+    protected static final IntArray[][] NO_SIMPLIFIED_ELEMENTS = new IntArray[0][];
+
     protected List<Position> positions = Collections.emptyList();
 
     protected boolean extrude;
@@ -47,20 +54,58 @@ public class Path extends AbstractShape {
 
     protected FloatArray vertexArray = new FloatArray();
 
-    protected ShortArray interiorElements = new ShortArray();
+    protected IntArray interiorElements = new IntArray();
+
+    protected IntArray outlineElements = new IntArray();
 
-    protected ShortArray outlineElements = new ShortArray();
+    protected IntArray verticalElements = new IntArray();
 
-    protected ShortArray verticalElements = new ShortArray();
+    /**
+     * The tolerance of each level of detail, in meters for Cartesian geometry and in degrees for surface geometry.
+     * Level 0 is the full resolution geometry.
+     */
+    protected double[] levelTolerances = FULL_RESOLUTION_ONLY;
+
+    /**
+     * The element groups of each simplified level of detail, starting with level 1. Simplified levels share the full
+     * resolution vertex array.
+     */
+    protected IntArray[][] simplifiedElements = NO_SIMPLIFIED_ELEMENTS;
+
+    protected int levelOfDetail;
 
     protected Object vertexBufferKey = nextCacheKey();
 
     protected Object elementBufferKey = nextCacheKey();
 
+    /**
+     * The shape's geometry divided into chunks addressable by 16-bit element indices. Computed when the shape's
+     * geometry cannot be addressed by 16-bit indices and the OpenGL implementation does not support 32-bit indices.
+     */
+    protected List<ShapeGeometryChunker.Chunk> elementChunks;
+
+    protected int elementType;
+
+    protected int[] elementOffsets = new int[ELEMENT_MODES.length];
+
+    protected int[] elementCounts = new int[ELEMENT_MODES.length];
+
+    protected int[] levelElementOffsets = new int[ELEMENT_MODES.length];
+
+    protected int[] levelElementCounts = new int[ELEMENT_MODES.length];
+
+    protected ShapePickIndex[] pickIndices;
+
+    protected Object pickIndexKey;
+
+    protected ShapePickIndex[] activePickIndices = new ShapePickIndex[ELEMENT_MODES.length];
+
     protected Vec3 vertexOrigin = new Vec3();
 
     protected boolean isSurfaceShape;
 
+    protected double cameraDistance;
+
     protected double texCoord1d;
 
     private Vec3 point = new Vec3();
@@ -140,10 +185,20 @@ public class Path extends AbstractShape {
     }
 
     protected void reset() {
+        this.cancelAssembly();
+
+        // Keep displaying the current geometry until its replacement is assembled in the background.
+        if (this.backgroundAssembly && this.vertexArray.size() != 0) {
+            this.geometryStale = true;
+            return;
+        }
+
         this.vertexArray.clear();
         this.interiorElements.clear();
         this.outlineElements.clear();
         this.verticalElements.clear();
+        this.levelTolerances = FULL_RESOLUTION_ONLY;
+        this.simplifiedElements = NO_SIMPLIFIED_ELEMENTS;
     }
 
     @Override
@@ -152,27 +207,159 @@ public class Path extends AbstractShape {
             return; // nothing to draw
         }
 
+        this.prepareGeometry(rc);
+
+        if (this.vertexArray.size() == 0) {
+            return; // geometry is being assembled in the background
+        }
+
+        // Determine the shape's distance from the camera, shared by all of the shape's drawables.
+        if (this.isSurfaceShape) {
+            this.cameraDistance = this.cameraDistanceGeographic(rc, this.boundingSector);
+        } else {
+            this.cameraDistance = this.cameraDistanceCartesian(rc, this.vertexArray.array(), this.vertexArray.size(), VERTEX_STRIDE, this.vertexOrigin);
+        }
+
+        // Select the coarsest level of detail that's indistinguishable from the full resolution geometry at the
+        // shape's distance from the camera. Every level is stored in the same buffers, so changing the level only
+        // changes the range of elements drawn.
+        this.levelOfDetail = this.selectLevelOfDetail(rc, this.levelTolerances, this.cameraDistance, this.isSurfaceShape);
+        int levelGroup = this.levelOfDetail * ELEMENT_MODES.length;
+
+        int vertexCount = this.vertexArray.size() / VERTEX_STRIDE;
+        if (vertexCount <= ShapeGeometryChunker.MAX_SHORT_INDEX_VERTICES || rc.elementIndexUint) {
+            // Draw the shape with a single drawable, using 32-bit element indices only when 16-bit element indices
+            // cannot address every vertex.
+            boolean intIndices = vertexCount > ShapeGeometryChunker.MAX_SHORT_INDEX_VERTICES;
+            IntArray[] elements = this.elementGroups();
+
+            // Assemble the drawable's OpenGL vertex buffer object.
+            BufferObject vertexBuffer = rc.getBufferObject(this.vertexBufferKey);
+            if (vertexBuffer == null) {
+                vertexBuffer = assembleVertexBuffer(this.vertexArray.array(), this.vertexArray.size());
+                rc.putBufferObject(this.vertexBufferKey, vertexBuffer);
+            }
+
+            // Assemble the drawable's OpenGL element buffer object.
+            BufferObject elementBuffer = rc.getBufferObject(this.elementBufferKey);
+            if (elementBuffer == null) {
+                elementBuffer = assembleElementBuffer(elements, intIndices);
+                rc.putBufferObject(this.elementBufferKey, elementBuffer);
+            }
+
+            if (this.levelElementOffsets.length != elements.length) {
+                this.levelElementOffsets = new int[elements.length];
+                this.levelElementCounts = new int[elements.length];
+            }
+
+            this.elementType = intIndices ? GLES20.GL_UNSIGNED_INT : GLES20.GL_UNSIGNED_SHORT;
+            computeElementRanges(elements, intIndices ? 4 : 2, this.levelElementOffsets, this.levelElementCounts);
+            System.arraycopy(this.levelElementOffsets, levelGroup, this.elementOffsets, 0, ELEMENT_MODES.length);
+            System.arraycopy(this.levelElementCounts, levelGroup, this.elementCounts, 0, ELEMENT_MODES.length);
+            this.offerDrawable(rc, vertexBuffer, elementBuffer);
+        } else {
+            // Draw the shape with one drawable per chunk of geometry addressable by 16-bit element indices.
+            if (this.elementChunks == null) {
+                int[] modes = levelElementModes(ELEMENT_MODES, this.levelTolerances.length);
+                this.elementChunks = new ShapeGeometryChunker().chunk(this.vertexArray.array(), VERTEX_STRIDE, modes, this.elementGroups());
+            }
+
+            for (int idx = 0, len = this.elementChunks.size(); idx < len; idx++) {
+                ShapeGeometryChunker.Chunk chunk = this.elementChunks.get(idx);
+
+                int levelElementCount = 0;
+                for (int group = 0; group < ELEMENT_MODES.length; group++) {
+                    levelElementCount += chunk.elementCounts[levelGroup + group];
+                }
+
+                if (levelElementCount == 0) {
+                    continue; // the chunk has no elements at the selected level of detail
+                }
+
+                BufferObject vertexBuffer = rc.getBufferObject(chunk.vertexBufferKey);
+                if (vertexBuffer == null) {
+                    vertexBuffer = assembleVertexBuffer(chunk.vertexArray.array(), chunk.vertexArray.size());
+                    rc.putBufferObject(chunk.vertexBufferKey, vertexBuffer);
+                }
+
+                BufferObject elementBuffer = rc.getBufferObject(chunk.elementBufferKey);
+                if (elementBuffer == null) {
+                    elementBuffer = assembleElementBuffer(chunk.elements);
+                    rc.putBufferObject(chunk.elementBufferKey, elementBuffer);
+                }
+
+                this.elementType = GLES20.GL_UNSIGNED_SHORT;
+                for (int group = 0; group < ELEMENT_MODES.length; group++) {
+                    this.elementOffsets[group] = chunk.elementOffsets[levelGroup + group] * 2;
+                    this.elementCounts[group] = chunk.elementCounts[levelGroup + group];
+                }
+                this.offerDrawable(rc, vertexBuffer, elementBuffer);
+            }
+        }
+    }
+
+    /**
+     * Assembles the shape's geometry if it's missing or stale, either immediately or in the background.
+     *
+     * @param rc the current render context
+     */
+    protected void prepareGeometry(RenderContext rc) {
         if (this.mustAssembleGeometry(rc)) {
-            this.assembleGeometry(rc);
-            this.vertexBufferKey = nextCacheKey();
-            this.elementBufferKey = nextCacheKey();
+            if (this.mustAssembleInBackground(rc)) {
+                if (this.assemblyJob == null && !rc.geometryAssembler.isSaturated()) {
+                    this.submitAssembly(rc, new GeometryAssembly(this));
+                }
+            } else {
+                this.cancelAssembly();
+                this.assembleGeometry(rc);
+                this.geometryStale = false;
+                this.vertexBufferKey = nextCacheKey();
+                this.elementBufferKey = nextCacheKey();
+                this.elementChunks = null;
+            }
+        }
+    }
+
+    @Override
+    protected double intersectPickRay(RenderContext rc) {
+        if (this.positions.isEmpty()) {
+            return Double.POSITIVE_INFINITY; // nothing to pick
         }
 
-        // Obtain a drawable form the render context pool, and compute distance to the render camera.
+        this.prepareGeometry(rc);
+
+        if (this.vertexArray.size() == 0) {
+            return Double.POSITIVE_INFINITY; // geometry is being assembled in the background
+        }
+
+        // Index the shape's full resolution geometry the first time it's picked after its geometry is assembled.
+        if (this.pickIndexKey != this.vertexBufferKey) {
+            this.pickIndices = assemblePickIndices(this.vertexArray.array(), VERTEX_STRIDE, ELEMENT_MODES, this.elementGroups());
+            this.pickIndexKey = this.vertexBufferKey;
+        }
+
+        // Intersect the element groups displayed with the shape's active attributes.
+        ShapePickIndex[] indices = this.activePickIndices;
+        indices[INTERIOR_ELEMENTS] = (this.activeAttributes.drawInterior && this.extrude) ? this.pickIndices[INTERIOR_ELEMENTS] : null;
+        indices[OUTLINE_ELEMENTS] = this.activeAttributes.drawOutline ? this.pickIndices[OUTLINE_ELEMENTS] : null;
+        indices[VERTICAL_ELEMENTS] = (this.activeAttributes.drawOutline && this.activeAttributes.drawVerticals && this.extrude) ? this.pickIndices[VERTICAL_ELEMENTS] : null;
+
+        return this.intersectPickIndices(rc, indices, this.vertexOrigin, this.isSurfaceShape);
+    }
+
+    protected void offerDrawable(RenderContext rc, BufferObject vertexBuffer, BufferObject elementBuffer) {
+        // Obtain a drawable form the render context pool.
         Drawable drawable;
         DrawShapeState drawState;
-        double cameraDistance;
         if (this.isSurfaceShape) {
             Pool<DrawableSurfaceShape> pool = rc.getDrawablePool(DrawableSurfaceShape.class);
             drawable = DrawableSurfaceShape.obtain(pool);
             drawState = ((DrawableSurfaceShape) drawable).drawState;
-            cameraDistance = this.cameraDistanceGeographic(rc, this.boundingSector);
             ((DrawableSurfaceShape) drawable).sector.set(this.boundingSector);
         } else {
             Pool<DrawableShape> pool = rc.getDrawablePool(DrawableShape.class);
             drawable = DrawableShape.obtain(pool);
             drawState = ((DrawableShape) drawable).drawState;
-            cameraDistance = this.cameraDistanceCartesian(rc, this.vertexArray.array(), this.vertexArray.size(), VERTEX_STRIDE, this.vertexOrigin);
         }
 
         // Use the basic GLSL program to draw the shape.
@@ -181,27 +368,9 @@ public class Path extends AbstractShape {
             drawState.program = (BasicShaderProgram) rc.putShaderProgram(BasicShaderProgram.KEY, new BasicShaderProgram(rc.resources));
         }
 
-        // Assemble the drawable's OpenGL vertex buffer object.
-        drawState.vertexBuffer = rc.getBufferObject(this.vertexBufferKey);
-        if (drawState.vertexBuffer == null) {
-            int size = this.vertexArray.size() * 4;
-            FloatBuffer buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder()).asFloatBuffer();
-            buffer.put(this.vertexArray.array(), 0, this.vertexArray.size());
-            drawState.vertexBuffer = new BufferObject(GLES20.GL_ARRAY_BUFFER, size, buffer.rewind());
-            rc.putBufferObject(this.vertexBufferKey, drawState.vertexBuffer);
-        }
-
-        // Assemble the drawable's OpenGL element buffer object.
-        drawState.elementBuffer = rc.getBufferObject(this.elementBufferKey);
-        if (drawState.elementBuffer == null) {
-            int size = (this.interiorElements.size() * 2) + (this.outlineElements.size() * 2) + (this.verticalElements.size() * 2);
-            ShortBuffer buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder()).asShortBuffer();
-            buffer.put(this.interiorElements.array(), 0, this.interiorElements.size());
-            buffer.put(this.outlineElements.array(), 0, this.outlineElements.size());
-            buffer.put(this.verticalElements.array(), 0, this.verticalElements.size());
-            drawState.elementBuffer = new BufferObject(GLES20.GL_ELEMENT_ARRAY_BUFFER, size, buffer.rewind());
-            rc.putBufferObject(this.elementBufferKey, drawState.elementBuffer);
-        }
+        // Use the shape's OpenGL vertex buffer object and element buffer object.
+        drawState.vertexBuffer = vertexBuffer;
+        drawState.elementBuffer = elementBuffer;
 
         // Configure the drawable's vertex texture coordinate attribute.
         drawState.texCoordAttrib(1 /*size*/, 12 /*stride in bytes*/);
@@ -213,7 +382,7 @@ public class Path extends AbstractShape {
                 texture = rc.retrieveTexture(this.activeAttributes.outlineImageSource, defaultOutlineImageOptions);
             }
             if (texture != null) {
-                double metersPerPixel = rc.pixelSizeAtDistance(cameraDistance);
+                double metersPerPixel = rc.pixelSizeAtDistance(this.cameraDistance);
                 this.computeRepeatingTexCoordTransform(texture, metersPerPixel, this.texCoordMatrix);
                 drawState.texture(texture);
                 drawState.texCoordMatrix(texCoordMatrix);
@@ -225,8 +394,8 @@ public class Path extends AbstractShape {
         if (this.activeAttributes.drawOutline) {
             drawState.color(rc.pickMode ? this.pickColor : this.activeAttributes.outlineColor);
             drawState.lineWidth(this.isSurfaceShape ? this.activeAttributes.outlineWidth + 0.5f : this.activeAttributes.outlineWidth);
-            drawState.drawElements(GLES20.GL_LINE_STRIP, this.outlineElements.size(),
-                GLES20.GL_UNSIGNED_SHORT, this.interiorElements.size() * 2);
+            drawState.drawElements(GLES20.GL_LINE_STRIP, this.elementCounts[OUTLINE_ELEMENTS],
+                this.elementType, this.elementOffsets[OUTLINE_ELEMENTS]);
         }
 
         // Disable texturing for the remaining drawable primitives.
@@ -236,15 +405,15 @@ public class Path extends AbstractShape {
         if (this.activeAttributes.drawOutline && this.activeAttributes.drawVerticals && this.extrude) {
             drawState.color(rc.pickMode ? this.pickColor : this.activeAttributes.outlineColor);
             drawState.lineWidth(this.activeAttributes.outlineWidth);
-            drawState.drawElements(GLES20.GL_LINES, this.verticalElements.size(),
-                GLES20.GL_UNSIGNED_SHORT, (this.interiorElements.size() * 2) + (this.outlineElements.size() * 2));
+            drawState.drawElements(GLES20.GL_LINES, this.elementCounts[VERTICAL_ELEMENTS],
+                this.elementType, this.elementOffsets[VERTICAL_ELEMENTS]);
         }
 
         // Configure the drawable to display the shape's extruded interior.
         if (this.activeAttributes.drawInterior && this.extrude) {
             drawState.color(rc.pickMode ? this.pickColor : this.activeAttributes.interiorColor);
-            drawState.drawElements(GLES20.GL_TRIANGLE_STRIP, this.interiorElements.size(),
-                GLES20.GL_UNSIGNED_SHORT, 0);
+            drawState.drawElements(GLES20.GL_TRIANGLE_STRIP, this.elementCounts[INTERIOR_ELEMENTS],
+                this.elementType, this.elementOffsets[INTERIOR_ELEMENTS]);
         }
 
         // Configure the drawable according to the shape's attributes.
@@ -257,12 +426,66 @@ public class Path extends AbstractShape {
         if (this.isSurfaceShape) {
             rc.offerSurfaceDrawable(drawable, 0 /*zOrder*/);
         } else {
-            rc.offerShapeDrawable(drawable, cameraDistance);
+            rc.offerShapeDrawable(drawable, this.cameraDistance);
+        }
+    }
+
+    /**
+     * Returns the shape's element groups for every level of detail, in level order. Each level contributes its
+     * interior, outline and vertical element groups.
+     */
+    protected IntArray[] elementGroups() {
+        IntArray[] groups = new IntArray[ELEMENT_MODES.length * (this.simplifiedElements.length + 1)];
+        groups[INTERIOR_ELEMENTS] = this.interiorElements;
+        groups[OUTLINE_ELEMENTS] = this.outlineElements;
+        groups[VERTICAL_ELEMENTS] = this.verticalElements;
+
+        for (int level = 0; level < this.simplifiedElements.length; level++) {
+            System.arraycopy(this.simplifiedElements[level], 0, groups, (level + 1) * ELEMENT_MODES.length, ELEMENT_MODES.length);
         }
+
+        return groups;
     }
 
     protected boolean mustAssembleGeometry(RenderContext rc) {
-        return this.vertexArray.size() == 0;
+        return this.vertexArray.size() == 0 || this.geometryStale;
+    }
+
+    @Override
+    protected boolean isTerrainDependent() {
+        // Surface path geometry is assembled in geographic coordinates, independent of the terrain.
+        boolean isSurfaceShape = (this.altitudeMode == WorldWind.CLAMP_TO_GROUND) && this.followTerrain;
+        return super.isTerrainDependent() && !isSurfaceShape;
+    }
+
+    protected Path newGeometryBuilder() {
+        Path builder = new Path();
+        builder.altitudeMode = this.altitudeMode;
+        builder.pathType = this.pathType;
+        builder.maximumIntermediatePoints = this.maximumIntermediatePoints;
+        builder.extrude = this.extrude;
+        builder.followTerrain = this.followTerrain;
+        // Snapshot the position list; the application may modify it while the builder is assembling.
+        builder.positions = new ArrayList<>(this.positions);
+        return builder;
+    }
+
+    protected void publishGeometry(Path builder) {
+        this.assemblyJob = null;
+        this.geometryStale = false;
+        this.isSurfaceShape = builder.isSurfaceShape;
+        this.vertexArray = builder.vertexArray;
+        this.interiorElements = builder.interiorElements;
+        this.outlineElements = builder.outlineElements;
+        this.verticalElements = builder.verticalElements;
+        this.levelTolerances = builder.levelTolerances;
+        this.simplifiedElements = builder.simplifiedElements;
+        this.vertexOrigin.set(builder.vertexOrigin);
+        this.boundingBox = builder.boundingBox;
+        this.boundingSector.set(builder.boundingSector);
+        this.vertexBufferKey = nextCacheKey();
+        this.elementBufferKey = nextCacheKey();
+        this.elementChunks = null;
     }
 
     protected void assembleGeometry(RenderContext rc) {
@@ -275,6 +498,8 @@ public class Path extends AbstractShape {
         this.interiorElements.clear();
         this.outlineElements.clear();
         this.verticalElements.clear();
+        this.levelTolerances = FULL_RESOLUTION_ONLY;
+        this.simplifiedElements = NO_SIMPLIFIED_ELEMENTS;
 
         // Add the first vertex.
         Position begin = this.positions.get(0);
@@ -299,6 +524,70 @@ public class Path extends AbstractShape {
             this.boundingBox.translate(this.vertexOrigin.x, this.vertexOrigin.y, this.vertexOrigin.z);
             this.boundingSector.setEmpty(); // Cartesian shape bounding sector is unused
         }
+
+        // Precompute simplified levels of detail for paths with many vertices.
+        this.assembleLevelsOfDetail();
+    }
+
+    protected void assembleLevelsOfDetail() {
+        // Compute the significance of each vertex along the path. Surface path vertices are in geographic coordinates,
+        // so their altitude is excluded from the distance computation.
+        ShapeSimplifier simplifier = new ShapeSimplifier();
+        int[] outline = this.outlineElements.array();
+        int count = this.outlineElements.size();
+        if (count < simplifier.getMinVertexCount()) {
+            return; // too few vertices to benefit from simplification
+        }
+
+        FloatArray significance = simplifier.computeSignificance(this.vertexArray.array(), VERTEX_STRIDE,
+            this.isSurfaceShape ? 2 : 3, outline, 0 /*offset*/, count, new FloatArray(count));
+        double[] tolerances = simplifier.computeLevelTolerances(significance);
+        if (tolerances.length == 1) {
+            return; // the path's vertices cannot be simplified
+        }
+
+        // Identify the vertices that have extruded verticals, which are the vertices at the path's positions.
+        boolean[] hasVertical = null;
+        if (this.verticalElements.size() > 0) {
+            hasVertical = new boolean[this.vertexArray.size() / VERTEX_STRIDE];
+            int[] verticals = this.verticalElements.array();
+            for (int idx = 0, len = this.verticalElements.size(); idx < len; idx += 2) {
+                hasVertical[verticals[idx]] = true;
+            }
+        }
+
+        // Assemble each level's elements from the vertices whose significance meets the level's tolerance.
+        float[] values = significance.array();
+        IntArray[][] levels = new IntArray[tolerances.length - 1][];
+        for (int level = 1; level < tolerances.length; level++) {
+            IntArray interiorElements = new IntArray();
+            IntArray outlineElements = new IntArray();
+            IntArray verticalElements = new IntArray();
+
+            for (int idx = 0; idx < count; idx++) {
+                if (values[idx] < tolerances[level]) {
+                    continue; // the vertex is not significant at this level
+                }
+
+                int vertex = outline[idx];
+                outlineElements.add(vertex);
+
+                if (this.extrude && !this.isSurfaceShape) {
+                    interiorElements.add(vertex);
+                    interiorElements.add(vertex + 1);
+                }
+
+                if (hasVertical != null && hasVertical[vertex]) {
+                    verticalElements.add(vertex);
+                    verticalElements.add(vertex + 1);
+                }
+            }
+
+            levels[level - 1] = new IntArray[]{interiorElements, outlineElements, verticalElements};
+        }
+
+        this.levelTolerances = tolerances;
+        this.simplifiedElements = levels;
     }
 
     protected void addIntermediateVertices(RenderContext rc, Position begin, Position end) {
@@ -367,13 +656,13 @@ public class Path extends AbstractShape {
             this.vertexArray.add((float) (latitude - this.vertexOrigin.y));
             this.vertexArray.add((float) (altitude - this.vertexOrigin.z));
             this.vertexArray.add((float) this.texCoord1d);
-            this.outlineElements.add((short) vertex);
+            this.outlineElements.add(vertex);
         } else {
             this.vertexArray.add((float) (point.x - this.vertexOrigin.x));
             this.vertexArray.add((float) (point.y - this.vertexOrigin.y));
             this.vertexArray.add((float) (point.z - this.vertexOrigin.z));
             this.vertexArray.add((float) this.texCoord1d);
-            this.outlineElements.add((short) vertex);
+            this.outlineElements.add(vertex);
 
             if (this.extrude) {
                 point = rc.geographicToCartesian(latitude, longitude, 0, this.altitudeMode, this.point);
@@ -381,14 +670,45 @@ public class Path extends AbstractShape {
                 this.vertexArray.add((float) (point.y - this.vertexOrigin.y));
                 this.vertexArray.add((float) (point.z - this.vertexOrigin.z));
                 this.vertexArray.add((float) 0 /*unused*/);
-                this.interiorElements.add((short) vertex);
-                this.interiorElements.add((short) (vertex + 1));
+                this.interiorElements.add(vertex);
+                this.interiorElements.add(vertex + 1);
             }
 
             if (this.extrude && !intermediate) {
-                this.verticalElements.add((short) vertex);
-                this.verticalElements.add((short) (vertex + 1));
+                this.verticalElements.add(vertex);
+                this.verticalElements.add(vertex + 1);
             }
         }
     }
+
+    /**
+     * Assembles a snapshot of a path's geometry on a worker thread, then hands the immutable result to the path on the
+     * render thread.
+     */
+    protected static class GeometryAssembly implements ShapeGeometryAssembler.Assembly {
+
+        protected Path shape;
+
+        protected Path builder;
+
+        public GeometryAssembly(Path shape) {
+            this.shape = shape;
+            this.builder = shape.newGeometryBuilder();
+        }
+
+        @Override
+        public void assemble(RenderContext rc) {
+            this.builder.assembleGeometry(rc);
+        }
+
+        @Override
+        public void publish() {
+            this.shape.publishGeometry(this.builder);
+        }
+
+        @Override
+        public void publishFailure(Throwable failure) {
+            this.shape.publishAssemblyFailure(failure);
+        }
+    }
 }
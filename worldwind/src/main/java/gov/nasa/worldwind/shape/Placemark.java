@@ -62,18 +62,6 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
 
     protected static final double DEFAULT_DEPTH_OFFSET = -0.1;
 
-    private static Vec3 placePoint = new Vec3();
-
-    private static Vec3 screenPlacePoint = new Vec3();
-
-    private static Vec3 groundPoint = new Vec3();
-
-    private static Vec2 offset = new Vec2();
-
-    private static Matrix4 unitSquareTransform = new Matrix4();
-
-    private static Viewport screenBounds = new Viewport();
-
     /**
      * The placemark's geographic position.
      */
@@ -674,13 +662,15 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
      */
     @Override
     protected void doRender(RenderContext rc) {
+        RenderData renderData = getRenderData(rc);
+
         // Compute the placemark's Cartesian model point.
         rc.geographicToCartesian(this.position.latitude, this.position.longitude, this.position.altitude,
-            this.altitudeMode, placePoint);
+            this.altitudeMode, renderData.placePoint);
 
         // Compute the camera distance to the place point, the value which is used for ordering the placemark drawable
         // and determining the amount of depth offset to apply.
-        this.cameraDistance = rc.cameraPoint.distanceTo(placePoint);
+        this.cameraDistance = rc.cameraPoint.distanceTo(renderData.placePoint);
 
         // Compute a screen depth offset appropriate for the current viewing parameters.
         double depthOffset = 0;
@@ -690,7 +680,7 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
 
         // Project the placemark's model point to screen coordinates, using the screen depth offset to push the screen
         // point's z component closer to the eye point.
-        if (!rc.projectWithDepth(placePoint, depthOffset, screenPlacePoint)) {
+        if (!rc.projectWithDepth(renderData.placePoint, depthOffset, renderData.screenPlacePoint)) {
             return; // clipped by the near plane or the far plane
         }
 
@@ -705,6 +695,12 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
             return;
         }
 
+        // Don't render anything if the placemark is hidden behind the globe. Placemarks displayed without depth testing
+        // are displayed on top of the globe.
+        if (this.activeAttributes.depthTest && this.isBehindHorizon(rc)) {
+            return;
+        }
+
         // Keep track of the drawable count to determine whether or not this placemark has enqueued drawables.
         int drawableCount = rc.drawableCount();
         if (rc.pickMode) {
@@ -712,15 +708,26 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
             this.pickColor = PickedObject.identifierToUniqueColor(this.pickedObjectId, this.pickColor);
         }
 
+        // In analytic pick mode, test the placemark's icon and leader against the pick point instead of enqueuing
+        // drawables. Placemarks displayed without depth testing are displayed on top of the terrain and other shapes.
+        if (rc.analyticPickMode) {
+            double distance = this.intersectPickRay(rc, depthOffset);
+            if (distance != Double.POSITIVE_INFINITY) {
+                rc.offerPickedObject(PickedObject.fromRenderable(this.pickedObjectId, this, rc.currentLayer),
+                    this.activeAttributes.depthTest ? distance : 0);
+            }
+            return;
+        }
+
         // Prepare a drawable for the placemark's leader, if requested. Enqueue the leader drawable before the icon
         // drawable in order to give the icon visual priority over the leader.
         if (this.mustDrawLeader(rc)) {
             // Compute the placemark's Cartesian ground point.
             rc.geographicToCartesian(this.position.latitude, this.position.longitude, 0, WorldWind.CLAMP_TO_GROUND,
-                groundPoint);
+                renderData.groundPoint);
 
             // If the leader is visible, enqueue a drawable leader for processing on the OpenGL thread.
-            if (rc.frustum.intersectsSegment(groundPoint, placePoint)) {
+            if (rc.frustum.intersectsSegment(renderData.groundPoint, renderData.placePoint)) {
                 Pool<DrawableLines> pool = rc.getDrawablePool(DrawableLines.class);
                 DrawableLines drawable = DrawableLines.obtain(pool);
                 this.prepareDrawableLeader(rc, drawable);
@@ -739,7 +746,7 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
             // If we don't have a texture, then perform point-based culling here,
             // otherwise we'll perform a "frustum intersects screenBounds" test later on.
             if (this.activeTexture == null) {
-                if (!rc.frustum.containsPoint(placePoint)) {
+                if (!rc.frustum.containsPoint(renderData.placePoint)) {
                     return;
                 }
             }
@@ -749,8 +756,8 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
         this.determineActiveTexture(rc);
 
         // If the placemark's icon is visible, enqueue a drawable icon for processing on the OpenGL thread.
-        WWMath.boundingRectForUnitSquare(unitSquareTransform, screenBounds);
-        if (rc.frustum.intersectsViewport(screenBounds)) {
+        WWMath.boundingRectForUnitSquare(renderData.unitSquareTransform, renderData.screenBounds);
+        if (rc.frustum.intersectsViewport(renderData.screenBounds)) {
             Pool<DrawableScreenTexture> pool = rc.getDrawablePool(DrawableScreenTexture.class);
             DrawableScreenTexture drawable = DrawableScreenTexture.obtain(pool);
             this.prepareDrawableIcon(rc, drawable);
@@ -760,12 +767,124 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
         // Release references to objects stored in the render resource cache.
         this.activeTexture = null;
 
+        // Record the placemark's bounds for subsequent analytic picks, which then test only the placemarks near the
+        // pick ray.
+        if (rc.scenePickIndex != null && !rc.pickMode) {
+            this.recordPickBounds(rc);
+        }
+
         // Enqueue a picked object that associates the placemark's icon and leader with its picked object ID.
         if (rc.pickMode && rc.drawableCount() != drawableCount) {
             rc.offerPickedObject(PickedObject.fromRenderable(this.pickedObjectId, this, rc.currentLayer));
         }
     }
 
+    /**
+     * Indicates whether the placemark's place point, and its ground point if the placemark has a leader, are hidden
+     * behind the globe. The region hidden by the globe is convex, so a leader between two hidden points is hidden.
+     *
+     * @param rc the current render context
+     *
+     * @return true if the placemark is hidden by the globe, otherwise false
+     */
+    protected boolean isBehindHorizon(RenderContext rc) {
+        RenderData renderData = getRenderData(rc);
+
+        if (!rc.isBehindHorizon(renderData.placePoint, 0)) {
+            return false;
+        }
+
+        if (this.mustDrawLeader(rc)) {
+            rc.geographicToCartesian(this.position.latitude, this.position.longitude, 0, WorldWind.CLAMP_TO_GROUND,
+                renderData.groundPoint);
+            return rc.isBehindHorizon(renderData.groundPoint, 0);
+        }
+
+        return true;
+    }
+
+    /**
+     * Records the placemark's bounds in the render context's scene pick index: the segment from its place point to its
+     * ground point when it displays a leader, otherwise its place point, extended by the icon's screen rectangle and
+     * the leader's width. Called by renderPlacemark once the icon's screen rectangle is computed.
+     *
+     * @param rc the current render context
+     */
+    protected void recordPickBounds(RenderContext rc) {
+        RenderData renderData = getRenderData(rc);
+
+        double dx = Math.max(Math.abs(renderData.screenBounds.x - renderData.screenPlacePoint.x),
+            Math.abs(renderData.screenBounds.x + renderData.screenBounds.width - renderData.screenPlacePoint.x));
+        double dy = Math.max(Math.abs(renderData.screenBounds.y - renderData.screenPlacePoint.y),
+            Math.abs(renderData.screenBounds.y + renderData.screenBounds.height - renderData.screenPlacePoint.y));
+        double pixels = Math.sqrt(dx * dx + dy * dy);
+
+        if (this.mustDrawLeader(rc)) {
+            rc.geographicToCartesian(this.position.latitude, this.position.longitude, 0, WorldWind.CLAMP_TO_GROUND,
+                renderData.groundPoint);
+            pixels = Math.max(pixels, this.activeAttributes.leaderAttributes.outlineWidth * 0.5);
+            rc.scenePickIndex.addSegment(this, rc.currentLayer, renderData.placePoint, renderData.groundPoint, pixels);
+        } else {
+            rc.scenePickIndex.addSegment(this, rc.currentLayer, renderData.placePoint, renderData.placePoint, pixels);
+        }
+    }
+
+    /**
+     * Tests the placemark's icon and leader against the render context's pick point in analytic pick mode. The icon is
+     * picked when the pick point is within the analytic pick tolerance of its screen rectangle. The leader is picked
+     * when the pick point is within the analytic pick tolerance of its displayed width.
+     *
+     * @param rc          the current render context
+     * @param depthOffset the screen depth offset applied to the placemark's icon
+     *
+     * @return the distance along the pick ray to the placemark, or positive infinity if the placemark is not at the
+     * pick point
+     */
+    protected double intersectPickRay(RenderContext rc, double depthOffset) {
+        RenderData renderData = getRenderData(rc);
+
+        double px = rc.pickPoint.x;
+        double py = rc.pickPoint.y;
+        double tolerance = rc.analyticPickTolerance;
+
+        // Compute the placemark icon's screen rectangle as it would be displayed, and test it against the pick point.
+        if (this.activeAttributes.imageSource != null) {
+            this.activeTexture = rc.getTexture(this.activeAttributes.imageSource);
+        }
+        this.determineActiveTexture(rc);
+        this.activeTexture = null;
+        Viewport screenBounds = renderData.screenBounds;
+        WWMath.boundingRectForUnitSquare(renderData.unitSquareTransform, screenBounds);
+        boolean picked = px >= screenBounds.x - tolerance && px <= screenBounds.x + screenBounds.width + tolerance
+            && py >= screenBounds.y - tolerance && py <= screenBounds.y + screenBounds.height + tolerance;
+
+        // Test the placemark's leader against the pick point in screen coordinates.
+        if (!picked && this.mustDrawLeader(rc)) {
+            rc.geographicToCartesian(this.position.latitude, this.position.longitude, 0, WorldWind.CLAMP_TO_GROUND,
+                renderData.groundPoint);
+            if (rc.project(renderData.groundPoint, renderData.screenGroundPoint)) {
+                double halfWidth = this.activeAttributes.leaderAttributes.outlineWidth * 0.5 + tolerance;
+                double abx = renderData.screenPlacePoint.x - renderData.screenGroundPoint.x;
+                double aby = renderData.screenPlacePoint.y - renderData.screenGroundPoint.y;
+                double apx = px - renderData.screenGroundPoint.x;
+                double apy = py - renderData.screenGroundPoint.y;
+                double length2 = abx * abx + aby * aby;
+                double t = (length2 > 0) ? WWMath.clamp((apx * abx + apy * aby) / length2, 0, 1) : 0;
+                double dx = apx - t * abx;
+                double dy = apy - t * aby;
+                picked = dx * dx + dy * dy <= halfWidth * halfWidth;
+            }
+        }
+
+        if (!picked) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        // Approximate the icon's screen depth offset, which gives it visual priority over nearby terrain and shapes, by
+        // moving the placemark's distance proportionally closer to the pick ray's origin.
+        return rc.pickRay.origin.distanceTo(renderData.placePoint) * (1 + depthOffset);
+    }
+
     /**
      * Determines the placemark attributes to use for the current render pass.
      *
@@ -785,6 +904,8 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
      * @param rc the current render context
      */
     protected void determineActiveTexture(RenderContext rc) {
+        RenderData renderData = getRenderData(rc);
+
         // TODO: Refactor!
         if (this.activeAttributes.imageSource != null) {
             // Earlier in doRender(), an attempt was made to 'get' the activeTexture from the cache.
@@ -802,7 +923,7 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
             Math.max(this.activeAttributes.minimumImageScale, Math.min(1, this.getEyeDistanceScalingThreshold() / this.cameraDistance)) : 1;
 
         // Initialize the unit square transform to the identity matrix.
-        unitSquareTransform.setToIdentity();
+        renderData.unitSquareTransform.setToIdentity();
 
         // Apply the icon's translation and scale according to the image size, image offset and image scale. The image
         // offset is defined with its origin at the image's bottom-left corner and axes that extend up and to the right
@@ -812,43 +933,43 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
             int w = this.activeTexture.getWidth();
             int h = this.activeTexture.getHeight();
             double s = this.activeAttributes.imageScale * visibilityScale;
-            this.activeAttributes.imageOffset.offsetForSize(w, h, offset);
+            this.activeAttributes.imageOffset.offsetForSize(w, h, renderData.offset);
 
-            unitSquareTransform.multiplyByTranslation(
-                screenPlacePoint.x - offset.x * s,
-                screenPlacePoint.y - offset.y * s,
-                screenPlacePoint.z);
+            renderData.unitSquareTransform.multiplyByTranslation(
+                renderData.screenPlacePoint.x - renderData.offset.x * s,
+                renderData.screenPlacePoint.y - renderData.offset.y * s,
+                renderData.screenPlacePoint.z);
 
-            unitSquareTransform.multiplyByScale(w * s, h * s, 1);
+            renderData.unitSquareTransform.multiplyByScale(w * s, h * s, 1);
         } else {
             // This branch serves both non-textured attributes and also textures that haven't been loaded yet.
             // We set the size for non-loaded textures to the typical size of a contemporary "small" icon (24px)
             double size = this.activeAttributes.imageSource != null ? 24 : this.activeAttributes.imageScale;
             size *= visibilityScale;
-            this.activeAttributes.imageOffset.offsetForSize(size, size, offset);
+            this.activeAttributes.imageOffset.offsetForSize(size, size, renderData.offset);
 
-            unitSquareTransform.multiplyByTranslation(
-                screenPlacePoint.x - offset.x,
-                screenPlacePoint.y - offset.y,
-                screenPlacePoint.z);
+            renderData.unitSquareTransform.multiplyByTranslation(
+                renderData.screenPlacePoint.x - renderData.offset.x,
+                renderData.screenPlacePoint.y - renderData.offset.y,
+                renderData.screenPlacePoint.z);
 
-            unitSquareTransform.multiplyByScale(size, size, 1);
+            renderData.unitSquareTransform.multiplyByScale(size, size, 1);
         }
 
         // ... perform image rotation
         if (this.imageRotation != 0) {
             double rotation = this.imageRotationReference == WorldWind.RELATIVE_TO_GLOBE ?
                 rc.camera.heading - this.imageRotation : -this.imageRotation;
-            unitSquareTransform.multiplyByTranslation(0.5, 0.5, 0);
-            unitSquareTransform.multiplyByRotation(0, 0, 1, rotation);
-            unitSquareTransform.multiplyByTranslation(-0.5, -0.5, 0);
+            renderData.unitSquareTransform.multiplyByTranslation(0.5, 0.5, 0);
+            renderData.unitSquareTransform.multiplyByRotation(0, 0, 1, rotation);
+            renderData.unitSquareTransform.multiplyByTranslation(-0.5, -0.5, 0);
         }
 
         // ... and perform the tilt so that the image tilts back from its base into the view volume.
         if (this.imageTilt != 0) {
             double tilt = this.imageTiltReference == WorldWind.RELATIVE_TO_GLOBE ?
                 rc.camera.tilt + this.imageTilt : this.imageTilt;
-            unitSquareTransform.multiplyByRotation(-1, 0, 0, tilt);
+            renderData.unitSquareTransform.multiplyByRotation(-1, 0, 0, tilt);
         }
     }
 
@@ -860,6 +981,8 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
      * @param drawable the Drawable to be prepared
      */
     protected void prepareDrawableIcon(RenderContext rc, DrawableScreenTexture drawable) {
+        RenderData renderData = getRenderData(rc);
+
         // Use the basic GLSL program to draw the placemark's icon.
         drawable.program = (BasicShaderProgram) rc.getShaderProgram(BasicShaderProgram.KEY);
         if (drawable.program == null) {
@@ -867,7 +990,7 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
         }
 
         // Use the plaemark's unit square transform matrix.
-        drawable.unitSquareTransform.set(unitSquareTransform);
+        drawable.unitSquareTransform.set(renderData.unitSquareTransform);
 
         // Configure the drawable according to the placemark's active attributes. Use a color appropriate for the pick
         // mode. When picking use a unique color associated with the picked object ID. Use the texture associated with
@@ -886,6 +1009,8 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
      * @param drawable the Drawable to be prepared
      */
     protected void prepareDrawableLeader(RenderContext rc, DrawableLines drawable) {
+        RenderData renderData = getRenderData(rc);
+
         // Use the basic GLSL program to draw the placemark's leader.
         drawable.program = (BasicShaderProgram) rc.getShaderProgram(BasicShaderProgram.KEY);
         if (drawable.program == null) {
@@ -896,12 +1021,13 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
         drawable.vertexPoints[0] = 0; // groundPoint.x - groundPoint.x
         drawable.vertexPoints[1] = 0; // groundPoint.y - groundPoint.y
         drawable.vertexPoints[2] = 0; // groundPoint.z - groundPoint.z
-        drawable.vertexPoints[3] = (float) (placePoint.x - groundPoint.x);
-        drawable.vertexPoints[4] = (float) (placePoint.y - groundPoint.y);
-        drawable.vertexPoints[5] = (float) (placePoint.z - groundPoint.z);
+        drawable.vertexPoints[3] = (float) (renderData.placePoint.x - renderData.groundPoint.x);
+        drawable.vertexPoints[4] = (float) (renderData.placePoint.y - renderData.groundPoint.y);
+        drawable.vertexPoints[5] = (float) (renderData.placePoint.z - renderData.groundPoint.z);
 
         // Compute the drawable's modelview-projection matrix, relative to the placemark's ground point.
         drawable.mvpMatrix.set(rc.modelviewProjection);
+        Vec3 groundPoint = renderData.groundPoint;
         drawable.mvpMatrix.multiplyByTranslation(groundPoint.x, groundPoint.y, groundPoint.z);
 
         // Configure the drawable according to the placemark's active leader attributes. Use a color appropriate for the
@@ -935,4 +1061,63 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
             && this.activeAttributes.leaderAttributes != null
             && (this.enableLeaderPicking || !rc.pickMode);
     }
+
+    /**
+     * Returns the properties associated with placemarks during the current render pass. Each render context holds its
+     * own properties, since placemarks in different layers may render concurrently with different render contexts.
+     *
+     * @param rc the current render context
+     *
+     * @return the render context's placemark properties
+     */
+    protected static RenderData getRenderData(RenderContext rc) {
+        RenderData renderData = rc.getScratch(RenderData.class);
+        if (renderData == null) {
+            renderData = new RenderData();
+            rc.putScratch(RenderData.class, renderData);
+        }
+
+        return renderData;
+    }
+
+    /**
+     * Properties associated with the placemark during a render pass.
+     */
+    protected static class RenderData {
+
+        /**
+         * The model coordinate point corresponding to the placemark's position.
+         */
+        public Vec3 placePoint = new Vec3();
+
+        /**
+         * The screen coordinate point corresponding to the placemark's position.
+         */
+        public Vec3 screenPlacePoint = new Vec3();
+
+        /**
+         * The model coordinate point on the terrain beneath the placemark's position.
+         */
+        public Vec3 groundPoint = new Vec3();
+
+        /**
+         * The screen coordinate point corresponding to the ground point.
+         */
+        public Vec3 screenGroundPoint = new Vec3();
+
+        /**
+         * The screen coordinate offset corresponding to the active attributes.
+         */
+        public Vec2 offset = new Vec2();
+
+        /**
+         * The screen coordinate transform to apply to the drawable unit square.
+         */
+        public Matrix4 unitSquareTransform = new Matrix4();
+
+        /**
+         * The screen viewport indicating the placemark's screen bounds.
+         */
+        public Viewport screenBounds = new Viewport();
+    }
 }
@@ -7,11 +7,8 @@ package gov.nasa.worldwind.shape;
 
 import android.opengl.GLES20;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.FloatBuffer;
-import java.nio.ShortBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import gov.nasa.worldwind.WorldWind;
@@ -30,9 +27,9 @@ import gov.nasa.worldwind.render.ImageOptions;
 import gov.nasa.worldwind.render.RenderContext;
 import gov.nasa.worldwind.render.Texture;
 import gov.nasa.worldwind.util.FloatArray;
+import gov.nasa.worldwind.util.IntArray;
 import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.Pool;
-import gov.nasa.worldwind.util.ShortArray;
 import gov.nasa.worldwind.util.glu.GLU;
 import gov.nasa.worldwind.util.glu.GLUtessellator;
 import gov.nasa.worldwind.util.glu.GLUtessellatorCallbackAdapter;
@@ -45,6 +42,18 @@ public class Polygon extends AbstractShape {
 
     protected static final ImageOptions defaultOutlineImageOptions = new ImageOptions();
 
+    protected static final int TOP_ELEMENTS = 0;
+
+    protected static final int SIDE_ELEMENTS = 1;
+
+    protected static final int OUTLINE_ELEMENTS = 2;
+
+    protected static final int VERTICAL_ELEMENTS = 3;
+
+    protected static final int[] ELEMENT_MODES = {GLES20.GL_TRIANGLES, GLES20.GL_TRIANGLES, GLES20.GL_LINES, GLES20.GL_LINES};
+
+    protected static final IntArray[][] NO_SIMPLIFIED_ELEMENTS = new IntArray[0][];
+
     protected List<List<Position>> boundaries = new ArrayList<>();
 
     protected boolean extrude;
@@ -53,18 +62,54 @@ public class Polygon extends AbstractShape {
 
     protected FloatArray vertexArray = new FloatArray();
 
-    protected ShortArray topElements = new ShortArray();
+    protected IntArray topElements = new IntArray();
+
+    protected IntArray sideElements = new IntArray();
+
+    protected IntArray outlineElements = new IntArray();
 
-    protected ShortArray sideElements = new ShortArray();
+    protected IntArray verticalElements = new IntArray();
 
-    protected ShortArray outlineElements = new ShortArray();
+    /**
+     * The tolerance of each level of detail, in meters for Cartesian geometry and in degrees for surface geometry.
+     * Level 0 is the full resolution geometry.
+     */
+    protected double[] levelTolerances = FULL_RESOLUTION_ONLY;
 
-    protected ShortArray verticalElements = new ShortArray();
+    /**
+     * The element groups of each simplified level of detail, starting with level 1. Simplified levels share the full
+     * resolution vertex array, extended by any vertices created while tessellating the simplified boundaries.
+     */
+    protected IntArray[][] simplifiedElements = NO_SIMPLIFIED_ELEMENTS;
+
+    protected int levelOfDetail;
 
     protected Object vertexBufferKey = nextCacheKey();
 
     protected Object elementBufferKey = nextCacheKey();
 
+    /**
+     * The shape's geometry divided into chunks addressable by 16-bit element indices. Computed when the shape's
+     * geometry cannot be addressed by 16-bit indices and the OpenGL implementation does not support 32-bit indices.
+     */
+    protected List<ShapeGeometryChunker.Chunk> elementChunks;
+
+    protected int elementType;
+
+    protected int[] elementOffsets = new int[ELEMENT_MODES.length];
+
+    protected int[] elementCounts = new int[ELEMENT_MODES.length];
+
+    protected int[] levelElementOffsets = new int[ELEMENT_MODES.length];
+
+    protected int[] levelElementCounts = new int[ELEMENT_MODES.length];
+
+    protected ShapePickIndex[] pickIndices;
+
+    protected Object pickIndexKey;
+
+    protected ShapePickIndex[] activePickIndices = new ShapePickIndex[ELEMENT_MODES.length];
+
     protected Vec3 vertexOrigin = new Vec3();
 
     protected boolean isSurfaceShape;
@@ -123,6 +168,12 @@ public class Polygon extends AbstractShape {
 
     private int tessVertexCount;
 
+    private IntArray boundaryVertices;
+
+    private IntArray boundaryStarts;
+
+    private double[] boundaryCoords;
+
     protected static Object nextCacheKey() {
         return new Object();
     }
@@ -249,11 +300,21 @@ public class Polygon extends AbstractShape {
     }
 
     protected void reset() {
+        this.cancelAssembly();
+
+        // Keep displaying the current geometry until its replacement is assembled in the background.
+        if (this.backgroundAssembly && this.vertexArray.size() != 0) {
+            this.geometryStale = true;
+            return;
+        }
+
         this.vertexArray.clear();
         this.topElements.clear();
         this.sideElements.clear();
         this.outlineElements.clear();
         this.verticalElements.clear();
+        this.levelTolerances = FULL_RESOLUTION_ONLY;
+        this.simplifiedElements = NO_SIMPLIFIED_ELEMENTS;
     }
 
     @Override
@@ -262,12 +323,148 @@ public class Polygon extends AbstractShape {
             return; // nothing to draw
         }
 
+        this.prepareGeometry(rc);
+
+        if (this.vertexArray.size() == 0) {
+            return; // geometry is being assembled in the background
+        }
+
+        // Determine the shape's distance from the camera, shared by all of the shape's drawables.
+        if (this.isSurfaceShape) {
+            this.cameraDistance = this.cameraDistanceGeographic(rc, this.boundingSector);
+        } else {
+            this.cameraDistance = this.cameraDistanceCartesian(rc, this.vertexArray.array(), this.vertexArray.size(), VERTEX_STRIDE, this.vertexOrigin);
+        }
+
+        // Select the coarsest level of detail that's indistinguishable from the full resolution geometry at the
+        // shape's distance from the camera. Every level is stored in the same buffers, so changing the level only
+        // changes the range of elements drawn.
+        this.levelOfDetail = this.selectLevelOfDetail(rc, this.levelTolerances, this.cameraDistance, this.isSurfaceShape);
+        int levelGroup = this.levelOfDetail * ELEMENT_MODES.length;
+
+        int vertexCount = this.vertexArray.size() / VERTEX_STRIDE;
+        if (vertexCount <= ShapeGeometryChunker.MAX_SHORT_INDEX_VERTICES || rc.elementIndexUint) {
+            // Draw the shape with a single drawable, using 32-bit element indices only when 16-bit element indices
+            // cannot address every vertex.
+            boolean intIndices = vertexCount > ShapeGeometryChunker.MAX_SHORT_INDEX_VERTICES;
+            IntArray[] elements = this.elementGroups();
+
+            // Assemble the drawable's OpenGL vertex buffer object.
+            BufferObject vertexBuffer = rc.getBufferObject(this.vertexBufferKey);
+            if (vertexBuffer == null) {
+                vertexBuffer = assembleVertexBuffer(this.vertexArray.array(), this.vertexArray.size());
+                rc.putBufferObject(this.vertexBufferKey, vertexBuffer);
+            }
+
+            // Assemble the drawable's OpenGL element buffer object.
+            BufferObject elementBuffer = rc.getBufferObject(this.elementBufferKey);
+            if (elementBuffer == null) {
+                elementBuffer = assembleElementBuffer(elements, intIndices);
+                rc.putBufferObject(this.elementBufferKey, elementBuffer);
+            }
+
+            if (this.levelElementOffsets.length != elements.length) {
+                this.levelElementOffsets = new int[elements.length];
+                this.levelElementCounts = new int[elements.length];
+            }
+
+            this.elementType = intIndices ? GLES20.GL_UNSIGNED_INT : GLES20.GL_UNSIGNED_SHORT;
+            computeElementRanges(elements, intIndices ? 4 : 2, this.levelElementOffsets, this.levelElementCounts);
+            System.arraycopy(this.levelElementOffsets, levelGroup, this.elementOffsets, 0, ELEMENT_MODES.length);
+            System.arraycopy(this.levelElementCounts, levelGroup, this.elementCounts, 0, ELEMENT_MODES.length);
+            this.offerDrawable(rc, vertexBuffer, elementBuffer);
+        } else {
+            // Draw the shape with one drawable per chunk of geometry addressable by 16-bit element indices.
+            if (this.elementChunks == null) {
+                int[] modes = levelElementModes(ELEMENT_MODES, this.levelTolerances.length);
+                this.elementChunks = new ShapeGeometryChunker().chunk(this.vertexArray.array(), VERTEX_STRIDE, modes, this.elementGroups());
+            }
+
+            for (int idx = 0, len = this.elementChunks.size(); idx < len; idx++) {
+                ShapeGeometryChunker.Chunk chunk = this.elementChunks.get(idx);
+
+                int levelElementCount = 0;
+                for (int group = 0; group < ELEMENT_MODES.length; group++) {
+                    levelElementCount += chunk.elementCounts[levelGroup + group];
+                }
+
+                if (levelElementCount == 0) {
+                    continue; // the chunk has no elements at the selected level of detail
+                }
+
+                BufferObject vertexBuffer = rc.getBufferObject(chunk.vertexBufferKey);
+                if (vertexBuffer == null) {
+                    vertexBuffer = assembleVertexBuffer(chunk.vertexArray.array(), chunk.vertexArray.size());
+                    rc.putBufferObject(chunk.vertexBufferKey, vertexBuffer);
+                }
+
+                BufferObject elementBuffer = rc.getBufferObject(chunk.elementBufferKey);
+                if (elementBuffer == null) {
+                    elementBuffer = assembleElementBuffer(chunk.elements);
+                    rc.putBufferObject(chunk.elementBufferKey, elementBuffer);
+                }
+
+                this.elementType = GLES20.GL_UNSIGNED_SHORT;
+                for (int group = 0; group < ELEMENT_MODES.length; group++) {
+                    this.elementOffsets[group] = chunk.elementOffsets[levelGroup + group] * 2;
+                    this.elementCounts[group] = chunk.elementCounts[levelGroup + group];
+                }
+                this.offerDrawable(rc, vertexBuffer, elementBuffer);
+            }
+        }
+    }
+
+    /**
+     * Assembles the shape's geometry if it's missing or stale, either immediately or in the background.
+     *
+     * @param rc the current render context
+     */
+    protected void prepareGeometry(RenderContext rc) {
         if (this.mustAssembleGeometry(rc)) {
-            this.assembleGeometry(rc);
-            this.vertexBufferKey = nextCacheKey();
-            this.elementBufferKey = nextCacheKey();
+            if (this.mustAssembleInBackground(rc)) {
+                if (this.assemblyJob == null && !rc.geometryAssembler.isSaturated()) {
+                    this.submitAssembly(rc, new GeometryAssembly(this));
+                }
+            } else {
+                this.cancelAssembly();
+                this.assembleGeometry(rc);
+                this.geometryStale = false;
+                this.vertexBufferKey = nextCacheKey();
+                this.elementBufferKey = nextCacheKey();
+                this.elementChunks = null;
+            }
+        }
+    }
+
+    @Override
+    protected double intersectPickRay(RenderContext rc) {
+        if (this.boundaries.isEmpty()) {
+            return Double.POSITIVE_INFINITY; // nothing to pick
+        }
+
+        this.prepareGeometry(rc);
+
+        if (this.vertexArray.size() == 0) {
+            return Double.POSITIVE_INFINITY; // geometry is being assembled in the background
+        }
+
+        // Index the shape's full resolution geometry the first time it's picked after its geometry is assembled.
+        if (this.pickIndexKey != this.vertexBufferKey) {
+            this.pickIndices = assemblePickIndices(this.vertexArray.array(), VERTEX_STRIDE, ELEMENT_MODES, this.elementGroups());
+            this.pickIndexKey = this.vertexBufferKey;
         }
 
+        // Intersect the element groups displayed with the shape's active attributes.
+        ShapePickIndex[] indices = this.activePickIndices;
+        indices[TOP_ELEMENTS] = this.activeAttributes.drawInterior ? this.pickIndices[TOP_ELEMENTS] : null;
+        indices[SIDE_ELEMENTS] = (this.activeAttributes.drawInterior && this.extrude) ? this.pickIndices[SIDE_ELEMENTS] : null;
+        indices[OUTLINE_ELEMENTS] = this.activeAttributes.drawOutline ? this.pickIndices[OUTLINE_ELEMENTS] : null;
+        indices[VERTICAL_ELEMENTS] = (this.activeAttributes.drawOutline && this.activeAttributes.drawVerticals && this.extrude) ? this.pickIndices[VERTICAL_ELEMENTS] : null;
+
+        return this.intersectPickIndices(rc, indices, this.vertexOrigin, this.isSurfaceShape);
+    }
+
+    protected void offerDrawable(RenderContext rc, BufferObject vertexBuffer, BufferObject elementBuffer) {
         // Obtain a drawable form the render context pool.
         Drawable drawable;
         DrawShapeState drawState;
@@ -275,13 +472,11 @@ public class Polygon extends AbstractShape {
             Pool<DrawableSurfaceShape> pool = rc.getDrawablePool(DrawableSurfaceShape.class);
             drawable = DrawableSurfaceShape.obtain(pool);
             drawState = ((DrawableSurfaceShape) drawable).drawState;
-            this.cameraDistance = this.cameraDistanceGeographic(rc, this.boundingSector);
             ((DrawableSurfaceShape) drawable).sector.set(this.boundingSector);
         } else {
             Pool<DrawableShape> pool = rc.getDrawablePool(DrawableShape.class);
             drawable = DrawableShape.obtain(pool);
             drawState = ((DrawableShape) drawable).drawState;
-            this.cameraDistance = this.cameraDistanceCartesian(rc, this.vertexArray.array(), this.vertexArray.size(), VERTEX_STRIDE, this.vertexOrigin);
         }
 
         // Use the basic GLSL program to draw the shape.
@@ -290,28 +485,9 @@ public class Polygon extends AbstractShape {
             drawState.program = (BasicShaderProgram) rc.putShaderProgram(BasicShaderProgram.KEY, new BasicShaderProgram(rc.resources));
         }
 
-        // Assemble the drawable's OpenGL vertex buffer object.
-        drawState.vertexBuffer = rc.getBufferObject(this.vertexBufferKey);
-        if (drawState.vertexBuffer == null) {
-            int size = this.vertexArray.size() * 4;
-            FloatBuffer buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder()).asFloatBuffer();
-            buffer.put(this.vertexArray.array(), 0, this.vertexArray.size());
-            drawState.vertexBuffer = new BufferObject(GLES20.GL_ARRAY_BUFFER, size, buffer.rewind());
-            rc.putBufferObject(this.vertexBufferKey, drawState.vertexBuffer);
-        }
-
-        // Assemble the drawable's OpenGL element buffer object.
-        drawState.elementBuffer = rc.getBufferObject(this.elementBufferKey);
-        if (drawState.elementBuffer == null) {
-            int size = (this.topElements.size() * 2) + (this.sideElements.size() * 2) + (this.outlineElements.size() * 2) + (this.verticalElements.size() * 2);
-            ShortBuffer buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder()).asShortBuffer();
-            buffer.put(this.topElements.array(), 0, this.topElements.size());
-            buffer.put(this.sideElements.array(), 0, this.sideElements.size());
-            buffer.put(this.outlineElements.array(), 0, this.outlineElements.size());
-            buffer.put(this.verticalElements.array(), 0, this.verticalElements.size());
-            drawState.elementBuffer = new BufferObject(GLES20.GL_ELEMENT_ARRAY_BUFFER, size, buffer.rewind());
-            rc.putBufferObject(this.elementBufferKey, drawState.elementBuffer);
-        }
+        // Use the shape's OpenGL vertex buffer object and element buffer object.
+        drawState.vertexBuffer = vertexBuffer;
+        drawState.elementBuffer = elementBuffer;
 
         if (this.isSurfaceShape || this.activeAttributes.interiorColor.alpha >= 1.0) {
             this.drawInterior(rc, drawState);
@@ -336,6 +512,24 @@ public class Polygon extends AbstractShape {
         }
     }
 
+    /**
+     * Returns the shape's element groups for every level of detail, in level order. Each level contributes its top,
+     * side, outline and vertical element groups.
+     */
+    protected IntArray[] elementGroups() {
+        IntArray[] groups = new IntArray[ELEMENT_MODES.length * (this.simplifiedElements.length + 1)];
+        groups[TOP_ELEMENTS] = this.topElements;
+        groups[SIDE_ELEMENTS] = this.sideElements;
+        groups[OUTLINE_ELEMENTS] = this.outlineElements;
+        groups[VERTICAL_ELEMENTS] = this.verticalElements;
+
+        for (int level = 0; level < this.simplifiedElements.length; level++) {
+            System.arraycopy(this.simplifiedElements[level], 0, groups, (level + 1) * ELEMENT_MODES.length, ELEMENT_MODES.length);
+        }
+
+        return groups;
+    }
+
     protected void drawInterior(RenderContext rc, DrawShapeState drawState) {
         if (!this.activeAttributes.drawInterior) {
             return;
@@ -360,14 +554,14 @@ public class Polygon extends AbstractShape {
         // Configure the drawable to display the shape's interior top.
         drawState.color(rc.pickMode ? this.pickColor : this.activeAttributes.interiorColor);
         drawState.texCoordAttrib(2 /*size*/, 12 /*offset in bytes*/);
-        drawState.drawElements(GLES20.GL_TRIANGLES, this.topElements.size(),
-            GLES20.GL_UNSIGNED_SHORT, 0 /*offset*/);
+        drawState.drawElements(GLES20.GL_TRIANGLES, this.elementCounts[TOP_ELEMENTS],
+            this.elementType, this.elementOffsets[TOP_ELEMENTS]);
 
         // Configure the drawable to display the shape's interior sides.
         if (this.extrude) {
             drawState.texture(null);
-            drawState.drawElements(GLES20.GL_TRIANGLES, this.sideElements.size(),
-                GLES20.GL_UNSIGNED_SHORT, this.topElements.size() * 2 /*offset*/);
+            drawState.drawElements(GLES20.GL_TRIANGLES, this.elementCounts[SIDE_ELEMENTS],
+                this.elementType, this.elementOffsets[SIDE_ELEMENTS]);
         }
     }
 
@@ -396,21 +590,63 @@ public class Polygon extends AbstractShape {
         drawState.color(rc.pickMode ? this.pickColor : this.activeAttributes.outlineColor);
         drawState.lineWidth(this.activeAttributes.outlineWidth);
         drawState.texCoordAttrib(1 /*size*/, 20 /*offset in bytes*/);
-        drawState.drawElements(GLES20.GL_LINES, this.outlineElements.size(),
-            GLES20.GL_UNSIGNED_SHORT, (this.topElements.size() * 2) + (this.sideElements.size() * 2) /*offset*/);
+        drawState.drawElements(GLES20.GL_LINES, this.elementCounts[OUTLINE_ELEMENTS],
+            this.elementType, this.elementOffsets[OUTLINE_ELEMENTS]);
 
         // Configure the drawable to display the shape's extruded verticals.
         if (this.activeAttributes.drawVerticals && this.extrude) {
             drawState.color(rc.pickMode ? this.pickColor : this.activeAttributes.outlineColor);
             drawState.lineWidth(this.activeAttributes.outlineWidth);
             drawState.texture(null);
-            drawState.drawElements(GLES20.GL_LINES, this.verticalElements.size(),
-                GLES20.GL_UNSIGNED_SHORT, (this.topElements.size() * 2) + (this.sideElements.size() * 2) + (this.outlineElements.size() * 2) /*offset*/);
+            drawState.drawElements(GLES20.GL_LINES, this.elementCounts[VERTICAL_ELEMENTS],
+                this.elementType, this.elementOffsets[VERTICAL_ELEMENTS]);
         }
     }
 
     protected boolean mustAssembleGeometry(RenderContext rc) {
-        return this.vertexArray.size() == 0;
+        return this.vertexArray.size() == 0 || this.geometryStale;
+    }
+
+    @Override
+    protected boolean isTerrainDependent() {
+        // Surface polygon geometry is assembled in geographic coordinates, independent of the terrain.
+        boolean isSurfaceShape = (this.altitudeMode == WorldWind.CLAMP_TO_GROUND) && this.followTerrain;
+        return super.isTerrainDependent() && !isSurfaceShape;
+    }
+
+    protected Polygon newGeometryBuilder() {
+        Polygon builder = new Polygon();
+        builder.altitudeMode = this.altitudeMode;
+        builder.pathType = this.pathType;
+        builder.maximumIntermediatePoints = this.maximumIntermediatePoints;
+        builder.extrude = this.extrude;
+        builder.followTerrain = this.followTerrain;
+
+        // Snapshot the boundary lists; the application may modify them while the builder is assembling.
+        for (int idx = 0, len = this.boundaries.size(); idx < len; idx++) {
+            builder.boundaries.add(new ArrayList<>(this.boundaries.get(idx)));
+        }
+
+        return builder;
+    }
+
+    protected void publishGeometry(Polygon builder) {
+        this.assemblyJob = null;
+        this.geometryStale = false;
+        this.isSurfaceShape = builder.isSurfaceShape;
+        this.vertexArray = builder.vertexArray;
+        this.topElements = builder.topElements;
+        this.sideElements = builder.sideElements;
+        this.outlineElements = builder.outlineElements;
+        this.verticalElements = builder.verticalElements;
+        this.levelTolerances = builder.levelTolerances;
+        this.simplifiedElements = builder.simplifiedElements;
+        this.vertexOrigin.set(builder.vertexOrigin);
+        this.boundingBox = builder.boundingBox;
+        this.boundingSector.set(builder.boundingSector);
+        this.vertexBufferKey = nextCacheKey();
+        this.elementBufferKey = nextCacheKey();
+        this.elementChunks = null;
     }
 
     protected void assembleGeometry(RenderContext rc) {
@@ -424,6 +660,13 @@ public class Polygon extends AbstractShape {
         this.sideElements.clear();
         this.outlineElements.clear();
         this.verticalElements.clear();
+        this.levelTolerances = FULL_RESOLUTION_ONLY;
+        this.simplifiedElements = NO_SIMPLIFIED_ELEMENTS;
+
+        // Record each boundary's vertices and geographic coordinates, used to tessellate simplified levels of detail.
+        this.boundaryVertices = new IntArray();
+        this.boundaryStarts = new IntArray();
+        this.boundaryCoords = new double[48];
 
         // Compute a matrix that transforms from Cartesian coordinates to shape texture coordinates.
         this.determineModelToTexCoord(rc);
@@ -444,6 +687,7 @@ public class Polygon extends AbstractShape {
             }
 
             GLU.gluTessBeginContour(tess);
+            this.boundaryStarts.add(this.boundaryVertices.size());
 
             // Add the boundary's first vertex.
             Position begin = positions.get(0);
@@ -466,6 +710,13 @@ public class Polygon extends AbstractShape {
         }
 
         GLU.gluTessEndPolygon(tess);
+
+        // Precompute simplified levels of detail for polygons with many vertices, then release the boundary records.
+        this.assembleLevelsOfDetail(rc, tess);
+        this.boundaryVertices = null;
+        this.boundaryStarts = null;
+        this.boundaryCoords = null;
+
         GLU.gluTessCallback(tess, GLU.GLU_TESS_COMBINE_DATA, null);
         GLU.gluTessCallback(tess, GLU.GLU_TESS_VERTEX_DATA, null);
         GLU.gluTessCallback(tess, GLU.GLU_TESS_EDGE_FLAG_DATA, null);
@@ -538,6 +789,7 @@ public class Polygon extends AbstractShape {
             this.tessCoords[1] = latitude;
             this.tessCoords[2] = altitude;
             GLU.gluTessVertex(rc.getTessellator(), this.tessCoords, 0 /*coords_offset*/, vertex);
+            this.addBoundaryVertex(vertex, longitude, latitude, altitude);
         }
 
         if (vertex == 0) {
@@ -579,14 +831,125 @@ public class Polygon extends AbstractShape {
             }
 
             if (this.extrude && type == VERTEX_ORIGINAL) {
-                this.verticalElements.add((short) vertex);
-                this.verticalElements.add((short) (vertex + 1));
+                this.verticalElements.add(vertex);
+                this.verticalElements.add(vertex + 1);
             }
         }
 
         return vertex;
     }
 
+    protected void addBoundaryVertex(int vertex, double longitude, double latitude, double altitude) {
+        int index = this.boundaryVertices.size();
+        if (this.boundaryCoords.length < (index + 1) * 3) {
+            this.boundaryCoords = Arrays.copyOf(this.boundaryCoords, this.boundaryCoords.length * 2);
+        }
+
+        this.boundaryVertices.add(vertex);
+        this.boundaryCoords[index * 3] = longitude;
+        this.boundaryCoords[index * 3 + 1] = latitude;
+        this.boundaryCoords[index * 3 + 2] = altitude;
+    }
+
+    protected void assembleLevelsOfDetail(RenderContext rc, GLUtessellator tess) {
+        // Compute the significance of each vertex along each boundary. Surface polygon vertices are in geographic
+        // coordinates, so their altitude is excluded from the distance computation.
+        ShapeSimplifier simplifier = new ShapeSimplifier();
+        int[] vertices = this.boundaryVertices.array();
+        int count = this.boundaryVertices.size();
+        if (count < simplifier.getMinVertexCount()) {
+            return; // too few vertices to benefit from simplification
+        }
+
+        FloatArray significance = new FloatArray(count);
+        int boundaryCount = this.boundaryStarts.size();
+        for (int boundary = 0; boundary < boundaryCount; boundary++) {
+            int start = this.boundaryStarts.get(boundary);
+            int end = (boundary < boundaryCount - 1) ? this.boundaryStarts.get(boundary + 1) : count;
+            simplifier.computeSignificance(this.vertexArray.array(), VERTEX_STRIDE, this.isSurfaceShape ? 2 : 3,
+                vertices, start, end - start, significance);
+        }
+
+        double[] tolerances = simplifier.computeLevelTolerances(significance);
+        if (tolerances.length == 1) {
+            return; // the polygon's vertices cannot be simplified
+        }
+
+        // Identify the vertices that have extruded verticals, which are the vertices at the polygon's positions.
+        boolean[] hasVertical = null;
+        if (this.verticalElements.size() > 0) {
+            hasVertical = new boolean[this.vertexArray.size() / VERTEX_STRIDE];
+            int[] verticals = this.verticalElements.array();
+            for (int idx = 0, len = this.verticalElements.size(); idx < len; idx += 2) {
+                hasVertical[verticals[idx]] = true;
+            }
+        }
+
+        // Tessellate each level's simplified boundaries, accumulating the level's elements in place of the full
+        // resolution elements. Vertices created by the tessellator are appended to the shared vertex array.
+        IntArray topElements = this.topElements;
+        IntArray sideElements = this.sideElements;
+        IntArray outlineElements = this.outlineElements;
+        IntArray verticalElements = this.verticalElements;
+        float[] values = significance.array();
+        IntArray[][] levels = new IntArray[tolerances.length - 1][];
+
+        for (int level = 1; level < tolerances.length; level++) {
+            this.topElements = new IntArray();
+            this.sideElements = new IntArray();
+            this.outlineElements = new IntArray();
+            this.verticalElements = new IntArray();
+            this.tessVertexCount = 0;
+
+            GLU.gluTessBeginPolygon(tess, rc);
+
+            for (int boundary = 0; boundary < boundaryCount; boundary++) {
+                int start = this.boundaryStarts.get(boundary);
+                int end = (boundary < boundaryCount - 1) ? this.boundaryStarts.get(boundary + 1) : count;
+
+                int retained = 0;
+                for (int idx = start; idx < end; idx++) {
+                    if (values[idx] >= tolerances[level]) {
+                        retained++;
+                    }
+                }
+
+                if (retained < 3) {
+                    continue; // the boundary is too small to be visible at this level
+                }
+
+                GLU.gluTessBeginContour(tess);
+
+                for (int idx = start; idx < end; idx++) {
+                    if (values[idx] < tolerances[level]) {
+                        continue; // the vertex is not significant at this level
+                    }
+
+                    int vertex = vertices[idx];
+                    GLU.gluTessVertex(tess, this.boundaryCoords, idx * 3 /*coords_offset*/, vertex);
+
+                    if (hasVertical != null && hasVertical[vertex]) {
+                        this.verticalElements.add(vertex);
+                        this.verticalElements.add(vertex + 1);
+                    }
+                }
+
+                GLU.gluTessEndContour(tess);
+            }
+
+            GLU.gluTessEndPolygon(tess);
+
+            levels[level - 1] = new IntArray[]{this.topElements, this.sideElements, this.outlineElements, this.verticalElements};
+        }
+
+        this.topElements = topElements;
+        this.sideElements = sideElements;
+        this.outlineElements = outlineElements;
+        this.verticalElements = verticalElements;
+        this.levelTolerances = tolerances;
+        this.simplifiedElements = levels;
+    }
+
     protected void determineModelToTexCoord(RenderContext rc) {
         double mx = 0, my = 0, mz = 0;
         double numPoints = 0;
@@ -636,32 +999,32 @@ public class Polygon extends AbstractShape {
         int v1 = this.tessVertices[1];
         int v2 = this.tessVertices[2];
 
-        this.topElements.add((short) v0).add((short) v1).add((short) v2);
+        this.topElements.add(v0).add(v1).add(v2);
 
         if (this.tessEdgeFlags[0] && this.extrude && !this.isSurfaceShape) {
-            this.sideElements.add((short) v0).add((short) (v0 + 1)).add((short) v1);
-            this.sideElements.add((short) v1).add((short) (v0 + 1)).add((short) (v1 + 1));
+            this.sideElements.add(v0).add(v0 + 1).add(v1);
+            this.sideElements.add(v1).add(v0 + 1).add(v1 + 1);
         }
         if (this.tessEdgeFlags[1] && this.extrude && !this.isSurfaceShape) {
-            this.sideElements.add((short) v1).add((short) (v1 + 1)).add((short) v2);
-            this.sideElements.add((short) v2).add((short) (v1 + 1)).add((short) (v2 + 1));
+            this.sideElements.add(v1).add(v1 + 1).add(v2);
+            this.sideElements.add(v2).add(v1 + 1).add(v2 + 1);
         }
         if (this.tessEdgeFlags[2] && this.extrude && !this.isSurfaceShape) {
-            this.sideElements.add((short) v2).add((short) (v2 + 1)).add((short) v0);
-            this.sideElements.add((short) v0).add((short) (v2 + 1)).add((short) (v0 + 1));
+            this.sideElements.add(v2).add(v2 + 1).add(v0);
+            this.sideElements.add(v0).add(v2 + 1).add(v0 + 1);
         }
 
         if (this.tessEdgeFlags[0]) {
-            this.outlineElements.add((short) v0);
-            this.outlineElements.add((short) v1);
+            this.outlineElements.add(v0);
+            this.outlineElements.add(v1);
         }
         if (this.tessEdgeFlags[1]) {
-            this.outlineElements.add((short) v1);
-            this.outlineElements.add((short) v2);
+            this.outlineElements.add(v1);
+            this.outlineElements.add(v2);
         }
         if (this.tessEdgeFlags[2]) {
-            this.outlineElements.add((short) v2);
-            this.outlineElements.add((short) v0);
+            this.outlineElements.add(v2);
+            this.outlineElements.add(v0);
         }
     }
 
@@ -673,4 +1036,35 @@ public class Polygon extends AbstractShape {
         String errstr = GLU.gluErrorString(errnum);
         Logger.logMessage(Logger.WARN, "Polygon", "assembleGeometry", "Error attempting to tessellate polygon \'" + errstr + "\'");
     }
+
+    /**
+     * Assembles a snapshot of a polygon's geometry on a worker thread, then hands the immutable result to the polygon
+     * on the render thread.
+     */
+    protected static class GeometryAssembly implements ShapeGeometryAssembler.Assembly {
+
+        protected Polygon shape;
+
+        protected Polygon builder;
+
+        public GeometryAssembly(Polygon shape) {
+            this.shape = shape;
+            this.builder = shape.newGeometryBuilder();
+        }
+
+        @Override
+        public void assemble(RenderContext rc) {
+            this.builder.assembleGeometry(rc);
+        }
+
+        @Override
+        public void publish() {
+            this.shape.publishGeometry(this.builder);
+        }
+
+        @Override
+        public void publishFailure(Throwable failure) {
+            this.shape.publishAssemblyFailure(failure);
+        }
+    }
 }
@@ -0,0 +1,642 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.shape;
+
+import java.util.Arrays;
+
+import gov.nasa.worldwind.geom.BoundingBox;
+import gov.nasa.worldwind.geom.Line;
+import gov.nasa.worldwind.geom.Matrix4;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.geom.Vec3;
+import gov.nasa.worldwind.geom.Viewport;
+import gov.nasa.worldwind.layer.Layer;
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.render.Renderable;
+import gov.nasa.worldwind.util.Logger;
+
+/**
+ * Bounding volume hierarchy over the pickable renderables of a WorldWindow's scene, used to find the renderables a pick
+ * ray may intersect without rendering the scene's layers. Used by WorldWindow and BasicFrameController to support
+ * analytic picking.
+ * <p/>
+ * Renderables that support analytic picking record their bounds while they render a frame: Cartesian shapes record their
+ * bounding box, surface shapes record their bounding sector and placemarks record their place point and leader.
+ * Each entry also records the renderable's size in screen pixels beyond its bounds, such as half the width of a line or
+ * the extent of a placemark's icon. An analytic pick queries the index with the pick ray, and renders in analytic pick
+ * mode only the candidate renderables whose bounds lie within the pick tolerance of the pick ray, in the order they
+ * rendered. Renderables that record no bounds are always candidates.
+ * <p/>
+ * The index reflects the scene as of the most recent frame. A pick queries the index only while the WorldWindow's
+ * viewing parameters match those of that frame; otherwise the pick renders every layer. Renderables modified or added
+ * since the most recent frame are picked according to their bounds in that frame, and are indexed again when the next
+ * frame renders.
+ */
+public class ScenePickIndex {
+
+    protected static final int LEAF_SIZE = 4;
+
+    protected static final double EPSILON = 1.0e-10;
+
+    protected static final int CARTESIAN = 0;
+
+    protected static final int GEOGRAPHIC = 1;
+
+    protected static final int UNBOUNDED = 2;
+
+    protected int entryCount;
+
+    protected Renderable[] renderables = new Renderable[32];
+
+    protected Layer[] layers = new Layer[32];
+
+    protected int[] kinds = new int[32];
+
+    /**
+     * Bounds for each entry, stored as six values: minimum x, y and z followed by maximum x, y and z. Geographic
+     * entries store longitude as x and latitude as y.
+     */
+    protected double[] bounds = new double[32 * 6];
+
+    protected double[] pixels = new double[32];
+
+    protected Hierarchy cartesian = new Hierarchy();
+
+    protected Hierarchy geographic = new Hierarchy();
+
+    protected int[] unbounded = new int[0];
+
+    protected int unboundedCount;
+
+    protected boolean hierarchyValid;
+
+    protected boolean frameComplete;
+
+    protected Matrix4 frameModelviewProjection = new Matrix4();
+
+    protected Viewport frameViewport = new Viewport();
+
+    protected double frameVerticalExaggeration;
+
+    protected int[] candidates = new int[32];
+
+    protected int candidateCount;
+
+    private Vec3 scratchPoint = new Vec3();
+
+    public ScenePickIndex() {
+    }
+
+    /**
+     * Indicates the number of renderables recorded in the index.
+     *
+     * @return the entry count
+     */
+    public int getEntryCount() {
+        return this.entryCount;
+    }
+
+    /**
+     * Removes all renderables from the index, and marks the index as incomplete until {@link
+     * #endFrame(RenderContext)} is called.
+     */
+    public void clear() {
+        Arrays.fill(this.renderables, 0, this.entryCount, null);
+        Arrays.fill(this.layers, 0, this.entryCount, null);
+        this.entryCount = 0;
+        this.candidateCount = 0;
+        this.hierarchyValid = false;
+        this.frameComplete = false;
+    }
+
+    /**
+     * Marks the index as complete for the frame described by a render context. Called once every renderable in the
+     * frame has been recorded.
+     *
+     * @param rc the render context for the frame
+     *
+     * @throws IllegalArgumentException If the render context is null
+     */
+    public void endFrame(RenderContext rc) {
+        if (rc == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ScenePickIndex", "endFrame", "missingRenderContext"));
+        }
+
+        this.frameModelviewProjection.set(rc.modelviewProjection);
+        this.frameViewport.set(rc.viewport);
+        this.frameVerticalExaggeration = rc.verticalExaggeration;
+        this.frameComplete = true;
+    }
+
+    /**
+     * Indicates whether the index describes the scene as displayed with a render context's viewing parameters.
+     *
+     * @param rc the render context to test
+     *
+     * @return true if the index is complete and was recorded with the same viewing parameters, otherwise false
+     *
+     * @throws IllegalArgumentException If the render context is null
+     */
+    public boolean isCurrent(RenderContext rc) {
+        if (rc == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ScenePickIndex", "isCurrent", "missingRenderContext"));
+        }
+
+        return this.frameComplete
+            && this.frameModelviewProjection.equals(rc.modelviewProjection)
+            && this.frameViewport.equals(rc.viewport)
+            && this.frameVerticalExaggeration == rc.verticalExaggeration;
+    }
+
+    /**
+     * Records a renderable bounded by a Cartesian bounding box. Renderables with a unit bounding box, which indicates
+     * that the box has not been computed, are recorded without bounds.
+     *
+     * @param renderable the renderable to record
+     * @param layer      the layer displaying the renderable, or null if it is displayed outside a layer
+     * @param box        the renderable's bounding box
+     * @param pixels     the renderable's extent beyond its bounding box, in screen pixels
+     *
+     * @throws IllegalArgumentException If the renderable or the box is null
+     */
+    public void addBoundingBox(Renderable renderable, Layer layer, BoundingBox box, double pixels) {
+        if (renderable == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ScenePickIndex", "addBoundingBox", "missingRenderable"));
+        }
+
+        if (box == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ScenePickIndex", "addBoundingBox", "missingBox"));
+        }
+
+        if (box.isUnitBox()) {
+            this.addEntry(renderable, layer, UNBOUNDED, 0, 0, 0, 0, 0, 0, 0);
+            return;
+        }
+
+        // Bound the box by the sphere containing its corners. The sphere's bounds are looser than the box's, but are
+        // available without access to the box's axes.
+        Vec3 center = box.getCenter(this.scratchPoint);
+        double radius = box.getRadius();
+        this.addEntry(renderable, layer, CARTESIAN, center.x - radius, center.y - radius, center.z - radius,
+            center.x + radius, center.y + radius, center.z + radius, pixels);
+    }
+
+    /**
+     * Records a renderable displayed on the terrain within a geographic sector. Renderables with an empty sector are
+     * recorded without bounds.
+     *
+     * @param renderable the renderable to record
+     * @param layer      the layer displaying the renderable, or null if it is displayed outside a layer
+     * @param sector     the renderable's bounding sector
+     * @param pixels     the renderable's extent beyond its bounding sector, in screen pixels
+     *
+     * @throws IllegalArgumentException If the renderable or the sector is null
+     */
+    public void addSector(Renderable renderable, Layer layer, Sector sector, double pixels) {
+        if (renderable == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ScenePickIndex", "addSector", "missingRenderable"));
+        }
+
+        if (sector == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ScenePickIndex", "addSector", "missingSector"));
+        }
+
+        if (sector.isEmpty()) {
+            this.addEntry(renderable, layer, UNBOUNDED, 0, 0, 0, 0, 0, 0, 0);
+            return;
+        }
+
+        this.addEntry(renderable, layer, GEOGRAPHIC, sector.minLongitude(), sector.minLatitude(), 0,
+            sector.maxLongitude(), sector.maxLatitude(), 0, pixels);
+    }
+
+    /**
+     * Records a renderable bounded by the line segment between two Cartesian points, such as a placemark's place point
+     * and ground point. Specify the same point twice to record a renderable bounded by a single point.
+     *
+     * @param renderable the renderable to record
+     * @param layer      the layer displaying the renderable, or null if it is displayed outside a layer
+     * @param point1     the segment's first point
+     * @param point2     the segment's second point
+     * @param pixels     the renderable's extent beyond the segment, in screen pixels
+     *
+     * @throws IllegalArgumentException If the renderable or either point is null
+     */
+    public void addSegment(Renderable renderable, Layer layer, Vec3 point1, Vec3 point2, double pixels) {
+        if (renderable == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ScenePickIndex", "addSegment", "missingRenderable"));
+        }
+
+        if (point1 == null || point2 == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ScenePickIndex", "addSegment", "missingPoint"));
+        }
+
+        this.addEntry(renderable, layer, CARTESIAN,
+            Math.min(point1.x, point2.x), Math.min(point1.y, point2.y), Math.min(point1.z, point2.z),
+            Math.max(point1.x, point2.x), Math.max(point1.y, point2.y), Math.max(point1.z, point2.z), pixels);
+    }
+
+    /**
+     * Records a range of another index's renderables, in order. Used to combine the renderables recorded by layers
+     * rendered on different threads.
+     *
+     * @param index the index containing the renderables to record
+     * @param start the first entry to record
+     * @param end   the entry following the last entry to record
+     *
+     * @throws IllegalArgumentException If the index is null, or if the range is outside the index's entries
+     */
+    public void addEntries(ScenePickIndex index, int start, int end) {
+        if (index == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ScenePickIndex", "addEntries", "missingIndex"));
+        }
+
+        if (start < 0 || end > index.entryCount || start > end) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ScenePickIndex", "addEntries", "invalidRange"));
+        }
+
+        for (int idx = start; idx < end; idx++) {
+            int box = idx * 6;
+            double[] b = index.bounds;
+            this.addEntry(index.renderables[idx], index.layers[idx], index.kinds[idx],
+                b[box], b[box + 1], b[box + 2], b[box + 3], b[box + 4], b[box + 5], index.pixels[idx]);
+        }
+    }
+
+    /**
+     * Finds the renderables the render context's pick ray may intersect. Cartesian entries are candidates when the pick
+     * ray passes within the analytic pick tolerance of their bounds, geographic entries are candidates when the terrain
+     * position under the pick point is within the analytic pick tolerance of their sector, and entries without bounds
+     * are always candidates. The candidates are ordered as they were recorded.
+     *
+     * @param rc the render context in analytic pick mode
+     *
+     * @return the number of candidates
+     *
+     * @throws IllegalArgumentException If the render context is null
+     */
+    public int findCandidates(RenderContext rc) {
+        if (rc == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ScenePickIndex", "findCandidates", "missingRenderContext"));
+        }
+
+        if (!this.hierarchyValid) {
+            this.assembleHierarchy();
+        }
+
+        this.candidateCount = 0;
+
+        if (rc.pickRay != null && this.cartesian.nodeCount > 0) {
+            this.findLineCandidates(rc.pickRay, rc.pixelSizeAtDistance(1), rc.analyticPickTolerance, 0);
+        }
+
+        if (rc.pickTerrainPosition != null && this.geographic.nodeCount > 0) {
+            double degreesPerPixel = Math.toDegrees(rc.pixelSizeAtDistance(rc.pickTerrainDistance) / rc.globe.getEquatorialRadius());
+            this.findLocationCandidates(rc.pickTerrainPosition.longitude, rc.pickTerrainPosition.latitude,
+                degreesPerPixel, rc.analyticPickTolerance, 0);
+        }
+
+        for (int idx = 0; idx < this.unboundedCount; idx++) {
+            this.addCandidate(this.unbounded[idx]);
+        }
+
+        Arrays.sort(this.candidates, 0, this.candidateCount);
+
+        return this.candidateCount;
+    }
+
+    /**
+     * Returns a candidate renderable found by the most recent call to {@link #findCandidates(RenderContext)}.
+     *
+     * @param index the candidate's index, from 0 to the candidate count minus 1
+     *
+     * @return the candidate renderable
+     */
+    public Renderable getCandidateRenderable(int index) {
+        return this.renderables[this.candidates[index]];
+    }
+
+    /**
+     * Returns the layer displaying a candidate renderable found by the most recent call to {@link
+     * #findCandidates(RenderContext)}.
+     *
+     * @param index the candidate's index, from 0 to the candidate count minus 1
+     *
+     * @return the candidate's layer, or null if the candidate is displayed outside a layer
+     */
+    public Layer getCandidateLayer(int index) {
+        return this.layers[this.candidates[index]];
+    }
+
+    protected void addEntry(Renderable renderable, Layer layer, int kind, double minX, double minY, double minZ,
+                            double maxX, double maxY, double maxZ, double pixels) {
+        int capacity = this.renderables.length;
+        if (this.entryCount == capacity) {
+            int newCapacity = capacity * 2;
+            this.renderables = Arrays.copyOf(this.renderables, newCapacity);
+            this.layers = Arrays.copyOf(this.layers, newCapacity);
+            this.kinds = Arrays.copyOf(this.kinds, newCapacity);
+            this.bounds = Arrays.copyOf(this.bounds, newCapacity * 6);
+            this.pixels = Arrays.copyOf(this.pixels, newCapacity);
+        }
+
+        int entry = this.entryCount++;
+        int box = entry * 6;
+        this.renderables[entry] = renderable;
+        this.layers[entry] = layer;
+        this.kinds[entry] = kind;
+        this.bounds[box] = minX;
+        this.bounds[box + 1] = minY;
+        this.bounds[box + 2] = minZ;
+        this.bounds[box + 3] = maxX;
+        this.bounds[box + 4] = maxY;
+        this.bounds[box + 5] = maxZ;
+        this.pixels[entry] = pixels;
+        this.hierarchyValid = false;
+    }
+
+    protected void addCandidate(int entry) {
+        if (this.candidateCount == this.candidates.length) {
+            this.candidates = Arrays.copyOf(this.candidates, this.candidateCount * 2);
+        }
+
+        this.candidates[this.candidateCount++] = entry;
+    }
+
+    protected void assembleHierarchy() {
+        int cartesianCount = 0, geographicCount = 0;
+        this.unboundedCount = 0;
+        for (int idx = 0; idx < this.entryCount; idx++) {
+            if (this.kinds[idx] == CARTESIAN) {
+                cartesianCount++;
+            } else if (this.kinds[idx] == GEOGRAPHIC) {
+                geographicCount++;
+            } else {
+                this.unboundedCount++;
+            }
+        }
+
+        this.cartesian.reset(cartesianCount);
+        this.geographic.reset(geographicCount);
+        if (this.unbounded.length < this.unboundedCount) {
+            this.unbounded = new int[this.unboundedCount];
+        }
+
+        int unboundedIdx = 0;
+        for (int idx = 0; idx < this.entryCount; idx++) {
+            if (this.kinds[idx] == CARTESIAN) {
+                this.cartesian.entries[this.cartesian.entryCount++] = idx;
+            } else if (this.kinds[idx] == GEOGRAPHIC) {
+                this.geographic.entries[this.geographic.entryCount++] = idx;
+            } else {
+                this.unbounded[unboundedIdx++] = idx;
+            }
+        }
+
+        if (cartesianCount > 0) {
+            this.assembleNode(this.cartesian, 0, cartesianCount);
+        }
+
+        if (geographicCount > 0) {
+            this.assembleNode(this.geographic, 0, geographicCount);
+        }
+
+        this.hierarchyValid = true;
+    }
+
+    /**
+     * Assembles the hierarchy node bounding a range of entries, splitting the range at the median of the entries'
+     * centers along the longest axis of their centers' bounds. Nodes are stored in depth first order, so each interior
+     * node's first child immediately follows it.
+     */
+    protected int assembleNode(Hierarchy hierarchy, int start, int end) {
+        int node = hierarchy.addNode();
+        double[] nodeBounds = hierarchy.nodeBounds;
+        int nodeBox = node * 6;
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, minZ = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE, maxZ = -Double.MAX_VALUE;
+        double minCX = Double.MAX_VALUE, minCY = Double.MAX_VALUE, minCZ = Double.MAX_VALUE;
+        double maxCX = -Double.MAX_VALUE, maxCY = -Double.MAX_VALUE, maxCZ = -Double.MAX_VALUE;
+        double maxPixels = 0;
+        for (int idx = start; idx < end; idx++) {
+            int entry = hierarchy.entries[idx];
+            int box = entry * 6;
+            double[] b = this.bounds;
+            minX = Math.min(minX, b[box]);
+            minY = Math.min(minY, b[box + 1]);
+            minZ = Math.min(minZ, b[box + 2]);
+            maxX = Math.max(maxX, b[box + 3]);
+            maxY = Math.max(maxY, b[box + 4]);
+            maxZ = Math.max(maxZ, b[box + 5]);
+            double cx = b[box] + b[box + 3], cy = b[box + 1] + b[box + 4], cz = b[box + 2] + b[box + 5];
+            minCX = Math.min(minCX, cx);
+            minCY = Math.min(minCY, cy);
+            minCZ = Math.min(minCZ, cz);
+            maxCX = Math.max(maxCX, cx);
+            maxCY = Math.max(maxCY, cy);
+            maxCZ = Math.max(maxCZ, cz);
+            maxPixels = Math.max(maxPixels, this.pixels[entry]);
+        }
+
+        nodeBounds[nodeBox] = minX;
+        nodeBounds[nodeBox + 1] = minY;
+        nodeBounds[nodeBox + 2] = minZ;
+        nodeBounds[nodeBox + 3] = maxX;
+        nodeBounds[nodeBox + 4] = maxY;
+        nodeBounds[nodeBox + 5] = maxZ;
+        hierarchy.nodePixels[node] = maxPixels;
+
+        if (end - start <= LEAF_SIZE) {
+            hierarchy.nodeStart[node] = start;
+            hierarchy.nodeEnd[node] = end;
+            return node;
+        }
+
+        double extentX = maxCX - minCX, extentY = maxCY - minCY, extentZ = maxCZ - minCZ;
+        int axis = (extentX >= extentY && extentX >= extentZ) ? 0 : (extentY >= extentZ) ? 1 : 2;
+        int mid = (start + end) >>> 1;
+        this.selectMedian(hierarchy.entries, start, end - 1, mid, axis);
+
+        hierarchy.nodeStart[node] = start;
+        hierarchy.nodeEnd[node] = start; // interior nodes contain no entries of their own
+        this.assembleNode(hierarchy, start, mid);
+        hierarchy.nodeRight[node] = this.assembleNode(hierarchy, mid, end);
+
+        return node;
+    }
+
+    /**
+     * Partially sorts a range of entries by their centers along an axis, such that the entry at the specified position
+     * is preceded by entries with lesser or equal centers and followed by entries with greater or equal centers.
+     */
+    protected void selectMedian(int[] entries, int left, int right, int position, int axis) {
+        double[] b = this.bounds;
+        while (left < right) {
+            int pivotEntry = entries[(left + right) >>> 1];
+            double pivot = b[pivotEntry * 6 + axis] + b[pivotEntry * 6 + 3 + axis];
+            int i = left, j = right;
+            while (i <= j) {
+                while (b[entries[i] * 6 + axis] + b[entries[i] * 6 + 3 + axis] < pivot) i++;
+                while (b[entries[j] * 6 + axis] + b[entries[j] * 6 + 3 + axis] > pivot) j--;
+                if (i <= j) {
+                    int tmp = entries[i];
+                    entries[i++] = entries[j];
+                    entries[j--] = tmp;
+                }
+            }
+
+            if (position <= j) {
+                right = j;
+            } else if (position >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    protected void findLineCandidates(Line line, double pixelSizeFactor, double tolerance, int node) {
+        Hierarchy hierarchy = this.cartesian;
+        double pixels = hierarchy.nodePixels[node] + tolerance;
+        if (!lineIntersectsBox(line, pixelSizeFactor * pixels, hierarchy.nodeBounds, node * 6)) {
+            return;
+        }
+
+        if (hierarchy.nodeStart[node] != hierarchy.nodeEnd[node]) {
+            for (int idx = hierarchy.nodeStart[node]; idx < hierarchy.nodeEnd[node]; idx++) {
+                int entry = hierarchy.entries[idx];
+                if (lineIntersectsBox(line, pixelSizeFactor * (this.pixels[entry] + tolerance), this.bounds, entry * 6)) {
+                    this.addCandidate(entry);
+                }
+            }
+            return;
+        }
+
+        this.findLineCandidates(line, pixelSizeFactor, tolerance, node + 1);
+        this.findLineCandidates(line, pixelSizeFactor, tolerance, hierarchy.nodeRight[node]);
+    }
+
+    protected void findLocationCandidates(double x, double y, double degreesPerPixel, double tolerance, int node) {
+        Hierarchy hierarchy = this.geographic;
+        double expand = degreesPerPixel * (hierarchy.nodePixels[node] + tolerance);
+        if (!boxContainsPoint(x, y, expand, hierarchy.nodeBounds, node * 6)) {
+            return;
+        }
+
+        if (hierarchy.nodeStart[node] != hierarchy.nodeEnd[node]) {
+            for (int idx = hierarchy.nodeStart[node]; idx < hierarchy.nodeEnd[node]; idx++) {
+                int entry = hierarchy.entries[idx];
+                if (boxContainsPoint(x, y, degreesPerPixel * (this.pixels[entry] + tolerance), this.bounds, entry * 6)) {
+                    this.addCandidate(entry);
+                }
+            }
+            return;
+        }
+
+        this.findLocationCandidates(x, y, degreesPerPixel, tolerance, node + 1);
+        this.findLocationCandidates(x, y, degreesPerPixel, tolerance, hierarchy.nodeRight[node]);
+    }
+
+    /**
+     * Determines whether a line passes through a box expanded by a tolerance that grows with distance along the line.
+     * The box is expanded by the largest tolerance within it, which occurs at the box's farthest point from the line's
+     * origin.
+     */
+    protected static boolean lineIntersectsBox(Line line, double toleranceRate, double[] boxes, int box) {
+        double ox = line.origin.x, oy = line.origin.y, oz = line.origin.z;
+        double fx = Math.max(Math.abs(boxes[box] - ox), Math.abs(boxes[box + 3] - ox));
+        double fy = Math.max(Math.abs(boxes[box + 1] - oy), Math.abs(boxes[box + 4] - oy));
+        double fz = Math.max(Math.abs(boxes[box + 2] - oz), Math.abs(boxes[box + 5] - oz));
+        double expand = toleranceRate * Math.sqrt(fx * fx + fy * fy + fz * fz);
+
+        // Clip the line against the box's slabs, rejecting the box when the line misses it or when the box is entirely
+        // behind the line's origin.
+        double tMin = 0, tMax = Double.POSITIVE_INFINITY;
+        for (int axis = 0; axis < 3; axis++) {
+            double o = (axis == 0) ? ox : (axis == 1) ? oy : oz;
+            double d = (axis == 0) ? line.direction.x : (axis == 1) ? line.direction.y : line.direction.z;
+            double min = boxes[box + axis] - expand;
+            double max = boxes[box + 3 + axis] + expand;
+            if (Math.abs(d) < EPSILON) {
+                if (o < min || o > max) {
+                    return false; // the line is parallel to the slab and outside it
+                }
+            } else {
+                double t1 = (min - o) / d;
+                double t2 = (max - o) / d;
+                tMin = Math.max(tMin, Math.min(t1, t2));
+                tMax = Math.min(tMax, Math.max(t1, t2));
+                if (tMin > tMax) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    protected static boolean boxContainsPoint(double x, double y, double expand, double[] boxes, int box) {
+        return x >= boxes[box] - expand && x <= boxes[box + 3] + expand
+            && y >= boxes[box + 1] - expand && y <= boxes[box + 4] + expand;
+    }
+
+    /**
+     * Hierarchy nodes over the entries of one kind. Each node stores its bounds, the largest screen pixel extent of its
+     * entries, and for leaf nodes the range of its entries.
+     */
+    protected static class Hierarchy {
+
+        protected int[] entries = new int[0];
+
+        protected int entryCount;
+
+        protected double[] nodeBounds = new double[0];
+
+        protected double[] nodePixels = new double[0];
+
+        protected int[] nodeStart = new int[0];
+
+        protected int[] nodeEnd = new int[0];
+
+        protected int[] nodeRight = new int[0];
+
+        protected int nodeCount;
+
+        protected void reset(int entryCount) {
+            if (this.entries.length < entryCount) {
+                this.entries = new int[entryCount];
+            }
+
+            // A binary tree with leaves of at least one entry has fewer than twice as many nodes as entries.
+            int nodeCapacity = Math.max(entryCount * 2, 1);
+            if (this.nodePixels.length < nodeCapacity) {
+                this.nodeBounds = new double[nodeCapacity * 6];
+                this.nodePixels = new double[nodeCapacity];
+                this.nodeStart = new int[nodeCapacity];
+                this.nodeEnd = new int[nodeCapacity];
+                this.nodeRight = new int[nodeCapacity];
+            }
+
+            this.entryCount = 0;
+            this.nodeCount = 0;
+        }
+
+        protected int addNode() {
+            return this.nodeCount++;
+        }
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.shape;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.globe.Globe;
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.util.Logger;
+
+/**
+ * Assembles shape geometry on a pool of worker threads, off the thread that renders WorldWindow frames.
+ * <p/>
+ * Shapes submit an {@link Assembly} that captures a snapshot of the shape's properties. Assemblies run on worker
+ * threads against a worker-local {@link RenderContext} that provides the globe, vertical exaggeration and a GLU
+ * tessellator, but no terrain. Completed assemblies are published on the render thread by {@link #publishResults()} in
+ * the same order they were submitted, regardless of the order in which the worker threads complete them. An assembly
+ * that completes ahead of an earlier submission waits until the earlier submission completes. An assembly that throws
+ * an exception is published by {@link Assembly#publishFailure(Throwable)} in its place.
+ * <p/>
+ * The number of outstanding assemblies is bounded by the assembler's capacity. Submissions beyond that capacity are
+ * rejected, and the submitting shape is expected to try again in a subsequent frame.
+ */
+public class ShapeGeometryAssembler {
+
+    /**
+     * Geometry assembly work submitted to a ShapeGeometryAssembler.
+     */
+    public interface Assembly {
+
+        /**
+         * Assembles geometry on a worker thread. The render context is private to the worker thread and provides the
+         * globe, vertical exaggeration and GLU tessellator; it does not provide terrain or a drawable queue.
+         *
+         * @param rc the worker thread's render context
+         */
+        void assemble(RenderContext rc);
+
+        /**
+         * Hands the assembled geometry to its shape. Called on the render thread in submission order.
+         */
+        void publish();
+
+        /**
+         * Notifies the assembly's shape that assembly failed, so that the shape can assemble its geometry by other
+         * means. Called on the render thread in submission order, instead of {@link #publish()}.
+         *
+         * @param failure the exception thrown while assembling
+         */
+        void publishFailure(Throwable failure);
+    }
+
+    protected static final int DEFAULT_CAPACITY = 256;
+
+    protected int threadCount;
+
+    protected int capacity;
+
+    protected ThreadPoolExecutor executor;
+
+    protected Queue<Job> pendingJobs = new ArrayDeque<>();
+
+    protected long nextSequence;
+
+    protected final ThreadLocal<RenderContext> workerContext = new ThreadLocal<>();
+
+    public ShapeGeometryAssembler() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), DEFAULT_CAPACITY);
+    }
+
+    public ShapeGeometryAssembler(int threadCount, int capacity) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ShapeGeometryAssembler", "constructor", "invalidThreadCount"));
+        }
+
+        if (capacity < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ShapeGeometryAssembler", "constructor", "invalidCapacity"));
+        }
+
+        this.threadCount = threadCount;
+        this.capacity = capacity;
+    }
+
+    public int getThreadCount() {
+        return this.threadCount;
+    }
+
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Indicates the number of submitted assemblies that have not yet been published, including those that are queued,
+     * running, or complete and waiting for publication.
+     *
+     * @return the number of outstanding assemblies
+     */
+    public synchronized int getPendingCount() {
+        return this.pendingJobs.size();
+    }
+
+    /**
+     * Indicates whether this assembler has reached its capacity and will reject further submissions until some of its
+     * outstanding assemblies are published.
+     *
+     * @return true if the assembler is saturated, otherwise false
+     */
+    public synchronized boolean isSaturated() {
+        return this.pendingJobs.size() >= this.capacity;
+    }
+
+    /**
+     * Submits an assembly for processing on a worker thread. May be called on the render thread or on a thread
+     * rendering layers in parallel.
+     *
+     * @param rc       the render context providing the globe and vertical exaggeration for the assembly
+     * @param assembly the assembly to process
+     *
+     * @return a job identifying the submission, or null if the assembler is saturated
+     *
+     * @throws IllegalArgumentException If any argument is null
+     */
+    public synchronized Job submit(RenderContext rc, Assembly assembly) {
+        if (rc == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ShapeGeometryAssembler", "submit", "missingRenderContext"));
+        }
+
+        if (assembly == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ShapeGeometryAssembler", "submit", "missingAssembly"));
+        }
+
+        if (this.isSaturated()) {
+            return null; // too many outstanding assemblies; the caller tries again in a subsequent frame
+        }
+
+        Job job = new Job(this, this.nextSequence++, rc.globe, rc.verticalExaggeration, assembly);
+        try {
+            this.executor().execute(job);
+        } catch (RejectedExecutionException ignored) { // the executor has been shut down
+            return null;
+        }
+
+        this.pendingJobs.offer(job);
+        return job;
+    }
+
+    /**
+     * Publishes completed assemblies in submission order. Publication stops at the first assembly that has not yet
+     * completed. Cancelled assemblies are discarded without being published. Must be called on the render thread.
+     *
+     * @return the number of assemblies published
+     */
+    public synchronized int publishResults() {
+        int publishCount = 0;
+
+        Job job;
+        while ((job = this.pendingJobs.peek()) != null && job.isDone()) {
+            this.pendingJobs.poll();
+
+            if (job.isCancelled()) {
+                continue; // the shape has been reset since this job was submitted
+            }
+
+            if (job.failure != null) {
+                Logger.logMessage(Logger.ERROR, "ShapeGeometryAssembler", "publishResults",
+                    "Exception while assembling shape geometry", job.failure);
+                try {
+                    job.assembly.publishFailure(job.failure);
+                } catch (Exception e) {
+                    Logger.logMessage(Logger.ERROR, "ShapeGeometryAssembler", "publishResults",
+                        "Exception while publishing shape geometry failure", e);
+                }
+                continue;
+            }
+
+            try {
+                job.assembly.publish();
+                publishCount++;
+            } catch (Exception e) {
+                Logger.logMessage(Logger.ERROR, "ShapeGeometryAssembler", "publishResults",
+                    "Exception while publishing shape geometry", e);
+            }
+        }
+
+        return publishCount;
+    }
+
+    /**
+     * Cancels all outstanding assemblies and stops the worker threads. Subsequent submissions are rejected.
+     */
+    public synchronized void shutdown() {
+        for (Job job : this.pendingJobs) {
+            job.cancel();
+        }
+
+        this.pendingJobs.clear();
+
+        if (this.executor != null) {
+            this.executor.shutdown();
+        }
+    }
+
+    protected ThreadPoolExecutor executor() {
+        if (this.executor == null) {
+            this.executor = new ThreadPoolExecutor(this.threadCount, this.threadCount, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), // bounded by the assembler's capacity
+                this.threadFactory());
+            this.executor.allowCoreThreadTimeOut(true); // release idle worker threads
+        }
+
+        return this.executor;
+    }
+
+    protected ThreadFactory threadFactory() {
+        final String threadName = "WorldWind Shape Assembler ";
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(@NonNull Runnable r) {
+                Thread thread = new Thread(r, threadName + threadNumber.getAndIncrement());
+                thread.setDaemon(true); // worker threads do not prevent the process from terminating
+                return thread;
+            }
+        };
+    }
+
+    protected RenderContext workerContext(Globe globe, double verticalExaggeration) {
+        RenderContext rc = this.workerContext.get();
+        if (rc == null) {
+            rc = new RenderContext();
+            this.workerContext.set(rc);
+        }
+
+        rc.globe = globe;
+        rc.verticalExaggeration = verticalExaggeration;
+
+        return rc;
+    }
+
+    /**
+     * A geometry assembly submitted to a ShapeGeometryAssembler.
+     */
+    public static class Job implements Runnable {
+
+        protected final ShapeGeometryAssembler assembler;
+
+        protected final long sequence;
+
+        protected final Globe globe;
+
+        protected final double verticalExaggeration;
+
+        protected final Assembly assembly;
+
+        protected volatile boolean done;
+
+        protected volatile boolean cancelled;
+
+        protected Throwable failure;
+
+        protected Job(ShapeGeometryAssembler assembler, long sequence, Globe globe, double verticalExaggeration, Assembly assembly) {
+            this.assembler = assembler;
+            this.sequence = sequence;
+            this.globe = globe;
+            this.verticalExaggeration = verticalExaggeration;
+            this.assembly = assembly;
+        }
+
+        public long getSequence() {
+            return this.sequence;
+        }
+
+        public boolean isDone() {
+            return this.done;
+        }
+
+        public boolean isCancelled() {
+            return this.cancelled;
+        }
+
+        /**
+         * Cancels this job. A cancelled job that has not yet started is skipped by the worker threads, and a cancelled
+         * job that has completed is discarded without being published.
+         */
+        public void cancel() {
+            this.cancelled = true;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (!this.cancelled) {
+                    RenderContext rc = this.assembler.workerContext(this.globe, this.verticalExaggeration);
+                    this.assembly.assemble(rc);
+                }
+            } catch (Throwable ex) {
+                this.failure = ex; // published by the render thread after the done flag is set
+            } finally {
+                this.done = true;
+            }
+
+            if (!this.cancelled) {
+                WorldWind.requestRedraw(); // publish the assembly in a subsequent frame
+            }
+        }
+    }
+}
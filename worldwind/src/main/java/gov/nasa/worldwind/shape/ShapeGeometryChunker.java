@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.shape;
+
+import android.opengl.GLES20;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import gov.nasa.worldwind.util.FloatArray;
+import gov.nasa.worldwind.util.IntArray;
+import gov.nasa.worldwind.util.Logger;
+import gov.nasa.worldwind.util.ShortArray;
+
+/**
+ * Splits shape geometry that exceeds the range of 16-bit element indices into chunks that can each be drawn with
+ * GL_UNSIGNED_SHORT indices. Used when the OpenGL implementation does not support the OES_element_index_uint
+ * extension.
+ * <p/>
+ * The shape's geometry is specified as an interleaved vertex array and an ordered list of element groups, each drawn
+ * with a single primitive mode. Each chunk contains a copy of the vertices its primitives reference, and the chunk's
+ * elements for every group, stored contiguously in group order and indexed relative to the chunk's vertices. Triangle
+ * and line primitives are never split across chunks. Line strips and triangle strips that span multiple chunks are
+ * restarted in the next chunk, repeating the vertices necessary to preserve the strip's continuity and winding order.
+ */
+public class ShapeGeometryChunker {
+
+    /**
+     * The maximum number of vertices that can be addressed by GL_UNSIGNED_SHORT element indices.
+     */
+    public static final int MAX_SHORT_INDEX_VERTICES = 0x10000;
+
+    protected int maxVertexCount;
+
+    public ShapeGeometryChunker() {
+        this(MAX_SHORT_INDEX_VERTICES);
+    }
+
+    public ShapeGeometryChunker(int maxVertexCount) {
+        if (maxVertexCount < 4 || maxVertexCount > MAX_SHORT_INDEX_VERTICES) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ShapeGeometryChunker", "constructor", "invalidVertexCount"));
+        }
+
+        this.maxVertexCount = maxVertexCount;
+    }
+
+    public int getMaxVertexCount() {
+        return this.maxVertexCount;
+    }
+
+    /**
+     * Splits the specified geometry into chunks of at most this chunker's maximum vertex count.
+     *
+     * @param vertexArray  the interleaved vertex array
+     * @param vertexStride the number of values per vertex in the vertex array
+     * @param modes        the OpenGL primitive mode of each element group: GL_TRIANGLES, GL_TRIANGLE_STRIP, GL_LINES or
+     *                     GL_LINE_STRIP
+     * @param elements     the vertex indices of each element group
+     *
+     * @return the list of chunks, in the order their primitives appear in the element groups
+     *
+     * @throws IllegalArgumentException If any argument is null, if the stride is less than 1, if the modes and elements
+     *                                  have different lengths, or if a mode is unsupported
+     */
+    public List<Chunk> chunk(float[] vertexArray, int vertexStride, int[] modes, IntArray[] elements) {
+        if (vertexArray == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ShapeGeometryChunker", "chunk", "missingArray"));
+        }
+
+        if (vertexStride < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ShapeGeometryChunker", "chunk", "invalidStride"));
+        }
+
+        if (modes == null || elements == null || modes.length != elements.length) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ShapeGeometryChunker", "chunk", "invalidElements"));
+        }
+
+        ChunkBuilder builder = new ChunkBuilder(vertexArray, vertexStride, modes.length, this.maxVertexCount);
+
+        for (int group = 0; group < modes.length; group++) {
+            switch (modes[group]) {
+                case GLES20.GL_TRIANGLES:
+                    builder.addPrimitives(group, elements[group], 3);
+                    break;
+                case GLES20.GL_LINES:
+                    builder.addPrimitives(group, elements[group], 2);
+                    break;
+                case GLES20.GL_TRIANGLE_STRIP:
+                    builder.addStrip(group, elements[group], true);
+                    break;
+                case GLES20.GL_LINE_STRIP:
+                    builder.addStrip(group, elements[group], false);
+                    break;
+                default:
+                    throw new IllegalArgumentException(
+                        Logger.logMessage(Logger.ERROR, "ShapeGeometryChunker", "chunk", "invalidMode"));
+            }
+        }
+
+        return builder.finish();
+    }
+
+    /**
+     * A portion of a shape's geometry addressable by 16-bit element indices.
+     */
+    public static class Chunk {
+
+        /**
+         * The chunk's interleaved vertex array, with the same stride as the shape's vertex array.
+         */
+        public FloatArray vertexArray = new FloatArray();
+
+        /**
+         * The chunk's elements for every element group, stored contiguously in group order.
+         */
+        public ShortArray elements = new ShortArray();
+
+        /**
+         * The index of each element group's first element in the chunk's elements.
+         */
+        public int[] elementOffsets;
+
+        /**
+         * The number of elements of each element group in the chunk's elements.
+         */
+        public int[] elementCounts;
+
+        public Object vertexBufferKey = new Object();
+
+        public Object elementBufferKey = new Object();
+
+        protected int vertexCount;
+
+        public Chunk(int groupCount) {
+            this.elementOffsets = new int[groupCount];
+            this.elementCounts = new int[groupCount];
+        }
+
+        public int getVertexCount() {
+            return this.vertexCount;
+        }
+    }
+
+    protected static class ChunkBuilder {
+
+        protected float[] vertexArray;
+
+        protected int vertexStride;
+
+        protected int groupCount;
+
+        protected int maxVertexCount;
+
+        protected List<Chunk> chunks = new ArrayList<>();
+
+        protected Chunk chunk;
+
+        protected int[] chunkIndices;
+
+        protected IntArray chunkSources = new IntArray();
+
+        public ChunkBuilder(float[] vertexArray, int vertexStride, int groupCount, int maxVertexCount) {
+            this.vertexArray = vertexArray;
+            this.vertexStride = vertexStride;
+            this.groupCount = groupCount;
+            this.maxVertexCount = maxVertexCount;
+            this.chunkIndices = new int[vertexArray.length / vertexStride];
+            Arrays.fill(this.chunkIndices, -1);
+            this.chunk = new Chunk(groupCount);
+        }
+
+        public void addPrimitives(int group, IntArray elements, int primitiveSize) {
+            int[] array = elements.array();
+            for (int idx = 0, len = elements.size() - primitiveSize + 1; idx < len; idx += primitiveSize) {
+                if (!this.hasCapacity(array, idx, primitiveSize)) {
+                    this.nextChunk();
+                }
+
+                for (int vertex = idx; vertex < idx + primitiveSize; vertex++) {
+                    this.addElement(group, array[vertex]);
+                }
+            }
+        }
+
+        public void addStrip(int group, IntArray elements, boolean triangles) {
+            int[] array = elements.array();
+            for (int idx = 0, len = elements.size(); idx < len; idx++) {
+                if (this.hasCapacity(array, idx, 1)) {
+                    this.addElement(group, array[idx]);
+                    continue;
+                }
+
+                this.nextChunk();
+
+                // Restart the strip in the new chunk at the first primitive that includes this vertex. Triangles at odd
+                // positions in a strip have their winding order reversed, so a triangle strip restarted at an odd
+                // position begins with a degenerate triangle that preserves the winding order.
+                int first = Math.max(idx - (triangles ? 2 : 1), 0);
+                if (triangles && (first % 2) != 0) {
+                    this.addElement(group, array[first]);
+                }
+                for (int vertex = first; vertex < idx; vertex++) {
+                    this.addElement(group, array[vertex]);
+                }
+
+                this.addElement(group, array[idx]);
+            }
+        }
+
+        public List<Chunk> finish() {
+            if (this.chunk.vertexCount > 0) {
+                this.chunks.add(this.chunk);
+            }
+
+            return this.chunks;
+        }
+
+        protected boolean hasCapacity(int[] array, int offset, int count) {
+            int newVertexCount = 0;
+            for (int idx = offset; idx < offset + count; idx++) {
+                if (this.chunkIndices[array[idx]] < 0) {
+                    newVertexCount++;
+                }
+            }
+
+            return this.chunk.vertexCount + newVertexCount <= this.maxVertexCount;
+        }
+
+        protected void nextChunk() {
+            if (this.chunk.vertexCount == 0) {
+                return; // the current chunk is empty
+            }
+
+            // Clear the mapping from source vertices to the current chunk's vertices.
+            int[] sources = this.chunkSources.array();
+            for (int idx = 0, len = this.chunkSources.size(); idx < len; idx++) {
+                this.chunkIndices[sources[idx]] = -1;
+            }
+
+            this.chunkSources.clear();
+            this.chunks.add(this.chunk);
+            this.chunk = new Chunk(this.groupCount);
+        }
+
+        protected void addElement(int group, int vertex) {
+            int chunkIndex = this.chunkIndices[vertex];
+            if (chunkIndex < 0) {
+                chunkIndex = this.chunk.vertexCount++;
+                this.chunkIndices[vertex] = chunkIndex;
+                this.chunkSources.add(vertex);
+
+                for (int idx = vertex * this.vertexStride, len = idx + this.vertexStride; idx < len; idx++) {
+                    this.chunk.vertexArray.add(this.vertexArray[idx]);
+                }
+            }
+
+            if (this.chunk.elementCounts[group] == 0) {
+                this.chunk.elementOffsets[group] = this.chunk.elements.size();
+            }
+
+            this.chunk.elements.add((short) chunkIndex);
+            this.chunk.elementCounts[group]++;
+        }
+    }
+}
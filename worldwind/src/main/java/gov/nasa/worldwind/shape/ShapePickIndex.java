@@ -0,0 +1,453 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.shape;
+
+import android.opengl.GLES20;
+
+import gov.nasa.worldwind.geom.Line;
+import gov.nasa.worldwind.util.Logger;
+import gov.nasa.worldwind.util.WWMath;
+
+/**
+ * Bounding volume hierarchy over the line segments or triangles of one shape element group, used to intersect shape
+ * geometry with a pick ray on the CPU. Used by Path and Polygon to support analytic picking without an OpenGL round
+ * trip.
+ * <p/>
+ * Primitives are grouped into leaves of consecutive primitives, and each level of the hierarchy bounds pairs of
+ * adjacent nodes from the level below. Shape geometry is assembled in order along the shape's boundaries, so
+ * consecutive primitives are spatially coherent and the hierarchy's bounding boxes are tight without sorting. A query
+ * visits only the nodes whose bounding boxes the pick ray passes through.
+ * <p/>
+ * The index references the vertex array specified at construction; the vertex array must not be modified while the
+ * index is in use.
+ */
+public class ShapePickIndex {
+
+    protected static final int LEAF_SIZE = 8;
+
+    protected static final double EPSILON = 1.0e-10;
+
+    protected float[] vertexArray;
+
+    protected int vertexStride;
+
+    protected int primitiveSize;
+
+    protected int[] primitives;
+
+    protected int primitiveCount;
+
+    /**
+     * Bounding boxes for each level of the hierarchy, from the leaves to the root. Each box is stored as six values:
+     * minimum x, y and z followed by maximum x, y and z.
+     */
+    protected float[][] levels;
+
+    /**
+     * Constructs an index over the primitives of a shape element group.
+     *
+     * @param vertexArray  the interleaved vertex array; the first three values of each vertex are its coordinates
+     * @param vertexStride the number of values per vertex in the vertex array
+     * @param mode         the element group's primitive mode: GL_LINES, GL_LINE_STRIP, GL_TRIANGLES or
+     *                     GL_TRIANGLE_STRIP
+     * @param elements     the element group's vertex indices
+     * @param count        the number of vertex indices in the element group
+     *
+     * @throws IllegalArgumentException If either array is null, if the stride is less than 3, or if the mode is not one
+     *                                  of the supported modes
+     */
+    public ShapePickIndex(float[] vertexArray, int vertexStride, int mode, int[] elements, int count) {
+        if (vertexArray == null || elements == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ShapePickIndex", "constructor", "missingArray"));
+        }
+
+        if (vertexStride < 3) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ShapePickIndex", "constructor", "invalidStride"));
+        }
+
+        this.vertexArray = vertexArray;
+        this.vertexStride = vertexStride;
+        this.assemblePrimitives(mode, elements, count);
+        this.assembleLevels();
+    }
+
+    /**
+     * Indicates the number of line segments or triangles in the index.
+     *
+     * @return the primitive count
+     */
+    public int getPrimitiveCount() {
+        return this.primitiveCount;
+    }
+
+    /**
+     * Indicates whether the index contains line segments or triangles.
+     *
+     * @return true if the index contains line segments, false if it contains triangles
+     */
+    public boolean isLines() {
+        return this.primitiveSize == 2;
+    }
+
+    /**
+     * Computes the nearest intersection of a line with the indexed primitives. Triangles intersect the line when the
+     * line passes through them. Line segments intersect the line when they pass within a tolerance of the line, where
+     * the tolerance grows with distance along the line in order to express a constant size in screen pixels.
+     *
+     * @param line          the line in the vertex array's coordinate system; its direction must be a unit vector
+     * @param tolerance     the line segment tolerance at the line's origin
+     * @param toleranceRate the increase in line segment tolerance per unit distance along the line
+     *
+     * @return the distance along the line to the nearest intersection, or positive infinity if there is none
+     *
+     * @throws IllegalArgumentException If the line is null
+     */
+    public double intersectLine(Line line, double tolerance, double toleranceRate) {
+        if (line == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ShapePickIndex", "intersectLine", "missingLine"));
+        }
+
+        if (this.primitiveCount == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        int top = this.levels.length - 1;
+        return this.intersectNode(line, tolerance, toleranceRate, top, 0, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Determines whether a point lies on the indexed primitives, considering only the first two coordinates of each
+     * vertex. Used to pick surface shapes, whose vertices are in geographic coordinates. Triangles contain the point
+     * when the point lies inside them. Line segments contain the point when they pass within a tolerance of the point.
+     *
+     * @param x         the point's first coordinate
+     * @param y         the point's second coordinate
+     * @param tolerance the line segment tolerance
+     *
+     * @return true if the point lies on any primitive, otherwise false
+     */
+    public boolean containsPoint(double x, double y, double tolerance) {
+        if (this.primitiveCount == 0) {
+            return false;
+        }
+
+        return this.containsPointNode(x, y, this.isLines() ? tolerance : 0, this.levels.length - 1, 0);
+    }
+
+    protected void assemblePrimitives(int mode, int[] elements, int count) {
+        int[] result;
+        int size = 0;
+
+        switch (mode) {
+            case GLES20.GL_LINES:
+                this.primitiveSize = 2;
+                result = new int[count / 2 * 2];
+                for (int idx = 0; idx + 1 < count; idx += 2) {
+                    result[size++] = elements[idx] * this.vertexStride;
+                    result[size++] = elements[idx + 1] * this.vertexStride;
+                }
+                break;
+            case GLES20.GL_LINE_STRIP:
+                this.primitiveSize = 2;
+                result = new int[Math.max(count - 1, 0) * 2];
+                for (int idx = 1; idx < count; idx++) {
+                    result[size++] = elements[idx - 1] * this.vertexStride;
+                    result[size++] = elements[idx] * this.vertexStride;
+                }
+                break;
+            case GLES20.GL_TRIANGLES:
+                this.primitiveSize = 3;
+                result = new int[count / 3 * 3];
+                for (int idx = 0; idx + 2 < count; idx += 3) {
+                    result[size++] = elements[idx] * this.vertexStride;
+                    result[size++] = elements[idx + 1] * this.vertexStride;
+                    result[size++] = elements[idx + 2] * this.vertexStride;
+                }
+                break;
+            case GLES20.GL_TRIANGLE_STRIP:
+                this.primitiveSize = 3;
+                result = new int[Math.max(count - 2, 0) * 3];
+                for (int idx = 2; idx < count; idx++) {
+                    result[size++] = elements[idx - 2] * this.vertexStride;
+                    result[size++] = elements[idx - 1] * this.vertexStride;
+                    result[size++] = elements[idx] * this.vertexStride;
+                }
+                break;
+            default:
+                throw new IllegalArgumentException(
+                    Logger.logMessage(Logger.ERROR, "ShapePickIndex", "constructor", "invalidMode"));
+        }
+
+        this.primitives = result;
+        this.primitiveCount = size / this.primitiveSize;
+    }
+
+    protected void assembleLevels() {
+        int nodeCount = Math.max((this.primitiveCount + LEAF_SIZE - 1) / LEAF_SIZE, 1);
+        int levelCount = 1;
+        for (int count = nodeCount; count > 1; count = (count + 1) / 2) {
+            levelCount++;
+        }
+
+        // Bound the primitives in each leaf.
+        this.levels = new float[levelCount][];
+        float[] leaves = this.levels[0] = new float[nodeCount * 6];
+        float[] points = this.vertexArray;
+        int[] prims = this.primitives;
+        for (int node = 0; node < nodeCount; node++) {
+            int begin = node * LEAF_SIZE * this.primitiveSize;
+            int end = Math.min(begin + LEAF_SIZE * this.primitiveSize, this.primitiveCount * this.primitiveSize);
+            float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, minZ = Float.MAX_VALUE;
+            float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE, maxZ = -Float.MAX_VALUE;
+            for (int idx = begin; idx < end; idx++) {
+                int vertex = prims[idx];
+                float x = points[vertex], y = points[vertex + 1], z = points[vertex + 2];
+                if (minX > x) minX = x;
+                if (maxX < x) maxX = x;
+                if (minY > y) minY = y;
+                if (maxY < y) maxY = y;
+                if (minZ > z) minZ = z;
+                if (maxZ < z) maxZ = z;
+            }
+            int box = node * 6;
+            leaves[box] = minX;
+            leaves[box + 1] = minY;
+            leaves[box + 2] = minZ;
+            leaves[box + 3] = maxX;
+            leaves[box + 4] = maxY;
+            leaves[box + 5] = maxZ;
+        }
+
+        // Bound pairs of adjacent nodes in each successive level.
+        for (int level = 1; level < levelCount; level++) {
+            float[] below = this.levels[level - 1];
+            int belowCount = below.length / 6;
+            float[] boxes = this.levels[level] = new float[(belowCount + 1) / 2 * 6];
+            for (int node = 0; node < belowCount; node += 2) {
+                int box = node / 2 * 6;
+                int left = node * 6;
+                int right = (node + 1 < belowCount) ? left + 6 : left;
+                for (int idx = 0; idx < 3; idx++) {
+                    boxes[box + idx] = Math.min(below[left + idx], below[right + idx]);
+                    boxes[box + 3 + idx] = Math.max(below[left + 3 + idx], below[right + 3 + idx]);
+                }
+            }
+        }
+    }
+
+    protected double intersectNode(Line line, double tolerance, double toleranceRate, int level, int node,
+                                   double nearest) {
+        float[] boxes = this.levels[level];
+        if (!this.lineIntersectsBox(line, tolerance, toleranceRate, boxes, node * 6, nearest)) {
+            return nearest;
+        }
+
+        if (level > 0) {
+            int belowCount = this.levels[level - 1].length / 6;
+            int child = node * 2;
+            nearest = this.intersectNode(line, tolerance, toleranceRate, level - 1, child, nearest);
+            if (child + 1 < belowCount) {
+                nearest = this.intersectNode(line, tolerance, toleranceRate, level - 1, child + 1, nearest);
+            }
+            return nearest;
+        }
+
+        int begin = node * LEAF_SIZE;
+        int end = Math.min(begin + LEAF_SIZE, this.primitiveCount);
+        for (int prim = begin; prim < end; prim++) {
+            double distance = (this.primitiveSize == 2) ?
+                this.intersectSegment(line, tolerance, toleranceRate, prim * 2) :
+                this.intersectTriangle(line, prim * 3);
+            if (nearest > distance) {
+                nearest = distance;
+            }
+        }
+
+        return nearest;
+    }
+
+    protected boolean containsPointNode(double x, double y, double tolerance, int level, int node) {
+        float[] boxes = this.levels[level];
+        int box = node * 6;
+        if (x < boxes[box] - tolerance || x > boxes[box + 3] + tolerance
+            || y < boxes[box + 1] - tolerance || y > boxes[box + 4] + tolerance) {
+            return false;
+        }
+
+        if (level > 0) {
+            int belowCount = this.levels[level - 1].length / 6;
+            int child = node * 2;
+            return this.containsPointNode(x, y, tolerance, level - 1, child)
+                || (child + 1 < belowCount && this.containsPointNode(x, y, tolerance, level - 1, child + 1));
+        }
+
+        int begin = node * LEAF_SIZE;
+        int end = Math.min(begin + LEAF_SIZE, this.primitiveCount);
+        for (int prim = begin; prim < end; prim++) {
+            boolean contains = (this.primitiveSize == 2) ?
+                this.segmentContainsPoint(x, y, tolerance, prim * 2) :
+                this.triangleContainsPoint(x, y, prim * 3);
+            if (contains) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    protected boolean lineIntersectsBox(Line line, double tolerance, double toleranceRate, float[] boxes, int box,
+                                        double nearest) {
+        double ox = line.origin.x, oy = line.origin.y, oz = line.origin.z;
+        double dx = line.direction.x, dy = line.direction.y, dz = line.direction.z;
+
+        // Expand the box by the largest line segment tolerance within the box, which occurs at the box's farthest point
+        // from the line's origin.
+        double expand = 0;
+        if (this.primitiveSize == 2) {
+            double fx = Math.max(Math.abs(boxes[box] - ox), Math.abs(boxes[box + 3] - ox));
+            double fy = Math.max(Math.abs(boxes[box + 1] - oy), Math.abs(boxes[box + 4] - oy));
+            double fz = Math.max(Math.abs(boxes[box + 2] - oz), Math.abs(boxes[box + 5] - oz));
+            expand = tolerance + toleranceRate * Math.sqrt(fx * fx + fy * fy + fz * fz);
+        }
+
+        // Clip the line against the box's slabs, rejecting the box when the line misses it or when the box is entirely
+        // behind the line's origin or behind the nearest intersection found so far.
+        double tMin = 0, tMax = nearest;
+        for (int axis = 0; axis < 3; axis++) {
+            double o = (axis == 0) ? ox : (axis == 1) ? oy : oz;
+            double d = (axis == 0) ? dx : (axis == 1) ? dy : dz;
+            double min = boxes[box + axis] - expand;
+            double max = boxes[box + 3 + axis] + expand;
+            if (Math.abs(d) < EPSILON) {
+                if (o < min || o > max) {
+                    return false; // the line is parallel to the slab and outside it
+                }
+            } else {
+                double t0 = (min - o) / d;
+                double t1 = (max - o) / d;
+                if (t0 > t1) {
+                    double t = t0;
+                    t0 = t1;
+                    t1 = t;
+                }
+                if (tMin < t0) tMin = t0;
+                if (tMax > t1) tMax = t1;
+                if (tMin > tMax) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    protected double intersectSegment(Line line, double tolerance, double toleranceRate, int prim) {
+        // Compute the closest points between the line and the segment.
+        float[] points = this.vertexArray;
+        int a = this.primitives[prim];
+        int b = this.primitives[prim + 1];
+        double ux = line.direction.x, uy = line.direction.y, uz = line.direction.z;
+        double vx = points[b] - points[a], vy = points[b + 1] - points[a + 1], vz = points[b + 2] - points[a + 2];
+        double wx = line.origin.x - points[a], wy = line.origin.y - points[a + 1], wz = line.origin.z - points[a + 2];
+        double uv = ux * vx + uy * vy + uz * vz;
+        double vv = vx * vx + vy * vy + vz * vz;
+        double uw = ux * wx + uy * wy + uz * wz;
+        double vw = vx * wx + vy * wy + vz * wz;
+        double denom = vv - uv * uv; // the line's direction is a unit vector
+
+        double s = (denom > EPSILON) ? (vw - uv * uw) / denom : 0;
+        if (s < 0) {
+            s = 0;
+        } else if (s > 1) {
+            s = 1;
+        }
+
+        double t = s * uv - uw;
+        if (t < 0) { // the closest point is behind the line's origin; use the segment point closest to the origin
+            t = 0;
+            s = (vv > 0) ? WWMath.clamp(vw / vv, 0, 1) : 0;
+        }
+
+        double px = wx + t * ux - s * vx;
+        double py = wy + t * uy - s * vy;
+        double pz = wz + t * uz - s * vz;
+        double distance = Math.sqrt(px * px + py * py + pz * pz);
+
+        return (distance <= tolerance + toleranceRate * t) ? t : Double.POSITIVE_INFINITY;
+    }
+
+    protected double intersectTriangle(Line line, int prim) {
+        // Taken from Moller and Trumbore, as in Line.triStripIntersection.
+        float[] points = this.vertexArray;
+        int v0 = this.primitives[prim];
+        int v1 = this.primitives[prim + 1];
+        int v2 = this.primitives[prim + 2];
+        double e1x = points[v1] - points[v0], e1y = points[v1 + 1] - points[v0 + 1], e1z = points[v1 + 2] - points[v0 + 2];
+        double e2x = points[v2] - points[v0], e2y = points[v2 + 1] - points[v0 + 1], e2z = points[v2 + 2] - points[v0 + 2];
+        double dx = line.direction.x, dy = line.direction.y, dz = line.direction.z;
+
+        double px = dy * e2z - dz * e2y;
+        double py = dz * e2x - dx * e2z;
+        double pz = dx * e2y - dy * e2x;
+        double det = e1x * px + e1y * py + e1z * pz;
+        if (Math.abs(det) < EPSILON) {
+            return Double.POSITIVE_INFINITY; // the line is parallel to the triangle
+        }
+
+        double inv = 1.0 / det;
+        double sx = line.origin.x - points[v0], sy = line.origin.y - points[v0 + 1], sz = line.origin.z - points[v0 + 2];
+        double u = (sx * px + sy * py + sz * pz) * inv;
+        if (u < 0 || u > 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        double qx = sy * e1z - sz * e1y;
+        double qy = sz * e1x - sx * e1z;
+        double qz = sx * e1y - sy * e1x;
+        double v = (dx * qx + dy * qy + dz * qz) * inv;
+        if (v < 0 || u + v > 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        double t = (e2x * qx + e2y * qy + e2z * qz) * inv;
+        return (t >= 0) ? t : Double.POSITIVE_INFINITY;
+    }
+
+    protected boolean segmentContainsPoint(double x, double y, double tolerance, int prim) {
+        float[] points = this.vertexArray;
+        int a = this.primitives[prim];
+        int b = this.primitives[prim + 1];
+        double abx = points[b] - points[a], aby = points[b + 1] - points[a + 1];
+        double apx = x - points[a], apy = y - points[a + 1];
+        double length2 = abx * abx + aby * aby;
+        double t = (length2 > 0) ? (apx * abx + apy * aby) / length2 : 0;
+        if (t < 0) {
+            t = 0;
+        } else if (t > 1) {
+            t = 1;
+        }
+
+        double dx = apx - t * abx;
+        double dy = apy - t * aby;
+        return dx * dx + dy * dy <= tolerance * tolerance;
+    }
+
+    protected boolean triangleContainsPoint(double x, double y, int prim) {
+        float[] points = this.vertexArray;
+        int v0 = this.primitives[prim];
+        int v1 = this.primitives[prim + 1];
+        int v2 = this.primitives[prim + 2];
+        double d0 = (points[v1] - points[v0]) * (y - points[v0 + 1]) - (points[v1 + 1] - points[v0 + 1]) * (x - points[v0]);
+        double d1 = (points[v2] - points[v1]) * (y - points[v1 + 1]) - (points[v2 + 1] - points[v1 + 1]) * (x - points[v1]);
+        double d2 = (points[v0] - points[v2]) * (y - points[v2 + 1]) - (points[v0 + 1] - points[v2 + 1]) * (x - points[v2]);
+
+        // The point is inside when it's on the same side of all three edges, regardless of the triangle's winding.
+        return (d0 >= 0 && d1 >= 0 && d2 >= 0) || (d0 <= 0 && d1 <= 0 && d2 <= 0);
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.shape;
+
+import java.util.Arrays;
+
+import gov.nasa.worldwind.util.FloatArray;
+import gov.nasa.worldwind.util.Logger;
+
+/**
+ * Computes multi-resolution levels of detail for shape geometry using Douglas-Peucker simplification. Used by Path and
+ * Polygon to draw a simplified version of their geometry when the shape's full resolution is not discernible on
+ * screen.
+ * <p/>
+ * Simplification is performed once, when the shape's geometry is assembled. Each vertex of a polyline is assigned a
+ * significance: the largest Douglas-Peucker tolerance at which the vertex is retained. Significance is non-increasing
+ * from a split vertex to the vertices split after it, so the vertices whose significance is at least some tolerance are
+ * exactly the vertices retained by Douglas-Peucker simplification at that tolerance. Polyline endpoints have infinite
+ * significance and are always retained.
+ * <p/>
+ * The simplifier then chooses a sequence of tolerances, one per level of detail, that each retain a fraction of the
+ * previous level's vertices. Level 0 has a tolerance of 0 and retains every vertex. A shape selects a level each frame
+ * by comparing each level's tolerance against the size of a pixel at the shape's distance from the camera.
+ */
+public class ShapeSimplifier {
+
+    /**
+     * The default number of vertices below which a shape's geometry is not simplified.
+     */
+    public static final int DEFAULT_MIN_VERTEX_COUNT = 256;
+
+    /**
+     * The default ratio of each level's vertex count to the next coarser level's vertex count.
+     */
+    public static final int DEFAULT_REDUCTION_FACTOR = 4;
+
+    /**
+     * The default maximum number of levels of detail, including the full resolution level.
+     */
+    public static final int DEFAULT_MAX_LEVELS = 8;
+
+    protected int minVertexCount;
+
+    protected int reductionFactor;
+
+    protected int maxLevels;
+
+    protected int[] stack = new int[48];
+
+    public ShapeSimplifier() {
+        this(DEFAULT_MIN_VERTEX_COUNT, DEFAULT_REDUCTION_FACTOR, DEFAULT_MAX_LEVELS);
+    }
+
+    public ShapeSimplifier(int minVertexCount, int reductionFactor, int maxLevels) {
+        if (minVertexCount < 2) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ShapeSimplifier", "constructor", "invalidVertexCount"));
+        }
+
+        if (reductionFactor < 2) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ShapeSimplifier", "constructor", "invalidReductionFactor"));
+        }
+
+        if (maxLevels < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ShapeSimplifier", "constructor", "invalidLevelCount"));
+        }
+
+        this.minVertexCount = minVertexCount;
+        this.reductionFactor = reductionFactor;
+        this.maxLevels = maxLevels;
+    }
+
+    public int getMinVertexCount() {
+        return this.minVertexCount;
+    }
+
+    public int getReductionFactor() {
+        return this.reductionFactor;
+    }
+
+    public int getMaxLevels() {
+        return this.maxLevels;
+    }
+
+    /**
+     * Computes the significance of each vertex in a polyline, appending one value per polyline vertex to the result.
+     * Distances are computed in the vertex array's coordinate system, using either the first two or the first three
+     * coordinates of each vertex.
+     *
+     * @param vertexArray  the interleaved vertex array
+     * @param vertexStride the number of values per vertex in the vertex array
+     * @param dimensions   the number of coordinates used to compute distances: 2 or 3
+     * @param polyline     the vertex indices of the polyline, in order
+     * @param offset       the index of the polyline's first vertex index
+     * @param count        the number of vertices in the polyline
+     * @param result       a pre-allocated array to which the significance of each polyline vertex is appended
+     *
+     * @return the result argument, with count values appended
+     *
+     * @throws IllegalArgumentException If any array is null, or if the dimensions is not 2 or 3
+     */
+    public FloatArray computeSignificance(float[] vertexArray, int vertexStride, int dimensions, int[] polyline,
+                                          int offset, int count, FloatArray result) {
+        if (vertexArray == null || polyline == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ShapeSimplifier", "computeSignificance", "missingArray"));
+        }
+
+        if (dimensions != 2 && dimensions != 3) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ShapeSimplifier", "computeSignificance", "invalidDimensions"));
+        }
+
+        if (result == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ShapeSimplifier", "computeSignificance", "missingResult"));
+        }
+
+        int first = result.size();
+        for (int idx = 0; idx < count; idx++) {
+            result.add(Float.POSITIVE_INFINITY); // endpoints are always retained
+        }
+
+        if (count < 3) {
+            return result; // no interior vertices
+        }
+
+        // Split the polyline recursively, using an explicit stack of (begin, end, parent significance) triples to
+        // accommodate polylines with millions of vertices.
+        float[] significance = result.array();
+        int[] stack = this.stack;
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = count - 1;
+        stack[top++] = Float.floatToIntBits(Float.POSITIVE_INFINITY);
+
+        while (top > 0) {
+            float parent = Float.intBitsToFloat(stack[--top]);
+            int end = stack[--top];
+            int begin = stack[--top];
+
+            if (end - begin < 2) {
+                continue; // no interior vertices
+            }
+
+            // Find the interior vertex farthest from the segment between the endpoints.
+            int a = polyline[offset + begin] * vertexStride;
+            int b = polyline[offset + end] * vertexStride;
+            double maxDistance = -1;
+            int split = begin + 1;
+            for (int idx = begin + 1; idx < end; idx++) {
+                int p = polyline[offset + idx] * vertexStride;
+                double distance = distanceToSegment(vertexArray, p, a, b, dimensions);
+                if (maxDistance < distance) {
+                    maxDistance = distance;
+                    split = idx;
+                }
+            }
+
+            // Limit the split vertex's significance to that of the vertex that created this span, guaranteeing that a
+            // vertex is never retained without the vertices that bound its span.
+            float value = (float) Math.min(maxDistance, parent);
+            significance[first + split] = value;
+
+            if (top + 6 > stack.length) {
+                stack = this.stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+
+            stack[top++] = begin;
+            stack[top++] = split;
+            stack[top++] = Float.floatToIntBits(value);
+            stack[top++] = split;
+            stack[top++] = end;
+            stack[top++] = Float.floatToIntBits(value);
+        }
+
+        return result;
+    }
+
+    /**
+     * Computes the tolerances that define a shape's levels of detail from the significance of its vertices. The first
+     * tolerance is always 0, representing the full resolution geometry. Each subsequent tolerance retains approximately
+     * 1/reductionFactor of the previous level's vertices. Geometry with fewer than the minimum vertex count is not
+     * simplified. Levels are added until a level would retain fewer than minVertexCount/reductionFactor vertices, or
+     * until the maximum number of levels is reached.
+     *
+     * @param significance the significance of every vertex in the shape
+     *
+     * @return the tolerance of each level of detail, in increasing order
+     *
+     * @throws IllegalArgumentException If the significance is null
+     */
+    public double[] computeLevelTolerances(FloatArray significance) {
+        if (significance == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ShapeSimplifier", "computeLevelTolerances", "missingArray"));
+        }
+
+        int count = significance.size();
+        if (count < this.minVertexCount || this.maxLevels == 1) {
+            return new double[]{0}; // too few vertices to benefit from simplification
+        }
+
+        float[] sorted = Arrays.copyOf(significance.array(), count);
+        Arrays.sort(sorted);
+
+        double[] tolerances = new double[this.maxLevels];
+        int levelCount = 1;
+        int retained = count;
+        while (levelCount < this.maxLevels) {
+            retained /= this.reductionFactor;
+            if (retained < this.minVertexCount / this.reductionFactor) {
+                break; // the level would retain too few vertices to be useful
+            }
+
+            // Retain the most significant vertices. The vertex at the threshold and any vertices with equal
+            // significance are retained as well.
+            double tolerance = sorted[count - retained];
+            if (Double.isInfinite(tolerance)) {
+                break; // the level would retain only endpoints
+            }
+
+            if (tolerance <= tolerances[levelCount - 1]) {
+                continue; // the level would be indistinguishable from the previous level
+            }
+
+            tolerances[levelCount++] = tolerance;
+        }
+
+        return Arrays.copyOf(tolerances, levelCount);
+    }
+
+    /**
+     * Selects the coarsest level of detail whose tolerance does not exceed the specified error.
+     *
+     * @param tolerances the tolerance of each level of detail, in increasing order
+     * @param maxError   the maximum acceptable error, in the same units as the tolerances
+     *
+     * @return the selected level's index
+     */
+    public static int selectLevel(double[] tolerances, double maxError) {
+        int level = 0;
+        for (int idx = 1; idx < tolerances.length; idx++) {
+            if (tolerances[idx] <= maxError) {
+                level = idx;
+            } else {
+                break;
+            }
+        }
+
+        return level;
+    }
+
+    protected static double distanceToSegment(float[] array, int p, int a, int b, int dimensions) {
+        double abx = array[b] - array[a];
+        double aby = array[b + 1] - array[a + 1];
+        double abz = (dimensions == 3) ? array[b + 2] - array[a + 2] : 0;
+        double apx = array[p] - array[a];
+        double apy = array[p + 1] - array[a + 1];
+        double apz = (dimensions == 3) ? array[p + 2] - array[a + 2] : 0;
+
+        double length2 = (abx * abx) + (aby * aby) + (abz * abz);
+        double t = (length2 > 0) ? ((apx * abx) + (apy * aby) + (apz * abz)) / length2 : 0;
+        if (t < 0) {
+            t = 0;
+        } else if (t > 1) {
+            t = 1;
+        }
+
+        double dx = apx - t * abx;
+        double dy = apy - t * aby;
+        double dz = apz - t * abz;
+
+        return Math.sqrt((dx * dx) + (dy * dy) + (dz * dz));
+    }
+}
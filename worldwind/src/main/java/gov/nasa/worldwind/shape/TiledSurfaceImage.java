@@ -10,7 +10,9 @@ import java.util.List;
 
 import gov.nasa.worldwind.draw.Drawable;
 import gov.nasa.worldwind.draw.DrawableSurfaceTexture;
+import gov.nasa.worldwind.geom.Frustum;
 import gov.nasa.worldwind.geom.Matrix3;
+import gov.nasa.worldwind.geom.Sector;
 import gov.nasa.worldwind.render.AbstractRenderable;
 import gov.nasa.worldwind.render.ImageOptions;
 import gov.nasa.worldwind.render.ImageSource;
@@ -18,10 +20,11 @@ import gov.nasa.worldwind.render.ImageTile;
 import gov.nasa.worldwind.render.RenderContext;
 import gov.nasa.worldwind.render.SurfaceTextureProgram;
 import gov.nasa.worldwind.render.Texture;
+import gov.nasa.worldwind.util.BasicPool;
 import gov.nasa.worldwind.util.Level;
 import gov.nasa.worldwind.util.LevelSet;
 import gov.nasa.worldwind.util.Logger;
-import gov.nasa.worldwind.util.LruMemoryCache;
+import gov.nasa.worldwind.util.LongLruMemoryCache;
 import gov.nasa.worldwind.util.Pool;
 import gov.nasa.worldwind.util.Tile;
 import gov.nasa.worldwind.util.TileFactory;
@@ -43,7 +46,38 @@ public class TiledSurfaceImage extends AbstractRenderable {
      * to the subdivision of the group's common parent tile. The cache is configured to hold 500 groups, a number
      * empirically determined to be sufficient for storing the tiles needed to navigate a small region.
      */
-    protected LruMemoryCache<String, Tile[]> tileCache = new LruMemoryCache<>(500);
+    protected LongLruMemoryCache<Tile[]> tileCache = new LongLruMemoryCache<Tile[]>(500) {
+        @Override
+        protected void entryRemoved(long key, Tile[] oldValue, Tile[] newValue, boolean evicted) {
+            if (evicted) { // retire the evicted tiles; their extent storage is reused by subsequently subdivided tiles
+                for (Tile tile : oldValue) {
+                    retiredTiles.release(tile);
+                }
+            }
+        }
+    };
+
+    /**
+     * Tiles evicted from the tile cache whose extent storage has not yet been reused.
+     */
+    protected Pool<Tile> retiredTiles = new BasicPool<>();
+
+    /**
+     * Creates subdivision tiles using this surface image's tile factory, giving each new tile the extent storage of a
+     * retired tile. Tiles created by the tile factory do not resolve their image source until it is requested, and the
+     * image source of most subdivision tiles is never requested.
+     */
+    protected TileFactory childTileFactory = new TileFactory() {
+        @Override
+        public Tile createTile(Sector sector, Level level, int row, int column) {
+            Tile tile = tileFactory.createTile(sector, level, row, column);
+            Tile retiredTile = retiredTiles.acquire();
+            if (retiredTile != null) {
+                tile.reuseExtent(retiredTile);
+            }
+            return tile;
+        }
+    };
 
     protected SurfaceTextureProgram activeProgram;
 
@@ -120,18 +154,16 @@ public class TiledSurfaceImage extends AbstractRenderable {
     }
 
     protected void assembleTiles(RenderContext rc) {
-        // TODO
-        // The need to create Tiles with a defined image source couples the need to determine a tile's visibility with
-        // he need to know its image source. Decoupling the two would mean we only need to know the image source when
-        // the texture is actually requested Could the tile-based operations done here be implicit on level/row/column,
-        // or use transient pooled tile objects not tied to an image source?
+        // Tile visibility is determined independently of the tile's image source. Image sources are resolved only for
+        // tiles whose textures are requested: tiles that are drawn, and subdivided tiles that may provide a fallback
+        // texture for their descendants.
 
         if (this.topLevelTiles.isEmpty()) {
             this.createTopLevelTiles();
         }
 
         for (int idx = 0, len = this.topLevelTiles.size(); idx < len; idx++) {
-            this.addTileOrDescendants(rc, (ImageTile) this.topLevelTiles.get(idx));
+            this.addTileOrDescendants(rc, (ImageTile) this.topLevelTiles.get(idx), Frustum.ALL_PLANES);
         }
     }
 
@@ -142,9 +174,16 @@ public class TiledSurfaceImage extends AbstractRenderable {
         }
     }
 
-    protected void addTileOrDescendants(RenderContext rc, ImageTile tile) {
-        if (!tile.intersectsSector(this.levelSet.sector) || !tile.intersectsFrustum(rc, rc.frustum)) {
-            return; // ignore the tile and its descendants if it's not needed or not visible
+    protected void addTileOrDescendants(RenderContext rc, ImageTile tile, int planeMask) {
+        if (!tile.intersectsSector(this.levelSet.sector)) {
+            return; // ignore the tile and its descendants if it's not needed
+        }
+
+        // Test the tile against the frustum planes its parent straddles. Its descendants need not be tested against
+        // the planes it lies entirely inside.
+        planeMask = tile.intersectsFrustumPlanes(rc, rc.frustum, planeMask);
+        if (planeMask < 0) {
+            return; // ignore the tile and its descendants if it's not visible
         }
 
         if (tile.level.isLastLevel() || !tile.mustSubdivide(rc, this.detailControl)) {
@@ -164,8 +203,8 @@ public class TiledSurfaceImage extends AbstractRenderable {
             }
         }
 
-        for (Tile child : tile.subdivideToCache(this.tileFactory, this.tileCache, 4)) { // each tile has a cached size of 1
-            this.addTileOrDescendants(rc, (ImageTile) child); // recursively process the tile's children
+        for (Tile child : tile.subdivideToCache(this.childTileFactory, this.tileCache, 4)) { // each tile has a cached size of 1
+            this.addTileOrDescendants(rc, (ImageTile) child, planeMask); // recursively process the tile's children
         }
 
         this.ancestorTile = currentAncestorTile; // restore the last fallback tile, even if it was null
@@ -185,7 +224,12 @@ public class TiledSurfaceImage extends AbstractRenderable {
 
         if (texture != null) { // use the tile's own texture
             Pool<DrawableSurfaceTexture> pool = rc.getDrawablePool(DrawableSurfaceTexture.class);
-            Drawable drawable = DrawableSurfaceTexture.obtain(pool).set(this.activeProgram, tile.sector, texture, texture.getTexCoordTransform());
+            DrawableSurfaceTexture drawable = DrawableSurfaceTexture.obtain(pool).set(this.activeProgram, tile.sector, texture, texture.getTexCoordTransform());
+            if (this.ancestorTile != null) { // use the ancestor tile's texture while the tile's texture upload is deferred
+                this.ancestorTexCoordMatrix.set(this.ancestorTexture.getTexCoordTransform());
+                this.ancestorTexCoordMatrix.multiplyByTileTransform(tile.sector, this.ancestorTile.sector);
+                drawable.setFallback(this.ancestorTexture, this.ancestorTexCoordMatrix);
+            }
             rc.offerSurfaceDrawable(drawable, 0 /*z-order*/);
         } else if (this.ancestorTile != null) { // use the ancestor tile's texture, transformed to fill the tile sector
             this.ancestorTexCoordMatrix.set(this.ancestorTexture.getTexCoordTransform());
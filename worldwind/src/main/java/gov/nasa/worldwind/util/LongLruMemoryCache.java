@@ -0,0 +1,307 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import java.util.Arrays;
+
+/**
+ * Memory cache with primitive long keys, evicting its least recently used entries when its capacity is exceeded. Has
+ * the same capacity and eviction behavior as {@link LruMemoryCache}, but stores entries in arrays indexed by a hash
+ * table of chained entry indices, avoiding the allocation of boxed keys and entry objects. Each get or put moves the
+ * entry to the most recently used end of a linked list of entries, so eviction needs no sorting.
+ *
+ * @param <V> the type of cached values
+ */
+public class LongLruMemoryCache<V> {
+
+    protected static final int NONE = -1;
+
+    protected int capacity;
+
+    protected int lowWater;
+
+    protected int usedCapacity;
+
+    protected int entryCount;
+
+    protected int[] buckets;
+
+    protected long[] keys;
+
+    protected Object[] values;
+
+    protected int[] sizes;
+
+    protected int[] chainNext; // the next entry in the entry's bucket, or the next free entry
+
+    protected int[] lruPrev; // the next less recently used entry
+
+    protected int[] lruNext; // the next more recently used entry
+
+    protected int lruHead = NONE; // the least recently used entry
+
+    protected int lruTail = NONE; // the most recently used entry
+
+    protected int freeHead = NONE;
+
+    protected int nextUnused;
+
+    public LongLruMemoryCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "LongLruMemoryCache", "constructor", "invalidCapacity"));
+        }
+
+        this.capacity = capacity;
+        this.lowWater = (int) (capacity * 0.75);
+        this.allocate(16);
+    }
+
+    public LongLruMemoryCache(int capacity, int lowWater) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "LongLruMemoryCache", "constructor", "invalidCapacity"));
+        }
+
+        if (lowWater >= capacity || lowWater < 0) {
+            throw new IllegalArgumentException(Logger.logMessage(Logger.ERROR, "LongLruMemoryCache", "constructor",
+                "The specified low-water value is greater than or equal to the capacity, or less than 1"));
+        }
+
+        this.capacity = capacity;
+        this.lowWater = lowWater;
+        this.allocate(16);
+    }
+
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    public int getUsedCapacity() {
+        return this.usedCapacity;
+    }
+
+    public int getEntryCount() {
+        return this.entryCount;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int entry = this.findEntry(key);
+        if (entry != NONE) {
+            this.moveToTail(entry);
+            return (V) this.values[entry];
+        } else {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value, int size) {
+        if (this.usedCapacity + size > this.capacity) {
+            this.makeSpace(size);
+        }
+
+        int entry = this.findEntry(key);
+        if (entry != NONE) { // replace the existing entry's value
+            V oldValue = (V) this.values[entry];
+            this.usedCapacity += size - this.sizes[entry];
+            this.values[entry] = value;
+            this.sizes[entry] = size;
+            this.moveToTail(entry);
+
+            if (value != oldValue) {
+                this.entryRemoved(key, oldValue, value, false);
+                return oldValue;
+            }
+
+            return null;
+        }
+
+        entry = this.newEntry();
+        int bucket = this.bucket(key);
+        this.keys[entry] = key;
+        this.values[entry] = value;
+        this.sizes[entry] = size;
+        this.chainNext[entry] = this.buckets[bucket];
+        this.buckets[bucket] = entry;
+        this.lruPrev[entry] = NONE;
+        this.lruNext[entry] = NONE;
+        this.linkTail(entry);
+        this.usedCapacity += size;
+        this.entryCount++;
+
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int entry = this.findEntry(key);
+        if (entry != NONE) {
+            V value = (V) this.values[entry];
+            this.removeEntry(entry);
+            this.entryRemoved(key, value, null, false);
+            return value;
+        } else {
+            return null;
+        }
+    }
+
+    public boolean containsKey(long key) {
+        return this.findEntry(key) != NONE;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void clear() {
+        for (int entry = this.lruHead; entry != NONE; entry = this.lruNext[entry]) {
+            this.entryRemoved(this.keys[entry], (V) this.values[entry], null, false);
+        }
+
+        Arrays.fill(this.buckets, NONE);
+        Arrays.fill(this.values, null); // release references to the cached values
+        this.lruHead = NONE;
+        this.lruTail = NONE;
+        this.freeHead = NONE;
+        this.nextUnused = 0;
+        this.entryCount = 0;
+        this.usedCapacity = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected void makeSpace(int spaceRequired) {
+        // Remove the least recently used entries until the cache capacity reaches the low water and the cache has
+        // enough free capacity for the required space.
+        while (this.lruHead != NONE) {
+            if (this.usedCapacity > this.lowWater || (this.capacity - this.usedCapacity) < spaceRequired) {
+                int entry = this.lruHead;
+                long key = this.keys[entry];
+                V value = (V) this.values[entry];
+                this.removeEntry(entry);
+                this.entryRemoved(key, value, null, true);
+            } else {
+                break;
+            }
+        }
+    }
+
+    protected void entryRemoved(long key, V oldValue, V newValue, boolean evicted) {
+    }
+
+    protected int findEntry(long key) {
+        for (int entry = this.buckets[this.bucket(key)]; entry != NONE; entry = this.chainNext[entry]) {
+            if (this.keys[entry] == key) {
+                return entry;
+            }
+        }
+
+        return NONE;
+    }
+
+    protected int bucket(long key) {
+        long h = key * 0x9E3779B97F4A7C15L; // spread the key's bits across the hash
+        return (int) (h >>> 32) & (this.buckets.length - 1);
+    }
+
+    protected int newEntry() {
+        if (this.freeHead != NONE) {
+            int entry = this.freeHead;
+            this.freeHead = this.chainNext[entry];
+            return entry;
+        }
+
+        if (this.nextUnused == this.keys.length) {
+            this.grow();
+        }
+
+        return this.nextUnused++;
+    }
+
+    protected void removeEntry(int entry) {
+        // Unlink the entry from its bucket's chain.
+        int bucket = this.bucket(this.keys[entry]);
+        if (this.buckets[bucket] == entry) {
+            this.buckets[bucket] = this.chainNext[entry];
+        } else {
+            int prev = this.buckets[bucket];
+            while (this.chainNext[prev] != entry) {
+                prev = this.chainNext[prev];
+            }
+            this.chainNext[prev] = this.chainNext[entry];
+        }
+
+        this.unlink(entry);
+        this.usedCapacity -= this.sizes[entry];
+        this.entryCount--;
+
+        // Release the entry's value and add the entry to the free list.
+        this.values[entry] = null;
+        this.chainNext[entry] = this.freeHead;
+        this.freeHead = entry;
+    }
+
+    protected void moveToTail(int entry) {
+        if (entry != this.lruTail) {
+            this.unlink(entry);
+            this.linkTail(entry);
+        }
+    }
+
+    protected void linkTail(int entry) {
+        this.lruPrev[entry] = this.lruTail;
+        this.lruNext[entry] = NONE;
+        if (this.lruTail != NONE) {
+            this.lruNext[this.lruTail] = entry;
+        } else {
+            this.lruHead = entry;
+        }
+        this.lruTail = entry;
+    }
+
+    protected void unlink(int entry) {
+        int prev = this.lruPrev[entry];
+        int next = this.lruNext[entry];
+        if (prev != NONE) {
+            this.lruNext[prev] = next;
+        } else {
+            this.lruHead = next;
+        }
+        if (next != NONE) {
+            this.lruPrev[next] = prev;
+        } else {
+            this.lruTail = prev;
+        }
+    }
+
+    protected void allocate(int length) {
+        this.buckets = new int[length];
+        Arrays.fill(this.buckets, NONE);
+        this.keys = new long[length];
+        this.values = new Object[length];
+        this.sizes = new int[length];
+        this.chainNext = new int[length];
+        this.lruPrev = new int[length];
+        this.lruNext = new int[length];
+    }
+
+    protected void grow() {
+        int length = this.keys.length << 1;
+        this.keys = Arrays.copyOf(this.keys, length);
+        this.values = Arrays.copyOf(this.values, length);
+        this.sizes = Arrays.copyOf(this.sizes, length);
+        this.chainNext = Arrays.copyOf(this.chainNext, length);
+        this.lruPrev = Arrays.copyOf(this.lruPrev, length);
+        this.lruNext = Arrays.copyOf(this.lruNext, length);
+
+        // Rehash the entries into twice as many buckets. The table is full, so every entry is in use.
+        this.buckets = new int[length];
+        Arrays.fill(this.buckets, NONE);
+        for (int entry = 0, len = this.nextUnused; entry < len; entry++) {
+            int bucket = this.bucket(this.keys[entry]);
+            this.chainNext[entry] = this.buckets[bucket];
+            this.buckets[bucket] = entry;
+        }
+    }
+}
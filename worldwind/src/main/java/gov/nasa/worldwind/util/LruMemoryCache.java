@@ -120,7 +120,7 @@ public class LruMemoryCache<K, V> {
                 this.entries.remove(entry.key);
                 this.usedCapacity -= entry.size;
                 trimmedCapacity += entry.size;
-                this.entryRemoved(entry.key, entry.value, null, false);
+                this.entryRemoved(entry.key, entry.value, null, true);
             } else {
                 break;
             }
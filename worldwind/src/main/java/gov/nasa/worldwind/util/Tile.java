@@ -46,9 +46,19 @@ public class Tile {
     public final int column;
 
     /**
-     * A key that uniquely identifies this tile within a level set. Tile keys are not unique to a specific level set.
+     * A key that uniquely identifies this tile within a level set, packing the tile's level number, row and column into
+     * 64 bits. Tile keys are not unique to a specific level set. See {@link #tileKey(int, int, int)}.
      */
-    public final String tileKey;
+    public final long key;
+
+    /**
+     * A string that uniquely identifies this tile within a level set in the form "level.row.column". Built on demand;
+     * null until {@link #getTileKey()} is first called.
+     *
+     * @deprecated Use {@link #key} to identify tiles, or {@link #getTileKey()} for a readable identifier.
+     */
+    @Deprecated
+    public String tileKey;
 
     /**
      * A factor expressing the size of a pixel or elevation cell at the center of this tile, in radians per pixel (or
@@ -85,6 +95,11 @@ public class Tile {
 
     protected double distanceToCamera;
 
+    /**
+     * The key identifying this tile's sector to {@link TileVisibility}, or 0 if the key has not been computed.
+     */
+    protected long visibilityKey;
+
     /**
      * Constructs a tile with a specified sector, level, row and column.
      *
@@ -108,10 +123,44 @@ public class Tile {
         this.level = level;
         this.row = row;
         this.column = column;
-        this.tileKey = level.levelNumber + "." + row + "." + column;
+        this.key = tileKey(level.levelNumber, row, column);
         this.texelSizeFactor = Math.toRadians(level.tileDelta / level.tileWidth) * Math.cos(Math.toRadians(sector.centroidLatitude()));
     }
 
+    /**
+     * Computes a key that uniquely identifies a tile within a level set: 8 bits of level number followed by 28 bits
+     * each of row and column.
+     *
+     * @param levelNumber the tile's level number
+     * @param row         the tile's row
+     * @param column      the tile's column
+     *
+     * @return the tile key
+     */
+    public static long tileKey(int levelNumber, int row, int column) {
+        long llevel = (levelNumber & 0xFFL); // 8 bits
+        long lrow = (row & 0xFFFFFFFL); // 28 bits
+        long lcol = (column & 0xFFFFFFFL); // 28 bits
+        return (llevel << 56) | (lrow << 28) | lcol;
+    }
+
+    /**
+     * Returns a string identifying this tile within a level set in the form "level.row.column". The string is built
+     * when first requested, and retained thereafter.
+     *
+     * @return a string identifying this tile
+     *
+     * @deprecated Intended only for debugging and logging. Use {@link #key} to identify tiles.
+     */
+    @Deprecated
+    public String getTileKey() {
+        if (this.tileKey == null) {
+            this.tileKey = this.level.levelNumber + "." + this.row + "." + this.column;
+        }
+
+        return this.tileKey;
+    }
+
     /**
      * Computes a row number for a tile within a level given the tile's latitude.
      *
@@ -264,6 +313,37 @@ public class Tile {
         return this.getExtent(rc).intersectsFrustum(frustum);
     }
 
+    /**
+     * Indicates whether this tile's Cartesian extent intersects a subset of a specified frustum's planes, and which of
+     * those planes it straddles. Passing the value returned for a tile's parent when testing its children avoids
+     * testing planes that the parent lies entirely inside. See {@link BoundingBox#intersectsFrustumPlanes(Frustum,
+     * int)}.
+     * <p/>
+     * When the frustum is the render context's frustum, the result is shared through the render context's {@link
+     * TileVisibility} with other tiles spanning the same sector during the current frame.
+     *
+     * @param rc        the current render context
+     * @param frustum   the frustum of interest
+     * @param planeMask the frustum planes to test, {@link Frustum#ALL_PLANES} for top level tiles
+     *
+     * @return -1 if this tile's extent lies outside one of the specified planes, otherwise the subset of the specified
+     * planes that this tile's extent straddles
+     *
+     * @throws IllegalArgumentException If the frustum is null
+     */
+    public int intersectsFrustumPlanes(RenderContext rc, Frustum frustum, int planeMask) {
+        if (frustum == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "Tile", "intersectsFrustumPlanes", "missingFrustum"));
+        }
+
+        if (frustum == rc.frustum && rc.tileVisibility != null) { // share results with tiles in other quadtrees
+            return rc.tileVisibility.intersectsFrustumPlanes(rc, this, planeMask);
+        }
+
+        return this.getExtent(rc).intersectsFrustumPlanes(frustum, planeMask);
+    }
+
     /**
      * Indicates whether this tile intersects a specified sector.
      *
@@ -292,7 +372,12 @@ public class Tile {
      * @return true if the tile should be subdivided, otherwise false
      */
     public boolean mustSubdivide(RenderContext rc, double detailFactor) {
-        this.distanceToCamera = this.distanceToCamera(rc);
+        if (rc.tileVisibility != null) { // share the distance with tiles in other quadtrees
+            this.distanceToCamera = rc.tileVisibility.distanceToCamera(rc, this);
+        } else {
+            this.distanceToCamera = this.distanceToCamera(rc);
+        }
+
         double texelSize = this.texelSizeFactor * rc.globe.getEquatorialRadius();
         double pixelSize = rc.pixelSizeAtDistance(this.distanceToCamera);
         double densityFactor = 1.0;
@@ -373,6 +458,44 @@ public class Tile {
      *
      * @throws IllegalArgumentException If any argument is null
      */
+    public Tile[] subdivideToCache(TileFactory tileFactory, LongLruMemoryCache<Tile[]> cache, int cacheSize) {
+        if (tileFactory == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "Tile", "subdivideToCache", "missingTileFactory"));
+        }
+
+        if (cache == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "Tile", "subdivideToCache", "missingCache"));
+        }
+
+        Tile[] children = cache.get(this.key);
+        if (children == null) {
+            children = this.subdivide(tileFactory);
+            if (children != null) {
+                cache.put(this.key, children, cacheSize);
+            }
+        }
+
+        return children;
+    }
+
+    /**
+     * Returns the four children formed by subdividing this tile, drawing those children from a cache keyed by each
+     * tile's "level.row.column" string. Otherwise identical to {@link #subdivideToCache(TileFactory,
+     * LongLruMemoryCache, int)}.
+     *
+     * @param tileFactory the tile factory to use to create the children
+     * @param cache       a memory cache that may contain pre-existing child tiles.
+     * @param cacheSize   the cached size of the four child tiles
+     *
+     * @return an array containing the four child tiles, or null if this tile's level is the last level
+     *
+     * @throws IllegalArgumentException If any argument is null
+     * @deprecated Use {@link #subdivideToCache(TileFactory, LongLruMemoryCache, int)}, which does not build or hash
+     * string keys.
+     */
+    @Deprecated
     public Tile[] subdivideToCache(TileFactory tileFactory, LruMemoryCache<String, Tile[]> cache, int cacheSize) {
         if (tileFactory == null) {
             throw new IllegalArgumentException(
@@ -384,17 +507,47 @@ public class Tile {
                 Logger.logMessage(Logger.ERROR, "Tile", "subdivideToCache", "missingCache"));
         }
 
-        Tile[] children = cache.get(this.tileKey);
+        String tileKey = this.getTileKey();
+        Tile[] children = cache.get(tileKey);
         if (children == null) {
             children = this.subdivide(tileFactory);
             if (children != null) {
-                cache.put(this.tileKey, children, cacheSize);
+                cache.put(tileKey, children, cacheSize);
             }
         }
 
         return children;
     }
 
+    /**
+     * Adopts the Cartesian extent and height limit storage of a tile that is no longer in use, avoiding its allocation
+     * when this tile's extent is first computed. This tile's extent is computed as though the storage were new. The
+     * specified tile releases its storage, and allocates new storage should it be used again.
+     *
+     * @param tile the tile whose storage to adopt
+     *
+     * @throws IllegalArgumentException If the tile is null
+     */
+    public void reuseExtent(Tile tile) {
+        if (tile == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "Tile", "reuseExtent", "missingTile"));
+        }
+
+        if (this.extent == null && this.heightLimits == null) {
+            this.extent = tile.extent;
+            this.heightLimits = tile.heightLimits;
+            if (this.heightLimits != null) {
+                Arrays.fill(this.heightLimits, 0f);
+            }
+
+            tile.extent = null;
+            tile.heightLimits = null;
+            tile.heightLimitsTimestamp = 0;
+            tile.extentExaggeration = 0;
+        }
+    }
+
     protected BoundingBox getExtent(RenderContext rc) {
         if (this.heightLimits == null) {
             this.heightLimits = new float[2];
@@ -404,7 +557,7 @@ public class Tile {
             this.extent = new BoundingBox();
         }
 
-        long elevationTimestamp = rc.globe.getElevationModel().getTimestamp();
+        long elevationTimestamp = rc.getElevationModelTimestamp();
         if (elevationTimestamp != this.heightLimitsTimestamp) {
             // initialize the heights for elevation model scan
             this.heightLimits[0] = Float.MAX_VALUE;
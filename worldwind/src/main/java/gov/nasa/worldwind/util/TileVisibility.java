@@ -0,0 +1,306 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import gov.nasa.worldwind.geom.Location;
+import gov.nasa.worldwind.render.RenderContext;
+
+/**
+ * Per-frame visibility of quadtree tiles, shared by the tiled renderables of a frame. Applications typically do not
+ * interact with this class.
+ * <p/>
+ * The terrain tessellator and each tiled surface image traverse their own quadtree of tiles every frame, testing each
+ * tile against the frustum and computing its distance to the camera to decide whether to subdivide it. Many of these
+ * quadtrees share the same tile grid: image layers configured with the same level set, and image layers whose levels
+ * align with the terrain's levels. TileVisibility computes these results once per frame for each distinct tile, and
+ * returns the cached result to every other renderable that tests a tile spanning the same sector.
+ * <p/>
+ * Tiles are identified by a primitive key combining their grid, grid level, row and column. Two level sets share a
+ * grid when their tile origins match and their tile deltas differ by a power of two, in which case a tile's grid level
+ * is derived from its tile delta. This maps between levels of different level sets: a terrain level with 1 degree tiles
+ * and an image level with 1 degree tiles share their tiles, regardless of the levels' ordinals. Each renderable applies
+ * its own level of detail to the shared distance, so renderables with different tile dimensions or detail control
+ * still share their frustum and distance results.
+ * <p/>
+ * Results are valid until {@link #clear()} is called, which {@link RenderContext#reset()} does at the start of each
+ * frame. TileVisibility is not thread safe; each render context has its own.
+ */
+public class TileVisibility {
+
+    /**
+     * The maximum number of distinct tile grids. Tiles in additional grids are tested without sharing their results.
+     */
+    protected static final int MAX_GRIDS = 254;
+
+    protected static final long UNSHARED_KEY = -1;
+
+    protected static final List<Grid> grids = new ArrayList<>();
+
+    protected long[] keys = new long[1024];
+
+    protected int[] stamps = new int[1024];
+
+    protected int[] planeMasks = new int[1024];
+
+    protected int[] intersections = new int[1024];
+
+    protected double[] distances = new double[1024];
+
+    protected int count;
+
+    protected int stamp = 1;
+
+    public TileVisibility() {
+    }
+
+    /**
+     * Returns the number of tiles whose visibility has been computed since the last call to {@link #clear()}.
+     *
+     * @return the number of tiles with visibility results
+     */
+    public int count() {
+        return this.count;
+    }
+
+    /**
+     * Discards the visibility results of all tiles. Called at the start of each frame.
+     */
+    public void clear() {
+        if (++this.stamp == 0) { // the stamp wrapped around; invalidate entries from frames with the same stamp
+            Arrays.fill(this.stamps, 0);
+            this.stamp = 1;
+        }
+
+        this.count = 0;
+    }
+
+    /**
+     * Indicates whether a tile's extent intersects a subset of the render context's frustum planes. Returns the result
+     * computed for another tile spanning the same sector during the current frame, when one exists. See {@link
+     * Tile#intersectsFrustumPlanes(RenderContext, gov.nasa.worldwind.geom.Frustum, int)}.
+     *
+     * @param rc        the current render context
+     * @param tile      the tile to test
+     * @param planeMask the frustum planes to test
+     *
+     * @return -1 if the tile's extent lies outside one of the frustum planes, otherwise the subset of the specified
+     * planes that the tile's extent straddles
+     */
+    public int intersectsFrustumPlanes(RenderContext rc, Tile tile, int planeMask) {
+        int index = this.entryIndex(tile);
+        if (index < 0) { // the tile cannot be shared
+            return tile.getExtent(rc).intersectsFrustumPlanes(rc.frustum, planeMask);
+        }
+
+        if (this.stamps[index] == this.stamp && this.planeMasks[index] >= 0) {
+            // A tile outside any plane is outside the frustum. Otherwise test the planes that were not tested for the
+            // cached result, and add them to the cached result.
+            int cachedMask = this.planeMasks[index];
+            int intersection = this.intersections[index];
+            int untestedMask = planeMask & ~cachedMask;
+            if (intersection >= 0 && untestedMask != 0) {
+                int untested = tile.getExtent(rc).intersectsFrustumPlanes(rc.frustum, untestedMask);
+                intersection = (untested < 0) ? -1 : (intersection | untested);
+                this.planeMasks[index] = cachedMask | untestedMask;
+                this.intersections[index] = intersection;
+            }
+
+            return (intersection < 0) ? -1 : (intersection & planeMask);
+        }
+
+        int intersection = tile.getExtent(rc).intersectsFrustumPlanes(rc.frustum, planeMask);
+        index = this.putEntry(tile.visibilityKey, index);
+        this.planeMasks[index] = planeMask;
+        this.intersections[index] = intersection;
+        return intersection;
+    }
+
+    /**
+     * Returns the distance from the nearest point on a tile to the camera. Returns the distance computed for another
+     * tile spanning the same sector during the current frame, when one exists.
+     *
+     * @param rc   the current render context
+     * @param tile the tile to measure
+     *
+     * @return the distance in meters
+     */
+    public double distanceToCamera(RenderContext rc, Tile tile) {
+        int index = this.entryIndex(tile);
+        if (index < 0) { // the tile cannot be shared
+            tile.getExtent(rc); // computes the tile's height limits
+            return tile.distanceToCamera(rc);
+        }
+
+        if (this.stamps[index] == this.stamp && !Double.isNaN(this.distances[index])) {
+            return this.distances[index];
+        }
+
+        tile.getExtent(rc); // computes the tile's height limits
+        double distance = tile.distanceToCamera(rc);
+        index = this.putEntry(tile.visibilityKey, index);
+        this.distances[index] = distance;
+        return distance;
+    }
+
+    /**
+     * Returns the index of a tile's entry, or the index at which to insert the tile's entry, or -1 if the tile cannot
+     * be shared.
+     */
+    protected int entryIndex(Tile tile) {
+        long key = tile.visibilityKey;
+        if (key == 0) { // compute the tile's key the first time it is tested
+            key = tile.visibilityKey = visibilityKey(tile);
+        }
+
+        if (key == UNSHARED_KEY) {
+            return -1;
+        }
+
+        int mask = this.keys.length - 1;
+        int index = hash(key) & mask;
+        while (this.stamps[index] == this.stamp && this.keys[index] != key) {
+            index = (index + 1) & mask; // linear probing
+        }
+
+        return index;
+    }
+
+    /**
+     * Adds an empty entry for a key at an index returned by entryIndex, unless the entry already exists. Returns the
+     * entry's index, which changes when the table grows.
+     */
+    protected int putEntry(long key, int index) {
+        if (this.stamps[index] == this.stamp) {
+            return index; // the entry exists
+        }
+
+        if (this.count >= (this.keys.length >> 1)) { // keep the table at most half full
+            this.grow();
+            int mask = this.keys.length - 1;
+            index = hash(key) & mask;
+            while (this.stamps[index] == this.stamp) {
+                index = (index + 1) & mask;
+            }
+        }
+
+        this.keys[index] = key;
+        this.stamps[index] = this.stamp;
+        this.planeMasks[index] = -1; // the frustum has not been tested
+        this.intersections[index] = 0;
+        this.distances[index] = Double.NaN; // the distance has not been computed
+        this.count++;
+        return index;
+    }
+
+    protected void grow() {
+        long[] oldKeys = this.keys;
+        int[] oldStamps = this.stamps;
+        int[] oldPlaneMasks = this.planeMasks;
+        int[] oldIntersections = this.intersections;
+        double[] oldDistances = this.distances;
+
+        int capacity = oldKeys.length << 1;
+        this.keys = new long[capacity];
+        this.stamps = new int[capacity];
+        this.planeMasks = new int[capacity];
+        this.intersections = new int[capacity];
+        this.distances = new double[capacity];
+
+        int mask = capacity - 1;
+        for (int idx = 0, len = oldKeys.length; idx < len; idx++) {
+            if (oldStamps[idx] != this.stamp) {
+                continue; // discard entries from previous frames
+            }
+
+            int index = hash(oldKeys[idx]) & mask;
+            while (this.stamps[index] == this.stamp) {
+                index = (index + 1) & mask;
+            }
+
+            this.keys[index] = oldKeys[idx];
+            this.stamps[index] = this.stamp;
+            this.planeMasks[index] = oldPlaneMasks[idx];
+            this.intersections[index] = oldIntersections[idx];
+            this.distances[index] = oldDistances[idx];
+        }
+    }
+
+    protected static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L; // spread the row and column bits across the hash
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Computes a key identifying a tile's sector within its grid: 8 bits of grid identifier, 8 bits of grid level,
+     * and 24 bits each of row and column. Returns UNSHARED_KEY when the tile cannot be identified this way.
+     */
+    protected static long visibilityKey(Tile tile) {
+        if (tile.row < 0 || tile.row > 0xFFFFFF || tile.column < 0 || tile.column > 0xFFFFFF) {
+            return UNSHARED_KEY;
+        }
+
+        double tileDelta = tile.level.tileDelta;
+        int exponent = Math.getExponent(tileDelta);
+        double mantissa = tileDelta / Math.scalb(1.0, exponent);
+
+        int grid = gridId(tile.sector.getClass(), tile.level.parent.tileOrigin, mantissa);
+        if (grid < 0) {
+            return UNSHARED_KEY;
+        }
+
+        long lgrid = grid & 0xFFL; // 8 bits
+        long llevel = (-exponent) & 0xFFL; // 8 bits; finer levels have smaller exponents
+        long lrow = tile.row & 0xFFFFFFL; // 24 bits
+        long lcol = tile.column & 0xFFFFFFL; // 24 bits
+        return (lgrid << 56) | (llevel << 48) | (lrow << 24) | lcol;
+    }
+
+    /**
+     * Returns the identifier of the grid with the specified sector type, tile origin and tile delta mantissa, assigning
+     * a new identifier the first time a grid is encountered. Identifiers start at 1, ensuring that tile keys are never
+     * zero. Returns -1 when the maximum number of grids has been assigned.
+     */
+    protected static int gridId(Class<?> sectorClass, Location tileOrigin, double mantissa) {
+        synchronized (grids) {
+            for (int idx = 0, len = grids.size(); idx < len; idx++) {
+                Grid grid = grids.get(idx);
+                if (grid.sectorClass == sectorClass && grid.originLatitude == tileOrigin.latitude
+                    && grid.originLongitude == tileOrigin.longitude && grid.mantissa == mantissa) {
+                    return idx + 1;
+                }
+            }
+
+            if (grids.size() >= MAX_GRIDS) {
+                return -1;
+            }
+
+            grids.add(new Grid(sectorClass, tileOrigin.latitude, tileOrigin.longitude, mantissa));
+            return grids.size();
+        }
+    }
+
+    protected static class Grid {
+
+        public final Class<?> sectorClass;
+
+        public final double originLatitude;
+
+        public final double originLongitude;
+
+        public final double mantissa;
+
+        public Grid(Class<?> sectorClass, double originLatitude, double originLongitude, double mantissa) {
+            this.sectorClass = sectorClass;
+            this.originLatitude = originLatitude;
+            this.originLongitude = originLongitude;
+            this.mantissa = mantissa;
+        }
+    }
+}
@@ -52,10 +52,15 @@
 */
 package gov.nasa.worldwind.util.glu.tessellator;
 
+import java.util.ArrayList;
+import java.util.List;
+
 class Dict {
     DictNode head;
     Object frame;
     DictLeq leq;
+    List<DictNode> nodePool = new ArrayList<>();	/* nodes reused after dictReset */
+    int nodeCount;		/* number of pooled nodes in use */
 
     private Dict() {
     }
@@ -80,6 +85,17 @@ class Dict {
         dict.leq = null;
     }
 
+/* Empty the dictionary and release its keys, keeping its nodes for the next polygon. */
+    static void dictReset(Dict dict) {
+        for (int i = 0, len = Math.min(dict.nodeCount, dict.nodePool.size()); i < len; i++) {
+            dict.nodePool.get(i).key = null;
+        }
+        dict.nodeCount = 0;
+
+        dict.head.next = dict.head;
+        dict.head.prev = dict.head;
+    }
+
     static DictNode dictInsert(Dict dict, Object key) {
         return dictInsertBefore(dict, dict.head, key);
     }
@@ -89,7 +105,17 @@ class Dict {
             node = node.prev;
         } while (node.key != null && !dict.leq.leq(dict.frame, node.key, key));
 
-        DictNode newNode = new DictNode();
+        DictNode newNode;
+        if (dict.nodeCount < dict.nodePool.size()) {
+            newNode = dict.nodePool.get(dict.nodeCount);
+        } else {
+            newNode = new DictNode();
+            if (dict.nodePool.size() < GLUtessellatorImpl.TESS_MAX_POOL) {
+                dict.nodePool.add(newNode);
+            }
+        }
+        dict.nodeCount++;
+
         newNode.key = key;
         newNode.next = node.next;
         node.next.prev = newNode;
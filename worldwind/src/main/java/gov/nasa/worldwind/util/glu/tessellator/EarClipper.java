@@ -0,0 +1,416 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util.glu.tessellator;
+
+import android.opengl.GLES10;
+
+import gov.nasa.worldwind.util.glu.GLU;
+
+/**
+ * Tessellates simple single-contour polygons by ear clipping. The tessellator's vertex cache holds polygons with a
+ * single contour of at most {@link GLUtessellatorImpl#TESS_MAX_CACHE} vertices. EarClipper triangulates these polygons
+ * directly from the cache when the contour does not intersect itself, bypassing the mesh, priority queue and sweep line
+ * structures the general algorithm builds for each polygon. Convex contours are triangulated as a fan. Contours that
+ * intersect or touch themselves are left to the general algorithm, which creates vertices at their intersections.
+ * <p/>
+ * Output triangles are counter-clockwise with respect to the polygon normal, and mark the edges on the polygon boundary
+ * with the edge flag callback, matching the output of the general algorithm. Consecutive vertices at the same location
+ * are merged without calling the combine callback. EarClipper reuses its working arrays between polygons, and
+ * allocates no memory once they have grown to fit the tessellator's largest polygon.
+ */
+class EarClipper {
+
+    protected double[] normal = new double[3];
+
+    protected boolean computedNormal;
+
+    protected double[] xs = new double[0];
+
+    protected double[] ys = new double[0];
+
+    protected int[] vertices = new int[0]; // cache index of each distinct contour vertex
+
+    protected int[] prev = new int[0];
+
+    protected int[] next = new int[0];
+
+    protected boolean[] boundary = new boolean[0]; // whether the edge from a vertex to its next vertex is a boundary
+
+    protected int[] triangles = new int[0];
+
+    protected boolean[] edgeFlags = new boolean[0];
+
+    protected int triangleCount;
+
+    public EarClipper() {
+    }
+
+    /**
+     * Tessellates the polygon in a tessellator's vertex cache, calling the tessellator's callbacks with the resulting
+     * triangles. Returns false without calling any callbacks when the polygon must be tessellated by the general
+     * algorithm.
+     *
+     * @param tess the tessellator whose cached polygon to tessellate
+     *
+     * @return true if the polygon has been tessellated, otherwise false
+     */
+    public boolean tessellate(GLUtessellatorImpl tess) {
+        int count = this.projectContour(tess);
+        if (count < 0) {
+            return false; // vertices at the same projected location are not identical
+        } else if (count < 3) {
+            return true; // degenerate contour; no output
+        }
+
+        double area = this.signedArea(count);
+        if (area == 0) {
+            return false; // let the general algorithm handle zero area contours
+        } else if (area < 0 && this.computedNormal) {
+            // When the normal is computed, the general algorithm orients it so that the contour's area is positive.
+            // The normal computed from the fan may face the other way when the contour is not convex.
+            this.reverseNormal(count);
+            area = -area;
+        } else if (area < 0) {
+            this.reverseContour(count); // clip ears from a counter-clockwise contour
+        }
+
+        boolean convex = this.isConvex(count);
+        if (!convex && !this.isSimple(count)) {
+            return false; // the contour intersects itself
+        }
+
+        // A simple contour has a winding number of 1 or -1 inside, and 0 outside.
+        switch (tess.windingRule) {
+            case GLU.GLU_TESS_WINDING_ODD:
+            case GLU.GLU_TESS_WINDING_NONZERO:
+                break;
+            case GLU.GLU_TESS_WINDING_POSITIVE:
+                if (area < 0) return true;
+                break;
+            case GLU.GLU_TESS_WINDING_NEGATIVE:
+                if (area > 0) return true;
+                break;
+            case GLU.GLU_TESS_WINDING_ABS_GEQ_TWO:
+                return true;
+        }
+
+        this.triangleCount = 0;
+        if (convex) {
+            this.clipFan(count);
+        } else if (!this.clipEars(count)) {
+            return false; // numerical error prevented finding an ear
+        }
+
+        this.renderTriangles(tess);
+        return true;
+    }
+
+    /**
+     * Projects the cached contour onto the plane perpendicular to the polygon normal, merging consecutive vertices at
+     * the same location. Returns the number of distinct vertices, or -1 if two consecutive vertices project to the
+     * same location but are not identical.
+     */
+    protected int projectContour(GLUtessellatorImpl tess) {
+        CachedVertex[] cache = tess.cache;
+        int cacheCount = tess.cacheCount;
+        this.ensureCapacity(cacheCount);
+
+        // Use the normal specified by the application, or compute a normal from the cached vertices.
+        double[] norm = this.normal;
+        norm[0] = tess.normal[0];
+        norm[1] = tess.normal[1];
+        norm[2] = tess.normal[2];
+        this.computedNormal = (norm[0] == 0 && norm[1] == 0 && norm[2] == 0);
+        if (this.computedNormal) {
+            Render.ComputeNormal(tess, norm, false);
+        }
+
+        // Drop the normal's longest axis, choosing the remaining axes so that a counter-clockwise contour with respect
+        // to the normal has a positive area.
+        int axis = Normal.LongAxis(norm);
+        if (norm[axis] == 0) {
+            return 0; // all vertices are collinear
+        }
+        int xAxis = (axis + 1) % 3;
+        int yAxis = (axis + 2) % 3;
+        double ySign = (norm[axis] > 0) ? 1 : -1;
+
+        int count = 0;
+        for (int idx = 0; idx < cacheCount; idx++) {
+            double[] coords = cache[idx].coords;
+            double x = coords[xAxis];
+            double y = coords[yAxis] * ySign;
+
+            if (count > 0 && x == this.xs[count - 1] && y == this.ys[count - 1]) {
+                if (!isSameLocation(coords, cache[this.vertices[count - 1]].coords)) {
+                    return -1;
+                }
+                continue; // the vertex repeats the previous vertex
+            }
+
+            this.xs[count] = x;
+            this.ys[count] = y;
+            this.vertices[count] = idx;
+            count++;
+        }
+
+        // Merge the last vertex when it repeats the first, as it does for closed contours.
+        if (count > 1 && this.xs[count - 1] == this.xs[0] && this.ys[count - 1] == this.ys[0]) {
+            if (!isSameLocation(cache[this.vertices[count - 1]].coords, cache[this.vertices[0]].coords)) {
+                return -1;
+            }
+            count--;
+        }
+
+        return count;
+    }
+
+    protected double signedArea(int count) {
+        double area = 0;
+        for (int i = count - 1, j = 0; j < count; i = j++) {
+            area += this.xs[i] * this.ys[j] - this.xs[j] * this.ys[i];
+        }
+
+        return area * 0.5;
+    }
+
+    /**
+     * Projects the contour as though the polygon normal faced the opposite direction, reversing the contour's
+     * orientation without reordering its vertices.
+     */
+    protected void reverseNormal(int count) {
+        for (int idx = 0; idx < count; idx++) {
+            this.ys[idx] = -this.ys[idx];
+        }
+    }
+
+    protected void reverseContour(int count) {
+        for (int i = 0, j = count - 1; i < j; i++, j--) {
+            double x = this.xs[i];
+            this.xs[i] = this.xs[j];
+            this.xs[j] = x;
+            double y = this.ys[i];
+            this.ys[i] = this.ys[j];
+            this.ys[j] = y;
+            int vertex = this.vertices[i];
+            this.vertices[i] = this.vertices[j];
+            this.vertices[j] = vertex;
+        }
+    }
+
+    /**
+     * Indicates whether a counter-clockwise contour is strictly convex: every vertex turns left, and the contour turns
+     * only once around its interior. A contour that winds around its interior more than once reverses its x direction
+     * more than twice.
+     */
+    protected boolean isConvex(int count) {
+        int xReversals = 0, yReversals = 0;
+        double lastDx = 0, lastDy = 0;
+
+        for (int i = 0; i < count; i++) {
+            int j = (i + 1) % count;
+            int k = (j + 1) % count;
+            double dx = this.xs[j] - this.xs[i];
+            double dy = this.ys[j] - this.ys[i];
+
+            if (this.cross(i, j, k) <= 0) {
+                return false; // the contour turns right or goes straight at vertex j
+            }
+
+            if (dx != 0) {
+                if (lastDx != 0 && (dx > 0) != (lastDx > 0)) {
+                    xReversals++;
+                }
+                lastDx = dx;
+            }
+
+            if (dy != 0) {
+                if (lastDy != 0 && (dy > 0) != (lastDy > 0)) {
+                    yReversals++;
+                }
+                lastDy = dy;
+            }
+        }
+
+        return xReversals <= 2 && yReversals <= 2;
+    }
+
+    /**
+     * Indicates whether a contour is simple: no two edges intersect or touch, other than adjacent edges at their
+     * shared vertex, and no vertex doubles back over its previous edge.
+     */
+    protected boolean isSimple(int count) {
+        for (int i = 0; i < count; i++) {
+            int i1 = (i + 1) % count;
+            int i2 = (i1 + 1) % count;
+
+            // Adjacent edges overlap when the contour reverses direction at their shared vertex.
+            if (this.cross(i, i1, i2) == 0 && this.dot(i, i1, i2) < 0) {
+                return false;
+            }
+
+            // Test the edge against every non-adjacent edge that follows it.
+            double minX = Math.min(this.xs[i], this.xs[i1]), maxX = Math.max(this.xs[i], this.xs[i1]);
+            double minY = Math.min(this.ys[i], this.ys[i1]), maxY = Math.max(this.ys[i], this.ys[i1]);
+            for (int j = i + 2, last = (i == 0) ? count - 2 : count - 1; j <= last; j++) {
+                int j1 = (j + 1) % count;
+                if (Math.max(this.xs[j], this.xs[j1]) < minX || Math.min(this.xs[j], this.xs[j1]) > maxX
+                    || Math.max(this.ys[j], this.ys[j1]) < minY || Math.min(this.ys[j], this.ys[j1]) > maxY) {
+                    continue; // the edges' bounding boxes do not overlap
+                }
+
+                if (this.edgesIntersect(i, i1, j, j1)) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Indicates whether the edges a-b and c-d intersect or touch, given that their bounding boxes overlap.
+     */
+    protected boolean edgesIntersect(int a, int b, int c, int d) {
+        double abc = this.cross(a, b, c);
+        double abd = this.cross(a, b, d);
+        double cda = this.cross(c, d, a);
+        double cdb = this.cross(c, d, b);
+
+        if (abc == 0 && abd == 0) {
+            return true; // collinear edges with overlapping bounding boxes overlap or touch
+        }
+
+        return ((abc <= 0 && abd >= 0) || (abc >= 0 && abd <= 0))
+            && ((cda <= 0 && cdb >= 0) || (cda >= 0 && cdb <= 0));
+    }
+
+    protected void clipFan(int count) {
+        for (int idx = 1; idx < count - 1; idx++) {
+            this.addTriangle(0, idx, idx + 1, idx == 1, true, idx == count - 2);
+        }
+    }
+
+    /**
+     * Triangulates a simple counter-clockwise contour by repeatedly clipping an ear: a vertex whose triangle with its
+     * neighbors lies inside the contour. Returns false if no ear is found, which can happen due to numerical error.
+     */
+    protected boolean clipEars(int count) {
+        for (int idx = 0; idx < count; idx++) {
+            this.prev[idx] = (idx == 0) ? count - 1 : idx - 1;
+            this.next[idx] = (idx == count - 1) ? 0 : idx + 1;
+            this.boundary[idx] = true;
+        }
+
+        int remaining = count;
+        int vertex = 0;
+        int misses = 0;
+        while (remaining > 3) {
+            int p = this.prev[vertex];
+            int n = this.next[vertex];
+
+            if (this.isEar(p, vertex, n)) {
+                this.addTriangle(p, vertex, n, this.boundary[p], this.boundary[vertex], false);
+                this.next[p] = n;
+                this.prev[n] = p;
+                this.boundary[p] = false; // the edge from p to n is a diagonal
+                remaining--;
+                misses = 0;
+            } else if (++misses > remaining) {
+                return false; // no vertex in the remaining contour is an ear
+            }
+
+            vertex = n;
+        }
+
+        int p = this.prev[vertex];
+        int n = this.next[vertex];
+        this.addTriangle(p, vertex, n, this.boundary[p], this.boundary[vertex], this.boundary[n]);
+
+        return true;
+    }
+
+    protected boolean isEar(int p, int v, int n) {
+        double cross = this.cross(p, v, n);
+        if (cross < 0) {
+            return false; // v is a reflex vertex
+        } else if (cross == 0) {
+            return true; // v lies on a straight line; clipping it leaves the contour's shape unchanged
+        }
+
+        // The triangle is an ear if no other vertex lies inside it or on its edges. Only vertices that are not convex
+        // can be inside the triangle.
+        for (int k = this.next[n]; k != p; k = this.next[k]) {
+            if (this.cross(this.prev[k], k, this.next[k]) <= 0
+                && this.cross(p, v, k) >= 0 && this.cross(v, n, k) >= 0 && this.cross(n, p, k) >= 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    protected void addTriangle(int a, int b, int c, boolean abBoundary, boolean bcBoundary, boolean caBoundary) {
+        int idx = this.triangleCount * 3;
+        this.triangles[idx] = a;
+        this.triangles[idx + 1] = b;
+        this.triangles[idx + 2] = c;
+        this.edgeFlags[idx] = abBoundary;
+        this.edgeFlags[idx + 1] = bcBoundary;
+        this.edgeFlags[idx + 2] = caBoundary;
+        this.triangleCount++;
+    }
+
+    protected void renderTriangles(GLUtessellatorImpl tess) {
+        CachedVertex[] cache = tess.cache;
+        int edgeState = -1; // force edge state output for first vertex
+
+        tess.callBeginOrBeginData(GLES10.GL_TRIANGLES);
+
+        for (int idx = 0, len = this.triangleCount * 3; idx < len; idx++) {
+            if (tess.flagBoundary) {
+                // Set the edge state to true just before the first vertex of each edge on the polygon boundary.
+                int newState = this.edgeFlags[idx] ? 1 : 0;
+                if (edgeState != newState) {
+                    edgeState = newState;
+                    tess.callEdgeFlagOrEdgeFlagData(edgeState != 0);
+                }
+            }
+
+            tess.callVertexOrVertexData(cache[this.vertices[this.triangles[idx]]].data);
+        }
+
+        tess.callEndOrEndData();
+    }
+
+    /**
+     * Returns the cross product of the edges a-b and b-c, which is positive when the contour turns left at b.
+     */
+    protected double cross(int a, int b, int c) {
+        return (this.xs[b] - this.xs[a]) * (this.ys[c] - this.ys[b]) - (this.ys[b] - this.ys[a]) * (this.xs[c] - this.xs[b]);
+    }
+
+    protected double dot(int a, int b, int c) {
+        return (this.xs[b] - this.xs[a]) * (this.xs[c] - this.xs[b]) + (this.ys[b] - this.ys[a]) * (this.ys[c] - this.ys[b]);
+    }
+
+    protected void ensureCapacity(int count) {
+        if (this.xs.length < count) {
+            this.xs = new double[count];
+            this.ys = new double[count];
+            this.vertices = new int[count];
+            this.prev = new int[count];
+            this.next = new int[count];
+            this.boundary = new boolean[count];
+            this.triangles = new int[count * 3];
+            this.edgeFlags = new boolean[count * 3];
+        }
+    }
+
+    protected static boolean isSameLocation(double[] a, double[] b) {
+        return a[0] == b[0] && a[1] == b[1] && a[2] == b[2];
+    }
+}
@@ -52,11 +52,20 @@
 */
 package gov.nasa.worldwind.util.glu.tessellator;
 
-
+import java.util.ArrayList;
+import java.util.List;
 
 class GLUmesh {
     GLUvertex vHead = new GLUvertex();		/* dummy header for vertex list */
     GLUface fHead = new GLUface();		/* dummy header for face list */
     GLUhalfEdge eHead = new GLUhalfEdge(true);		/* dummy header for edge list */
     GLUhalfEdge eHeadSym = new GLUhalfEdge(false);	/* and its symmetric counterpart */
+
+    /* Structures allocated by previous polygons, reused by the next polygon
+     * after __gl_meshResetMesh.  Killed structures stay in the pools until then.
+     */
+    List<GLUvertex> vertexPool = new ArrayList<>();
+    List<GLUface> facePool = new ArrayList<>();
+    List<GLUhalfEdge> edgePool = new ArrayList<>();	/* first half-edge of each pair */
+    int vertexCount, faceCount, edgeCount;	/* number of pooled structures in use */
 }
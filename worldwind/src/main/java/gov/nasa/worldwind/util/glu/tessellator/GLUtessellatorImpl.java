@@ -52,6 +52,9 @@
 */
 package gov.nasa.worldwind.util.glu.tessellator;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import gov.nasa.worldwind.util.glu.GLU;
 import gov.nasa.worldwind.util.glu.GLUtessellator;
 import gov.nasa.worldwind.util.glu.GLUtessellatorCallback;
@@ -59,12 +62,14 @@ import gov.nasa.worldwind.util.glu.GLUtessellatorCallbackAdapter;
 
 public class GLUtessellatorImpl implements GLUtessellator {
     public static final int TESS_MAX_CACHE = 100;
+    static final int TESS_MAX_POOL = 4096;	/* most structures of each kind kept for reuse */
 
     private int state;		/* what begin/end calls have we seen? */
 
     private GLUhalfEdge lastEdge;	/* lastEdge->Org is the most recent vertex */
     GLUmesh mesh;		/* stores the input contours, and eventually
                                    the tessellation itself */
+    GLUmesh pooledMesh;	/* mesh and structures reused by each polygon */
 
     /*** state needed for projecting onto the sweep plane ***/
 
@@ -81,6 +86,10 @@ public class GLUtessellatorImpl implements GLUtessellator {
     Dict dict;		/* edge dictionary for sweep line */
     PriorityQ pq;		/* priority queue of vertex events */
     GLUvertex event;		/* current sweep event being processed */
+    List<ActiveRegion> regionPool = new ArrayList<>();	/* regions reused by each sweep */
+    int regionCount;		/* number of pooled regions in use */
+    ActiveRegion searchRegion = new ActiveRegion();	/* key for edge dictionary searches */
+    GLUvertex isect = new GLUvertex();	/* intersection of two edges */
 
     /*** state needed for rendering callbacks (see render.c) ***/
 
@@ -96,6 +105,30 @@ public class GLUtessellatorImpl implements GLUtessellator {
     private boolean flushCacheOnNextVertex;		/* empty cache on next vertex() call */
     int cacheCount;		/* number of cached vertices */
     CachedVertex[] cache = new CachedVertex[TESS_MAX_CACHE];	/* the vertex data */
+    private double[] clamped = new double[3];	/* clamped coordinates of the current vertex */
+
+    /*** state needed to ear clip simple single-contour polygons ***/
+
+    boolean useEarClipping = true;	/* try ear clipping before the sweep */
+    private EarClipper earClipper = new EarClipper();
+    int sweepCount;		/* number of polygons tessellated by the sweep */
+
+    /*** scratch arrays reused by each polygon's normal and sweep ***/
+
+    double[] scratchNormal = new double[3];
+    double[] scratchMinVal = new double[3];
+    double[] scratchMaxVal = new double[3];
+    GLUvertex[] scratchMinVert = new GLUvertex[3];
+    GLUvertex[] scratchMaxVert = new GLUvertex[3];
+    double[] scratchD1 = new double[3];
+    double[] scratchD2 = new double[3];
+    double[] scratchTNorm = new double[3];
+    double[] combineCoords = new double[3];
+    Object[] combineData = new Object[4];
+    float[] combineWeights = new float[4];
+    float[] combineWeights1 = new float[2];
+    float[] combineWeights2 = new float[2];
+    Object[] combineOutData = new Object[1];
 
     /*** rendering callbacks that also pass polygon data  ***/
     private Object polygonData;		/* client data for current polygon */
@@ -339,12 +372,12 @@ public class GLUtessellatorImpl implements GLUtessellator {
 
             e = Mesh.__gl_meshMakeEdge(mesh);
             if (e == null) return false;
-            if (!Mesh.__gl_meshSplice(e, e.Sym)) return false;
+            if (!Mesh.__gl_meshSplice(mesh, e, e.Sym)) return false;
         } else {
 /* Create a new vertex and edge which immediately follow e
  * in the ordering around the left face.
  */
-            if (Mesh.__gl_meshSplitEdge(e) == null) return false;
+            if (Mesh.__gl_meshSplitEdge(mesh, e) == null) return false;
             e = e.Lnext;
         }
 
@@ -385,7 +418,12 @@ public class GLUtessellatorImpl implements GLUtessellator {
     private boolean flushCache() {
         CachedVertex[] v = cache;
 
-        mesh = Mesh.__gl_meshNewMesh();
+        if (pooledMesh == null) {
+            pooledMesh = Mesh.__gl_meshNewMesh();
+        } else {
+            Mesh.__gl_meshResetMesh(pooledMesh);
+        }
+        mesh = pooledMesh;
         if (mesh == null) return false;
 
         for (int i = 0; i < cacheCount; i++) {
@@ -402,7 +440,7 @@ public class GLUtessellatorImpl implements GLUtessellator {
         int i;
         boolean tooLarge = false;
         double x;
-        double[] clamped = new double[3];
+        double[] clamped = this.clamped;
 
         requireState(TessState.T_IN_CONTOUR);
 
@@ -498,9 +536,19 @@ public class GLUtessellatorImpl implements GLUtessellator {
                         return;
                     }
                 }
+
+/* Triangulate simple single-contour polygons by ear clipping, which
+ * handles concave contours and edge flags without building a mesh.
+ */
+                if (useEarClipping && !boundaryOnly && earClipper.tessellate(this)) {
+                    polygonData = null;
+                    return;
+                }
                 if (!flushCache()) throw new RuntimeException(); /* could've used a label*/
             }
 
+            sweepCount++;
+
 /* Determine the polygon normal and project vertices onto the plane
          * of the polygon.
          */
@@ -57,11 +57,64 @@ class Mesh {
     }
 
     /************************ Utility Routines ************************/
+/* NewVertex, NewFace and NewEdgePair take a structure from the mesh's pools,
+ * allocating one only when every pooled structure is in use.  At most
+ * TESS_MAX_POOL structures of each kind are kept for reuse.
+ */
+    static GLUvertex NewVertex(GLUmesh mesh) {
+        GLUvertex v;
+
+        if (mesh.vertexCount < mesh.vertexPool.size()) {
+            v = mesh.vertexPool.get(mesh.vertexCount);
+            v.coords[0] = v.coords[1] = v.coords[2] = 0;
+            v.s = v.t = 0;
+            v.pqHandle = 0;
+        } else {
+            v = new GLUvertex();
+            if (mesh.vertexPool.size() < GLUtessellatorImpl.TESS_MAX_POOL) {
+                mesh.vertexPool.add(v);
+            }
+        }
+        mesh.vertexCount++;
+        return v;
+    }
+
+    static GLUface NewFace(GLUmesh mesh) {
+        GLUface f;
+
+        if (mesh.faceCount < mesh.facePool.size()) {
+            f = mesh.facePool.get(mesh.faceCount);
+        } else {
+            f = new GLUface();
+            if (mesh.facePool.size() < GLUtessellatorImpl.TESS_MAX_POOL) {
+                mesh.facePool.add(f);
+            }
+        }
+        mesh.faceCount++;
+        return f;
+    }
+
+    static GLUhalfEdge NewEdgePair(GLUmesh mesh) {
+        GLUhalfEdge e;
+
+        if (mesh.edgeCount < mesh.edgePool.size()) {
+            e = mesh.edgePool.get(mesh.edgeCount);
+        } else {
+            e = new GLUhalfEdge(true);
+            e.Sym = new GLUhalfEdge(false);
+            if (mesh.edgePool.size() < GLUtessellatorImpl.TESS_MAX_POOL) {
+                mesh.edgePool.add(e);
+            }
+        }
+        mesh.edgeCount++;
+        return e;
+    }
+
 /* MakeEdge creates a new pair of half-edges which form their own loop.
  * No vertex or face structures are allocated, but these must be assigned
  * before the current edge operation is completed.
  */
-    static GLUhalfEdge MakeEdge(GLUhalfEdge eNext) {
+    static GLUhalfEdge MakeEdge(GLUmesh mesh, GLUhalfEdge eNext) {
         GLUhalfEdge e;
         GLUhalfEdge eSym;
         GLUhalfEdge ePrev;
@@ -71,9 +124,9 @@ class Mesh {
 //        if (pair == NULL) return NULL;
 //
 //        e = &pair - > e;
-        e = new GLUhalfEdge(true);
+        e = NewEdgePair(mesh);
 //        eSym = &pair - > eSym;
-        eSym = new GLUhalfEdge(false);
+        eSym = e.Sym;
 
 
         /* Make sure eNext points to the first edge of the edge pair */
@@ -264,12 +317,12 @@ class Mesh {
  * The loop consists of the two new half-edges.
  */
     public static GLUhalfEdge __gl_meshMakeEdge(GLUmesh mesh) {
-        GLUvertex newVertex1 = new GLUvertex();
-        GLUvertex newVertex2 = new GLUvertex();
-        GLUface newFace = new GLUface();
+        GLUvertex newVertex1 = NewVertex(mesh);
+        GLUvertex newVertex2 = NewVertex(mesh);
+        GLUface newFace = NewFace(mesh);
         GLUhalfEdge e;
 
-        e = MakeEdge(mesh.eHead);
+        e = MakeEdge(mesh, mesh.eHead);
         if (e == null) return null;
 
         MakeVertex(newVertex1, e, mesh.vHead);
@@ -279,7 +332,7 @@ class Mesh {
     }
 
 
-/* __gl_meshSplice( eOrg, eDst ) is the basic operation for changing the
+/* __gl_meshSplice( mesh, eOrg, eDst ) is the basic operation for changing the
  * mesh connectivity and topology.  It changes the mesh so that
  *	eOrg->Onext <- OLD( eDst->Onext )
  *	eDst->Onext <- OLD( eOrg->Onext )
@@ -302,7 +355,7 @@ class Mesh {
  * If eDst == eOrg->Onext, the new vertex will have a single edge.
  * If eDst == eOrg->Oprev, the old vertex will have a single edge.
  */
-    public static boolean __gl_meshSplice(GLUhalfEdge eOrg, GLUhalfEdge eDst) {
+    public static boolean __gl_meshSplice(GLUmesh mesh, GLUhalfEdge eOrg, GLUhalfEdge eDst) {
         boolean joiningLoops = false;
         boolean joiningVertices = false;
 
@@ -323,7 +376,7 @@ class Mesh {
         Splice(eDst, eOrg);
 
         if (!joiningVertices) {
-            GLUvertex newVertex = new GLUvertex();
+            GLUvertex newVertex = NewVertex(mesh);
 
             /* We split one vertex into two -- the new vertex is eDst.Org.
              * Make sure the old vertex points to a valid half-edge.
@@ -332,7 +385,7 @@ class Mesh {
             eOrg.Org.anEdge = eOrg;
         }
         if (!joiningLoops) {
-            GLUface newFace = new GLUface();
+            GLUface newFace = NewFace(mesh);
 
             /* We split one loop into two -- the new loop is eDst.Lface.
              * Make sure the old face points to a valid half-edge.
@@ -345,7 +398,7 @@ class Mesh {
     }
 
 
-/* __gl_meshDelete( eDel ) removes the edge eDel.  There are several cases:
+/* __gl_meshDelete( mesh, eDel ) removes the edge eDel.  There are several cases:
  * if (eDel.Lface != eDel.Rface), we join two loops into one; the loop
  * eDel.Lface is deleted.  Otherwise, we are splitting one loop into two;
  * the newly created loop will contain eDel.Dst.  If the deletion of eDel
@@ -355,7 +408,7 @@ class Mesh {
  * plus a few calls to memFree, but this would allocate and delete
  * unnecessary vertices and faces.
  */
-    static boolean __gl_meshDelete(GLUhalfEdge eDel) {
+    static boolean __gl_meshDelete(GLUmesh mesh, GLUhalfEdge eDel) {
         GLUhalfEdge eDelSym = eDel.Sym;
         boolean joiningLoops = false;
 
@@ -377,7 +430,7 @@ class Mesh {
 
             Splice(eDel, eDel.Sym.Lnext);
             if (!joiningLoops) {
-                GLUface newFace = new GLUface();
+                GLUface newFace = NewFace(mesh);
 
                 /* We are splitting one loop into two -- create a new loop for eDel. */
                 MakeFace(newFace, eDel, eDel.Lface);
@@ -411,13 +464,13 @@ class Mesh {
  */
 
 
-/* __gl_meshAddEdgeVertex( eOrg ) creates a new edge eNew such that
+/* __gl_meshAddEdgeVertex( mesh, eOrg ) creates a new edge eNew such that
  * eNew == eOrg.Lnext, and eNew.Dst is a newly created vertex.
  * eOrg and eNew will have the same left face.
  */
-    static GLUhalfEdge __gl_meshAddEdgeVertex(GLUhalfEdge eOrg) {
+    static GLUhalfEdge __gl_meshAddEdgeVertex(GLUmesh mesh, GLUhalfEdge eOrg) {
         GLUhalfEdge eNewSym;
-        GLUhalfEdge eNew = MakeEdge(eOrg);
+        GLUhalfEdge eNew = MakeEdge(mesh, eOrg);
 
         eNewSym = eNew.Sym;
 
@@ -427,7 +480,7 @@ class Mesh {
         /* Set the vertex and face information */
         eNew.Org = eOrg.Sym.Org;
         {
-            GLUvertex newVertex = new GLUvertex();
+            GLUvertex newVertex = NewVertex(mesh);
 
             MakeVertex(newVertex, eNewSym, eNew.Org);
         }
@@ -437,13 +490,13 @@ class Mesh {
     }
 
 
-/* __gl_meshSplitEdge( eOrg ) splits eOrg into two edges eOrg and eNew,
+/* __gl_meshSplitEdge( mesh, eOrg ) splits eOrg into two edges eOrg and eNew,
  * such that eNew == eOrg.Lnext.  The new vertex is eOrg.Sym.Org == eNew.Org.
  * eOrg and eNew will have the same left face.
  */
-    public static GLUhalfEdge __gl_meshSplitEdge(GLUhalfEdge eOrg) {
+    public static GLUhalfEdge __gl_meshSplitEdge(GLUmesh mesh, GLUhalfEdge eOrg) {
         GLUhalfEdge eNew;
-        GLUhalfEdge tempHalfEdge = __gl_meshAddEdgeVertex(eOrg);
+        GLUhalfEdge tempHalfEdge = __gl_meshAddEdgeVertex(mesh, eOrg);
 
         eNew = tempHalfEdge.Sym;
 
@@ -462,7 +515,7 @@ class Mesh {
     }
 
 
-/* __gl_meshConnect( eOrg, eDst ) creates a new edge from eOrg.Sym.Org
+/* __gl_meshConnect( mesh, eOrg, eDst ) creates a new edge from eOrg.Sym.Org
  * to eDst.Org, and returns the corresponding half-edge eNew.
  * If eOrg.Lface == eDst.Lface, this splits one loop into two,
  * and the newly created loop is eNew.Lface.  Otherwise, two disjoint
@@ -472,10 +525,10 @@ class Mesh {
  * If (eOrg.Lnext == eDst), the old face is reduced to a single edge.
  * If (eOrg.Lnext.Lnext == eDst), the old face is reduced to two edges.
  */
-    static GLUhalfEdge __gl_meshConnect(GLUhalfEdge eOrg, GLUhalfEdge eDst) {
+    static GLUhalfEdge __gl_meshConnect(GLUmesh mesh, GLUhalfEdge eOrg, GLUhalfEdge eDst) {
         GLUhalfEdge eNewSym;
         boolean joiningLoops = false;
-        GLUhalfEdge eNew = MakeEdge(eOrg);
+        GLUhalfEdge eNew = MakeEdge(mesh, eOrg);
 
         eNewSym = eNew.Sym;
 
@@ -498,7 +551,7 @@ class Mesh {
         eOrg.Lface.anEdge = eNewSym;
 
         if (!joiningLoops) {
-            GLUface newFace = new GLUface();
+            GLUface newFace = NewFace(mesh);
 
             /* We split one loop into two -- the new loop is eNew.Lface */
             MakeFace(newFace, eNew, eOrg.Lface);
@@ -562,11 +615,22 @@ class Mesh {
  * and no loops (what we usually call a "face").
  */
     public static GLUmesh __gl_meshNewMesh() {
+        return __gl_meshResetMesh(new GLUmesh());
+    }
+
+
+/* __gl_meshResetMesh( mesh ) empties a mesh so that it can store the next
+ * polygon, and makes its pooled structures available for reuse.
+ */
+    static GLUmesh __gl_meshResetMesh(GLUmesh mesh) {
         GLUvertex v;
         GLUface f;
         GLUhalfEdge e;
         GLUhalfEdge eSym;
-        GLUmesh mesh = new GLUmesh();
+
+        mesh.vertexCount = 0;
+        mesh.faceCount = 0;
+        mesh.edgeCount = 0;
 
         v = mesh.vHead;
         f = mesh.fHead;
@@ -655,23 +719,16 @@ class Mesh {
     }
 
 /* __gl_meshDeleteMesh( mesh ) will free all storage for any valid mesh.
+ * The pooled structures are kept for the next polygon, but release the
+ * client's data.
  */
     public static void __gl_meshDeleteMesh(GLUmesh mesh) {
-        GLUface f, fNext;
-        GLUvertex v, vNext;
-        GLUhalfEdge e, eNext;
-
-        for (f = mesh.fHead.next; f != mesh.fHead; f = fNext) {
-            fNext = f.next;
-        }
-
-        for (v = mesh.vHead.next; v != mesh.vHead; v = vNext) {
-            vNext = v.next;
+        for (int i = 0, len = Math.min(mesh.vertexCount, mesh.vertexPool.size()); i < len; i++) {
+            mesh.vertexPool.get(i).data = null;
         }
 
-        for (e = mesh.eHead.next; e != mesh.eHead; e = eNext) {
-            /* One call frees both e and e.Sym (see EdgePair above) */
-            eNext = e.next;
+        for (int i = 0, len = Math.min(mesh.faceCount, mesh.facePool.size()); i < len; i++) {
+            mesh.facePool.get(i).data = null;
         }
     }
 
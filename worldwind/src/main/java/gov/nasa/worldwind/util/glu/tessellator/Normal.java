@@ -116,13 +116,13 @@ class Normal {
         GLUvertex vHead = tess.mesh.vHead;
         int i;
 
-        maxVal = new double[3];
-        minVal = new double[3];
-        minVert = new GLUvertex[3];
-        maxVert = new GLUvertex[3];
-        d1 = new double[3];
-        d2 = new double[3];
-        tNorm = new double[3];
+        maxVal = tess.scratchMaxVal;
+        minVal = tess.scratchMinVal;
+        minVert = tess.scratchMinVert;
+        maxVert = tess.scratchMaxVert;
+        d1 = tess.scratchD1;
+        d2 = tess.scratchD2;
+        tNorm = tess.scratchTNorm;
 
         maxVal[0] = maxVal[1] = maxVal[2] = -2 * GLU.GLU_TESS_MAX_COORD;
         minVal[0] = minVal[1] = minVal[2] = 2 * GLU.GLU_TESS_MAX_COORD;
@@ -151,6 +151,10 @@ class Normal {
         if (maxVal[2] - minVal[2] > maxVal[i] - minVal[i]) {
             i = 2;
         }
+        v1 = minVert[i];
+        v2 = maxVert[i];
+        minVert[0] = minVert[1] = minVert[2] = null; /* release the mesh */
+        maxVert[0] = maxVert[1] = maxVert[2] = null;
         if (minVal[i] >= maxVal[i]) {
 /* All vertices are the same -- normal doesn't matter */
             norm[0] = 0;
@@ -163,8 +167,6 @@ class Normal {
          * (Length of normal == twice the triangle area)
          */
         maxLen2 = 0;
-        v1 = minVert[i];
-        v2 = maxVert[i];
         d1[0] = v1.coords[0] - v2.coords[0];
         d1[1] = v1.coords[1] - v2.coords[1];
         d1[2] = v1.coords[2] - v2.coords[2];
@@ -226,7 +228,7 @@ class Normal {
     public static void __gl_projectPolygon(GLUtessellatorImpl tess) {
         GLUvertex v, vHead = tess.mesh.vHead;
         double w;
-        double[] norm = new double[3];
+        double[] norm = tess.scratchNormal;
         double[] sUnit, tUnit;
         int i;
         boolean computedNormal = false;
@@ -85,6 +85,9 @@ abstract class PriorityQ {
 
     abstract void pqDeletePriorityQ();
 
+/* Empty the queue and release its keys, keeping its storage for the next polygon. */
+    abstract void pqReset();
+
     abstract boolean pqInit();
 
     abstract int pqInsert(Object keyNew);
@@ -88,6 +88,17 @@ class PriorityQHeap extends PriorityQ {
         nodes = null;
     }
 
+    void pqReset() {
+        for (int i = 0; i < handles.length; i++) {
+            handles[i].key = null;
+        }
+        size = 0;
+        initialized = false;
+        freeList = 0;
+
+        nodes[1].handle = 1;	/* so that Minimum() returns NULL */
+    }
+
     void FloatDown(int curr) {
         PriorityQ.PQnode[] n = nodes;
         PriorityQ.PQhandleElem[] h = handles;
@@ -47,6 +47,7 @@
 */
 package gov.nasa.worldwind.util.glu.tessellator;
 
+import java.util.Arrays;
 
 
 class PriorityQSort extends PriorityQ {
@@ -60,6 +61,7 @@ class PriorityQSort extends PriorityQ {
     int size, max;
     boolean initialized;
     PriorityQ.Leq leq;
+    Stack[] stack = new Stack[50];	/* Quicksort stack, allocated once per queue */
 
     public PriorityQSort(PriorityQ.Leq leq) {
         heap = new PriorityQHeap(leq);
@@ -79,6 +81,14 @@ class PriorityQSort extends PriorityQ {
         keys = null;
     }
 
+    void pqReset() {
+        heap.pqReset();
+        Arrays.fill(keys, null);
+        size = 0;
+        max = keys.length;
+        initialized = false;
+    }
+
     private static boolean LT(PriorityQ.Leq leq, Object x, Object y) {
         return (!PriorityQHeap.LEQ(leq, y, x));
     }
@@ -105,9 +115,11 @@ class PriorityQSort extends PriorityQ {
     boolean pqInit() {
         int p, r, i, j;
         int piv;
-        Stack[] stack = new Stack[50];
-        for (int k = 0; k < stack.length; k++) {
-            stack[k] = new Stack();
+        Stack[] stack = this.stack;
+        if (stack[0] == null) {
+            for (int k = 0; k < stack.length; k++) {
+                stack[k] = new Stack();
+            }
         }
         int top = 0;
 
@@ -116,7 +128,9 @@ class PriorityQSort extends PriorityQ {
         /* Create an array of indirect pointers to the keys, so that we
          * the handles we have returned are still valid.
          */
-        order = new int[size + 1];
+        if (order == null || order.length < size + 1) {
+            order = new int[size + 1];
+        }
 /* the previous line is a patch to compensate for the fact that IBM */
 /* machines return a null on a malloc of zero bytes (unlike SGI),   */
 /* so we have to put in this defense to guard against a memory      */
@@ -168,12 +168,12 @@ class Sweep {
     }
 
 
-    static boolean FixUpperEdge(ActiveRegion reg, GLUhalfEdge newEdge)
+    static boolean FixUpperEdge(GLUtessellatorImpl tess, ActiveRegion reg, GLUhalfEdge newEdge)
 /*
  * Replace an upper edge which needs fixing (see ConnectRightVertex).
  */ {
         assert (reg.fixUpperEdge);
-        if (!Mesh.__gl_meshDelete(reg.eUp)) return false;
+        if (!Mesh.__gl_meshDelete(tess.mesh, reg.eUp)) return false;
         reg.fixUpperEdge = false;
         reg.eUp = newEdge;
         newEdge.activeRegion = reg;
@@ -181,7 +181,7 @@ class Sweep {
         return true;
     }
 
-    static ActiveRegion TopLeftRegion(ActiveRegion reg) {
+    static ActiveRegion TopLeftRegion(GLUtessellatorImpl tess, ActiveRegion reg) {
         GLUvertex org = reg.eUp.Org;
         GLUhalfEdge e;
 
@@ -194,9 +194,9 @@ class Sweep {
          * now is the time to fix it.
          */
         if (reg.fixUpperEdge) {
-            e = Mesh.__gl_meshConnect(RegionBelow(reg).eUp.Sym, reg.eUp.Lnext);
+            e = Mesh.__gl_meshConnect(tess.mesh, RegionBelow(reg).eUp.Sym, reg.eUp.Lnext);
             if (e == null) return null;
-            if (!FixUpperEdge(reg, e)) return null;
+            if (!FixUpperEdge(tess, reg, e)) return null;
             reg = RegionAbove(reg);
         }
         return reg;
@@ -212,6 +212,27 @@ class Sweep {
         return reg;
     }
 
+    static ActiveRegion NewRegion(GLUtessellatorImpl tess)
+/*
+ * Take a region from the tessellator's pool, allocating one only when every
+ * pooled region is in use.  The pool is reset by InitEdgeDict.
+ */ {
+        ActiveRegion reg;
+
+        if (tess.regionCount < tess.regionPool.size()) {
+            reg = tess.regionPool.get(tess.regionCount);
+            reg.windingNumber = 0;
+            reg.inside = false;
+        } else {
+            reg = new ActiveRegion();
+            if (tess.regionPool.size() < GLUtessellatorImpl.TESS_MAX_POOL) {
+                tess.regionPool.add(reg);
+            }
+        }
+        tess.regionCount++;
+        return reg;
+    }
+
     static ActiveRegion AddRegionBelow(GLUtessellatorImpl tess,
                                        ActiveRegion regAbove,
                                        GLUhalfEdge eNewUp)
@@ -221,7 +242,7 @@ class Sweep {
  * The upper edge of the new region will be "eNewUp".
  * Winding number and "inside" flag are not updated.
  */ {
-        ActiveRegion regNew = new ActiveRegion();
+        ActiveRegion regNew = NewRegion(tess);
         if (regNew == null) throw new RuntimeException();
 
         regNew.eUp = eNewUp;
@@ -316,15 +337,15 @@ class Sweep {
                 /* If the edge below was a temporary edge introduced by
                  * ConnectRightVertex, now is the time to fix it.
                  */
-                e = Mesh.__gl_meshConnect(ePrev.Onext.Sym, e.Sym);
+                e = Mesh.__gl_meshConnect(tess.mesh, ePrev.Onext.Sym, e.Sym);
                 if (e == null) throw new RuntimeException();
-                if (!FixUpperEdge(reg, e)) throw new RuntimeException();
+                if (!FixUpperEdge(tess, reg, e)) throw new RuntimeException();
             }
 
             /* Relink edges so that ePrev.Onext == e */
             if (ePrev.Onext != e) {
-                if (!Mesh.__gl_meshSplice(e.Sym.Lnext, e)) throw new RuntimeException();
-                if (!Mesh.__gl_meshSplice(ePrev, e)) throw new RuntimeException();
+                if (!Mesh.__gl_meshSplice(tess.mesh, e.Sym.Lnext, e)) throw new RuntimeException();
+                if (!Mesh.__gl_meshSplice(tess.mesh, ePrev, e)) throw new RuntimeException();
             }
             FinishRegion(tess, regPrev);	/* may change reg.eUp */
             ePrev = reg.eUp;
@@ -375,8 +396,8 @@ class Sweep {
 
             if (e.Onext != ePrev) {
                 /* Unlink e from its current position, and relink below ePrev */
-                if (!Mesh.__gl_meshSplice(e.Sym.Lnext, e)) throw new RuntimeException();
-                if (!Mesh.__gl_meshSplice(ePrev.Sym.Lnext, e)) throw new RuntimeException();
+                if (!Mesh.__gl_meshSplice(tess.mesh, e.Sym.Lnext, e)) throw new RuntimeException();
+                if (!Mesh.__gl_meshSplice(tess.mesh, ePrev.Sym.Lnext, e)) throw new RuntimeException();
             }
             /* Compute the winding number and "inside" flag for the new regions */
             reg.windingNumber = regPrev.windingNumber - e.winding;
@@ -389,7 +410,7 @@ class Sweep {
             if (!firstTime && CheckForRightSplice(tess, regPrev)) {
                 AddWinding(e, ePrev);
                 DeleteRegion(tess, regPrev);
-                if (!Mesh.__gl_meshDelete(ePrev)) throw new RuntimeException();
+                if (!Mesh.__gl_meshDelete(tess.mesh, ePrev)) throw new RuntimeException();
             }
             firstTime = false;
             regPrev = reg;
@@ -407,16 +428,18 @@ class Sweep {
 
     static void CallCombine(GLUtessellatorImpl tess, GLUvertex isect,
                             Object[] data, float[] weights, boolean needed) {
-        double[] coords = new double[3];
+        double[] coords = tess.combineCoords;
 
         /* Copy coord data in case the callback changes it. */
         coords[0] = isect.coords[0];
         coords[1] = isect.coords[1];
         coords[2] = isect.coords[2];
 
-        Object[] outData = new Object[1];
+        Object[] outData = tess.combineOutData;
+        outData[0] = null;
         tess.callCombineOrCombineData(coords, data, weights, outData);
         isect.data = outData[0];
+        outData[0] = null;
         if (isect.data == null) {
             if (!needed) {
                 isect.data = data[0];
@@ -437,13 +460,17 @@ class Sweep {
  * Two vertices with idential coordinates are combined into one.
  * e1.Org is kept, while e2.Org is discarded.
  */ {
-        Object[] data = new Object[4];
-        float[] weights = new float[]{0.5f, 0.5f, 0.0f, 0.0f};
+        Object[] data = tess.combineData;
+        float[] weights = tess.combineWeights;
 
         data[0] = e1.Org.data;
         data[1] = e2.Org.data;
+        data[2] = data[3] = null;
+        weights[0] = weights[1] = 0.5f;
+        weights[2] = weights[3] = 0.0f;
         CallCombine(tess, e1.Org, data, weights, false);
-        if (!Mesh.__gl_meshSplice(e1, e2)) throw new RuntimeException();
+        data[0] = data[1] = null;
+        if (!Mesh.__gl_meshSplice(tess.mesh, e1, e2)) throw new RuntimeException();
     }
 
     static void VertexWeights(GLUvertex isect, GLUvertex org, GLUvertex dst,
@@ -474,10 +501,10 @@ class Sweep {
  * from the user so that we can refer to this new vertex in the
  * rendering callbacks.
  */ {
-        Object[] data = new Object[4];
-        float[] weights = new float[4];
-        float[] weights1 = new float[2];
-        float[] weights2 = new float[2];
+        Object[] data = tess.combineData;
+        float[] weights = tess.combineWeights;
+        float[] weights1 = tess.combineWeights1;
+        float[] weights2 = tess.combineWeights2;
 
         data[0] = orgUp.data;
         data[1] = dstUp.data;
@@ -491,6 +518,7 @@ class Sweep {
         System.arraycopy(weights2, 0, weights, 2, 2);
 
         CallCombine(tess, isect, data, weights, true);
+        data[0] = data[1] = data[2] = data[3] = null;
     }
 
     static boolean CheckForRightSplice(GLUtessellatorImpl tess, ActiveRegion regUp)
@@ -529,8 +557,8 @@ class Sweep {
             /* eUp.Org appears to be below eLo */
             if (!Geom.VertEq(eUp.Org, eLo.Org)) {
                 /* Splice eUp.Org into eLo */
-                if (Mesh.__gl_meshSplitEdge(eLo.Sym) == null) throw new RuntimeException();
-                if (!Mesh.__gl_meshSplice(eUp, eLo.Sym.Lnext)) throw new RuntimeException();
+                if (Mesh.__gl_meshSplitEdge(tess.mesh, eLo.Sym) == null) throw new RuntimeException();
+                if (!Mesh.__gl_meshSplice(tess.mesh, eUp, eLo.Sym.Lnext)) throw new RuntimeException();
                 regUp.dirty = regLo.dirty = true;
 
             } else if (eUp.Org != eLo.Org) {
@@ -543,8 +571,8 @@ class Sweep {
 
             /* eLo.Org appears to be above eUp, so splice eLo.Org into eUp */
             RegionAbove(regUp).dirty = regUp.dirty = true;
-            if (Mesh.__gl_meshSplitEdge(eUp.Sym) == null) throw new RuntimeException();
-            if (!Mesh.__gl_meshSplice(eLo.Sym.Lnext, eUp)) throw new RuntimeException();
+            if (Mesh.__gl_meshSplitEdge(tess.mesh, eUp.Sym) == null) throw new RuntimeException();
+            if (!Mesh.__gl_meshSplice(tess.mesh, eLo.Sym.Lnext, eUp)) throw new RuntimeException();
         }
         return true;
     }
@@ -580,18 +608,18 @@ class Sweep {
 
             /* eLo.Sym.Org is above eUp, so splice eLo.Sym.Org into eUp */
             RegionAbove(regUp).dirty = regUp.dirty = true;
-            e = Mesh.__gl_meshSplitEdge(eUp);
+            e = Mesh.__gl_meshSplitEdge(tess.mesh, eUp);
             if (e == null) throw new RuntimeException();
-            if (!Mesh.__gl_meshSplice(eLo.Sym, e)) throw new RuntimeException();
+            if (!Mesh.__gl_meshSplice(tess.mesh, eLo.Sym, e)) throw new RuntimeException();
             e.Lface.inside = regUp.inside;
         } else {
             if (Geom.EdgeSign(eLo.Sym.Org, eUp.Sym.Org, eLo.Org) > 0) return false;
 
             /* eUp.Sym.Org is below eLo, so splice eUp.Sym.Org into eLo */
             regUp.dirty = regLo.dirty = true;
-            e = Mesh.__gl_meshSplitEdge(eLo);
+            e = Mesh.__gl_meshSplitEdge(tess.mesh, eLo);
             if (e == null) throw new RuntimeException();
-            if (!Mesh.__gl_meshSplice(eUp.Lnext, eLo.Sym)) throw new RuntimeException();
+            if (!Mesh.__gl_meshSplice(tess.mesh, eUp.Lnext, eLo.Sym)) throw new RuntimeException();
             e.Sym.Lface.inside = regUp.inside;
         }
         return true;
@@ -616,7 +644,7 @@ class Sweep {
         GLUvertex dstUp = eUp.Sym.Org;
         GLUvertex dstLo = eLo.Sym.Org;
         double tMinUp, tMaxLo;
-        GLUvertex isect = new GLUvertex();
+        GLUvertex isect = tess.isect;
         GLUvertex orgMin;
         GLUhalfEdge e;
 
@@ -686,9 +714,9 @@ class Sweep {
              */
             if (dstLo == tess.event) {
                 /* Splice dstLo into eUp, and process the new region(s) */
-                if (Mesh.__gl_meshSplitEdge(eUp.Sym) == null) throw new RuntimeException();
-                if (!Mesh.__gl_meshSplice(eLo.Sym, eUp)) throw new RuntimeException();
-                regUp = TopLeftRegion(regUp);
+                if (Mesh.__gl_meshSplitEdge(tess.mesh, eUp.Sym) == null) throw new RuntimeException();
+                if (!Mesh.__gl_meshSplice(tess.mesh, eLo.Sym, eUp)) throw new RuntimeException();
+                regUp = TopLeftRegion(tess, regUp);
                 if (regUp == null) throw new RuntimeException();
                 eUp = RegionBelow(regUp).eUp;
                 FinishLeftRegions(tess, RegionBelow(regUp), regLo);
@@ -697,8 +725,8 @@ class Sweep {
             }
             if (dstUp == tess.event) {
                 /* Splice dstUp into eLo, and process the new region(s) */
-                if (Mesh.__gl_meshSplitEdge(eLo.Sym) == null) throw new RuntimeException();
-                if (!Mesh.__gl_meshSplice(eUp.Lnext, eLo.Sym.Lnext)) throw new RuntimeException();
+                if (Mesh.__gl_meshSplitEdge(tess.mesh, eLo.Sym) == null) throw new RuntimeException();
+                if (!Mesh.__gl_meshSplice(tess.mesh, eUp.Lnext, eLo.Sym.Lnext)) throw new RuntimeException();
                 regLo = regUp;
                 regUp = TopRightRegion(regUp);
                 e = RegionBelow(regUp).eUp.Sym.Onext;
@@ -713,13 +741,13 @@ class Sweep {
              */
             if (Geom.EdgeSign(dstUp, tess.event, isect) >= 0) {
                 RegionAbove(regUp).dirty = regUp.dirty = true;
-                if (Mesh.__gl_meshSplitEdge(eUp.Sym) == null) throw new RuntimeException();
+                if (Mesh.__gl_meshSplitEdge(tess.mesh, eUp.Sym) == null) throw new RuntimeException();
                 eUp.Org.s = tess.event.s;
                 eUp.Org.t = tess.event.t;
             }
             if (Geom.EdgeSign(dstLo, tess.event, isect) <= 0) {
                 regUp.dirty = regLo.dirty = true;
-                if (Mesh.__gl_meshSplitEdge(eLo.Sym) == null) throw new RuntimeException();
+                if (Mesh.__gl_meshSplitEdge(tess.mesh, eLo.Sym) == null) throw new RuntimeException();
                 eLo.Org.s = tess.event.s;
                 eLo.Org.t = tess.event.t;
             }
@@ -735,9 +763,9 @@ class Sweep {
          * the mesh (ie. eUp.Lface) to be smaller than the faces in the
          * unprocessed original contours (which will be eLo.Sym.Lnext.Lface).
          */
-        if (Mesh.__gl_meshSplitEdge(eUp.Sym) == null) throw new RuntimeException();
-        if (Mesh.__gl_meshSplitEdge(eLo.Sym) == null) throw new RuntimeException();
-        if (!Mesh.__gl_meshSplice(eLo.Sym.Lnext, eUp)) throw new RuntimeException();
+        if (Mesh.__gl_meshSplitEdge(tess.mesh, eUp.Sym) == null) throw new RuntimeException();
+        if (Mesh.__gl_meshSplitEdge(tess.mesh, eLo.Sym) == null) throw new RuntimeException();
+        if (!Mesh.__gl_meshSplice(tess.mesh, eLo.Sym.Lnext, eUp)) throw new RuntimeException();
         eUp.Org.s = isect.s;
         eUp.Org.t = isect.t;
         eUp.Org.pqHandle = tess.pq.pqInsert(eUp.Org); /* __gl_pqSortInsert */
@@ -791,12 +819,12 @@ class Sweep {
                      */
                     if (regLo.fixUpperEdge) {
                         DeleteRegion(tess, regLo);
-                        if (!Mesh.__gl_meshDelete(eLo)) throw new RuntimeException();
+                        if (!Mesh.__gl_meshDelete(tess.mesh, eLo)) throw new RuntimeException();
                         regLo = RegionBelow(regUp);
                         eLo = regLo.eUp;
                     } else if (regUp.fixUpperEdge) {
                         DeleteRegion(tess, regUp);
-                        if (!Mesh.__gl_meshDelete(eUp)) throw new RuntimeException();
+                        if (!Mesh.__gl_meshDelete(tess.mesh, eUp)) throw new RuntimeException();
                         regUp = RegionAbove(regLo);
                         eUp = regUp.eUp;
                     }
@@ -829,7 +857,7 @@ class Sweep {
                 /* A degenerate loop consisting of only two edges -- delete it. */
                 AddWinding(eLo, eUp);
                 DeleteRegion(tess, regUp);
-                if (!Mesh.__gl_meshDelete(eUp)) throw new RuntimeException();
+                if (!Mesh.__gl_meshDelete(tess.mesh, eUp)) throw new RuntimeException();
                 regUp = RegionAbove(regLo);
             }
         }
@@ -884,15 +912,15 @@ class Sweep {
          * through vEvent, or may coincide with new intersection vertex
          */
         if (Geom.VertEq(eUp.Org, tess.event)) {
-            if (!Mesh.__gl_meshSplice(eTopLeft.Sym.Lnext, eUp)) throw new RuntimeException();
-            regUp = TopLeftRegion(regUp);
+            if (!Mesh.__gl_meshSplice(tess.mesh, eTopLeft.Sym.Lnext, eUp)) throw new RuntimeException();
+            regUp = TopLeftRegion(tess, regUp);
             if (regUp == null) throw new RuntimeException();
             eTopLeft = RegionBelow(regUp).eUp;
             FinishLeftRegions(tess, RegionBelow(regUp), regLo);
             degenerate = true;
         }
         if (Geom.VertEq(eLo.Org, tess.event)) {
-            if (!Mesh.__gl_meshSplice(eBottomLeft, eLo.Sym.Lnext)) throw new RuntimeException();
+            if (!Mesh.__gl_meshSplice(tess.mesh, eBottomLeft, eLo.Sym.Lnext)) throw new RuntimeException();
             eBottomLeft = FinishLeftRegions(tess, regLo, null);
             degenerate = true;
         }
@@ -909,7 +937,7 @@ class Sweep {
         } else {
             eNew = eUp;
         }
-        eNew = Mesh.__gl_meshConnect(eBottomLeft.Onext.Sym, eNew);
+        eNew = Mesh.__gl_meshConnect(tess.mesh, eBottomLeft.Onext.Sym, eNew);
         if (eNew == null) throw new RuntimeException();
 
         /* Prevent cleanup, otherwise eNew might disappear before we've even
@@ -951,13 +979,13 @@ class Sweep {
 
         if (!Geom.VertEq(e.Sym.Org, vEvent)) {
             /* General case -- splice vEvent into edge e which passes through it */
-            if (Mesh.__gl_meshSplitEdge(e.Sym) == null) throw new RuntimeException();
+            if (Mesh.__gl_meshSplitEdge(tess.mesh, e.Sym) == null) throw new RuntimeException();
             if (regUp.fixUpperEdge) {
                 /* This edge was fixable -- delete unused portion of original edge */
-                if (!Mesh.__gl_meshDelete(e.Onext)) throw new RuntimeException();
+                if (!Mesh.__gl_meshDelete(tess.mesh, e.Onext)) throw new RuntimeException();
                 regUp.fixUpperEdge = false;
             }
-            if (!Mesh.__gl_meshSplice(vEvent.anEdge, e)) throw new RuntimeException();
+            if (!Mesh.__gl_meshSplice(tess.mesh, vEvent.anEdge, e)) throw new RuntimeException();
             SweepEvent(tess, vEvent);	/* recurse */
             return;
         }
@@ -976,10 +1004,10 @@ class Sweep {
              */
             assert (eTopLeft != eTopRight);   /* there are some left edges too */
             DeleteRegion(tess, reg);
-            if (!Mesh.__gl_meshDelete(eTopRight)) throw new RuntimeException();
+            if (!Mesh.__gl_meshDelete(tess.mesh, eTopRight)) throw new RuntimeException();
             eTopRight = eTopLeft.Sym.Lnext;
         }
-        if (!Mesh.__gl_meshSplice(vEvent.anEdge, eTopRight)) throw new RuntimeException();
+        if (!Mesh.__gl_meshSplice(tess.mesh, vEvent.anEdge, eTopRight)) throw new RuntimeException();
         if (!Geom.EdgeGoesLeft(eTopLeft)) {
             /* e.Sym.Org had no left-going edges -- indicate this to AddRightEdges() */
             eTopLeft = null;
@@ -1006,7 +1034,7 @@ class Sweep {
  */ {
         ActiveRegion regUp, regLo, reg;
         GLUhalfEdge eUp, eLo, eNew;
-        ActiveRegion tmp = new ActiveRegion();
+        ActiveRegion tmp = tess.searchRegion;
 
         /* assert ( vEvent.anEdge.Onext.Onext == vEvent.anEdge ); */
 
@@ -1031,16 +1059,16 @@ class Sweep {
 
         if (regUp.inside || reg.fixUpperEdge) {
             if (reg == regUp) {
-                eNew = Mesh.__gl_meshConnect(vEvent.anEdge.Sym, eUp.Lnext);
+                eNew = Mesh.__gl_meshConnect(tess.mesh, vEvent.anEdge.Sym, eUp.Lnext);
                 if (eNew == null) throw new RuntimeException();
             } else {
-                GLUhalfEdge tempHalfEdge = Mesh.__gl_meshConnect(eLo.Sym.Onext.Sym, vEvent.anEdge);
+                GLUhalfEdge tempHalfEdge = Mesh.__gl_meshConnect(tess.mesh, eLo.Sym.Onext.Sym, vEvent.anEdge);
                 if (tempHalfEdge == null) throw new RuntimeException();
 
                 eNew = tempHalfEdge.Sym;
             }
             if (reg.fixUpperEdge) {
-                if (!FixUpperEdge(reg, eNew)) throw new RuntimeException();
+                if (!FixUpperEdge(tess, reg, eNew)) throw new RuntimeException();
             } else {
                 ComputeWinding(tess, AddRegionBelow(tess, regUp, eNew));
             }
@@ -1086,7 +1114,7 @@ class Sweep {
          * to their winding number, and delete the edges from the dictionary.
          * This takes care of all the left-going edges from vEvent.
          */
-        regUp = TopLeftRegion(e.activeRegion);
+        regUp = TopLeftRegion(tess, e.activeRegion);
         if (regUp == null) throw new RuntimeException();
         reg = RegionBelow(regUp);
         eTopLeft = reg.eUp;
@@ -1119,7 +1147,7 @@ class Sweep {
  * to avoid special cases at the top and bottom.
  */ {
         GLUhalfEdge e;
-        ActiveRegion reg = new ActiveRegion();
+        ActiveRegion reg = NewRegion(tess);
         if (reg == null) throw new RuntimeException();
 
         e = Mesh.__gl_meshMakeEdge(tess.mesh);
@@ -1147,13 +1175,18 @@ class Sweep {
  * We maintain an ordering of edge intersections with the sweep line.
  * This order is maintained in a dynamic dictionary.
  */ {
-        /* __gl_dictListNewDict */
-        tess.dict = Dict.dictNewDict(tess, new Dict.DictLeq() {
-            public boolean leq(Object frame, Object key1, Object key2) {
-                return EdgeLeq(tess, (ActiveRegion) key1, (ActiveRegion) key2);
-            }
-        });
+        /* __gl_dictListNewDict, reusing the previous polygon's dictionary */
+        if (tess.dict == null) {
+            tess.dict = Dict.dictNewDict(tess, new Dict.DictLeq() {
+                public boolean leq(Object frame, Object key1, Object key2) {
+                    return EdgeLeq(tess, (ActiveRegion) key1, (ActiveRegion) key2);
+                }
+            });
+        } else {
+            Dict.dictReset(tess.dict); /* in case the previous sweep failed */
+        }
         if (tess.dict == null) throw new RuntimeException();
+        tess.regionCount = 0;
 
         AddSentinel(tess, -SENTINEL_COORD);
         AddSentinel(tess, SENTINEL_COORD);
@@ -1179,7 +1212,7 @@ class Sweep {
             DeleteRegion(tess, reg);
 /*    __gl_meshDelete( reg.eUp );*/
         }
-        Dict.dictDeleteDict(tess.dict);	/* __gl_dictListDeleteDict */
+        Dict.dictReset(tess.dict);	/* keep the dictionary's nodes for the next polygon */
     }
 
 
@@ -1199,7 +1232,7 @@ class Sweep {
                 /* Zero-length edge, contour has at least 3 edges */
 
                 SpliceMergeVertices(tess, eLnext, e);	/* deletes e.Org */
-                if (!Mesh.__gl_meshDelete(e)) throw new RuntimeException(); /* e is a self-loop */
+                if (!Mesh.__gl_meshDelete(tess.mesh, e)) throw new RuntimeException(); /* e is a self-loop */
                 e = eLnext;
                 eLnext = e.Lnext;
             }
@@ -1210,12 +1243,12 @@ class Sweep {
                     if (eLnext == eNext || eLnext == eNext.Sym) {
                         eNext = eNext.next;
                     }
-                    if (!Mesh.__gl_meshDelete(eLnext)) throw new RuntimeException();
+                    if (!Mesh.__gl_meshDelete(tess.mesh, eLnext)) throw new RuntimeException();
                 }
                 if (e == eNext || e == eNext.Sym) {
                     eNext = eNext.next;
                 }
-                if (!Mesh.__gl_meshDelete(e)) throw new RuntimeException();
+                if (!Mesh.__gl_meshDelete(tess.mesh, e)) throw new RuntimeException();
             }
         }
     }
@@ -1228,12 +1261,17 @@ class Sweep {
         PriorityQ pq;
         GLUvertex v, vHead;
 
-        /* __gl_pqSortNewPriorityQ */
-        pq = tess.pq = PriorityQ.pqNewPriorityQ(new PriorityQ.Leq() {
-            public boolean leq(Object key1, Object key2) {
-                return Geom.VertLeq(((GLUvertex) key1), (GLUvertex) key2);
-            }
-        });
+        /* __gl_pqSortNewPriorityQ, reusing the previous polygon's queue */
+        if (tess.pq == null) {
+            tess.pq = PriorityQ.pqNewPriorityQ(new PriorityQ.Leq() {
+                public boolean leq(Object key1, Object key2) {
+                    return Geom.VertLeq(((GLUvertex) key1), (GLUvertex) key2);
+                }
+            });
+        } else {
+            tess.pq.pqReset(); /* in case the previous sweep failed */
+        }
+        pq = tess.pq;
         if (pq == null) return false;
 
         vHead = tess.mesh.vHead;
@@ -1252,7 +1290,7 @@ class Sweep {
 
 
     static void DonePriorityQ(GLUtessellatorImpl tess) {
-        tess.pq.pqDeletePriorityQ(); /* __gl_pqSortDeletePriorityQ */
+        tess.pq.pqReset(); /* keep the queue's storage for the next polygon */
     }
 
 
@@ -1283,7 +1321,7 @@ class Sweep {
             if (e.Lnext.Lnext == e) {
                 /* A face with only two edges */
                 AddWinding(e.Onext, e);
-                if (!Mesh.__gl_meshDelete(e)) return false;
+                if (!Mesh.__gl_meshDelete(mesh, e)) return false;
             }
         }
         return true;
@@ -53,7 +53,7 @@
 package gov.nasa.worldwind.util.glu.tessellator;
 
 class TessMono {
-/* __gl_meshTessellateMonoRegion( face ) tessellates a monotone region
+/* __gl_meshTessellateMonoRegion( mesh, face ) tessellates a monotone region
  * (what else would it do??)  The region must consist of a single
  * loop of half-edges (see mesh.h) oriented CCW.  "Monotone" in this
  * case means that any vertical line intersects the interior of the
@@ -80,7 +80,7 @@ class TessMono {
  * to the fan is a simple orientation test.  By making the fan as large
  * as possible, we restore the invariant (check it yourself).
  */
-    static boolean __gl_meshTessellateMonoRegion(GLUface face) {
+    static boolean __gl_meshTessellateMonoRegion(GLUmesh mesh, GLUface face) {
         GLUhalfEdge up, lo;
 
         /* All edges are oriented CCW around the boundary of the region.
@@ -105,7 +105,7 @@ class TessMono {
                  */
                 while (lo.Lnext != up && (Geom.EdgeGoesLeft(lo.Lnext)
                         || Geom.EdgeSign(lo.Org, lo.Sym.Org, lo.Lnext.Sym.Org) <= 0)) {
-                    GLUhalfEdge tempHalfEdge = Mesh.__gl_meshConnect(lo.Lnext, lo);
+                    GLUhalfEdge tempHalfEdge = Mesh.__gl_meshConnect(mesh, lo.Lnext, lo);
                     if (tempHalfEdge == null) return false;
                     lo = tempHalfEdge.Sym;
                 }
@@ -114,7 +114,7 @@ class TessMono {
                 /* lo.Org is on the left.  We can make CCW triangles from up.Sym.Org. */
                 while (lo.Lnext != up && (Geom.EdgeGoesRight(up.Onext.Sym)
                         || Geom.EdgeSign(up.Sym.Org, up.Org, up.Onext.Sym.Org) >= 0)) {
-                    GLUhalfEdge tempHalfEdge = Mesh.__gl_meshConnect(up, up.Onext.Sym);
+                    GLUhalfEdge tempHalfEdge = Mesh.__gl_meshConnect(mesh, up, up.Onext.Sym);
                     if (tempHalfEdge == null) return false;
                     up = tempHalfEdge.Sym;
                 }
@@ -127,7 +127,7 @@ class TessMono {
          */
         assert (lo.Lnext != up);
         while (lo.Lnext.Lnext != up) {
-            GLUhalfEdge tempHalfEdge = Mesh.__gl_meshConnect(lo.Lnext, lo);
+            GLUhalfEdge tempHalfEdge = Mesh.__gl_meshConnect(mesh, lo.Lnext, lo);
             if (tempHalfEdge == null) return false;
             lo = tempHalfEdge.Sym;
         }
@@ -148,7 +148,7 @@ class TessMono {
             /* Make sure we don''t try to tessellate the new triangles. */
             next = f.next;
             if (f.inside) {
-                if (!__gl_meshTessellateMonoRegion(f)) return false;
+                if (!__gl_meshTessellateMonoRegion(mesh, f)) return false;
             }
         }
 
@@ -199,7 +199,7 @@ class TessMono {
                 if (!keepOnlyBoundary) {
                     e.winding = 0;
                 } else {
-                    if (!Mesh.__gl_meshDelete(e)) return false;
+                    if (!Mesh.__gl_meshDelete(mesh, e)) return false;
                 }
             }
         }
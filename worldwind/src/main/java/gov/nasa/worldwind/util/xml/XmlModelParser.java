@@ -9,22 +9,44 @@ import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
 
 import java.io.IOException;
+import java.lang.reflect.Constructor;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
-
-import javax.xml.namespace.QName;
 
 import gov.nasa.worldwind.util.Logger;
 
+/**
+ * Parses an XML document into a tree of {@link XmlModel} objects using an XmlPullParser.
+ * <p/>
+ * Element names are resolved against a table of registered elements keyed by namespace and local name. Each table
+ * entry holds an interned copy of the element name, which is passed to {@link XmlModel#parseField(String, Object)}, and
+ * the factory that creates the element's model. Models registered by class are created through a constructor resolved
+ * once at registration. Unregistered elements are parsed into {@link DefaultXmlModel} instances.
+ * <p/>
+ * Subclasses may parse selectively by overriding {@link #isSkippedElement(String, String, XmlModel)} and {@link
+ * #isDiscardedModel(XmlModel, boolean)}. Skipped elements and the remaining content of discarded models are consumed
+ * without creating models or accumulating text.
+ */
 public class XmlModelParser {
 
+    /**
+     * Creates the model for an XML element.
+     */
+    public interface XmlModelFactory {
+
+        /**
+         * Returns a new model for an XML element.
+         *
+         * @return the new model, or null if the model cannot be created
+         */
+        XmlModel createXmlModel();
+    }
+
     protected XmlPullParser xpp;
 
-    protected Map<QName, Class<? extends XmlModel>> xmlModelRegistry = new HashMap<>();
+    protected Map<String, Map<String, Element>> elementRegistry = new HashMap<>();
 
-    protected Set<QName> txtModelRegistry = new HashSet<>();
+    protected XmlModelFactory unrecognizedModelFactory;
 
     protected StringBuilder characters = new StringBuilder();
 
@@ -48,66 +70,133 @@ public class XmlModelParser {
             this.xpp.next(); // skip to the start of the first element
         }
 
-        QName name = new QName(this.xpp.getNamespace(), this.xpp.getName());
-        return this.parseElement(name, null /*parent*/);
+        Element element = this.lookupElement(this.xpp.getNamespace(), this.xpp.getName());
+        return this.parseElement(element, null /*parent*/);
     }
 
     /**
-     * Registers a xpp for a specified element name. A xpp of the same type and namespace is returned when is called for
-     * the same element name.
+     * Registers a model class for a specified element name. A model of the registered type is created each time the
+     * parser encounters an element with the same namespace and name. The class must have a public no-argument
+     * constructor.
      */
     public void registerXmlModel(String namespace, String name, Class<? extends XmlModel> parsableModel) {
-        this.xmlModelRegistry.put(new QName(namespace, name), parsableModel);
+        this.registerXmlModel(namespace, name, new ConstructorFactory(parsableModel));
+    }
+
+    /**
+     * Registers a model factory for a specified element name. The factory is called each time the parser encounters an
+     * element with the same namespace and name.
+     */
+    public void registerXmlModel(String namespace, String name, XmlModelFactory factory) {
+        this.registerElement(new Element(namespace, name, factory));
     }
 
     public void registerTxtModel(String namespace, String name) {
-        this.txtModelRegistry.add(new QName(namespace, name));
+        this.registerElement(new Element(namespace, name, null));
     }
 
     public void registerAllModels(XmlModelParser registry) {
-        this.xmlModelRegistry.putAll(registry.xmlModelRegistry);
-        this.txtModelRegistry.addAll(registry.txtModelRegistry);
+        for (Map.Entry<String, Map<String, Element>> entry : registry.elementRegistry.entrySet()) {
+            for (Element element : entry.getValue().values()) {
+                if (element.registered) {
+                    this.registerElement(element);
+                }
+            }
+        }
+    }
+
+    protected void registerElement(Element element) {
+        Map<String, Element> elements = this.elementRegistry.get(element.namespace);
+        if (elements == null) {
+            elements = new HashMap<>();
+            this.elementRegistry.put(element.namespace, elements);
+        }
+
+        elements.put(element.name, element);
     }
 
     /**
-     * Returns a new xpp for a specified element name.
-     *
-     * @return the new xpp, or null if no xpp has been registered for the specified element name.
+     * Returns the table entry for a specified element name, adding an entry for unregistered elements so that
+     * subsequent occurrences of the same name share its interned name.
      */
-    protected XmlModel createXmlModel(QName name) {
-        Class<? extends XmlModel> clazz = this.xmlModelRegistry.get(name);
+    protected Element lookupElement(String namespace, String name) {
+        if (namespace == null) {
+            namespace = XmlPullParser.NO_NAMESPACE;
+        }
 
-        if (clazz == null) {
-            clazz = this.getUnrecognizedModel(); // use the unrecognized model
+        Map<String, Element> elements = this.elementRegistry.get(namespace);
+        if (elements == null) {
+            elements = new HashMap<>();
+            this.elementRegistry.put(namespace, elements);
         }
 
-        try {
-            return clazz.newInstance(); // create a new instance using the default constructor
-        } catch (Exception e) {
-            Logger.logMessage(Logger.ERROR, "XmlModelParser", "createParsableModel",
-                "Exception invoking default constructor for " + clazz.getName(), e);
-            return null;
+        Element element = elements.get(name);
+        if (element == null) {
+            if (this.unrecognizedModelFactory == null) {
+                this.unrecognizedModelFactory = new ConstructorFactory(this.getUnrecognizedModel());
+            }
+            element = new Element(namespace, name, this.unrecognizedModelFactory);
+            element.registered = false;
+            elements.put(element.name, element);
         }
+
+        return element;
     }
 
     protected Class<? extends XmlModel> getUnrecognizedModel() {
         return DefaultXmlModel.class;
     }
 
-    protected Object parseElement(QName name, XmlModel parent) throws XmlPullParserException, IOException {
-        if (this.txtModelRegistry.contains(name)) {
-            return this.parseText(name);
+    /**
+     * Indicates whether the parser skips an element without creating its model. The element's content is consumed and
+     * its parent does not receive a field for it. Called when the parser encounters the element's start tag. The
+     * default implementation returns false.
+     *
+     * @param namespace the element's namespace
+     * @param name      the element's interned local name
+     * @param parent    the model of the element's parent
+     *
+     * @return true to skip the element, otherwise false
+     */
+    protected boolean isSkippedElement(String namespace, String name, XmlModel parent) {
+        return false;
+    }
+
+    /**
+     * Indicates whether the parser discards a model. Called after each of the model's child elements has been parsed,
+     * and again after the model's end tag. When this returns true the remaining content of the model's element is
+     * consumed without being parsed, and the model's parent does not receive a field for it. The default
+     * implementation returns false.
+     *
+     * @param model    the model to test
+     * @param complete true if the model's end tag has been reached, false if the model is partially parsed
+     *
+     * @return true to discard the model, otherwise false
+     */
+    protected boolean isDiscardedModel(XmlModel model, boolean complete) {
+        return false;
+    }
+
+    protected Object parseElement(Element element, XmlModel parent) throws XmlPullParserException, IOException {
+        if (element.factory == null) {
+            return this.parseText();
         } else {
-            return this.parseXmlModel(name, parent);
+            return this.parseXmlModel(element, parent);
         }
     }
 
-    protected XmlModel parseXmlModel(QName name, XmlModel parent) throws XmlPullParserException, IOException {
+    protected XmlModel parseXmlModel(Element element, XmlModel parent) throws XmlPullParserException, IOException {
         // Create an instance of an XML model object associated with the element's namespace and tag name.
-        XmlModel model = this.createXmlModel(name);
+        XmlModel model = element.factory.createXmlModel();
+        if (model == null) {
+            this.skipContent(this.xpp.getDepth());
+            return null;
+        }
+
         model.setParent(parent);
 
         // Set up to accumulate the element's character data.
+        int depth = this.xpp.getDepth();
         StringBuilder characters = null;
 
         // Parse the element's attributes.
@@ -118,54 +207,157 @@ public class XmlModelParser {
         }
 
         // Parse the element's content until we reach either the end of the document or the end of the element.
-        while (this.xpp.next() != XmlPullParser.END_DOCUMENT) {
-            if (this.xpp.getEventType() == XmlPullParser.START_TAG) {
-                QName childName = new QName(this.xpp.getNamespace(), this.xpp.getName()); // store the child name before recursively parsing
-                Object childValue = this.parseElement(childName, model /*parent*/); // recursively assemble the child element
-                model.parseField(childName.getLocalPart(), childValue); // parse the child element
-            } else if (this.xpp.getEventType() == XmlPullParser.TEXT) {
-                String text = this.xpp.getText();
-                characters = appendText(text, characters); // accumulate the element's character data
-            } else if (this.xpp.getEventType() == XmlPullParser.END_TAG) {
-                if (this.xpp.getName().equals(name.getLocalPart())) {
-                    if (characters != null) { // null if no character data encountered
-                        model.parseText(characters.toString()); // parse the element's character data
+        int eventType;
+        while ((eventType = this.xpp.next()) != XmlPullParser.END_DOCUMENT) {
+            if (eventType == XmlPullParser.START_TAG) {
+                Element child = this.lookupElement(this.xpp.getNamespace(), this.xpp.getName());
+                if (this.isSkippedElement(child.namespace, child.name, model)) {
+                    this.skipContent(this.xpp.getDepth());
+                    continue;
+                }
+
+                Object childValue = this.parseElement(child, model /*parent*/); // recursively assemble the child element
+                if (childValue != null) {
+                    model.parseField(child.name, childValue); // parse the child element
+                    if (this.isDiscardedModel(model, false /*complete*/)) {
+                        this.skipContent(depth);
+                        return null;
                     }
-                    break; // reached the end of the element; stop parsing its content
                 }
+            } else if (eventType == XmlPullParser.TEXT) {
+                if (!this.xpp.isWhitespace()) {
+                    characters = appendText(this.xpp.getText(), characters); // accumulate the element's character data
+                }
+            } else if (eventType == XmlPullParser.END_TAG && this.xpp.getDepth() == depth) {
+                if (characters != null) { // null if no character data encountered
+                    model.parseText(characters.toString()); // parse the element's character data
+                }
+                break; // reached the end of the element; stop parsing its content
             }
         }
 
-        return model;
+        return this.isDiscardedModel(model, true /*complete*/) ? null : model;
     }
 
-    protected String parseText(QName name) throws XmlPullParserException, IOException {
+    protected String parseText() throws XmlPullParserException, IOException {
         // Set up to accumulate the element's character data.
-        this.characters.delete(0, this.characters.length());
+        this.characters.setLength(0);
+        int depth = this.xpp.getDepth();
 
         // Parse the element's content until we reach either the end of the document or the end of the element.
-        while (this.xpp.next() != XmlPullParser.END_DOCUMENT) {
-            if (this.xpp.getEventType() == XmlPullParser.TEXT) {
-                String text = this.xpp.getText();
-                appendText(text, this.characters);
-            } else if (this.xpp.getEventType() == XmlPullParser.END_TAG) {
-                if (this.xpp.getName().equals(name.getLocalPart())) {
-                    break; // reached the end of the element; stop parsing its content
+        int eventType;
+        while ((eventType = this.xpp.next()) != XmlPullParser.END_DOCUMENT) {
+            if (eventType == XmlPullParser.TEXT) {
+                if (!this.xpp.isWhitespace()) {
+                    appendText(this.xpp.getText(), this.characters);
                 }
+            } else if (eventType == XmlPullParser.END_TAG && this.xpp.getDepth() == depth) {
+                break; // reached the end of the element; stop parsing its content
             }
         }
 
         return this.characters.toString();
     }
 
+    /**
+     * Consumes events until the end tag of the element at the specified depth, or the end of the document.
+     */
+    protected void skipContent(int depth) throws XmlPullParserException, IOException {
+        int eventType = this.xpp.getEventType();
+        while (eventType != XmlPullParser.END_DOCUMENT) {
+            if (eventType == XmlPullParser.END_TAG && this.xpp.getDepth() == depth) {
+                break;
+            }
+
+            eventType = this.xpp.next();
+        }
+    }
+
     protected static StringBuilder appendText(String text, StringBuilder result) {
-        if (text != null && !text.isEmpty()) { // ignore empty text
-            text = text.replaceAll("\n", "").trim(); // suppress newlines and leading/trailing whitespace
-            if (!text.isEmpty()) { // ignore whitespace
-                return (result != null) ? result.append(text) : new StringBuilder(text);
+        if (text == null) {
+            return result;
+        }
+
+        // Suppress newlines and leading/trailing whitespace without allocating intermediate strings.
+        int start = 0, end = text.length();
+        while (start < end && (text.charAt(start) <= ' ' || text.charAt(end - 1) <= ' ')) {
+            if (text.charAt(start) <= ' ') {
+                start++;
+            } else {
+                end--;
+            }
+        }
+
+        if (start == end) {
+            return result; // ignore whitespace
+        }
+
+        if (result == null) {
+            result = new StringBuilder(end - start);
+        }
+
+        for (int idx = start; idx < end; idx++) {
+            char c = text.charAt(idx);
+            if (c != '\n') {
+                result.append(c);
             }
         }
 
         return result;
     }
+
+    /**
+     * An entry in the parser's element table.
+     */
+    protected static class Element {
+
+        public final String namespace;
+
+        public final String name;
+
+        /**
+         * The element's model factory, or null if the element is parsed as text.
+         */
+        public final XmlModelFactory factory;
+
+        protected boolean registered = true;
+
+        public Element(String namespace, String name, XmlModelFactory factory) {
+            this.namespace = (namespace != null) ? namespace.intern() : XmlPullParser.NO_NAMESPACE;
+            this.name = name.intern();
+            this.factory = factory;
+        }
+    }
+
+    /**
+     * Creates models of a registered class with a constructor resolved once, rather than looking the constructor up
+     * each time a model is created.
+     */
+    protected static class ConstructorFactory implements XmlModelFactory {
+
+        protected final Class<? extends XmlModel> modelClass;
+
+        protected Constructor<? extends XmlModel> constructor;
+
+        public ConstructorFactory(Class<? extends XmlModel> modelClass) {
+            this.modelClass = modelClass;
+            try {
+                this.constructor = modelClass.getConstructor();
+            } catch (Exception e) {
+                Logger.logMessage(Logger.ERROR, "XmlModelParser", "registerXmlModel",
+                    "Exception resolving default constructor for " + modelClass.getName(), e);
+            }
+        }
+
+        @Override
+        public XmlModel createXmlModel() {
+            try {
+                return this.constructor.newInstance(); // create a new instance using the default constructor
+            } catch (Exception e) {
+                Logger.logMessage(Logger.ERROR, "XmlModelParser", "createXmlModel",
+                    "Exception invoking default constructor for " + this.modelClass.getName(), e);
+                return null;
+            }
+        }
+    }
 }
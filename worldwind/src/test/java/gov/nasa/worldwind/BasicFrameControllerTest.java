@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.layer.RenderableLayer;
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.shape.Placemark;
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class BasicFrameControllerTest {
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+    }
+
+    @Test
+    public void testResolveAnalyticPick_UnknownNearestObject() throws Exception {
+        RenderContext rc = new RenderContext();
+        rc.pickedObjects = new PickedObjectList();
+        PickedObject pickedObject = PickedObject.fromRenderable(rc.nextPickedObjectId(),
+            new Placemark(Position.fromDegrees(0, 0, 0)), new RenderableLayer());
+        rc.offerPickedObject(pickedObject, 10);
+        rc.pickedObjects.clearPickedObjects(); // the nearest object ID no longer identifies a picked object
+
+        new BasicFrameController().resolveAnalyticPick(rc);
+
+        assertEquals("picked objects", 0, rc.pickedObjects.count());
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.draw;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import gov.nasa.worldwind.util.Logger;
+
+/**
+ * Reports the time to sort queues of 1,000, 10,000 and 100,000 drawables with DrawableQueue's radix sort, comparing it
+ * with the time to sort the same queues with the sort comparator. Excluded from the unit tests; run with
+ * <code>./gradlew :worldwind:testDebugUnitTest -Pbenchmarks --tests '*DrawableQueueBenchmark'</code>.
+ */
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class DrawableQueueBenchmark {
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+    }
+
+    @Test
+    public void benchmarkSortDrawables() throws Exception {
+        Random random = new Random(47);
+
+        for (int size : new int[]{1000, 10000, 100000}) {
+            DrawableQueue queue = new DrawableQueue();
+            DrawableQueueTest.offerRandomDrawables(queue, size, random);
+            DrawableQueue.Entry[] unsorted = Arrays.copyOf(queue.entries, size);
+            int iterations = Math.max(10, 2000000 / size);
+            long radixNanos = 0, comparatorNanos = 0;
+
+            for (int pass = 0; pass < 3; pass++) { // the first passes warm up the JIT compiler
+                long start = System.nanoTime();
+                for (int iteration = 0; iteration < iterations; iteration++) {
+                    System.arraycopy(unsorted, 0, queue.entries, 0, size);
+                    queue.sortDrawables();
+                }
+                radixNanos = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (int iteration = 0; iteration < iterations; iteration++) {
+                    System.arraycopy(unsorted, 0, queue.entries, 0, size);
+                    Arrays.sort(queue.entries, 0, size, queue.sortComparator);
+                }
+                comparatorNanos = System.nanoTime() - start;
+            }
+
+            System.out.printf("DrawableQueue: %,d drawables sorted in %.3f ms (comparator sort %.3f ms)%n",
+                size, radixNanos / 1e6 / iterations, comparatorNanos / 1e6 / iterations);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.draw;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class DrawableQueueTest {
+
+    private static final double[] SPECIAL_ORDERS = {0.0, -0.0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY,
+        Double.MIN_VALUE, -Double.MIN_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, 1, -1};
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+    }
+
+    @Test
+    public void testSortDrawables_ComparatorEquivalence() throws Exception {
+        Random random = new Random(45);
+
+        for (int size : new int[]{10, 65, 1000, 10000}) {
+            DrawableQueue queue = new DrawableQueue();
+            offerRandomDrawables(queue, size, random);
+
+            assertSortMatchesComparator("size " + size, queue);
+        }
+    }
+
+    @Test
+    public void testSortDrawables_EqualOrders() throws Exception {
+        DrawableQueue queue = new DrawableQueue();
+        Drawable[] drawables = new Drawable[1000];
+        for (int idx = 0; idx < drawables.length; idx++) {
+            drawables[idx] = new TestDrawable();
+            queue.offerDrawable(drawables[idx], idx % 2, (idx % 3 == 0) ? -0.0 : 0.0);
+        }
+
+        queue.sortDrawables();
+
+        for (int idx = 0; idx < 500; idx++) { // group 0 in ordinal order, then group 1 in ordinal order
+            assertSame("group 0 drawable " + idx, drawables[idx * 2], queue.getDrawable(idx));
+            assertSame("group 1 drawable " + idx, drawables[idx * 2 + 1], queue.getDrawable(500 + idx));
+        }
+    }
+
+    @Test
+    public void testSortDrawables_SortedTwice() throws Exception {
+        Random random = new Random(46);
+        DrawableQueue queue = new DrawableQueue();
+        offerRandomDrawables(queue, 1000, random);
+        queue.sortDrawables();
+        offerRandomDrawables(queue, 1000, random); // entries are no longer in ordinal order
+
+        assertSortMatchesComparator("sorted twice", queue);
+    }
+
+    static void offerRandomDrawables(DrawableQueue queue, int count, Random random) {
+        for (int idx = 0; idx < count; idx++) {
+            int groupId = random.nextInt(4);
+            double order;
+            switch (random.nextInt(4)) {
+                case 0: // special values
+                    order = SPECIAL_ORDERS[random.nextInt(SPECIAL_ORDERS.length)];
+                    break;
+                case 1: // few distinct values, such as surface drawable z-orders
+                    order = random.nextInt(5) - 2;
+                    break;
+                default: // camera distances, negated as shape drawables are
+                    order = -random.nextDouble() * 1e7;
+                    break;
+            }
+            queue.offerDrawable(new TestDrawable(), groupId, order);
+        }
+    }
+
+    private static void assertSortMatchesComparator(String message, DrawableQueue queue) {
+        int size = queue.count();
+        DrawableQueue.Entry[] expected = Arrays.copyOf(queue.entries, size);
+        Arrays.sort(expected, queue.sortComparator);
+
+        queue.sortDrawables();
+
+        assertEquals(message + " count", size, queue.count());
+        for (int idx = 0; idx < size; idx++) {
+            assertSame(message + " drawable " + idx, expected[idx].drawable, queue.getDrawable(idx));
+        }
+    }
+
+    private static class TestDrawable implements Drawable {
+
+        @Override
+        public void recycle() {
+        }
+
+        @Override
+        public void draw(DrawContext dc) {
+        }
+    }
+}
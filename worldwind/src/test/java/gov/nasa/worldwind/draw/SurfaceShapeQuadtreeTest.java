@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.draw;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.util.IntArray;
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class SurfaceShapeQuadtreeTest {
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+    }
+
+    @Test
+    public void testAdd() throws Exception {
+        SurfaceShapeQuadtree quadtree = new SurfaceShapeQuadtree();
+
+        assertEquals("first index", 0, quadtree.add(Sector.fromDegrees(10, 10, 1, 1)));
+        assertEquals("second index", 1, quadtree.add(Sector.fromDegrees(-80, -170, 160, 340)));
+        assertEquals("count", 2, quadtree.count());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAdd_WithNull() throws Exception {
+        new SurfaceShapeQuadtree().add(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_InvalidDepth() throws Exception {
+        new SurfaceShapeQuadtree(-1);
+    }
+
+    @Test
+    public void testQuery() throws Exception {
+        SurfaceShapeQuadtree quadtree = new SurfaceShapeQuadtree();
+        quadtree.add(Sector.fromDegrees(10, 10, 1, 1));     // small shape in the north east
+        quadtree.add(Sector.fromDegrees(-20, -20, 40, 40)); // spans the quadtree's center
+        quadtree.add(Sector.fromDegrees(-50, -120, 1, 1));  // small shape in the south west
+        quadtree.add(Sector.fromDegrees(11, 11, 1, 1));     // adjacent to the first shape
+
+        assertArrayEquals("north east tile", new int[]{0, 1, 3}, toArray(quadtree.query(Sector.fromDegrees(0, 0, 45, 45), new IntArray())));
+        assertArrayEquals("south west tile", new int[]{2}, toArray(quadtree.query(Sector.fromDegrees(-90, -180, 45, 90), new IntArray())));
+        assertArrayEquals("adjacent tile", new int[]{1, 3}, toArray(quadtree.query(Sector.fromDegrees(12, 12, 1, 1), new IntArray())));
+        assertArrayEquals("empty tile", new int[0], toArray(quadtree.query(Sector.fromDegrees(60, 100, 10, 10), new IntArray())));
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        SurfaceShapeQuadtree quadtree = new SurfaceShapeQuadtree();
+        quadtree.add(Sector.fromDegrees(10, 10, 1, 1));
+        quadtree.clear();
+
+        assertEquals("count", 0, quadtree.count());
+        assertEquals("query after clear", 0, quadtree.query(Sector.fromDegrees(10, 10, 1, 1), new IntArray()).size());
+
+        // Nodes retained from before the clear must not report shapes added afterward more than once.
+        assertEquals("index after clear", 0, quadtree.add(Sector.fromDegrees(10, 10, 1, 1)));
+        assertArrayEquals("query after add", new int[]{0}, toArray(quadtree.query(Sector.fromDegrees(10, 10, 1, 1), new IntArray())));
+    }
+
+    /**
+     * Compares the quadtree's results against testing every shape's sector, for random shapes and terrain tiles.
+     */
+    @Test
+    public void testQuery_MatchesExhaustiveSearch() throws Exception {
+        Random random = new Random(123);
+        SurfaceShapeQuadtree quadtree = new SurfaceShapeQuadtree();
+        List<Sector> sectors = new ArrayList<>();
+        for (int idx = 0; idx < 1000; idx++) {
+            Sector sector = randomSector(random, (idx % 10 == 0) ? 90 : 2);
+            sectors.add(sector);
+            quadtree.add(sector);
+        }
+
+        for (int idx = 0; idx < 200; idx++) {
+            Sector tile = randomSector(random, 10);
+            IntArray expected = new IntArray();
+            for (int shape = 0; shape < sectors.size(); shape++) {
+                if (sectors.get(shape).intersectsOrNextTo(tile)) {
+                    expected.add(shape);
+                }
+            }
+
+            assertArrayEquals("tile " + idx, toArray(expected), toArray(quadtree.query(tile, new IntArray())));
+        }
+    }
+
+    private static Sector randomSector(Random random, double maxDelta) {
+        double deltaLat = random.nextDouble() * Math.min(maxDelta, 180);
+        double deltaLon = random.nextDouble() * Math.min(maxDelta * 2, 360);
+        double minLat = -90 + random.nextDouble() * (180 - deltaLat);
+        double minLon = -180 + random.nextDouble() * (360 - deltaLon);
+        return Sector.fromDegrees(minLat, minLon, deltaLat, deltaLon);
+    }
+
+    private static int[] toArray(IntArray array) {
+        int[] result = new int[array.size()];
+        System.arraycopy(array.array(), 0, result, 0, array.size());
+        return result;
+    }
+}
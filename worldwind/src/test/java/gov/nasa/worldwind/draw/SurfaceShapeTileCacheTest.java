@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.draw;
+
+import android.opengl.GLES20;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.render.BufferObject;
+import gov.nasa.worldwind.render.Color;
+import gov.nasa.worldwind.render.RenderResourceCache;
+import gov.nasa.worldwind.render.Texture;
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class SurfaceShapeTileCacheTest {
+
+    private static final int TEXTURE_BYTES = new Texture(256, 256, GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE).getByteCount();
+
+    private DrawShapeState shapeA;
+
+    private DrawShapeState shapeB;
+
+    private DrawContext dc;
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+
+        this.shapeA = newShapeState();
+        this.shapeB = newShapeState();
+        this.dc = new DrawContext();
+        this.dc.renderResourceCache = new RenderResourceCache(256 * 1024 * 1024);
+    }
+
+    private static DrawShapeState newShapeState() {
+        DrawShapeState state = new DrawShapeState();
+        state.vertexBuffer = new BufferObject(GLES20.GL_ARRAY_BUFFER, 0, null);
+        state.elementBuffer = new BufferObject(GLES20.GL_ELEMENT_ARRAY_BUFFER, 0, null);
+        state.vertexOrigin.set(1, 2, 3);
+        state.vertexStride = 20;
+        state.color(new Color(1, 0, 0, 1));
+        state.drawElements(GLES20.GL_TRIANGLES, 30, GLES20.GL_UNSIGNED_SHORT, 0);
+        return state;
+    }
+
+    @Test
+    public void testConstructor() throws Exception {
+        SurfaceShapeTileCache cache = new SurfaceShapeTileCache(8 * TEXTURE_BYTES, 256);
+
+        assertEquals("capacity", 8 * TEXTURE_BYTES, cache.getCapacity());
+        assertEquals("texture size", 256, cache.getTextureSize());
+        assertEquals("entry count", 0, cache.getEntryCount());
+        assertEquals("used capacity", 0, cache.getUsedCapacity());
+    }
+
+    @Test
+    public void testConstructor_Default() throws Exception {
+        SurfaceShapeTileCache cache = new SurfaceShapeTileCache();
+
+        assertEquals("texture size", 256, cache.getTextureSize());
+        assertEquals("capacity", 128 * TEXTURE_BYTES, cache.getCapacity());
+    }
+
+    @Test
+    public void testEntryFor_UsedCapacity() throws Exception {
+        SurfaceShapeTileCache cache = new SurfaceShapeTileCache(2 * TEXTURE_BYTES + TEXTURE_BYTES / 2, 256);
+        cache.entryFor(this.dc, Sector.fromDegrees(0, 0, 1, 1), 0);
+        cache.entryFor(this.dc, Sector.fromDegrees(0, 1, 1, 1), 0);
+
+        assertEquals("used capacity", 2 * TEXTURE_BYTES, cache.getUsedCapacity());
+        assertNull("capacity exceeded", cache.entryFor(this.dc, Sector.fromDegrees(0, 2, 1, 1), 0));
+        assertEquals("entry count", 2, cache.getEntryCount());
+
+        cache.contextLost();
+        assertEquals("used capacity after context lost", 0, cache.getUsedCapacity());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_InvalidCapacity() throws Exception {
+        new SurfaceShapeTileCache(0, 256);
+    }
+
+    @Test
+    public void testEntryFor_SameTile() throws Exception {
+        SurfaceShapeTileCache cache = new SurfaceShapeTileCache(8 * TEXTURE_BYTES, 256);
+        SurfaceShapeTileCache.Entry entry = cache.entryFor(this.dc, Sector.fromDegrees(0, 0, 1, 1), 0);
+        cache.endFrame();
+
+        assertSame("same tile and batch", entry, cache.entryFor(this.dc, Sector.fromDegrees(0, 0, 1, 1), 0));
+        assertNotSame("different batch", entry, cache.entryFor(this.dc, Sector.fromDegrees(0, 0, 1, 1), 1));
+        assertNotSame("different tile", entry, cache.entryFor(this.dc, Sector.fromDegrees(0, 1, 1, 1), 0));
+        assertEquals("entry count", 3, cache.getEntryCount());
+    }
+
+    @Test
+    public void testMustRasterize_UnchangedInputs() throws Exception {
+        SurfaceShapeTileCache.Entry entry = new SurfaceShapeTileCache(8 * TEXTURE_BYTES, 256).entryFor(this.dc, Sector.fromDegrees(0, 0, 1, 1), 0);
+        SurfaceShapeTileCache.TileInputs inputs = new SurfaceShapeTileCache.TileInputs().add(this.shapeA).add(this.shapeB);
+
+        assertTrue("never rasterized", entry.mustRasterize(inputs));
+        entry.inputs.set(inputs);
+
+        SurfaceShapeTileCache.TileInputs nextFrame = new SurfaceShapeTileCache.TileInputs().add(this.shapeA).add(this.shapeB);
+        assertFalse("unchanged inputs", entry.mustRasterize(nextFrame));
+    }
+
+    @Test
+    public void testMustRasterize_ChangedInputs() throws Exception {
+        SurfaceShapeTileCache.Entry entry = new SurfaceShapeTileCache(8 * TEXTURE_BYTES, 256).entryFor(this.dc, Sector.fromDegrees(0, 0, 1, 1), 0);
+        entry.inputs.set(new SurfaceShapeTileCache.TileInputs().add(this.shapeA).add(this.shapeB));
+
+        // Shapes added, removed and reordered.
+        assertTrue("shape removed", entry.mustRasterize(new SurfaceShapeTileCache.TileInputs().add(this.shapeA)));
+        assertTrue("shapes reordered", entry.mustRasterize(new SurfaceShapeTileCache.TileInputs().add(this.shapeB).add(this.shapeA)));
+
+        // Shape geometry replaced.
+        this.shapeB.vertexBuffer = new BufferObject(GLES20.GL_ARRAY_BUFFER, 0, null);
+        assertTrue("buffer replaced", entry.mustRasterize(new SurfaceShapeTileCache.TileInputs().add(this.shapeA).add(this.shapeB)));
+
+        // Shape attributes modified.
+        this.shapeB = newShapeState();
+        entry.inputs.set(new SurfaceShapeTileCache.TileInputs().add(this.shapeA).add(this.shapeB));
+        this.shapeB.prims[0].color.set(0, 1, 0, 1);
+        assertTrue("color changed", entry.mustRasterize(new SurfaceShapeTileCache.TileInputs().add(this.shapeA).add(this.shapeB)));
+    }
+
+    @Test
+    public void testMustRasterize_HashCollision() throws Exception {
+        SurfaceShapeTileCache.Entry entry = new SurfaceShapeTileCache(8 * TEXTURE_BYTES, 256).entryFor(this.dc, Sector.fromDegrees(0, 0, 1, 1), 0);
+        entry.inputs.set(new SurfaceShapeTileCache.TileInputs().add(this.shapeA));
+
+        // Inputs whose drawing state hashes collide are still compared exactly.
+        this.shapeA.prims[0].lineWidth = 2;
+        SurfaceShapeTileCache.TileInputs inputs = new SurfaceShapeTileCache.TileInputs().add(this.shapeA);
+        inputs.hashes[0] = entry.inputs.hashes[0];
+        assertTrue("line width changed", entry.mustRasterize(inputs));
+    }
+
+    @Test
+    public void testEntryFor_ReusesLeastRecentlyUsed() throws Exception {
+        SurfaceShapeTileCache cache = new SurfaceShapeTileCache(2 * TEXTURE_BYTES, 256);
+        SurfaceShapeTileCache.Entry first = cache.entryFor(this.dc, Sector.fromDegrees(0, 0, 1, 1), 0);
+        first.inputs.add(this.shapeA);
+        cache.endFrame();
+        SurfaceShapeTileCache.Entry second = cache.entryFor(this.dc, Sector.fromDegrees(0, 1, 1, 1), 0);
+        cache.endFrame();
+
+        // The cache is full; the first entry is the least recently used and is reassigned along with its texture.
+        SurfaceShapeTileCache.Entry third = cache.entryFor(this.dc, Sector.fromDegrees(0, 2, 1, 1), 0);
+        assertSame("reassigned entry", first, third);
+        assertTrue("reassigned entry inputs cleared", third.inputs.isEmpty());
+        assertNotNull("texture retained", third.texture);
+        assertEquals("entry count", 2, cache.getEntryCount());
+        assertSame("retained entry", second, cache.entryFor(this.dc, Sector.fromDegrees(0, 1, 1, 1), 0));
+    }
+
+    @Test
+    public void testEntryFor_FullWithinFrame() throws Exception {
+        SurfaceShapeTileCache cache = new SurfaceShapeTileCache(2 * TEXTURE_BYTES, 256);
+        cache.entryFor(this.dc, Sector.fromDegrees(0, 0, 1, 1), 0);
+        cache.entryFor(this.dc, Sector.fromDegrees(0, 1, 1, 1), 0);
+
+        assertNull("every entry used this frame", cache.entryFor(this.dc, Sector.fromDegrees(0, 2, 1, 1), 0));
+
+        cache.endFrame();
+        assertNotNull("entries available next frame", cache.entryFor(this.dc, Sector.fromDegrees(0, 2, 1, 1), 0));
+    }
+
+    @Test
+    public void testEntryFor_NoResourceCache() throws Exception {
+        SurfaceShapeTileCache cache = new SurfaceShapeTileCache(8 * TEXTURE_BYTES, 256);
+        this.dc.renderResourceCache = null;
+
+        assertNull("no resource cache", cache.entryFor(this.dc, Sector.fromDegrees(0, 0, 1, 1), 0));
+        assertEquals("entry count", 0, cache.getEntryCount());
+    }
+
+    @Test
+    public void testEntryFor_TextureInResourceCache() throws Exception {
+        SurfaceShapeTileCache cache = new SurfaceShapeTileCache(8 * TEXTURE_BYTES, 256);
+        SurfaceShapeTileCache.Entry entry = cache.entryFor(this.dc, Sector.fromDegrees(0, 0, 1, 1), 0);
+
+        assertNotNull("texture", entry.texture);
+        assertSame("texture in resource cache", entry.texture, this.dc.renderResourceCache.get(entry));
+        assertEquals("resource cache used capacity", TEXTURE_BYTES, this.dc.renderResourceCache.getUsedCapacity());
+    }
+
+    @Test
+    public void testEntryFor_TextureEvicted() throws Exception {
+        SurfaceShapeTileCache cache = new SurfaceShapeTileCache(8 * TEXTURE_BYTES, 256);
+        SurfaceShapeTileCache.Entry entry = cache.entryFor(this.dc, Sector.fromDegrees(0, 0, 1, 1), 0);
+        Texture texture = entry.texture;
+        entry.inputs.add(this.shapeA);
+        cache.endFrame();
+
+        // The render resource cache is cleared when the OpenGL context is lost.
+        this.dc.renderResourceCache.clear();
+
+        assertSame("same entry", entry, cache.entryFor(this.dc, Sector.fromDegrees(0, 0, 1, 1), 0));
+        assertNotSame("new texture", texture, entry.texture);
+        assertSame("new texture in resource cache", entry.texture, this.dc.renderResourceCache.get(entry));
+        assertTrue("inputs cleared", entry.inputs.isEmpty());
+    }
+
+    @Test
+    public void testEntryFor_SteadyStateHitRate() throws Exception {
+        // A typical frame draws about 100 terrain tiles. Simulate a view panning across a 10x10 grid of tiles by one
+        // column per frame, drawing one batch of surface shapes on every tile.
+        SurfaceShapeTileCache cache = new SurfaceShapeTileCache();
+        SurfaceShapeTileCache.TileInputs inputs = new SurfaceShapeTileCache.TileInputs().add(this.shapeA);
+        int rows = 10, columns = 10, frames = 20;
+
+        for (int frame = 0; frame < frames; frame++) {
+            int batch = cache.nextBatch();
+            for (int row = 0; row < rows; row++) {
+                for (int col = frame; col < frame + columns; col++) {
+                    SurfaceShapeTileCache.Entry entry = cache.entryFor(this.dc, Sector.fromDegrees(row, col, 1, 1), batch);
+                    assertNotNull("entry", entry);
+                    if (entry.mustRasterize(inputs)) {
+                        entry.inputs.set(inputs);
+                        cache.markRasterized();
+                    } else {
+                        cache.markReused();
+                    }
+                }
+            }
+
+            if (frame == 0) {
+                assertEquals("first frame rasterizations", rows * columns, cache.getRasterizationCount());
+            } else { // only the newly visible column is rasterized
+                assertEquals("rasterizations in frame " + frame, rows, cache.getRasterizationCount());
+                assertEquals("reuses in frame " + frame, rows * (columns - 1), cache.getReuseCount());
+            }
+
+            assertTrue("entry count", cache.getEntryCount() <= 128);
+            cache.endFrame();
+        }
+    }
+
+    @Test
+    public void testEndFrame() throws Exception {
+        SurfaceShapeTileCache cache = new SurfaceShapeTileCache(2 * TEXTURE_BYTES, 256);
+        assertEquals("first batch", 0, cache.nextBatch());
+        assertEquals("second batch", 1, cache.nextBatch());
+        cache.markRasterized();
+        cache.markRasterized();
+        cache.markReused();
+
+        assertEquals("rasterization count", 2, cache.getRasterizationCount());
+        assertEquals("reuse count", 1, cache.getReuseCount());
+
+        cache.endFrame();
+        assertEquals("rasterization count after frame", 0, cache.getRasterizationCount());
+        assertEquals("reuse count after frame", 0, cache.getReuseCount());
+        assertEquals("batch after frame", 0, cache.nextBatch());
+    }
+
+    @Test
+    public void testContextLost() throws Exception {
+        SurfaceShapeTileCache cache = new SurfaceShapeTileCache(2 * TEXTURE_BYTES, 256);
+        cache.entryFor(this.dc, Sector.fromDegrees(0, 0, 1, 1), 0);
+        cache.contextLost();
+
+        assertEquals("entry count", 0, cache.getEntryCount());
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.draw;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class UploadSchedulerTest {
+
+    private static final int TILE_BYTES = 349524; // 256x256 RGBA texture with mipmaps
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+    }
+
+    @Test
+    public void testRequestUpload_ByteBudget() throws Exception {
+        UploadScheduler scheduler = new UploadScheduler();
+        scheduler.setPolicy(new BasicUploadPolicy(1000, Long.MAX_VALUE));
+
+        assertTrue("first upload", scheduler.requestUpload(600));
+        scheduler.uploadCompleted(600, 0);
+        assertTrue("within budget", scheduler.requestUpload(400));
+        scheduler.uploadCompleted(400, 0);
+        assertFalse("exceeds budget", scheduler.requestUpload(1));
+
+        assertEquals("upload count", 2, scheduler.getUploadCount());
+        assertEquals("upload bytes", 1000, scheduler.getUploadByteCount());
+        assertEquals("deferred count", 1, scheduler.getDeferredCount());
+        assertEquals("deferred bytes", 1, scheduler.getDeferredByteCount());
+    }
+
+    @Test
+    public void testRequestUpload_TimeBudget() throws Exception {
+        UploadScheduler scheduler = new UploadScheduler();
+        scheduler.setPolicy(new BasicUploadPolicy(Long.MAX_VALUE, 1000));
+
+        assertTrue("first upload", scheduler.requestUpload(10));
+        scheduler.uploadCompleted(10, 999);
+        assertTrue("within budget", scheduler.requestUpload(10));
+        scheduler.uploadCompleted(10, 1);
+        assertFalse("exceeds budget", scheduler.requestUpload(10));
+        assertEquals("upload time", 1000, scheduler.getUploadNanos());
+    }
+
+    @Test
+    public void testRequestUpload_FirstUploadExceedsBudget() throws Exception {
+        UploadScheduler scheduler = new UploadScheduler();
+        scheduler.setPolicy(new BasicUploadPolicy(1000, 1000));
+
+        assertTrue("first upload", scheduler.requestUpload(5000));
+        scheduler.uploadCompleted(5000, 5000);
+        assertFalse("second upload", scheduler.requestUpload(1));
+    }
+
+    @Test
+    public void testRequestUpload_DrawableOrder() throws Exception {
+        UploadScheduler scheduler = new UploadScheduler();
+        scheduler.setPolicy(new BasicUploadPolicy(1000, Long.MAX_VALUE));
+
+        assertTrue("first upload", scheduler.requestUpload(800));
+        scheduler.uploadCompleted(800, 0);
+        assertFalse("exceeds budget", scheduler.requestUpload(800));
+        assertFalse("later upload within budget", scheduler.requestUpload(100)); // must not take the earlier upload's turn
+        assertTrue("deferred uploads", scheduler.hasDeferredUploads());
+    }
+
+    @Test
+    public void testRequestUpload_NonDeferrableUploads() throws Exception {
+        UploadScheduler scheduler = new UploadScheduler();
+        scheduler.setPolicy(new BasicUploadPolicy(1000, Long.MAX_VALUE));
+
+        scheduler.uploadCompleted(900, 0); // buffer data is loaded without a request
+        assertFalse("exceeds budget", scheduler.requestUpload(200));
+    }
+
+    @Test
+    public void testEndFrame() throws Exception {
+        UploadScheduler scheduler = new UploadScheduler();
+        scheduler.setPolicy(new BasicUploadPolicy(1000, Long.MAX_VALUE));
+        scheduler.requestUpload(1000);
+        scheduler.uploadCompleted(1000, 10);
+        scheduler.requestUpload(1000);
+
+        scheduler.endFrame();
+
+        assertEquals("upload count", 0, scheduler.getUploadCount());
+        assertEquals("upload bytes", 0, scheduler.getUploadByteCount());
+        assertEquals("upload time", 0, scheduler.getUploadNanos());
+        assertFalse("deferred uploads", scheduler.hasDeferredUploads());
+        assertTrue("upload after frame", scheduler.requestUpload(1000));
+    }
+
+    @Test
+    public void testSetPolicy() throws Exception {
+        final List<String> calls = new ArrayList<>();
+        UploadScheduler scheduler = new UploadScheduler();
+        scheduler.setPolicy(new UploadPolicy() {
+            @Override
+            public boolean allowUpload(int byteCount, int frameUploadCount, long frameByteCount, long frameNanos) {
+                calls.add(byteCount + "," + frameUploadCount + "," + frameByteCount + "," + frameNanos);
+                return frameUploadCount < 2;
+            }
+        });
+
+        scheduler.requestUpload(10);
+        scheduler.uploadCompleted(10, 100);
+        scheduler.requestUpload(20);
+        scheduler.uploadCompleted(20, 200);
+        scheduler.requestUpload(30);
+
+        assertEquals("policy calls", 3, calls.size());
+        assertEquals("first call", "10,0,0,0", calls.get(0));
+        assertEquals("second call", "20,1,10,100", calls.get(1));
+        assertEquals("third call", "30,2,30,300", calls.get(2));
+        assertEquals("deferred count", 1, scheduler.getDeferredCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetPolicy_Null() throws Exception {
+        new UploadScheduler().setPolicy(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBasicUploadPolicy_NegativeBudget() throws Exception {
+        new BasicUploadPolicy(-1, 0);
+    }
+
+    /**
+     * Simulates 60 imagery tiles arriving during the same frame, each drawn with its ancestor's texture until its own
+     * texture is uploaded. Verifies that each frame's upload stays within the default budget and that tiles are
+     * uploaded in drawable order.
+     */
+    @Test
+    public void testRequestUpload_TileBurst() throws Exception {
+        UploadScheduler scheduler = new UploadScheduler();
+        BasicUploadPolicy policy = (BasicUploadPolicy) scheduler.getPolicy();
+        boolean[] uploaded = new boolean[60];
+        int uploadedCount = 0, frameCount = 0, lastUploaded = -1;
+
+        while (uploadedCount < uploaded.length) {
+            for (int idx = 0; idx < uploaded.length; idx++) { // request uploads in drawable order
+                if (!uploaded[idx] && scheduler.requestUpload(TILE_BYTES)) {
+                    scheduler.uploadCompleted(TILE_BYTES, 500000); // 0.5 milliseconds per tile
+                    uploaded[idx] = true;
+                    uploadedCount++;
+                    assertEquals("drawable order", lastUploaded + 1, idx);
+                    lastUploaded = idx;
+                }
+            }
+
+            assertTrue("frame upload count", scheduler.getUploadCount() > 0);
+            assertTrue("frame upload bytes", scheduler.getUploadByteCount() <= policy.getMaxFrameBytes());
+            scheduler.endFrame();
+            frameCount++;
+        }
+
+        assertTrue("uploads spread across frames", frameCount > 1);
+    }
+}
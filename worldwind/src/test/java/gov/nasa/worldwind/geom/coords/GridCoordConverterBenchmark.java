@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.geom.coords;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.Random;
+
+import gov.nasa.worldwind.util.Logger;
+
+/**
+ * Reports the number of conversions per second for GridCoordConverter's bulk conversions and for the per-point UTMCoord
+ * and MGRSCoord conversions they replace. Excluded from the unit tests; run with
+ * <code>./gradlew :worldwind:testDebugUnitTest -Pbenchmarks --tests '*GridCoordConverterBenchmark'</code>.
+ */
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class GridCoordConverterBenchmark {
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+    }
+
+    @Test
+    public void benchmarkConversions() throws Exception {
+        int count = 20000;
+        int iterations = 10;
+        double[] locations = GridCoordConverterTest.randomLocations(new Random(5), count, -80, 84);
+        int[] zones = new int[count];
+        Hemisphere[] hemispheres = new Hemisphere[count];
+        double[] eastNorth = new double[count * 2];
+        char[] chars = new char[count * GridCoordConverter.getMGRSLength(5)];
+        double checksum = 0;
+        long bulkUTMNanos = 0, pointUTMNanos = 0, bulkMGRSNanos = 0, pointMGRSNanos = 0;
+
+        for (int pass = 0; pass < 2; pass++) { // the first pass warms up the JIT compiler
+            long start = System.nanoTime();
+            for (int iter = 0; iter < iterations; iter++) {
+                GridCoordConverter.toUTM(locations, count, zones, hemispheres, eastNorth);
+            }
+            long bulkUTM = System.nanoTime();
+            for (int iter = 0; iter < iterations; iter++) {
+                for (int idx = 0; idx < count; idx++) {
+                    checksum += UTMCoord.fromLatLon(locations[idx * 2], locations[idx * 2 + 1]).getEasting();
+                }
+            }
+            long pointUTM = System.nanoTime();
+            for (int iter = 0; iter < iterations; iter++) {
+                for (int idx = 0, offset = 0; idx < count; idx++) {
+                    offset += GridCoordConverter.toMGRS(locations[idx * 2], locations[idx * 2 + 1], 5, chars, offset);
+                }
+            }
+            long bulkMGRS = System.nanoTime();
+            for (int iter = 0; iter < iterations; iter++) {
+                for (int idx = 0; idx < count; idx++) {
+                    checksum += MGRSCoord.fromLatLon(locations[idx * 2], locations[idx * 2 + 1]).toString().length();
+                }
+            }
+            long pointMGRS = System.nanoTime();
+
+            bulkUTMNanos = bulkUTM - start;
+            pointUTMNanos = pointUTM - bulkUTM;
+            bulkMGRSNanos = bulkMGRS - pointUTM;
+            pointMGRSNanos = pointMGRS - bulkMGRS;
+        }
+
+        double total = (double) count * iterations;
+        System.out.printf("GridCoordConverter: UTM %,.0f per second (UTMCoord %,.0f), MGRS %,.0f per second (MGRSCoord %,.0f), checksum %.0f%n",
+            total / (bulkUTMNanos / 1.0e9), total / (pointUTMNanos / 1.0e9),
+            total / (bulkMGRSNanos / 1.0e9), total / (pointMGRSNanos / 1.0e9), checksum);
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.geom.coords;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.Random;
+
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class GridCoordConverterTest {
+
+    private static final double METER_TOLERANCE = 1.0e-6;
+
+    private static final double DEGREE_TOLERANCE = 1.0e-9;
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testToUTM_InsufficientResult() throws Exception {
+        GridCoordConverter.toUTM(new double[4], 2, new int[2], new Hemisphere[2], new double[3]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testToMGRS_InvalidPrecision() throws Exception {
+        GridCoordConverter.toMGRS(0, 0, 6, new char[32], 0);
+    }
+
+    @Test
+    public void testToUTM_Parity() throws Exception {
+        int count = 5000;
+        double[] locations = randomLocations(new Random(1), count, -80, 84);
+        int[] zones = new int[count];
+        Hemisphere[] hemispheres = new Hemisphere[count];
+        double[] eastNorth = new double[count * 2];
+
+        int converted = GridCoordConverter.toUTM(locations, count, zones, hemispheres, eastNorth);
+
+        assertEquals("converted", count, converted);
+        for (int idx = 0; idx < count; idx++) {
+            UTMCoord expected = UTMCoord.fromLatLon(locations[idx * 2], locations[idx * 2 + 1]);
+            assertEquals("zone " + idx, expected.getZone(), zones[idx]);
+            assertEquals("hemisphere " + idx, expected.getHemisphere(), hemispheres[idx]);
+            assertEquals("easting " + idx, expected.getEasting(), eastNorth[idx * 2], METER_TOLERANCE);
+            assertEquals("northing " + idx, expected.getNorthing(), eastNorth[idx * 2 + 1], METER_TOLERANCE);
+        }
+    }
+
+    @Test
+    public void testToUTM_SpecialZones() throws Exception {
+        double[] locations = {
+            60, 5,    // southwest Norway, zone 32
+            78, 15,   // Svalbard, zone 33
+            78, 30,   // Svalbard, zone 35
+            88, 0};   // outside the UTM latitude range
+        int[] zones = new int[4];
+        Hemisphere[] hemispheres = new Hemisphere[4];
+        double[] eastNorth = new double[8];
+
+        int converted = GridCoordConverter.toUTM(locations, 4, zones, hemispheres, eastNorth);
+
+        assertEquals("converted", 3, converted);
+        assertEquals("Norway", 32, zones[0]);
+        assertEquals("Svalbard", 33, zones[1]);
+        assertEquals("Svalbard", 35, zones[2]);
+        assertEquals("unconverted zone", 0, zones[3]);
+        assertNull("unconverted hemisphere", hemispheres[3]);
+        assertTrue("unconverted easting", Double.isNaN(eastNorth[6]));
+    }
+
+    @Test
+    public void testFromUTM_Parity() throws Exception {
+        Random random = new Random(2);
+        int count = 5000;
+        int[] zones = new int[count];
+        Hemisphere[] hemispheres = new Hemisphere[count];
+        double[] eastNorth = new double[count * 2];
+        for (int idx = 0; idx < count; idx++) {
+            zones[idx] = 1 + random.nextInt(60);
+            hemispheres[idx] = random.nextBoolean() ? Hemisphere.N : Hemisphere.S;
+            eastNorth[idx * 2] = 200000 + random.nextDouble() * 600000;
+            eastNorth[idx * 2 + 1] = hemispheres[idx] == Hemisphere.N ?
+                random.nextDouble() * 9000000 : 1200000 + random.nextDouble() * 8800000;
+        }
+        double[] locations = new double[count * 2];
+
+        int converted = GridCoordConverter.fromUTM(zones, hemispheres, eastNorth, count, locations);
+
+        int expectedConverted = 0;
+        for (int idx = 0; idx < count; idx++) {
+            UTMCoord expected;
+            try {
+                expected = UTMCoord.fromUTM(zones[idx], hemispheres[idx], eastNorth[idx * 2], eastNorth[idx * 2 + 1]);
+                expectedConverted++;
+            } catch (IllegalArgumentException e) {
+                assertTrue("unconverted " + idx, Double.isNaN(locations[idx * 2]));
+                continue;
+            }
+
+            assertEquals("latitude " + idx, expected.getLatitude(), locations[idx * 2], DEGREE_TOLERANCE);
+            assertEquals("longitude " + idx, expected.getLongitude(), locations[idx * 2 + 1], DEGREE_TOLERANCE);
+        }
+
+        assertEquals("converted", expectedConverted, converted);
+    }
+
+    @Test
+    public void testUPS_Parity() throws Exception {
+        int count = 2000;
+        double[] locations = randomLocations(new Random(3), count, 84, 90);
+        for (int idx = 0; idx < count; idx += 2) {
+            locations[idx * 2] = -locations[idx * 2] + 4; // every other location in the southern polar region
+        }
+        Hemisphere[] hemispheres = new Hemisphere[count];
+        double[] eastNorth = new double[count * 2];
+        double[] inverse = new double[count * 2];
+
+        assertEquals("converted", count, GridCoordConverter.toUPS(locations, count, hemispheres, eastNorth));
+        assertEquals("inverted", count, GridCoordConverter.fromUPS(hemispheres, eastNorth, count, inverse));
+
+        for (int idx = 0; idx < count; idx++) {
+            UPSCoord expected = UPSCoord.fromLatLon(locations[idx * 2], locations[idx * 2 + 1]);
+            assertEquals("hemisphere " + idx, expected.getHemisphere(), hemispheres[idx]);
+            assertEquals("easting " + idx, expected.getEasting(), eastNorth[idx * 2], METER_TOLERANCE);
+            assertEquals("northing " + idx, expected.getNorthing(), eastNorth[idx * 2 + 1], METER_TOLERANCE);
+
+            UPSCoord expectedInverse = UPSCoord.fromUPS(hemispheres[idx], eastNorth[idx * 2], eastNorth[idx * 2 + 1]);
+            assertEquals("latitude " + idx, expectedInverse.getLatitude(), inverse[idx * 2], DEGREE_TOLERANCE);
+            assertEquals("longitude " + idx, expectedInverse.getLongitude(), inverse[idx * 2 + 1], DEGREE_TOLERANCE);
+        }
+    }
+
+    @Test
+    public void testToMGRS_Parity() throws Exception {
+        Random random = new Random(4);
+        char[] chars = new char[GridCoordConverter.getMGRSLength(5)];
+        StringBuilder builder = new StringBuilder();
+
+        for (int idx = 0; idx < 5000; idx++) {
+            double latitude = -90 + random.nextDouble() * 180;
+            double longitude = -180 + random.nextDouble() * 360;
+            int precision = 1 + idx % 5;
+            String expected = MGRSCoord.fromLatLon(latitude, longitude, precision).toString();
+
+            int length = GridCoordConverter.toMGRS(latitude, longitude, precision, chars, 0);
+            builder.setLength(0);
+            assertTrue(GridCoordConverter.appendMGRS(latitude, longitude, precision, builder));
+
+            assertEquals("length " + idx, GridCoordConverter.getMGRSLength(precision), length);
+            assertEquals("char array " + idx, expected, new String(chars, 0, length));
+            assertEquals("string builder " + idx, expected, builder.toString());
+        }
+    }
+
+    @Test
+    public void testToMGRS_Poles() throws Exception {
+        StringBuilder builder = new StringBuilder();
+
+        assertTrue(GridCoordConverter.appendMGRS(90, 177, 5, builder));
+        assertEquals("north pole", "  ZAH 00000 00000", builder.toString());
+        assertFalse("invalid latitude", GridCoordConverter.appendMGRS(91, 0, 5, builder));
+        assertEquals("unmodified", "  ZAH 00000 00000", builder.toString());
+    }
+
+    static double[] randomLocations(Random random, int count, double minLatitude, double maxLatitude) {
+        double[] locations = new double[count * 2];
+        for (int idx = 0; idx < count; idx++) {
+            locations[idx * 2] = minLatitude + random.nextDouble() * (maxLatitude - minLatitude);
+            locations[idx * 2 + 1] = -180 + random.nextDouble() * 360;
+        }
+
+        return locations;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.globe;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import gov.nasa.worldwind.util.Logger;
+
+/**
+ * Reports the memory allocated per elevation tile decoded from a stream, comparing samples decoded directly into their
+ * destination array with samples buffered, decoded into a view and then copied into their destination array. Excluded
+ * from the unit tests; run with
+ * <code>./gradlew :worldwind:testDebugUnitTest -Pbenchmarks --tests '*ElevationRetrieverBenchmark'</code>.
+ */
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class ElevationRetrieverBenchmark {
+
+    private static final int TILE_SIZE = 256;
+
+    private ElevationRetriever retriever;
+
+    private byte[] bil16Data;
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+
+        this.retriever = new ElevationRetriever(1);
+        Random random = new Random(43);
+        ByteBuffer buffer = ByteBuffer.allocate(TILE_SIZE * TILE_SIZE * 2).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            buffer.putShort((short) random.nextInt());
+        }
+        this.bil16Data = buffer.array();
+    }
+
+    @Test
+    public void benchmarkReadInt16Data() throws Exception {
+        int tileCount = 200;
+        long directBytes = 0, copiedBytes = 0;
+
+        for (int pass = 0; pass < 3; pass++) { // the first passes warm up the JIT compiler
+            long start = allocatedBytes();
+            for (int tile = 0; tile < tileCount; tile++) {
+                this.retriever.readInt16Data(new ByteArrayInputStream(this.bil16Data), this.bil16Data.length);
+            }
+            directBytes = allocatedBytes() - start;
+
+            start = allocatedBytes();
+            for (int tile = 0; tile < tileCount; tile++) {
+                readInt16DataWithCopies(new ByteArrayInputStream(this.bil16Data));
+            }
+            copiedBytes = allocatedBytes() - start;
+        }
+
+        if (directBytes > 0) {
+            System.out.printf("ElevationRetriever: %,d bytes allocated per tile (buffered with copies %,d)%n",
+                directBytes / tileCount, copiedBytes / tileCount);
+        } else {
+            System.out.println("ElevationRetriever: allocation counting is not supported by this JVM");
+        }
+    }
+
+    /**
+     * Decodes samples the way elevation tiles were decoded before samples were decoded into their destination: the
+     * stream is read through a page into a new buffer, then copied from a view of that buffer.
+     */
+    private static short[] readInt16DataWithCopies(InputStream stream) throws IOException {
+        byte[] page = new byte[ElevationRetriever.PAGE_SIZE];
+        ByteBuffer buffer = ByteBuffer.allocate(ElevationRetriever.BUFFER_SIZE);
+        int readCount;
+        while ((readCount = stream.read(page, 0, page.length)) != -1) {
+            buffer.put(page, 0, readCount);
+        }
+        buffer.flip();
+
+        java.nio.ShortBuffer value = buffer.order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+        short[] result = new short[value.remaining()];
+        value.get(result);
+        return result;
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        } else {
+            return 0; // allocation counting is not supported by this JVM
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.globe;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import gov.nasa.worldwind.formats.tiff.Subfile;
+import gov.nasa.worldwind.formats.tiff.Tiff;
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class ElevationRetrieverTest {
+
+    private static final int TILE_SIZE = 256;
+
+    private ElevationRetriever retriever;
+
+    private short[] samples;
+
+    private byte[] bil16Data;
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+
+        this.retriever = new ElevationRetriever(1);
+        this.samples = new short[TILE_SIZE * TILE_SIZE];
+        Random random = new Random(43);
+        for (int idx = 0; idx < this.samples.length; idx++) {
+            this.samples[idx] = (short) random.nextInt();
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(this.samples.length * 2).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asShortBuffer().put(this.samples);
+        this.bil16Data = buffer.array();
+    }
+
+    @Test
+    public void testReadInt16Data() throws Exception {
+        short[] result = this.retriever.readInt16Data(new ByteArrayInputStream(this.bil16Data), this.bil16Data.length);
+
+        assertArrayEquals("samples", this.samples, result);
+        assertEquals("retrieved bytes", this.bil16Data.length, this.retriever.getRetrievedByteCount());
+        assertEquals("decoded bytes", this.bil16Data.length, this.retriever.getDecodedByteCount());
+        assertEquals("buffer bytes", ElevationRetriever.PAGE_SIZE, this.retriever.getBufferByteCount());
+    }
+
+    @Test
+    public void testReadInt16Data_SamplesSplitAcrossReads() throws Exception {
+        InputStream stream = new TrickleInputStream(this.bil16Data, 7);
+
+        short[] result = this.retriever.readInt16Data(stream, this.bil16Data.length);
+
+        assertArrayEquals("samples", this.samples, result);
+    }
+
+    @Test
+    public void testReadInt16Data_UnknownLength() throws Exception {
+        short[] result = this.retriever.readInt16Data(new ByteArrayInputStream(this.bil16Data), -1);
+
+        assertArrayEquals("samples", this.samples, result);
+        assertNotNull("buffer released", this.retriever.bufferPool.acquire());
+    }
+
+    @Test
+    public void testReadInt16Data_IncorrectLength() throws Exception {
+        short[] shorter = this.retriever.readInt16Data(new ByteArrayInputStream(this.bil16Data), this.bil16Data.length / 3);
+        short[] longer = this.retriever.readInt16Data(new ByteArrayInputStream(this.bil16Data), this.bil16Data.length * 3);
+
+        assertArrayEquals("content length less than stream length", this.samples, shorter);
+        assertArrayEquals("content length greater than stream length", this.samples, longer);
+    }
+
+    @Test
+    public void testReadTiffData() throws Exception {
+        byte[] tiffData = readResource("test_gov_nasa_worldwind_geotiff.tif");
+        Subfile subfile = new Tiff(ByteBuffer.wrap(tiffData)).getSubfiles().get(0);
+        ByteBuffer expected = subfile.getData(ByteBuffer.allocate(subfile.getDataSize()));
+        expected.flip();
+        short[] expectedSamples = new short[expected.remaining() / 2];
+        expected.asShortBuffer().get(expectedSamples);
+
+        short[] result = this.retriever.readTiffData(new TrickleInputStream(tiffData, 4099), tiffData.length);
+
+        assertArrayEquals("samples", expectedSamples, result);
+        assertEquals("buffer bytes", tiffData.length + 1, this.retriever.getBufferByteCount()); // sized by content length
+    }
+
+    @Test
+    public void testReadTiffData_ReleasesBufferOnException() throws Exception {
+        try {
+            this.retriever.readTiffData(new ByteArrayInputStream(this.bil16Data), this.bil16Data.length);
+            fail("expected an exception decoding non-TIFF data");
+        } catch (RuntimeException expected) {
+            assertNotNull("buffer released", this.retriever.bufferPool.acquire());
+        }
+    }
+
+    private byte[] readResource(String resourceName) throws IOException {
+        InputStream stream = this.getClass().getClassLoader().getResourceAsStream(resourceName);
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        byte[] page = new byte[4096];
+        int readCount;
+        while ((readCount = stream.read(page, 0, page.length)) != -1) {
+            result.write(page, 0, readCount);
+        }
+        stream.close();
+        return result.toByteArray();
+    }
+
+    /**
+     * Input stream that returns at most a fixed number of bytes per read, as a network connection might.
+     */
+    private static class TrickleInputStream extends ByteArrayInputStream {
+
+        private final int maxReadCount;
+
+        public TrickleInputStream(byte[] data, int maxReadCount) {
+            super(data);
+            this.maxReadCount = maxReadCount;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            return super.read(b, off, Math.min(len, this.maxReadCount));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.globe;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.Random;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.util.Logger;
+
+/**
+ * Reports the number of line of sight pairs evaluated per second for pairs up to 30 km apart, sampled at 30 meter
+ * spacing. Excluded from the unit tests; run with
+ * <code>./gradlew :worldwind:testDebugUnitTest -Pbenchmarks --tests '*TerrainProfilerBenchmark'</code>.
+ */
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class TerrainProfilerBenchmark {
+
+    private Globe globe;
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+
+        TerrainProfilerTest.TerrainCoverage terrain = new TerrainProfilerTest.TerrainCoverage();
+        terrain.roughness = 50;
+        this.globe = new Globe(WorldWind.WGS84_ELLIPSOID, new ProjectionWgs84());
+        this.globe.getElevationModel().addCoverage(terrain);
+    }
+
+    @Test
+    public void benchmarkComputeLineOfSight() throws Exception {
+        int pairCount = 500;
+        int iterations = 10;
+        double[] positions = TerrainProfilerTest.randomPairs(new Random(17), pairCount);
+        double[] clearance = new double[pairCount];
+        TerrainProfiler profiler = new TerrainProfiler(this.globe);
+
+        profiler.computeLineOfSight(positions, pairCount, WorldWind.RELATIVE_TO_GROUND, WorldWind.GREAT_CIRCLE, 30, clearance); // warm up
+
+        long start = System.nanoTime();
+        for (int iter = 0; iter < iterations; iter++) {
+            profiler.computeLineOfSight(positions, pairCount, WorldWind.RELATIVE_TO_GROUND, WorldWind.GREAT_CIRCLE, 30, clearance);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        int visibleCount = 0;
+        for (double value : clearance) {
+            visibleCount += (value >= 0) ? 1 : 0;
+        }
+
+        System.out.printf("TerrainProfiler: %d threads, %,.0f pairs per second, %d of %d pairs visible%n",
+            profiler.getThreadCount(), (double) pairCount * iterations / (elapsed / 1.0e9), visibleCount, pairCount);
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.globe;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.Random;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.geom.Location;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class TerrainProfilerTest {
+
+    private Globe globe;
+
+    private TerrainCoverage terrain;
+
+    private double metersPerDegree;
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+
+        this.globe = new Globe(WorldWind.WGS84_ELLIPSOID, new ProjectionWgs84());
+        this.terrain = new TerrainCoverage();
+        this.globe.getElevationModel().addCoverage(this.terrain);
+        this.metersPerDegree = Math.toRadians(this.globe.getEquatorialRadius());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetRefractionCoefficient_Invalid() throws Exception {
+        new TerrainProfiler(this.globe).setRefractionCoefficient(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetSampleCount_InvalidSpacing() throws Exception {
+        new TerrainProfiler(this.globe).getSampleCount(new Location(0, 0), new Location(0, 1), WorldWind.GREAT_CIRCLE, 0);
+    }
+
+    @Test
+    public void testGetSampleCount() throws Exception {
+        TerrainProfiler profiler = new TerrainProfiler(this.globe);
+        Location begin = new Location(0, 0);
+        Location end = new Location(0, 10000 / this.metersPerDegree); // 10 km along the equator
+
+        assertEquals("exact multiple", 101, profiler.getSampleCount(begin, end, WorldWind.GREAT_CIRCLE, 100.0000001));
+        assertEquals("partial interval", 102, profiler.getSampleCount(begin, end, WorldWind.GREAT_CIRCLE, 99.5));
+        assertEquals("coincident locations", 1, profiler.getSampleCount(begin, begin, WorldWind.GREAT_CIRCLE, 100));
+    }
+
+    @Test
+    public void testSampleProfile_GreatCircle() throws Exception {
+        this.terrain.slope = 0.01; // one meter per 100 meters east
+        TerrainProfiler profiler = new TerrainProfiler(this.globe);
+        Location begin = new Location(40, -105);
+        Location end = new Location(41, -104);
+        int expectedCount = profiler.getSampleCount(begin, end, WorldWind.GREAT_CIRCLE, 500);
+        double[] locations = new double[expectedCount * 2];
+        float[] heights = new float[expectedCount];
+
+        int count = profiler.sampleProfile(begin, end, WorldWind.GREAT_CIRCLE, 500, locations, heights);
+
+        assertEquals("sample count", expectedCount, count);
+        assertEquals("first latitude", begin.latitude, locations[0], 0);
+        assertEquals("first longitude", begin.longitude, locations[1], 0);
+        assertEquals("last latitude", end.latitude, locations[count * 2 - 2], 0);
+        assertEquals("last longitude", end.longitude, locations[count * 2 - 1], 0);
+
+        Location expected = new Location();
+        Location actual = new Location();
+        for (int idx = 0; idx < count; idx++) {
+            begin.interpolateAlongPath(end, WorldWind.GREAT_CIRCLE, idx / (double) (count - 1), expected);
+            actual.set(locations[idx * 2], locations[idx * 2 + 1]);
+            assertEquals("sample " + idx, 0, expected.greatCircleDistance(actual), 1.0e-12);
+            assertEquals("height " + idx, this.terrain.heightAt(actual.latitude, actual.longitude), heights[idx], 1.0e-2);
+        }
+    }
+
+    @Test
+    public void testSampleProfile_RhumbLine() throws Exception {
+        TerrainProfiler profiler = new TerrainProfiler(this.globe);
+        Location begin = new Location(60, -30);
+        Location end = new Location(62, 10);
+        int count = profiler.getSampleCount(begin, end, WorldWind.RHUMB_LINE, 10000);
+        double[] locations = new double[count * 2];
+
+        profiler.sampleProfile(begin, end, WorldWind.RHUMB_LINE, 10000, locations, new float[count]);
+
+        // Rhumb lines have constant azimuth.
+        double azimuth = begin.rhumbAzimuth(end);
+        Location sample = new Location();
+        for (int idx = 1; idx < count; idx++) {
+            sample.set(locations[idx * 2], locations[idx * 2 + 1]);
+            assertEquals("azimuth " + idx, azimuth, begin.rhumbAzimuth(sample), 1.0e-6);
+        }
+    }
+
+    @Test
+    public void testComputeLineOfSight_Curvature() throws Exception {
+        // Two 10 meter masts over flat terrain. The terrain at the midpoint of a path of length D rises D^2 / (8 * Re)
+        // relative to the line of sight, where Re is the effective radius.
+        TerrainProfiler profiler = new TerrainProfiler(this.globe);
+        profiler.setRefractionCoefficient(0);
+        double effectiveRadius = this.globe.getEquatorialRadius();
+        double[] positions = {
+            0, 0, 10, 0, 20000 / this.metersPerDegree, 10,
+            0, 0, 10, 0, 40000 / this.metersPerDegree, 10};
+        double[] clearance = new double[2];
+
+        profiler.computeLineOfSight(positions, 2, WorldWind.RELATIVE_TO_GROUND, WorldWind.GREAT_CIRCLE, 100, clearance);
+
+        assertEquals("20 km clearance", 10 - 20000.0 * 20000.0 / (8 * effectiveRadius), clearance[0], 1.0e-3);
+        assertEquals("40 km clearance", 10 - 40000.0 * 40000.0 / (8 * effectiveRadius), clearance[1], 1.0e-3);
+        assertTrue("20 km visible", clearance[0] >= 0);
+        assertTrue("40 km hidden", clearance[1] < 0);
+    }
+
+    @Test
+    public void testComputeLineOfSight_Refraction() throws Exception {
+        TerrainProfiler profiler = new TerrainProfiler(this.globe);
+        profiler.setRefractionCoefficient(0.25);
+        double effectiveRadius = this.globe.getEquatorialRadius() * 4 / 3;
+        double[] positions = {0, 0, 10, 0, 40000 / this.metersPerDegree, 10};
+        double[] clearance = new double[1];
+
+        profiler.computeLineOfSight(positions, 1, WorldWind.RELATIVE_TO_GROUND, WorldWind.GREAT_CIRCLE, 100, clearance);
+
+        assertEquals("40 km clearance", 10 - 40000.0 * 40000.0 / (8 * effectiveRadius), clearance[0], 1.0e-3);
+    }
+
+    @Test
+    public void testComputeLineOfSight_Ridge() throws Exception {
+        // A 100 meter ridge along the meridian at 0.05 degrees east.
+        this.terrain.ridgeLongitude = 0.05;
+        this.terrain.ridgeHeight = 100;
+        TerrainProfiler profiler = new TerrainProfiler(this.globe);
+        double[] positions = {
+            0, 0, 20, 0, 0.1, 20, // masts on either side of the ridge
+            0, 0, 20, 0, 0.04, 20}; // masts on the same side of the ridge
+        double[] clearance = new double[2];
+
+        profiler.computeLineOfSight(positions, 2, WorldWind.RELATIVE_TO_GROUND, WorldWind.GREAT_CIRCLE, 30, clearance);
+        assertTrue("blocked by the ridge", clearance[0] < -50);
+        assertTrue("same side of the ridge", clearance[1] > 0);
+
+        double[] absolute = new double[1];
+        profiler.computeLineOfSight(new double[]{0, 0, 200, 0, 0.1, 200}, 1, WorldWind.ABSOLUTE, WorldWind.GREAT_CIRCLE, 30, absolute);
+        assertTrue("above the ridge", absolute[0] > 0);
+
+        double[] clamped = new double[1];
+        profiler.computeLineOfSight(new double[]{0, 0, 1000, 0, 0.04, 1000}, 1, WorldWind.CLAMP_TO_GROUND, WorldWind.GREAT_CIRCLE, 30, clamped);
+        assertTrue("ground level over flat terrain", clamped[0] < 0 && clamped[0] > -1);
+    }
+
+    @Test
+    public void testSampleProfile_MissingData() throws Exception {
+        // The coverage has no data east of 0.05 degrees.
+        this.terrain.maxLongitude = 0.05;
+        TerrainProfiler profiler = new TerrainProfiler(this.globe);
+        Location begin = new Location(0, 0);
+        Location end = new Location(0, 0.1);
+        int count = profiler.getSampleCount(begin, end, WorldWind.GREAT_CIRCLE, 500);
+        double[] locations = new double[count * 2];
+        float[] heights = new float[count];
+
+        profiler.sampleProfile(begin, end, WorldWind.GREAT_CIRCLE, 500, locations, heights);
+
+        for (int idx = 0; idx < count; idx++) {
+            boolean hasData = locations[idx * 2 + 1] <= 0.05;
+            assertEquals("missing " + idx, !hasData, Float.isNaN(heights[idx]));
+        }
+    }
+
+    @Test
+    public void testComputeLineOfSight_MissingData() throws Exception {
+        // The coverage has no data east of 0.05 degrees.
+        this.terrain.maxLongitude = 0.05;
+        TerrainProfiler profiler = new TerrainProfiler(this.globe);
+        double[] positions = {
+            0, 0, 10, 0, 0.04, 10, // within the coverage
+            0, 0, 10, 0, 0.1, 10, // crosses the coverage's edge
+            0, 0.06, 10, 0, 0.1, 10}; // outside the coverage
+        double[] clearance = new double[3];
+
+        profiler.computeLineOfSight(positions, 3, WorldWind.RELATIVE_TO_GROUND, WorldWind.GREAT_CIRCLE, 100, clearance);
+        assertTrue("within the coverage", clearance[0] > 0);
+        assertTrue("crosses the coverage's edge", Double.isNaN(clearance[1]));
+        assertTrue("outside the coverage", Double.isNaN(clearance[2]));
+
+        // Absolute positions do not depend on the terrain beneath them, but do depend on the terrain between them.
+        double[] absolute = new double[2];
+        profiler.computeLineOfSight(new double[]{0, 0.01, 100, 0, 0.05, 100, 0, 0.04, 100, 0, 0.06, 100}, 2,
+            WorldWind.ABSOLUTE, WorldWind.GREAT_CIRCLE, 100, absolute);
+        assertTrue("absolute within the coverage", absolute[0] > 0);
+        assertTrue("absolute crossing the coverage's edge", Double.isNaN(absolute[1]));
+    }
+
+    @Test
+    public void testComputeLineOfSight_ThreadCountIndependent() throws Exception {
+        this.terrain.roughness = 50;
+        double[] positions = randomPairs(new Random(13), 200);
+        double[] single = new double[200];
+        double[] multiple = new double[200];
+
+        new TerrainProfiler(this.globe, 1).computeLineOfSight(positions, 200, WorldWind.RELATIVE_TO_GROUND, WorldWind.GREAT_CIRCLE, 50, single);
+        new TerrainProfiler(this.globe, 8).computeLineOfSight(positions, 200, WorldWind.RELATIVE_TO_GROUND, WorldWind.GREAT_CIRCLE, 50, multiple);
+
+        assertArrayEquals(single, multiple, 0);
+    }
+
+    @Test
+    public void testComputeLineOfSight_RoughTerrain() throws Exception {
+        this.terrain.roughness = 50;
+        int pairCount = 200;
+        double[] positions = randomPairs(new Random(17), pairCount);
+        double[] clearance = new double[pairCount];
+
+        new TerrainProfiler(this.globe).computeLineOfSight(positions, pairCount, WorldWind.RELATIVE_TO_GROUND, WorldWind.GREAT_CIRCLE, 30, clearance);
+
+        int visibleCount = 0;
+        for (double value : clearance) {
+            visibleCount += (value >= 0) ? 1 : 0;
+        }
+
+        assertTrue("some pairs visible", visibleCount > 0);
+        assertTrue("some pairs hidden", visibleCount < pairCount);
+    }
+
+    static double[] randomPairs(Random random, int count) {
+        double[] positions = new double[count * 6];
+        for (int idx = 0; idx < count; idx++) {
+            double lat = 40 + random.nextDouble();
+            double lon = -105 + random.nextDouble();
+            positions[idx * 6] = lat;
+            positions[idx * 6 + 1] = lon;
+            positions[idx * 6 + 2] = 10 + random.nextDouble() * 30;
+            positions[idx * 6 + 3] = lat + (random.nextDouble() - 0.5) * 0.3;
+            positions[idx * 6 + 4] = lon + (random.nextDouble() - 0.5) * 0.3;
+            positions[idx * 6 + 5] = 10 + random.nextDouble() * 30;
+        }
+
+        return positions;
+    }
+
+    /**
+     * An elevation coverage that computes heights analytically: an optional east-west slope, an optional ridge along a
+     * meridian and optional rolling hills.
+     */
+    static class TerrainCoverage extends AbstractElevationCoverage {
+
+        double slope;
+
+        double ridgeLongitude = Double.NaN;
+
+        double ridgeHeight;
+
+        double roughness;
+
+        double maxLongitude = Double.POSITIVE_INFINITY;
+
+        double heightAt(double latitude, double longitude) {
+            double height = this.slope * longitude * 111000;
+            if (Math.abs(longitude - this.ridgeLongitude) < 0.002) {
+                height += this.ridgeHeight;
+            }
+
+            if (this.roughness > 0) {
+                height += this.roughness * (2 + Math.sin(latitude * 900) * Math.cos(longitude * 700));
+            }
+
+            return height;
+        }
+
+        @Override
+        protected void doGetHeights(double[] locations, int count, float[] result, boolean[] missing) {
+            for (int idx = 0; idx < count; idx++) {
+                if (locations[idx * 2 + 1] > this.maxLongitude) {
+                    continue; // no data at this location
+                }
+
+                result[idx] = (float) this.heightAt(locations[idx * 2], locations[idx * 2 + 1]);
+                if (missing != null) {
+                    missing[idx] = false;
+                }
+            }
+        }
+
+        @Override
+        protected void doGetHeightGrid(Sector gridSector, int gridWidth, int gridHeight, float[] result) {
+        }
+
+        @Override
+        protected void doGetHeightLimits(Sector sector, float[] result) {
+        }
+    }
+}
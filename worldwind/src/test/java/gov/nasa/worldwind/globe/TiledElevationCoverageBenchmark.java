@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.globe;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.Random;
+
+import gov.nasa.worldwind.geom.TileMatrixSet;
+import gov.nasa.worldwind.util.Logger;
+
+import static gov.nasa.worldwind.globe.TiledElevationCoverageTest.COVERAGE_SECTOR;
+import static gov.nasa.worldwind.globe.TiledElevationCoverageTest.LEVEL_COUNT;
+import static gov.nasa.worldwind.globe.TiledElevationCoverageTest.TILE_SIZE;
+
+/**
+ * Reports the number of locations sampled per second by a tiled elevation coverage for a randomly ordered set of
+ * locations and for a track of consecutive locations. Excluded from the unit tests; run with
+ * <code>./gradlew :worldwind:testDebugUnitTest -Pbenchmarks --tests '*TiledElevationCoverageBenchmark'</code>.
+ */
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class TiledElevationCoverageBenchmark {
+
+    private TiledElevationCoverageTest.LocalCoverage coverage;
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+
+        this.coverage = new TiledElevationCoverageTest.LocalCoverage();
+        this.coverage.setTileMatrixSet(TileMatrixSet.fromTilePyramid(COVERAGE_SECTOR, 2, 2, TILE_SIZE, TILE_SIZE, LEVEL_COUNT));
+        for (int level = 0; level < LEVEL_COUNT; level++) {
+            this.coverage.addLevel(level);
+        }
+    }
+
+    @Test
+    public void benchmarkGetHeights() throws Exception {
+        int count = 50000;
+        int iterations = 20;
+        double[] random = TiledElevationCoverageTest.randomLocations(new Random(9), count);
+        double[] track = new double[count * 2];
+        for (int idx = 0; idx < count; idx++) {
+            track[idx * 2] = COVERAGE_SECTOR.minLatitude() + 0.5 + 9.0 * idx / count;
+            track[idx * 2 + 1] = COVERAGE_SECTOR.minLongitude() + 5 + Math.sin(idx * 1.0e-3) * 4;
+        }
+
+        float[] result = new float[count];
+        boolean[] missing = new boolean[count];
+        ElevationModel model = new ElevationModel();
+        model.addCoverage(this.coverage);
+
+        for (String name : new String[]{"random", "track"}) {
+            double[] locations = name.equals("random") ? random : track;
+            model.getHeights(locations, count, result, missing); // warm up
+
+            long start = System.nanoTime();
+            for (int iter = 0; iter < iterations; iter++) {
+                model.getHeights(locations, count, result, missing);
+            }
+            long elapsed = System.nanoTime() - start;
+
+            System.out.printf("TiledElevationCoverage: %,d %s locations, %,.0f locations per second%n",
+                count, name, (double) count * iterations / (elapsed / 1.0e9));
+        }
+    }
+}
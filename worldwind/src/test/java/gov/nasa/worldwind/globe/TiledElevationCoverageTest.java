@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.globe;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.geom.TileMatrix;
+import gov.nasa.worldwind.geom.TileMatrixSet;
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class TiledElevationCoverageTest {
+
+    static final Sector COVERAGE_SECTOR = new Sector(30, -120, 10, 10);
+
+    static final int TILE_SIZE = 16;
+
+    static final int LEVEL_COUNT = 3;
+
+    private LocalCoverage coverage;
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+
+        this.coverage = new LocalCoverage();
+        this.coverage.setTileMatrixSet(TileMatrixSet.fromTilePyramid(COVERAGE_SECTOR, 2, 2, TILE_SIZE, TILE_SIZE, LEVEL_COUNT));
+        for (int level = 0; level < LEVEL_COUNT; level++) {
+            this.coverage.addLevel(level);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetHeights_InsufficientLocations() throws Exception {
+        this.coverage.getHeights(new double[3], 2, new float[2], null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetHeights_InsufficientResult() throws Exception {
+        this.coverage.getHeights(new double[4], 2, new float[1], null);
+    }
+
+    @SuppressWarnings("deprecation")
+    @Test
+    public void testFetchTileArray_Deprecated() throws Exception {
+        TileMatrix tileMatrix = this.coverage.getTileMatrixSet().matrix(0);
+
+        short[] tileArray = this.coverage.fetchTileArray(tileMatrix, 0, 0);
+
+        assertSame("tile array", this.coverage.tiles.get(TiledElevationCoverage.tileKey(tileMatrix, 0, 0)), tileArray);
+        assertTrue("retrieval enabled", this.coverage.lastRetrieve);
+    }
+
+    @Test
+    public void testGetHeights_Bilinear() throws Exception {
+        Random random = new Random(5);
+        int count = 1000;
+        double[] locations = randomLocations(random, count);
+        float[] result = new float[count];
+
+        this.coverage.getHeights(locations, count, result, null);
+
+        TileMatrix finest = this.coverage.getTileMatrixSet().matrix(LEVEL_COUNT - 1);
+        for (int idx = 0; idx < count; idx++) {
+            double expected = expectedHeight(finest, locations[idx * 2], locations[idx * 2 + 1]);
+            assertEquals("location " + idx, expected, result[idx], 1.0e-2);
+        }
+    }
+
+    @Test
+    public void testGetHeights_CoarserLevelFallback() throws Exception {
+        // Remove one tile from the finest level. Locations in that tile are sampled from the next coarser level.
+        TileMatrix finest = this.coverage.getTileMatrixSet().matrix(LEVEL_COUNT - 1);
+        TileMatrix coarser = this.coverage.getTileMatrixSet().matrix(LEVEL_COUNT - 2);
+        this.coverage.tiles.remove(TiledElevationCoverage.tileKey(finest, 3, 3));
+        Sector tileSector = finest.tileSector(3, 3);
+        double[] locations = {
+            tileSector.centroidLatitude(), tileSector.centroidLongitude(),
+            COVERAGE_SECTOR.minLatitude() + 1, COVERAGE_SECTOR.minLongitude() + 1};
+        float[] result = new float[2];
+
+        this.coverage.getHeights(locations, 2, result, null);
+
+        assertEquals("fallback location", expectedHeight(coarser, locations[0], locations[1]), result[0], 1.0e-2);
+        assertEquals("finest location", expectedHeight(finest, locations[2], locations[3]), result[1], 1.0e-2);
+    }
+
+    @Test
+    public void testGetHeights_Missing() throws Exception {
+        // Remove every level's tiles at the coverage's northwest corner.
+        for (int level = 0; level < LEVEL_COUNT; level++) {
+            this.coverage.tiles.remove(TiledElevationCoverage.tileKey(this.coverage.getTileMatrixSet().matrix(level), 0, 0));
+        }
+
+        ElevationModel model = new ElevationModel();
+        model.addCoverage(this.coverage);
+        double[] locations = {
+            COVERAGE_SECTOR.maxLatitude() - 0.1, COVERAGE_SECTOR.minLongitude() + 0.1, // northwest corner
+            COVERAGE_SECTOR.centroidLatitude(), COVERAGE_SECTOR.centroidLongitude(),
+            0, 0}; // outside the coverage
+        float[] result = {-1, -1, -1};
+        boolean[] missing = new boolean[3];
+
+        model.getHeights(locations, 3, result, missing);
+
+        assertTrue("tiles unavailable", missing[0]);
+        assertFalse("tiles available", missing[1]);
+        assertTrue("outside coverage", missing[2]);
+        assertEquals("missing location unmodified", -1, result[0], 0);
+        assertEquals("missing location unmodified", -1, result[2], 0);
+    }
+
+    static double[] randomLocations(Random random, int count) {
+        // Keep the locations half a texel inside the coverage, where bilinear interpolation is not clamped.
+        double margin = 0.1;
+        double[] locations = new double[count * 2];
+        for (int idx = 0; idx < count; idx++) {
+            locations[idx * 2] = COVERAGE_SECTOR.minLatitude() + margin + random.nextDouble() * (COVERAGE_SECTOR.deltaLatitude() - 2 * margin);
+            locations[idx * 2 + 1] = COVERAGE_SECTOR.minLongitude() + margin + random.nextDouble() * (COVERAGE_SECTOR.deltaLongitude() - 2 * margin);
+        }
+
+        return locations;
+    }
+
+    /**
+     * Computes the height at a location in a tile matrix whose texels vary linearly with their raster coordinates.
+     * Bilinear interpolation of a linear function is exact.
+     */
+    private static double expectedHeight(TileMatrix tileMatrix, double latitude, double longitude) {
+        double u = tileMatrix.matrixWidth * tileMatrix.tileWidth * (longitude - tileMatrix.sector.minLongitude()) / tileMatrix.sector.deltaLongitude();
+        double v = tileMatrix.matrixHeight * tileMatrix.tileHeight * (tileMatrix.sector.maxLatitude() - latitude) / tileMatrix.sector.deltaLatitude();
+        return texelHeight(tileMatrix, u - 0.5, v - 0.5);
+    }
+
+    private static double texelHeight(TileMatrix tileMatrix, double i, double j) {
+        return tileMatrix.ordinal * 1000 + i + 2 * j;
+    }
+
+    /**
+     * A tiled elevation coverage whose tiles are held in memory, without retrieval.
+     */
+    static class LocalCoverage extends TiledElevationCoverage {
+
+        Map<Long, short[]> tiles = new HashMap<>();
+
+        boolean lastRetrieve;
+
+        void addLevel(int level) {
+            TileMatrix tileMatrix = this.getTileMatrixSet().matrix(level);
+            for (int row = 0; row < tileMatrix.matrixHeight; row++) {
+                for (int col = 0; col < tileMatrix.matrixWidth; col++) {
+                    short[] array = new short[TILE_SIZE * TILE_SIZE];
+                    for (int j = 0; j < TILE_SIZE; j++) {
+                        for (int i = 0; i < TILE_SIZE; i++) {
+                            array[i + j * TILE_SIZE] = (short) texelHeight(tileMatrix, col * TILE_SIZE + i, row * TILE_SIZE + j);
+                        }
+                    }
+                    this.tiles.put(tileKey(tileMatrix, row, col), array);
+                }
+            }
+        }
+
+        @Override
+        protected short[] fetchTileArray(TileMatrix tileMatrix, int row, int column, boolean retrieve) {
+            this.lastRetrieve = retrieve;
+            return this.tiles.get(tileKey(tileMatrix, row, column));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.globe;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.util.Logger;
+
+/**
+ * Reports the time to compute viewsheds on grids of 1k, 4k and 16k samples per side, and the time to trace their
+ * boundaries. Grids whose height and visibility arrays exceed the available memory are skipped. Excluded from the unit
+ * tests; run with <code>./gradlew :worldwind:testDebugUnitTest -Pbenchmarks --tests '*ViewshedEngineBenchmark'</code>.
+ */
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class ViewshedEngineBenchmark {
+
+    private Globe globe;
+
+    private ViewshedEngineTest.TerrainCoverage terrain;
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+
+        this.globe = new Globe(WorldWind.WGS84_ELLIPSOID, new ProjectionWgs84());
+        this.terrain = new ViewshedEngineTest.TerrainCoverage();
+        this.terrain.roughness = 80;
+        this.globe.getElevationModel().addCoverage(this.terrain);
+    }
+
+    @Test
+    public void benchmarkCompute() throws Exception {
+        ViewshedEngine engine = new ViewshedEngine();
+
+        for (int gridSize : new int[]{1025, 4097, 16385}) {
+            long required = (long) gridSize * gridSize * 10; // heights, visibility and boundary edge bytes
+            if (required > Runtime.getRuntime().maxMemory() / 2) {
+                System.out.printf("ViewshedEngine: %,d x %,d grid skipped, insufficient memory%n", gridSize, gridSize);
+                continue;
+            }
+
+            long start = System.nanoTime();
+            Viewshed viewshed = engine.compute(this.globe, ViewshedEngineTest.OBSERVER, WorldWind.RELATIVE_TO_GROUND, 20000, 2, gridSize);
+            long computed = System.nanoTime();
+            int ringCount = viewshed.getBoundaries().size();
+            long traced = System.nanoTime();
+
+            System.out.printf("ViewshedEngine: %,d x %,d grid, %d threads, computed in %.1f ms, %,d boundaries traced in %.1f ms, %,d visible samples%n",
+                gridSize, gridSize, engine.getThreadCount(), (computed - start) / 1.0e6, ringCount, (traced - computed) / 1.0e6, viewshed.getVisibleCount());
+        }
+    }
+}
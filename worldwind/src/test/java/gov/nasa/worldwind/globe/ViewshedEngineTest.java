@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.globe;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.List;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class ViewshedEngineTest {
+
+    static final Position OBSERVER = Position.fromDegrees(34.2, -119.2, 10);
+
+    private Globe globe;
+
+    private TerrainCoverage terrain;
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+
+        this.globe = new Globe(WorldWind.WGS84_ELLIPSOID, new ProjectionWgs84());
+        this.terrain = new TerrainCoverage();
+        this.globe.getElevationModel().addCoverage(this.terrain);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_InvalidThreadCount() throws Exception {
+        new ViewshedEngine(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCompute_InvalidRange() throws Exception {
+        new ViewshedEngine(1).compute(this.globe, OBSERVER, WorldWind.RELATIVE_TO_GROUND, 0, 0, 101);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCompute_InvalidGridSize() throws Exception {
+        new ViewshedEngine(1).compute(this.globe, OBSERVER, WorldWind.RELATIVE_TO_GROUND, 5000, 0, 2);
+    }
+
+    @Test
+    public void testCompute_FlatTerrain() throws Exception {
+        Viewshed viewshed = new ViewshedEngine().compute(this.globe, OBSERVER, WorldWind.RELATIVE_TO_GROUND, 5000, 0, 101);
+
+        // Every sample within the range is visible; the horizon is over 11 km from an observer 10 meters high.
+        int center = 50;
+        for (int row = 0; row < 101; row++) {
+            for (int col = 0; col < 101; col++) {
+                boolean inRange = Math.hypot(col - center, row - center) * 100 <= 5000;
+                assertEquals("sample " + col + "," + row, inRange, viewshed.isVisible(col, row));
+            }
+        }
+
+        Sector sector = viewshed.getSector();
+        assertEquals("centered latitude", OBSERVER.latitude, sector.centroidLatitude(), 1.0e-9);
+        assertEquals("centered longitude", OBSERVER.longitude, sector.centroidLongitude(), 1.0e-9);
+        assertEquals("single region", 1, viewshed.getBoundaries().size());
+    }
+
+    @Test
+    public void testCompute_CurvatureHidesDistantTerrain() throws Exception {
+        // An observer 2 meters above flat terrain sees the surface out to roughly 5 km.
+        Position observer = Position.fromDegrees(OBSERVER.latitude, OBSERVER.longitude, 2);
+        Viewshed viewshed = new ViewshedEngine().compute(this.globe, observer, WorldWind.RELATIVE_TO_GROUND, 10000, 0, 201);
+
+        assertTrue("near terrain visible", viewshed.isVisible(100, 140)); // 4 km
+        assertFalse("far terrain hidden", viewshed.isVisible(100, 160)); // 6 km
+    }
+
+    @Test
+    public void testCompute_Ridge() throws Exception {
+        // A 200 meter ridge running east-west, 1 km north of the observer.
+        this.terrain.ridgeLatitude = OBSERVER.latitude + Math.toDegrees(1000 / this.globe.getRadiusAt(OBSERVER.latitude, OBSERVER.longitude));
+        this.terrain.ridgeHeight = 200;
+
+        Viewshed viewshed = new ViewshedEngine().compute(this.globe, OBSERVER, WorldWind.RELATIVE_TO_GROUND, 5000, 2, 101);
+
+        assertTrue("south visible", viewshed.isVisible(50, 10));
+        assertTrue("ridge face visible", viewshed.isVisible(50, 58));
+        assertFalse("north of ridge hidden", viewshed.isVisible(50, 70));
+        assertFalse("northeast of ridge hidden", viewshed.isVisible(60, 80));
+        assertTrue("observer visible", viewshed.isVisible(50, 50));
+    }
+
+    @Test
+    public void testCompute_AltitudeModes() throws Exception {
+        this.terrain.baseHeight = 500;
+        this.terrain.ridgeLatitude = OBSERVER.latitude + Math.toDegrees(1000 / this.globe.getRadiusAt(OBSERVER.latitude, OBSERVER.longitude));
+        this.terrain.ridgeHeight = 100;
+
+        ViewshedEngine engine = new ViewshedEngine();
+        Position high = Position.fromDegrees(OBSERVER.latitude, OBSERVER.longitude, 2000);
+        Viewshed absolute = engine.compute(this.globe, high, WorldWind.ABSOLUTE, 5000, 0, 101);
+        Viewshed relative = engine.compute(this.globe, high, WorldWind.RELATIVE_TO_GROUND, 5000, 0, 101);
+        Viewshed clamped = engine.compute(this.globe, high, WorldWind.CLAMP_TO_GROUND, 5000, 0, 101);
+
+        assertTrue("absolute sees over the ridge", absolute.isVisible(50, 90));
+        assertTrue("relative sees over the ridge", relative.isVisible(50, 90));
+        assertFalse("clamped does not see over the ridge", clamped.isVisible(50, 90));
+        assertTrue("relative sees more than absolute", relative.getVisibleCount() >= absolute.getVisibleCount());
+    }
+
+    @Test
+    public void testCompute_ThreadCountIndependent() throws Exception {
+        this.terrain.roughness = 80;
+
+        Viewshed single = new ViewshedEngine(1).compute(this.globe, OBSERVER, WorldWind.RELATIVE_TO_GROUND, 8000, 2, 301);
+        Viewshed multiple = new ViewshedEngine(8).compute(this.globe, OBSERVER, WorldWind.RELATIVE_TO_GROUND, 8000, 2, 301);
+
+        assertArrayEquals(single.getVisibility(), multiple.getVisibility());
+    }
+
+    @Test
+    public void testCompute_NearPole() throws Exception {
+        // A 50 km range from 10 km below the north pole extends beyond the pole and across every meridian.
+        Position observer = Position.fromDegrees(89.91, 179.9, 10);
+        Viewshed viewshed = new ViewshedEngine().compute(this.globe, observer, WorldWind.RELATIVE_TO_GROUND, 50000, 0, 101);
+
+        Sector sector = viewshed.getSector();
+        assertTrue("valid min latitude", sector.minLatitude() >= -90);
+        assertTrue("valid max latitude", sector.maxLatitude() <= 90);
+        assertTrue("valid min longitude", sector.minLongitude() >= -180);
+        assertTrue("valid max longitude", sector.maxLongitude() <= 180);
+        assertTrue("clipped rows", viewshed.getHeight() < 101);
+        assertEquals("clipped within one sample of the pole", 90, sector.maxLatitude(), 0.01); // 1 km spacing
+        assertEquals("raster size", viewshed.getWidth() * viewshed.getHeight(), viewshed.getVisibility().length);
+        assertTrue("complete", viewshed.isComplete());
+        assertTrue("visible samples", viewshed.getVisibleCount() > 1);
+    }
+
+    @Test
+    public void testCompute_NearAntimeridian() throws Exception {
+        // The columns east of the antimeridian are clipped, leaving the observer's column on the grid's east edge.
+        Position observer = Position.fromDegrees(0, 180, 10);
+        Viewshed viewshed = new ViewshedEngine().compute(this.globe, observer, WorldWind.RELATIVE_TO_GROUND, 5000, 0, 101);
+
+        assertEquals("clipped columns", 51, viewshed.getWidth());
+        assertEquals("unclipped rows", 101, viewshed.getHeight());
+        assertEquals("max longitude", 180, viewshed.getSector().maxLongitude(), 1.0e-9);
+        for (int row = 0; row < 101; row++) {
+            for (int col = 0; col < 51; col++) {
+                boolean inRange = Math.hypot(col - 50, row - 50) * 100 <= 5000;
+                assertEquals("sample " + col + "," + row, inRange, viewshed.isVisible(col, row));
+            }
+        }
+    }
+
+    @Test
+    public void testCompute_Interrupted() throws Exception {
+        Thread.currentThread().interrupt();
+        Viewshed viewshed;
+        try {
+            viewshed = new ViewshedEngine(4).compute(this.globe, OBSERVER, WorldWind.RELATIVE_TO_GROUND, 5000, 0, 101);
+        } finally {
+            assertTrue("interrupt preserved", Thread.interrupted()); // clears the interrupt for subsequent tests
+        }
+
+        assertFalse("incomplete", viewshed.isComplete());
+    }
+
+    @Test
+    public void testGetBoundaries_Area() throws Exception {
+        this.terrain.roughness = 80;
+
+        Viewshed viewshed = new ViewshedEngine().compute(this.globe, OBSERVER, WorldWind.RELATIVE_TO_GROUND, 8000, 2, 301);
+        List<List<Position>> boundaries = viewshed.getBoundaries();
+
+        // The signed area enclosed by the rings, measured in cells, equals the number of visible samples. Holes wind
+        // clockwise and subtract their area from the region enclosing them.
+        double cellArea = (viewshed.getSector().deltaLatitude() / 300) * (viewshed.getSector().deltaLongitude() / 300);
+        double area = 0;
+        for (List<Position> ring : boundaries) {
+            area += signedArea(ring) / cellArea;
+        }
+
+        assertTrue("multiple regions", boundaries.size() > 1);
+        assertEquals("enclosed area", viewshed.getVisibleCount(), area, 1.0e-3);
+    }
+
+    @Test
+    public void testGetBoundaries_DiagonalCells() throws Exception {
+        // Visible cells meeting at a corner form separate regions.
+        byte[] visibility = {
+            1, 0, 0,
+            0, 1, 0,
+            0, 0, 0};
+        Viewshed viewshed = new Viewshed(OBSERVER, 1, new Sector(0, 0, 2, 2), 3, 3, visibility);
+        List<List<Position>> boundaries = viewshed.getBoundaries();
+
+        assertEquals("region count", 2, boundaries.size());
+        for (List<Position> ring : boundaries) {
+            assertEquals("square ring", 4, ring.size());
+            assertEquals("counter-clockwise unit square", 1, signedArea(ring), 1.0e-9);
+        }
+    }
+
+    private static double signedArea(List<Position> ring) {
+        double area = 0;
+        for (int idx = 0, len = ring.size(); idx < len; idx++) {
+            Position a = ring.get(idx);
+            Position b = ring.get((idx + 1) % len);
+            area += a.longitude * b.latitude - b.longitude * a.latitude;
+        }
+
+        return area * 0.5;
+    }
+
+    /**
+     * An elevation coverage that computes heights analytically: a base height, an optional east-west ridge and optional
+     * rolling hills.
+     */
+    static class TerrainCoverage extends AbstractElevationCoverage {
+
+        double baseHeight;
+
+        double ridgeLatitude = Double.NaN;
+
+        double ridgeHeight;
+
+        double roughness;
+
+        double heightAt(double latitude, double longitude) {
+            double height = this.baseHeight;
+            if (Math.abs(latitude - this.ridgeLatitude) < 0.002) {
+                height += this.ridgeHeight;
+            }
+
+            if (this.roughness > 0) {
+                height += this.roughness * (Math.sin(latitude * 900) * Math.cos(longitude * 700)
+                    + 0.5 * Math.sin(latitude * 2300 + longitude * 1900));
+            }
+
+            return height;
+        }
+
+        @Override
+        protected void doGetHeightGrid(Sector gridSector, int gridWidth, int gridHeight, float[] result) {
+            double deltaLat = gridSector.deltaLatitude() / (gridHeight - 1);
+            double deltaLon = gridSector.deltaLongitude() / (gridWidth - 1);
+            int index = 0;
+            for (int row = 0; row < gridHeight; row++) {
+                double lat = gridSector.minLatitude() + row * deltaLat;
+                for (int col = 0; col < gridWidth; col++) {
+                    result[index++] = (float) this.heightAt(lat, gridSector.minLongitude() + col * deltaLon);
+                }
+            }
+        }
+
+        @Override
+        protected void doGetHeightLimits(Sector sector, float[] result) {
+            result[0] = (float) (this.baseHeight - 1.5 * this.roughness);
+            result[1] = (float) (this.baseHeight + this.ridgeHeight + 1.5 * this.roughness);
+        }
+    }
+}
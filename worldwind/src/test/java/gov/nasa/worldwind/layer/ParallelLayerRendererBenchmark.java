@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.layer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import gov.nasa.worldwind.draw.DrawableQueue;
+import gov.nasa.worldwind.globe.BasicTessellator;
+import gov.nasa.worldwind.util.Logger;
+
+/**
+ * Reports the throughput of rendering frames on the CPU with one to eight workers, for a scene with terrain, two
+ * imagery layers and 10,000 shapes distributed across eight layers. Excluded from the unit tests; run with
+ * <code>./gradlew :worldwind:testDebugUnitTest -Pbenchmarks --tests '*ParallelLayerRendererBenchmark'</code>.
+ */
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class ParallelLayerRendererBenchmark {
+
+    private ParallelLayerRendererTest scene;
+
+    @Before
+    public void setUp() throws Exception {
+        // Use the unit test's globe, render resource cache and render context setup, which also mocks Logger
+        this.scene = new ParallelLayerRendererTest();
+        this.scene.setUp();
+    }
+
+    @Test
+    public void benchmarkRender() throws Exception {
+        LayerList layers = this.scene.scene(1250);
+        BasicTessellator tessellator = new BasicTessellator();
+        this.scene.renderFrame(layers, null, tessellator).clearDrawables(); // assemble shape geometry and imagery tiles
+        int serialCount = this.scene.renderFrame(layers, null, tessellator).count();
+
+        int frameCount = 20;
+        for (int workerCount = 1; workerCount <= 8; workerCount++) {
+            ParallelLayerRenderer renderer = new ParallelLayerRenderer(workerCount);
+            for (int frame = 0; frame < frameCount; frame++) { // warm up the JIT compiler and the worker threads
+                this.scene.renderFrame(layers, renderer, tessellator).clearDrawables();
+            }
+
+            int drawableCount = 0;
+            long start = System.nanoTime();
+            for (int frame = 0; frame < frameCount; frame++) {
+                DrawableQueue queue = this.scene.renderFrame(layers, renderer, tessellator);
+                drawableCount += queue.count();
+                queue.clearDrawables();
+            }
+            long elapsed = System.nanoTime() - start;
+            renderer.shutdown();
+
+            System.out.printf("ParallelLayerRenderer: %d workers %.1f frames/s (%.2f ms per frame), %,d drawables per frame (serial %,d)%n",
+                workerCount, frameCount * 1e9 / elapsed, elapsed / 1e6 / frameCount, drawableCount / frameCount, serialCount);
+        }
+    }
+}
@@ -0,0 +1,349 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.layer;
+
+import android.content.res.Resources;
+import android.util.DisplayMetrics;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.WorldWindow;
+import gov.nasa.worldwind.draw.DrawContext;
+import gov.nasa.worldwind.draw.Drawable;
+import gov.nasa.worldwind.draw.DrawableQueue;
+import gov.nasa.worldwind.geom.Camera;
+import gov.nasa.worldwind.geom.Location;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.globe.BasicTessellator;
+import gov.nasa.worldwind.globe.Globe;
+import gov.nasa.worldwind.globe.ProjectionWgs84;
+import gov.nasa.worldwind.ogc.WmsTileFactory;
+import gov.nasa.worldwind.render.ImageOptions;
+import gov.nasa.worldwind.render.ImageSource;
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.render.RenderResourceCache;
+import gov.nasa.worldwind.render.Renderable;
+import gov.nasa.worldwind.render.Texture;
+import gov.nasa.worldwind.shape.Path;
+import gov.nasa.worldwind.shape.Polygon;
+import gov.nasa.worldwind.shape.ScenePickIndex;
+import gov.nasa.worldwind.shape.TiledSurfaceImage;
+import gov.nasa.worldwind.util.LevelSet;
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class ParallelLayerRendererTest {
+
+    private static final int VIEWPORT_SIZE = 1000;
+
+    private static final double CAMERA_TILT = 45;
+
+    private Globe globe;
+
+    private Resources resources;
+
+    private RenderResourceCache renderResourceCache;
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+
+        this.globe = new Globe(WorldWind.WGS84_ELLIPSOID, new ProjectionWgs84());
+        this.resources = PowerMockito.mock(Resources.class);
+        PowerMockito.when(this.resources.getDisplayMetrics()).thenReturn(new DisplayMetrics());
+        this.renderResourceCache = new RenderResourceCache(64 * 1024 * 1024) {
+            @Override
+            public Texture retrieveTexture(ImageSource imageSource, ImageOptions options) {
+                return null; // no textures are available
+            }
+        };
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_InvalidWorkerCount() throws Exception {
+        new ParallelLayerRenderer(0);
+    }
+
+    @Test
+    public void testRender_SerialDrawableOrder() throws Exception {
+        LayerList layers = new LayerList();
+        for (int idx = 0; idx < 12; idx++) {
+            layers.addLayer(new TestLayer("layer" + idx, 50, idx % 3)); // layers with equal orders must keep layer order
+        }
+
+        DrawableQueue serial = this.renderFrame(layers, null);
+        ParallelLayerRenderer renderer = new ParallelLayerRenderer(4);
+        DrawableQueue parallel = this.renderFrame(layers, renderer);
+        renderer.shutdown();
+
+        assertEquals("drawable count", serial.count(), parallel.count());
+        for (int idx = 0, len = serial.count(); idx < len; idx++) {
+            assertEquals("drawable " + idx, serial.getDrawable(idx).toString(), parallel.getDrawable(idx).toString());
+        }
+    }
+
+    @Test
+    public void testRender_LayerException() throws Exception {
+        LayerList layers = new LayerList();
+        layers.addLayer(new TestLayer("before", 10, 0));
+        layers.addLayer(new AbstractLayer("failing") {
+            @Override
+            protected void doRender(RenderContext rc) {
+                throw new RuntimeException("render failed");
+            }
+        });
+        layers.addLayer(new TestLayer("after", 10, 0));
+        ParallelLayerRenderer renderer = new ParallelLayerRenderer(3);
+
+        DrawableQueue queue = this.renderFrame(layers, renderer);
+        renderer.shutdown();
+
+        assertEquals("drawable count", 20, queue.count());
+        assertEquals("first drawable", "before 0", queue.getDrawable(0).toString());
+        assertEquals("last drawable", "after 9", queue.getDrawable(19).toString());
+    }
+
+    @Test
+    public void testRender_ScenePickIndexOrder() throws Exception {
+        LayerList layers = new LayerList();
+        for (int idx = 0; idx < 12; idx++) {
+            layers.addLayer(new TestLayer("layer" + idx, 20, 0));
+        }
+
+        ScenePickIndex serial = new ScenePickIndex();
+        ScenePickIndex parallel = new ScenePickIndex();
+        this.renderFrame(layers, null, serial);
+        ParallelLayerRenderer renderer = new ParallelLayerRenderer(4);
+        this.renderFrame(layers, renderer, parallel);
+        renderer.shutdown();
+
+        // Every entry is unbounded, so every entry is a candidate, in the order it was recorded.
+        RenderContext rc = this.renderContext(30, -100, 1e5);
+        int count = serial.findCandidates(rc);
+        assertEquals("entry count", 240, count);
+        assertEquals("candidate count", count, parallel.findCandidates(rc));
+        for (int idx = 0; idx < count; idx++) {
+            assertSame("renderable " + idx, serial.getCandidateRenderable(idx), parallel.getCandidateRenderable(idx));
+            assertSame("layer " + idx, serial.getCandidateLayer(idx), parallel.getCandidateLayer(idx));
+        }
+    }
+
+    @Test
+    public void testRender_PickModeIsSerial() throws Exception {
+        final List<Thread> threads = new ArrayList<>();
+        LayerList layers = new LayerList();
+        for (int idx = 0; idx < 4; idx++) {
+            layers.addLayer(new AbstractLayer() {
+                @Override
+                protected void doRender(RenderContext rc) {
+                    threads.add(Thread.currentThread());
+                }
+            });
+        }
+
+        RenderContext rc = this.renderContext(30, -100, 1e5);
+        rc.drawableQueue = new DrawableQueue();
+        rc.pickMode = true;
+        new ParallelLayerRenderer(4).render(rc, layers);
+
+        assertEquals("layers rendered", 4, threads.size());
+        for (Thread thread : threads) {
+            assertSame("calling thread", Thread.currentThread(), thread);
+        }
+    }
+
+    @Test
+    public void testRender_SceneDrawableCount() throws Exception {
+        LayerList layers = this.scene(125);
+        BasicTessellator tessellator = new BasicTessellator();
+        this.renderFrame(layers, null, tessellator).clearDrawables(); // assemble shape geometry and imagery tiles
+        int expectedCount = this.renderFrame(layers, null, tessellator).count();
+        assertTrue("drawables", expectedCount > 500);
+
+        for (int workerCount = 1; workerCount <= 8; workerCount *= 2) {
+            ParallelLayerRenderer renderer = new ParallelLayerRenderer(workerCount);
+            DrawableQueue queue = this.renderFrame(layers, renderer, tessellator);
+            renderer.shutdown();
+
+            assertEquals("drawable count with " + workerCount + " workers", expectedCount, queue.count());
+        }
+    }
+
+    /**
+     * Creates a scene with two imagery layers and eight layers of paths and polygons north of the camera used by
+     * renderFrame.
+     */
+    LayerList scene(int shapesPerLayer) {
+        LayerList layers = new LayerList();
+        layers.addLayer(this.imageryLayer(45));
+        layers.addLayer(this.imageryLayer(36));
+
+        Random random = new Random(44);
+        for (int layer = 0; layer < 8; layer++) {
+            RenderableLayer shapeLayer = new RenderableLayer("shapes" + layer);
+            for (int shape = 0; shape < shapesPerLayer; shape++) {
+                double lat = 30.2 + random.nextDouble() * 1.2, lon = -100.5 + random.nextDouble(); // north of the camera
+                shapeLayer.addRenderable((shape % 2 == 0) ? path(lat, lon) : polygon(lat, lon));
+            }
+            layers.addLayer(shapeLayer);
+        }
+
+        return layers;
+    }
+
+    private DrawableQueue renderFrame(LayerList layers, ParallelLayerRenderer renderer) {
+        return this.renderFrame(layers, renderer, (ScenePickIndex) null);
+    }
+
+    private DrawableQueue renderFrame(LayerList layers, ParallelLayerRenderer renderer, ScenePickIndex scenePickIndex) {
+        RenderContext rc = this.renderContext(30, -100, 1e5);
+        rc.drawableQueue = new DrawableQueue();
+        rc.scenePickIndex = scenePickIndex;
+        rc.layers = layers;
+
+        if (renderer != null) {
+            renderer.render(rc, layers);
+        } else {
+            layers.render(rc);
+        }
+
+        rc.sortDrawables();
+        return rc.drawableQueue;
+    }
+
+    DrawableQueue renderFrame(LayerList layers, ParallelLayerRenderer renderer, BasicTessellator tessellator) {
+        RenderContext rc = this.renderContext(30, -100, 1e5);
+        rc.drawableQueue = new DrawableQueue();
+        rc.drawableTerrain = new DrawableQueue();
+        rc.layers = layers;
+        tessellator.tessellate(rc);
+
+        if (renderer != null) {
+            renderer.render(rc, layers);
+        } else {
+            layers.render(rc);
+        }
+
+        rc.sortDrawables();
+        rc.drawableTerrain.clearDrawables();
+        return rc.drawableQueue;
+    }
+
+    private RenderContext renderContext(double latitude, double longitude, double altitude) {
+        RenderContext rc = new RenderContext();
+        rc.globe = this.globe;
+        rc.resources = this.resources;
+        rc.renderResourceCache = this.renderResourceCache;
+        rc.camera = new Camera(PowerMockito.mock(WorldWindow.class)).set(latitude, longitude, altitude, WorldWind.ABSOLUTE, 0, CAMERA_TILT, 0);
+        rc.cameraPoint = this.globe.geographicToCartesian(latitude, longitude, altitude, rc.cameraPoint);
+        rc.horizonDistance = this.globe.horizonDistance(altitude);
+        rc.viewport.set(0, 0, VIEWPORT_SIZE, VIEWPORT_SIZE);
+        rc.projection.setToPerspectiveProjection(VIEWPORT_SIZE, VIEWPORT_SIZE, rc.camera.getFieldOfView(), altitude * 0.1, rc.horizonDistance + 1e6);
+        this.globe.geographicToCartesianTransform(latitude, longitude, altitude, rc.modelview);
+        rc.modelview.multiplyByRotation(1, 0, 0, CAMERA_TILT); // look toward the horizon
+        rc.modelview.invertOrthonormal();
+        rc.modelviewProjection.setToMultiply(rc.projection, rc.modelview);
+        rc.frustum.setToModelviewProjection(rc.projection, rc.modelview, rc.viewport);
+        return rc;
+    }
+
+    private RenderableLayer imageryLayer(double firstLevelDelta) {
+        TiledSurfaceImage surfaceImage = new TiledSurfaceImage();
+        surfaceImage.setLevelSet(new LevelSet(new Sector().setFullSphere(), new Location(-90, -180), firstLevelDelta, 20, 256, 256));
+        surfaceImage.setTileFactory(new WmsTileFactory("http://worldwind25.arc.nasa.gov/wms", "1.3.0", "BlueMarble-200405", null));
+
+        RenderableLayer layer = new RenderableLayer("imagery");
+        layer.addRenderable(surfaceImage);
+        return layer;
+    }
+
+    private static Path path(double lat, double lon) {
+        Path path = new Path(Arrays.asList(Position.fromDegrees(lat, lon, 1000), Position.fromDegrees(lat + 0.01, lon + 0.01, 1000),
+            Position.fromDegrees(lat, lon + 0.02, 1000)));
+        path.setAltitudeMode(WorldWind.ABSOLUTE);
+        return path;
+    }
+
+    private static Polygon polygon(double lat, double lon) {
+        Polygon polygon = new Polygon(Arrays.asList(Position.fromDegrees(lat, lon, 500), Position.fromDegrees(lat, lon + 0.01, 500),
+            Position.fromDegrees(lat + 0.01, lon + 0.01, 500), Position.fromDegrees(lat + 0.01, lon, 500)));
+        polygon.setAltitudeMode(WorldWind.ABSOLUTE);
+        return polygon;
+    }
+
+    /**
+     * Layer that offers labeled drawables with ascending orders, repeating each order a specified number of times.
+     */
+    private static class TestLayer extends AbstractLayer {
+
+        private int drawableCount;
+
+        private int orderRepeat;
+
+        private Renderable[] renderables;
+
+        public TestLayer(String displayName, int drawableCount, int orderRepeat) {
+            super(displayName);
+            this.drawableCount = drawableCount;
+            this.orderRepeat = orderRepeat;
+            this.renderables = new Renderable[drawableCount];
+            for (int idx = 0; idx < drawableCount; idx++) {
+                this.renderables[idx] = new Polygon();
+            }
+        }
+
+        @Override
+        protected void doRender(RenderContext rc) {
+            for (int idx = 0; idx < this.drawableCount; idx++) {
+                double order = (this.orderRepeat > 0) ? idx / this.orderRepeat : 0;
+                rc.offerSurfaceDrawable(new TestDrawable(this.getDisplayName() + " " + idx), order);
+                if (rc.scenePickIndex != null) {
+                    rc.scenePickIndex.addSector(this.renderables[idx], this, new Sector(), 0); // unbounded entry
+                }
+            }
+        }
+    }
+
+    private static class TestDrawable implements Drawable {
+
+        private final String label;
+
+        public TestDrawable(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public void recycle() {
+        }
+
+        @Override
+        public void draw(DrawContext dc) {
+        }
+
+        @Override
+        public String toString() {
+            return this.label;
+        }
+    }
+}
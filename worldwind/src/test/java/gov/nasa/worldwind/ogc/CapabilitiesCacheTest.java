@@ -0,0 +1,468 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.ogc;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class CapabilitiesCacheTest {
+
+    private HttpServer server;
+
+    private String url;
+
+    private File cacheDirectory;
+
+    private volatile String document = "<Capabilities version=\"1\"/>";
+
+    private volatile String etag = "\"v1\"";
+
+    private volatile String lastModified;
+
+    private volatile CountDownLatch responseLatch;
+
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    private final AtomicInteger downloadCount = new AtomicInteger();
+
+    private final AtomicInteger parseCount = new AtomicInteger();
+
+    private final List<String> conditionalHeaders = new ArrayList<>();
+
+    private final CapabilitiesCache.Parser<String> parser = new CapabilitiesCache.Parser<String>() {
+        @Override
+        public String parse(InputStream inputStream, Collection<String> layerNames) throws Exception {
+            parseCount.incrementAndGet();
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            int b;
+            while ((b = inputStream.read()) != -1) {
+                outputStream.write(b);
+            }
+            String capabilities = new String(outputStream.toByteArray(), "UTF-8");
+            if (!capabilities.startsWith("<Capabilities")) {
+                throw new IllegalArgumentException("Invalid capabilities document");
+            }
+            return (layerNames != null) ? capabilities + new TreeSet<>(layerNames) : capabilities;
+        }
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+
+        // Serve a capabilities document from a local stand-in for a WMS/WMTS server, honoring conditional requests
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext("/service", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                requestCount.incrementAndGet();
+                try {
+                    if (responseLatch != null) {
+                        responseLatch.await(5, TimeUnit.SECONDS);
+                    }
+                } catch (InterruptedException ignored) {
+                }
+
+                String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+                String ifModifiedSince = exchange.getRequestHeaders().getFirst("If-Modified-Since");
+                synchronized (conditionalHeaders) {
+                    conditionalHeaders.add(ifNoneMatch != null ? ifNoneMatch : ifModifiedSince);
+                }
+
+                boolean notModified = (ifNoneMatch != null && ifNoneMatch.equals(etag))
+                    || (ifNoneMatch == null && ifModifiedSince != null && ifModifiedSince.equals(lastModified));
+                if (etag != null) {
+                    exchange.getResponseHeaders().set("ETag", etag);
+                }
+                if (lastModified != null) {
+                    exchange.getResponseHeaders().set("Last-Modified", lastModified);
+                }
+
+                if (notModified) {
+                    exchange.sendResponseHeaders(304, -1);
+                } else {
+                    downloadCount.incrementAndGet();
+                    byte[] body = document.getBytes("UTF-8");
+                    exchange.sendResponseHeaders(200, body.length);
+                    OutputStream outputStream = exchange.getResponseBody();
+                    outputStream.write(body);
+                    outputStream.close();
+                }
+                exchange.close();
+            }
+        });
+        this.server.start();
+        this.url = "http://127.0.0.1:" + this.server.getAddress().getPort() + "/service?REQUEST=GetCapabilities";
+
+        this.cacheDirectory = File.createTempFile("capabilities", "");
+        this.cacheDirectory.delete(); // replace the temporary file with a directory of the same name
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.server.stop(0);
+
+        File[] files = this.cacheDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        this.cacheDirectory.delete();
+    }
+
+    @Test
+    public void testRetrieve_Fresh() throws Exception {
+        CapabilitiesCache<String> cache = new CapabilitiesCache<>(this.parser);
+
+        String first = cache.retrieve(this.url);
+        String second = cache.retrieve(this.url);
+
+        assertEquals("document", this.document, first);
+        assertSame("cached capabilities", first, second);
+        assertEquals("requests", 1, this.requestCount.get());
+        assertEquals("parses", 1, this.parseCount.get());
+    }
+
+    @Test
+    public void testRetrieve_NotModifiedETag() throws Exception {
+        CapabilitiesCache<String> cache = new CapabilitiesCache<>(this.parser);
+        cache.setFreshnessPeriod(0);
+
+        String first = cache.retrieve(this.url);
+        String second = cache.retrieve(this.url);
+
+        assertSame("cached capabilities", first, second);
+        assertEquals("requests", 2, this.requestCount.get());
+        assertEquals("downloads", 1, this.downloadCount.get());
+        assertEquals("parses", 1, this.parseCount.get());
+        assertEquals("If-None-Match", this.etag, this.conditionalHeaders.get(1));
+    }
+
+    @Test
+    public void testRetrieve_NotModifiedLastModified() throws Exception {
+        this.etag = null;
+        this.lastModified = "Wed, 01 Mar 2017 12:00:00 GMT";
+        CapabilitiesCache<String> cache = new CapabilitiesCache<>(this.parser);
+        cache.setFreshnessPeriod(0);
+
+        String first = cache.retrieve(this.url);
+        String second = cache.retrieve(this.url);
+
+        assertSame("cached capabilities", first, second);
+        assertEquals("downloads", 1, this.downloadCount.get());
+        assertEquals("If-Modified-Since", this.lastModified, this.conditionalHeaders.get(1));
+    }
+
+    @Test
+    public void testRetrieve_Modified() throws Exception {
+        CapabilitiesCache<String> cache = new CapabilitiesCache<>(this.parser);
+        cache.setFreshnessPeriod(0);
+
+        String first = cache.retrieve(this.url);
+        this.document = "<Capabilities version=\"2\"/>";
+        this.etag = "\"v2\"";
+        String second = cache.retrieve(this.url);
+
+        assertNotSame("updated capabilities", first, second);
+        assertEquals("updated document", this.document, second);
+        assertEquals("downloads", 2, this.downloadCount.get());
+        assertEquals("parses", 2, this.parseCount.get());
+    }
+
+    @Test
+    public void testRetrieve_SharedRequest() throws Exception {
+        final CapabilitiesCache<String> cache = new CapabilitiesCache<>(this.parser);
+        this.responseLatch = new CountDownLatch(1);
+        int threadCount = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int idx = 0; idx < threadCount; idx++) {
+            results.add(executor.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return cache.retrieve(url);
+                }
+            }));
+        }
+        Thread.sleep(200); // allow every thread to reach the cache before the server responds
+        this.responseLatch.countDown();
+
+        String first = results.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<String> result : results) {
+            assertSame("shared capabilities", first, result.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        assertEquals("requests", 1, this.requestCount.get());
+        assertEquals("parses", 1, this.parseCount.get());
+    }
+
+    @Test
+    public void testRetrieve_CacheDirectory() throws Exception {
+        CapabilitiesCache<String> cache = new CapabilitiesCache<>(this.parser);
+        cache.setCacheDirectory(this.cacheDirectory);
+        cache.retrieve(this.url);
+
+        // A new cache, such as one created in a later session, revalidates the document stored on disk
+        CapabilitiesCache<String> restored = new CapabilitiesCache<>(this.parser);
+        restored.setCacheDirectory(this.cacheDirectory);
+        String capabilities = restored.retrieve(this.url);
+
+        assertEquals("document", this.document, capabilities);
+        assertEquals("requests", 2, this.requestCount.get());
+        assertEquals("downloads", 1, this.downloadCount.get());
+        assertEquals("If-None-Match", this.etag, this.conditionalHeaders.get(1));
+    }
+
+    @Test
+    public void testRetrieve_Offline() throws Exception {
+        CapabilitiesCache<String> cache = new CapabilitiesCache<>(this.parser);
+        cache.setCacheDirectory(this.cacheDirectory);
+        cache.setFreshnessPeriod(0);
+        String first = cache.retrieve(this.url);
+        this.server.stop(0);
+
+        String second = cache.retrieve(this.url);
+
+        CapabilitiesCache<String> restored = new CapabilitiesCache<>(this.parser);
+        restored.setCacheDirectory(this.cacheDirectory);
+        String third = restored.retrieve(this.url);
+
+        assertSame("cached capabilities", first, second);
+        assertEquals("stored document", this.document, third);
+    }
+
+    @Test
+    public void testRetrieve_CorruptCacheDirectory() throws Exception {
+        CapabilitiesCache<String> cache = new CapabilitiesCache<>(this.parser);
+        cache.setCacheDirectory(this.cacheDirectory);
+        cache.retrieve(this.url);
+        this.corruptCachedDocuments();
+
+        // The server reports the document unmodified, but the stored copy can't be parsed
+        CapabilitiesCache<String> restored = new CapabilitiesCache<>(this.parser);
+        restored.setCacheDirectory(this.cacheDirectory);
+        String capabilities = restored.retrieve(this.url);
+
+        assertEquals("document", this.document, capabilities);
+        assertEquals("requests", 3, this.requestCount.get());
+        assertEquals("downloads", 2, this.downloadCount.get());
+        assertEquals("If-None-Match", this.etag, this.conditionalHeaders.get(1));
+        assertNull("unconditional request", this.conditionalHeaders.get(2));
+    }
+
+    @Test
+    public void testRetrieve_CorruptCacheDirectoryOffline() throws Exception {
+        CapabilitiesCache<String> cache = new CapabilitiesCache<>(this.parser);
+        cache.setCacheDirectory(this.cacheDirectory);
+        cache.retrieve(this.url);
+        this.corruptCachedDocuments();
+        this.server.stop(0);
+
+        CapabilitiesCache<String> restored = new CapabilitiesCache<>(this.parser);
+        restored.setCacheDirectory(this.cacheDirectory);
+        try {
+            restored.retrieve(this.url);
+            fail("Expected an IOException");
+        } catch (IOException expected) {
+        }
+
+        File[] files = this.cacheDirectory.listFiles();
+        assertEquals("discarded documents", 0, files != null ? files.length : 0);
+    }
+
+    @Test(expected = IOException.class)
+    public void testRetrieve_OfflineWithoutCache() throws Exception {
+        CapabilitiesCache<String> cache = new CapabilitiesCache<>(this.parser);
+        this.server.stop(0);
+
+        cache.retrieve(this.url);
+    }
+
+    @Test
+    public void testRetrieve_Layers() throws Exception {
+        CapabilitiesCache<String> cache = new CapabilitiesCache<>(this.parser);
+
+        String partial = cache.retrieve(this.url, Arrays.asList("b", "a"));
+        String samePartial = cache.retrieve(this.url, Arrays.asList("a", "b"));
+        String complete = cache.retrieve(this.url);
+
+        assertEquals("partial capabilities", this.document + "[a, b]", partial);
+        assertSame("cached partial capabilities", partial, samePartial);
+        assertEquals("complete capabilities", this.document, complete);
+        assertEquals("requests", 1, this.requestCount.get());
+        assertEquals("parses", 2, this.parseCount.get());
+    }
+
+    @Test
+    public void testRetrieve_DifferentLayers() throws Exception {
+        // Layers created one after another from the same server, as by LayerFactory.createFromWms
+        CapabilitiesCache<String> cache = new CapabilitiesCache<>(this.parser);
+
+        String first = cache.retrieve(this.url, Collections.singletonList("a"));
+        String second = cache.retrieve(this.url, Collections.singletonList("b"));
+
+        assertEquals("first layer", this.document + "[a]", first);
+        assertEquals("second layer", this.document + "[b]", second);
+        assertEquals("requests", 1, this.requestCount.get());
+        assertEquals("parses", 2, this.parseCount.get());
+    }
+
+    @Test
+    public void testRetrieve_DifferentLayersSharedRequest() throws Exception {
+        // Layers created concurrently from the same server share the in-flight request
+        final CapabilitiesCache<String> cache = new CapabilitiesCache<>(this.parser);
+        this.responseLatch = new CountDownLatch(1);
+        int threadCount = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int idx = 0; idx < threadCount; idx++) {
+            final String layerName = "layer" + idx;
+            results.add(executor.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return cache.retrieve(url, Collections.singletonList(layerName));
+                }
+            }));
+        }
+        Thread.sleep(200); // allow every thread to reach the cache before the server responds
+        this.responseLatch.countDown();
+
+        for (int idx = 0; idx < threadCount; idx++) {
+            assertEquals("layer " + idx, this.document + "[layer" + idx + "]", results.get(idx).get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        assertEquals("requests", 1, this.requestCount.get());
+        assertEquals("parses", threadCount, this.parseCount.get());
+    }
+
+    @Test
+    public void testRetrieve_LayersFromComplete() throws Exception {
+        CapabilitiesCache<String> cache = new CapabilitiesCache<>(this.parser);
+
+        String complete = cache.retrieve(this.url);
+        String partial = cache.retrieve(this.url, Collections.singletonList("a"));
+
+        assertSame("complete capabilities", complete, partial);
+        assertEquals("requests", 1, this.requestCount.get());
+    }
+
+    @Test
+    public void testRetrieve_LayersCacheDirectory() throws Exception {
+        CapabilitiesCache<String> cache = new CapabilitiesCache<>(this.parser);
+        cache.setCacheDirectory(this.cacheDirectory);
+        cache.retrieve(this.url, Collections.singletonList("a"));
+
+        // Partial and complete capabilities revalidate the same stored document
+        CapabilitiesCache<String> restored = new CapabilitiesCache<>(this.parser);
+        restored.setCacheDirectory(this.cacheDirectory);
+        String complete = restored.retrieve(this.url);
+
+        assertEquals("complete capabilities", this.document, complete);
+        assertEquals("downloads", 1, this.downloadCount.get());
+    }
+
+    @Test
+    public void testRemove() throws Exception {
+        CapabilitiesCache<String> cache = new CapabilitiesCache<>(this.parser);
+        cache.setCacheDirectory(this.cacheDirectory);
+        cache.retrieve(this.url);
+
+        cache.remove(this.url);
+        cache.retrieve(this.url);
+
+        assertEquals("downloads", 2, this.downloadCount.get());
+        assertNull("conditional request", this.conditionalHeaders.get(1));
+    }
+
+    @Test
+    public void testRetrieve_MaxEntries() throws Exception {
+        CapabilitiesCache<String> cache = new CapabilitiesCache<>(this.parser);
+        cache.setMaxEntries(2);
+        String a = this.url + "&SERVICE=A";
+        String b = this.url + "&SERVICE=B";
+        String c = this.url + "&SERVICE=C";
+
+        cache.retrieve(a);
+        cache.retrieve(b);
+        cache.retrieve(a); // a is now more recently retrieved than b
+        cache.retrieve(c); // discards b
+        assertEquals("requests", 3, this.requestCount.get());
+
+        cache.retrieve(a);
+        cache.retrieve(c);
+        assertEquals("retained entries", 3, this.requestCount.get());
+
+        cache.retrieve(b);
+        assertEquals("discarded entry", 4, this.requestCount.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetMaxEntries_Invalid() throws Exception {
+        new CapabilitiesCache<>(this.parser).setMaxEntries(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_NullParser() throws Exception {
+        new CapabilitiesCache<String>(null);
+    }
+
+    private void corruptCachedDocuments() throws IOException {
+        File[] files = this.cacheDirectory.listFiles();
+        for (File file : files) {
+            if (file.getName().endsWith(".xml")) {
+                OutputStream outputStream = new FileOutputStream(file);
+                outputStream.write("<Capab".getBytes("UTF-8")); // a truncated document
+                outputStream.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.ogc;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import gov.nasa.worldwind.geom.Location;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.render.ImageSource;
+import gov.nasa.worldwind.render.ImageTile;
+import gov.nasa.worldwind.util.Level;
+import gov.nasa.worldwind.util.LevelSet;
+import gov.nasa.worldwind.util.Logger;
+
+import static gov.nasa.worldwind.ogc.WmsTileFactoryTest.COMMON_LAYER_NAMES;
+import static gov.nasa.worldwind.ogc.WmsTileFactoryTest.COMMON_SERVICE_ADDRESS;
+import static gov.nasa.worldwind.ogc.WmsTileFactoryTest.COMMON_WMS_VERSION;
+
+/**
+ * Reports the number of WMS tiles created per second, comparing tiles identified by their factory, level, row and
+ * column with tiles whose URL is constructed eagerly. Excluded from the unit tests; run with
+ * <code>./gradlew :worldwind:testDebugUnitTest -Pbenchmarks --tests '*WmsTileFactoryBenchmark'</code>.
+ */
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class WmsTileFactoryBenchmark {
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+    }
+
+    @Test
+    public void benchmarkCreateTile() throws Exception {
+        WmsTileFactory wmsFactory = new WmsTileFactory(COMMON_SERVICE_ADDRESS, COMMON_WMS_VERSION, COMMON_LAYER_NAMES, null);
+        LevelSet levelSet = new LevelSet(new Sector().setFullSphere(), new Location(-90, -180), 45, 20, 256, 256);
+        Level level = levelSet.level(10);
+        int count = 100000;
+        long checksum = 0;
+        long lazyNanos = 0, eagerNanos = 0;
+
+        for (int pass = 0; pass < 2; pass++) { // the first pass warms up the JIT compiler
+            long start = System.nanoTime();
+            for (int idx = 0; idx < count; idx++) {
+                int row = idx % 1024, col = idx / 1024;
+                Sector sector = new Sector(-90 + row * level.tileDelta, -180 + col * level.tileDelta, level.tileDelta, level.tileDelta);
+                ImageTile tile = (ImageTile) wmsFactory.createTile(sector, level, row, col);
+                checksum += tile.getImageSource().hashCode();
+            }
+            long lazy = System.nanoTime();
+            for (int idx = 0; idx < count; idx++) {
+                int row = idx % 1024, col = idx / 1024;
+                Sector sector = new Sector(-90 + row * level.tileDelta, -180 + col * level.tileDelta, level.tileDelta, level.tileDelta);
+                ImageTile tile = new ImageTile(sector, level, row, col);
+                tile.setImageSource(ImageSource.fromUrl(wmsFactory.urlForTile(sector, level.tileWidth, level.tileHeight)));
+                checksum += tile.getImageSource().hashCode();
+            }
+            long eager = System.nanoTime();
+
+            lazyNanos = lazy - start;
+            eagerNanos = eager - lazy;
+        }
+
+        System.out.printf("WmsTileFactory: %,.0f tiles per second (eager URLs %,.0f), checksum %d%n",
+            count / (lazyNanos / 1.0e9), count / (eagerNanos / 1.0e9), checksum);
+    }
+}
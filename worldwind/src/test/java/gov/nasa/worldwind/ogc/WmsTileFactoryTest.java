@@ -15,7 +15,12 @@ import org.powermock.modules.junit4.PowerMockRunner;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import gov.nasa.worldwind.geom.Location;
 import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.render.ImageSource;
+import gov.nasa.worldwind.render.ImageTile;
+import gov.nasa.worldwind.util.Level;
+import gov.nasa.worldwind.util.LevelSet;
 import gov.nasa.worldwind.util.Logger;
 
 import static junit.framework.Assert.assertEquals;
@@ -881,6 +886,54 @@ public class WmsTileFactoryTest {
         checkUrl(url, standardWmsMapFactory);
     }
 
+    @Test
+    public void testCreateTile_ImageSource() {
+        WmsTileFactory wmsFactory = new WmsTileFactory(COMMON_SERVICE_ADDRESS, COMMON_WMS_VERSION, COMMON_LAYER_NAMES, null);
+        LevelSet levelSet = new LevelSet(new Sector().setFullSphere(), new Location(-90, -180), 90, 5, 256, 256);
+        Level level = levelSet.firstLevel();
+        Sector sector = new Sector(-90, -180, 90, 90);
+
+        ImageTile tile = (ImageTile) wmsFactory.createTile(sector, level, 0, 0);
+        ImageTile same = (ImageTile) wmsFactory.createTile(new Sector(sector), level, 0, 0);
+        ImageTile other = (ImageTile) wmsFactory.createTile(new Sector(-90, -90, 90, 90), level, 0, 1);
+
+        assertTrue("url", tile.getImageSource().isUrl());
+        assertEquals("url", wmsFactory.urlForTile(sector, level.tileWidth, level.tileHeight), tile.getImageSource().asUrl());
+        assertEquals("equivalent tiles", tile.getImageSource(), same.getImageSource());
+        assertEquals("equivalent hash codes", tile.getImageSource().hashCode(), same.getImageSource().hashCode());
+        assertFalse("different tiles", tile.getImageSource().equals(other.getImageSource()));
+    }
+
+    @Test
+    public void testUrlForTile_PropertyChanged() {
+        WmsTileFactory wmsFactory = new WmsTileFactory(COMMON_SERVICE_ADDRESS, COMMON_WMS_VERSION, COMMON_LAYER_NAMES, null);
+        Sector sector = new Sector(NOTIONAL_MIN_LAT, NOTIONAL_MIN_LON, 90, 90);
+        wmsFactory.urlForTile(sector, NOTIONAL_WIDTH, NOTIONAL_HEIGHT);
+
+        wmsFactory.setCoordinateSystem(SYSTEM_CRS84);
+        wmsFactory.setTimeString("1800-ZULU");
+        String url = wmsFactory.urlForTile(sector, NOTIONAL_WIDTH, NOTIONAL_HEIGHT);
+
+        checkUrl(url, wmsFactory);
+    }
+
+    @Test
+    public void testCreateTile_ImageSourcePropertyChanged() {
+        WmsTileFactory wmsFactory = new WmsTileFactory(COMMON_SERVICE_ADDRESS, COMMON_WMS_VERSION, COMMON_LAYER_NAMES, null);
+        LevelSet levelSet = new LevelSet(new Sector().setFullSphere(), new Location(-90, -180), 90, 5, 256, 256);
+        Level level = levelSet.firstLevel();
+        Sector sector = new Sector(-90, -180, 90, 90);
+
+        ImageTile before = (ImageTile) wmsFactory.createTile(sector, level, 0, 0);
+        ImageSource beforeSource = before.getImageSource();
+        wmsFactory.setTimeString("1800-ZULU");
+        ImageTile after = (ImageTile) wmsFactory.createTile(sector, level, 0, 0);
+        ImageSource afterSource = after.getImageSource();
+
+        assertFalse("different image sources", beforeSource.equals(afterSource));
+        assertEquals("equivalent image sources", afterSource, ((ImageTile) wmsFactory.createTile(sector, level, 0, 0)).getImageSource());
+    }
+
     /**
      * Test the provided {@link String} url against the {@link WmsTileFactory} objects properties. This method will test
      * that the parameters of {@link WmsTileFactory} are properly represented in the url. This method uses the {@link
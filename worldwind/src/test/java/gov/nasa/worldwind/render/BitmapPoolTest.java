@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.render;
+
+import android.graphics.Bitmap;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest({Logger.class, Bitmap.class}) // We mock the Logger class to avoid its calls to android.util.log
+public class BitmapPoolTest {
+
+    private static final int TILE_BYTES = 256 * 256 * 4;
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+    }
+
+    @Test
+    public void testConstructor() throws Exception {
+        BitmapPool pool = new BitmapPool(TILE_BYTES);
+
+        assertEquals("capacity", TILE_BYTES, pool.getCapacity());
+        assertEquals("used capacity", 0, pool.getUsedCapacity());
+        assertEquals("bitmap count", 0, pool.getBitmapCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_InvalidCapacity() throws Exception {
+        new BitmapPool(0);
+    }
+
+    @Test
+    public void testAcquire_MatchingBucket() throws Exception {
+        BitmapPool pool = new BitmapPool(4 * TILE_BYTES);
+        Bitmap rgba = mockBitmap(256, 256, Bitmap.Config.ARGB_8888, true);
+        Bitmap rgb = mockBitmap(256, 256, Bitmap.Config.RGB_565, true);
+        pool.release(rgba);
+        pool.release(rgb);
+
+        assertNull("different width", pool.acquire(512, 256, Bitmap.Config.ARGB_8888));
+        assertNull("different height", pool.acquire(256, 512, Bitmap.Config.ARGB_8888));
+        assertSame("rgb bucket", rgb, pool.acquire(256, 256, Bitmap.Config.RGB_565));
+        assertSame("rgba bucket", rgba, pool.acquire(256, 256, Bitmap.Config.ARGB_8888));
+        assertNull("empty bucket", pool.acquire(256, 256, Bitmap.Config.ARGB_8888));
+        assertEquals("hit count", 2, pool.getHitCount());
+        assertEquals("miss count", 3, pool.getMissCount());
+        assertEquals("used capacity", 0, pool.getUsedCapacity());
+    }
+
+    @Test
+    public void testAcquire_MostRecentlyReleased() throws Exception {
+        BitmapPool pool = new BitmapPool(4 * TILE_BYTES);
+        Bitmap first = mockBitmap(256, 256, Bitmap.Config.ARGB_8888, true);
+        Bitmap second = mockBitmap(256, 256, Bitmap.Config.ARGB_8888, true);
+        pool.release(first);
+        pool.release(second);
+
+        assertSame("second", second, pool.acquire(256, 256, Bitmap.Config.ARGB_8888));
+        assertSame("first", first, pool.acquire(256, 256, Bitmap.Config.ARGB_8888));
+    }
+
+    @Test
+    public void testRelease_UnusableBitmaps() throws Exception {
+        BitmapPool pool = new BitmapPool(TILE_BYTES);
+        Bitmap recycled = mockBitmap(256, 256, Bitmap.Config.ARGB_8888, true);
+        PowerMockito.when(recycled.isRecycled()).thenReturn(true);
+
+        assertFalse("null", pool.release(null));
+        assertFalse("immutable", pool.release(mockBitmap(256, 256, Bitmap.Config.ARGB_8888, false)));
+        assertFalse("recycled", pool.release(recycled));
+        assertFalse("exceeds capacity", pool.release(mockBitmap(512, 256, Bitmap.Config.ARGB_8888, true)));
+        assertEquals("bitmap count", 0, pool.getBitmapCount());
+        assertEquals("release count", 0, pool.getReleaseCount());
+    }
+
+    @Test
+    public void testRelease_EvictsLeastRecentlyReleased() throws Exception {
+        BitmapPool pool = new BitmapPool(2 * TILE_BYTES);
+        Bitmap first = mockBitmap(256, 256, Bitmap.Config.ARGB_8888, true);
+        Bitmap second = mockBitmap(128, 128, Bitmap.Config.ARGB_8888, true);
+        Bitmap third = mockBitmap(256, 256, Bitmap.Config.ARGB_8888, true);
+        Bitmap fourth = mockBitmap(256, 256, Bitmap.Config.ARGB_8888, true);
+        pool.release(first);
+        pool.release(second);
+        pool.release(third);
+
+        assertEquals("used capacity", TILE_BYTES + 128 * 128 * 4, pool.getUsedCapacity());
+        assertEquals("first eviction count", 1, pool.getEvictionCount());
+
+        pool.release(fourth);
+
+        assertEquals("used capacity", 2 * TILE_BYTES, pool.getUsedCapacity());
+        assertEquals("second eviction count", 2, pool.getEvictionCount());
+        assertNull("evicted bucket", pool.acquire(128, 128, Bitmap.Config.ARGB_8888));
+        assertSame("fourth", fourth, pool.acquire(256, 256, Bitmap.Config.ARGB_8888));
+        assertSame("third", third, pool.acquire(256, 256, Bitmap.Config.ARGB_8888));
+        assertNull("first", pool.acquire(256, 256, Bitmap.Config.ARGB_8888));
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        BitmapPool pool = new BitmapPool(2 * TILE_BYTES);
+        pool.release(mockBitmap(256, 256, Bitmap.Config.ARGB_8888, true));
+
+        pool.clear();
+
+        assertEquals("used capacity", 0, pool.getUsedCapacity());
+        assertEquals("bitmap count", 0, pool.getBitmapCount());
+        assertEquals("release count", 1, pool.getReleaseCount());
+        assertNull("cleared", pool.acquire(256, 256, Bitmap.Config.ARGB_8888));
+    }
+
+    /**
+     * Simulates streaming tiles that are each decoded, uploaded and returned to the pool, with a bounded number of
+     * bitmaps in flight. Verifies that every decode after the first few reuses a pooled bitmap.
+     */
+    @Test
+    public void testTileStreaming() throws Exception {
+        BitmapPool pool = new BitmapPool(8 * TILE_BYTES);
+        Bitmap[] inFlight = new Bitmap[6];
+        int newBitmaps = 0;
+
+        for (int tile = 0; tile < 1000; tile++) {
+            int slot = tile % inFlight.length;
+            if (inFlight[slot] != null) {
+                assertTrue("released", pool.release(inFlight[slot])); // the tile's texture has been uploaded
+            }
+
+            Bitmap bitmap = pool.acquire(256, 256, Bitmap.Config.ARGB_8888);
+            if (bitmap == null) {
+                bitmap = mockBitmap(256, 256, Bitmap.Config.ARGB_8888, true);
+                newBitmaps++;
+            }
+            inFlight[slot] = bitmap;
+        }
+
+        assertEquals("new bitmaps", inFlight.length, newBitmaps);
+        assertEquals("hit count", 1000 - inFlight.length, pool.getHitCount());
+        assertEquals("eviction count", 0, pool.getEvictionCount());
+    }
+
+    private static Bitmap mockBitmap(int width, int height, Bitmap.Config config, boolean mutable) {
+        Bitmap bitmap = PowerMockito.mock(Bitmap.class);
+        PowerMockito.when(bitmap.getWidth()).thenReturn(width);
+        PowerMockito.when(bitmap.getHeight()).thenReturn(height);
+        PowerMockito.when(bitmap.getConfig()).thenReturn(config);
+        PowerMockito.when(bitmap.getByteCount()).thenReturn(width * height * (config == Bitmap.Config.RGB_565 ? 2 : 4));
+        PowerMockito.when(bitmap.isMutable()).thenReturn(mutable);
+        return bitmap;
+    }
+}
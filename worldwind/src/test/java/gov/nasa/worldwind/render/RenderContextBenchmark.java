@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.render;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.List;
+import java.util.Random;
+
+import gov.nasa.worldwind.geom.Vec3;
+import gov.nasa.worldwind.shape.Placemark;
+import gov.nasa.worldwind.util.Logger;
+
+/**
+ * Reports the time to render a frame of 10,000 placemarks spread across the globe, viewed from orbit, with and without
+ * culling placemarks behind the horizon. Excluded from the unit tests; run with
+ * <code>./gradlew :worldwind:testDebugUnitTest -Pbenchmarks --tests '*RenderContextBenchmark'</code>.
+ */
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class RenderContextBenchmark {
+
+    private RenderContextTest scene;
+
+    @Before
+    public void setUp() throws Exception {
+        // Use the unit test's globe and render context setup, which also mocks Logger
+        this.scene = new RenderContextTest();
+        this.scene.setUp();
+    }
+
+    @Test
+    public void benchmarkHorizonCulling() throws Exception {
+        List<Placemark> placemarks = RenderContextTest.placemarks(new Random(47), 10000);
+        RenderContext culled = this.scene.renderContext(30, -100, 2e7, new RenderContext());
+        RenderContext unculled = this.scene.renderContext(30, -100, 2e7, new RenderContext() {
+            @Override
+            public boolean isBehindHorizon(Vec3 center, double radius) {
+                return false;
+            }
+        });
+
+        int frameCount = 20;
+        long culledNanos = 0, unculledNanos = 0;
+        for (int pass = 0; pass < 3; pass++) { // the first passes warm up the JIT compiler
+            culledNanos = renderFrames(culled, placemarks, frameCount);
+            unculledNanos = renderFrames(unculled, placemarks, frameCount);
+        }
+
+        int culledCount = RenderContextTest.renderFrame(culled, placemarks);
+        int unculledCount = RenderContextTest.renderFrame(unculled, placemarks);
+        System.out.printf("RenderContext: %,d placemarks, %.2f ms per frame with %,d drawables (without culling %.2f ms, %,d drawables)%n",
+            placemarks.size(), culledNanos / 1e6 / frameCount, culledCount, unculledNanos / 1e6 / frameCount, unculledCount);
+    }
+
+    private static long renderFrames(RenderContext rc, List<Placemark> placemarks, int frameCount) {
+        long start = System.nanoTime();
+        for (int frame = 0; frame < frameCount; frame++) {
+            RenderContextTest.renderFrame(rc, placemarks);
+        }
+        return System.nanoTime() - start;
+    }
+}
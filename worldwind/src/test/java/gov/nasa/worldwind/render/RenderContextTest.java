@@ -5,17 +5,193 @@
 
 package gov.nasa.worldwind.render;
 
+import android.content.res.Resources;
+import android.util.DisplayMetrics;
+
+import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.WorldWindow;
+import gov.nasa.worldwind.draw.DrawableQueue;
+import gov.nasa.worldwind.geom.Camera;
+import gov.nasa.worldwind.geom.Line;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.geom.Vec3;
+import gov.nasa.worldwind.globe.Globe;
+import gov.nasa.worldwind.globe.ProjectionWgs84;
+import gov.nasa.worldwind.shape.Placemark;
+import gov.nasa.worldwind.util.Logger;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
 public class RenderContextTest {
+
+    private static final int VIEWPORT_SIZE = 1000;
+
+    private Globe globe;
+
+    private Resources resources;
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+
+        this.globe = new Globe(WorldWind.WGS84_ELLIPSOID, new ProjectionWgs84());
+        this.resources = PowerMockito.mock(Resources.class);
+        PowerMockito.when(this.resources.getDisplayMetrics()).thenReturn(new DisplayMetrics());
+    }
+
     @Ignore("not implemented")
     @Test
     public void testConstructor_default() throws Exception {
 
         fail("The test case is a stub");
     }
-}
 
+    @Test
+    public void testIsBehindHorizon() throws Exception {
+        RenderContext rc = this.renderContext(0, 0, 1e7, new RenderContext());
+
+        assertFalse("near side", rc.isBehindHorizon(this.point(0, 0, 0), 0));
+        assertFalse("near the horizon", rc.isBehindHorizon(this.point(0, 70, 0), 0));
+        assertTrue("far side", rc.isBehindHorizon(this.point(0, 180, 0), 0));
+        assertTrue("far side sphere", rc.isBehindHorizon(this.point(0, 180, 0), 1e6));
+        assertFalse("far side sphere larger than the globe", rc.isBehindHorizon(this.point(0, 180, 0), 1e7));
+        assertFalse("high above the far side", rc.isBehindHorizon(this.point(0, 120, 1e8), 0));
+        assertTrue("below the horizon", rc.isBehindHorizon(this.point(0, 100, -1e5), 0));
+        assertFalse("above the horizon", rc.isBehindHorizon(this.point(0, 100, 5e6), 0));
+    }
+
+    @Test
+    public void testIsBehindHorizon_CameraBelowTerrain() throws Exception {
+        RenderContext rc = this.renderContext(0, 0, -2e4, new RenderContext());
+
+        assertFalse("camera below the lowest terrain", rc.isBehindHorizon(this.point(0, 180, 0), 0));
+    }
+
+    /**
+     * Verifies that every point reported as behind the horizon is hidden by the globe's ellipsoid lowered to the
+     * lowest terrain, by intersecting the line from the camera to the point with the globe.
+     */
+    @Test
+    public void testIsBehindHorizon_Conservative() throws Exception {
+        Random random = new Random(46);
+        Line line = new Line();
+        Vec3 surfacePoint = new Vec3();
+        int behindCount = 0;
+
+        Globe loweredGlobe = new Globe(WorldWind.WGS84_ELLIPSOID, new ProjectionWgs84());
+        loweredGlobe.getEllipsoid().set(loweredGlobe.getEquatorialRadius() - 11000, loweredGlobe.getEllipsoid().inverseFlattening());
+
+        for (int camera = 0; camera < 20; camera++) {
+            double altitude = Math.pow(10, 3 + random.nextDouble() * 5); // 1 km to 100,000 km
+            RenderContext rc = this.renderContext(random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180, altitude, new RenderContext());
+
+            for (int idx = 0; idx < 1000; idx++) {
+                Vec3 point = this.point(randomLatitude(random), random.nextDouble() * 360 - 180, random.nextDouble() * 1e5 - 1e4);
+                if (rc.isBehindHorizon(point, 0)) {
+                    line.origin.set(rc.cameraPoint);
+                    line.direction.set(point).subtract(rc.cameraPoint);
+                    assertTrue("line intersects the globe", loweredGlobe.intersect(line, surfacePoint));
+                    assertTrue("globe is in front of the point", rc.cameraPoint.distanceTo(surfacePoint) < rc.cameraPoint.distanceTo(point));
+                    behindCount++;
+                }
+            }
+        }
+
+        assertTrue("points behind the horizon", behindCount > 0);
+    }
+
+    @Test
+    public void testScratch() throws Exception {
+        RenderContext rc = new RenderContext();
+        RenderContext other = new RenderContext();
+        Vec3 scratch = new Vec3();
+
+        assertNull("before put", rc.getScratch(Vec3.class));
+        assertNull("put returns previous", rc.putScratch(Vec3.class, scratch));
+        assertSame("after put", scratch, rc.getScratch(Vec3.class));
+        assertNull("other context", other.getScratch(Vec3.class));
+
+        rc.reset();
+        assertSame("retained after reset", scratch, rc.getScratch(Vec3.class));
+    }
+
+    @Test
+    public void testRender_HorizonCulling() throws Exception {
+        List<Placemark> placemarks = placemarks(new Random(47), 1000);
+        RenderContext culled = this.renderContext(30, -100, 2e7, new RenderContext());
+        RenderContext unculled = this.renderContext(30, -100, 2e7, new RenderContext() {
+            @Override
+            public boolean isBehindHorizon(Vec3 center, double radius) {
+                return false;
+            }
+        });
+
+        assertTrue("fewer drawables", renderFrame(culled, placemarks) < renderFrame(unculled, placemarks));
+    }
+
+    /**
+     * Creates placemarks uniformly distributed on the globe.
+     */
+    static List<Placemark> placemarks(Random random, int count) {
+        List<Placemark> placemarks = new ArrayList<>();
+        for (int idx = 0; idx < count; idx++) {
+            Placemark placemark = new Placemark(Position.fromDegrees(randomLatitude(random), random.nextDouble() * 360 - 180, 0));
+            placemark.setAltitudeMode(WorldWind.ABSOLUTE);
+            placemarks.add(placemark);
+        }
+
+        return placemarks;
+    }
+
+    static int renderFrame(RenderContext rc, List<Placemark> placemarks) {
+        rc.drawableQueue.clearDrawables();
+        for (int idx = 0, len = placemarks.size(); idx < len; idx++) {
+            placemarks.get(idx).render(rc);
+        }
+        return rc.drawableQueue.count();
+    }
+
+    private static double randomLatitude(Random random) {
+        return Math.toDegrees(Math.asin(random.nextDouble() * 2 - 1)); // uniformly distributed on the sphere
+    }
+
+    private Vec3 point(double latitude, double longitude, double altitude) {
+        return this.globe.geographicToCartesian(latitude, longitude, altitude, new Vec3());
+    }
+
+    RenderContext renderContext(double latitude, double longitude, double altitude, RenderContext rc) {
+        rc.globe = this.globe;
+        rc.resources = this.resources;
+        rc.renderResourceCache = PowerMockito.mock(RenderResourceCache.class); // no textures are available
+        rc.drawableQueue = new DrawableQueue();
+        rc.camera = new Camera(PowerMockito.mock(WorldWindow.class)).set(latitude, longitude, altitude, WorldWind.ABSOLUTE, 0, 0, 0);
+        rc.cameraPoint = this.globe.geographicToCartesian(latitude, longitude, altitude, rc.cameraPoint);
+        rc.horizonDistance = this.globe.horizonDistance(Math.max(0, altitude));
+        rc.viewport.set(0, 0, VIEWPORT_SIZE, VIEWPORT_SIZE);
+        rc.projection.setToPerspectiveProjection(VIEWPORT_SIZE, VIEWPORT_SIZE, rc.camera.getFieldOfView(), Math.max(1, altitude * 0.1), altitude + 2e7);
+        this.globe.geographicToCartesianTransform(latitude, longitude, altitude, rc.modelview);
+        rc.modelview.invertOrthonormal();
+        rc.modelviewProjection.setToMultiply(rc.projection, rc.modelview);
+        rc.frustum.setToModelviewProjection(rc.projection, rc.modelview, rc.viewport);
+        return rc;
+    }
+}
@@ -0,0 +1,356 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.shape;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import gov.nasa.worldwind.PickedObjectList;
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.WorldWindow;
+import gov.nasa.worldwind.geom.Camera;
+import gov.nasa.worldwind.geom.Line;
+import gov.nasa.worldwind.geom.Matrix4;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.geom.Vec2;
+import gov.nasa.worldwind.geom.Vec3;
+import gov.nasa.worldwind.geom.Viewport;
+import gov.nasa.worldwind.globe.Globe;
+import gov.nasa.worldwind.globe.ProjectionWgs84;
+import gov.nasa.worldwind.layer.RenderableLayer;
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.render.Renderable;
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class ScenePickIndexTest {
+
+    private static final int VIEWPORT_SIZE = 1000;
+
+    private static final double CAMERA_ALTITUDE = 1e5;
+
+    private Globe globe;
+
+    private Camera camera;
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+
+        this.globe = new Globe(WorldWind.WGS84_ELLIPSOID, new ProjectionWgs84());
+        this.camera = new Camera(PowerMockito.mock(WorldWindow.class));
+        this.camera.set(0, 0, CAMERA_ALTITUDE, WorldWind.ABSOLUTE, 0, 0, 0);
+    }
+
+    @Test
+    public void testFindCandidates_Segments() throws Exception {
+        ScenePickIndex index = new ScenePickIndex();
+        Renderable near = new Placemark(Position.fromDegrees(0, 0, 0));
+        Renderable far = new Placemark(Position.fromDegrees(0, 0, 0));
+        Vec3 point = this.globe.geographicToCartesian(0, 0, 0, new Vec3());
+        Vec3 offset = this.globe.geographicToCartesian(0, 0.1, 0, new Vec3());
+        index.addSegment(near, null, point, point, 10);
+        index.addSegment(far, null, offset, offset, 10);
+
+        RenderContext rc = this.pickAt(VIEWPORT_SIZE / 2, VIEWPORT_SIZE / 2);
+        assertEquals("candidate count", 1, index.findCandidates(rc));
+        assertSame("candidate", near, index.getCandidateRenderable(0));
+    }
+
+    @Test
+    public void testFindCandidates_PixelExtent() throws Exception {
+        ScenePickIndex index = new ScenePickIndex();
+        Renderable renderable = new Placemark(Position.fromDegrees(0, 0, 0));
+        Vec3 point = this.globe.geographicToCartesian(0, 0, 0, new Vec3());
+        index.addSegment(renderable, null, point, point, 20);
+
+        // The pick ray passes 30 pixels from the point, beyond the point's extent and the pick tolerance.
+        RenderContext rc = this.pickAt(VIEWPORT_SIZE / 2 + 30, VIEWPORT_SIZE / 2);
+        assertEquals("outside extent", 0, index.findCandidates(rc));
+
+        // The pick ray passes 20 pixels from the point, within the point's extent.
+        rc = this.pickAt(VIEWPORT_SIZE / 2 + 20, VIEWPORT_SIZE / 2);
+        assertEquals("within extent", 1, index.findCandidates(rc));
+    }
+
+    @Test
+    public void testFindCandidates_Sector() throws Exception {
+        ScenePickIndex index = new ScenePickIndex();
+        Renderable inside = new Polygon();
+        Renderable outside = new Polygon();
+        index.addSector(inside, null, Sector.fromDegrees(-1, -1, 2, 2), 1);
+        index.addSector(outside, null, Sector.fromDegrees(5, 5, 2, 2), 1);
+
+        RenderContext rc = this.pickAt(VIEWPORT_SIZE / 2, VIEWPORT_SIZE / 2);
+        rc.pickTerrainPosition = Position.fromDegrees(0, 0, 0);
+        rc.pickTerrainDistance = CAMERA_ALTITUDE;
+        assertEquals("candidate count", 1, index.findCandidates(rc));
+        assertSame("candidate", inside, index.getCandidateRenderable(0));
+
+        rc.pickTerrainPosition = null; // the pick ray misses the terrain
+        assertEquals("no terrain", 0, index.findCandidates(rc));
+    }
+
+    @Test
+    public void testFindCandidates_Unbounded() throws Exception {
+        ScenePickIndex index = new ScenePickIndex();
+        Renderable renderable = new Path();
+        index.addBoundingBox(renderable, null, new Path().boundingBox, 1); // a shape's box is a unit box until computed
+        index.addSector(renderable, null, new Sector(), 1);
+
+        RenderContext rc = this.pickAt(0, 0);
+        assertEquals("always candidates", 2, index.findCandidates(rc));
+    }
+
+    @Test
+    public void testFindCandidates_RecordedOrder() throws Exception {
+        Random random = new Random(7);
+        ScenePickIndex index = new ScenePickIndex();
+        Vec3 point = this.globe.geographicToCartesian(0, 0, 0, new Vec3());
+        List<Renderable> renderables = new ArrayList<>();
+        for (int idx = 0; idx < 100; idx++) {
+            Renderable renderable = new Placemark(Position.fromDegrees(0, 0, 0));
+            renderables.add(renderable);
+            if (idx % 10 == 0) {
+                index.addSector(renderable, null, new Sector(), 0);
+            } else {
+                Vec3 offset = new Vec3(point).add(new Vec3(random.nextGaussian(), random.nextGaussian(), random.nextGaussian()));
+                index.addSegment(renderable, null, point, offset, 1);
+            }
+        }
+
+        RenderContext rc = this.pickAt(VIEWPORT_SIZE / 2, VIEWPORT_SIZE / 2);
+        assertEquals("candidate count", 100, index.findCandidates(rc));
+        for (int idx = 0; idx < 100; idx++) {
+            assertSame("candidate " + idx, renderables.get(idx), index.getCandidateRenderable(idx));
+        }
+    }
+
+    @Test
+    public void testFindCandidates_MatchesExhaustiveSearch() throws Exception {
+        Random random = new Random(11);
+        ScenePickIndex index = new ScenePickIndex();
+        for (int idx = 0; idx < 2000; idx++) {
+            Vec3 point1 = this.globe.geographicToCartesian((random.nextDouble() - 0.5) * 0.8,
+                (random.nextDouble() - 0.5) * 0.8, random.nextDouble() * 5000, new Vec3());
+            Vec3 point2 = new Vec3(point1).add(new Vec3(random.nextGaussian(), random.nextGaussian(), random.nextGaussian()).multiply(200));
+            index.addSegment(new Placemark(Position.fromDegrees(0, 0, 0)), null, point1, point2, random.nextDouble() * 20);
+        }
+
+        int hits = 0;
+        for (int trial = 0; trial < 200; trial++) {
+            RenderContext rc = this.pickAt(random.nextInt(VIEWPORT_SIZE), random.nextInt(VIEWPORT_SIZE));
+            double toleranceRate = rc.pixelSizeAtDistance(1);
+            List<Integer> expected = new ArrayList<>();
+            for (int entry = 0; entry < index.getEntryCount(); entry++) {
+                double pixels = index.pixels[entry] + rc.analyticPickTolerance;
+                if (ScenePickIndex.lineIntersectsBox(rc.pickRay, toleranceRate * pixels, index.bounds, entry * 6)) {
+                    expected.add(entry);
+                }
+            }
+
+            int count = index.findCandidates(rc);
+            assertEquals("trial " + trial, expected.size(), count);
+            for (int idx = 0; idx < count; idx++) {
+                assertEquals("trial " + trial + " candidate " + idx, (int) expected.get(idx), index.candidates[idx]);
+            }
+            hits += count;
+        }
+
+        assertTrue("some picks find candidates", hits > 0);
+    }
+
+    @Test
+    public void testAnalyticPick_MatchesFullRender() throws Exception {
+        Random random = new Random(13);
+        RenderableLayer layer = new RenderableLayer();
+        for (int idx = 0; idx < 500; idx++) {
+            AbstractShape shape = (idx % 2 == 0) ? randomPath(random) : randomPolygon(random);
+            shape.setPathType(WorldWind.LINEAR);
+            layer.addRenderable(shape);
+        }
+
+        // Pick every shape once to assemble its geometry and bounding box, then record each shape's bounds as a frame
+        // displaying the layer would.
+        this.renderLayer(layer, this.pickAt(VIEWPORT_SIZE / 2, VIEWPORT_SIZE / 2));
+        ScenePickIndex index = new ScenePickIndex();
+        RenderContext rc = this.pickAt(VIEWPORT_SIZE / 2, VIEWPORT_SIZE / 2);
+        rc.scenePickIndex = index;
+        rc.currentLayer = layer;
+        for (Renderable renderable : layer) {
+            AbstractShape shape = (AbstractShape) renderable;
+            shape.determineActiveAttributes(rc);
+            shape.recordPickBounds(rc);
+        }
+        index.endFrame(rc);
+
+        int hits = 0;
+        for (int trial = 0; trial < 500; trial++) {
+            int x = random.nextInt(VIEWPORT_SIZE), y = random.nextInt(VIEWPORT_SIZE);
+            clearPickedObjectIds(layer);
+            RenderContext fullRc = this.renderLayer(layer, this.pickAt(x, y));
+            AbstractShape expected = pickedShape(fullRc, layer);
+
+            clearPickedObjectIds(layer);
+            RenderContext indexRc = this.pickAt(x, y);
+            assertTrue("index is current", index.isCurrent(indexRc));
+            int count = index.findCandidates(indexRc);
+            List<Renderable> candidates = new ArrayList<>();
+            for (int idx = 0; idx < count; idx++) {
+                indexRc.currentLayer = index.getCandidateLayer(idx);
+                index.getCandidateRenderable(idx).render(indexRc);
+                candidates.add(index.getCandidateRenderable(idx));
+            }
+
+            assertSame("trial " + trial, expected, pickedShape(indexRc, candidates));
+            assertTrue("trial " + trial + " renders fewer shapes", count < layer.count());
+            hits += (expected != null) ? 1 : 0;
+        }
+
+        assertTrue("picks hit shapes", hits > 0);
+    }
+
+    @Test
+    public void testIsCurrent() throws Exception {
+        ScenePickIndex index = new ScenePickIndex();
+        RenderContext rc = this.pickAt(0, 0);
+        assertFalse("before frame", index.isCurrent(rc));
+
+        index.endFrame(rc);
+        assertTrue("after frame", index.isCurrent(rc));
+
+        rc.verticalExaggeration = 2;
+        assertFalse("vertical exaggeration changed", index.isCurrent(rc));
+
+        rc = this.pickAt(0, 0);
+        rc.modelview.multiplyByTranslation(1, 0, 0);
+        rc.modelviewProjection.setToMultiply(rc.projection, rc.modelview);
+        assertFalse("camera moved", index.isCurrent(rc));
+
+        index.clear();
+        assertFalse("after clear", index.isCurrent(this.pickAt(0, 0)));
+    }
+
+    @Test
+    public void testAddEntries() throws Exception {
+        ScenePickIndex source = new ScenePickIndex();
+        RenderableLayer layer = new RenderableLayer();
+        Vec3 point = this.globe.geographicToCartesian(0, 0, 0, new Vec3());
+        Renderable[] renderables = new Renderable[4];
+        for (int idx = 0; idx < renderables.length; idx++) {
+            renderables[idx] = new Placemark(Position.fromDegrees(0, 0, 0));
+            source.addSegment(renderables[idx], layer, point, point, 1);
+        }
+
+        ScenePickIndex index = new ScenePickIndex();
+        index.addEntries(source, 1, 3);
+        assertEquals("entry count", 2, index.getEntryCount());
+
+        assertEquals("candidate count", 2, index.findCandidates(this.pickAt(VIEWPORT_SIZE / 2, VIEWPORT_SIZE / 2)));
+        assertSame("first candidate", renderables[1], index.getCandidateRenderable(0));
+        assertSame("second candidate", renderables[2], index.getCandidateRenderable(1));
+        assertSame("layer", layer, index.getCandidateLayer(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddEntries_InvalidRange() throws Exception {
+        new ScenePickIndex().addEntries(new ScenePickIndex(), 0, 1);
+    }
+
+    private RenderContext pickAt(double x, double y) {
+        RenderContext rc = new RenderContext();
+        rc.globe = this.globe;
+        rc.camera = this.camera;
+        rc.cameraPoint = this.globe.geographicToCartesian(0, 0, CAMERA_ALTITUDE, new Vec3());
+        rc.horizonDistance = this.globe.horizonDistance(CAMERA_ALTITUDE);
+        rc.viewport.set(0, 0, VIEWPORT_SIZE, VIEWPORT_SIZE);
+        rc.projection.setToPerspectiveProjection(VIEWPORT_SIZE, VIEWPORT_SIZE, this.camera.getFieldOfView(), 1000, 1e6);
+        rc.modelview.setToTranslation(-rc.cameraPoint.x, -rc.cameraPoint.y, -rc.cameraPoint.z); // look straight down
+        rc.modelviewProjection.setToMultiply(rc.projection, rc.modelview);
+
+        int px = (int) Math.round(x);
+        int py = (int) Math.round(y);
+        rc.pickMode = true;
+        rc.analyticPickMode = true;
+        rc.analyticPickTolerance = 1;
+        rc.pickedObjects = new PickedObjectList();
+        rc.pickViewport = new Viewport(px - 2, py - 2, 5, 5);
+        rc.pickPoint = new Vec2(px, py);
+        rc.pickRay = new Line();
+        rc.frustum.setToModelviewProjection(rc.projection, rc.modelview, rc.viewport, rc.pickViewport);
+
+        Matrix4 inverse = new Matrix4().invertMatrix(rc.modelviewProjection);
+        inverse.unProject(x, y, rc.viewport, rc.pickRay.origin, rc.pickRay.direction);
+        rc.pickRay.direction.subtract(rc.pickRay.origin).normalize();
+
+        return rc;
+    }
+
+    private RenderContext renderLayer(RenderableLayer layer, RenderContext rc) {
+        rc.currentLayer = layer;
+        layer.render(rc);
+        return rc;
+    }
+
+    private static void clearPickedObjectIds(RenderableLayer layer) {
+        for (Renderable renderable : layer) {
+            ((AbstractShape) renderable).pickedObjectId = 0; // shapes outside the pick frustum keep their previous ID
+        }
+    }
+
+    private static AbstractShape pickedShape(RenderContext rc, Iterable<Renderable> rendered) {
+        int id = rc.nearestPickedObjectId();
+        for (Renderable renderable : rendered) {
+            if (id != 0 && ((AbstractShape) renderable).pickedObjectId == id) {
+                return (AbstractShape) renderable;
+            }
+        }
+
+        return null;
+    }
+
+    private static Path randomPath(Random random) {
+        double lat = (random.nextDouble() - 0.5) * 0.8;
+        double lon = (random.nextDouble() - 0.5) * 0.8;
+        List<Position> positions = new ArrayList<>();
+        for (int idx = 0; idx < 20; idx++) {
+            lat += random.nextGaussian() * 0.002;
+            lon += random.nextGaussian() * 0.002;
+            positions.add(Position.fromDegrees(lat, lon, 1000 + random.nextDouble() * 1000));
+        }
+
+        return new Path(positions);
+    }
+
+    private static Polygon randomPolygon(Random random) {
+        double lat = (random.nextDouble() - 0.5) * 0.8;
+        double lon = (random.nextDouble() - 0.5) * 0.8;
+        double size = random.nextDouble() * 0.01;
+        List<Position> positions = new ArrayList<>();
+        positions.add(Position.fromDegrees(lat, lon, 500));
+        positions.add(Position.fromDegrees(lat, lon + size, 500));
+        positions.add(Position.fromDegrees(lat + size, lon + size, 500));
+        positions.add(Position.fromDegrees(lat + size, lon, 500));
+
+        return new Polygon(positions);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.shape;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.globe.Globe;
+import gov.nasa.worldwind.globe.ProjectionWgs84;
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.util.Logger;
+
+/**
+ * Compares the render thread time spent loading many polygons when their geometry is assembled synchronously and when
+ * it is assembled in the background by ShapeGeometryAssembler. Excluded from the unit tests; run with
+ * <code>./gradlew :worldwind:testDebugUnitTest -Pbenchmarks --tests '*ShapeGeometryAssemblerBenchmark'</code>.
+ */
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class ShapeGeometryAssemblerBenchmark {
+
+    private RenderContext rc;
+
+    private ShapeGeometryAssembler assembler;
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+
+        this.rc = new RenderContext();
+        this.rc.globe = new Globe(WorldWind.WGS84_ELLIPSOID, new ProjectionWgs84());
+        this.rc.verticalExaggeration = 1;
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (this.assembler != null) {
+            this.assembler.shutdown();
+        }
+    }
+
+    @Test
+    public void benchmarkLoadTime() throws Exception {
+        int polygonCount = 2000;
+        this.assembler = new ShapeGeometryAssembler(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), polygonCount);
+        this.rc.geometryAssembler = this.assembler;
+
+        List<Polygon> syncPolygons = new ArrayList<>();
+        List<Polygon> asyncPolygons = new ArrayList<>();
+        for (int idx = 0; idx < polygonCount; idx++) {
+            double lat = (idx % 100) - 50, lon = (idx / 100) * 10 - 100;
+            syncPolygons.add(polygon(lat, lon, false));
+            asyncPolygons.add(polygon(lat, lon, true));
+        }
+
+        long syncStart = System.nanoTime();
+        for (Polygon polygon : syncPolygons) {
+            polygon.assembleGeometry(this.rc);
+        }
+        long syncElapsed = System.nanoTime() - syncStart;
+
+        long submitStart = System.nanoTime();
+        for (Polygon polygon : asyncPolygons) {
+            polygon.submitAssembly(this.rc, new Polygon.GeometryAssembly(polygon));
+        }
+        long submitElapsed = System.nanoTime() - submitStart;
+
+        int publishCount = 0;
+        long publishElapsed = 0;
+        long deadline = System.currentTimeMillis() + 60000;
+        while (publishCount < polygonCount && System.currentTimeMillis() < deadline) {
+            long publishStart = System.nanoTime();
+            publishCount += this.assembler.publishResults();
+            publishElapsed += System.nanoTime() - publishStart;
+            Thread.sleep(1);
+        }
+
+        System.out.printf("ShapeGeometryAssembler: %d polygons (%d published), render thread %.1f ms synchronous, %.1f ms background (%d threads)%n",
+            polygonCount, publishCount, syncElapsed / 1.0e6, (submitElapsed + publishElapsed) / 1.0e6, this.assembler.getThreadCount());
+    }
+
+    private static Polygon polygon(double lat, double lon, boolean backgroundAssembly) {
+        List<Position> positions = new ArrayList<>();
+        for (int idx = 0; idx < 32; idx++) {
+            double angle = 2 * Math.PI * idx / 32;
+            positions.add(Position.fromDegrees(lat + 0.5 * Math.sin(angle), lon + 0.5 * Math.cos(angle), 1e4));
+        }
+
+        Polygon polygon = new Polygon(positions);
+        polygon.setAltitudeMode(WorldWind.ABSOLUTE);
+        polygon.setExtrude(true);
+        polygon.setBackgroundAssembly(backgroundAssembly);
+        return polygon;
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.shape;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.globe.Globe;
+import gov.nasa.worldwind.globe.ProjectionWgs84;
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class ShapeGeometryAssemblerTest {
+
+    private RenderContext rc;
+
+    private ShapeGeometryAssembler assembler;
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+
+        this.rc = new RenderContext();
+        this.rc.globe = new Globe(WorldWind.WGS84_ELLIPSOID, new ProjectionWgs84());
+        this.rc.verticalExaggeration = 1;
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (this.assembler != null) {
+            this.assembler.shutdown();
+        }
+    }
+
+    /**
+     * An assembly that records its publication and optionally blocks its worker thread until released.
+     */
+    private static class RecordingAssembly implements ShapeGeometryAssembler.Assembly {
+
+        private final int id;
+
+        private final List<Integer> published;
+
+        private final CountDownLatch release;
+
+        private volatile boolean assembled;
+
+        public RecordingAssembly(int id, List<Integer> published, CountDownLatch release) {
+            this.id = id;
+            this.published = published;
+            this.release = release;
+        }
+
+        @Override
+        public void assemble(RenderContext rc) {
+            try {
+                if (this.release != null) {
+                    this.release.await(5, TimeUnit.SECONDS);
+                }
+            } catch (InterruptedException ignored) {
+            }
+
+            this.assembled = true;
+        }
+
+        @Override
+        public void publish() {
+            this.published.add(this.id);
+        }
+
+        @Override
+        public void publishFailure(Throwable failure) {
+            this.published.add(-this.id - 1);
+        }
+    }
+
+    private static void awaitDone(ShapeGeometryAssembler.Job job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!job.isDone() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    public void testConstructor() throws Exception {
+        this.assembler = new ShapeGeometryAssembler(2, 16);
+
+        assertEquals("thread count", 2, this.assembler.getThreadCount());
+        assertEquals("capacity", 16, this.assembler.getCapacity());
+        assertEquals("pending count", 0, this.assembler.getPendingCount());
+        assertFalse("saturated", this.assembler.isSaturated());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_InvalidThreadCount() throws Exception {
+        new ShapeGeometryAssembler(0, 16);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_InvalidCapacity() throws Exception {
+        new ShapeGeometryAssembler(1, 0);
+    }
+
+    @Test
+    public void testPublishResults_SubmissionOrder() throws Exception {
+        this.assembler = new ShapeGeometryAssembler(4, 16);
+        List<Integer> published = new ArrayList<>();
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+
+        // The first assembly blocks until released, so the later assemblies complete ahead of it.
+        ShapeGeometryAssembler.Job first = this.assembler.submit(this.rc, new RecordingAssembly(0, published, releaseFirst));
+        List<ShapeGeometryAssembler.Job> jobs = new ArrayList<>();
+        for (int idx = 1; idx < 4; idx++) {
+            jobs.add(this.assembler.submit(this.rc, new RecordingAssembly(idx, published, null)));
+        }
+
+        for (ShapeGeometryAssembler.Job job : jobs) {
+            awaitDone(job);
+        }
+
+        assertEquals("published before first completes", 0, this.assembler.publishResults());
+        assertTrue("nothing published", published.isEmpty());
+
+        releaseFirst.countDown();
+        awaitDone(first);
+
+        assertEquals("published after first completes", 4, this.assembler.publishResults());
+        assertEquals("pending count", 0, this.assembler.getPendingCount());
+        for (int idx = 0; idx < 4; idx++) {
+            assertEquals("publication order", idx, (int) published.get(idx));
+        }
+    }
+
+    @Test
+    public void testSubmit_Saturated() throws Exception {
+        this.assembler = new ShapeGeometryAssembler(1, 2);
+        List<Integer> published = new ArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+
+        assertNotNull("first submission", this.assembler.submit(this.rc, new RecordingAssembly(0, published, release)));
+        assertNotNull("second submission", this.assembler.submit(this.rc, new RecordingAssembly(1, published, release)));
+        assertTrue("saturated", this.assembler.isSaturated());
+        assertNull("rejected submission", this.assembler.submit(this.rc, new RecordingAssembly(2, published, release)));
+        assertEquals("pending count", 2, this.assembler.getPendingCount());
+
+        release.countDown();
+    }
+
+    @Test
+    public void testPublishResults_Cancelled() throws Exception {
+        this.assembler = new ShapeGeometryAssembler(1, 16);
+        List<Integer> published = new ArrayList<>();
+
+        ShapeGeometryAssembler.Job cancelled = this.assembler.submit(this.rc, new RecordingAssembly(0, published, null));
+        ShapeGeometryAssembler.Job kept = this.assembler.submit(this.rc, new RecordingAssembly(1, published, null));
+        cancelled.cancel();
+        awaitDone(cancelled);
+        awaitDone(kept);
+
+        assertEquals("published count", 1, this.assembler.publishResults());
+        assertEquals("published size", 1, published.size());
+        assertEquals("published id", 1, (int) published.get(0));
+    }
+
+    @Test
+    public void testPolygon_BackgroundAssembly() throws Exception {
+        this.assembler = new ShapeGeometryAssembler(2, 16);
+        this.rc.geometryAssembler = this.assembler;
+
+        Polygon polygon = new Polygon(boundary(0, 0, 1, 8));
+        polygon.setAltitudeMode(WorldWind.ABSOLUTE);
+        polygon.setBackgroundAssembly(true);
+
+        assertTrue("must assemble in background", polygon.mustAssembleInBackground(this.rc));
+        polygon.submitAssembly(this.rc, new Polygon.GeometryAssembly(polygon));
+        assertEquals("no geometry before publication", 0, polygon.vertexArray.size());
+
+        awaitDone(polygon.assemblyJob);
+        assertEquals("published count", 1, this.assembler.publishResults());
+
+        // Compare the published geometry to geometry assembled on this thread.
+        Polygon expected = new Polygon(boundary(0, 0, 1, 8));
+        expected.setAltitudeMode(WorldWind.ABSOLUTE);
+        expected.assembleGeometry(this.rc);
+
+        assertNull("assembly job", polygon.assemblyJob);
+        assertEquals("vertex count", expected.vertexArray.size(), polygon.vertexArray.size());
+        assertEquals("top element count", expected.topElements.size(), polygon.topElements.size());
+        assertEquals("outline element count", expected.outlineElements.size(), polygon.outlineElements.size());
+    }
+
+    @Test
+    public void testPolygon_AssemblyFailure() throws Exception {
+        this.assembler = new ShapeGeometryAssembler(1, 16);
+        this.rc.geometryAssembler = this.assembler;
+
+        Polygon polygon = new Polygon(boundary(0, 0, 1, 8));
+        polygon.setAltitudeMode(WorldWind.ABSOLUTE);
+        polygon.setBackgroundAssembly(true);
+
+        polygon.submitAssembly(this.rc, new Polygon.GeometryAssembly(polygon) {
+            @Override
+            public void assemble(RenderContext rc) {
+                throw new RuntimeException("assembly failure");
+            }
+        });
+        awaitDone(polygon.assemblyJob);
+
+        assertEquals("published count", 0, this.assembler.publishResults());
+        assertEquals("pending count", 0, this.assembler.getPendingCount());
+        assertNull("assembly job", polygon.assemblyJob);
+        assertFalse("must assemble in background", polygon.mustAssembleInBackground(this.rc));
+
+        // The polygon falls back to assembling its geometry in the foreground.
+        polygon.prepareGeometry(this.rc);
+        assertTrue("foreground geometry", polygon.vertexArray.size() > 0);
+        assertNull("assembly job after foreground assembly", polygon.assemblyJob);
+        assertTrue("background assembly restored", polygon.mustAssembleInBackground(this.rc));
+    }
+
+    @Test
+    public void testPolygon_TerrainDependent() throws Exception {
+        this.assembler = new ShapeGeometryAssembler(1, 16);
+        this.rc.geometryAssembler = this.assembler;
+
+        Polygon polygon = new Polygon(boundary(0, 0, 1, 8));
+        polygon.setAltitudeMode(WorldWind.RELATIVE_TO_GROUND);
+        polygon.setBackgroundAssembly(true);
+
+        assertFalse("terrain dependent geometry", polygon.mustAssembleInBackground(this.rc));
+    }
+
+    private static List<Position> boundary(double lat, double lon, double radius, int count) {
+        List<Position> positions = new ArrayList<>();
+        for (int idx = 0; idx < count; idx++) {
+            double angle = 2 * Math.PI * idx / count;
+            positions.add(Position.fromDegrees(lat + radius * Math.sin(angle), lon + radius * Math.cos(angle), 1e4));
+        }
+
+        return positions;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.shape;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.List;
+
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.util.Logger;
+
+/**
+ * Measures the throughput of assembling a one million vertex path and dividing its geometry into chunks addressable by
+ * 16-bit element indices. Excluded from the unit tests; run with
+ * <code>./gradlew :worldwind:testDebugUnitTest -Pbenchmarks --tests '*ShapeGeometryChunkerBenchmark'</code>.
+ */
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class ShapeGeometryChunkerBenchmark {
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+    }
+
+    @Test
+    public void benchmarkAssemblyThroughput() throws Exception {
+        RenderContext rc = ShapeGeometryChunkerTest.newRenderContext();
+        Path path = ShapeGeometryChunkerTest.millionVertexPath(true);
+        ShapeGeometryChunker chunker = new ShapeGeometryChunker();
+
+        long assembleStart = System.nanoTime();
+        path.assembleGeometry(rc);
+        long assembleElapsed = System.nanoTime() - assembleStart;
+
+        long chunkStart = System.nanoTime();
+        List<ShapeGeometryChunker.Chunk> chunks = chunker.chunk(path.vertexArray.array(), Path.VERTEX_STRIDE, AbstractShape.levelElementModes(Path.ELEMENT_MODES, path.levelTolerances.length), path.elementGroups());
+        long chunkElapsed = System.nanoTime() - chunkStart;
+
+        int vertexCount = path.vertexArray.size() / Path.VERTEX_STRIDE;
+        System.out.printf("ShapeGeometryChunker: %d vertices, assembly %.1f Mvertices/s, chunking %.1f Mvertices/s into %d chunks%n",
+            vertexCount, vertexCount / (assembleElapsed / 1.0e3), vertexCount / (chunkElapsed / 1.0e3), chunks.size());
+    }
+}
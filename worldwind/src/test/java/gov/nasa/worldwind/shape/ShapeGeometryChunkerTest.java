@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.shape;
+
+import android.opengl.GLES20;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.globe.Globe;
+import gov.nasa.worldwind.globe.ProjectionWgs84;
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.util.IntArray;
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class ShapeGeometryChunkerTest {
+
+    private static final int PATH_VERTEX_COUNT = 1000000;
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_InvalidVertexCount() throws Exception {
+        new ShapeGeometryChunker(ShapeGeometryChunker.MAX_SHORT_INDEX_VERTICES + 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testChunk_InvalidMode() throws Exception {
+        new ShapeGeometryChunker().chunk(new float[3], 1, new int[]{GLES20.GL_POINTS}, new IntArray[]{indices(0, 1, 2)});
+    }
+
+    @Test
+    public void testChunk_Triangles() throws Exception {
+        int vertexCount = 200000;
+        Random random = new Random(1);
+        IntArray triangles = new IntArray();
+        for (int idx = 0; idx < 100000; idx++) {
+            triangles.add(random.nextInt(vertexCount)).add(random.nextInt(vertexCount)).add(random.nextInt(vertexCount));
+        }
+
+        List<ShapeGeometryChunker.Chunk> chunks = new ShapeGeometryChunker().chunk(identityVertices(vertexCount), 1,
+            new int[]{GLES20.GL_TRIANGLES}, new IntArray[]{triangles});
+
+        // Every triangle appears in exactly one chunk, in its original order, with its original vertices.
+        IntArray actual = new IntArray();
+        for (ShapeGeometryChunker.Chunk chunk : chunks) {
+            assertTrue("chunk vertex count", chunk.getVertexCount() <= ShapeGeometryChunker.MAX_SHORT_INDEX_VERTICES);
+            assertEquals("chunk element count", 0, chunk.elementCounts[0] % 3);
+            appendSourceIndices(chunk, 0, actual);
+        }
+
+        assertTrue("chunk count", chunks.size() > 1);
+        assertArrayEquals(triangles, actual);
+    }
+
+    @Test
+    public void testChunk_TriangleStrip() throws Exception {
+        int vertexCount = 101;
+        IntArray strip = new IntArray();
+        for (int idx = 0; idx < vertexCount; idx++) {
+            strip.add(idx);
+        }
+
+        List<ShapeGeometryChunker.Chunk> chunks = new ShapeGeometryChunker(16).chunk(identityVertices(vertexCount), 1,
+            new int[]{GLES20.GL_TRIANGLE_STRIP}, new IntArray[]{strip});
+
+        // The chunked strips produce the same triangles as the original strip, with the same winding order.
+        List<String> expected = stripTriangles(strip);
+        List<String> actual = new ArrayList<>();
+        for (ShapeGeometryChunker.Chunk chunk : chunks) {
+            assertTrue("chunk vertex count", chunk.getVertexCount() <= 16);
+            IntArray chunkStrip = new IntArray();
+            appendSourceIndices(chunk, 0, chunkStrip);
+            actual.addAll(stripTriangles(chunkStrip));
+        }
+
+        assertEquals("triangles", expected, actual);
+    }
+
+    @Test
+    public void testChunk_MultipleGroups() throws Exception {
+        int vertexCount = 1000;
+        IntArray lines = new IntArray();
+        IntArray triangles = new IntArray();
+        for (int idx = 0; idx < vertexCount - 2; idx++) {
+            lines.add(idx).add(idx + 1);
+            triangles.add(idx).add(idx + 1).add(idx + 2);
+        }
+
+        List<ShapeGeometryChunker.Chunk> chunks = new ShapeGeometryChunker(64).chunk(identityVertices(vertexCount), 1,
+            new int[]{GLES20.GL_TRIANGLES, GLES20.GL_LINES}, new IntArray[]{triangles, lines});
+
+        IntArray actualTriangles = new IntArray();
+        IntArray actualLines = new IntArray();
+        for (ShapeGeometryChunker.Chunk chunk : chunks) {
+            appendSourceIndices(chunk, 0, actualTriangles);
+            appendSourceIndices(chunk, 1, actualLines);
+        }
+
+        assertArrayEquals(triangles, actualTriangles);
+        assertArrayEquals(lines, actualLines);
+    }
+
+    @Test
+    public void testChunk_MillionVertexPath() throws Exception {
+        Path path = millionVertexPath(false);
+        path.assembleGeometry(newRenderContext());
+        assertEquals("path vertex count", PATH_VERTEX_COUNT, path.vertexArray.size() / Path.VERTEX_STRIDE);
+
+        List<ShapeGeometryChunker.Chunk> chunks = new ShapeGeometryChunker().chunk(path.vertexArray.array(), Path.VERTEX_STRIDE,
+            AbstractShape.levelElementModes(Path.ELEMENT_MODES, path.levelTolerances.length), path.elementGroups());
+
+        // The chunked line strips contain every segment of the path, and each strip begins where the previous ends.
+        int segmentCount = 0;
+        float[] prevLastVertex = null;
+        for (ShapeGeometryChunker.Chunk chunk : chunks) {
+            int outlineCount = chunk.elementCounts[Path.OUTLINE_ELEMENTS];
+            assertTrue("chunk vertex count", chunk.getVertexCount() <= ShapeGeometryChunker.MAX_SHORT_INDEX_VERTICES);
+            if (outlineCount == 0) {
+                continue; // chunks may contain only simplified levels of detail
+            }
+            segmentCount += outlineCount - 1;
+
+            float[] firstVertex = chunkVertex(chunk, chunk.elementOffsets[Path.OUTLINE_ELEMENTS], Path.VERTEX_STRIDE);
+            if (prevLastVertex != null) {
+                assertEquals("strip continuity x", prevLastVertex[0], firstVertex[0], 0);
+                assertEquals("strip continuity y", prevLastVertex[1], firstVertex[1], 0);
+                assertEquals("strip continuity z", prevLastVertex[2], firstVertex[2], 0);
+            }
+            prevLastVertex = chunkVertex(chunk, chunk.elementOffsets[Path.OUTLINE_ELEMENTS] + outlineCount - 1, Path.VERTEX_STRIDE);
+        }
+
+        assertEquals("segment count", PATH_VERTEX_COUNT - 1, segmentCount);
+    }
+
+    @Test
+    public void testChunk_MillionVertexExtrudedPath() throws Exception {
+        Path path = millionVertexPath(true);
+        path.assembleGeometry(newRenderContext());
+        assertEquals("path vertex count", PATH_VERTEX_COUNT * 2, path.vertexArray.size() / Path.VERTEX_STRIDE);
+
+        List<ShapeGeometryChunker.Chunk> chunks = new ShapeGeometryChunker().chunk(path.vertexArray.array(), Path.VERTEX_STRIDE,
+            AbstractShape.levelElementModes(Path.ELEMENT_MODES, path.levelTolerances.length), path.elementGroups());
+
+        int verticalCount = 0;
+        int segmentCount = 0;
+        for (ShapeGeometryChunker.Chunk chunk : chunks) {
+            assertTrue("chunk vertex count", chunk.getVertexCount() <= ShapeGeometryChunker.MAX_SHORT_INDEX_VERTICES);
+            verticalCount += chunk.elementCounts[Path.VERTICAL_ELEMENTS];
+            if (chunk.elementCounts[Path.OUTLINE_ELEMENTS] > 0) { // chunks may contain only the interior or simplified levels
+                segmentCount += chunk.elementCounts[Path.OUTLINE_ELEMENTS] - 1;
+            }
+        }
+
+        assertEquals("vertical element count", path.verticalElements.size(), verticalCount);
+        assertEquals("segment count", PATH_VERTEX_COUNT - 1, segmentCount);
+    }
+
+    static RenderContext newRenderContext() {
+        RenderContext rc = new RenderContext();
+        rc.globe = new Globe(WorldWind.WGS84_ELLIPSOID, new ProjectionWgs84());
+        return rc;
+    }
+
+    static Path millionVertexPath(boolean extrude) {
+        List<Position> positions = new ArrayList<>(PATH_VERTEX_COUNT);
+        for (int idx = 0; idx < PATH_VERTEX_COUNT; idx++) {
+            double t = idx / (double) PATH_VERTEX_COUNT;
+            positions.add(Position.fromDegrees(-60 + 120 * t, -180 + 360 * t, 1e3 + Math.sin(idx) * 10));
+        }
+
+        Path path = new Path(positions);
+        path.setAltitudeMode(WorldWind.ABSOLUTE);
+        path.setPathType(WorldWind.LINEAR);
+        path.setExtrude(extrude);
+        return path;
+    }
+
+    private static float[] identityVertices(int count) {
+        float[] array = new float[count];
+        for (int idx = 0; idx < count; idx++) {
+            array[idx] = idx;
+        }
+
+        return array;
+    }
+
+    private static IntArray indices(int... values) {
+        IntArray array = new IntArray();
+        for (int value : values) {
+            array.add(value);
+        }
+
+        return array;
+    }
+
+    private static float[] chunkVertex(ShapeGeometryChunker.Chunk chunk, int element, int stride) {
+        int vertex = chunk.elements.get(element) & 0xFFFF;
+        float[] result = new float[stride];
+        System.arraycopy(chunk.vertexArray.array(), vertex * stride, result, 0, stride);
+        return result;
+    }
+
+    private static void appendSourceIndices(ShapeGeometryChunker.Chunk chunk, int group, IntArray result) {
+        // Chunk vertices created by identityVertices hold their source vertex index.
+        for (int idx = 0; idx < chunk.elementCounts[group]; idx++) {
+            int vertex = chunk.elements.get(chunk.elementOffsets[group] + idx) & 0xFFFF;
+            result.add((int) chunk.vertexArray.get(vertex));
+        }
+    }
+
+    private static List<String> stripTriangles(IntArray strip) {
+        List<String> triangles = new ArrayList<>();
+        for (int idx = 0; idx < strip.size() - 2; idx++) {
+            int a = strip.get(idx), b = strip.get(idx + 1), c = strip.get(idx + 2);
+            if (a == b || b == c || a == c) {
+                continue; // degenerate triangle
+            }
+
+            triangles.add((idx % 2) == 0 ? (a + "," + b + "," + c) : (b + "," + a + "," + c));
+        }
+
+        return triangles;
+    }
+
+    private static void assertArrayEquals(IntArray expected, IntArray actual) {
+        assertEquals("size", expected.size(), actual.size());
+        for (int idx = 0; idx < expected.size(); idx++) {
+            assertEquals("element " + idx, expected.get(idx), actual.get(idx));
+        }
+    }
+}
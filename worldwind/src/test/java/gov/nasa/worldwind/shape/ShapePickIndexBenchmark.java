@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.shape;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.Random;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.WorldWindow;
+import gov.nasa.worldwind.geom.Camera;
+import gov.nasa.worldwind.globe.Globe;
+import gov.nasa.worldwind.globe.ProjectionWgs84;
+import gov.nasa.worldwind.layer.RenderableLayer;
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.util.Logger;
+
+import static gov.nasa.worldwind.shape.ShapePickIndexTest.VIEWPORT_SIZE;
+
+/**
+ * Reports the number of analytic picks per second for scenes with increasing numbers of paths and polygons. Each pick
+ * renders the scene's layer in analytic pick mode on the calling thread, as WorldWindow.pick does, without waiting for
+ * the OpenGL thread. Excluded from the unit tests; run with
+ * <code>./gradlew :worldwind:testDebugUnitTest -Pbenchmarks --tests '*ShapePickIndexBenchmark'</code>.
+ */
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class ShapePickIndexBenchmark {
+
+    private Globe globe;
+
+    private Camera camera;
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+
+        this.globe = new Globe(WorldWind.WGS84_ELLIPSOID, new ProjectionWgs84());
+        this.camera = new Camera(PowerMockito.mock(WorldWindow.class));
+        this.camera.set(0, 0, ShapePickIndexTest.CAMERA_ALTITUDE, WorldWind.ABSOLUTE, 0, 0, 0);
+    }
+
+    @Test
+    public void benchmarkAnalyticPick() throws Exception {
+        Random random = new Random(13);
+
+        for (int shapeCount : new int[]{100, 1000, 10000}) {
+            RenderableLayer layer = new RenderableLayer();
+            for (int idx = 0; idx < shapeCount; idx++) {
+                AbstractShape shape = (idx % 2 == 0) ? ShapePickIndexTest.randomPath(random) : ShapePickIndexTest.randomPolygon(random);
+                shape.setPathType(WorldWind.LINEAR);
+                layer.addRenderable(shape);
+            }
+
+            // Assemble every shape's geometry and pick index before timing the picks.
+            for (int idx = 0; idx < 100; idx++) {
+                ShapePickIndexTest.pickAt(this.globe, this.camera, layer, random.nextInt(VIEWPORT_SIZE), random.nextInt(VIEWPORT_SIZE));
+            }
+
+            int picks = 2000;
+            int hits = 0;
+            long start = System.nanoTime();
+            for (int idx = 0; idx < picks; idx++) {
+                RenderContext rc = ShapePickIndexTest.pickAt(this.globe, this.camera, layer, random.nextInt(VIEWPORT_SIZE), random.nextInt(VIEWPORT_SIZE));
+                hits += (rc.nearestPickedObjectId() != 0) ? 1 : 0;
+            }
+            long elapsed = System.nanoTime() - start;
+
+            System.out.printf("ShapePickIndex: %,d shapes: %,.0f picks per second, %d%% of picks hit a shape%n",
+                shapeCount, picks / (elapsed / 1.0e9), hits * 100 / picks);
+        }
+    }
+}
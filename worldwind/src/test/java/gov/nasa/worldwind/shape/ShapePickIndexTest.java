@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.shape;
+
+import android.opengl.GLES20;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import gov.nasa.worldwind.PickedObjectList;
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.WorldWindow;
+import gov.nasa.worldwind.geom.Camera;
+import gov.nasa.worldwind.geom.Line;
+import gov.nasa.worldwind.geom.Matrix4;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.geom.Vec2;
+import gov.nasa.worldwind.geom.Vec3;
+import gov.nasa.worldwind.geom.Viewport;
+import gov.nasa.worldwind.globe.Globe;
+import gov.nasa.worldwind.globe.ProjectionWgs84;
+import gov.nasa.worldwind.layer.RenderableLayer;
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class ShapePickIndexTest {
+
+    static final int VIEWPORT_SIZE = 1000;
+
+    static final double CAMERA_ALTITUDE = 1e5;
+
+    private Globe globe;
+
+    private Camera camera;
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+
+        this.globe = new Globe(WorldWind.WGS84_ELLIPSOID, new ProjectionWgs84());
+        this.camera = new Camera(PowerMockito.mock(WorldWindow.class));
+        this.camera.set(0, 0, CAMERA_ALTITUDE, WorldWind.ABSOLUTE, 0, 0, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_InvalidMode() throws Exception {
+        new ShapePickIndex(new float[9], 3, GLES20.GL_POINTS, new int[]{0, 1, 2}, 3);
+    }
+
+    @Test
+    public void testIntersectLine_Triangle() throws Exception {
+        float[] vertices = {0, 0, 0, 1, 0, 0, 0, 1, 0};
+        ShapePickIndex index = new ShapePickIndex(vertices, 3, GLES20.GL_TRIANGLES, new int[]{0, 1, 2}, 3);
+
+        assertEquals("inside", 10, index.intersectLine(line(0.25, 0.25, 10), 0, 0), 1.0e-9);
+        assertEquals("outside", Double.POSITIVE_INFINITY, index.intersectLine(line(0.75, 0.75, 10), 0, 0), 0);
+        assertEquals("behind", Double.POSITIVE_INFINITY, index.intersectLine(new Line(new Vec3(0.25, 0.25, 10), new Vec3(0, 0, 1)), 0, 0), 0);
+    }
+
+    @Test
+    public void testIntersectLine_SegmentTolerance() throws Exception {
+        float[] vertices = {0, 0, 0, 1, 0, 0};
+        ShapePickIndex index = new ShapePickIndex(vertices, 3, GLES20.GL_LINE_STRIP, new int[]{0, 1}, 2);
+
+        assertEquals("outside tolerance", Double.POSITIVE_INFINITY, index.intersectLine(line(0.5, 0.5, 10), 0.4, 0), 0);
+        assertEquals("within tolerance", 10, index.intersectLine(line(0.5, 0.5, 10), 0.6, 0), 1.0e-9);
+        assertEquals("within distance scaled tolerance", 10, index.intersectLine(line(0.5, 0.5, 10), 0, 0.06), 1.0e-9);
+    }
+
+    @Test
+    public void testIntersectLine_Nearest() throws Exception {
+        float[] vertices = {0, 0, 0, 1, 0, 0, 0, 1, 0, 0, 0, 5, 1, 0, 5, 0, 1, 5};
+        ShapePickIndex index = new ShapePickIndex(vertices, 3, GLES20.GL_TRIANGLES, new int[]{0, 1, 2, 3, 4, 5}, 6);
+
+        assertEquals("nearest triangle", 5, index.intersectLine(line(0.25, 0.25, 10), 0, 0), 1.0e-9);
+    }
+
+    @Test
+    public void testIntersectLine_MatchesExhaustiveSearch() throws Exception {
+        Random random = new Random(5);
+        int count = 3000;
+        float[] vertices = new float[count * 3];
+        int[] elements = new int[count];
+        double x = 0, y = 0;
+        for (int idx = 0; idx < count; idx++) {
+            x += random.nextGaussian();
+            y += random.nextGaussian();
+            vertices[idx * 3] = (float) x;
+            vertices[idx * 3 + 1] = (float) y;
+            vertices[idx * 3 + 2] = (float) (random.nextGaussian() * 5);
+            elements[idx] = idx;
+        }
+
+        for (int mode : new int[]{GLES20.GL_TRIANGLE_STRIP, GLES20.GL_LINE_STRIP}) {
+            ShapePickIndex index = new ShapePickIndex(vertices, 3, mode, elements, count);
+            int hits = 0;
+            for (int trial = 0; trial < 200; trial++) {
+                Line line = new Line(
+                    new Vec3(random.nextGaussian() * 20, random.nextGaussian() * 20, 100),
+                    new Vec3(random.nextGaussian() * 0.1, random.nextGaussian() * 0.1, -1).normalize());
+                double expected = Double.POSITIVE_INFINITY;
+                for (int prim = 0; prim < index.getPrimitiveCount(); prim++) {
+                    double distance = index.isLines() ? index.intersectSegment(line, 0.5, 0.001, prim * 2) : index.intersectTriangle(line, prim * 3);
+                    expected = Math.min(expected, distance);
+                }
+
+                assertEquals("mode " + mode + " trial " + trial, expected, index.intersectLine(line, 0.5, 0.001), 1.0e-9);
+                hits += (expected != Double.POSITIVE_INFINITY) ? 1 : 0;
+            }
+
+            assertTrue("some lines intersect", hits > 0);
+        }
+    }
+
+    @Test
+    public void testContainsPoint() throws Exception {
+        float[] vertices = {0, 0, 0, 2, 0, 0, 0, 2, 0};
+        ShapePickIndex triangles = new ShapePickIndex(vertices, 3, GLES20.GL_TRIANGLES, new int[]{0, 2, 1}, 3);
+        ShapePickIndex lines = new ShapePickIndex(vertices, 3, GLES20.GL_LINES, new int[]{0, 1}, 2);
+
+        assertTrue("inside clockwise triangle", triangles.containsPoint(0.5, 0.5, 0));
+        assertFalse("outside triangle", triangles.containsPoint(1.5, 1.5, 0));
+        assertTrue("within tolerance", lines.containsPoint(1, 0.1, 0.2));
+        assertFalse("outside tolerance", lines.containsPoint(1, 0.3, 0.2));
+    }
+
+    @Test
+    public void testAnalyticPick() throws Exception {
+        Path path = new Path(Arrays.asList(Position.fromDegrees(0, -0.1, 1000), Position.fromDegrees(0, 0.1, 1000)));
+        path.setPathType(WorldWind.LINEAR);
+        Polygon polygon = new Polygon(Arrays.asList(Position.fromDegrees(-0.1, -0.1, 500), Position.fromDegrees(-0.1, 0.1, 500),
+            Position.fromDegrees(0.1, 0.1, 500), Position.fromDegrees(0.1, -0.1, 500)));
+        polygon.setPathType(WorldWind.LINEAR);
+        Placemark placemark = new Placemark(Position.fromDegrees(0.05, 0.05, 0));
+        RenderableLayer layer = new RenderableLayer();
+        layer.addRenderable(polygon);
+        layer.addRenderable(path);
+        layer.addRenderable(placemark);
+
+        RenderContext rc = this.pickAt(layer, VIEWPORT_SIZE / 2 - 100, VIEWPORT_SIZE / 2);
+        assertEquals("path above polygon", path.pickedObjectId, rc.nearestPickedObjectId());
+
+        rc = this.pickAt(layer, VIEWPORT_SIZE / 2 - 100, VIEWPORT_SIZE / 2 + 50);
+        assertEquals("polygon interior", polygon.pickedObjectId, rc.nearestPickedObjectId());
+
+        Vec3 point = this.globe.geographicToCartesian(0.05, 0.05, 0, new Vec3());
+        Vec3 screenPoint = new Vec3();
+        rc.project(point, screenPoint);
+        rc = this.pickAt(layer, screenPoint.x, screenPoint.y);
+        assertEquals("placemark", placemark.pickedObjectId, rc.nearestPickedObjectId());
+
+        polygon.getAttributes().setDrawInterior(false);
+        rc = this.pickAt(layer, VIEWPORT_SIZE / 2 - 100, VIEWPORT_SIZE / 2 + 50);
+        assertEquals("nothing", 0, rc.nearestPickedObjectId());
+    }
+
+    private RenderContext pickAt(RenderableLayer layer, double x, double y) {
+        return pickAt(this.globe, this.camera, layer, x, y);
+    }
+
+    static RenderContext pickAt(Globe globe, Camera camera, RenderableLayer layer, double x, double y) {
+        RenderContext rc = new RenderContext();
+        rc.globe = globe;
+        rc.camera = camera;
+        rc.cameraPoint = globe.geographicToCartesian(0, 0, CAMERA_ALTITUDE, new Vec3());
+        rc.horizonDistance = globe.horizonDistance(CAMERA_ALTITUDE);
+        rc.viewport.set(0, 0, VIEWPORT_SIZE, VIEWPORT_SIZE);
+        rc.projection.setToPerspectiveProjection(VIEWPORT_SIZE, VIEWPORT_SIZE, camera.getFieldOfView(), 1000, 1e6);
+        rc.modelview.setToTranslation(-rc.cameraPoint.x, -rc.cameraPoint.y, -rc.cameraPoint.z); // look straight down
+        rc.modelviewProjection.setToMultiply(rc.projection, rc.modelview);
+
+        int px = (int) Math.round(x);
+        int py = (int) Math.round(y);
+        rc.pickMode = true;
+        rc.analyticPickMode = true;
+        rc.analyticPickTolerance = 1;
+        rc.pickedObjects = new PickedObjectList();
+        rc.pickViewport = new Viewport(px - 2, py - 2, 5, 5);
+        rc.pickPoint = new Vec2(px, py);
+        rc.pickRay = new Line();
+        rc.frustum.setToModelviewProjection(rc.projection, rc.modelview, rc.viewport, rc.pickViewport);
+
+        Matrix4 inverse = new Matrix4().invertMatrix(rc.modelviewProjection);
+        inverse.unProject(x, y, rc.viewport, rc.pickRay.origin, rc.pickRay.direction);
+        rc.pickRay.direction.subtract(rc.pickRay.origin).normalize();
+
+        rc.currentLayer = layer;
+        layer.render(rc);
+
+        return rc;
+    }
+
+    private static Line line(double x, double y, double z) {
+        return new Line(new Vec3(x, y, z), new Vec3(0, 0, -1));
+    }
+
+    static Path randomPath(Random random) {
+        double lat = (random.nextDouble() - 0.5) * 0.8;
+        double lon = (random.nextDouble() - 0.5) * 0.8;
+        List<Position> positions = new ArrayList<>();
+        for (int idx = 0; idx < 50; idx++) {
+            lat += random.nextGaussian() * 0.002;
+            lon += random.nextGaussian() * 0.002;
+            positions.add(Position.fromDegrees(lat, lon, 1000 + random.nextDouble() * 1000));
+        }
+
+        return new Path(positions);
+    }
+
+    static Polygon randomPolygon(Random random) {
+        double lat = (random.nextDouble() - 0.5) * 0.8;
+        double lon = (random.nextDouble() - 0.5) * 0.8;
+        double radius = 0.002 + random.nextDouble() * 0.01;
+        List<Position> positions = new ArrayList<>();
+        for (int idx = 0; idx < 24; idx++) {
+            double angle = 2 * Math.PI * idx / 24;
+            positions.add(Position.fromDegrees(lat + radius * Math.sin(angle), lon + radius * Math.cos(angle), 1000));
+        }
+
+        return new Polygon(positions);
+    }
+}
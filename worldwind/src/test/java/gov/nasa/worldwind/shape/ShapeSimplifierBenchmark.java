@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.shape;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.globe.Globe;
+import gov.nasa.worldwind.globe.ProjectionWgs84;
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.util.Logger;
+
+/**
+ * Reports the number of vertices drawn for a 500,000 position track at a range of camera distances, and the render
+ * thread time spent selecting a level of detail and computing its element ranges each frame. Excluded from the unit
+ * tests; run with <code>./gradlew :worldwind:testDebugUnitTest -Pbenchmarks --tests '*ShapeSimplifierBenchmark'</code>.
+ */
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class ShapeSimplifierBenchmark {
+
+    private static final int TRACK_POSITION_COUNT = 500000;
+
+    private RenderContext rc;
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+
+        this.rc = new RenderContext();
+        this.rc.globe = new Globe(WorldWind.WGS84_ELLIPSOID, new ProjectionWgs84());
+        this.rc.verticalExaggeration = 1;
+    }
+
+    @Test
+    public void benchmarkZoom() throws Exception {
+        Path path = new Path(ShapeSimplifierTest.track(TRACK_POSITION_COUNT));
+        path.setPathType(WorldWind.LINEAR);
+
+        long assembleStart = System.nanoTime();
+        path.assembleGeometry(this.rc);
+        long assembleElapsed = System.nanoTime() - assembleStart;
+
+        System.out.printf("ShapeSimplifier: %d positions, %d levels, assembled in %.1f ms%n",
+            TRACK_POSITION_COUNT, path.levelTolerances.length, assembleElapsed / 1.0e6);
+
+        int[] offsets = new int[Path.ELEMENT_MODES.length * path.levelTolerances.length];
+        int[] counts = new int[offsets.length];
+        double pixelSizeFactor = 2 * Math.tan(Math.toRadians(45 * 0.5)) / 1920; // 45 degree field of view, 1920 pixels
+        for (double distance = 1e3; distance <= 1e7; distance *= 10) {
+            int frames = 1000;
+            int level = 0;
+            long frameStart = System.nanoTime();
+            for (int frame = 0; frame < frames; frame++) {
+                level = ShapeSimplifier.selectLevel(path.levelTolerances, distance * pixelSizeFactor);
+                AbstractShape.computeElementRanges(path.elementGroups(), 4, offsets, counts);
+            }
+            long frameElapsed = System.nanoTime() - frameStart;
+
+            int vertexCount = counts[level * Path.ELEMENT_MODES.length + Path.OUTLINE_ELEMENTS];
+            System.out.printf("ShapeSimplifier: camera distance %,.0f m: level %d, %,d vertices drawn, %.4f ms per frame%n",
+                distance, level, vertexCount, frameElapsed / 1.0e6 / frames);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.shape;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.globe.Globe;
+import gov.nasa.worldwind.globe.ProjectionWgs84;
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.util.FloatArray;
+import gov.nasa.worldwind.util.IntArray;
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class ShapeSimplifierTest {
+
+    private RenderContext rc;
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+
+        this.rc = new RenderContext();
+        this.rc.globe = new Globe(WorldWind.WGS84_ELLIPSOID, new ProjectionWgs84());
+        this.rc.verticalExaggeration = 1;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_InvalidReductionFactor() throws Exception {
+        new ShapeSimplifier(256, 1, 8);
+    }
+
+    @Test
+    public void testComputeSignificance_StraightLine() throws Exception {
+        float[] vertices = {0, 0, 1, 0, 2, 0, 3, 0};
+        FloatArray result = new ShapeSimplifier().computeSignificance(vertices, 2, 2, new int[]{0, 1, 2, 3}, 0, 4, new FloatArray());
+
+        assertEquals("first endpoint", Float.POSITIVE_INFINITY, result.get(0), 0);
+        assertEquals("interior vertex", 0, result.get(1), 0);
+        assertEquals("interior vertex", 0, result.get(2), 0);
+        assertEquals("last endpoint", Float.POSITIVE_INFINITY, result.get(3), 0);
+    }
+
+    @Test
+    public void testComputeSignificance() throws Exception {
+        // Vertex 1 is farthest from the segment between the endpoints and is split first. Vertex 2 lies on the segment
+        // between vertex 1 and the last endpoint.
+        float[] vertices = {0, 0, 1, 3, 2, 2, 4, 0};
+        FloatArray result = new ShapeSimplifier().computeSignificance(vertices, 2, 2, new int[]{0, 1, 2, 3}, 0, 4, new FloatArray());
+
+        assertEquals("first split", 3, result.get(1), 1.0e-6);
+        assertEquals("collinear vertex", 0, result.get(2), 1.0e-6);
+    }
+
+    /**
+     * Verifies that the vertices whose significance meets a tolerance are exactly those retained by recursive
+     * Douglas-Peucker simplification at that tolerance.
+     */
+    @Test
+    public void testComputeSignificance_MatchesDouglasPeucker() throws Exception {
+        Random random = new Random(7);
+        int count = 500;
+        float[] vertices = new float[count * 3];
+        int[] polyline = new int[count];
+        for (int idx = 0; idx < count; idx++) {
+            vertices[idx * 3] = idx;
+            vertices[idx * 3 + 1] = (float) (Math.sin(idx * 0.05) * 50 + random.nextGaussian());
+            vertices[idx * 3 + 2] = (float) random.nextGaussian();
+            polyline[idx] = idx;
+        }
+
+        FloatArray significance = new ShapeSimplifier().computeSignificance(vertices, 3, 3, polyline, 0, count, new FloatArray());
+
+        for (double tolerance : new double[]{0.5, 1, 2, 5, 20}) {
+            boolean[] expected = new boolean[count];
+            expected[0] = expected[count - 1] = true;
+            douglasPeucker(vertices, 0, count - 1, tolerance, expected);
+
+            for (int idx = 0; idx < count; idx++) {
+                assertEquals("tolerance " + tolerance + " vertex " + idx, expected[idx], significance.get(idx) >= tolerance);
+            }
+        }
+    }
+
+    @Test
+    public void testComputeLevelTolerances() throws Exception {
+        Random random = new Random(11);
+        FloatArray significance = new FloatArray();
+        for (int idx = 0; idx < 100000; idx++) {
+            significance.add((float) random.nextDouble());
+        }
+
+        ShapeSimplifier simplifier = new ShapeSimplifier();
+        double[] tolerances = simplifier.computeLevelTolerances(significance);
+
+        assertEquals("full resolution tolerance", 0, tolerances[0], 0);
+        assertTrue("level count", tolerances.length > 1 && tolerances.length <= simplifier.getMaxLevels());
+        int previousCount = significance.size();
+        for (int level = 1; level < tolerances.length; level++) {
+            assertTrue("increasing tolerance", tolerances[level] > tolerances[level - 1]);
+            int retained = retainedCount(significance, tolerances[level]);
+            assertEquals("reduction factor", previousCount / 4.0, retained, previousCount * 0.01);
+            previousCount = retained;
+        }
+    }
+
+    @Test
+    public void testComputeLevelTolerances_FewVertices() throws Exception {
+        FloatArray significance = new FloatArray();
+        for (int idx = 0; idx < 100; idx++) {
+            significance.add(idx);
+        }
+
+        assertArrayEquals(new double[]{0}, new ShapeSimplifier().computeLevelTolerances(significance), 0);
+    }
+
+    @Test
+    public void testSelectLevel() throws Exception {
+        double[] tolerances = {0, 1, 4, 16};
+
+        assertEquals("below every tolerance", 0, ShapeSimplifier.selectLevel(tolerances, 0.5));
+        assertEquals("between tolerances", 2, ShapeSimplifier.selectLevel(tolerances, 5));
+        assertEquals("above every tolerance", 3, ShapeSimplifier.selectLevel(tolerances, 100));
+    }
+
+    @Test
+    public void testPath_LevelsOfDetail() throws Exception {
+        Path path = new Path(track(20000));
+        path.setPathType(WorldWind.LINEAR);
+        path.setExtrude(true);
+        path.assembleGeometry(this.rc);
+
+        assertTrue("level count", path.levelTolerances.length > 1);
+        int previousCount = path.outlineElements.size();
+        for (IntArray[] groups : path.simplifiedElements) {
+            int outlineCount = groups[Path.OUTLINE_ELEMENTS].size();
+            assertTrue("fewer outline vertices", outlineCount < previousCount);
+            assertEquals("interior pairs", outlineCount * 2, groups[Path.INTERIOR_ELEMENTS].size());
+            assertEquals("vertical pairs", outlineCount * 2, groups[Path.VERTICAL_ELEMENTS].size());
+            previousCount = outlineCount;
+        }
+    }
+
+    @Test
+    public void testPolygon_LevelsOfDetail() throws Exception {
+        List<Position> boundary = new ArrayList<>();
+        for (int idx = 0; idx < 4000; idx++) {
+            double angle = 2 * Math.PI * idx / 4000;
+            double radius = 1 + 0.1 * Math.sin(angle * 40);
+            boundary.add(Position.fromDegrees(radius * Math.sin(angle), radius * Math.cos(angle), 1e4));
+        }
+
+        Polygon polygon = new Polygon(boundary);
+        polygon.setPathType(WorldWind.LINEAR);
+        polygon.assembleGeometry(this.rc);
+
+        assertTrue("level count", polygon.levelTolerances.length > 1);
+        int previousCount = polygon.topElements.size();
+        for (int level = 0; level < polygon.simplifiedElements.length; level++) {
+            int topCount = polygon.simplifiedElements[level][Polygon.TOP_ELEMENTS].size();
+            assertTrue("fewer triangles", topCount > 0 && topCount < previousCount);
+            assertEquals("whole triangles", 0, topCount % 3);
+            previousCount = topCount;
+        }
+
+        // Every level is addressable in a single element buffer.
+        assertEquals("element group count", Polygon.ELEMENT_MODES.length * polygon.levelTolerances.length, polygon.elementGroups().length);
+    }
+
+    @Test
+    public void testPath_ZoomOut() throws Exception {
+        int positionCount = 100000;
+        Path path = new Path(track(positionCount));
+        path.setPathType(WorldWind.LINEAR);
+        path.assembleGeometry(this.rc);
+
+        int[] offsets = new int[Path.ELEMENT_MODES.length * path.levelTolerances.length];
+        int[] counts = new int[offsets.length];
+        AbstractShape.computeElementRanges(path.elementGroups(), 4, offsets, counts);
+
+        // The number of vertices drawn never increases as the camera moves away from the track.
+        int previousCount = Integer.MAX_VALUE;
+        double pixelSizeFactor = 2 * Math.tan(Math.toRadians(45 * 0.5)) / 1920; // 45 degree field of view, 1920 pixels
+        for (double distance = 1e3; distance <= 1e7; distance *= 10) {
+            int level = ShapeSimplifier.selectLevel(path.levelTolerances, distance * pixelSizeFactor);
+            int vertexCount = counts[level * Path.ELEMENT_MODES.length + Path.OUTLINE_ELEMENTS];
+            assertTrue("vertex count at " + distance + " m", vertexCount <= previousCount);
+            previousCount = vertexCount;
+        }
+
+        assertTrue("continent scale simplification", previousCount < positionCount / 100);
+    }
+
+    static List<Position> track(int count) {
+        Random random = new Random(3);
+        List<Position> positions = new ArrayList<>(count);
+        double lat = 30, lon = -100, heading = 0;
+        for (int idx = 0; idx < count; idx++) {
+            heading += random.nextGaussian() * 0.1;
+            lat += Math.cos(heading) * 1.0e-4;
+            lon += Math.sin(heading) * 1.0e-4;
+            positions.add(Position.fromDegrees(lat, lon, 100 + random.nextDouble()));
+        }
+
+        return positions;
+    }
+
+    private static int retainedCount(FloatArray significance, double tolerance) {
+        int count = 0;
+        for (int idx = 0; idx < significance.size(); idx++) {
+            if (significance.get(idx) >= tolerance) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    private static void douglasPeucker(float[] vertices, int begin, int end, double tolerance, boolean[] retained) {
+        double maxDistance = -1;
+        int split = -1;
+        for (int idx = begin + 1; idx < end; idx++) {
+            double distance = ShapeSimplifier.distanceToSegment(vertices, idx * 3, begin * 3, end * 3, 3);
+            if (maxDistance < distance) {
+                maxDistance = distance;
+                split = idx;
+            }
+        }
+
+        if (split >= 0 && maxDistance >= tolerance) {
+            retained[split] = true;
+            douglasPeucker(vertices, begin, split, tolerance, retained);
+            douglasPeucker(vertices, split, end, tolerance, retained);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.shape;
+
+import android.content.res.Resources;
+import android.util.DisplayMetrics;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.geom.Location;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.globe.Globe;
+import gov.nasa.worldwind.globe.ProjectionWgs84;
+import gov.nasa.worldwind.ogc.WmsTileFactory;
+import gov.nasa.worldwind.render.ImageTile;
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.render.RenderResourceCache;
+import gov.nasa.worldwind.util.Level;
+import gov.nasa.worldwind.util.LevelSet;
+import gov.nasa.worldwind.util.Logger;
+import gov.nasa.worldwind.util.LongLruMemoryCache;
+import gov.nasa.worldwind.util.Tile;
+import gov.nasa.worldwind.util.TileFactory;
+
+/**
+ * Reports the memory allocated per frame while the camera zooms from orbit to the ground, comparing tiles whose image
+ * sources are resolved on request and whose extent storage is reused with tiles whose image sources are created
+ * eagerly. Excluded from the unit tests; run with
+ * <code>./gradlew :worldwind:testDebugUnitTest -Pbenchmarks --tests '*TiledSurfaceImageBenchmark'</code>.
+ */
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class TiledSurfaceImageBenchmark {
+
+    private Globe globe;
+
+    private Resources resources;
+
+    private RenderResourceCache renderResourceCache;
+
+    private LevelSet levelSet;
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+
+        this.globe = new Globe(WorldWind.WGS84_ELLIPSOID, new ProjectionWgs84());
+        this.resources = PowerMockito.mock(Resources.class);
+        PowerMockito.when(this.resources.getDisplayMetrics()).thenReturn(new DisplayMetrics());
+        this.renderResourceCache = PowerMockito.mock(RenderResourceCache.class); // no textures are available
+        this.levelSet = new LevelSet(new Sector().setFullSphere(), new Location(-90, -180), 45, 20, 256, 256);
+    }
+
+    @Test
+    public void benchmarkZoomAllocations() throws Exception {
+        final WmsTileFactory wmsFactory = new WmsTileFactory("http://worldwind25.arc.nasa.gov/wms", "1.3.0", "BlueMarble-200405", null);
+        TileFactory eagerFactory = new TileFactory() {
+            @Override
+            public Tile createTile(Sector sector, Level level, int row, int column) {
+                ImageTile tile = (ImageTile) wmsFactory.createTile(sector, level, row, column);
+                tile.getImageSource(); // resolve the image source when the tile is created
+                return tile;
+            }
+        };
+
+        List<RenderContext> frames = new ArrayList<>();
+        for (int location = 0; location < 10; location++) { // zoom to the ground at locations spread across the globe
+            double latitude = -60 + location * 13, longitude = -170 + location * 37;
+            for (double altitude = 1e7; altitude > 1e2; altitude *= 0.9) {
+                frames.add(TiledSurfaceImageTest.renderContext(this.globe, this.resources, this.renderResourceCache,
+                    this.levelSet, latitude, longitude, altitude));
+            }
+        }
+
+        long lazyBytes = 0, eagerBytes = 0;
+        for (int pass = 0; pass < 3; pass++) { // the first passes warm up the JIT compiler
+            TiledSurfaceImageTest.TestSurfaceImage lazy = new TiledSurfaceImageTest.TestSurfaceImage(this.levelSet, wmsFactory);
+            TiledSurfaceImageTest.TestSurfaceImage eager = new TiledSurfaceImageTest.TestSurfaceImage(this.levelSet, eagerFactory);
+            eager.tileCache = new LongLruMemoryCache<>(500);
+            eager.childTileFactory = eagerFactory;
+
+            lazyBytes = renderFrames(lazy, frames);
+            eagerBytes = renderFrames(eager, frames);
+        }
+
+        if (lazyBytes > 0) {
+            System.out.printf("TiledSurfaceImage: %,d bytes allocated per frame during zoom (eager image sources %,d)%n",
+                lazyBytes / frames.size(), eagerBytes / frames.size());
+        } else {
+            System.out.println("TiledSurfaceImage: allocation counting is not supported by this JVM");
+        }
+    }
+
+    private static long renderFrames(TiledSurfaceImage surfaceImage, List<RenderContext> frames) {
+        long start = allocatedBytes();
+        for (RenderContext rc : frames) {
+            surfaceImage.render(rc);
+        }
+        return allocatedBytes() - start;
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        } else {
+            return 0; // allocation counting is not supported by this JVM
+        }
+    }
+}
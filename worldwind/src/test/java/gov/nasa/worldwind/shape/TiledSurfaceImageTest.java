@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.shape;
+
+import android.content.res.Resources;
+import android.util.DisplayMetrics;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.WorldWindow;
+import gov.nasa.worldwind.geom.Camera;
+import gov.nasa.worldwind.geom.Location;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.globe.BasicTerrain;
+import gov.nasa.worldwind.globe.Globe;
+import gov.nasa.worldwind.globe.ProjectionWgs84;
+import gov.nasa.worldwind.globe.TerrainTile;
+import gov.nasa.worldwind.ogc.WmsTileFactory;
+import gov.nasa.worldwind.render.ImageSource;
+import gov.nasa.worldwind.render.ImageTile;
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.render.RenderResourceCache;
+import gov.nasa.worldwind.util.Level;
+import gov.nasa.worldwind.util.LevelSet;
+import gov.nasa.worldwind.util.Logger;
+import gov.nasa.worldwind.util.LongLruMemoryCache;
+import gov.nasa.worldwind.util.Tile;
+import gov.nasa.worldwind.util.TileFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class TiledSurfaceImageTest {
+
+    private static final int VIEWPORT_SIZE = 1000;
+
+    private static final double CAMERA_TILT = 60;
+
+    private Globe globe;
+
+    private Resources resources;
+
+    private RenderResourceCache renderResourceCache;
+
+    private LevelSet levelSet;
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+
+        this.globe = new Globe(WorldWind.WGS84_ELLIPSOID, new ProjectionWgs84());
+        this.resources = PowerMockito.mock(Resources.class);
+        PowerMockito.when(this.resources.getDisplayMetrics()).thenReturn(new DisplayMetrics());
+        this.renderResourceCache = PowerMockito.mock(RenderResourceCache.class); // no textures are available
+        this.levelSet = new LevelSet(new Sector().setFullSphere(), new Location(-90, -180), 45, 20, 256, 256);
+    }
+
+    @Test
+    public void testRender_DefersImageSources() throws Exception {
+        CountingTileFactory tileFactory = new CountingTileFactory();
+        TestSurfaceImage surfaceImage = new TestSurfaceImage(this.levelSet, tileFactory);
+
+        surfaceImage.render(this.renderContext(30, -100, 1e5));
+
+        assertTrue("drawn tiles", surfaceImage.drawnTiles.size() > 0);
+        assertTrue("image sources for drawn and subdivided tiles", tileFactory.imageSourceCount >= surfaceImage.drawnTiles.size());
+        assertTrue("image sources for fewer tiles than created", tileFactory.imageSourceCount < tileFactory.tileCount);
+    }
+
+    @Test
+    public void testRender_ReusesEvictedTiles() throws Exception {
+        TestSurfaceImage surfaceImage = new TestSurfaceImage(this.levelSet, new CountingTileFactory());
+        surfaceImage.tileCache = surfaceImage.newTileCache(20); // evict tiles on nearly every frame
+        TestSurfaceImage expected = new TestSurfaceImage(this.levelSet, new CountingTileFactory());
+        expected.tileCache = new LongLruMemoryCache<>(500);
+        expected.childTileFactory = expected.getTileFactory(); // create new tiles without reusing evicted tiles
+
+        for (double altitude = 1e7; altitude > 1e3; altitude *= 0.8) {
+            RenderContext rc = this.renderContext(30, -100, altitude);
+            surfaceImage.render(rc);
+            expected.render(rc);
+
+            assertEquals("drawn tiles at " + altitude, expected.drawnTileKeys, surfaceImage.drawnTileKeys);
+        }
+    }
+
+    @Test
+    public void testRender_ImageSource() throws Exception {
+        WmsTileFactory tileFactory = new WmsTileFactory("http://worldwind25.arc.nasa.gov/wms", "1.3.0", "BlueMarble-200405", null);
+        TestSurfaceImage surfaceImage = new TestSurfaceImage(this.levelSet, tileFactory);
+
+        surfaceImage.render(this.renderContext(30, -100, 1e5));
+
+        ImageTile tile = surfaceImage.drawnTiles.get(0);
+        ImageSource imageSource = tile.getImageSource();
+        assertNotNull("image source", imageSource);
+        assertEquals("url", tileFactory.urlForTile(tile.sector, tile.level, tile.row, tile.column), imageSource.asUrl());
+    }
+
+    private RenderContext renderContext(double latitude, double longitude, double altitude) {
+        return renderContext(this.globe, this.resources, this.renderResourceCache, this.levelSet, latitude, longitude, altitude);
+    }
+
+    static RenderContext renderContext(Globe globe, Resources resources, RenderResourceCache renderResourceCache,
+                                       LevelSet levelSet, double latitude, double longitude, double altitude) {
+        RenderContext rc = new RenderContext();
+        rc.globe = globe;
+        rc.resources = resources;
+        rc.renderResourceCache = renderResourceCache;
+        rc.camera = new Camera(PowerMockito.mock(WorldWindow.class)).set(latitude, longitude, altitude, WorldWind.ABSOLUTE, 0, CAMERA_TILT, 0);
+        rc.cameraPoint = globe.geographicToCartesian(latitude, longitude, altitude, rc.cameraPoint);
+        rc.horizonDistance = globe.horizonDistance(altitude);
+        rc.viewport.set(0, 0, VIEWPORT_SIZE, VIEWPORT_SIZE);
+        rc.projection.setToPerspectiveProjection(VIEWPORT_SIZE, VIEWPORT_SIZE, rc.camera.getFieldOfView(), altitude * 0.1, rc.horizonDistance + 1e6);
+        globe.geographicToCartesianTransform(latitude, longitude, altitude, rc.modelview);
+        rc.modelview.multiplyByRotation(1, 0, 0, CAMERA_TILT); // look toward the horizon
+        rc.modelview.invertOrthonormal();
+        rc.modelviewProjection.setToMultiply(rc.projection, rc.modelview);
+        rc.frustum.setToModelviewProjection(rc.projection, rc.modelview, rc.viewport);
+
+        BasicTerrain terrain = new BasicTerrain();
+        terrain.addTile(new TerrainTile(new Sector().setFullSphere(), levelSet.firstLevel(), 0, 0));
+        rc.terrain = terrain;
+
+        return rc;
+    }
+
+    /**
+     * Surface image that records its drawn tiles and requests their image sources rather than their textures.
+     */
+    static class TestSurfaceImage extends TiledSurfaceImage {
+
+        public List<ImageTile> drawnTiles = new ArrayList<>();
+
+        public List<String> drawnTileKeys = new ArrayList<>();
+
+        public TestSurfaceImage(LevelSet levelSet, TileFactory tileFactory) {
+            this.setLevelSet(levelSet);
+            this.setTileFactory(tileFactory);
+        }
+
+        public LongLruMemoryCache<Tile[]> newTileCache(int capacity) {
+            return new LongLruMemoryCache<Tile[]>(capacity) {
+                @Override
+                protected void entryRemoved(long key, Tile[] oldValue, Tile[] newValue, boolean evicted) {
+                    if (evicted) {
+                        for (Tile tile : oldValue) {
+                            retiredTiles.release(tile);
+                        }
+                    }
+                }
+            };
+        }
+
+        @Override
+        protected void doRender(RenderContext rc) {
+            this.drawnTiles = new ArrayList<>();
+            this.drawnTileKeys = new ArrayList<>();
+            super.doRender(rc);
+        }
+
+        @Override
+        protected void determineActiveProgram(RenderContext rc) {
+            // no shader program is needed to record drawn tiles
+        }
+
+        @Override
+        protected void addTile(RenderContext rc, ImageTile tile) {
+            this.drawnTiles.add(tile);
+            this.drawnTileKeys.add(tile.getTileKey());
+            tile.getImageSource(); // request the tile's image source as though retrieving its texture
+        }
+    }
+
+    private static class CountingTileFactory implements TileFactory, ImageTile.ImageSourceFactory {
+
+        public int tileCount;
+
+        public int imageSourceCount;
+
+        @Override
+        public Tile createTile(Sector sector, Level level, int row, int column) {
+            ImageTile tile = new ImageTile(sector, level, row, column);
+            tile.setImageSourceFactory(this);
+            this.tileCount++;
+            return tile;
+        }
+
+        @Override
+        public ImageSource createImageSource(ImageTile tile) {
+            this.imageSourceCount++;
+            return ImageSource.fromUrl("http://example.com/" + tile.getTileKey());
+        }
+    }
+}
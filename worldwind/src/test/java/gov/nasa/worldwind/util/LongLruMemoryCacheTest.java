@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class LongLruMemoryCacheTest {
+
+    private List<Long> evictedKeys;
+
+    private LongLruMemoryCache<String> cache;
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+
+        this.evictedKeys = new ArrayList<>();
+        this.cache = new LongLruMemoryCache<String>(4, 2) {
+            @Override
+            protected void entryRemoved(long key, String oldValue, String newValue, boolean evicted) {
+                if (evicted) {
+                    evictedKeys.add(key);
+                }
+            }
+        };
+    }
+
+    @Test
+    public void testPutGet() throws Exception {
+        for (long key = 0; key < 3; key++) {
+            this.cache.put(key << 40, "value" + key, 1);
+        }
+
+        assertEquals("entry count", 3, this.cache.getEntryCount());
+        assertEquals("used capacity", 3, this.cache.getUsedCapacity());
+        assertEquals("value 0", "value0", this.cache.get(0));
+        assertEquals("value 2", "value2", this.cache.get(2L << 40));
+        assertNull("missing key", this.cache.get(1));
+        assertTrue("contains key", this.cache.containsKey(1L << 40));
+    }
+
+    @Test
+    public void testPut_Replace() throws Exception {
+        this.cache.put(7, "old", 1);
+
+        assertEquals("old value", "old", this.cache.put(7, "new", 2));
+        assertEquals("new value", "new", this.cache.get(7));
+        assertEquals("entry count", 1, this.cache.getEntryCount());
+        assertEquals("used capacity", 2, this.cache.getUsedCapacity());
+    }
+
+    @Test
+    public void testMakeSpace_EvictsLeastRecentlyUsed() throws Exception {
+        for (long key = 1; key <= 4; key++) {
+            this.cache.put(key, "value" + key, 1);
+        }
+        this.cache.get(1); // key 1 becomes the most recently used entry
+
+        this.cache.put(5, "value5", 1); // exceeds the capacity; evicts down to the low water
+
+        assertEquals("evicted keys", 2, this.evictedKeys.size());
+        assertEquals("first evicted", 2L, (long) this.evictedKeys.get(0));
+        assertEquals("second evicted", 3L, (long) this.evictedKeys.get(1));
+        assertTrue("recently used key", this.cache.containsKey(1));
+        assertTrue("remaining key", this.cache.containsKey(4));
+        assertTrue("new key", this.cache.containsKey(5));
+        assertEquals("used capacity", 3, this.cache.getUsedCapacity());
+    }
+
+    @Test
+    public void testRemove() throws Exception {
+        this.cache.put(1, "value1", 1);
+        this.cache.put(2, "value2", 1);
+
+        assertEquals("removed value", "value1", this.cache.remove(1));
+        assertNull("removed again", this.cache.remove(1));
+        assertFalse("removed key", this.cache.containsKey(1));
+        assertEquals("remaining value", "value2", this.cache.get(2));
+        assertEquals("entry count", 1, this.cache.getEntryCount());
+        assertTrue("not evicted", this.evictedKeys.isEmpty());
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        this.cache.put(1, "value1", 1);
+        this.cache.put(2, "value2", 1);
+
+        this.cache.clear();
+
+        assertEquals("entry count", 0, this.cache.getEntryCount());
+        assertEquals("used capacity", 0, this.cache.getUsedCapacity());
+        assertNull("cleared key", this.cache.get(1));
+        this.cache.put(3, "value3", 1);
+        assertEquals("value after clear", "value3", this.cache.get(3));
+    }
+
+    @Test
+    public void testGrow() throws Exception {
+        LongLruMemoryCache<Long> largeCache = new LongLruMemoryCache<>(10000);
+        for (long key = 0; key < 1000; key++) {
+            largeCache.put(Tile.tileKey(5, (int) key, (int) (key * 3)), key, 1);
+        }
+
+        assertEquals("entry count", 1000, largeCache.getEntryCount());
+        for (long key = 0; key < 1000; key++) {
+            assertEquals("value " + key, key, (long) largeCache.get(Tile.tileKey(5, (int) key, (int) (key * 3))));
+        }
+    }
+}
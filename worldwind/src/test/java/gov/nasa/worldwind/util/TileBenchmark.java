@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import gov.nasa.worldwind.render.RenderContext;
+
+/**
+ * Reports the cost of traversing a terrain tile quadtree from several camera positions. Excluded from the unit tests;
+ * run with <code>./gradlew :worldwind:testDebugUnitTest -Pbenchmarks --tests '*TileBenchmark'</code>.
+ */
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class TileBenchmark {
+
+    private TileTest scene;
+
+    @Before
+    public void setUp() throws Exception {
+        // Use the unit test's globe, level set and tile cache, which also mocks Logger
+        this.scene = new TileTest();
+        this.scene.setUp();
+    }
+
+    /**
+     * Reports the number of tiles and frustum planes tested per frame, comparing hierarchical culling with testing
+     * every tile against all six frustum planes.
+     */
+    @Test
+    public void benchmarkIntersectsFrustumPlanes() throws Exception {
+        List<Tile> visibleTiles = new ArrayList<>();
+        int iterations = 2000;
+
+        for (double[] camera : TileTest.CAMERAS) {
+            RenderContext rc = this.scene.renderContext(camera);
+            long maskedNanos = 0, unmaskedNanos = 0;
+            int maskedPlanes = 0, unmaskedPlanes = 0, maskedTiles = 0, unmaskedTiles = 0;
+
+            for (int pass = 0; pass < 3; pass++) { // the first passes warm up the JIT compiler
+                long start = System.nanoTime();
+                for (int iteration = 0; iteration < iterations; iteration++) {
+                    visibleTiles.clear();
+                    this.scene.traverse(rc, true, visibleTiles);
+                }
+                maskedNanos = System.nanoTime() - start;
+                maskedTiles = this.scene.tileCount;
+                maskedPlanes = this.scene.planeCount;
+
+                start = System.nanoTime();
+                for (int iteration = 0; iteration < iterations; iteration++) {
+                    visibleTiles.clear();
+                    this.scene.traverse(rc, false, visibleTiles);
+                }
+                unmaskedNanos = System.nanoTime() - start;
+                unmaskedTiles = this.scene.tileCount;
+                unmaskedPlanes = this.scene.planeCount;
+            }
+
+            System.out.printf("Tile: altitude %,.0f m tilt %.0f, %,d tiles and %,d planes tested per frame in %.3f ms (all planes %,d tiles and %,d planes in %.3f ms)%n",
+                camera[2], camera[4], maskedTiles, maskedPlanes, maskedNanos / 1e6 / iterations,
+                unmaskedTiles, unmaskedPlanes, unmaskedNanos / 1e6 / iterations);
+        }
+    }
+
+    /**
+     * Reports the throughput of subdivideToCache for the tiles subdivided in a frame, once their children are cached,
+     * comparing the long-keyed tile cache with a cache keyed by each tile's "level.row.column" string.
+     */
+    @SuppressWarnings("deprecation")
+    @Test
+    public void benchmarkSubdivideToCache() throws Exception {
+        for (double[] camera : TileTest.CAMERAS) {
+            this.scene.traverse(this.scene.renderContext(camera), true, new ArrayList<Tile>()); // subdivide the visible tiles
+        }
+
+        List<Tile> allTiles = new ArrayList<>(this.scene.topLevelTiles);
+        for (int entry = this.scene.tileCache.lruHead; entry != LongLruMemoryCache.NONE; entry = this.scene.tileCache.lruNext[entry]) {
+            Collections.addAll(allTiles, (Tile[]) this.scene.tileCache.values[entry]);
+        }
+
+        List<Tile> parentTiles = new ArrayList<>(); // the tiles whose children are cached
+        for (Tile tile : allTiles) {
+            if (this.scene.tileCache.containsKey(tile.key)) {
+                parentTiles.add(tile);
+            }
+        }
+
+        List<String> stringKeys = new ArrayList<>();
+        LruMemoryCache<String, Tile[]> stringCache = new LruMemoryCache<>(100000);
+        for (Tile tile : parentTiles) {
+            stringKeys.add(tile.getTileKey());
+            stringCache.put(tile.getTileKey(), tile.subdivideToCache(this.scene.tileFactory, this.scene.tileCache, 4), 4);
+        }
+
+        int iterations = 20000;
+        long longNanos = 0, stringNanos = 0;
+        for (int pass = 0; pass < 3; pass++) { // the first passes warm up the JIT compiler
+            long start = System.nanoTime();
+            for (int iteration = 0; iteration < iterations; iteration++) {
+                for (int idx = 0, len = parentTiles.size(); idx < len; idx++) {
+                    parentTiles.get(idx).subdivideToCache(this.scene.tileFactory, this.scene.tileCache, 4);
+                }
+            }
+            longNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int iteration = 0; iteration < iterations; iteration++) {
+                for (int idx = 0, len = stringKeys.size(); idx < len; idx++) {
+                    stringCache.get(stringKeys.get(idx));
+                }
+            }
+            stringNanos = System.nanoTime() - start;
+        }
+
+        int count = parentTiles.size() * iterations;
+        System.out.printf("Tile: %,d tiles, %.1f M tiles/s (string keys %.1f M tiles/s)%n",
+            parentTiles.size(), count * 1e3 / longNanos, count * 1e3 / stringNanos);
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import android.content.res.Resources;
+import android.util.DisplayMetrics;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.WorldWindow;
+import gov.nasa.worldwind.geom.Camera;
+import gov.nasa.worldwind.geom.Frustum;
+import gov.nasa.worldwind.geom.Location;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.globe.Globe;
+import gov.nasa.worldwind.globe.ProjectionWgs84;
+import gov.nasa.worldwind.render.RenderContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class TileTest {
+
+    private static final int VIEWPORT_SIZE = 1000;
+
+    private static final double DETAIL_CONTROL = 80;
+
+    /**
+     * Camera positions and orientations as latitude, longitude, altitude, heading and tilt.
+     */
+    static final double[][] CAMERAS = {
+        {0, 0, 1e7, 0, 0}, {30, -100, 1e6, 0, 0}, {45, 10, 2e5, 30, 60}, {-20, 170, 5e4, 90, 75}, {80, -30, 1e4, 0, 85}};
+
+    private Globe globe;
+
+    private Resources resources;
+
+    private LevelSet levelSet;
+
+    TileFactory tileFactory;
+
+    LongLruMemoryCache<Tile[]> tileCache;
+
+    List<Tile> topLevelTiles;
+
+    int tileCount;
+
+    int planeCount;
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+
+        this.globe = new Globe(WorldWind.WGS84_ELLIPSOID, new ProjectionWgs84());
+        this.resources = PowerMockito.mock(Resources.class);
+        PowerMockito.when(this.resources.getDisplayMetrics()).thenReturn(new DisplayMetrics());
+        this.levelSet = new LevelSet(new Sector().setFullSphere(), new Location(-90, -180), 90, 20, 32, 32);
+        this.tileFactory = new TileFactory() {
+            @Override
+            public Tile createTile(Sector sector, Level level, int row, int column) {
+                return new Tile(sector, level, row, column);
+            }
+        };
+        this.tileCache = new LongLruMemoryCache<>(100000);
+        this.topLevelTiles = new ArrayList<>();
+        Tile.assembleTilesForLevel(this.levelSet.firstLevel(), this.tileFactory, this.topLevelTiles);
+    }
+
+    @Test
+    public void testIntersectsFrustumPlanes_AllPlanes() throws Exception {
+        for (double[] camera : CAMERAS) {
+            RenderContext rc = this.renderContext(camera);
+            this.traverse(rc, true, new ArrayList<Tile>()); // subdivide the tiles visible from this camera
+
+            for (int entry = this.tileCache.lruHead; entry != LongLruMemoryCache.NONE; entry = this.tileCache.lruNext[entry]) {
+                for (Tile tile : (Tile[]) this.tileCache.values[entry]) {
+                    int planeMask = tile.intersectsFrustumPlanes(rc, rc.frustum, Frustum.ALL_PLANES);
+                    assertEquals(tile.getTileKey(), tile.intersectsFrustum(rc, rc.frustum), planeMask >= 0);
+                    assertTrue(tile.getTileKey(), planeMask == -1 || (planeMask & ~Frustum.ALL_PLANES) == 0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testIntersectsFrustumPlanes_Conservative() throws Exception {
+        for (double[] camera : CAMERAS) {
+            RenderContext rc = this.renderContext(camera);
+            List<Tile> expected = new ArrayList<>();
+            List<Tile> actual = new ArrayList<>();
+            this.traverse(rc, false, expected);
+            this.traverse(rc, true, actual);
+
+            Set<Tile> actualSet = new HashSet<>(actual);
+            for (Tile tile : expected) {
+                assertTrue("tile " + tile.getTileKey(), actualSet.contains(tile));
+            }
+        }
+    }
+
+    @Test
+    public void testIntersectsFrustumPlanes_FewerPlanes() throws Exception {
+        for (double[] camera : CAMERAS) {
+            RenderContext rc = this.renderContext(camera);
+            this.traverse(rc, false, new ArrayList<Tile>());
+            int allPlanes = this.planeCount;
+            this.traverse(rc, true, new ArrayList<Tile>());
+
+            assertTrue("planes tested at altitude " + camera[2], this.planeCount <= allPlanes);
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    @Test
+    public void testGetTileKey() throws Exception {
+        Tile tile = new Tile(new Sector(0, 0, 90, 90), this.levelSet.firstLevel(), 1, 2);
+
+        assertNull("not built by the constructor", tile.tileKey);
+        assertEquals("tile key", "0.1.2", tile.getTileKey());
+        assertSame("retained", tile.getTileKey(), tile.tileKey);
+    }
+
+    @SuppressWarnings("deprecation")
+    @Test
+    public void testSubdivideToCache_StringKeys() throws Exception {
+        LruMemoryCache<String, Tile[]> stringCache = new LruMemoryCache<>(100);
+        Tile tile = this.topLevelTiles.get(0);
+
+        Tile[] children = tile.subdivideToCache(this.tileFactory, stringCache, 4);
+
+        assertEquals("child count", 4, children.length);
+        assertSame("cached by tile key", children, stringCache.get(tile.tileKey));
+        assertSame("cached children", children, tile.subdivideToCache(this.tileFactory, stringCache, 4));
+        assertEquals("tile key", tile.level.levelNumber + "." + tile.row + "." + tile.column, tile.getTileKey());
+    }
+
+    void traverse(RenderContext rc, boolean hierarchical, List<Tile> result) {
+        this.tileCount = 0;
+        this.planeCount = 0;
+
+        for (int idx = 0, len = this.topLevelTiles.size(); idx < len; idx++) {
+            this.addTileOrDescendants(rc, this.topLevelTiles.get(idx), hierarchical, Frustum.ALL_PLANES, result);
+        }
+    }
+
+    /**
+     * Traverses a tile quadtree the way BasicTessellator does, testing each tile against either the frustum planes
+     * its parent straddles or all six frustum planes.
+     */
+    private void addTileOrDescendants(RenderContext rc, Tile tile, boolean hierarchical, int planeMask, List<Tile> result) {
+        this.tileCount++;
+        this.planeCount += Integer.bitCount(planeMask);
+
+        planeMask = tile.intersectsFrustumPlanes(rc, rc.frustum, planeMask);
+        if (planeMask < 0) {
+            return;
+        }
+
+        if (tile.level.isLastLevel() || !tile.mustSubdivide(rc, DETAIL_CONTROL)) {
+            result.add(tile);
+            return;
+        }
+
+        for (Tile child : tile.subdivideToCache(this.tileFactory, this.tileCache, 4)) {
+            this.addTileOrDescendants(rc, child, hierarchical, hierarchical ? planeMask : Frustum.ALL_PLANES, result);
+        }
+    }
+
+    RenderContext renderContext(double[] camera) {
+        double latitude = camera[0], longitude = camera[1], altitude = camera[2], heading = camera[3], tilt = camera[4];
+
+        RenderContext rc = new RenderContext();
+        rc.tileVisibility = null; // test each tile's extent
+        rc.globe = this.globe;
+        rc.resources = this.resources;
+        rc.camera = new Camera(PowerMockito.mock(WorldWindow.class)).set(latitude, longitude, altitude, WorldWind.ABSOLUTE, heading, tilt, 0);
+        rc.cameraPoint = this.globe.geographicToCartesian(latitude, longitude, altitude, rc.cameraPoint);
+        rc.horizonDistance = this.globe.horizonDistance(altitude);
+        rc.viewport.set(0, 0, VIEWPORT_SIZE, VIEWPORT_SIZE);
+        rc.projection.setToPerspectiveProjection(VIEWPORT_SIZE, VIEWPORT_SIZE, rc.camera.getFieldOfView(), altitude * 0.5, rc.horizonDistance + 1e5);
+        this.globe.geographicToCartesianTransform(latitude, longitude, altitude, rc.modelview);
+        rc.modelview.multiplyByRotation(0, 0, 1, -heading);
+        rc.modelview.multiplyByRotation(1, 0, 0, tilt);
+        rc.modelview.invertOrthonormal();
+        rc.modelviewProjection.setToMultiply(rc.projection, rc.modelview);
+        rc.frustum.setToModelviewProjection(rc.projection, rc.modelview, rc.viewport);
+        return rc;
+    }
+}
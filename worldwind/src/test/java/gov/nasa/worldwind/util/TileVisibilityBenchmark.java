@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import gov.nasa.worldwind.globe.BasicTessellator;
+import gov.nasa.worldwind.layer.LayerList;
+import gov.nasa.worldwind.render.RenderContext;
+
+/**
+ * Reports the time to select the terrain tiles and the tiles of five image layers with the same level set, with and
+ * without sharing tile visibility between the terrain and image layers. Excluded from the unit tests; run with
+ * <code>./gradlew :worldwind:testDebugUnitTest -Pbenchmarks --tests '*TileVisibilityBenchmark'</code>.
+ */
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class TileVisibilityBenchmark {
+
+    private TileVisibilityTest scene;
+
+    @Before
+    public void setUp() throws Exception {
+        // Use the unit test's globe and render context setup, which also mocks Logger
+        this.scene = new TileVisibilityTest();
+        this.scene.setUp();
+    }
+
+    @Test
+    public void benchmarkRender() throws Exception {
+        BasicTessellator tessellator = new BasicTessellator();
+        LayerList layers = new LayerList();
+        for (int idx = 0; idx < 5; idx++) {
+            layers.addLayer(this.scene.imageryLayer(45, 4));
+        }
+
+        RenderContext shared = this.scene.renderContext(new TileVisibility());
+        RenderContext unshared = this.scene.renderContext(null);
+        int frameCount = 1000;
+        long sharedNanos = 0, unsharedNanos = 0;
+
+        for (int pass = 0; pass < 3; pass++) { // the first passes warm up the JIT compiler
+            long start = System.nanoTime();
+            for (int frame = 0; frame < frameCount; frame++) {
+                shared.tileVisibility.clear();
+                this.scene.renderFrame(shared, tessellator, layers);
+            }
+            sharedNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int frame = 0; frame < frameCount; frame++) {
+                this.scene.renderFrame(unshared, tessellator, layers);
+            }
+            unsharedNanos = System.nanoTime() - start;
+        }
+
+        System.out.printf("TileVisibility: terrain and 5 image layers, %,d distinct tiles, %.3f ms per frame (unshared %.3f ms)%n",
+            shared.tileVisibility.count(), sharedNanos / 1e6 / frameCount, unsharedNanos / 1e6 / frameCount);
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import android.content.res.Resources;
+import android.util.DisplayMetrics;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.WorldWindow;
+import gov.nasa.worldwind.draw.DrawableQueue;
+import gov.nasa.worldwind.geom.Camera;
+import gov.nasa.worldwind.geom.Location;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.globe.BasicTessellator;
+import gov.nasa.worldwind.globe.Globe;
+import gov.nasa.worldwind.globe.ProjectionWgs84;
+import gov.nasa.worldwind.layer.LayerList;
+import gov.nasa.worldwind.layer.RenderableLayer;
+import gov.nasa.worldwind.ogc.WmsTileFactory;
+import gov.nasa.worldwind.render.ImageOptions;
+import gov.nasa.worldwind.render.ImageSource;
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.render.RenderResourceCache;
+import gov.nasa.worldwind.render.Texture;
+import gov.nasa.worldwind.shape.TiledSurfaceImage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class TileVisibilityTest {
+
+    private static final int VIEWPORT_SIZE = 1000;
+
+    private static final double CAMERA_TILT = 45;
+
+    private Globe globe;
+
+    private Resources resources;
+
+    private RenderResourceCache renderResourceCache;
+
+    @Before
+    public void setUp() throws Exception {
+        // Mock all the static methods in Logger
+        PowerMockito.mockStatic(Logger.class);
+
+        this.globe = new Globe(WorldWind.WGS84_ELLIPSOID, new ProjectionWgs84());
+        this.resources = PowerMockito.mock(Resources.class);
+        PowerMockito.when(this.resources.getDisplayMetrics()).thenReturn(new DisplayMetrics());
+        this.renderResourceCache = new RenderResourceCache(64 * 1024 * 1024) {
+            @Override
+            public Texture retrieveTexture(ImageSource imageSource, ImageOptions options) {
+                return null; // no textures are available
+            }
+        };
+    }
+
+    @Test
+    public void testVisibilityKey() throws Exception {
+        LevelSet terrainLevels = new LevelSet(new Sector().setFullSphere(), new Location(-90, -180), 90, 20, 32, 32);
+        LevelSet imageLevels = new LevelSet(new Sector().setFullSphere(), new Location(-90, -180), 45, 20, 256, 256);
+        LevelSet offsetLevels = new LevelSet(new Sector().setFullSphere(), new Location(-90, -179), 45, 20, 256, 256);
+        LevelSet thirdLevels = new LevelSet(new Sector().setFullSphere(), new Location(-90, -180), 36, 20, 256, 256);
+
+        long terrainKey = TileVisibility.visibilityKey(tile(terrainLevels.level(3), 5, 7));
+        long imageKey = TileVisibility.visibilityKey(tile(imageLevels.level(2), 5, 7));
+
+        assertEquals("aligned levels", terrainKey, imageKey);
+        assertNotEquals("different row", terrainKey, TileVisibility.visibilityKey(tile(imageLevels.level(2), 6, 7)));
+        assertNotEquals("different column", terrainKey, TileVisibility.visibilityKey(tile(imageLevels.level(2), 5, 6)));
+        assertNotEquals("different level", terrainKey, TileVisibility.visibilityKey(tile(imageLevels.level(3), 5, 7)));
+        assertNotEquals("different origin", terrainKey, TileVisibility.visibilityKey(tile(offsetLevels.level(2), 5, 7)));
+        assertNotEquals("unaligned levels", terrainKey, TileVisibility.visibilityKey(tile(thirdLevels.level(2), 5, 7)));
+        assertEquals("negative row", TileVisibility.UNSHARED_KEY, TileVisibility.visibilityKey(tile(imageLevels.level(2), -1, 7)));
+    }
+
+    @Test
+    public void testRender_SameTiles() throws Exception {
+        BasicTessellator tessellator = new BasicTessellator();
+        LayerList layers = new LayerList();
+        layers.addLayer(this.imageryLayer(45, 4));
+        layers.addLayer(this.imageryLayer(36, 4));
+        layers.addLayer(this.imageryLayer(45, 2));
+
+        RenderContext unshared = this.renderContext(null);
+        this.renderFrame(unshared, tessellator, layers);
+        RenderContext shared = this.renderContext(new TileVisibility());
+        this.renderFrame(shared, tessellator, layers);
+
+        assertTrue("tiles shared", shared.tileVisibility.count() > 0);
+        assertEquals("terrain tiles", unshared.drawableTerrain.count(), shared.drawableTerrain.count());
+        assertEquals("surface drawables", unshared.drawableQueue.count(), shared.drawableQueue.count());
+        for (int idx = 0, len = unshared.drawableQueue.count(); idx < len; idx++) {
+            assertEquals("surface drawable " + idx, unshared.drawableQueue.getDrawable(idx).getClass(), shared.drawableQueue.getDrawable(idx).getClass());
+        }
+    }
+
+    void renderFrame(RenderContext rc, BasicTessellator tessellator, LayerList layers) {
+        rc.drawableQueue.clearDrawables();
+        rc.drawableTerrain.clearDrawables();
+        tessellator.tessellate(rc);
+        layers.render(rc);
+    }
+
+    RenderContext renderContext(TileVisibility tileVisibility) {
+        double latitude = 30, longitude = -100, altitude = 1e5;
+
+        RenderContext rc = new RenderContext();
+        rc.tileVisibility = tileVisibility;
+        rc.globe = this.globe;
+        rc.resources = this.resources;
+        rc.renderResourceCache = this.renderResourceCache;
+        rc.drawableQueue = new DrawableQueue();
+        rc.drawableTerrain = new DrawableQueue();
+        rc.camera = new Camera(PowerMockito.mock(WorldWindow.class)).set(latitude, longitude, altitude, WorldWind.ABSOLUTE, 0, CAMERA_TILT, 0);
+        rc.cameraPoint = this.globe.geographicToCartesian(latitude, longitude, altitude, rc.cameraPoint);
+        rc.horizonDistance = this.globe.horizonDistance(altitude);
+        rc.viewport.set(0, 0, VIEWPORT_SIZE, VIEWPORT_SIZE);
+        rc.projection.setToPerspectiveProjection(VIEWPORT_SIZE, VIEWPORT_SIZE, rc.camera.getFieldOfView(), altitude * 0.1, rc.horizonDistance + 1e6);
+        this.globe.geographicToCartesianTransform(latitude, longitude, altitude, rc.modelview);
+        rc.modelview.multiplyByRotation(1, 0, 0, CAMERA_TILT); // look toward the horizon
+        rc.modelview.invertOrthonormal();
+        rc.modelviewProjection.setToMultiply(rc.projection, rc.modelview);
+        rc.frustum.setToModelviewProjection(rc.projection, rc.modelview, rc.viewport);
+        return rc;
+    }
+
+    RenderableLayer imageryLayer(double firstLevelDelta, double detailControl) {
+        TiledSurfaceImage surfaceImage = new TiledSurfaceImage();
+        surfaceImage.setLevelSet(new LevelSet(new Sector().setFullSphere(), new Location(-90, -180), firstLevelDelta, 20, 256, 256));
+        surfaceImage.setTileFactory(new WmsTileFactory("http://worldwind25.arc.nasa.gov/wms", "1.3.0", "BlueMarble-200405", null));
+        surfaceImage.setDetailControl(detailControl);
+        RenderableLayer layer = new RenderableLayer("imagery");
+        layer.addRenderable(surfaceImage);
+        return layer;
+    }
+
+    private static Tile tile(Level level, int row, int column) {
+        Location origin = level.parent.tileOrigin;
+        Sector sector = new Sector(origin.latitude + row * level.tileDelta, origin.longitude + column * level.tileDelta, level.tileDelta, level.tileDelta);
+        return new Tile(sector, level, row, column);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util.glu.tessellator;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Reports the number of polygons tessellated per second and the bytes allocated per polygon when tessellating simple
+ * polygons like those loaded from vector datasets, with and without the ear clipping fast path. Excluded from the unit
+ * tests; run with <code>./gradlew :worldwind:testDebugUnitTest -Pbenchmarks --tests '*GLUtessellatorImplBenchmark'</code>.
+ */
+public class GLUtessellatorImplBenchmark {
+
+    @Test
+    public void benchmarkTessellate() throws Exception {
+        Random random = new Random(51);
+        List<double[][]> polygons = new ArrayList<>();
+        for (int idx = 0; idx < 2000; idx++) {
+            polygons.add(GLUtessellatorImplTest.randomPolygon(random));
+        }
+
+        GLUtessellatorImplTest.Result earClipping = new GLUtessellatorImplTest.Result(true);
+        GLUtessellatorImplTest.Result sweep = new GLUtessellatorImplTest.Result(false);
+        long earClippingNanos = 0, sweepNanos = 0, earClippingBytes = 0, sweepBytes = 0;
+        for (int pass = 0; pass < 3; pass++) { // the first passes warm up the JIT compiler
+            long bytes = allocatedBytes();
+            long start = System.nanoTime();
+            for (int idx = 0, len = polygons.size(); idx < len; idx++) {
+                earClipping.tessellate(polygons.get(idx));
+            }
+            earClippingNanos = System.nanoTime() - start;
+            earClippingBytes = allocatedBytes() - bytes;
+
+            bytes = allocatedBytes();
+            start = System.nanoTime();
+            for (int idx = 0, len = polygons.size(); idx < len; idx++) {
+                sweep.tessellate(polygons.get(idx));
+            }
+            sweepNanos = System.nanoTime() - start;
+            sweepBytes = allocatedBytes() - bytes;
+        }
+
+        int count = polygons.size();
+        System.out.printf("GLUtessellatorImpl: %,.0f polygons/s, %,d bytes allocated per polygon (sweep only %,.0f polygons/s, %,d bytes per polygon)%n",
+            count * 1e9 / earClippingNanos, earClippingBytes / count, count * 1e9 / sweepNanos, sweepBytes / count);
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        } else {
+            return 0;
+        }
+    }
+}
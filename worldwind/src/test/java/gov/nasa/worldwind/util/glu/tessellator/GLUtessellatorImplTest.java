@@ -0,0 +1,509 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util.glu.tessellator;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import gov.nasa.worldwind.util.glu.GLU;
+import gov.nasa.worldwind.util.glu.GLUtessellator;
+import gov.nasa.worldwind.util.glu.GLUtessellatorCallbackAdapter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GLUtessellatorImplTest {
+
+    /**
+     * Orthonormal bases of the planes polygons are tessellated in when the tessellator computes the polygon normal: the
+     * XY, XZ and YZ planes, and a plane tilted with respect to every axis.
+     */
+    private static final double[][][] PLANES = {
+        {{1, 0, 0}, {0, 1, 0}},
+        {{1, 0, 0}, {0, 0, 1}},
+        {{0, 1, 0}, {0, 0, 1}},
+        {{Math.sqrt(0.5), Math.sqrt(0.5), 0}, {-Math.sqrt(1 / 6.0), Math.sqrt(1 / 6.0), Math.sqrt(2 / 3.0)}}};
+
+    @Test
+    public void testEarClipping_Convex() throws Exception {
+        double[][] contour = regularPolygon(0, 0, 1, 7, false);
+
+        Result result = new Result(true).tessellate(contour);
+
+        assertEquals("ear clipped", 0, result.sweepCount);
+        assertEquals("triangle count", 5, result.triangleCount());
+        assertEquals("area", Math.abs(area(contour)), result.area(), 1e-12);
+        assertTrue("counterclockwise", result.isCounterClockwise());
+        assertEquals("boundary edges", edges(contour), result.boundaryEdges());
+    }
+
+    @Test
+    public void testEarClipping_Clockwise() throws Exception {
+        double[][] contour = regularPolygon(0, 0, 1, 6, true);
+
+        Result result = new Result(true).tessellate(contour);
+
+        assertEquals("ear clipped", 0, result.sweepCount);
+        assertEquals("triangle count", 4, result.triangleCount());
+        assertEquals("area", Math.abs(area(contour)), result.area(), 1e-12);
+        assertTrue("counterclockwise", result.isCounterClockwise());
+        assertEquals("boundary edges", edges(contour), result.boundaryEdges());
+    }
+
+    @Test
+    public void testEarClipping_Concave() throws Exception {
+        double[][] contour = star(10, 20, 0.3, 1, false);
+
+        Result result = new Result(true).tessellate(contour);
+        Result expected = new Result(false).tessellate(contour);
+
+        assertEquals("ear clipped", 0, result.sweepCount);
+        assertEquals("triangle count", 18, result.triangleCount());
+        assertEquals("area", expected.area(), result.area(), 1e-12);
+        assertTrue("counterclockwise", result.isCounterClockwise());
+        assertEquals("boundary edges", edges(contour), result.boundaryEdges());
+    }
+
+    @Test
+    public void testEarClipping_ClosedContour() throws Exception {
+        double[][] contour = star(0, 0, 0.5, 1, true); // the last vertex repeats the first
+        double[][] open = new double[contour.length - 1][];
+        System.arraycopy(contour, 0, open, 0, open.length);
+
+        Result result = new Result(true).tessellate(contour);
+
+        assertEquals("ear clipped", 0, result.sweepCount);
+        assertEquals("no combined vertices", contour.length, result.coords.size());
+        assertEquals("triangle count", open.length - 2, result.triangleCount());
+        assertEquals("area", Math.abs(area(open)), result.area(), 1e-12);
+        assertEquals("boundary edges", edges(contour), result.boundaryEdges());
+    }
+
+    @Test
+    public void testEarClipping_CollinearVertices() throws Exception {
+        double[][] contour = {{0, 0}, {1, 0}, {2, 0}, {2, 1}, {2, 2}, {0, 2}};
+
+        Result result = new Result(true).tessellate(contour);
+
+        assertEquals("ear clipped", 0, result.sweepCount);
+        assertEquals("area", 4, result.area(), 1e-12);
+        assertEquals("boundary edges", edges(contour), result.boundaryEdges());
+    }
+
+    @Test
+    public void testEarClipping_SelfIntersecting() throws Exception {
+        double[][] bowtie = {{0, 0}, {2, 2}, {2, 0}, {0, 2}};
+
+        Result result = new Result(true).tessellate(bowtie);
+        Result expected = new Result(false).tessellate(bowtie);
+
+        assertEquals("swept", 1, result.sweepCount);
+        assertEquals("triangles", expected.triangles, result.triangles);
+        assertEquals("edge flags", expected.edgeFlags, result.edgeFlags);
+    }
+
+    @Test
+    public void testEarClipping_MultipleContours() throws Exception {
+        double[][] outer = regularPolygon(0, 0, 2, 4, false);
+        double[][] inner = regularPolygon(0, 0, 1, 4, true);
+
+        Result result = new Result(true).tessellate(outer, inner);
+        Result expected = new Result(false).tessellate(outer, inner);
+
+        assertEquals("swept", 1, result.sweepCount);
+        assertEquals("triangles", expected.triangles, result.triangles);
+    }
+
+    @Test
+    public void testEarClipping_WindingRule() throws Exception {
+        double[][] clockwise = regularPolygon(0, 0, 1, 5, true);
+
+        Result result = new Result(true);
+        GLU.gluTessProperty(result.tess, GLU.GLU_TESS_WINDING_RULE, GLU.GLU_TESS_WINDING_POSITIVE);
+        Result expected = new Result(false);
+        GLU.gluTessProperty(expected.tess, GLU.GLU_TESS_WINDING_RULE, GLU.GLU_TESS_WINDING_POSITIVE);
+
+        assertEquals("triangle count", expected.tessellate(clockwise).triangleCount(), result.tessellate(clockwise).triangleCount());
+        assertEquals("no interior", 0, result.triangleCount());
+    }
+
+    @Test
+    public void testEarClipping_RandomPolygons() throws Exception {
+        Random random = new Random(50);
+        for (int idx = 0; idx < 500; idx++) {
+            double[][] contour = randomPolygon(random);
+
+            Result result = new Result(true).tessellate(contour);
+            Result expected = new Result(false).tessellate(contour);
+
+            assertEquals("area " + idx, expected.area(), result.area(), 1e-9);
+            assertTrue("counterclockwise " + idx, result.isCounterClockwise());
+            if (result.sweepCount == 0) {
+                assertEquals("boundary edges " + idx, edges(contour), result.boundaryEdges());
+            }
+        }
+    }
+
+    @Test
+    public void testEarClipping_ComputedNormal_Fan() throws Exception {
+        for (double[][] plane : PLANES) {
+            for (boolean clockwise : new boolean[]{false, true}) {
+                double[][] contour = regularPolygon(0, 0, 1, 7, clockwise);
+                String message = planeName(plane) + (clockwise ? " clockwise" : " counterclockwise");
+
+                Result result = new Result(true, null).inPlane(plane).tessellate(contour);
+                Result expected = new Result(false, null).inPlane(plane).tessellate(contour);
+
+                assertEquals("ear clipped " + message, 0, result.sweepCount);
+                assertEquals("triangle count " + message, 5, result.triangleCount());
+                assertEquals("area " + message, Math.abs(area(contour)), result.area(), 1e-12);
+                assertTrue("orientation " + message, result.isOriented(clockwise));
+                assertTrue("sweep orientation " + message, expected.isOriented(clockwise));
+                assertEquals("boundary edges " + message, edges(contour), result.boundaryEdges());
+            }
+        }
+    }
+
+    @Test
+    public void testEarClipping_ComputedNormal_Concave() throws Exception {
+        for (double[][] plane : PLANES) {
+            for (boolean clockwise : new boolean[]{false, true}) {
+                // The star's second vertex is reflex, so the first triangle of the fan from its first vertex faces away
+                // from the contour's normal.
+                double[][] contour = star(10, 20, 0.3, 1, false);
+                if (clockwise) {
+                    reverse(contour);
+                }
+                String message = planeName(plane) + (clockwise ? " clockwise" : " counterclockwise");
+
+                Result result = new Result(true, null).inPlane(plane).tessellate(contour);
+                Result expected = new Result(false, null).inPlane(plane).tessellate(contour);
+
+                assertEquals("ear clipped " + message, 0, result.sweepCount);
+                assertEquals("triangle count " + message, 18, result.triangleCount());
+                assertEquals("area " + message, expected.area(), result.area(), 1e-9);
+                assertTrue("orientation " + message, result.isOriented(clockwise));
+                assertTrue("sweep orientation " + message, expected.isOriented(clockwise));
+                assertEquals("boundary edges " + message, edges(contour), result.boundaryEdges());
+            }
+        }
+    }
+
+    @Test
+    public void testEarClipping_ComputedNormal_WindingRule() throws Exception {
+        double[][] convex = regularPolygon(0, 0, 1, 5, true);
+        double[][] concave = star(0, 0, 0.3, 1, false);
+        double[][] concaveClockwise = star(0, 0, 0.3, 1, false);
+        reverse(concaveClockwise);
+
+        for (double[][] plane : PLANES) {
+            for (double[][] contour : new double[][][]{convex, concave, concaveClockwise}) {
+                String message = planeName(plane) + " " + contour.length + " vertices " + area(contour);
+
+                Result result = new Result(true, null).inPlane(plane);
+                GLU.gluTessProperty(result.tess, GLU.GLU_TESS_WINDING_RULE, GLU.GLU_TESS_WINDING_POSITIVE);
+                Result expected = new Result(false, null).inPlane(plane);
+                GLU.gluTessProperty(expected.tess, GLU.GLU_TESS_WINDING_RULE, GLU.GLU_TESS_WINDING_POSITIVE);
+
+                // With a computed normal, every contour winds positively.
+                assertEquals("sweep triangle count " + message, contour.length - 2, expected.tessellate(contour).triangleCount());
+                assertEquals("triangle count " + message, contour.length - 2, result.tessellate(contour).triangleCount());
+                assertEquals("ear clipped " + message, 0, result.sweepCount);
+            }
+        }
+    }
+
+    @Test
+    public void testEarClipping_ComputedNormal_RandomPolygons() throws Exception {
+        Random random = new Random(52);
+        for (int idx = 0; idx < 500; idx++) {
+            double[][] plane = PLANES[idx % PLANES.length];
+            double[][] contour = randomPolygon(random);
+            boolean clockwise = area(contour) < 0;
+
+            Result result = new Result(true, null).inPlane(plane).tessellate(contour);
+            Result expected = new Result(false, null).inPlane(plane).tessellate(contour);
+
+            assertEquals("area " + idx, expected.area(), result.area(), 1e-9);
+            assertTrue("orientation " + idx, result.isOriented(clockwise));
+            if (result.sweepCount == 0) {
+                assertEquals("boundary edges " + idx, edges(contour), result.boundaryEdges());
+            }
+        }
+    }
+
+    @Test
+    public void testSweep_ReusesStructures() throws Exception {
+        Random random = new Random(53);
+        List<double[][][]> polygons = new ArrayList<>();
+        polygons.add(new double[][][]{{{0, 0}, {2, 2}, {2, 0}, {0, 2}}}); // self-intersecting
+        polygons.add(new double[][][]{regularPolygon(0, 0, 2, 4, false), regularPolygon(0, 0, 1, 4, true)}); // hole
+        for (int idx = 0; idx < 200; idx++) {
+            polygons.add(new double[][][]{randomPolygon(random)});
+        }
+
+        Result reused = new Result(false);
+        GLUtessellatorImpl tess = (GLUtessellatorImpl) reused.tess;
+        for (int pass = 0; pass < 2; pass++) { // the first pass fills the pools
+            for (int idx = 0, len = polygons.size(); idx < len; idx++) {
+                Result expected = new Result(false).tessellate(polygons.get(idx));
+                reused.tessellate(polygons.get(idx));
+
+                assertEquals("vertices " + idx, expected.coords.size(), reused.coords.size());
+                assertEquals("triangles " + idx, expected.triangles, reused.triangles);
+                assertEquals("edge flags " + idx, expected.edgeFlags, reused.edgeFlags);
+                if (pass > 0) {
+                    assertTrue("pooled vertices " + idx, tess.pooledMesh.vertexCount <= tess.pooledMesh.vertexPool.size());
+                    assertTrue("pooled faces " + idx, tess.pooledMesh.faceCount <= tess.pooledMesh.facePool.size());
+                    assertTrue("pooled edges " + idx, tess.pooledMesh.edgeCount <= tess.pooledMesh.edgePool.size());
+                    assertTrue("pooled regions " + idx, tess.regionCount <= tess.regionPool.size());
+                    assertTrue("pooled dictionary nodes " + idx, tess.dict.nodeCount <= tess.dict.nodePool.size());
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a random polygon with up to 64 vertices: a convex polygon, a star, or a star with a closing vertex.
+     */
+    static double[][] randomPolygon(Random random) {
+        double x = random.nextDouble() * 360 - 180;
+        double y = random.nextDouble() * 180 - 90;
+        switch (random.nextInt(3)) {
+            case 0:
+                return regularPolygon(x, y, 0.1, 3 + random.nextInt(30), random.nextBoolean());
+            case 1:
+                return star(x, y, 0.02 + random.nextDouble() * 0.08, 0.1, false, 3 + random.nextInt(29), random);
+            default:
+                return star(x, y, 0.02 + random.nextDouble() * 0.08, 0.1, true, 3 + random.nextInt(29), random);
+        }
+    }
+
+    private static double[][] regularPolygon(double x, double y, double radius, int count, boolean clockwise) {
+        double[][] contour = new double[count][];
+        for (int idx = 0; idx < count; idx++) {
+            double angle = 2 * Math.PI * idx / count * (clockwise ? -1 : 1);
+            contour[idx] = new double[]{x + radius * Math.cos(angle), y + radius * Math.sin(angle)};
+        }
+        return contour;
+    }
+
+    private static double[][] star(double x, double y, double innerRadius, double outerRadius, boolean closed) {
+        return star(x, y, innerRadius, outerRadius, closed, 10, null);
+    }
+
+    private static double[][] star(double x, double y, double innerRadius, double outerRadius, boolean closed, int points, Random random) {
+        int count = points * 2;
+        double[][] contour = new double[closed ? count + 1 : count][];
+        for (int idx = 0; idx < count; idx++) {
+            double angle = 2 * Math.PI * idx / count;
+            double radius = (idx % 2 == 0) ? outerRadius : innerRadius;
+            if (random != null) {
+                radius *= 0.8 + random.nextDouble() * 0.4;
+            }
+            contour[idx] = new double[]{x + radius * Math.cos(angle), y + radius * Math.sin(angle)};
+        }
+        if (closed) {
+            contour[count] = contour[0];
+        }
+        return contour;
+    }
+
+    private static void reverse(double[][] contour) {
+        for (int i = 0, j = contour.length - 1; i < j; i++, j--) {
+            double[] point = contour[i];
+            contour[i] = contour[j];
+            contour[j] = point;
+        }
+    }
+
+    private static String planeName(double[][] plane) {
+        return Arrays.toString(plane[0]) + " " + Arrays.toString(plane[1]);
+    }
+
+    private static double area(double[][] contour) {
+        double area = 0;
+        for (int idx = 0, len = contour.length; idx < len; idx++) {
+            double[] a = contour[idx], b = contour[(idx + 1) % len];
+            area += a[0] * b[1] - b[0] * a[1];
+        }
+        return area * 0.5;
+    }
+
+    /**
+     * Returns the contour's edges as pairs of vertex indices, omitting vertices that repeat the previous vertex.
+     */
+    private static Set<String> edges(double[][] contour) {
+        List<Integer> vertices = new ArrayList<>();
+        for (int idx = 0, len = contour.length; idx < len; idx++) {
+            if (idx == 0 || !Arrays.equals(contour[idx], contour[vertices.get(vertices.size() - 1)])) {
+                vertices.add(idx);
+            }
+        }
+        if (vertices.size() > 1 && Arrays.equals(contour[vertices.get(0)], contour[vertices.get(vertices.size() - 1)])) {
+            vertices.remove(vertices.size() - 1);
+        }
+
+        Set<String> edges = new HashSet<>();
+        for (int idx = 0, len = vertices.size(); idx < len; idx++) {
+            edges.add(edgeKey(vertices.get(idx), vertices.get((idx + 1) % len)));
+        }
+        return edges;
+    }
+
+    private static String edgeKey(int a, int b) {
+        return Math.min(a, b) + "-" + Math.max(a, b);
+    }
+
+    /**
+     * Tessellates polygons with a tessellator configured the way Polygon configures it, recording the triangles and
+     * their boundary edges. Polygons are specified as two-dimensional contours, and placed in the XY plane unless
+     * another plane is specified.
+     */
+    static class Result extends GLUtessellatorCallbackAdapter {
+
+        public GLUtessellator tess = GLU.gluNewTess();
+
+        public List<double[]> coords = new ArrayList<>();
+
+        public List<Integer> triangles = new ArrayList<>();
+
+        public List<Boolean> edgeFlags = new ArrayList<>();
+
+        public int sweepCount;
+
+        private boolean edgeFlag = true;
+
+        private double[] vertexCoords = new double[3];
+
+        private double[] xAxis = {1, 0, 0};
+
+        private double[] yAxis = {0, 1, 0};
+
+        public Result(boolean earClipping) {
+            this(earClipping, new double[]{0, 0, 1});
+        }
+
+        /**
+         * @param earClipping whether to try ear clipping before the sweep
+         * @param normal      the polygon normal, or null to let the tessellator compute the normal
+         */
+        public Result(boolean earClipping, double[] normal) {
+            ((GLUtessellatorImpl) this.tess).useEarClipping = earClipping;
+            if (normal != null) {
+                GLU.gluTessNormal(this.tess, normal[0], normal[1], normal[2]);
+            }
+            GLU.gluTessCallback(this.tess, GLU.GLU_TESS_COMBINE_DATA, this);
+            GLU.gluTessCallback(this.tess, GLU.GLU_TESS_VERTEX_DATA, this);
+            GLU.gluTessCallback(this.tess, GLU.GLU_TESS_EDGE_FLAG_DATA, this);
+        }
+
+        public Result inPlane(double[][] plane) {
+            this.xAxis = plane[0];
+            this.yAxis = plane[1];
+            return this;
+        }
+
+        public Result tessellate(double[][]... contours) {
+            this.coords.clear();
+            this.triangles.clear();
+            this.edgeFlags.clear();
+            int sweepCount = ((GLUtessellatorImpl) this.tess).sweepCount;
+
+            GLU.gluTessBeginPolygon(this.tess, null);
+            for (double[][] contour : contours) {
+                GLU.gluTessBeginContour(this.tess);
+                for (double[] point : contour) {
+                    int vertex = this.coords.size();
+                    this.coords.add(point);
+                    for (int axis = 0; axis < 3; axis++) {
+                        this.vertexCoords[axis] = point[0] * this.xAxis[axis] + point[1] * this.yAxis[axis];
+                    }
+                    GLU.gluTessVertex(this.tess, this.vertexCoords, 0, vertex);
+                }
+                GLU.gluTessEndContour(this.tess);
+            }
+            GLU.gluTessEndPolygon(this.tess);
+
+            this.sweepCount = ((GLUtessellatorImpl) this.tess).sweepCount - sweepCount;
+            return this;
+        }
+
+        public int triangleCount() {
+            return this.triangles.size() / 3;
+        }
+
+        public double area() {
+            double area = 0;
+            for (int idx = 0, len = this.triangles.size(); idx < len; idx += 3) {
+                area += Math.abs(this.triangleArea(idx));
+            }
+            return area;
+        }
+
+        public boolean isCounterClockwise() {
+            return this.isOriented(false);
+        }
+
+        /**
+         * Indicates whether every triangle is clockwise, or every triangle is counter-clockwise, in the two-dimensional
+         * coordinates of the tessellated contours.
+         */
+        public boolean isOriented(boolean clockwise) {
+            for (int idx = 0, len = this.triangles.size(); idx < len; idx += 3) {
+                if (clockwise ? this.triangleArea(idx) > 0 : this.triangleArea(idx) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public Set<String> boundaryEdges() {
+            Set<String> edges = new HashSet<>();
+            for (int idx = 0, len = this.triangles.size(); idx < len; idx += 3) {
+                for (int vertex = 0; vertex < 3; vertex++) {
+                    if (this.edgeFlags.get(idx + vertex)) {
+                        edges.add(edgeKey(this.triangles.get(idx + vertex), this.triangles.get(idx + (vertex + 1) % 3)));
+                    }
+                }
+            }
+            return edges;
+        }
+
+        private double triangleArea(int idx) {
+            double[] a = this.coords.get(this.triangles.get(idx));
+            double[] b = this.coords.get(this.triangles.get(idx + 1));
+            double[] c = this.coords.get(this.triangles.get(idx + 2));
+            return 0.5 * ((b[0] - a[0]) * (c[1] - a[1]) - (c[0] - a[0]) * (b[1] - a[1]));
+        }
+
+        @Override
+        public void combineData(double[] coords, Object[] data, float[] weight, Object[] outData, Object polygonData) {
+            // Project the combined vertex back to the two-dimensional coordinates of the tessellated contours.
+            double x = coords[0] * this.xAxis[0] + coords[1] * this.xAxis[1] + coords[2] * this.xAxis[2];
+            double y = coords[0] * this.yAxis[0] + coords[1] * this.yAxis[1] + coords[2] * this.yAxis[2];
+            outData[0] = this.coords.size();
+            this.coords.add(new double[]{x, y});
+        }
+
+        @Override
+        public void vertexData(Object vertexData, Object polygonData) {
+            this.triangles.add((Integer) vertexData);
+            this.edgeFlags.add(this.edgeFlag);
+        }
+
+        @Override
+        public void edgeFlagData(boolean boundaryEdge, Object polygonData) {
+            this.edgeFlag = boundaryEdge;
+        }
+    }
+}